@@ -36,6 +36,17 @@ public class ControllerFactory implements IControllerFactory
 				gameObjectIdentifier);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	public IGameController createGameController(INavigator navigator,
+			ICommunicator communicator, int players, int gameObjectIdentifier,
+			int rows, int columns)
+	{
+		return new GameController(navigator, this, communicator, players,
+				gameObjectIdentifier, rows, columns);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
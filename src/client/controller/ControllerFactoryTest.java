@@ -131,6 +131,21 @@ public class ControllerFactoryTest
 		assertEquals(10, controller.playerGameObjectId());
 	}
 
+	/**
+	 * Ensures the createGameController method returns a new IGameController
+	 * for a board of the given size.
+	 */
+	@Test
+	public void testCreateGameControllerBoardSize()
+	{
+		IGameController controller = controllerFactory.createGameController(
+				mockNavigator, mockCommunicator, 2, 10, 51, 75);
+		assertNotNull(controller);
+		assertEquals(2, controller.scores().length);
+		assertEquals(51, controller.numberOfRows());
+		assertEquals(75, controller.numberOfColumns());
+	}
+
 	/**
 	 * Ensures the createGameController method throws an exception when the
 	 * navigator is null.
@@ -1,6 +1,7 @@
 package client.controller;
 
 import java.util.*;
+import shared.core.IConsumer;
 import shared.controller.*;
 import shared.model.*;
 import shared.model.communication.*;
@@ -11,6 +12,9 @@ import client.model.*;
  */
 public class GameController extends Controller implements IGameController
 {
+	// the number of applied snapshot states which are kept as baselines of later snapshots
+	private static final int SNAPSHOT_HISTORY_LENGTH = 32;
+
 	// the navigator
 	private final INavigator navigator;
 
@@ -26,8 +30,11 @@ public class GameController extends Controller implements IGameController
 	// the time remaining, in seconds
 	private int remainingTime;
 
-	// the game objects
-	private HashMap<Integer, IGameObject> gameObjects;
+	// the game objects, indexed by their identifier
+	private IGameObject[] gameObjects;
+
+	// the number of game objects in the game objects array
+	private int numberOfGameObjects;
 
 	// the player scores
 	private Score[] scores;
@@ -41,6 +48,35 @@ public class GameController extends Controller implements IGameController
 	// this list should be sorted any time an element is added
 	private List<Integer> playerGameObjectIdList;
 
+	// the size of the board
+	private final int numberOfRows;
+	private final int numberOfColumns;
+
+	// the consumer which processes the messages received from the host
+	private final MessageProcessor messageProcessor;
+
+	// whether the game objects have been modified by the messages processed in the current step
+	private boolean gameObjectsUpdated;
+
+	// the states of the applied snapshots, indexed by tick modulo SNAPSHOT_HISTORY_LENGTH, and
+	// their ticks
+	private final GameState[] snapshotStates;
+	private final int[] snapshotTicks;
+
+	// the state of the latest applied snapshot, which the game objects and scores show, and its
+	// tick
+	private GameState snapshotState;
+	private int snapshotTick;
+
+	// the latest tick acknowledged to the host
+	private int acknowledgedTick;
+
+	// the snapshot whose messages are being received, the state it builds, or null if the snapshot
+	// is skipped, and the number of its messages which have not been received
+	private SnapshotMessage pendingSnapshot;
+	private GameState pendingState;
+	private int numberOfPendingChanges;
+
 	/**
 	 * This is a TimerTask that checks for messages from the server and updates the local game state.
 	 */
@@ -52,6 +88,20 @@ public class GameController extends Controller implements IGameController
 		}
 	}
 
+	/**
+	 * A consumer which processes each message received from the host in the current step.
+	 */
+	protected class MessageProcessor implements IConsumer<IMessage>
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		public void consume(IMessage message)
+		{
+			processMessage(message);
+		}
+	}
+
 	/**
 	 * IGameController constructor.
 	 * 
@@ -74,24 +124,61 @@ public class GameController extends Controller implements IGameController
 	public GameController(INavigator navigator,
 			IControllerFactory controllerFactory, ICommunicator communicator,
 			int numPlayers, int gameObjectIdentifier)
+	{
+		this(navigator, controllerFactory, communicator, numPlayers,
+				gameObjectIdentifier, GameConfiguration.DEFAULT_NUMBER_OF_ROWS,
+				GameConfiguration.DEFAULT_NUMBER_OF_COLUMNS);
+	}
+
+	/**
+	 * IGameController constructor for a board of the given size.
+	 * 
+	 * @param navigator
+	 *            The navigator.
+	 * @param communicator
+	 *            A communicator connected to a server.
+	 * @param controllerFactory
+	 *            The controllerFactory.
+	 * @param numPlayers
+	 *            The number of players in this game.
+	 * @param gameObjectIdentifier
+	 *            The game object identifier of the player on this client.
+	 * @param rows
+	 *            The number of rows of the board.
+	 * @param columns
+	 *            The number of columns of the board.
+	 * @throws NullPointerException
+	 *             Thrown if navigator controllerFactory, or communicator is
+	 *             null.
+	 * @throws IllegalArgumentException
+	 *             Thrown if communicator is not connected to a server or the
+	 *             board size is not positive.
+	 */
+	public GameController(INavigator navigator,
+			IControllerFactory controllerFactory, ICommunicator communicator,
+			int numPlayers, int gameObjectIdentifier, int rows, int columns)
 	{
 		if (navigator == null || controllerFactory == null)
 			throw new NullPointerException();
 
-		if (!communicator.connected())
+		if (!communicator.connected() || rows < 1 || columns < 1)
 			throw new IllegalArgumentException();
 
 		this.navigator = navigator;
 		this.controllerFactory = controllerFactory;
 		this.communicator = communicator;
 		this.playerGameObjectId = gameObjectIdentifier;
+		this.numberOfRows = rows;
+		this.numberOfColumns = columns;
 		// max number of players is 4
 		playerGameObjectIdList = new ArrayList<Integer>(4);
 		remainingTime = 0;
 
+		messageProcessor = new MessageProcessor();
 		timer = new Timer();
 
-		this.gameObjects = new HashMap<Integer, IGameObject>();
+		this.gameObjects = new IGameObject[64];
+		this.numberOfGameObjects = 0;
 		scores = new Score[numPlayers];
 
 		for (int i = 0; i < scores.length; i++)
@@ -100,6 +187,13 @@ public class GameController extends Controller implements IGameController
 			// identifier will be changed when the score is first updated
 			scores[i] = new Score(-1, 0);
 		}
+
+		snapshotStates = new GameState[SNAPSHOT_HISTORY_LENGTH];
+		snapshotTicks = new int[SNAPSHOT_HISTORY_LENGTH];
+		Arrays.fill(snapshotTicks, -1);
+		snapshotState = new GameState();
+		snapshotTick = -1;
+		acknowledgedTick = -1;
 	}
 
 	/**
@@ -154,7 +248,19 @@ public class GameController extends Controller implements IGameController
 	 */
 	public IGameObject[] gameObjects()
 	{
-		return gameObjects.values().toArray(new IGameObject[0]);
+		IGameObject[] result = new IGameObject[numberOfGameObjects];
+		int index = 0;
+
+		for (IGameObject gameObject : gameObjects)
+		{
+			if (gameObject != null)
+			{
+				result[index] = gameObject;
+				index++;
+			}
+		}
+
+		return result;
 	}
 
 	/**
@@ -165,11 +271,12 @@ public class GameController extends Controller implements IGameController
 		if (gameObjects == null)
 			throw new NullPointerException();
 
-		// create a new map of game objects
-		this.gameObjects = new HashMap<Integer, IGameObject>();
+		// create a new array of game objects
+		this.gameObjects = new IGameObject[64];
+		this.numberOfGameObjects = 0;
 		for (IGameObject gameObject : gameObjects)
 		{
-			this.gameObjects.put(gameObject.identifier(), gameObject);
+			putGameObject(gameObject);
 		}
 
 		propertyDidChange("gameObjects");
@@ -188,139 +295,313 @@ public class GameController extends Controller implements IGameController
 	 */
 	public void step()
 	{
-		boolean gameObjectsUpdatedFlag = false;
+		gameObjectsUpdated = false;
 
 		try
 		{
-			for (IMessage message : communicator.receivedMessages())
+			// process all messages received from the host without copying them
+			communicator.drainTo(messageProcessor);
+
+			// acknowledge the latest snapshot applied in this step, if there is one
+			if (snapshotTick > acknowledgedTick)
 			{
-				// process all messages received from the host
-				if (message instanceof GameObjectCreatedMessage)
-				{
-					// create the object and add it to the map
-					GameObjectCreatedMessage createdMessage = (GameObjectCreatedMessage) message;
-					IGameObject gameObject = new GameObject(createdMessage
-							.gameObjectIdentifier(), createdMessage
-							.gameObjectType(), createdMessage.row(),
-							createdMessage.column());
-					gameObjects.put(gameObject.identifier(), gameObject);
-
-					// if gameObject is a player being created for the first
-					// time, map gameObjectId to player number
-					if (gameObject.gameObjectType() == GameObjectType.PLAYER
-							&& !playerGameObjectIdList.contains(gameObject
-									.identifier()))
-					{
-						playerGameObjectIdList.add(gameObject.identifier());
-						
-						// sort the playerGameObjectIdList
-						Collections.sort(playerGameObjectIdList,
-								new Comparator<Integer>()
-								{
-									public int compare(Integer lhs, Integer rhs)
-									{
-										// use natural ordering
-										return lhs.compareTo(rhs);
-									}
-
-								});
-					}
-
-					gameObjectsUpdatedFlag = true;
-				} else if (message instanceof GameObjectUpdatedMessage)
-				{
-					GameObjectUpdatedMessage updatedMessage = (GameObjectUpdatedMessage) message;
+				communicator.sendMessage(new AcknowledgementMessage(playerGameObjectId,
+						snapshotTick));
+				acknowledgedTick = snapshotTick;
+			}
+		} catch (CommunicationException exception)
+		{
+			// navigate to the connection failure screen
+			IConnectionFailureController connectionFailureController = controllerFactory
+					.createConnectionFailureController(navigator, exception
+							.getMessage());
+			navigator.replaceTop(connectionFailureController);
+			timer.cancel();
+		}
 
-					// try to get the game object
-					IGameObject gameObject = gameObjects.get(updatedMessage
-							.gameObjectIdentifier());
+		// fire property change for gameObjects if they have been modified during this step
+		// allows game view to update
+		if (gameObjectsUpdated)
+			propertyDidChange("gameObjects");
 
-					// game object updated message has to refer to a game object in this game
-					if (gameObject == null)
-						throw new IllegalStateException();
+		gameObjectsUpdated = false;
+	}
 
-					// update the object
-					gameObject.setRow(updatedMessage.row());
-					gameObject.setColumn(updatedMessage.column());
-					gameObjectsUpdatedFlag = true;
-				} else if (message instanceof GameObjectDestroyedMessage)
-				{
-					GameObjectDestroyedMessage destroyedMessage = (GameObjectDestroyedMessage) message;
+	/**
+	 * Processes a message received from the host.
+	 * 
+	 * @param message
+	 *            The message.
+	 * @throws IllegalStateException
+	 *             Thrown if the message is unrecognized or does not fit the
+	 *             state of the game.
+	 */
+	private void processMessage(IMessage message)
+	{
+		if (numberOfPendingChanges > 0)
+		{
+			// the message is part of a snapshot
+			if (pendingState != null)
+				pendingState.apply(message);
 
-					// try to get the game object
-					IGameObject gameObject = gameObjects.get(destroyedMessage
-							.gameObjectIdentifier());
+			numberOfPendingChanges--;
 
-					// game object destroyed message has to refer to a game object in this game
-					if (gameObject == null)
-						throw new IllegalStateException();
+			if (numberOfPendingChanges == 0)
+				applySnapshot();
+		} else if (message instanceof SnapshotMessage)
+		{
+			SnapshotMessage snapshotMessage = (SnapshotMessage) message;
+			GameState baseline = snapshotMessage.keyframe() ? new GameState()
+					: snapshotState(snapshotMessage.baselineTick());
+
+			// skip the snapshot if a later one has been applied or its baseline is not held
+			pendingSnapshot = snapshotMessage;
+			pendingState = snapshotMessage.tick() > snapshotTick && baseline != null
+					? new GameState(baseline) : null;
+			numberOfPendingChanges = snapshotMessage.numberOfChanges();
+
+			if (numberOfPendingChanges == 0)
+				applySnapshot();
+		} else if (message instanceof GameObjectCreatedMessage)
+		{
+			// create the object and add it to the map
+			GameObjectCreatedMessage createdMessage = (GameObjectCreatedMessage) message;
+			IGameObject gameObject = new GameObject(createdMessage
+					.gameObjectIdentifier(), createdMessage
+					.gameObjectType(), createdMessage.row(),
+					createdMessage.column());
+			putGameObject(gameObject);
+
+			// if gameObject is a player being created for the first
+			// time, map gameObjectId to player number
+			if (gameObject.gameObjectType() == GameObjectType.PLAYER)
+				addPlayerGameObjectId(gameObject.identifier());
+
+			gameObjectsUpdated = true;
+		} else if (message instanceof BoardSnapshotMessage)
+		{
+			BoardSnapshotMessage boardSnapshotMessage = (BoardSnapshotMessage) message;
+			int space = boardSnapshotMessage.firstSpace();
+			int identifier = boardSnapshotMessage.firstIdentifier();
 
-					// remove the objects from the game objects
-					gameObjects.remove(gameObject.identifier());
-					gameObjectsUpdatedFlag = true;
-				} else if (message instanceof ScoreUpdatedMessage)
-				{
-					ScoreUpdatedMessage scoreMessage = (ScoreUpdatedMessage) message;
+			// expand the runs in one pass, creating the game objects of
+			// the occupied spaces with consecutive identifiers
+			for (int i = 0; i < boardSnapshotMessage.numberOfRuns(); i++)
+			{
+				GameObjectType type = boardSnapshotMessage.runType(i);
 
-					// get the player number for the score message
-					int playerNumber = playerGameObjectIdList
-							.indexOf(scoreMessage.gameObjectIdentifier()) + 1;
+				for (int j = 0; j < boardSnapshotMessage.runLength(i); j++, space++)
+				{
+					if (type == null)
+						continue;
 
-					// if player number > 4 or we don't have a player with that
-					// game object identifier, throw ISE
-					if (playerNumber > scores.length || playerNumber == 0)
-					{
-						throw new IllegalStateException();
-					}
+					putGameObject(new GameObject(identifier, type, space
+							/ numberOfColumns, space % numberOfColumns));
 
-					// update corresponding score
-					scores[playerNumber - 1] = new Score(scoreMessage
-							.gameObjectIdentifier(), scoreMessage.score());
-					propertyDidChange("scores");
+					if (type == GameObjectType.PLAYER)
+						addPlayerGameObjectId(identifier);
 
-				} else if (message instanceof GameMessage)
-				{
-					GameMessage gameMessage = (GameMessage) message;
-					if (gameMessage.action() == GameMessage.Action.STOP)
-					{
-						// game has been stopped, navigate to game over view
-						IGameOverController gameOverController = controllerFactory
-								.createGameOverController(navigator, scores,
-										communicator);
-						navigator.replaceTop(gameOverController);
-					} else
-					{
-						// game should never be started or waiting after it is
-						// already started.
-						throw new IllegalStateException();
-					}
-				} else if (message instanceof GameTimeMessage)
-				{
-					// update the game time remaining
-					GameTimeMessage gameTimeMessage = (GameTimeMessage) message;
-					setTime(gameTimeMessage.time());
-				} else
-				{
-					// the message is unrecognized
-					throw new IllegalStateException();
+					identifier++;
 				}
 			}
-		} catch (CommunicationException exception)
+
+			gameObjectsUpdated = true;
+		} else if (message instanceof GameObjectUpdatedMessage)
 		{
-			// navigate to the connection failure screen
-			IConnectionFailureController connectionFailureController = controllerFactory
-					.createConnectionFailureController(navigator, exception
-							.getMessage());
-			navigator.replaceTop(connectionFailureController);
-			timer.cancel();
+			GameObjectUpdatedMessage updatedMessage = (GameObjectUpdatedMessage) message;
+
+			// try to get the game object
+			IGameObject gameObject = gameObject(updatedMessage
+					.gameObjectIdentifier());
+
+			// game object updated message has to refer to a game object in this game
+			if (gameObject == null)
+				throw new IllegalStateException();
+
+			// update the object
+			gameObject.setRow(updatedMessage.row());
+			gameObject.setColumn(updatedMessage.column());
+			gameObjectsUpdated = true;
+		} else if (message instanceof GameObjectDestroyedMessage)
+		{
+			GameObjectDestroyedMessage destroyedMessage = (GameObjectDestroyedMessage) message;
+
+			// try to get the game object
+			IGameObject gameObject = gameObject(destroyedMessage
+					.gameObjectIdentifier());
+
+			// game object destroyed message has to refer to a game object in this game
+			if (gameObject == null)
+				throw new IllegalStateException();
+
+			// remove the objects from the game objects
+			gameObjects[gameObject.identifier()] = null;
+			numberOfGameObjects--;
+			gameObjectsUpdated = true;
+		} else if (message instanceof ScoreUpdatedMessage)
+		{
+			ScoreUpdatedMessage scoreMessage = (ScoreUpdatedMessage) message;
+
+			// get the player number for the score message
+			int playerNumber = playerGameObjectIdList
+					.indexOf(scoreMessage.gameObjectIdentifier()) + 1;
+
+			// if player number > 4 or we don't have a player with that
+			// game object identifier, throw ISE
+			if (playerNumber > scores.length || playerNumber == 0)
+			{
+				throw new IllegalStateException();
+			}
+
+			// update corresponding score
+			scores[playerNumber - 1] = new Score(scoreMessage
+					.gameObjectIdentifier(), scoreMessage.score());
+			propertyDidChange("scores");
+
+		} else if (message instanceof GameMessage)
+		{
+			GameMessage gameMessage = (GameMessage) message;
+			if (gameMessage.action() == GameMessage.Action.STOP)
+			{
+				// game has been stopped, navigate to game over view
+				IGameOverController gameOverController = controllerFactory
+						.createGameOverController(navigator, scores,
+								communicator);
+				navigator.replaceTop(gameOverController);
+			} else
+			{
+				// game should never be started or waiting after it is
+				// already started.
+				throw new IllegalStateException();
+			}
+		} else if (message instanceof GameTimeMessage)
+		{
+			// update the game time remaining
+			GameTimeMessage gameTimeMessage = (GameTimeMessage) message;
+			setTime(gameTimeMessage.time());
+		} else
+		{
+			// the message is unrecognized
+			throw new IllegalStateException();
 		}
+	}
 
-		// fire property change for gameObjects if they have been modified during this step
-		// allows game view to update
-		if (gameObjectsUpdatedFlag)
-			propertyDidChange("gameObjects");
+	/**
+	 * Maps the game object identifier of a player to a player number, if it
+	 * has not been mapped yet.
+	 * 
+	 * @param identifier
+	 *            The game object identifier of the player.
+	 */
+	private void addPlayerGameObjectId(int identifier)
+	{
+		if (playerGameObjectIdList.contains(identifier))
+			return;
+
+		playerGameObjectIdList.add(identifier);
+
+		// sort the playerGameObjectIdList
+		Collections.sort(playerGameObjectIdList, new Comparator<Integer>()
+		{
+			public int compare(Integer lhs, Integer rhs)
+			{
+				// use natural ordering
+				return lhs.compareTo(rhs);
+			}
+
+		});
+	}
+
+	/**
+	 * Applies the state built by the pending snapshot, unless it is
+	 * skipped. The game objects and scores are changed by the messages which
+	 * turn the state of the previous snapshot into the new state, and the new
+	 * state is kept as a baseline of later snapshots.
+	 */
+	private void applySnapshot()
+	{
+		GameState state = pendingState;
+		pendingState = null;
+
+		if (state == null)
+			return;
+
+		for (IMessage change : state.changesFrom(snapshotState))
+		{
+			// players are only created while they are on the board, so a
+			// player may be known by its score first
+			if (change instanceof ScoreUpdatedMessage)
+				addPlayerGameObjectId(((ScoreUpdatedMessage) change)
+						.gameObjectIdentifier());
+
+			processMessage(change);
+		}
+
+		snapshotState = state;
+		snapshotTick = pendingSnapshot.tick();
+		snapshotStates[snapshotTick % SNAPSHOT_HISTORY_LENGTH] = state;
+		snapshotTicks[snapshotTick % SNAPSHOT_HISTORY_LENGTH] = snapshotTick;
+	}
+
+	/**
+	 * Returns the state of an applied snapshot.
+	 * 
+	 * @param tick
+	 *            The tick of the snapshot.
+	 * @return The state of the snapshot, or null if it is not held.
+	 */
+	private GameState snapshotState(int tick)
+	{
+		if (snapshotTicks[tick % SNAPSHOT_HISTORY_LENGTH] != tick)
+			return null;
+
+		return snapshotStates[tick % SNAPSHOT_HISTORY_LENGTH];
+	}
+
+	/**
+	 * Returns the game object with the provided identifier.
+	 * 
+	 * @param identifier
+	 *            The identifier of the game object.
+	 * @return The game object with the provided identifier, or null if there
+	 *         is no such game object.
+	 */
+	private IGameObject gameObject(int identifier)
+	{
+		if (identifier < 0 || identifier >= gameObjects.length)
+			return null;
+
+		return gameObjects[identifier];
+	}
+
+	/**
+	 * Adds a game object to the game objects array, replacing any game object
+	 * with the same identifier.
+	 * 
+	 * @param gameObject
+	 *            The game object to add.
+	 * @throws IllegalArgumentException
+	 *             Thrown if the identifier of the game object is negative.
+	 */
+	private void putGameObject(IGameObject gameObject)
+	{
+		if (gameObject.identifier() < 0)
+			throw new IllegalArgumentException();
 
-		gameObjectsUpdatedFlag = false;
+		// grow the game objects array to fit the identifier
+		if (gameObject.identifier() >= gameObjects.length)
+		{
+			IGameObject[] newGameObjects = new IGameObject[Math.max(
+					gameObjects.length * 2, gameObject.identifier() + 1)];
+			System.arraycopy(gameObjects, 0, newGameObjects, 0,
+					gameObjects.length);
+			gameObjects = newGameObjects;
+		}
+
+		if (gameObjects[gameObject.identifier()] == null)
+			numberOfGameObjects++;
+
+		gameObjects[gameObject.identifier()] = gameObject;
 	}
 
 	/**
@@ -383,4 +664,20 @@ public class GameController extends Controller implements IGameController
 		this.remainingTime = time;
 		propertyDidChange("time");
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public int numberOfRows()
+	{
+		return numberOfRows;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public int numberOfColumns()
+	{
+		return numberOfColumns;
+	}
 }
@@ -6,7 +6,9 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -20,16 +22,23 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
+import org.mockito.Matchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import shared.controller.INavigator;
 import shared.core.ICommand;
+import shared.core.IConsumer;
 import shared.model.GameObjectType;
 import shared.model.IScore;
 import shared.model.Key;
 import shared.model.KeyAction;
+import shared.model.communication.AcknowledgementMessage;
+import shared.model.communication.BoardSnapshotMessage;
 import shared.model.communication.CommunicationException;
 import shared.model.communication.GameObjectCreatedMessage;
 import shared.model.communication.GameObjectDestroyedMessage;
@@ -38,6 +47,7 @@ import shared.model.communication.ICommunicator;
 import shared.model.communication.IMessage;
 import shared.model.communication.KeyMessage;
 import shared.model.communication.ScoreUpdatedMessage;
+import shared.model.communication.SnapshotMessage;
 import client.controller.GameController.GameTimerTask;
 import client.model.IGameObject;
 
@@ -91,7 +101,7 @@ public class GameControllerTest
 		mockControllerFactory = mock(IControllerFactory.class);
 		mockCommunicator = mock(ICommunicator.class);
 		when(mockCommunicator.connected()).thenReturn(true);
-		when(mockCommunicator.receivedMessages()).thenReturn(new IMessage[0]);
+		stubReceivedMessages(new IMessage[0]);
 		gameController = new GameController(mockNavigator,
 				mockControllerFactory, mockCommunicator, 4, 10);
 
@@ -164,6 +174,27 @@ public class GameControllerTest
 				mockCommunicator, 4, 10);
 	}
 
+	/**
+	 * Ensures the board size defaults to the default configuration.
+	 */
+	@Test
+	public void testDefaultBoardSize()
+	{
+		assertEquals(17, gameController.numberOfRows());
+		assertEquals(23, gameController.numberOfColumns());
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when the
+	 * board is empty.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorEmptyBoard()
+	{
+		new GameController(mockNavigator, mockControllerFactory,
+				mockCommunicator, 4, 10, 0, 23);
+	}
+
 	/**
 	 * Ensures the communicator method returns the communicator passed in to the
 	 * constructor.
@@ -498,7 +529,7 @@ public class GameControllerTest
 		when(mockMessage.column()).thenReturn(2);
 		when(mockMessage.gameObjectType()).thenReturn(GameObjectType.PLAYER);
 		when(mockMessage.gameObjectIdentifier()).thenReturn(3);
-		when(mockCommunicator.receivedMessages()).thenReturn(
+		stubReceivedMessages(
 				new IMessage[] { mockMessage });
 
 		gameController.step();
@@ -512,6 +543,43 @@ public class GameControllerTest
 		assertEquals(GameObjectType.PLAYER, gameObjects[0].gameObjectType());
 	}
 
+	/**
+	 * Ensures if the step method receives a board snapshot message, it creates
+	 * the game objects of its runs with consecutive identifiers and maps the
+	 * players to player numbers.
+	 * 
+	 * @throws CommunicationException
+	 *             This shouldn't happen.
+	 */
+	@Test
+	public void testStepReceivesBoardSnapshotMessage()
+			throws CommunicationException
+	{
+		int columns = gameController.numberOfColumns();
+		stubReceivedMessages(new IMessage[] {
+				new BoardSnapshotMessage(columns + 1, 4, new GameObjectType[] {
+						GameObjectType.UNBREAKABLE_BLOCK, null,
+						GameObjectType.PLAYER }, new int[] { 2, 1, 1 }),
+				new ScoreUpdatedMessage(6, 5) });
+
+		gameController.step();
+
+		IGameObject[] gameObjects = gameController.gameObjects();
+		assertEquals(3, gameObjects.length);
+		assertEquals(4, gameObjects[0].identifier());
+		assertEquals(GameObjectType.UNBREAKABLE_BLOCK,
+				gameObjects[0].gameObjectType());
+		assertEquals(1, gameObjects[0].row());
+		assertEquals(1, gameObjects[0].column());
+		assertEquals(5, gameObjects[1].identifier());
+		assertEquals(2, gameObjects[1].column());
+		assertEquals(6, gameObjects[2].identifier());
+		assertEquals(GameObjectType.PLAYER, gameObjects[2].gameObjectType());
+		assertEquals(1, gameObjects[2].row());
+		assertEquals(4, gameObjects[2].column());
+		assertEquals(5, gameController.scores()[0].getScore());
+	}
+
 	/**
 	 * Ensures if the step method receives an update game object message, it
 	 * updates the object in the game objects.
@@ -529,7 +597,7 @@ public class GameControllerTest
 		when(creationMockMessage.gameObjectType()).thenReturn(
 				GameObjectType.PLAYER);
 		when(creationMockMessage.gameObjectIdentifier()).thenReturn(3);
-		when(mockCommunicator.receivedMessages()).thenReturn(
+		stubReceivedMessages(
 				new IMessage[] { creationMockMessage });
 
 		gameController.step();
@@ -539,7 +607,7 @@ public class GameControllerTest
 		when(mockMessage.row()).thenReturn(4);
 		when(mockMessage.column()).thenReturn(5);
 		when(mockMessage.gameObjectIdentifier()).thenReturn(3);
-		when(mockCommunicator.receivedMessages()).thenReturn(
+		stubReceivedMessages(
 				new IMessage[] { mockMessage });
 
 		gameController.step();
@@ -570,7 +638,7 @@ public class GameControllerTest
 		when(creationMockMessage.gameObjectType()).thenReturn(
 				GameObjectType.PLAYER);
 		when(creationMockMessage.gameObjectIdentifier()).thenReturn(3);
-		when(mockCommunicator.receivedMessages()).thenReturn(
+		stubReceivedMessages(
 				new IMessage[] { creationMockMessage });
 
 		gameController.step();
@@ -578,7 +646,7 @@ public class GameControllerTest
 		// set up the destroy message
 		GameObjectDestroyedMessage mockMessage = mock(GameObjectDestroyedMessage.class);
 		when(mockMessage.gameObjectIdentifier()).thenReturn(3);
-		when(mockCommunicator.receivedMessages()).thenReturn(
+		stubReceivedMessages(
 				new IMessage[] { mockMessage });
 
 		gameController.step();
@@ -588,6 +656,46 @@ public class GameControllerTest
 		assertEquals(0, gameObjects.length);
 	}
 
+	/**
+	 * Ensures the identifier of a destroyed game object can be reused by a
+	 * game object created afterwards, including in the same step.
+	 * 
+	 * @throws CommunicationException
+	 *             This should never happen
+	 */
+	@Test
+	public void testStepReusesDestroyedIdentifier() throws CommunicationException
+	{
+		// set up the mock creation messages
+		GameObjectCreatedMessage bombMockMessage = mock(GameObjectCreatedMessage.class);
+		when(bombMockMessage.row()).thenReturn(1);
+		when(bombMockMessage.column()).thenReturn(2);
+		when(bombMockMessage.gameObjectType()).thenReturn(GameObjectType.BOMB);
+		when(bombMockMessage.gameObjectIdentifier()).thenReturn(100);
+
+		GameObjectCreatedMessage explosionMockMessage = mock(GameObjectCreatedMessage.class);
+		when(explosionMockMessage.row()).thenReturn(1);
+		when(explosionMockMessage.column()).thenReturn(2);
+		when(explosionMockMessage.gameObjectType()).thenReturn(
+				GameObjectType.EXPLOSION);
+		when(explosionMockMessage.gameObjectIdentifier()).thenReturn(100);
+
+		// set up the destroy message
+		GameObjectDestroyedMessage destroyedMockMessage = mock(GameObjectDestroyedMessage.class);
+		when(destroyedMockMessage.gameObjectIdentifier()).thenReturn(100);
+
+		stubReceivedMessages(
+				new IMessage[] { bombMockMessage, destroyedMockMessage,
+						explosionMockMessage });
+
+		gameController.step();
+
+		IGameObject[] gameObjects = gameController.gameObjects();
+		assertEquals(1, gameObjects.length);
+		assertEquals(100, gameObjects[0].identifier());
+		assertEquals(GameObjectType.EXPLOSION, gameObjects[0].gameObjectType());
+	}
+
 	/**
 	 * Ensures if the step method receives a update score message, it
 	 * updates the corresponding player's score (assuming the player
@@ -609,7 +717,7 @@ public class GameControllerTest
 		when(playerCreatedMockMessage.gameObjectIdentifier()).thenReturn(3);
 		when(playerCreatedMockMessage.gameObjectType()).thenReturn(GameObjectType.PLAYER);
 
-		when(mockCommunicator.receivedMessages()).thenReturn(
+		stubReceivedMessages(
 				new IMessage[] { playerCreatedMockMessage, scoreMockMessage });
 
 		gameController.step();
@@ -644,7 +752,7 @@ public class GameControllerTest
 		when(playerCreatedMockMessage2.gameObjectIdentifier()).thenReturn(0);
 		when(playerCreatedMockMessage2.gameObjectType()).thenReturn(GameObjectType.PLAYER);
 
-		when(mockCommunicator.receivedMessages()).thenReturn(
+		stubReceivedMessages(
 				new IMessage[] { playerCreatedMockMessage1, playerCreatedMockMessage2, scoreMockMessage });
 
 		gameController.step();
@@ -671,7 +779,7 @@ public class GameControllerTest
 		when(scoreMockMessage.score()).thenReturn(7);
 		when(scoreMockMessage.gameObjectIdentifier()).thenReturn(3);
 		
-		when(mockCommunicator.receivedMessages()).thenReturn(
+		stubReceivedMessages(
 				new IMessage[] { scoreMockMessage });
 
 		gameController.step();
@@ -714,7 +822,7 @@ public class GameControllerTest
 		when(playerCreatedMockMessage5.gameObjectIdentifier()).thenReturn(4);
 		when(playerCreatedMockMessage5.gameObjectType()).thenReturn(GameObjectType.PLAYER);
 		
-		when(mockCommunicator.receivedMessages()).thenReturn(
+		stubReceivedMessages(
 				new IMessage[] { playerCreatedMockMessage1, playerCreatedMockMessage2, 
 						playerCreatedMockMessage3, playerCreatedMockMessage4, playerCreatedMockMessage5,
 						scoreMockMessage });
@@ -733,7 +841,7 @@ public class GameControllerTest
 	public void testStepReceivesUnknownMessage() throws CommunicationException
 	{
 		IMessage mockMessage = mock(IMessage.class);
-		when(mockCommunicator.receivedMessages()).thenReturn(
+		stubReceivedMessages(
 				new IMessage[] { mockMessage });
 
 		gameController.step();
@@ -755,7 +863,7 @@ public class GameControllerTest
 		when(mockMessage.row()).thenReturn(4);
 		when(mockMessage.column()).thenReturn(5);
 		when(mockMessage.gameObjectIdentifier()).thenReturn(3);
-		when(mockCommunicator.receivedMessages()).thenReturn(
+		stubReceivedMessages(
 				new IMessage[] { mockMessage });
 
 		gameController.step();
@@ -775,7 +883,7 @@ public class GameControllerTest
 		// set up the destroy message
 		GameObjectDestroyedMessage mockMessage = mock(GameObjectDestroyedMessage.class);
 		when(mockMessage.gameObjectIdentifier()).thenReturn(3);
-		when(mockCommunicator.receivedMessages()).thenReturn(
+		stubReceivedMessages(
 				new IMessage[] { mockMessage });
 
 		gameController.step();
@@ -794,7 +902,7 @@ public class GameControllerTest
 	{
 		// set up the mocks
 		String errorMessage = "Test error message.";
-		when(mockCommunicator.receivedMessages()).thenThrow(
+		when(mockCommunicator.drainTo(Matchers.<IConsumer<IMessage>>any())).thenThrow(
 				new CommunicationException(errorMessage));
 
 		gameController.step();
@@ -816,4 +924,108 @@ public class GameControllerTest
 		gameController.start();
 		verify(mockTimer).schedule(eq(mockGameTimerTask), anyInt(), anyInt());
 	}
+
+	/**
+	 * Ensures snapshots are applied to the game objects and scores, that the
+	 * snapshots of a tick after the first one which is applied are skipped,
+	 * and that the latest applied snapshot is acknowledged once per step.
+	 * 
+	 * @throws CommunicationException
+	 *             This should never happen
+	 */
+	@Test
+	public void testStepAppliesSnapshots() throws CommunicationException
+	{
+		stubReceivedMessages(new IMessage[] {
+				new SnapshotMessage(0, SnapshotMessage.KEYFRAME, 3),
+				new GameObjectCreatedMessage(3, GameObjectType.PLAYER, 1, 1),
+				new GameObjectCreatedMessage(5, GameObjectType.BREAKABLE_BLOCK, 2, 2),
+				new ScoreUpdatedMessage(3, 0) });
+
+		gameController.step();
+
+		assertEquals(2, gameController.gameObjects().length);
+		verify(mockCommunicator).sendMessage(argThat(hasText("ACKNOWLEDGEMENT 10 0")));
+
+		stubReceivedMessages(new IMessage[] {
+				new SnapshotMessage(1, 0, 3),
+				new GameObjectDestroyedMessage(5),
+				new GameObjectUpdatedMessage(3, 1, 2),
+				new ScoreUpdatedMessage(3, 2),
+				new SnapshotMessage(1, SnapshotMessage.KEYFRAME, 1),
+				new GameObjectCreatedMessage(7, GameObjectType.BOMB, 3, 3) });
+
+		gameController.step();
+
+		IGameObject[] gameObjects = gameController.gameObjects();
+		assertEquals(1, gameObjects.length);
+		assertEquals(3, gameObjects[0].identifier());
+		assertEquals(2, gameObjects[0].column());
+		assertEquals(2, gameController.scores()[0].getScore());
+		verify(mockCommunicator).sendMessage(argThat(hasText("ACKNOWLEDGEMENT 10 1")));
+
+		gameController.step();
+		verify(mockCommunicator, times(2)).sendMessage(any(AcknowledgementMessage.class));
+	}
+
+	/**
+	 * Ensures a snapshot whose baseline has not been applied is skipped.
+	 * 
+	 * @throws CommunicationException
+	 *             This should never happen
+	 */
+	@Test
+	public void testStepSkipsSnapshotWithoutBaseline() throws CommunicationException
+	{
+		stubReceivedMessages(new IMessage[] { new SnapshotMessage(5, 3, 1),
+				new GameObjectUpdatedMessage(3, 1, 2) });
+
+		gameController.step();
+
+		assertEquals(0, gameController.gameObjects().length);
+		verify(mockCommunicator, never()).sendMessage(any(IMessage.class));
+	}
+
+	/**
+	 * Helper method which returns a matcher of messages with the provided text
+	 * form.
+	 * 
+	 * @param text
+	 *            The text form of the message.
+	 * @return The matcher.
+	 */
+	private static ArgumentMatcher<IMessage> hasText(final String text)
+	{
+		return new ArgumentMatcher<IMessage>()
+		{
+			public boolean matches(Object message)
+			{
+				return message != null && text.equals(message.toString());
+			}
+		};
+	}
+
+	/**
+	 * Helper method which makes the mock communicator hand the provided messages to the consumer
+	 * every time it is drained.
+	 * @param messages The received messages.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@SuppressWarnings("unchecked")
+	private void stubReceivedMessages(final IMessage[] messages) throws CommunicationException
+	{
+		// stub with doAnswer, so that restubbing does not run the previous answer
+		doAnswer(new Answer<Integer>()
+		{
+			public Integer answer(InvocationOnMock invocation)
+			{
+				IConsumer<IMessage> consumer = (IConsumer<IMessage>) invocation.getArguments()[0];
+
+				for (IMessage message : messages)
+					consumer.consume(message);
+
+				return messages.length;
+			}
+		}).when(mockCommunicator).drainTo(Matchers.<IConsumer<IMessage>>any());
+	}
 }
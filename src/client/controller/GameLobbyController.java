@@ -167,7 +167,8 @@ public class GameLobbyController extends Controller implements
 					// navigate to game view
 					IGameController gameController = controllerFactory
 							.createGameController(navigator, communicator,
-									gameMessage.numberOfPlayers(), gameObjectIdentifier);
+									gameMessage.numberOfPlayers(), gameObjectIdentifier,
+									gameMessage.numberOfRows(), gameMessage.numberOfColumns());
 					navigator.replaceTop(gameController);
 					
 					// cancel this timer
@@ -60,7 +60,7 @@ public class GameOverController extends Controller implements
 		try
 		{
 			Communicator communicator = new Communicator(new MessageFactory(),
-					hostAddress);
+					hostAddress, WireFormat.BINARY, JoinRoomMessage.ANY_ROOM);
 			if (communicator.connected())
 			{
 				// if the rematch is successful, navigate to the game lobby
@@ -2,6 +2,7 @@ package client.controller;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -20,7 +21,9 @@ import shared.model.communication.CommunicationException;
 import shared.model.communication.Communicator;
 import shared.model.communication.ICommunicator;
 import shared.model.communication.IMessageFactory;
+import shared.model.communication.JoinRoomMessage;
 import shared.model.communication.MessageFactory;
+import shared.model.communication.WireFormat;
 
 /**
  * Tests GameOverController.
@@ -141,8 +144,9 @@ public class GameOverControllerTest
 			throws Exception
 	{
 		PowerMockito.whenNew(Communicator.class).withParameterTypes(
-				IMessageFactory.class, String.class).withArguments(
-				any(MessageFactory.class), any(String.class)).thenReturn(
+				IMessageFactory.class, String.class, WireFormat.class, int.class)
+				.withArguments(any(MessageFactory.class), any(String.class),
+						eq(WireFormat.BINARY), eq(JoinRoomMessage.ANY_ROOM)).thenReturn(
 				mockCommunicator);
 		when(mockCommunicator.connected()).thenReturn(true);
 		gameOverController.rematch();
@@ -165,8 +169,9 @@ public class GameOverControllerTest
 				.thenReturn(mockGameLobbyController);
 		when(mockCommunicator.connected()).thenReturn(true);
 		PowerMockito.whenNew(Communicator.class).withParameterTypes(
-				IMessageFactory.class, String.class).withArguments(
-				any(MessageFactory.class), any(String.class)).thenReturn(
+				IMessageFactory.class, String.class, WireFormat.class, int.class)
+				.withArguments(any(MessageFactory.class), any(String.class),
+						eq(WireFormat.BINARY), eq(JoinRoomMessage.ANY_ROOM)).thenReturn(
 				mockCommunicator);
 		gameOverController.rematch();
 		verify(mockNavigator).push(mockGameLobbyController);
@@ -190,8 +195,9 @@ public class GameOverControllerTest
 				.thenReturn(mockMultiplayerController);
 		when(mockCommunicator.connected()).thenReturn(false);
 		PowerMockito.whenNew(Communicator.class).withParameterTypes(
-				IMessageFactory.class, String.class).withArguments(
-				any(MessageFactory.class), any(String.class)).thenReturn(
+				IMessageFactory.class, String.class, WireFormat.class, int.class)
+				.withArguments(any(MessageFactory.class), any(String.class),
+						eq(WireFormat.BINARY), eq(JoinRoomMessage.ANY_ROOM)).thenReturn(
 				mockCommunicator);
 		gameOverController.rematch();
 		verify(mockNavigator).push(mockMultiplayerController);
@@ -215,8 +221,9 @@ public class GameOverControllerTest
 				.thenReturn(mockMultiplayerController);
 
 		PowerMockito.whenNew(Communicator.class).withParameterTypes(
-				IMessageFactory.class, String.class).withArguments(
-				any(MessageFactory.class), any(String.class)).thenThrow(
+				IMessageFactory.class, String.class, WireFormat.class, int.class)
+				.withArguments(any(MessageFactory.class), any(String.class),
+						eq(WireFormat.BINARY), eq(JoinRoomMessage.ANY_ROOM)).thenThrow(
 				new CommunicationException());
 		gameOverController.rematch();
 		verify(mockNavigator).push(mockMultiplayerController);
@@ -240,8 +247,9 @@ public class GameOverControllerTest
 				.thenReturn(mockMultiplayerController);
 
 		PowerMockito.whenNew(Communicator.class).withParameterTypes(
-				IMessageFactory.class, String.class).withArguments(
-				any(MessageFactory.class), any(String.class)).thenThrow(
+				IMessageFactory.class, String.class, WireFormat.class, int.class)
+				.withArguments(any(MessageFactory.class), any(String.class),
+						eq(WireFormat.BINARY), eq(JoinRoomMessage.ANY_ROOM)).thenThrow(
 				new CommunicationException());
 		gameOverController.rematch();
 		verify(mockNavigator).push(mockMultiplayerController);
@@ -266,8 +274,9 @@ public class GameOverControllerTest
 				.thenReturn(mockMultiplayerController);
 
 		PowerMockito.whenNew(Communicator.class).withParameterTypes(
-				IMessageFactory.class, String.class).withArguments(
-				any(MessageFactory.class), any(String.class)).thenReturn(
+				IMessageFactory.class, String.class, WireFormat.class, int.class)
+				.withArguments(any(MessageFactory.class), any(String.class),
+						eq(WireFormat.BINARY), eq(JoinRoomMessage.ANY_ROOM)).thenReturn(
 				mockCommunicator);
 		when(mockCommunicator.connected()).thenReturn(false);
 		
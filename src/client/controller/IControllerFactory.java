@@ -54,6 +54,32 @@ public interface IControllerFactory
 	public IGameController createGameController(INavigator navigator,
 			ICommunicator communicator, int players, int gameObjectIdentifier);
 
+	/**
+	 * Creates a new instance of IGameController for a board of the given size.
+	 * 
+	 * @param navigator
+	 *            The navigator.
+	 * @param communicator
+	 *            A communicator already connected to a server.
+	 * @param players
+	 *            The number of players in the game.
+	 * @param gameObjectIdentifier
+	 *            The game object identifier of the player on this client.
+	 * @param rows
+	 *            The number of rows of the board.
+	 * @param columns
+	 *            The number of columns of the board.
+	 * @throws NullPointerException
+	 *             Thrown if navigator or communicator is null.
+	 * @throws IllegalArgumentException
+	 *             Thrown if communicator is not connected to a server or the
+	 *             board size is not positive.
+	 * @return A new instance of IGameController.
+	 */
+	public IGameController createGameController(INavigator navigator,
+			ICommunicator communicator, int players, int gameObjectIdentifier,
+			int rows, int columns);
+
 	/**
 	 * Creates a new instance of IGameLobbyController.
 	 * 
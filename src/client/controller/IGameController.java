@@ -100,4 +100,18 @@ public interface IGameController extends IController
 	 * @return The amount of time remaining in the game (in seconds).
 	 */
 	public int time();
+
+	/**
+	 * Returns the number of rows of the board.
+	 * 
+	 * @return The number of rows of the board.
+	 */
+	public int numberOfRows();
+
+	/**
+	 * Returns the number of columns of the board.
+	 * 
+	 * @return The number of columns of the board.
+	 */
+	public int numberOfColumns();
 }
@@ -89,7 +89,7 @@ public class MultiplayerController extends Controller implements
 		{
 			// join server as a player
 			communicator = new Communicator(new MessageFactory(),
-					serverAddress);
+					serverAddress, WireFormat.BINARY, JoinRoomMessage.ANY_ROOM);
 			if (communicator.connected())
 			{
 				// migrate to game lobby
@@ -16,7 +16,9 @@ import shared.model.communication.CommunicationException;
 import shared.model.communication.Communicator;
 import shared.model.communication.ICommunicator;
 import shared.model.communication.IMessageFactory;
+import shared.model.communication.JoinRoomMessage;
 import shared.model.communication.MessageFactory;
+import shared.model.communication.WireFormat;
 
 /**
  * Tests MultiplayerController.
@@ -115,8 +117,9 @@ public class MultiplayerControllerTest
 	public void testJoinJoinsServer() throws Exception
 	{
 		PowerMockito.whenNew(Communicator.class).withParameterTypes(
-				IMessageFactory.class, String.class).withArguments(
-				any(MessageFactory.class), any(String.class)).thenReturn(
+				IMessageFactory.class, String.class, WireFormat.class, int.class)
+				.withArguments(any(MessageFactory.class), any(String.class),
+						eq(WireFormat.BINARY), eq(JoinRoomMessage.ANY_ROOM)).thenReturn(
 				mockCommunicator);
 		multiplayerController.join();
 		PowerMockito.verifyNew(Communicator.class);
@@ -131,8 +134,9 @@ public class MultiplayerControllerTest
 	public void testJoinNaviagesToGameLobbyIfSuccessful() throws Exception
 	{
 		PowerMockito.whenNew(Communicator.class).withParameterTypes(
-				IMessageFactory.class, String.class).withArguments(
-				any(MessageFactory.class), any(String.class)).thenReturn(
+				IMessageFactory.class, String.class, WireFormat.class, int.class)
+				.withArguments(any(MessageFactory.class), any(String.class),
+						eq(WireFormat.BINARY), eq(JoinRoomMessage.ANY_ROOM)).thenReturn(
 				mockCommunicator);
 
 		GameLobbyController mockGameLobbyController = mock(GameLobbyController.class);
@@ -143,8 +147,9 @@ public class MultiplayerControllerTest
 		when(mockCommunicator.connected()).thenReturn(true);
 
 		PowerMockito.whenNew(Communicator.class).withParameterTypes(
-				IMessageFactory.class, String.class).withArguments(
-				any(MessageFactory.class), any(String.class)).thenReturn(
+				IMessageFactory.class, String.class, WireFormat.class, int.class)
+				.withArguments(any(MessageFactory.class), any(String.class),
+						eq(WireFormat.BINARY), eq(JoinRoomMessage.ANY_ROOM)).thenReturn(
 				mockCommunicator);
 
 		multiplayerController.join();
@@ -161,8 +166,9 @@ public class MultiplayerControllerTest
 	public void testJoinSetsErrorMessageIfNotSuccessful() throws Exception
 	{
 		PowerMockito.whenNew(Communicator.class).withParameterTypes(
-				IMessageFactory.class, String.class).withArguments(
-				any(MessageFactory.class), any(String.class)).thenThrow(
+				IMessageFactory.class, String.class, WireFormat.class, int.class)
+				.withArguments(any(MessageFactory.class), any(String.class),
+						eq(WireFormat.BINARY), eq(JoinRoomMessage.ANY_ROOM)).thenThrow(
 				new CommunicationException());
 		multiplayerController.setErrorMessage("reset me!");
 		multiplayerController.join();
@@ -1,5 +1,6 @@
 package client.view;
 
+import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
@@ -11,6 +12,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +22,7 @@ import javax.imageio.ImageIO;
 import javax.swing.JPanel;
 
 import shared.core.ArrayUtilities;
+import shared.model.GameConfiguration;
 import shared.model.GameObjectType;
 import client.model.IGameObject;
 
@@ -31,12 +34,28 @@ public class GameView extends JPanel implements IGameView {
 	/**
 	 * The width of game object tiles.
 	 */
-	public final int GAME_OBJECT_TILE_WIDTH = 32;
+	public final int GAME_OBJECT_TILE_WIDTH;
 
 	/**
 	 * The height of game object tiles.
 	 */
-	public final int GAME_OBJECT_TILE_HEIGHT = 32;
+	public final int GAME_OBJECT_TILE_HEIGHT;
+
+	/**
+	 * The width of this view.
+	 */
+	public static final int WIDTH = 736;
+
+	/**
+	 * The height of this view.
+	 */
+	public static final int HEIGHT = 544;
+
+	/**
+	 * The largest size of game object tiles, which fills the view with a board
+	 * of the default size.
+	 */
+	private static final int MAXIMUM_TILE_SIZE = 32;
 
 	/**
 	 * ID for serialization necessary for all JPanels.
@@ -59,6 +78,18 @@ public class GameView extends JPanel implements IGameView {
 	 */
 	private Map<IGameObject, Rectangle> lastCoordinates;
 
+	/**
+	 * The unbreakable blocks, which never move or disappear during a game, so
+	 * they are drawn once into the static layer instead of on every paint.
+	 */
+	private Set<IGameObject> staticGameObjects;
+
+	/**
+	 * Image of the static game objects, drawn over the background, or null if
+	 * no static game object has been drawn.
+	 */
+	private BufferedImage staticLayer;
+
 	/**
 	 * Factory for creating Sprites from IGameObjects.
 	 */
@@ -80,7 +111,8 @@ public class GameView extends JPanel implements IGameView {
 	private Object spriteMapLock;
 
 	/**
-	 * Constructs a GameView with the given ISpriteFactory.
+	 * Constructs a GameView with the given ISpriteFactory for a board of the
+	 * default size.
 	 * 
 	 * @param factory
 	 *            The ISpriteFactory this view will use to obtain Sprites from
@@ -91,6 +123,28 @@ public class GameView extends JPanel implements IGameView {
 	 *             If factory is null.
 	 */
 	public GameView(ISpriteFactory factory) throws IOException {
+		this(factory, GameConfiguration.DEFAULT_NUMBER_OF_ROWS,
+				GameConfiguration.DEFAULT_NUMBER_OF_COLUMNS);
+	}
+
+	/**
+	 * Constructs a GameView with the given ISpriteFactory for a board of the
+	 * given size. The tiles are shrunk so the whole board fits in the view.
+	 * 
+	 * @param factory
+	 *            The ISpriteFactory this view will use to obtain Sprites from
+	 *            IGameObjects.
+	 * @param rows
+	 *            The number of rows of the board.
+	 * @param columns
+	 *            The number of columns of the board.
+	 * @throws IOException
+	 *             If Background image cannot be loaded.
+	 * @throws IllegalArgumentException
+	 *             If factory is null or the board size is not positive.
+	 */
+	public GameView(ISpriteFactory factory, int rows, int columns)
+			throws IOException {
 		super();
 
 		if (factory == null) {
@@ -98,10 +152,26 @@ public class GameView extends JPanel implements IGameView {
 					"A GameView cannot be constructed with a null ISpriteFactory.");
 		}
 
+		if (rows < 1 || columns < 1) {
+			throw new IllegalArgumentException(
+					"A GameView cannot be constructed for an empty board.");
+		}
+
+		// use square tiles which fit the whole board in the view
+		int tileSize = Math.max(1, Math.min(MAXIMUM_TILE_SIZE,
+				Math.min(WIDTH / columns, HEIGHT / rows)));
+		GAME_OBJECT_TILE_WIDTH = tileSize;
+		GAME_OBJECT_TILE_HEIGHT = tileSize;
+
+		// the background image only matches a board of the default size
+		final boolean defaultBoard = rows == GameConfiguration.DEFAULT_NUMBER_OF_ROWS
+				&& columns == GameConfiguration.DEFAULT_NUMBER_OF_COLUMNS;
+
 		this.factory = factory;
 		sprites = new ArrayList<Sprite>();
 		spriteMap = new HashMap<IGameObject, Sprite>();
 		lastCoordinates = new HashMap<IGameObject, Rectangle>();
+		staticGameObjects = new HashSet<IGameObject>();
 		spriteMapLock = new Object();
 
 		backgroundPanel = new JPanel() {
@@ -116,15 +186,35 @@ public class GameView extends JPanel implements IGameView {
 					"resources/Background.png"));
 
 			/**
-			 * Paints the given clip of the background panel with the static background image.
+			 * Paints the given clip of the background panel with the static background image
+			 * and the static layer.
 			 */
 			public void paint(Graphics g) {
 				Graphics2D g2d = (Graphics2D) g;
-				// repaint the background in the given clip
 				Rectangle rect = g.getClipBounds();
-				g2d.drawImage(img, rect.x, rect.y, rect.x + rect.width, rect.y
-						+ rect.height, rect.x, rect.y, rect.x + rect.width,
-						rect.y + rect.height, null);
+
+				if (defaultBoard) {
+					// repaint the background in the given clip
+					g2d.drawImage(img, rect.x, rect.y, rect.x + rect.width, rect.y
+							+ rect.height, rect.x, rect.y, rect.x + rect.width,
+							rect.y + rect.height, null);
+				} else {
+					// other boards are drawn on the floor colour of the image
+					g2d.setColor(new Color(img.getRGB(MAXIMUM_TILE_SIZE
+							+ MAXIMUM_TILE_SIZE / 2, MAXIMUM_TILE_SIZE
+							+ MAXIMUM_TILE_SIZE / 2)));
+					g2d.fillRect(rect.x, rect.y, rect.width, rect.height);
+				}
+
+				// repaint the static game objects in the given clip
+				synchronized (spriteMapLock) {
+					if (staticLayer != null) {
+						g2d.drawImage(staticLayer, rect.x, rect.y, rect.x
+								+ rect.width, rect.y + rect.height, rect.x,
+								rect.y, rect.x + rect.width, rect.y
+										+ rect.height, null);
+					}
+				}
 			}
 		};
 
@@ -167,12 +257,12 @@ public class GameView extends JPanel implements IGameView {
 
 		// set the size and properties of the panels
 		foregroundPanel.setOpaque(false);
-		foregroundPanel.setSize(736, 544);
-		backgroundPanel.setSize(736, 544);
+		foregroundPanel.setSize(WIDTH, HEIGHT);
+		backgroundPanel.setSize(WIDTH, HEIGHT);
 
 		// set the size of this GameView
-		setPreferredSize(new Dimension(736, 544));
-		setSize(736, 544);
+		setPreferredSize(new Dimension(WIDTH, HEIGHT));
+		setSize(WIDTH, HEIGHT);
 		add(backgroundPanel, 0);
 		add(foregroundPanel, 1);
 	}
@@ -193,6 +283,16 @@ public class GameView extends JPanel implements IGameView {
 					"A null IGameObject cannot be drawn.");
 		}
 
+		// draw an unbreakable block into the static layer the first time it
+		// is seen, and never again
+		if (gameObject.gameObjectType() == GameObjectType.UNBREAKABLE_BLOCK) {
+			if (staticGameObjects.add(gameObject)) {
+				drawStaticGameObject(gameObject);
+			}
+
+			return;
+		}
+
 		Sprite matchingSprite;
 		synchronized (spriteMapLock) {
 			matchingSprite = spriteMap.get(gameObject);
@@ -210,34 +310,7 @@ public class GameView extends JPanel implements IGameView {
 			}
 
 		} else {
-			// prioritize gameObject with matching id for different
-			// colored players
-			for (Sprite sprite : sprites) {
-				if (sprite.getGameObject().identifier() == gameObject
-						.identifier()) {
-					matchingSprite = sprite;
-				}
-			}
-
-			if (matchingSprite == null) {
-				// the game object has not already been drawn
-				// Look for Sprite with matching GameObjectType
-				for (Sprite sprite : sprites) {
-					if (sprite.getGameObject().gameObjectType() == gameObject
-							.gameObjectType()) {
-						matchingSprite = sprite;
-
-						break;
-					}
-				}
-			}
-
-			// if Sprite doesn't exist for this gameObject's type, create new
-			// Sprite
-			if (matchingSprite == null) {
-				matchingSprite = factory.createSprite(gameObject);
-				sprites.add(matchingSprite);
-			}
+			matchingSprite = sprite(gameObject);
 
 			// Map to corresponding Sprite
 			synchronized (spriteMapLock) {
@@ -312,6 +385,75 @@ public class GameView extends JPanel implements IGameView {
 		}
 	}
 
+	/**
+	 * Private helper method which finds the Sprite of a game object which has
+	 * not been drawn, creating one if no Sprite matches it.
+	 * 
+	 * @param gameObject
+	 *            The game object.
+	 * @return The Sprite of the game object.
+	 */
+	private Sprite sprite(IGameObject gameObject) {
+		Sprite matchingSprite = null;
+
+		// prioritize gameObject with matching id for different
+		// colored players
+		for (Sprite sprite : sprites) {
+			if (sprite.getGameObject().identifier() == gameObject
+					.identifier()) {
+				matchingSprite = sprite;
+			}
+		}
+
+		if (matchingSprite == null) {
+			// the game object has not already been drawn
+			// Look for Sprite with matching GameObjectType
+			for (Sprite sprite : sprites) {
+				if (sprite.getGameObject().gameObjectType() == gameObject
+						.gameObjectType()) {
+					matchingSprite = sprite;
+
+					break;
+				}
+			}
+		}
+
+		// if Sprite doesn't exist for this gameObject's type, create new
+		// Sprite
+		if (matchingSprite == null) {
+			matchingSprite = factory.createSprite(gameObject);
+			sprites.add(matchingSprite);
+		}
+
+		return matchingSprite;
+	}
+
+	/**
+	 * Private helper method which draws a game object into the static layer,
+	 * creating the layer if it does not exist, and repaints its section of the
+	 * grid.
+	 * 
+	 * @param gameObject
+	 *            The game object.
+	 */
+	private void drawStaticGameObject(IGameObject gameObject) {
+		BufferedImage image = sprite(gameObject).getImage();
+		Rectangle box = boundingBox(gameObject);
+
+		synchronized (spriteMapLock) {
+			if (staticLayer == null) {
+				staticLayer = new BufferedImage(WIDTH, HEIGHT,
+						BufferedImage.TYPE_INT_ARGB);
+			}
+
+			Graphics2D g2d = staticLayer.createGraphics();
+			g2d.drawImage(image, box.x, box.y, box.width, box.height, null);
+			g2d.dispose();
+		}
+
+		repaint(box);
+	}
+
 	/**
 	 * Private helper method which calculates a bounding box for a game object.
 	 * 
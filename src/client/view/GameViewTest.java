@@ -7,6 +7,7 @@ import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -21,6 +22,7 @@ import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 
+import shared.model.GameObjectType;
 import client.model.IGameObject;
 
 /**
@@ -112,6 +114,51 @@ public class GameViewTest
 		new GameView(null);
 	}
 
+	/**
+	 * Tests the tiles of a GameView for a board of the default size are 32
+	 * pixels wide and high.
+	 * 
+	 * @throws IOException
+	 *             When background image for GameView cannot be loaded.
+	 */
+	@Test
+	public void testGameViewDefaultTileSize() throws IOException
+	{
+		GameView view = new GameView(mock(ISpriteFactory.class));
+		assertEquals(32, view.GAME_OBJECT_TILE_WIDTH);
+		assertEquals(32, view.GAME_OBJECT_TILE_HEIGHT);
+	}
+
+	/**
+	 * Tests the tiles of a GameView for a large board are shrunk so the whole
+	 * board fits in the view.
+	 * 
+	 * @throws IOException
+	 *             When background image for GameView cannot be loaded.
+	 */
+	@Test
+	public void testGameViewLargeBoardTileSize() throws IOException
+	{
+		GameView view = new GameView(mock(ISpriteFactory.class), 51, 75);
+		assertEquals(9, view.GAME_OBJECT_TILE_WIDTH);
+		assertEquals(9, view.GAME_OBJECT_TILE_HEIGHT);
+		assertTrue(75 * view.GAME_OBJECT_TILE_WIDTH <= GameView.WIDTH);
+		assertTrue(51 * view.GAME_OBJECT_TILE_HEIGHT <= GameView.HEIGHT);
+	}
+
+	/**
+	 * Tests creation of GameView throws an IllegalArgumentException given an
+	 * empty board.
+	 * 
+	 * @throws IOException
+	 *             When background image for GameView cannot be loaded.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testGameViewConstructorEmptyBoard() throws IOException
+	{
+		new GameView(mock(ISpriteFactory.class), 0, 23);
+	}
+
 	/**
 	 * Tests drawGameObject throws an IllegalArgumentException given a null
 	 * argument.
@@ -208,6 +255,45 @@ public class GameViewTest
 				testView.GAME_OBJECT_TILE_HEIGHT)));
 	}
 
+	/**
+	 * Tests drawGameObject draws an unbreakable block into the static layer
+	 * once, so that it is painted with the background rather than as a
+	 * sprite.
+	 * 
+	 * @throws IOException
+	 *             If the test image cannot be loaded.
+	 */
+	@Test
+	public void testDrawGameObjectUnbreakableBlockDrawnOnce()
+			throws IOException
+	{
+		IGameObject gameObject = mock(IGameObject.class);
+		when(gameObject.column()).thenReturn(1);
+		when(gameObject.row()).thenReturn(1);
+		when(gameObject.gameObjectType()).thenReturn(
+				GameObjectType.UNBREAKABLE_BLOCK);
+		when(mockedFactory.createSprite(any(IGameObject.class))).thenReturn(
+				new Sprite(gameObject, "resources/blank.png"));
+		Rectangle rect = testView.boundingBox(gameObject);
+
+		testView.drawGameObjects(new IGameObject[] { gameObject });
+		testView.drawGameObjects(new IGameObject[] { gameObject });
+		assertEquals(1, rects.size());
+		assertEquals(rect, rects.get(0));
+		verify(mockedFactory, times(1)).createSprite(any(IGameObject.class));
+
+		// the background and the static layer are painted, but no sprite
+		Graphics2D g2d = mock(Graphics2D.class);
+		when(g2d.getClipBounds()).thenReturn(rect);
+		testView.paint(g2d);
+		verify(g2d, times(2)).drawImage(any(Image.class), eq(rect.x),
+				eq(rect.y), eq(rect.x + rect.width), eq(rect.y + rect.height),
+				eq(rect.x), eq(rect.y), eq(rect.x + rect.width),
+				eq(rect.y + rect.height), any(ImageObserver.class));
+		verify(g2d, never()).drawImage(any(Image.class), anyInt(), anyInt(),
+				anyInt(), anyInt(), any(ImageObserver.class));
+	}
+
 	/**
 	 * Tests drawGameObject redraws gameObject for the second time, including
 	 * it's current location and previous location.
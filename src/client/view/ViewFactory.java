@@ -238,7 +238,8 @@ public class ViewFactory implements IViewFactory
 		});
 
 		// creates the GameView with a new SpriteFactory
-		final GameView gameView = new GameView(new SpriteFactory());
+		final GameView gameView = new GameView(new SpriteFactory(),
+				gameController.numberOfRows(), gameController.numberOfColumns());
 
 		// binds the GameView to the gameObjects property of the GameController
 		// so that it can draw the updated status of game objects
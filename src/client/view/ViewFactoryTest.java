@@ -169,6 +169,8 @@ public class ViewFactoryTest
 			when(scores[i].getScore()).thenReturn(0);
 		}
 		when(mockController.scores()).thenReturn(scores);
+		when(mockController.numberOfRows()).thenReturn(17);
+		when(mockController.numberOfColumns()).thenReturn(23);
 		JPanel view = viewFactory.createView(mockController);
 
 		Component[] viewComponents = view.getComponents();
@@ -200,6 +202,8 @@ public class ViewFactoryTest
 			when(scores[i].getScore()).thenReturn(0);
 		}
 		when(mockController.scores()).thenReturn(scores);
+		when(mockController.numberOfRows()).thenReturn(17);
+		when(mockController.numberOfColumns()).thenReturn(23);
 		KeyBinder mockKeyBinder = mock(KeyBinder.class);
 		PowerMockito.whenNew(KeyBinder.class).withArguments(anyObject(), anyObject()).thenReturn(mockKeyBinder);
 		viewFactory.createView(mockController);
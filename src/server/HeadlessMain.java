@@ -0,0 +1,211 @@
+package server;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import server.model.GameHost;
+import server.model.GameRoom;
+import server.model.RoomManager;
+import server.model.TickScheduler;
+import shared.model.GameConfiguration;
+import shared.model.communication.CommunicationException;
+
+/**
+ * Launches the server without a user interface, for hosts which have no display.  The games are
+ * hosted by a GameHost, which starts each game once enough players have joined, or once the first
+ * of them has waited for some time, and then opens a room for the next game, so that up to a
+ * number of games are played side by side on the default port.  The games of every room are
+ * stepped by the TickScheduler of the host's RoomManager, whose workers and lateness are reported
+ * as the games end.  No AWT or Swing class is loaded, so the server starts quickly and keeps a
+ * small footprint.
+ * <p>
+ * The settings are read from the command line arguments, which may name a properties file holding
+ * the same settings.  The arguments override the settings of the file.
+ */
+public class HeadlessMain
+{
+	/**
+	 * The setting naming the properties file holding the other settings.
+	 */
+	public static final String CONFIG = "config";
+
+	/**
+	 * The setting holding the number of players which start a game at once.  Games start when the
+	 * maximum number of players have joined unless another number is provided.
+	 */
+	public static final String START = "start";
+
+	/**
+	 * The setting holding the time in seconds the first player to join a game waits for the others
+	 * before the game starts.
+	 */
+	public static final String WAIT = "wait";
+
+	/**
+	 * The setting holding the largest number of rooms open at once, counting the room waiting for
+	 * players.
+	 */
+	public static final String ROOMS = "rooms";
+
+	/**
+	 * The setting holding the number of worker threads stepping the games.  The games are stepped by
+	 * one worker for each processor unless another number is provided.
+	 */
+	public static final String WORKERS = "workers";
+
+	/**
+	 * The time in seconds the first player to join a game waits for the others, unless another
+	 * time is provided.
+	 */
+	public static final int DEFAULT_WAIT_TIME = 30;
+
+	/**
+	 * The largest number of rooms open at once, unless another number is provided.
+	 */
+	public static final int DEFAULT_MAXIMUM_NUMBER_OF_ROOMS = 16;
+
+	/**
+	 * The form of the command line arguments.
+	 */
+	public static final String USAGE = "[" + CONFIG + "=<file>] [" + START + "=<players>] [" + WAIT
+			+ "=<seconds>] [" + ROOMS + "=<rooms>] [" + WORKERS + "=<threads>] "
+			+ ServerSettings.USAGE;
+
+	/**
+	 * Main program method which launches the server and hosts games until the process is stopped.
+	 * @param args The optional settings of the server as name=value pairs, naming a properties file,
+	 * the number of players which start a game, the time the first player waits for the others, the
+	 * largest number of rooms and the number of workers stepping the games, followed by the optional
+	 * settings of the hosted games as read by ServerSettings.
+	 * @throws IOException Thrown if the properties file can not be read.
+	 * @throws CommunicationException Thrown if the server can not listen for clients.
+	 * @throws InterruptedException Thrown if the main thread is interrupted.
+	 */
+	public static void main(String[] args) throws IOException, CommunicationException,
+			InterruptedException
+	{
+		Properties settings = settings(args);
+		GameConfiguration configuration = ServerSettings.gameConfiguration(settings);
+		int numberOfStartingPlayers = settings.containsKey(START)
+				? Integer.parseInt(settings.getProperty(START).trim())
+				: configuration.maximumNumberOfPlayers();
+		int waitTime = settings.containsKey(WAIT)
+				? Integer.parseInt(settings.getProperty(WAIT).trim()) : DEFAULT_WAIT_TIME;
+		int maximumNumberOfRooms = settings.containsKey(ROOMS)
+				? Integer.parseInt(settings.getProperty(ROOMS).trim())
+				: DEFAULT_MAXIMUM_NUMBER_OF_ROOMS;
+		int numberOfWorkers = settings.containsKey(WORKERS)
+				? Integer.parseInt(settings.getProperty(WORKERS).trim())
+				: Runtime.getRuntime().availableProcessors();
+
+		final GameHost host = new GameHost(configuration, numberOfStartingPlayers, waitTime * 1000L,
+				maximumNumberOfRooms, new TickScheduler(numberOfWorkers))
+		{
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			protected void roomStarted(GameRoom startedRoom)
+			{
+				System.out.printf("Game %d started with %d players%n", startedRoom.number(),
+						startedRoom.serverCommunicator().numberOfConnectedCommunicators());
+			}
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			protected void roomEnded(GameRoom endedRoom)
+			{
+				if (endedRoom.failure() != null)
+					System.out.printf("Game %d failed: %s%n", endedRoom.number(),
+							endedRoom.failure());
+				else if (endedRoom.gameLoop() != null)
+					System.out.printf("Game %d finished, %.1f%% of its ticks were late%n",
+							endedRoom.number(), 100 * endedRoom.deadlineMissRate());
+
+				// the load of the workers shared by every room
+				RoomManager roomManager = roomManager();
+				TickScheduler scheduler = roomManager.scheduler();
+				System.out.printf("%d of %d rooms open, %d of %d tasks late on %d workers%s, "
+						+ "lateness %s%n", roomManager.numberOfRooms(),
+						roomManager.maximumNumberOfRooms(), scheduler.numberOfMissedDeadlines(),
+						scheduler.numberOfTasks(), scheduler.numberOfWorkers(),
+						roomManager.overloaded() ? ", shedding load" : "", scheduler.lateness());
+			}
+		};
+
+		// close the games when the process is stopped
+		Runtime.getRuntime().addShutdownHook(new Thread()
+		{
+			public void run()
+			{
+				host.shutdown();
+			}
+		});
+
+		host.start();
+		System.out.printf("Hosting up to %d games of %s, starting with %d players or after %d "
+				+ "seconds%n", maximumNumberOfRooms, configuration, numberOfStartingPlayers, waitTime);
+		host.awaitShutdown();
+	}
+
+	/**
+	 * Private helper method which reads the settings from the command line arguments and the
+	 * properties file they name.
+	 * @param args The command line arguments.
+	 * @return The settings, with the arguments overriding the settings of the file.
+	 * @throws IOException Thrown if the properties file can not be read.
+	 * @throws IllegalArgumentException Thrown if the arguments do not have the form of USAGE.
+	 */
+	private static Properties settings(String[] args) throws IOException
+	{
+		Properties argumentSettings = new Properties();
+		List<String> gameArguments = new ArrayList<String>();
+
+		for (String argument : args)
+		{
+			int separator = argument.indexOf('=');
+
+			if (separator > 0)
+				argumentSettings.setProperty(argument.substring(0, separator),
+						argument.substring(separator + 1));
+			else
+				gameArguments.add(argument);
+		}
+
+		try
+		{
+			argumentSettings.putAll(ServerSettings.parseArguments(
+					gameArguments.toArray(new String[gameArguments.size()])));
+		}
+		catch (IllegalArgumentException exception)
+		{
+			throw new IllegalArgumentException("Usage: " + USAGE);
+		}
+
+		Properties settings = new Properties();
+
+		if (argumentSettings.containsKey(CONFIG))
+		{
+			InputStream input = new FileInputStream(argumentSettings.getProperty(CONFIG));
+
+			try
+			{
+				settings.load(input);
+			}
+			finally
+			{
+				input.close();
+			}
+		}
+
+		settings.putAll(argumentSettings);
+
+		return settings;
+	}
+}
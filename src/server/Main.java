@@ -6,6 +6,7 @@ import server.controller.IMainMenuController;
 import server.view.ViewFactory;
 import shared.controller.INavigator;
 import shared.controller.Navigator;
+import shared.model.GameConfiguration;
 import shared.view.IMenuViewBuilder;
 import shared.view.IViewFactory;
 import shared.view.IViewStack;
@@ -20,10 +21,16 @@ public class Main
 {	
 	/**
 	 * Main program method which launches the application.
-	 * @param args This application ignores any command line arguments.
+	 * @param args The optional settings of the hosted games: the word snapshots to replicate the
+	 * games as snapshots, then a tick rate such as 30hz, then the number of rows and columns of the
+	 * board, followed by the optional density of breakable blocks and the optional maximum number of
+	 * players.
 	 */
 	public static void main(String[] args) 
 	{
+		GameConfiguration configuration = ServerSettings.gameConfiguration(args);
+		
+
 		// set up the navigator
 		IViewStack viewStack = new ViewStack("Bomberman Server");
 		IMenuViewBuilder menuViewBuilder = new MenuViewBuilder();
@@ -31,7 +38,7 @@ public class Main
 		INavigator navigator = new Navigator(viewStack, viewFactory);
 		
 		// set up the controller
-		IControllerFactory controllerFactory = new ControllerFactory();
+		IControllerFactory controllerFactory = new ControllerFactory(configuration);
 		IMainMenuController mainMenuController = controllerFactory.createMainMenuController(navigator);
 		
 		// start the application
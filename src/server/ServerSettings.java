@@ -0,0 +1,164 @@
+package server;
+
+import java.util.Properties;
+
+import shared.model.GameConfiguration;
+import shared.model.ReplicationMode;
+
+/**
+ * Reads the settings of the hosted games, either from the command line arguments or from
+ * properties such as those of a settings file.  The arguments are the optional word snapshots to
+ * replicate the games as snapshots, then an optional tick rate such as 30hz, then the optional
+ * number of rows and columns of the board, followed by the optional density of breakable blocks
+ * and the optional maximum number of players.  The same settings are read from the properties
+ * named by the constants of this class, and any setting which is missing keeps its default.
+ * <p>
+ * This class loads no user interface class, so that the headless server can share it with the
+ * server application.
+ */
+public class ServerSettings
+{
+	/**
+	 * The form of the command line arguments.
+	 */
+	public static final String USAGE = "[snapshots] [<rate>hz] [rows columns [density [players]]]";
+
+	/**
+	 * The property naming the way the games are replicated, either events or snapshots.
+	 */
+	public static final String REPLICATION = "replication";
+
+	/**
+	 * The property holding the number of game steps per second.
+	 */
+	public static final String TICK_RATE = "tickRate";
+
+	/**
+	 * The property holding the number of rows of the board.
+	 */
+	public static final String ROWS = "rows";
+
+	/**
+	 * The property holding the number of columns of the board.
+	 */
+	public static final String COLUMNS = "columns";
+
+	/**
+	 * The property holding the density of breakable blocks.
+	 */
+	public static final String DENSITY = "density";
+
+	/**
+	 * The property holding the maximum number of players.
+	 */
+	public static final String PLAYERS = "players";
+
+	/**
+	 * This class only has static methods.
+	 */
+	private ServerSettings()
+	{
+	}
+
+	/**
+	 * Converts the command line arguments into the properties holding the same settings.
+	 * @param args The command line arguments.
+	 * @return The properties holding the settings which the arguments provide.
+	 * @throws IllegalArgumentException Thrown if the arguments do not have the form of USAGE.
+	 */
+	public static Properties parseArguments(String[] args)
+	{
+		Properties settings = new Properties();
+		int index = 0;
+
+		if (index < args.length && args[index].equals("snapshots"))
+			settings.setProperty(REPLICATION, args[index++]);
+
+		if (index < args.length && args[index].toLowerCase().endsWith("hz"))
+		{
+			settings.setProperty(TICK_RATE, args[index].substring(0, args[index].length() - 2));
+			index++;
+		}
+
+		int numberOfBoardArguments = args.length - index;
+
+		if (numberOfBoardArguments == 1 || numberOfBoardArguments > 4)
+			throw new IllegalArgumentException("Usage: " + USAGE);
+
+		String[] boardSettings = { ROWS, COLUMNS, DENSITY, PLAYERS };
+
+		for (int i = 0; i < numberOfBoardArguments; i++)
+			settings.setProperty(boardSettings[i], args[index + i]);
+
+		return settings;
+	}
+
+	/**
+	 * Creates the settings of the hosted games from the command line arguments.
+	 * @param args The command line arguments.
+	 * @return The settings of the hosted games.
+	 * @throws IllegalArgumentException Thrown if the arguments are not valid settings.
+	 */
+	public static GameConfiguration gameConfiguration(String[] args)
+	{
+		return gameConfiguration(parseArguments(args));
+	}
+
+	/**
+	 * Creates the settings of the hosted games from properties.  The number of rows and columns of
+	 * the board are either both provided or both missing.
+	 * @param settings The properties holding the settings.
+	 * @return The settings of the hosted games.
+	 * @throws NullPointerException Thrown if the properties are null.
+	 * @throws IllegalArgumentException Thrown if the properties are not valid settings.
+	 */
+	public static GameConfiguration gameConfiguration(Properties settings)
+	{
+		if (settings == null)
+			throw new NullPointerException();
+
+		String rows = setting(settings, ROWS);
+		String columns = setting(settings, COLUMNS);
+
+		if ((rows == null) != (columns == null))
+			throw new IllegalArgumentException("The rows and columns of the board go together.");
+
+		String density = setting(settings, DENSITY);
+		String players = setting(settings, PLAYERS);
+
+		GameConfiguration configuration = new GameConfiguration(
+				rows != null ? Integer.parseInt(rows) : GameConfiguration.DEFAULT_NUMBER_OF_ROWS,
+				columns != null ? Integer.parseInt(columns)
+						: GameConfiguration.DEFAULT_NUMBER_OF_COLUMNS,
+				density != null ? Double.parseDouble(density)
+						: GameConfiguration.DEFAULT_BREAKABLE_BLOCK_DENSITY,
+				players != null ? Integer.parseInt(players)
+						: GameConfiguration.DEFAULT_MAXIMUM_NUMBER_OF_PLAYERS);
+
+		String replication = setting(settings, REPLICATION);
+
+		if (replication != null)
+			configuration = configuration.withReplicationMode(
+					ReplicationMode.valueOf(replication.toUpperCase()));
+
+		String tickRate = setting(settings, TICK_RATE);
+
+		if (tickRate != null)
+			configuration = configuration.withTickRate(Integer.parseInt(tickRate));
+
+		return configuration;
+	}
+
+	/**
+	 * Private helper method which returns a setting without surrounding whitespace.
+	 * @param settings The properties holding the settings.
+	 * @param name The name of the setting.
+	 * @return The setting, or null if it is missing.
+	 */
+	private static String setting(Properties settings, String name)
+	{
+		String value = settings.getProperty(name);
+
+		return value != null ? value.trim() : null;
+	}
+}
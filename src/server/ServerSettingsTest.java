@@ -0,0 +1,131 @@
+package server;
+
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+import shared.model.GameConfiguration;
+import shared.model.ReplicationMode;
+
+/**
+ * A test class for the ServerSettings class.
+ */
+public class ServerSettingsTest
+{
+	/**
+	 * Ensures no argument keeps every default setting.
+	 */
+	@Test
+	public void testNoArguments()
+	{
+		GameConfiguration configuration = ServerSettings.gameConfiguration(new String[0]);
+
+		assertEquals(GameConfiguration.DEFAULT_NUMBER_OF_ROWS, configuration.numberOfRows());
+		assertEquals(GameConfiguration.DEFAULT_NUMBER_OF_COLUMNS, configuration.numberOfColumns());
+		assertEquals(GameConfiguration.DEFAULT_BREAKABLE_BLOCK_DENSITY,
+				configuration.breakableBlockDensity(), 0);
+		assertEquals(GameConfiguration.DEFAULT_MAXIMUM_NUMBER_OF_PLAYERS,
+				configuration.maximumNumberOfPlayers());
+		assertEquals(ReplicationMode.EVENTS, configuration.replicationMode());
+		assertEquals(GameConfiguration.DEFAULT_TICK_RATE, configuration.tickRate());
+	}
+
+	/**
+	 * Ensures every setting is read from the arguments.
+	 */
+	@Test
+	public void testArguments()
+	{
+		GameConfiguration configuration = ServerSettings.gameConfiguration(new String[] {
+				"snapshots", "30Hz", "13", "15", "0.25", "6" });
+
+		assertEquals(13, configuration.numberOfRows());
+		assertEquals(15, configuration.numberOfColumns());
+		assertEquals(0.25, configuration.breakableBlockDensity(), 0);
+		assertEquals(6, configuration.maximumNumberOfPlayers());
+		assertEquals(ReplicationMode.SNAPSHOTS, configuration.replicationMode());
+		assertEquals(30, configuration.tickRate());
+	}
+
+	/**
+	 * Ensures the arguments are converted into the properties holding the same settings.
+	 */
+	@Test
+	public void testParseArguments()
+	{
+		Properties settings = ServerSettings.parseArguments(new String[] { "20hz", "9", "11" });
+
+		assertEquals(3, settings.size());
+		assertEquals("20", settings.getProperty(ServerSettings.TICK_RATE));
+		assertEquals("9", settings.getProperty(ServerSettings.ROWS));
+		assertEquals("11", settings.getProperty(ServerSettings.COLUMNS));
+	}
+
+	/**
+	 * Ensures the rows of the board can not be provided without its columns.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testArgumentsRowsOnly()
+	{
+		ServerSettings.parseArguments(new String[] { "snapshots", "13" });
+	}
+
+	/**
+	 * Ensures no more than four settings of the board can be provided.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooManyArguments()
+	{
+		ServerSettings.parseArguments(new String[] { "13", "15", "0.25", "4", "4" });
+	}
+
+	/**
+	 * Ensures the settings are read from properties, whose missing settings keep their defaults.
+	 */
+	@Test
+	public void testProperties()
+	{
+		Properties settings = new Properties();
+		settings.setProperty(ServerSettings.REPLICATION, "Snapshots ");
+		settings.setProperty(ServerSettings.PLAYERS, "2");
+		GameConfiguration configuration = ServerSettings.gameConfiguration(settings);
+
+		assertEquals(GameConfiguration.DEFAULT_NUMBER_OF_ROWS, configuration.numberOfRows());
+		assertEquals(2, configuration.maximumNumberOfPlayers());
+		assertEquals(ReplicationMode.SNAPSHOTS, configuration.replicationMode());
+		assertEquals(GameConfiguration.DEFAULT_TICK_RATE, configuration.tickRate());
+	}
+
+	/**
+	 * Ensures the properties can not provide the columns of the board without its rows.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testPropertiesColumnsOnly()
+	{
+		Properties settings = new Properties();
+		settings.setProperty(ServerSettings.COLUMNS, "15");
+		ServerSettings.gameConfiguration(settings);
+	}
+
+	/**
+	 * Ensures an unknown replication mode is refused.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testPropertiesUnknownReplication()
+	{
+		Properties settings = new Properties();
+		settings.setProperty(ServerSettings.REPLICATION, "deltas");
+		ServerSettings.gameConfiguration(settings);
+	}
+
+	/**
+	 * Ensures the properties can not be null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testNullProperties()
+	{
+		ServerSettings.gameConfiguration((Properties) null);
+	}
+}
@@ -1,6 +1,7 @@
 package server.controller;
 
 import shared.controller.INavigator;
+import shared.model.GameConfiguration;
 import shared.model.communication.IServerCommunicator;
 
 /**
@@ -8,6 +9,32 @@ import shared.model.communication.IServerCommunicator;
  */
 public class ControllerFactory implements IControllerFactory
 {
+	// the settings of the hosted games
+	private final GameConfiguration configuration;
+
+	/**
+	 * Creates a ControllerFactory whose game hosting controllers host games with the default
+	 * configuration.
+	 */
+	public ControllerFactory()
+	{
+		this(new GameConfiguration());
+	}
+
+	/**
+	 * Creates a ControllerFactory whose game hosting controllers host games with the provided
+	 * configuration.
+	 * @param configuration The settings of the hosted games.
+	 * @throws NullPointerException Thrown if the configuration is null.
+	 */
+	public ControllerFactory(GameConfiguration configuration)
+	{
+		if (configuration == null)
+			throw new NullPointerException();
+
+		this.configuration = configuration;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -22,6 +49,6 @@ public class ControllerFactory implements IControllerFactory
 	public IGameHostingController createGameHostingController(INavigator navigator, 
 		IServerCommunicator serverCommunicator)
 	{
-		return new GameHostingController(navigator, this, serverCommunicator);
+		return new GameHostingController(navigator, this, serverCommunicator, configuration);
 	}
 }
@@ -9,6 +9,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import shared.controller.INavigator;
+import shared.model.GameConfiguration;
 import shared.model.communication.IServerCommunicator;
 
 /**
@@ -72,6 +73,28 @@ public class ControllerFactoryTest
 		assertEquals(mockServerCommunicator, controller.serverCommunicator());
 	}
 	
+	/**
+	 * Ensures the created game hosting controller hosts games with the configuration of the factory.
+	 */
+	@Test
+	public void testCreateGameHostingControllerConfiguration()
+	{
+		GameConfiguration configuration = new GameConfiguration(51, 51, 0.3, 2);
+		controllerFactory = new ControllerFactory(configuration);
+		IGameHostingController controller = controllerFactory.
+			createGameHostingController(mockNavigator, mockServerCommunicator);
+		assertEquals(configuration, controller.gameConfiguration());
+	}
+	
+	/**
+	 * Ensures the constructor throws an exception when the configuration is null.
+	 */
+	@Test(expected=NullPointerException.class)
+	public void testConstructorConfigurationNullThrowsException()
+	{
+		new ControllerFactory(null);
+	}
+	
 	/**
 	 * Ensures the create game hosting controller method throws an exception when the navigator is
 	 * null.
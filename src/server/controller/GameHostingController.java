@@ -1,22 +1,21 @@
 package server.controller;
 
-import java.util.Timer;
-import java.util.TimerTask;
-
-import server.model.Game;
-import server.model.GameObjectFactory;
+import server.model.GameActor;
+import server.model.GameLoop;
+import server.model.IGameActorListener;
 import shared.controller.Controller;
 import shared.controller.INavigator;
+import shared.core.ICommand;
+import shared.model.GameConfiguration;
 import shared.model.communication.CommunicationException;
-import shared.model.communication.HelloMessage;
-import shared.model.communication.GameMessage;
-import shared.model.communication.GameTimeMessage;
 import shared.model.communication.IServerCommunicator;
-import shared.model.communication.MessageFactory;
-import shared.model.communication.ServerCommunicator;
 
 /**
- * Implements the IGameHostingController interface.
+ * Implements the IGameHostingController interface.  The hosted game is owned by a GameActor, which
+ * a game loop ticks at the tick rate for as long as the controller is shown, so the game and its
+ * communicator are only ever touched by the thread of the loop.  Starting and stopping the game
+ * only post commands to the actor, and the properties of the controller change once the actor has
+ * run them.
  */
 public class GameHostingController extends Controller implements
 		IGameHostingController
@@ -28,69 +27,35 @@ public class GameHostingController extends Controller implements
 	private final IControllerFactory controllerFactory;
 
 	// whether or not the game is running
-	private boolean running;
+	private volatile boolean running;
 
 	// the error message for the controller
 	private String errorMessage;
 
-	// the server communicator
-	private IServerCommunicator serverCommunicator;
-
-	// game
-	private Game game;
+	// the actor owning the game and the server communicator
+	private final GameActor gameActor;
 
-	// the time between game steps in milliseconds
-	private static final int stepPeriod = 1000 / 10;
+	// the settings of the hosted games
+	private final GameConfiguration configuration;
 
-	// the timer for the game
-	private Timer gameTimer;
+	// the loop which ticks the game actor
+	private final GameLoop gameLoop;
 
 	// connected players
 	private int connectedPlayers = 0;
 
-	// TimerTask to step through the game or send WAITING GameMessages to
-	// connected clients.
-	protected class GameStepTimerTask extends TimerTask
+	// Command run by the game loop on each tick to run the commands posted to
+	// the game actor and step through the game.
+	protected class GameTickCommand implements ICommand
 	{
 		/**
 		 * {@inheritDoc}
 		 */
-		public void run()
+		public void execute()
 		{
 			try
 			{
-				if (running && game.numberOfRemainingSteps() > 0)
-				{
-					GameTimeMessage gameTimeMessage = new GameTimeMessage(
-							(int) ((stepPeriod / 1000.0) * game
-									.numberOfRemainingSteps()));
-					// send the time message to clients
-					serverCommunicator.sendMessages(gameTimeMessage);
-					// run one game step at one time
-					game.step();
-				} else if (running && game.numberOfRemainingSteps() == 0)
-				{
-					//stop the game
-					startOrStopGame();
-				} else if (!running)
-				{
-					// reset the connected players number
-					if (connectedPlayers != serverCommunicator
-							.numberOfConnectedCommunicators())
-					{
-
-						setConnectedPlayer(serverCommunicator
-								.numberOfConnectedCommunicators());
-						//send player information message to clients
-						serverCommunicator.sendMessages(new GameMessage(
-								GameMessage.Action.WAITING, connectedPlayers));
-
-					} else
-					{
-						HelloMessage message = new HelloMessage();
-						serverCommunicator.sendMessages(message);
-					}
-				}
+				gameActor.tick();
 			} catch (CommunicationException e)
 			{
 				setErrorMessage(e.getMessage());
@@ -98,8 +63,53 @@ public class GameHostingController extends Controller implements
 		}
 	}
 
+	// Listener updating the properties of the controller as the game actor
+	// starts and stops the game, on the thread of the game loop.
+	protected class GameActorListener implements IGameActorListener
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		public void gameStarted()
+		{
+			setErrorMessage("Game In Progress");
+			setRunning(true);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public void gameStopped()
+		{
+			setRunning(false);
+			setErrorMessage("Waiting to Start Game");
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public void startRefused(int numberOfPlayers)
+		{
+			if (numberOfPlayers > 0)
+				setErrorMessage("Game cannot be started with more than "
+						+ configuration.maximumNumberOfPlayers()
+						+ " connected players.");
+			else
+				setErrorMessage("Game cannot be started with 0 connected players.");
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public void playersChanged(int numberOfPlayers)
+		{
+			setConnectedPlayer(numberOfPlayers);
+		}
+	}
+
 	/**
-	 * GameHostingController constructor.
+	 * GameHostingController constructor which hosts games with the default
+	 * configuration.
 	 * 
 	 * @param navigator
 	 *            The navigator.
@@ -114,21 +124,47 @@ public class GameHostingController extends Controller implements
 	public GameHostingController(INavigator navigator,
 			IControllerFactory controllerFactory,
 			IServerCommunicator serverCommunicator)
+	{
+		this(navigator, controllerFactory, serverCommunicator,
+				new GameConfiguration());
+	}
+
+	/**
+	 * GameHostingController constructor.
+	 * 
+	 * @param navigator
+	 *            The navigator.
+	 * @param serverCommunicator
+	 *            The server communicator.
+	 * @param controllerFactory
+	 *            The controller factory.
+	 * @param configuration
+	 *            The settings of the hosted games.
+	 * @throws NullPointerException
+	 *             Thrown if navigator, controllerFactory, serverCommunicator
+	 *             or configuration is null.
+	 */
+	public GameHostingController(INavigator navigator,
+			IControllerFactory controllerFactory,
+			IServerCommunicator serverCommunicator,
+			GameConfiguration configuration)
 	{
 		if (navigator == null || controllerFactory == null
-				|| serverCommunicator == null)
+				|| serverCommunicator == null || configuration == null)
 			throw new NullPointerException();
 
 		this.navigator = navigator;
 		this.controllerFactory = controllerFactory;
-		this.serverCommunicator = serverCommunicator;
+		this.configuration = configuration;
 		
 		// initialize the message with empty String
 		errorMessage = "";
 		
-		// initialize the timer and run it
-		gameTimer = new Timer();
-		gameTimer.schedule(new GameStepTimerTask(), 0, stepPeriod);
+		// tick the game actor at the tick rate until the controller is left
+		gameActor = new GameActor(serverCommunicator, configuration,
+				new GameActorListener());
+		gameLoop = new GameLoop(new GameTickCommand(), configuration.tickRate());
+		gameLoop.start();
 	}
 
 	/**
@@ -144,50 +180,12 @@ public class GameHostingController extends Controller implements
 	 */
 	public void startOrStopGame()
 	{
-		if (running)
+		try
 		{
-
-			try
-			{
-				// set running status to false
-				setRunning(false);
-				//send the waiting to start game message to clients
-				setErrorMessage("Waiting to Start Game");
-				game = null;
-
-				GameMessage gameStopMessage = new GameMessage(
-						GameMessage.Action.STOP, connectedPlayers);
-				serverCommunicator.sendMessages(gameStopMessage);
-
-				// Restart the server communicator
-				setConnectedPlayer(0);
-				serverCommunicator = new ServerCommunicator(
-						new MessageFactory());
-			} catch (CommunicationException exception)
-			{
-				setErrorMessage(exception.getMessage());
-			}
-		} else
+			gameActor.startOrStop();
+		} catch (IllegalStateException e)
 		{
-			if (serverCommunicator.numberOfConnectedCommunicators() > 0)
-			{
-				// stop listening from server
-				setErrorMessage("Game In Progress");
-				serverCommunicator.stopListening();
-
-				try
-				{
-					game = new Game(serverCommunicator, new GameObjectFactory());
-				} catch (CommunicationException e)
-				{
-					setErrorMessage(e.getMessage());
-					return;
-				}
-
-				setRunning(true);
-			} else {
-				setErrorMessage("Game cannot be started with 0 connected players.");
-			}
+			setErrorMessage(e.getMessage());
 		}
 	}
 
@@ -196,14 +194,12 @@ public class GameHostingController extends Controller implements
 	 */
 	public void mainMenu()
 	{
-		if (running)
-		{
-			startOrStopGame();
-		}
-		gameTimer.cancel();
+		// stop the game and the loop, then run the stop on this thread
+		gameActor.stop();
+		gameLoop.stop();
 		try
 		{
-			serverCommunicator.disconnect();
+			gameActor.shutdown();
 		} catch (CommunicationException e)
 		{
 			// cannot set error message on MainMenuController here
@@ -241,7 +237,7 @@ public class GameHostingController extends Controller implements
 	 */
 	public IServerCommunicator serverCommunicator()
 	{
-		return serverCommunicator;
+		return gameActor.serverCommunicator();
 	}
 
 	/**
@@ -264,6 +260,22 @@ public class GameHostingController extends Controller implements
 		propertyDidChange("errorMessage");
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	public GameConfiguration gameConfiguration()
+	{
+		return configuration;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public GameLoop gameLoop()
+	{
+		return gameLoop;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
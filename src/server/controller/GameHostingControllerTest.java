@@ -3,32 +3,37 @@ package server.controller;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
-import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 
-import java.util.Timer;
-
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
-import server.controller.GameHostingController.GameStepTimerTask;
+import server.controller.GameHostingController.GameTickCommand;
 import server.model.Game;
+import server.model.GameActor;
+import server.model.GameLoop;
+import server.model.IGameObjectFactory;
 import shared.controller.INavigator;
 import shared.core.ICommand;
+import shared.model.GameConfiguration;
+import shared.model.communication.IMessage;
 import shared.model.communication.IMessageFactory;
-import shared.model.communication.ServerCommunicator;
+import shared.model.communication.IServerCommunicator;
+import shared.model.communication.SelectorServerCommunicator;
 
 /**
- * Tests the GameHostingController class.
+ * Tests the GameHostingController class.  The game loop is a mock, so the tests tick the game actor
+ * themselves to run the commands the controller posts to it.
  */
 @RunWith(PowerMockRunner.class)
-@PrepareForTest(GameHostingController.class)
+@PrepareForTest({ GameHostingController.class, GameActor.class })
 public class GameHostingControllerTest 
 {
 	// a mock navigator
@@ -38,16 +43,19 @@ public class GameHostingControllerTest
 	private IControllerFactory mockControllerFactory;
 
 	// the controller to test
-	private IGameHostingController gameHostingController;
+	private GameHostingController gameHostingController;
 
 	// a mock command
 	private ICommand mockCommand;
 
 	// a mock server communicator
-	private ServerCommunicator mockServerCommunicator;
+	private SelectorServerCommunicator mockServerCommunicator;
+
+	// a mock game
+	private Game mockGame;
 
-	// a mock Timer
-	private Timer mockTimer;
+	// a mock game loop
+	private GameLoop mockGameLoop;
 
 	/**
 	 * Sets up the tests.
@@ -61,18 +69,34 @@ public class GameHostingControllerTest
 		mockNavigator = mock(INavigator.class);
 		mockControllerFactory = mock(IControllerFactory.class);
 		mockCommand = mock(ICommand.class);
-		mockServerCommunicator = mock(ServerCommunicator.class);
-		PowerMockito.whenNew(ServerCommunicator.class).withParameterTypes(
+		mockServerCommunicator = mock(SelectorServerCommunicator.class);
+		PowerMockito.whenNew(SelectorServerCommunicator.class).withParameterTypes(
 				IMessageFactory.class).withArguments(anyObject()).thenReturn(
 				mockServerCommunicator);
-		mockTimer = mock(Timer.class);
-		PowerMockito.whenNew(Timer.class).withNoArguments().thenReturn(
-				mockTimer);
+		mockGame = mock(Game.class);
+		when(mockGame.numberOfRemainingSteps()).thenReturn(45);
+		when(mockGame.tick(anyInt())).thenReturn(true);
+		PowerMockito.whenNew(Game.class)
+				.withParameterTypes(IServerCommunicator.class, IGameObjectFactory.class,
+						GameConfiguration.class)
+				.withArguments(anyObject(), anyObject(), anyObject()).thenReturn(mockGame);
+		mockGameLoop = mock(GameLoop.class);
+		PowerMockito.whenNew(GameLoop.class)
+				.withParameterTypes(ICommand.class, int.class)
+				.withArguments(anyObject(), anyInt()).thenReturn(mockGameLoop);
 		gameHostingController = new GameHostingController(mockNavigator,
 				mockControllerFactory, mockServerCommunicator);
-		Game mockGame = mock(Game.class);
-		PowerMockito.whenNew(Game.class)
-				.withArguments(anyObject(), anyObject()).thenReturn(mockGame);
+	}
+
+	/**
+	 * Ticks the game actor of a controller the way its game loop does.
+	 * 
+	 * @param controller
+	 *            The controller.
+	 */
+	private static void tick(GameHostingController controller)
+	{
+		controller.new GameTickCommand().execute();
 	}
 
 	/**
@@ -148,20 +172,152 @@ public class GameHostingControllerTest
 	@Test
 	public void testStartGame() throws Exception
 	{
+		verify(mockGameLoop).start();
+		assertEquals(mockGameLoop, gameHostingController.gameLoop());
+		when(mockServerCommunicator.numberOfConnectedCommunicators()).thenReturn(2);
+		when(mockServerCommunicator.listening()).thenReturn(true);
+		gameHostingController.startOrStopGame();
+		tick(gameHostingController);
+		assertTrue(gameHostingController.running());
+		assertEquals("Game In Progress", gameHostingController.errorMessage());
+		verify(mockServerCommunicator).stopListening();
+	}
+
+	/**
+	 * Ensures the startOrStopGame method only posts a command, which the
+	 * game actor runs on its next tick.
+	 * 
+	 * @throws Exception
+	 *             this should not happen
+	 */
+	@Test
+	public void testStartGameWaitsForTick() throws Exception
+	{
+		when(mockServerCommunicator.numberOfConnectedCommunicators()).thenReturn(2);
+		gameHostingController.startOrStopGame();
+		assertFalse(gameHostingController.running());
+		PowerMockito.verifyNew(Game.class, never()).withArguments(anyObject(),
+				anyObject(), anyObject());
+	}
+
+	/**
+	 * Ensures the waiting players are polled on the ticks of the game loop
+	 * while no game is running.
+	 * 
+	 * @throws Exception
+	 *             this should not happen
+	 */
+	@Test
+	public void testWaitingTickPollsPlayers() throws Exception
+	{
+		when(mockServerCommunicator.numberOfConnectedCommunicators()).thenReturn(3);
+		tick(gameHostingController);
+		assertEquals(3, gameHostingController.connectedPlayers());
+		ArgumentCaptor<IMessage> captor = ArgumentCaptor.forClass(IMessage.class);
+		verify(mockServerCommunicator).sendMessages(captor.capture());
+		assertEquals("GAME WAITING 3", captor.getValue().toString());
+	}
 
-		GameStepTimerTask mockGameStepTimerTask = mock(GameStepTimerTask.class);
-		PowerMockito.whenNew(GameStepTimerTask.class).withNoArguments()
-				.thenReturn(mockGameStepTimerTask);
-		mockTimer = mock(Timer.class);
-		PowerMockito.whenNew(Timer.class).withNoArguments().thenReturn(
-				mockTimer);
+	/**
+	 * Ensures the game loop is created with the tick rate of the configuration.
+	 * 
+	 * @throws Exception
+	 *             this should not happen
+	 */
+	@Test
+	public void testStartGameUsesTickRate() throws Exception
+	{
 		gameHostingController = new GameHostingController(mockNavigator,
-				mockControllerFactory, mockServerCommunicator);
-		verify(mockTimer).schedule(eq(mockGameStepTimerTask), anyLong(),
-				anyLong());
+				mockControllerFactory, mockServerCommunicator,
+				new GameConfiguration().withTickRate(30));
+		PowerMockito.verifyNew(GameLoop.class).withArguments(
+				any(GameTickCommand.class), eq(30));
+	}
+
+	/**
+	 * Ensures a tick of the game loop ticks the game with the number of
+	 * connected players.
+	 * 
+	 * @throws Exception
+	 *             this should not happen
+	 */
+	@Test
+	public void testGameTickStepsGame() throws Exception
+	{
+		GameHostingController controller = new GameHostingController(
+				mockNavigator, mockControllerFactory, mockServerCommunicator,
+				new GameConfiguration().withTickRate(20));
+		when(mockServerCommunicator.numberOfConnectedCommunicators()).thenReturn(2);
+		controller.startOrStopGame();
+
+		tick(controller);
+		tick(controller);
+
+		verify(mockGame, times(2)).tick(2);
+		assertTrue(controller.running());
+	}
+
+	/**
+	 * Ensures a tick of the game loop stops the game once no steps remain.
+	 * 
+	 * @throws Exception
+	 *             this should not happen
+	 */
+	@Test
+	public void testGameTickStopsFinishedGame() throws Exception
+	{
+		GameHostingController controller = new GameHostingController(
+				mockNavigator, mockControllerFactory, mockServerCommunicator);
 		when(mockServerCommunicator.numberOfConnectedCommunicators()).thenReturn(2);
+		controller.startOrStopGame();
+		when(mockGame.tick(anyInt())).thenReturn(false);
+
+		tick(controller);
+
+		assertFalse(controller.running());
+		verify(mockGame, never()).stop(anyInt());
+		verify(mockServerCommunicator).disconnect();
+	}
+
+	/**
+	 * Ensures the startOrStopGame method does not start the game when more
+	 * players are connected than the configuration allows.
+	 */
+	@Test
+	public void testStartGameTooManyPlayers()
+	{
+		gameHostingController = new GameHostingController(mockNavigator,
+				mockControllerFactory, mockServerCommunicator,
+				new GameConfiguration(17, 23, 0.5, 2));
+		when(mockServerCommunicator.numberOfConnectedCommunicators()).thenReturn(3);
 		gameHostingController.startOrStopGame();
-		assertTrue(gameHostingController.running());
+		tick(gameHostingController);
+		assertFalse(gameHostingController.running());
+		assertEquals("Game cannot be started with more than 2 connected players.",
+				gameHostingController.errorMessage());
+	}
+
+	/**
+	 * Ensures the game configuration defaults to the default settings.
+	 */
+	@Test
+	public void testGameConfiguration()
+	{
+		assertEquals(GameConfiguration.DEFAULT_NUMBER_OF_ROWS, gameHostingController
+				.gameConfiguration().numberOfRows());
+		assertEquals(GameConfiguration.DEFAULT_MAXIMUM_NUMBER_OF_PLAYERS,
+				gameHostingController.gameConfiguration().maximumNumberOfPlayers());
+	}
+
+	/**
+	 * Ensures the constructor throws a null pointer exception when provided
+	 * with a null configuration.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorConfigurationNull()
+	{
+		new GameHostingController(mockNavigator, mockControllerFactory,
+				mockServerCommunicator, null);
 	}
 
 	/**
@@ -174,6 +330,7 @@ public class GameHostingControllerTest
 		when(mockServerCommunicator.numberOfConnectedCommunicators()).thenReturn(1);
 		gameHostingController.bind("running", mockCommand);
 		gameHostingController.startOrStopGame();
+		tick(gameHostingController);
 		verify(mockCommand).execute();
 	}
 
@@ -186,8 +343,10 @@ public class GameHostingControllerTest
 	{
 		when(mockServerCommunicator.numberOfConnectedCommunicators()).thenReturn(1);
 		gameHostingController.startOrStopGame();
+		tick(gameHostingController);
 		gameHostingController.bind("running", mockCommand);
 		gameHostingController.startOrStopGame();
+		tick(gameHostingController);
 		verify(mockCommand).execute();
 	}
 
@@ -201,17 +360,14 @@ public class GameHostingControllerTest
 	@Test
 	public void testStopGame() throws Exception
 	{
-		GameStepTimerTask mockGameStepTimerTask = mock(GameStepTimerTask.class);
-		PowerMockito.whenNew(GameStepTimerTask.class).withNoArguments()
-				.thenReturn(mockGameStepTimerTask);
-		mockTimer = mock(Timer.class);
-		PowerMockito.whenNew(Timer.class).withNoArguments().thenReturn(
-				mockTimer);
-		gameHostingController = new GameHostingController(mockNavigator,
-				mockControllerFactory, mockServerCommunicator);
+		when(mockServerCommunicator.numberOfConnectedCommunicators()).thenReturn(1);
 		gameHostingController.startOrStopGame();
+		tick(gameHostingController);
+		assertTrue(gameHostingController.running());
 		gameHostingController.startOrStopGame();
+		tick(gameHostingController);
 		assertFalse(gameHostingController.running());
+		assertEquals("Waiting to Start Game", gameHostingController.errorMessage());
 	}
 
 	/**
@@ -224,18 +380,16 @@ public class GameHostingControllerTest
 	@Test
 	public void testMainMenuStopsGame() throws Exception
 	{
-		GameStepTimerTask mockGameStepTimerTask = mock(GameStepTimerTask.class);
-		PowerMockito.whenNew(GameStepTimerTask.class).withNoArguments()
-				.thenReturn(mockGameStepTimerTask);
-		mockTimer = mock(Timer.class);
-		PowerMockito.whenNew(Timer.class).withNoArguments().thenReturn(
-				mockTimer);
-		gameHostingController = new GameHostingController(mockNavigator,
-				mockControllerFactory, mockServerCommunicator);
+		when(mockServerCommunicator.numberOfConnectedCommunicators()).thenReturn(1);
 		gameHostingController.startOrStopGame();
+		tick(gameHostingController);
 		gameHostingController.mainMenu();
 		assertFalse(gameHostingController.running());
-		verify(mockTimer).cancel();
+		verify(mockGameLoop).stop();
+		verify(mockGame).stop(1);
+		verify(mockServerCommunicator).disconnect();
+		PowerMockito.verifyNew(SelectorServerCommunicator.class, never())
+				.withArguments(anyObject());
 	}
 
 	/**
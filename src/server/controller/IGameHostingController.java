@@ -1,5 +1,7 @@
 package server.controller;
 
+import server.model.GameLoop;
+import shared.model.GameConfiguration;
 import shared.model.communication.IServerCommunicator;
 
 /**
@@ -46,4 +48,17 @@ public interface IGameHostingController extends IController
 	 * @return the number of connected player.
 	 */
 	public int connectedPlayers();
+	
+	/**
+	 * Returns the settings of the games hosted by this IGameHostingController.
+	 * @return The settings of the hosted games.
+	 */
+	public GameConfiguration gameConfiguration();
+	
+	/**
+	 * Returns the loop which steps the hosted games, whose tick metrics describe how well the games
+	 * kept to their tick rate.
+	 * @return The game loop.
+	 */
+	public GameLoop gameLoop();
 }
@@ -5,7 +5,7 @@ import shared.controller.INavigator;
 import shared.model.communication.CommunicationException;
 import shared.model.communication.IServerCommunicator;
 import shared.model.communication.MessageFactory;
-import shared.model.communication.ServerCommunicator;
+import shared.model.communication.SelectorServerCommunicator;
 
 /**
  * Implements the IMainMenuControllerInterface.
@@ -46,7 +46,8 @@ public class MainMenuController extends Controller implements IMainMenuControlle
 		// attempt to create a server communicator
 		try
 		{
-			IServerCommunicator serverCommunicator = new ServerCommunicator(new MessageFactory());
+			IServerCommunicator serverCommunicator = new SelectorServerCommunicator(
+					new MessageFactory());
 			
 			// if successful, navigate to the game hosting screen
 			IGameHostingController controller = controllerFactory.createGameHostingController(navigator, 
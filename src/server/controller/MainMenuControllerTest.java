@@ -14,7 +14,7 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import shared.controller.INavigator;
 import shared.model.communication.CommunicationException;
 import shared.model.communication.IMessageFactory;
-import shared.model.communication.ServerCommunicator;
+import shared.model.communication.SelectorServerCommunicator;
 
 /**
  * Tests the MainMenuController class.
@@ -32,7 +32,7 @@ public class MainMenuControllerTest {
 	private IMainMenuController mainMenuController;
 
 	// a mock communicator used for testing
-	private ServerCommunicator mockServerCommunicator;
+	private SelectorServerCommunicator mockServerCommunicator;
 	// a mock controller
 	private IGameHostingController mockGameHostingController;
 
@@ -45,9 +45,9 @@ public class MainMenuControllerTest {
 	@Before
 	public void setUp() throws Exception {
 		// mock the communicator
-		mockServerCommunicator = mock(ServerCommunicator.class);
+		mockServerCommunicator = mock(SelectorServerCommunicator.class);
 		mockGameHostingController = mock(IGameHostingController.class);
-		PowerMockito.whenNew(ServerCommunicator.class)
+		PowerMockito.whenNew(SelectorServerCommunicator.class)
 				.withArguments(any(IMessageFactory.class))
 				.thenReturn(mockServerCommunicator);
 
@@ -147,7 +147,7 @@ public class MainMenuControllerTest {
 	@Test
 	public void testStartListeningDisplaysMessageIfNotSuccessful()
 			throws Exception {
-		PowerMockito.whenNew(ServerCommunicator.class).withParameterTypes(IMessageFactory.class).withArguments(anyObject())
+		PowerMockito.whenNew(SelectorServerCommunicator.class).withParameterTypes(IMessageFactory.class).withArguments(anyObject())
 				.thenThrow(new CommunicationException("Test Exception"));
 		// recreate the main menu controller
 		mainMenuController = new MainMenuController(mockNavigator,
@@ -164,7 +164,7 @@ public class MainMenuControllerTest {
 	 */
 	@Test
 	public void testStartListeningDoesntNavigateIfNotSuccessful() throws Exception {
-		PowerMockito.whenNew(ServerCommunicator.class)
+		PowerMockito.whenNew(SelectorServerCommunicator.class)
 		.withArguments(IMessageFactory.class)
 		.thenThrow(new CommunicationException("Test Exception"));
 		
@@ -0,0 +1,417 @@
+package server.model;
+
+import shared.model.GameObjectType;
+
+/**
+ * Resolves the chain reaction started by detonating bombs.  Bombs are detonated in breadth-first
+ * order from a queue, and every bomb reached by a blast is added to the end of the queue, so a
+ * chain of any length is resolved without recursion.  Each space reached by a blast is recorded
+ * once, together with the owner of the first bomb which reached it.
+ * <p>
+ * The extent of the ray a blast sends from each space in each direction, which is the blast length
+ * cut short by the edge of the board, is computed once when the engine is created, so spreading a
+ * blast never checks the bounds of the board.  The game objects which stop a ray are still read
+ * from the board for every blast, since blocks are destroyed as the game goes on.  A PackedBoard is
+ * read through its visitor, so spreading a blast over it does not allocate.
+ * <p>
+ * The engine only reads the board.  Its caller is responsible for removing the detonated bombs and
+ * destroying the game objects in the blast spaces once the chain reaction has been resolved, so
+ * every blast in a chain is computed against the same board.
+ */
+public class BlastEngine
+{
+	// the row and column changes of the four blast directions
+	private static final int[] ROW_CHANGES = { -1, 1, 0, 0 };
+	private static final int[] COLUMN_CHANGES = { 0, 0, -1, 1 };
+
+	// the board the blasts spread over
+	private final IBoard board;
+
+	// the board the blasts spread over if it is a PackedBoard, and null otherwise
+	private final PackedBoard packedBoard;
+
+	// the visitor which reads the game objects of each space a ray reaches
+	private final RayVisitor rayVisitor;
+
+	// the size of the board
+	private final int numberOfRows;
+	private final int numberOfColumns;
+
+	// the number of spaces the ray of a blast from each space can reach in each direction before
+	// the edge of the board, indexed by the space times the number of directions plus the direction
+	private final int[] rayExtents;
+
+	// the pass in which each space was last reached by a blast
+	private final int[] blastPasses;
+
+	// the pass in which the bomb in each space was last queued
+	private final int[] detonationPasses;
+
+	// the current pass
+	private int pass;
+
+	// true if the current pass has been resolved
+	private boolean resolved;
+
+	// the bombs queued in the current pass, which are detonated from the front of the array
+	private IGameObject[] bombs;
+	private int numberOfBombs;
+
+	// the spaces reached by a blast in the current pass and the owner of the blast which reached them
+	private final int[] blastSpaces;
+	private final IGameObject[] blastOwners;
+	private int numberOfBlastSpaces;
+
+	/**
+	 * Creates a new BlastEngine.
+	 * @param board The board the blasts spread over.
+	 * @param numberOfRows The number of rows of the board.
+	 * @param numberOfColumns The number of columns of the board.
+	 * @param blastLength The number of spaces a blast spreads in each direction.
+	 * @throws NullPointerException Thrown if the board is null.
+	 * @throws IllegalArgumentException Thrown if the number of rows or columns is less than or equal
+	 * to zero, or if the blast length is negative.
+	 */
+	public BlastEngine(IBoard board, int numberOfRows, int numberOfColumns, int blastLength)
+	{
+		if (board == null)
+			throw new NullPointerException();
+
+		if (numberOfRows <= 0 || numberOfColumns <= 0 || blastLength < 0)
+			throw new IllegalArgumentException();
+
+		this.board = board;
+		this.packedBoard = board instanceof PackedBoard ? (PackedBoard) board : null;
+		this.rayVisitor = new RayVisitor();
+		this.numberOfRows = numberOfRows;
+		this.numberOfColumns = numberOfColumns;
+
+		rayExtents = new int[numberOfRows * numberOfColumns * ROW_CHANGES.length];
+
+		for (int row = 0; row < numberOfRows; row++)
+		{
+			for (int column = 0; column < numberOfColumns; column++)
+			{
+				int[] distances = { row, numberOfRows - 1 - row, column, numberOfColumns - 1 - column };
+
+				for (int direction = 0; direction < ROW_CHANGES.length; direction++)
+					rayExtents[space(row, column) * ROW_CHANGES.length + direction] =
+							Math.min(blastLength, distances[direction]);
+			}
+		}
+
+		blastPasses = new int[numberOfRows * numberOfColumns];
+		detonationPasses = new int[numberOfRows * numberOfColumns];
+		pass = 1;
+		resolved = false;
+
+		bombs = new IGameObject[16];
+		blastSpaces = new int[numberOfRows * numberOfColumns];
+		blastOwners = new IGameObject[numberOfRows * numberOfColumns];
+	}
+
+	/**
+	 * Queues a bomb to be detonated by the next call to resolve.  A bomb which is already queued is
+	 * ignored.  Only one bomb may occupy a space.
+	 * @param bomb The bomb to detonate.
+	 * @throws NullPointerException Thrown if the bomb is null.
+	 * @throws IllegalArgumentException Thrown if the bomb is not on the board or has no owner.
+	 */
+	public void detonate(IGameObject bomb)
+	{
+		if (bomb == null)
+			throw new NullPointerException();
+
+		if (!bomb.onBoard() || !bomb.hasOwner())
+			throw new IllegalArgumentException();
+
+		if (resolved)
+			startPass();
+
+		queue(bomb, space(bomb.row(), bomb.column()));
+	}
+
+	/**
+	 * Detonates the queued bombs and every bomb reached by their blasts.  The results can be read
+	 * until the next call to detonate or resolve.
+	 */
+	public void resolve()
+	{
+		if (resolved)
+			startPass();
+
+		for (int i = 0; i < numberOfBombs; i++)
+		{
+			IGameObject bomb = bombs[i];
+			IGameObject owner = bomb.owner();
+			int row = bomb.row();
+			int column = bomb.column();
+
+			// the blast always reaches the bomb's own space
+			reach(row, column, owner);
+
+			int rays = space(row, column) * ROW_CHANGES.length;
+
+			for (int direction = 0; direction < ROW_CHANGES.length; direction++)
+				spread(row, column, ROW_CHANGES[direction], COLUMN_CHANGES[direction],
+						rayExtents[rays + direction], owner);
+		}
+
+		resolved = true;
+	}
+
+	/**
+	 * Returns the number of bombs detonated by the last call to resolve.
+	 * @return The number of bombs detonated by the last call to resolve.
+	 */
+	public int numberOfDetonatedBombs()
+	{
+		return resolved ? numberOfBombs : 0;
+	}
+
+	/**
+	 * Returns a bomb detonated by the last call to resolve, in the order they were detonated.
+	 * @param index The index of the bomb, from 0 to numberOfDetonatedBombs() - 1.
+	 * @return The detonated bomb.
+	 * @throws IndexOutOfBoundsException Thrown if the index is negative or not less than
+	 * numberOfDetonatedBombs().
+	 */
+	public IGameObject detonatedBomb(int index)
+	{
+		if (index < 0 || index >= numberOfDetonatedBombs())
+			throw new IndexOutOfBoundsException();
+
+		return bombs[index];
+	}
+
+	/**
+	 * Returns the number of spaces reached by a blast in the last call to resolve.
+	 * @return The number of spaces reached by a blast in the last call to resolve.
+	 */
+	public int numberOfBlastSpaces()
+	{
+		return resolved ? numberOfBlastSpaces : 0;
+	}
+
+	/**
+	 * Returns the row of a space reached by a blast in the last call to resolve.
+	 * @param index The index of the space, from 0 to numberOfBlastSpaces() - 1.
+	 * @return The row of the space.
+	 * @throws IndexOutOfBoundsException Thrown if the index is negative or not less than
+	 * numberOfBlastSpaces().
+	 */
+	public int blastRow(int index)
+	{
+		return blastSpace(index) / numberOfColumns;
+	}
+
+	/**
+	 * Returns the column of a space reached by a blast in the last call to resolve.
+	 * @param index The index of the space, from 0 to numberOfBlastSpaces() - 1.
+	 * @return The column of the space.
+	 * @throws IndexOutOfBoundsException Thrown if the index is negative or not less than
+	 * numberOfBlastSpaces().
+	 */
+	public int blastColumn(int index)
+	{
+		return blastSpace(index) % numberOfColumns;
+	}
+
+	/**
+	 * Returns the owner of the first blast which reached a space in the last call to resolve.
+	 * @param index The index of the space, from 0 to numberOfBlastSpaces() - 1.
+	 * @return The owner of the blast.
+	 * @throws IndexOutOfBoundsException Thrown if the index is negative or not less than
+	 * numberOfBlastSpaces().
+	 */
+	public IGameObject blastOwner(int index)
+	{
+		blastSpace(index);
+		return blastOwners[index];
+	}
+
+	/**
+	 * Private helper method which spreads a blast in one direction, up to the extent of its ray.  The
+	 * blast stops before a space containing an indestructible game object, and stops after a space
+	 * containing a solid game object.
+	 * @param row The row of the detonated bomb.
+	 * @param column The column of the detonated bomb.
+	 * @param rowChange The change in row for each space.
+	 * @param columnChange The change in column for each space.
+	 * @param extent The number of spaces the ray reaches before the edge of the board.
+	 * @param owner The owner of the blast.
+	 */
+	private void spread(int row, int column, int rowChange, int columnChange, int extent,
+			IGameObject owner)
+	{
+		for (int i = 0; i < extent; i++)
+		{
+			row += rowChange;
+			column += columnChange;
+
+			if (!visitSpace(row, column))
+				return;
+
+			reach(row, column, owner);
+
+			// queue the bomb reached by the blast
+			if (rayVisitor.bomb != null)
+				queue(rayVisitor.bomb, space(row, column));
+
+			if (rayVisitor.solid)
+				return;
+		}
+	}
+
+	/**
+	 * Private helper method which gives the game objects of a space to the ray visitor.  A
+	 * PackedBoard is visited in place, while the space of any other board is copied first.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @return True if the ray can enter the space and false if it is stopped before it.
+	 */
+	private boolean visitSpace(int row, int column)
+	{
+		rayVisitor.reset();
+
+		if (packedBoard != null)
+			return packedBoard.visitGameObjectsAtSpace(row, column, rayVisitor);
+
+		for (IGameObject gameObject : board.gameObjectsAtSpace(row, column))
+		{
+			if (!rayVisitor.visitGameObject(gameObject))
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Private helper method which records a space reached by a blast, unless it has already been
+	 * reached in the current pass.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @param owner The owner of the blast.
+	 */
+	private void reach(int row, int column, IGameObject owner)
+	{
+		int space = space(row, column);
+
+		if (blastPasses[space] == pass)
+			return;
+
+		blastPasses[space] = pass;
+		blastSpaces[numberOfBlastSpaces] = space;
+		blastOwners[numberOfBlastSpaces] = owner;
+		numberOfBlastSpaces++;
+	}
+
+	/**
+	 * Private helper method which adds a bomb to the end of the queue, unless a bomb in the same space
+	 * has already been queued in the current pass.
+	 * @param bomb The bomb to queue.
+	 * @param space The space of the bomb.
+	 */
+	private void queue(IGameObject bomb, int space)
+	{
+		if (detonationPasses[space] == pass)
+			return;
+
+		detonationPasses[space] = pass;
+
+		if (numberOfBombs == bombs.length)
+		{
+			IGameObject[] newBombs = new IGameObject[bombs.length * 2];
+			System.arraycopy(bombs, 0, newBombs, 0, numberOfBombs);
+			bombs = newBombs;
+		}
+
+		bombs[numberOfBombs] = bomb;
+		numberOfBombs++;
+	}
+
+	/**
+	 * Private helper method which clears the results of the last pass and starts a new one.
+	 */
+	private void startPass()
+	{
+		for (int i = 0; i < numberOfBombs; i++)
+			bombs[i] = null;
+
+		for (int i = 0; i < numberOfBlastSpaces; i++)
+			blastOwners[i] = null;
+
+		numberOfBombs = 0;
+		numberOfBlastSpaces = 0;
+		resolved = false;
+		pass++;
+	}
+
+	/**
+	 * Private helper method which converts a row and column into a space.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @return The space.
+	 * @throws IllegalArgumentException Thrown if the space is outside of the board.
+	 */
+	private int space(int row, int column)
+	{
+		if (row < 0 || row >= numberOfRows || column < 0 || column >= numberOfColumns)
+			throw new IllegalArgumentException();
+
+		return row * numberOfColumns + column;
+	}
+
+	/**
+	 * Private helper method which returns a space reached by a blast in the last call to resolve.
+	 * @param index The index of the space.
+	 * @return The space.
+	 * @throws IndexOutOfBoundsException Thrown if the index is negative or not less than
+	 * numberOfBlastSpaces().
+	 */
+	private int blastSpace(int index)
+	{
+		if (index < 0 || index >= numberOfBlastSpaces())
+			throw new IndexOutOfBoundsException();
+
+		return blastSpaces[index];
+	}
+
+	/**
+	 * Visits the game objects of a space reached by a ray.  The visit stops at an indestructible
+	 * game object, which stops the ray before the space.
+	 */
+	private static class RayVisitor implements IGameObjectVisitor
+	{
+		// true if the space contains a solid game object
+		private boolean solid;
+
+		// the bomb in the space, or null if the space does not contain a bomb
+		private IGameObject bomb;
+
+		/**
+		 * Clears the results of the last visited space.
+		 */
+		public void reset()
+		{
+			solid = false;
+			bomb = null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public boolean visitGameObject(IGameObject gameObject)
+		{
+			if (!gameObject.destructible())
+				return false;
+
+			solid |= gameObject.solid();
+
+			if (bomb == null && gameObject.type() == GameObjectType.BOMB)
+				bomb = gameObject;
+
+			return true;
+		}
+	}
+}
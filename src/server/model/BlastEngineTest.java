@@ -0,0 +1,395 @@
+package server.model;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A test class for the BlastEngine class.
+ */
+public class BlastEngineTest
+{
+	// the factory used to create the game objects on the test board
+	private IGameObjectFactory gameObjectFactory;
+
+	// the test board
+	private IBoard board;
+
+	// the test blast engine
+	private BlastEngine blastEngine;
+
+	// the owner of the bombs
+	private IGameObject player;
+
+	/**
+	 * Set up the test.
+	 */
+	@Before
+	public void setUp()
+	{
+		gameObjectFactory = new GameObjectFactory();
+		board = new Board(11, 11);
+		blastEngine = new BlastEngine(board, 11, 11, 3);
+		player = gameObjectFactory.createPlayer();
+	}
+
+	/**
+	 * Ensures the constructor throws a NullPointerException when the board is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorNullBoard()
+	{
+		new BlastEngine(null, 11, 11, 3);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when the number of rows is not
+	 * positive.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorIllegalRows()
+	{
+		new BlastEngine(board, 0, 11, 3);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when the blast length is negative.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorIllegalBlastLength()
+	{
+		new BlastEngine(board, 11, 11, -1);
+	}
+
+	/**
+	 * Ensures detonate throws a NullPointerException when the bomb is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testDetonateNull()
+	{
+		blastEngine.detonate(null);
+	}
+
+	/**
+	 * Ensures detonate throws an IllegalArgumentException when the bomb is not on the board.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testDetonateBombNotOnBoard()
+	{
+		blastEngine.detonate(gameObjectFactory.createBomb(player));
+	}
+
+	/**
+	 * Ensures a bomb in an open space blasts its own space and the full length in each direction.
+	 */
+	@Test
+	public void testResolveOpenSpace()
+	{
+		IGameObject bomb = placeBomb(5, 5, player);
+
+		blastEngine.detonate(bomb);
+		blastEngine.resolve();
+
+		assertEquals(1, blastEngine.numberOfDetonatedBombs());
+		assertSame(bomb, blastEngine.detonatedBomb(0));
+		assertEquals(13, blastEngine.numberOfBlastSpaces());
+		assertEquals(5, blastEngine.blastRow(0));
+		assertEquals(5, blastEngine.blastColumn(0));
+
+		HashSet<Integer> spaces = blastSpaces();
+		for (int i = 1; i <= 3; i++)
+		{
+			assertTrue(spaces.contains(space(5 - i, 5)));
+			assertTrue(spaces.contains(space(5 + i, 5)));
+			assertTrue(spaces.contains(space(5, 5 - i)));
+			assertTrue(spaces.contains(space(5, 5 + i)));
+		}
+
+		for (int i = 0; i < blastEngine.numberOfBlastSpaces(); i++)
+			assertSame(player, blastEngine.blastOwner(i));
+	}
+
+	/**
+	 * Ensures a blast stops before an indestructible game object.
+	 */
+	@Test
+	public void testResolveStopsBeforeIndestructible()
+	{
+		board.moveGameObjectToSpace(5, 7, gameObjectFactory.createUnbreakableBlock());
+		blastEngine.detonate(placeBomb(5, 5, player));
+		blastEngine.resolve();
+
+		HashSet<Integer> spaces = blastSpaces();
+		assertTrue(spaces.contains(space(5, 6)));
+		assertFalse(spaces.contains(space(5, 7)));
+		assertFalse(spaces.contains(space(5, 8)));
+		assertEquals(11, spaces.size());
+	}
+
+	/**
+	 * Ensures a blast stops after a solid, destructible game object.
+	 */
+	@Test
+	public void testResolveStopsAfterSolid()
+	{
+		board.moveGameObjectToSpace(5, 7, gameObjectFactory.createBreakableBlock());
+		blastEngine.detonate(placeBomb(5, 5, player));
+		blastEngine.resolve();
+
+		HashSet<Integer> spaces = blastSpaces();
+		assertTrue(spaces.contains(space(5, 6)));
+		assertTrue(spaces.contains(space(5, 7)));
+		assertFalse(spaces.contains(space(5, 8)));
+		assertEquals(12, spaces.size());
+	}
+
+	/**
+	 * Ensures a blast does not spread past the edge of the board.
+	 */
+	@Test
+	public void testResolveStopsAtEdge()
+	{
+		blastEngine.detonate(placeBomb(0, 1, player));
+		blastEngine.resolve();
+
+		assertEquals(8, blastEngine.numberOfBlastSpaces());
+	}
+
+	/**
+	 * Ensures a bomb reached by a blast is detonated in the same pass, and the spaces reached by both
+	 * blasts are only recorded once, owned by the first blast which reached them.
+	 */
+	@Test
+	public void testResolveChainReaction()
+	{
+		IGameObject otherPlayer = gameObjectFactory.createPlayer();
+		IGameObject firstBomb = placeBomb(5, 2, player);
+		IGameObject secondBomb = placeBomb(5, 5, otherPlayer);
+
+		blastEngine.detonate(firstBomb);
+		blastEngine.resolve();
+
+		assertEquals(2, blastEngine.numberOfDetonatedBombs());
+		assertSame(firstBomb, blastEngine.detonatedBomb(0));
+		assertSame(secondBomb, blastEngine.detonatedBomb(1));
+
+		// 12 spaces from the first blast, which is cut off by the edge, and 9 new ones from the second
+		assertEquals(21, blastEngine.numberOfBlastSpaces());
+		assertEquals(21, blastSpaces().size());
+
+		for (int i = 0; i < blastEngine.numberOfBlastSpaces(); i++)
+		{
+			int row = blastEngine.blastRow(i);
+			int column = blastEngine.blastColumn(i);
+
+			// the spaces only reached by the second blast are owned by its owner
+			boolean secondBlast = (column == 5 && row != 5) || (row == 5 && column > 5);
+			assertSame(secondBlast ? otherPlayer : player, blastEngine.blastOwner(i));
+		}
+	}
+
+	/**
+	 * Ensures a bomb queued twice is only detonated once.
+	 */
+	@Test
+	public void testDetonateTwice()
+	{
+		IGameObject bomb = placeBomb(5, 5, player);
+
+		blastEngine.detonate(bomb);
+		blastEngine.detonate(bomb);
+		blastEngine.resolve();
+
+		assertEquals(1, blastEngine.numberOfDetonatedBombs());
+		assertEquals(13, blastEngine.numberOfBlastSpaces());
+	}
+
+	/**
+	 * Ensures the results of a pass are cleared when the next pass starts.
+	 */
+	@Test
+	public void testResolveClearsLastPass()
+	{
+		IGameObject firstBomb = placeBomb(1, 1, player);
+		IGameObject secondBomb = placeBomb(9, 9, player);
+
+		blastEngine.detonate(firstBomb);
+		blastEngine.resolve();
+		assertEquals(1, blastEngine.numberOfDetonatedBombs());
+
+		board.removeGameObject(firstBomb);
+		blastEngine.detonate(secondBomb);
+		assertEquals(0, blastEngine.numberOfDetonatedBombs());
+		assertEquals(0, blastEngine.numberOfBlastSpaces());
+
+		blastEngine.resolve();
+		assertEquals(1, blastEngine.numberOfDetonatedBombs());
+		assertSame(secondBomb, blastEngine.detonatedBomb(0));
+		assertEquals(9, blastEngine.numberOfBlastSpaces());
+
+		blastEngine.resolve();
+		assertEquals(0, blastEngine.numberOfDetonatedBombs());
+		assertEquals(0, blastEngine.numberOfBlastSpaces());
+	}
+
+	/**
+	 * Ensures detonatedBomb throws an IndexOutOfBoundsException for an index past the detonated bombs.
+	 */
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testDetonatedBombOutOfBounds()
+	{
+		blastEngine.detonate(placeBomb(5, 5, player));
+		blastEngine.resolve();
+		blastEngine.detonatedBomb(1);
+	}
+
+	/**
+	 * Ensures blastOwner only reads the results of a resolved pass.
+	 */
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testBlastOwnerBeforeResolve()
+	{
+		blastEngine.detonate(placeBomb(5, 5, player));
+		blastEngine.blastOwner(0);
+	}
+
+	/**
+	 * Ensures the engine only queries the board it was created with.
+	 */
+	@Test
+	public void testResolveQueriesBoard()
+	{
+		IBoard spyBoard = spy(board);
+		blastEngine = new BlastEngine(spyBoard, 11, 11, 3);
+
+		blastEngine.detonate(placeBomb(5, 5, player));
+		blastEngine.resolve();
+
+		verify(spyBoard, times(12)).gameObjectsAtSpace(anyInt(), anyInt());
+	}
+
+	/**
+	 * Ensures the engine visits the spaces of a PackedBoard instead of copying them.
+	 */
+	@Test
+	public void testResolveVisitsPackedBoard()
+	{
+		PackedBoard spyBoard = spy(new PackedBoard(11, 11));
+		board = spyBoard;
+		blastEngine = new BlastEngine(spyBoard, 11, 11, 3);
+
+		blastEngine.detonate(placeBomb(5, 5, player));
+		blastEngine.resolve();
+
+		assertEquals(13, blastEngine.numberOfBlastSpaces());
+		verify(spyBoard, times(12)).visitGameObjectsAtSpace(anyInt(), anyInt(),
+				any(IGameObjectVisitor.class));
+		verify(spyBoard, never()).gameObjectsAtSpace(anyInt(), anyInt());
+	}
+
+	/**
+	 * Stress test which detonates hundreds of bombs spread over a large board at the same time.
+	 */
+	@Test
+	public void testResolveHundredsOfSimultaneousBombs()
+	{
+		int rows = 201;
+		int columns = 201;
+		int numberOfBombs = 800;
+		board = new PackedBoard(rows, columns);
+		blastEngine = new BlastEngine(board, rows, columns, 3);
+
+		Random random = new Random(42);
+		HashSet<Integer> bombSpaces = new HashSet<Integer>();
+
+		while (bombSpaces.size() < numberOfBombs)
+		{
+			int row = random.nextInt(rows);
+			int column = random.nextInt(columns);
+
+			if (bombSpaces.add(row * columns + column))
+				blastEngine.detonate(placeBomb(row, column, player));
+		}
+
+		blastEngine.resolve();
+
+		assertEquals(numberOfBombs, blastEngine.numberOfDetonatedBombs());
+
+		HashSet<Integer> spaces = new HashSet<Integer>();
+		for (int i = 0; i < blastEngine.numberOfBlastSpaces(); i++)
+			assertTrue(spaces.add(blastEngine.blastRow(i) * columns + blastEngine.blastColumn(i)));
+
+		assertTrue(spaces.containsAll(bombSpaces));
+	}
+
+	/**
+	 * Stress test which resolves a chain reaction of a thousand bombs started by a single bomb.
+	 */
+	@Test
+	public void testResolveLongChainReaction()
+	{
+		int numberOfBombs = 1000;
+		int columns = numberOfBombs * 3;
+		board = new PackedBoard(1, columns);
+		blastEngine = new BlastEngine(board, 1, columns, 3);
+
+		IGameObject firstBomb = null;
+		for (int i = 0; i < numberOfBombs; i++)
+		{
+			IGameObject bomb = placeBomb(0, i * 3, player);
+
+			if (firstBomb == null)
+				firstBomb = bomb;
+		}
+
+		blastEngine.detonate(firstBomb);
+		blastEngine.resolve();
+
+		assertEquals(numberOfBombs, blastEngine.numberOfDetonatedBombs());
+		assertEquals(columns, blastEngine.numberOfBlastSpaces());
+	}
+
+	/**
+	 * Helper method which places a bomb on the test board.
+	 * @param row The row of the bomb.
+	 * @param column The column of the bomb.
+	 * @param owner The owner of the bomb.
+	 * @return The bomb.
+	 */
+	private IGameObject placeBomb(int row, int column, IGameObject owner)
+	{
+		IGameObject bomb = gameObjectFactory.createBomb(owner);
+		board.moveGameObjectToSpace(row, column, bomb);
+		return bomb;
+	}
+
+	/**
+	 * Helper method which returns the spaces reached in the last pass, as row * 11 + column.
+	 * @return The spaces reached in the last pass.
+	 */
+	private HashSet<Integer> blastSpaces()
+	{
+		HashSet<Integer> spaces = new HashSet<Integer>();
+
+		for (int i = 0; i < blastEngine.numberOfBlastSpaces(); i++)
+			spaces.add(space(blastEngine.blastRow(i), blastEngine.blastColumn(i)));
+
+		return spaces;
+	}
+
+	/**
+	 * Helper method which converts a row and column of the 11 by 11 test board into a space.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @return The space.
+	 */
+	private int space(int row, int column)
+	{
+		return row * 11 + column;
+	}
+}
@@ -0,0 +1,170 @@
+package server.model;
+
+import java.util.Random;
+
+import shared.model.GameObjectType;
+
+/**
+ * Compares the query cost of Board and PackedBoard.  Each board is laid out like a game, and every
+ * iteration performs the queries a game step makes for every space: whether a player can move
+ * there, whether it is empty and whether it holds an explosion.  This class is a development tool
+ * and is not used by the game.
+ */
+public class BoardBenchmark
+{
+	// the board sizes to measure, as rows and columns
+	private static final int[][] BOARD_SIZES = { { 17, 23 }, { 101, 101 }, { 301, 301 } };
+
+	// the number of spaces queried in each measurement
+	private static final int QUERIES_PER_MEASUREMENT = 20000000;
+
+	// the fraction of the free spaces which are filled with breakable blocks
+	private static final double BREAKABLE_BLOCK_DENSITY = 0.4;
+
+	/**
+	 * Runs the benchmark and prints the average cost of querying one space on each board.
+	 * @param args This program ignores any command line arguments.
+	 */
+	public static void main(String[] args)
+	{
+		for (int[] size : BOARD_SIZES)
+		{
+			int rows = size[0];
+			int columns = size[1];
+			int iterations = Math.max(1, QUERIES_PER_MEASUREMENT / (rows * columns));
+
+			Board board = new Board(rows, columns);
+			PackedBoard packedBoard = new PackedBoard(rows, columns);
+			IGameObject player = layOut(board, rows, columns);
+			layOut(packedBoard, rows, columns);
+
+			// warm up both boards before measuring them
+			queryBoard(board, player, iterations);
+			queryPackedBoard(packedBoard, player, iterations);
+
+			long start = System.nanoTime();
+			int boardResult = queryBoard(board, player, iterations);
+			long boardTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			int packedBoardResult = queryPackedBoard(packedBoard, player, iterations);
+			long packedBoardTime = System.nanoTime() - start;
+
+			if (boardResult != packedBoardResult)
+				throw new IllegalStateException();
+
+			double spaces = (double) iterations * rows * columns;
+			System.out.printf("%dx%d board: Board %.2f ns/space, PackedBoard %.2f ns/space (%.1fx)%n",
+					rows, columns, boardTime / spaces, packedBoardTime / spaces,
+					(double) boardTime / packedBoardTime);
+		}
+	}
+
+	/**
+	 * Lays out the provided board with unbreakable blocks, breakable blocks and a few explosions.
+	 * The layout only depends on the board size, so every board of the same size gets the same
+	 * layout.
+	 * @param board The board to lay out.
+	 * @param rows The number of rows in the board.
+	 * @param columns The number of columns in the board.
+	 * @return A player which is not on the board, used for the queries.
+	 */
+	private static IGameObject layOut(IBoard board, int rows, int columns)
+	{
+		IGameObjectFactory gameObjectFactory = new GameObjectFactory();
+		Random random = new Random(rows * columns);
+		IGameObject player = gameObjectFactory.createPlayer();
+
+		for (int row = 0; row < rows; row++)
+		{
+			for (int column = 0; column < columns; column++)
+			{
+				if (row == 0 || row == rows - 1 || column == 0 || column == columns - 1
+						|| (row % 2 == 0 && column % 2 == 0))
+				{
+					board.moveGameObjectToSpace(row, column, gameObjectFactory.createUnbreakableBlock());
+				}
+				else if (random.nextDouble() < BREAKABLE_BLOCK_DENSITY)
+				{
+					board.moveGameObjectToSpace(row, column, gameObjectFactory.createBreakableBlock());
+				}
+				else if (random.nextDouble() < 0.05)
+				{
+					board.moveGameObjectToSpace(row, column, gameObjectFactory.createExplosion(player));
+				}
+			}
+		}
+
+		return player;
+	}
+
+	/**
+	 * Queries every space of a Board using its array-returning methods.
+	 * @param board The board to query.
+	 * @param player The player used to check movement.
+	 * @param iterations The number of times every space is queried.
+	 * @return A checksum of the query results.
+	 */
+	private static int queryBoard(Board board, IGameObject player, int iterations)
+	{
+		int result = 0;
+
+		for (int i = 0; i < iterations; i++)
+		{
+			for (int row = 0; row < board.numberOfRows(); row++)
+			{
+				for (int column = 0; column < board.numberOfColumns(); column++)
+				{
+					if (board.canMoveToSpace(row, column, player))
+						result++;
+
+					if (board.spaceEmpty(row, column))
+						result++;
+
+					for (IGameObject gameObject : board.gameObjectsAtSpace(row, column))
+					{
+						if (gameObject.type() == GameObjectType.EXPLOSION)
+						{
+							result++;
+							break;
+						}
+					}
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Queries every space of a PackedBoard using its primitive space properties.
+	 * @param board The board to query.
+	 * @param player The player used to check movement.
+	 * @param iterations The number of times every space is queried.
+	 * @return A checksum of the query results.
+	 */
+	private static int queryPackedBoard(PackedBoard board, IGameObject player, int iterations)
+	{
+		int result = 0;
+
+		for (int i = 0; i < iterations; i++)
+		{
+			for (int row = 0; row < board.numberOfRows(); row++)
+			{
+				for (int column = 0; column < board.numberOfColumns(); column++)
+				{
+					if (board.canMoveToSpace(row, column, player))
+						result++;
+
+					if (board.spaceEmpty(row, column))
+						result++;
+
+					if (board.explosionAtSpace(row, column))
+						result++;
+				}
+			}
+		}
+
+		return result;
+	}
+}
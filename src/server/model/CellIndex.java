@@ -0,0 +1,167 @@
+package server.model;
+
+/**
+ * A set of board spaces which supports constant time addition, removal and membership checks, and
+ * iteration over only the spaces it contains.  Each space is reference counted, so a space added
+ * twice stays in the set until it has been removed twice.
+ */
+public class CellIndex
+{
+	// the number of rows of the indexed board
+	private final int numberOfRows;
+
+	// the number of columns of the indexed board
+	private final int numberOfColumns;
+
+	// the reference count of each space
+	private final int[] counts;
+
+	// the position of each space in the spaces array
+	private final int[] positions;
+
+	// the spaces in this set, packed at the front of the array
+	private final int[] spaces;
+
+	// the number of spaces in this set
+	private int size;
+
+	/**
+	 * Creates an empty CellIndex for a board of the provided size.
+	 * @param numberOfRows The number of rows of the board.
+	 * @param numberOfColumns The number of columns of the board.
+	 * @throws IllegalArgumentException Thrown if the number of rows or columns is less than or equal
+	 * to zero.
+	 */
+	public CellIndex(int numberOfRows, int numberOfColumns)
+	{
+		if (numberOfRows <= 0 || numberOfColumns <= 0)
+			throw new IllegalArgumentException();
+
+		this.numberOfRows = numberOfRows;
+		this.numberOfColumns = numberOfColumns;
+
+		counts = new int[numberOfRows * numberOfColumns];
+		positions = new int[numberOfRows * numberOfColumns];
+		spaces = new int[numberOfRows * numberOfColumns];
+	}
+
+	/**
+	 * Adds a reference to the specified space.  A space which is not yet in this set is added to the
+	 * end of it, so spaces added while iterating are still iterated.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @throws IllegalArgumentException Thrown if the space is outside of the board.
+	 */
+	public void add(int row, int column)
+	{
+		int space = space(row, column);
+
+		if (counts[space] == 0)
+		{
+			positions[space] = size;
+			spaces[size] = space;
+			size++;
+		}
+
+		counts[space]++;
+	}
+
+	/**
+	 * Removes a reference to the specified space.  When the last reference is removed, the space is
+	 * replaced by the last space in this set, which changes the iteration order.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @throws IllegalArgumentException Thrown if the space is outside of the board.
+	 * @throws IllegalStateException Thrown if the space is not in this set.
+	 */
+	public void remove(int row, int column)
+	{
+		int space = space(row, column);
+
+		if (counts[space] == 0)
+			throw new IllegalStateException();
+
+		counts[space]--;
+
+		if (counts[space] == 0)
+		{
+			// move the last space into the removed space's position
+			int lastSpace = spaces[size - 1];
+			spaces[positions[space]] = lastSpace;
+			positions[lastSpace] = positions[space];
+			size--;
+		}
+	}
+
+	/**
+	 * Returns true if the specified space is in this set and false otherwise.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @return True if the specified space is in this set and false otherwise.
+	 * @throws IllegalArgumentException Thrown if the space is outside of the board.
+	 */
+	public boolean contains(int row, int column)
+	{
+		return counts[space(row, column)] > 0;
+	}
+
+	/**
+	 * Returns the number of spaces in this set.
+	 * @return The number of spaces in this set.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns the row of the space at the provided position in this set.
+	 * @param index The position of the space, from 0 to size() - 1.
+	 * @return The row of the space.
+	 * @throws IndexOutOfBoundsException Thrown if index is negative or not less than size().
+	 */
+	public int row(int index)
+	{
+		return spaceAt(index) / numberOfColumns;
+	}
+
+	/**
+	 * Returns the column of the space at the provided position in this set.
+	 * @param index The position of the space, from 0 to size() - 1.
+	 * @return The column of the space.
+	 * @throws IndexOutOfBoundsException Thrown if index is negative or not less than size().
+	 */
+	public int column(int index)
+	{
+		return spaceAt(index) % numberOfColumns;
+	}
+
+	/**
+	 * Private helper method which converts a row and column into a space.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @return The space.
+	 * @throws IllegalArgumentException Thrown if the space is outside of the board.
+	 */
+	private int space(int row, int column)
+	{
+		if (row < 0 || row >= numberOfRows || column < 0 || column >= numberOfColumns)
+			throw new IllegalArgumentException();
+
+		return row * numberOfColumns + column;
+	}
+
+	/**
+	 * Private helper method which returns the space at the provided position in this set.
+	 * @param index The position of the space.
+	 * @return The space.
+	 * @throws IndexOutOfBoundsException Thrown if index is negative or not less than size().
+	 */
+	private int spaceAt(int index)
+	{
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException();
+
+		return spaces[index];
+	}
+}
@@ -0,0 +1,183 @@
+package server.model;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A test class for the CellIndex class.
+ */
+public class CellIndexTest
+{
+	// the test cell index
+	private CellIndex cellIndex;
+
+	/**
+	 * Set up the test.
+	 */
+	@Before
+	public void setUp()
+	{
+		cellIndex = new CellIndex(17, 23);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when the number of rows is not
+	 * positive.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorRowIllegalArgument()
+	{
+		new CellIndex(0, 5);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when the number of columns is not
+	 * positive.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorColumnIllegalArgument()
+	{
+		new CellIndex(5, -1);
+	}
+
+	/**
+	 * Ensures a new cell index is empty.
+	 */
+	@Test
+	public void testConstructorEmpty()
+	{
+		assertEquals(0, cellIndex.size());
+		assertFalse(cellIndex.contains(0, 0));
+		assertFalse(cellIndex.contains(16, 22));
+	}
+
+	/**
+	 * Ensures added spaces are contained and iterated in the order they were added.
+	 */
+	@Test
+	public void testAdd()
+	{
+		cellIndex.add(3, 4);
+		cellIndex.add(16, 22);
+		cellIndex.add(0, 0);
+
+		assertEquals(3, cellIndex.size());
+		assertTrue(cellIndex.contains(3, 4));
+		assertTrue(cellIndex.contains(16, 22));
+		assertTrue(cellIndex.contains(0, 0));
+		assertFalse(cellIndex.contains(4, 3));
+
+		assertEquals(3, cellIndex.row(0));
+		assertEquals(4, cellIndex.column(0));
+		assertEquals(16, cellIndex.row(1));
+		assertEquals(22, cellIndex.column(1));
+		assertEquals(0, cellIndex.row(2));
+		assertEquals(0, cellIndex.column(2));
+	}
+
+	/**
+	 * Ensures adding a space twice only stores it once.
+	 */
+	@Test
+	public void testAddTwice()
+	{
+		cellIndex.add(3, 4);
+		cellIndex.add(3, 4);
+
+		assertEquals(1, cellIndex.size());
+		assertTrue(cellIndex.contains(3, 4));
+	}
+
+	/**
+	 * Ensures add throws an IllegalArgumentException for a space outside of the board.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testAddOutsideBoard()
+	{
+		cellIndex.add(17, 0);
+	}
+
+	/**
+	 * Ensures a space is only removed once all of its references are removed.
+	 */
+	@Test
+	public void testRemoveReferenceCounted()
+	{
+		cellIndex.add(3, 4);
+		cellIndex.add(3, 4);
+
+		cellIndex.remove(3, 4);
+		assertTrue(cellIndex.contains(3, 4));
+		assertEquals(1, cellIndex.size());
+
+		cellIndex.remove(3, 4);
+		assertFalse(cellIndex.contains(3, 4));
+		assertEquals(0, cellIndex.size());
+	}
+
+	/**
+	 * Ensures removing a space keeps the remaining spaces iterable.
+	 */
+	@Test
+	public void testRemoveMovesLastSpace()
+	{
+		cellIndex.add(1, 1);
+		cellIndex.add(2, 2);
+		cellIndex.add(3, 3);
+
+		cellIndex.remove(1, 1);
+
+		assertEquals(2, cellIndex.size());
+		assertEquals(3, cellIndex.row(0));
+		assertEquals(3, cellIndex.column(0));
+		assertEquals(2, cellIndex.row(1));
+		assertEquals(2, cellIndex.column(1));
+
+		// the moved space can still be removed
+		cellIndex.remove(3, 3);
+		assertEquals(1, cellIndex.size());
+		assertTrue(cellIndex.contains(2, 2));
+	}
+
+	/**
+	 * Ensures remove throws an IllegalStateException for a space which is not in the index.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testRemoveMissingSpace()
+	{
+		cellIndex.remove(3, 4);
+	}
+
+	/**
+	 * Ensures spaces added while iterating are iterated.
+	 */
+	@Test
+	public void testAddWhileIterating()
+	{
+		cellIndex.add(1, 1);
+
+		int visited = 0;
+		for (int i = 0; i < cellIndex.size(); i++)
+		{
+			visited++;
+
+			if (cellIndex.row(i) < 5)
+				cellIndex.add(cellIndex.row(i) + 1, cellIndex.column(i));
+		}
+
+		assertEquals(5, visited);
+	}
+
+	/**
+	 * Ensures row and column throw an IndexOutOfBoundsException for positions past the end of the
+	 * index.
+	 */
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testRowOutOfBounds()
+	{
+		cellIndex.add(1, 1);
+		cellIndex.row(1);
+	}
+}
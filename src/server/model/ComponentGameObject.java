@@ -0,0 +1,395 @@
+package server.model;
+
+import shared.model.*;
+
+/**
+ * An implementation of IGameObject whose state is stored in the arrays of a ComponentStore.  The
+ * game object only holds its identifier, and every member reads or writes one element of the
+ * store's arrays.  The members behave like those of a GameObject composed of the equivalent
+ * behaviors, except that an indestructible game object has 0 steps until destruction and an
+ * immobile game object starts off the board at row and column -1.
+ */
+public class ComponentGameObject implements IGameObject
+{
+	// the store which holds the state of the game object
+	private final ComponentStore store;
+
+	// the game object identifier
+	private final int identifier;
+
+	/**
+	 * Creates a game object backed by the provided store.  Game objects are created by the store.
+	 * @param store The store which holds the state of the game object.
+	 * @param identifier The game object identifier.
+	 */
+	ComponentGameObject(ComponentStore store, int identifier)
+	{
+		this.store = store;
+		this.identifier = identifier;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public int identifier()
+	{
+		return identifier;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public GameObjectType type()
+	{
+		return store.types[identifier];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public int row()
+	{
+		return store.rows[identifier];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public int column()
+	{
+		return store.columns[identifier];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean onBoard()
+	{
+		return has(ComponentStore.ON_BOARD);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void setPosition(int row, int column)
+	{
+		store.rows[identifier] = row;
+		store.columns[identifier] = column;
+		store.flags[identifier] |= ComponentStore.ON_BOARD;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void removeFromBoard()
+	{
+		store.rows[identifier] = -1;
+		store.columns[identifier] = -1;
+		store.flags[identifier] &= ~ComponentStore.ON_BOARD;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean solid()
+	{
+		return has(ComponentStore.SOLID);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean hasOwner()
+	{
+		return store.owners[identifier] != ComponentStore.NO_OWNER;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public IGameObject owner()
+	{
+		int owner = store.owners[identifier];
+		return owner == ComponentStore.NO_OWNER ? null : store.gameObjects[owner];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean hasScore()
+	{
+		return has(ComponentStore.SCORED);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public int score()
+	{
+		return store.scores[identifier];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void incrementScore()
+	{
+		if (!hasScore())
+			throw new IllegalStateException();
+
+		store.scores[identifier]++;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void decrementScore()
+	{
+		if (!hasScore())
+			throw new IllegalStateException();
+
+		store.scores[identifier]--;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean destructible()
+	{
+		return has(ComponentStore.DESTRUCTIBLE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public int numberOfStepsUntilDestruction()
+	{
+		return store.numberOfStepsUntilDestruction[identifier];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public DestructionAction destructionAction()
+	{
+		return store.destructionActions[identifier];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean canMove()
+	{
+		return has(ComponentStore.MOBILE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void startMovingInDirection(Direction direction)
+	{
+		store.directions[identifier] |= directionMask(direction);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void stopMovingInDirection(Direction direction)
+	{
+		store.directions[identifier] &= ~directionMask(direction);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public Direction directionToMove()
+	{
+		if (!canMove())
+			return null;
+
+		int directions = store.directions[identifier];
+
+		// only move when exactly one direction is held
+		if (Integer.bitCount(directions) != 1)
+			return Direction.NONE;
+
+		return Direction.values()[Integer.numberOfTrailingZeros(directions)];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void decrementNumberOfStepsUntilDestruction()
+	{
+		if (!destructionTimed())
+			return;
+
+		if (store.numberOfStepsUntilDestruction[identifier] == 0)
+			throw new IllegalStateException();
+
+		store.numberOfStepsUntilDestruction[identifier]--;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean placeBomb()
+	{
+		return has(ComponentStore.PLACE_BOMB);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void setPlaceBomb(boolean placeBomb)
+	{
+		if (!canPlaceBomb())
+			throw new IllegalStateException();
+
+		if (placeBomb)
+			store.flags[identifier] |= ComponentStore.PLACE_BOMB;
+		else
+			store.flags[identifier] &= ~ComponentStore.PLACE_BOMB;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean canPlaceBomb()
+	{
+		return has(ComponentStore.PLACES_BOMBS);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean destructionTimed()
+	{
+		return has(ComponentStore.TIMED);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public int bombCount()
+	{
+		return store.bombCounts[identifier];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void decrementBombCount()
+	{
+		if (!canPlaceBomb())
+			return;
+
+		if (store.bombCounts[identifier] == 0)
+			throw new IllegalStateException();
+
+		store.bombCounts[identifier]--;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void incrementBomb()
+	{
+		if (!canPlaceBomb())
+			return;
+
+		if (store.bombCounts[identifier] == store.maximumBombCounts[identifier])
+			throw new IllegalStateException();
+
+		store.bombCounts[identifier]++;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public int numberOfStepUntilRespawn()
+	{
+		return store.numberOfStepsUntilRespawn[identifier];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void resetNumberOfStepUntilRespawn()
+	{
+		store.numberOfStepsUntilRespawn[identifier] =
+				store.initialNumberOfStepsUntilRespawn[identifier];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void decrementNumberOfStepUntilRespawn()
+	{
+		if (!respawnCounted())
+			return;
+
+		if (store.numberOfStepsUntilRespawn[identifier] == 0)
+			throw new IllegalStateException();
+
+		store.numberOfStepsUntilRespawn[identifier]--;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void incrementNumberOfStepUntilRespawn()
+	{
+		if (!respawnCounted())
+			return;
+
+		if (store.numberOfStepsUntilRespawn[identifier]
+				== store.initialNumberOfStepsUntilRespawn[identifier])
+			throw new IllegalStateException();
+
+		store.numberOfStepsUntilRespawn[identifier]++;
+	}
+
+	/**
+	 * Private helper method which returns true if the game object has all of the provided flags.
+	 * @param flag The flags.
+	 * @return True if the game object has all of the provided flags and false otherwise.
+	 */
+	private boolean has(int flag)
+	{
+		return (store.flags[identifier] & flag) == flag;
+	}
+
+	/**
+	 * Private helper method which returns true if the game object counts the steps until it
+	 * respawns, which is the case for destructible game objects whose destruction is not timed.
+	 * @return True if the game object counts the steps until it respawns and false otherwise.
+	 */
+	private boolean respawnCounted()
+	{
+		return (store.flags[identifier] & (ComponentStore.DESTRUCTIBLE | ComponentStore.TIMED))
+				== ComponentStore.DESTRUCTIBLE;
+	}
+
+	/**
+	 * Private helper method which returns the bit of a direction a mobile game object moves in.
+	 * @param direction The direction.
+	 * @return The bit of the direction.
+	 * @throws IllegalStateException Thrown if the game object can not move.
+	 * @throws NullPointerException Thrown if the direction is null.
+	 * @throws IllegalArgumentException Thrown if the direction is NONE.
+	 */
+	private int directionMask(Direction direction)
+	{
+		if (!canMove())
+			throw new IllegalStateException();
+
+		if (direction == null)
+			throw new NullPointerException();
+
+		if (direction == Direction.NONE)
+			throw new IllegalArgumentException();
+
+		return 1 << direction.ordinal();
+	}
+}
@@ -0,0 +1,165 @@
+package server.model;
+
+import shared.model.GameConfiguration;
+import shared.model.GameObjectType;
+
+/**
+ * An implementation of IGameObjectFactory which creates game objects stored in a ComponentStore.
+ * The created game objects behave like the ones created by GameObjectFactory, but their state is
+ * kept in parallel arrays rather than in separate behavior objects.  A Game whose game objects are
+ * created by this factory steps them by reading the arrays of its store.
+ * <p>
+ * Like those of GameObjectFactory, the lifetimes of the game objects are set in milliseconds and
+ * counted in the steps of the tick rate of the factory.
+ */
+public class ComponentGameObjectFactory implements IGameObjectFactory
+{
+	/**
+	 * The number of milliseconds before a bomb is destroyed.
+	 */
+	private static final int BOMB_FUSE_TIME = 1800;
+
+	/**
+	 * The number of milliseconds before a explosion disappear
+	 */
+	private static final int EXPLOSION_TIME = 500;
+
+	/**
+	 * The initial max number of bomb that player can put.
+	 */
+	private static final int BOMB_MAX_COUNT_NUMBER = 3;
+
+	/**
+	 * The number of milliseconds before a player respawns
+	 */
+	private static final int RESPAWN_TIME = 1000;
+
+	// the store which holds the created game objects
+	private final ComponentStore store = new ComponentStore();
+
+	// the number of steps of the lifetimes of bombs, explosions and players
+	private final int bombInitialNumberOfStepsUntilDestruction;
+	private final int explosionInitialNumberOfStepsUntilDestruction;
+	private final int numberOfStepsUntilRespawn;
+
+	/**
+	 * Creates a new ComponentGameObjectFactory for games at the default tick rate.
+	 */
+	public ComponentGameObjectFactory()
+	{
+		this(GameConfiguration.DEFAULT_TICK_RATE);
+	}
+
+	/**
+	 * Creates a new ComponentGameObjectFactory for games at a tick rate.
+	 * @param tickRate The number of game steps per second.
+	 * @throws IllegalArgumentException Thrown if the tick rate is not between
+	 * GameConfiguration.MINIMUM_TICK_RATE and GameConfiguration.MAXIMUM_TICK_RATE.
+	 */
+	public ComponentGameObjectFactory(int tickRate)
+	{
+		if (tickRate < GameConfiguration.MINIMUM_TICK_RATE
+				|| tickRate > GameConfiguration.MAXIMUM_TICK_RATE)
+			throw new IllegalArgumentException();
+
+		bombInitialNumberOfStepsUntilDestruction =
+				GameObjectFactory.numberOfSteps(BOMB_FUSE_TIME, tickRate);
+		explosionInitialNumberOfStepsUntilDestruction =
+				GameObjectFactory.numberOfSteps(EXPLOSION_TIME, tickRate);
+		numberOfStepsUntilRespawn = GameObjectFactory.numberOfSteps(RESPAWN_TIME, tickRate);
+	}
+
+	/**
+	 * Returns the store which holds the game objects created by this factory.
+	 * @return The store which holds the game objects created by this factory.
+	 */
+	public ComponentStore store()
+	{
+		return store;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public IGameObject createPlayer()
+	{
+		return store.createGameObject(GameObjectType.PLAYER,
+				ComponentStore.MOBILE | ComponentStore.SOLID | ComponentStore.DESTRUCTIBLE
+				| ComponentStore.SCORED | ComponentStore.PLACES_BOMBS,
+				DestructionAction.RESPAWN, numberOfStepsUntilRespawn, BOMB_MAX_COUNT_NUMBER,
+				ComponentStore.NO_OWNER);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public IGameObject createUnbreakableBlock()
+	{
+		return store.createGameObject(GameObjectType.UNBREAKABLE_BLOCK, ComponentStore.SOLID,
+				null, 0, 0, ComponentStore.NO_OWNER);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public IGameObject createBreakableBlock()
+	{
+		return store.createGameObject(GameObjectType.BREAKABLE_BLOCK,
+				ComponentStore.SOLID | ComponentStore.DESTRUCTIBLE, DestructionAction.DISAPPEAR,
+				numberOfStepsUntilRespawn, 0, ComponentStore.NO_OWNER);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @throws IllegalArgumentException If owner was not created by this factory
+	 */
+	public IGameObject createBomb(IGameObject owner)
+	{
+		return store.createGameObject(GameObjectType.BOMB,
+				ComponentStore.MOBILE | ComponentStore.SOLID | ComponentStore.DESTRUCTIBLE
+				| ComponentStore.TIMED | ComponentStore.SCORED,
+				DestructionAction.EXPLODE, bombInitialNumberOfStepsUntilDestruction, 0,
+				storedIdentifier(owner));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @throws IllegalArgumentException If owner was not created by this factory
+	 */
+	public IGameObject createExplosion(IGameObject owner)
+	{
+		return store.createGameObject(GameObjectType.EXPLOSION,
+				ComponentStore.DESTRUCTIBLE | ComponentStore.TIMED | ComponentStore.SCORED,
+				DestructionAction.DISAPPEAR, explosionInitialNumberOfStepsUntilDestruction, 0,
+				storedIdentifier(owner));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void releaseGameObject(IGameObject gameObject)
+	{
+		store.releaseGameObject(storedIdentifier(gameObject));
+	}
+
+	/**
+	 * Private helper method which returns the identifier of a game object created by this factory.
+	 * @param gameObject The game object.
+	 * @return The identifier of the game object.
+	 * @throws NullPointerException Thrown if the game object is null.
+	 * @throws IllegalArgumentException Thrown if the game object was not created by this factory or
+	 * has been released.
+	 */
+	private int storedIdentifier(IGameObject gameObject)
+	{
+		if (gameObject == null)
+			throw new NullPointerException();
+
+		int identifier = gameObject.identifier();
+
+		if (!store.contains(identifier) || store.gameObject(identifier) != gameObject)
+			throw new IllegalArgumentException();
+
+		return identifier;
+	}
+}
@@ -0,0 +1,439 @@
+package server.model;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import server.model.GameBenchmark.RandomKeyCommunicator;
+import shared.model.Direction;
+import shared.model.GameConfiguration;
+import shared.model.GameObjectType;
+import shared.model.communication.BinaryMessageCodec;
+import shared.model.communication.CommunicationException;
+import shared.model.communication.IMessage;
+
+/**
+ * A test class for the ComponentGameObjectFactory class.  Most tests check that the created game
+ * objects behave like the game objects created by GameObjectFactory.
+ */
+public class ComponentGameObjectFactoryTest
+{
+	// the number of operations applied to each pair of game objects in the parity tests
+	private static final int NUMBER_OF_OPERATIONS = 2000;
+
+	// the number of different operations
+	private static final int NUMBER_OF_OPERATION_KINDS = 15;
+
+	// the test factory
+	private ComponentGameObjectFactory factory;
+
+	// the factory the created game objects are compared with
+	private GameObjectFactory behaviorFactory;
+
+	/**
+	 * Set up the test.
+	 */
+	@Before
+	public void setUp()
+	{
+		factory = new ComponentGameObjectFactory();
+		behaviorFactory = new GameObjectFactory();
+	}
+
+	/**
+	 * Ensures a player behaves like a player created by GameObjectFactory.
+	 */
+	@Test
+	public void testCreatePlayer()
+	{
+		IGameObject player = factory.createPlayer();
+
+		assertEquals(GameObjectType.PLAYER, player.type());
+		assertParity(behaviorFactory.createPlayer(), player, 1);
+	}
+
+	/**
+	 * Ensures an unbreakable block behaves like an unbreakable block created by GameObjectFactory.
+	 */
+	@Test
+	public void testCreateUnbreakableBlock()
+	{
+		IGameObject block = factory.createUnbreakableBlock();
+
+		assertEquals(GameObjectType.UNBREAKABLE_BLOCK, block.type());
+		assertEquals(0, block.numberOfStepsUntilDestruction());
+		assertParity(behaviorFactory.createUnbreakableBlock(), block, 2);
+	}
+
+	/**
+	 * Ensures a breakable block behaves like a breakable block created by GameObjectFactory.
+	 */
+	@Test
+	public void testCreateBreakableBlock()
+	{
+		IGameObject block = factory.createBreakableBlock();
+
+		assertEquals(GameObjectType.BREAKABLE_BLOCK, block.type());
+		assertParity(behaviorFactory.createBreakableBlock(), block, 3);
+	}
+
+	/**
+	 * Ensures a bomb behaves like a bomb created by GameObjectFactory.
+	 */
+	@Test
+	public void testCreateBomb()
+	{
+		IGameObject player = factory.createPlayer();
+		IGameObject bomb = factory.createBomb(player);
+
+		assertEquals(GameObjectType.BOMB, bomb.type());
+		assertSame(player, bomb.owner());
+		assertParity(behaviorFactory.createBomb(behaviorFactory.createPlayer()), bomb, 4);
+	}
+
+	/**
+	 * Ensures an explosion behaves like an explosion created by GameObjectFactory.
+	 */
+	@Test
+	public void testCreateExplosion()
+	{
+		IGameObject player = factory.createPlayer();
+		IGameObject explosion = factory.createExplosion(player);
+
+		assertEquals(GameObjectType.EXPLOSION, explosion.type());
+		assertSame(player, explosion.owner());
+		assertParity(behaviorFactory.createExplosion(behaviorFactory.createPlayer()), explosion, 5);
+	}
+
+	/**
+	 * Ensures game objects created by the factory have distinct identifiers, and that the identifier
+	 * of a released game object is reused.
+	 */
+	@Test
+	public void testIdentifiers()
+	{
+		IGameObject player = factory.createPlayer();
+		IGameObject block = factory.createBreakableBlock();
+		IGameObject bomb = factory.createBomb(player);
+
+		assertEquals(0, player.identifier());
+		assertEquals(1, block.identifier());
+		assertEquals(2, bomb.identifier());
+		assertEquals(3, factory.store().numberOfGameObjects());
+
+		factory.releaseGameObject(block);
+		assertFalse(factory.store().contains(1));
+
+		IGameObject explosion = factory.createExplosion(player);
+		assertEquals(1, explosion.identifier());
+		assertEquals(GameObjectType.EXPLOSION, explosion.type());
+		assertFalse(explosion.onBoard());
+		assertEquals(0, explosion.score());
+	}
+
+	/**
+	 * Ensures the state of a released game object does not leak into the next game object created
+	 * with its identifier.
+	 */
+	@Test
+	public void testReleasedStateIsReset()
+	{
+		IGameObject player = factory.createPlayer();
+		player.setPosition(3, 4);
+		player.incrementScore();
+		player.setPlaceBomb(true);
+		player.decrementBombCount();
+		player.startMovingInDirection(Direction.LEFT);
+		factory.releaseGameObject(player);
+
+		IGameObject newPlayer = factory.createPlayer();
+		assertParity(behaviorFactory.createPlayer(), newPlayer, 6);
+	}
+
+	/**
+	 * Ensures the store grows past its initial capacity.
+	 */
+	@Test
+	public void testManyGameObjects()
+	{
+		IGameObject player = factory.createPlayer();
+
+		for (int i = 1; i < 1000; i++)
+		{
+			IGameObject bomb = factory.createBomb(player);
+			bomb.setPosition(i, i);
+			assertEquals(i, bomb.identifier());
+		}
+
+		assertEquals(1000, factory.store().numberOfGameObjects());
+		assertEquals(999, factory.store().gameObject(999).row());
+		assertSame(player, factory.store().gameObject(999).owner());
+	}
+
+	/**
+	 * Ensures the lifetimes of bombs and explosions last as long at every tick rate.
+	 */
+	@Test
+	public void testLifetimesSameAtEveryTickRate()
+	{
+		int[] tickRates = { GameConfiguration.MINIMUM_TICK_RATE, GameConfiguration.MAXIMUM_TICK_RATE };
+		int[] bombTimes = new int[tickRates.length];
+		int[] explosionTimes = new int[tickRates.length];
+
+		for (int i = 0; i < tickRates.length; i++)
+		{
+			factory = new ComponentGameObjectFactory(tickRates[i]);
+			IGameObject player = factory.createPlayer();
+			bombTimes[i] = factory.createBomb(player).numberOfStepsUntilDestruction() * 1000
+					/ tickRates[i];
+			explosionTimes[i] = factory.createExplosion(player).numberOfStepsUntilDestruction()
+					* 1000 / tickRates[i];
+		}
+
+		assertEquals(bombTimes[0], bombTimes[1]);
+		assertEquals(explosionTimes[0], explosionTimes[1]);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException for a tick rate above the maximum.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testTickRateTooHigh()
+	{
+		new ComponentGameObjectFactory(GameConfiguration.MAXIMUM_TICK_RATE + 1);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException for a tick rate below the minimum.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testTickRateTooLow()
+	{
+		new ComponentGameObjectFactory(GameConfiguration.MINIMUM_TICK_RATE - 1);
+	}
+
+	/**
+	 * Ensures a game which steps the arrays of the store plays a match exactly like a game whose
+	 * game objects are created by GameObjectFactory, by comparing every message they send.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testGameParity() throws CommunicationException
+	{
+		GameConfiguration configuration = new GameConfiguration(
+				GameConfiguration.DEFAULT_NUMBER_OF_ROWS, GameConfiguration.DEFAULT_NUMBER_OF_COLUMNS,
+				0.5, 4, 7);
+		RecordingCommunicator expected = new RecordingCommunicator();
+		RecordingCommunicator actual = new RecordingCommunicator();
+		Game expectedGame = new Game(expected, behaviorFactory, configuration);
+		Game actualGame = new Game(actual, factory, configuration);
+
+		while (expectedGame.numberOfRemainingSteps() > 0)
+		{
+			expectedGame.step();
+			actualGame.step();
+		}
+
+		assertTrue(expected.messages.size() > 0);
+		assertArrayEquals(expected.messages.toByteArray(), actual.messages.toByteArray());
+	}
+
+	/**
+	 * Ensures createBomb throws a NullPointerException when the owner is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testCreateBombNullOwner()
+	{
+		factory.createBomb(null);
+	}
+
+	/**
+	 * Ensures createExplosion throws an IllegalArgumentException when the owner was created by
+	 * another factory.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testCreateExplosionForeignOwner()
+	{
+		factory.createPlayer();
+		factory.createExplosion(behaviorFactory.createPlayer());
+	}
+
+	/**
+	 * Ensures releaseGameObject throws a NullPointerException when the game object is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testReleaseNull()
+	{
+		factory.releaseGameObject(null);
+	}
+
+	/**
+	 * Ensures releaseGameObject throws an IllegalArgumentException when the game object has already
+	 * been released.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testReleaseTwice()
+	{
+		IGameObject player = factory.createPlayer();
+
+		factory.releaseGameObject(player);
+		factory.releaseGameObject(player);
+	}
+
+	/**
+	 * Helper method which applies the same random operations to two game objects and asserts they
+	 * end up in the same state and throw the same exceptions after every operation.
+	 * @param expected The game object created by GameObjectFactory.
+	 * @param actual The game object created by ComponentGameObjectFactory.
+	 * @param seed The seed of the random operations.
+	 */
+	private void assertParity(IGameObject expected, IGameObject actual, long seed)
+	{
+		Random random = new Random(seed);
+
+		// the initial position of immobile behaviors differs, so place both game objects first
+		expected.setPosition(0, 0);
+		actual.setPosition(0, 0);
+		assertSameState(expected, actual);
+
+		for (int i = 0; i < NUMBER_OF_OPERATIONS; i++)
+		{
+			int operation = random.nextInt(NUMBER_OF_OPERATION_KINDS);
+			int argument = random.nextInt(Direction.values().length);
+
+			assertEquals("operation " + operation,
+					apply(expected, operation, argument), apply(actual, operation, argument));
+			assertSameState(expected, actual);
+		}
+	}
+
+	/**
+	 * Helper method which applies an operation to a game object.
+	 * @param gameObject The game object.
+	 * @param operation The operation.
+	 * @param argument The argument of the operation.
+	 * @return The class of the exception thrown by the operation, or null if it did not throw one.
+	 */
+	private Class<?> apply(IGameObject gameObject, int operation, int argument)
+	{
+		Direction direction = Direction.values()[argument];
+
+		try
+		{
+			switch (operation)
+			{
+				case 0: gameObject.setPosition(argument, argument + 1); break;
+				case 1: gameObject.removeFromBoard(); break;
+				case 2: gameObject.incrementScore(); break;
+				case 3: gameObject.decrementScore(); break;
+				case 4: gameObject.startMovingInDirection(direction); break;
+				case 5: gameObject.stopMovingInDirection(null); break;
+				case 6: gameObject.stopMovingInDirection(direction); break;
+				case 7: gameObject.decrementNumberOfStepsUntilDestruction(); break;
+				case 8: gameObject.setPlaceBomb(argument % 2 == 0); break;
+				case 9: gameObject.decrementBombCount(); break;
+				case 10: gameObject.incrementBomb(); break;
+				case 11: gameObject.resetNumberOfStepUntilRespawn(); break;
+				case 12: gameObject.decrementNumberOfStepUntilRespawn(); break;
+				case 13: gameObject.incrementNumberOfStepUntilRespawn(); break;
+				default: gameObject.startMovingInDirection(null); break;
+			}
+		}
+		catch (RuntimeException e)
+		{
+			return e.getClass();
+		}
+
+		return null;
+	}
+
+	/**
+	 * Helper method which asserts two game objects are in the same state.
+	 * @param expected The expected game object.
+	 * @param actual The actual game object.
+	 */
+	private void assertSameState(IGameObject expected, IGameObject actual)
+	{
+		assertEquals(expected.type(), actual.type());
+		assertEquals(expected.row(), actual.row());
+		assertEquals(expected.column(), actual.column());
+		assertEquals(expected.onBoard(), actual.onBoard());
+		assertEquals(expected.solid(), actual.solid());
+		assertEquals(expected.hasOwner(), actual.hasOwner());
+		assertEquals(expected.hasScore(), actual.hasScore());
+		assertEquals(expected.score(), actual.score());
+		assertEquals(expected.destructible(), actual.destructible());
+		assertEquals(expected.destructionTimed(), actual.destructionTimed());
+		assertEquals(expected.destructionAction(), actual.destructionAction());
+		assertEquals(expected.canMove(), actual.canMove());
+		assertEquals(expected.directionToMove(), actual.directionToMove());
+		assertEquals(expected.placeBomb(), actual.placeBomb());
+		assertEquals(expected.canPlaceBomb(), actual.canPlaceBomb());
+		assertEquals(expected.bombCount(), actual.bombCount());
+		assertEquals(expected.numberOfStepUntilRespawn(), actual.numberOfStepUntilRespawn());
+
+		if (expected.destructible())
+			assertEquals(expected.numberOfStepsUntilDestruction(),
+					actual.numberOfStepsUntilDestruction());
+	}
+
+	/**
+	 * A communicator which sends random keys for the players like RandomKeyCommunicator, and
+	 * records the encoding of every message sent to the clients.
+	 */
+	private static class RecordingCommunicator extends RandomKeyCommunicator
+	{
+		// the codec which encodes the sent messages
+		private final BinaryMessageCodec codec = new BinaryMessageCodec();
+
+		// the buffer the messages are encoded in
+		private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+		// the encoded messages, in the order they were sent
+		private final ByteArrayOutputStream messages = new ByteArrayOutputStream();
+
+		/**
+		 * Creates a new RecordingCommunicator whose players press the same keys as those of every
+		 * other RecordingCommunicator.
+		 */
+		public RecordingCommunicator()
+		{
+			super(0);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void sendMessages(IMessage message)
+		{
+			record(message);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void sendMessageBatch(IMessage[] messages)
+		{
+			for (IMessage message : messages)
+				record(message);
+		}
+
+		/**
+		 * Encodes a sent message at the end of the recorded messages.
+		 * @param message The message.
+		 */
+		private void record(IMessage message)
+		{
+			buffer.clear();
+			codec.encode(message, buffer);
+			messages.write(buffer.array(), 0, buffer.position());
+		}
+	}
+}
@@ -0,0 +1,253 @@
+package server.model;
+
+import shared.model.GameObjectType;
+
+/**
+ * Stores the state of the game objects of one game in parallel primitive arrays, indexed by the
+ * game object identifier.  Every game object in the store is accessed through a ComponentGameObject,
+ * which reads and writes these arrays directly instead of delegating to behavior objects.  The
+ * arrays are package-private, so that Game can step the game objects by running over them.
+ */
+public class ComponentStore
+{
+	/**
+	 * The flag of game objects which can move.
+	 */
+	public static final int MOBILE = 1;
+
+	/**
+	 * The flag of game objects which are solid.
+	 */
+	public static final int SOLID = 1 << 1;
+
+	/**
+	 * The flag of game objects which can be destroyed.
+	 */
+	public static final int DESTRUCTIBLE = 1 << 2;
+
+	/**
+	 * The flag of destructible game objects which are destroyed after a number of steps.
+	 */
+	public static final int TIMED = 1 << 3;
+
+	/**
+	 * The flag of game objects which have a score.
+	 */
+	public static final int SCORED = 1 << 4;
+
+	/**
+	 * The flag of game objects which can place bombs.
+	 */
+	public static final int PLACES_BOMBS = 1 << 5;
+
+	// the flags which describe the state of a game object rather than its kind
+	static final int ON_BOARD = 1 << 6;
+	static final int PLACE_BOMB = 1 << 7;
+
+	// the mask of the flags which can be provided when creating a game object
+	private static final int KIND_FLAGS = MOBILE | SOLID | DESTRUCTIBLE | TIMED | SCORED
+			| PLACES_BOMBS;
+
+	/**
+	 * The owner of game objects which have no owner.
+	 */
+	public static final int NO_OWNER = -1;
+
+	// the allocator of the game object identifiers
+	private final IdentifierAllocator identifierAllocator;
+
+	// the components of the game objects, indexed by identifier
+	GameObjectType[] types;
+	int[] flags;
+	int[] rows;
+	int[] columns;
+	int[] directions;
+	DestructionAction[] destructionActions;
+	int[] numberOfStepsUntilDestruction;
+	int[] numberOfStepsUntilRespawn;
+	int[] initialNumberOfStepsUntilRespawn;
+	int[] owners;
+	int[] scores;
+	int[] bombCounts;
+	int[] maximumBombCounts;
+	ComponentGameObject[] gameObjects;
+
+	/**
+	 * Creates an empty ComponentStore.
+	 */
+	public ComponentStore()
+	{
+		identifierAllocator = new IdentifierAllocator();
+		allocate(64);
+	}
+
+	/**
+	 * Creates a game object in this store.
+	 * @param type The game object type.
+	 * @param kindFlags The flags of the game object, a combination of MOBILE, SOLID, DESTRUCTIBLE,
+	 * TIMED, SCORED and PLACES_BOMBS.
+	 * @param destructionAction The destruction action of a destructible game object, or null for an
+	 * indestructible game object.
+	 * @param numberOfSteps The number of steps until destruction of a timed game object, or the
+	 * number of steps until respawn of any other destructible game object.
+	 * @param maximumBombCount The number of bombs a game object which can place bombs starts with.
+	 * @param owner The identifier of the owner of the game object, or NO_OWNER.
+	 * @return The new game object.
+	 * @throws NullPointerException Thrown if the type is null, or if the destruction action of a
+	 * destructible game object is null.
+	 * @throws IllegalArgumentException Thrown if the flags are not a combination of the kind flags,
+	 * if TIMED is provided without DESTRUCTIBLE, if the number of steps of a timed game object is
+	 * negative, or if the owner is not a game object in this store.
+	 */
+	public ComponentGameObject createGameObject(GameObjectType type, int kindFlags,
+			DestructionAction destructionAction, int numberOfSteps, int maximumBombCount, int owner)
+	{
+		if (type == null || ((kindFlags & DESTRUCTIBLE) != 0 && destructionAction == null))
+			throw new NullPointerException();
+
+		if ((kindFlags & ~KIND_FLAGS) != 0
+				|| ((kindFlags & TIMED) != 0 && (kindFlags & DESTRUCTIBLE) == 0)
+				|| ((kindFlags & TIMED) != 0 && numberOfSteps < 0)
+				|| (owner != NO_OWNER && !contains(owner)))
+			throw new IllegalArgumentException();
+
+		int identifier = identifierAllocator.allocate();
+
+		if (identifier >= types.length)
+			allocate(types.length * 2);
+
+		boolean destructible = (kindFlags & DESTRUCTIBLE) != 0;
+		boolean timed = (kindFlags & TIMED) != 0;
+		boolean placesBombs = (kindFlags & PLACES_BOMBS) != 0;
+
+		types[identifier] = type;
+		flags[identifier] = kindFlags;
+		rows[identifier] = -1;
+		columns[identifier] = -1;
+		directions[identifier] = 0;
+		destructionActions[identifier] = destructible ? destructionAction : null;
+		numberOfStepsUntilDestruction[identifier] = timed ? numberOfSteps : 0;
+		numberOfStepsUntilRespawn[identifier] = destructible && !timed ? numberOfSteps : 0;
+		initialNumberOfStepsUntilRespawn[identifier] = numberOfStepsUntilRespawn[identifier];
+		owners[identifier] = owner;
+		scores[identifier] = 0;
+		bombCounts[identifier] = placesBombs ? maximumBombCount : 0;
+		maximumBombCounts[identifier] = bombCounts[identifier];
+
+		ComponentGameObject gameObject = new ComponentGameObject(this, identifier);
+		gameObjects[identifier] = gameObject;
+		return gameObject;
+	}
+
+	/**
+	 * Removes a game object from this store, so that its identifier can be reused.
+	 * @param identifier The identifier of the game object.
+	 * @throws IllegalArgumentException Thrown if the identifier is not a game object in this store.
+	 */
+	public void releaseGameObject(int identifier)
+	{
+		if (!contains(identifier))
+			throw new IllegalArgumentException();
+
+		identifierAllocator.release(identifier);
+		types[identifier] = null;
+		flags[identifier] = 0;
+		destructionActions[identifier] = null;
+		gameObjects[identifier] = null;
+	}
+
+	/**
+	 * Returns true if the identifier is a game object in this store and false otherwise.
+	 * @param identifier The identifier.
+	 * @return True if the identifier is a game object in this store and false otherwise.
+	 */
+	public boolean contains(int identifier)
+	{
+		return identifierAllocator.allocated(identifier);
+	}
+
+	/**
+	 * Returns the game object with the provided identifier.
+	 * @param identifier The identifier of the game object.
+	 * @return The game object.
+	 * @throws IllegalArgumentException Thrown if the identifier is not a game object in this store.
+	 */
+	public ComponentGameObject gameObject(int identifier)
+	{
+		if (!contains(identifier))
+			throw new IllegalArgumentException();
+
+		return gameObjects[identifier];
+	}
+
+	/**
+	 * Returns the number of game objects in this store.
+	 * @return The number of game objects in this store.
+	 */
+	public int numberOfGameObjects()
+	{
+		return identifierAllocator.numberOfAllocatedIdentifiers();
+	}
+
+	/**
+	 * Returns one more than the largest identifier ever allocated by this store.  Every game object in
+	 * this store has an identifier less than this bound.
+	 * @return One more than the largest identifier ever allocated by this store.
+	 */
+	public int identifierBound()
+	{
+		return identifierAllocator.identifierBound();
+	}
+
+	/**
+	 * Private helper method which grows the component arrays to the provided capacity.
+	 * @param capacity The new capacity.
+	 */
+	private void allocate(int capacity)
+	{
+		int length = types == null ? 0 : types.length;
+
+		GameObjectType[] newTypes = new GameObjectType[capacity];
+		DestructionAction[] newDestructionActions = new DestructionAction[capacity];
+		ComponentGameObject[] newGameObjects = new ComponentGameObject[capacity];
+
+		if (length > 0)
+		{
+			System.arraycopy(types, 0, newTypes, 0, length);
+			System.arraycopy(destructionActions, 0, newDestructionActions, 0, length);
+			System.arraycopy(gameObjects, 0, newGameObjects, 0, length);
+		}
+
+		types = newTypes;
+		destructionActions = newDestructionActions;
+		gameObjects = newGameObjects;
+
+		flags = grow(flags, capacity);
+		rows = grow(rows, capacity);
+		columns = grow(columns, capacity);
+		directions = grow(directions, capacity);
+		numberOfStepsUntilDestruction = grow(numberOfStepsUntilDestruction, capacity);
+		numberOfStepsUntilRespawn = grow(numberOfStepsUntilRespawn, capacity);
+		initialNumberOfStepsUntilRespawn = grow(initialNumberOfStepsUntilRespawn, capacity);
+		owners = grow(owners, capacity);
+		scores = grow(scores, capacity);
+		bombCounts = grow(bombCounts, capacity);
+		maximumBombCounts = grow(maximumBombCounts, capacity);
+	}
+
+	/**
+	 * Private helper method which copies an int array into a larger one.
+	 * @param array The array to copy, or null.
+	 * @param capacity The length of the new array.
+	 * @return The new array.
+	 */
+	private static int[] grow(int[] array, int capacity)
+	{
+		int[] newArray = new int[capacity];
+
+		if (array != null)
+			System.arraycopy(array, 0, newArray, 0, array.length);
+
+		return newArray;
+	}
+}
@@ -0,0 +1,172 @@
+package server.model;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import shared.model.GameObjectType;
+
+/**
+ * A test class for the ComponentStore class.
+ */
+public class ComponentStoreTest
+{
+	// the test store
+	private ComponentStore store;
+
+	/**
+	 * Set up the test.
+	 */
+	@Before
+	public void setUp()
+	{
+		store = new ComponentStore();
+	}
+
+	/**
+	 * Ensures a new store is empty.
+	 */
+	@Test
+	public void testConstructor()
+	{
+		assertEquals(0, store.numberOfGameObjects());
+		assertFalse(store.contains(0));
+	}
+
+	/**
+	 * Ensures a created game object is initialized from the provided components.
+	 */
+	@Test
+	public void testCreateGameObject()
+	{
+		ComponentGameObject owner = store.createGameObject(GameObjectType.PLAYER,
+				ComponentStore.MOBILE | ComponentStore.PLACES_BOMBS, null, 0, 2,
+				ComponentStore.NO_OWNER);
+		ComponentGameObject gameObject = store.createGameObject(GameObjectType.BOMB,
+				ComponentStore.DESTRUCTIBLE | ComponentStore.TIMED, DestructionAction.EXPLODE, 7, 0,
+				owner.identifier());
+
+		assertSame(owner, store.gameObject(0));
+		assertSame(gameObject, store.gameObject(1));
+		assertEquals(2, store.numberOfGameObjects());
+
+		assertTrue(owner.canMove());
+		assertFalse(owner.solid());
+		assertFalse(owner.destructible());
+		assertEquals(2, owner.bombCount());
+		assertNull(owner.owner());
+
+		assertEquals(GameObjectType.BOMB, gameObject.type());
+		assertTrue(gameObject.destructionTimed());
+		assertEquals(7, gameObject.numberOfStepsUntilDestruction());
+		assertEquals(0, gameObject.numberOfStepUntilRespawn());
+		assertSame(owner, gameObject.owner());
+		assertFalse(gameObject.onBoard());
+		assertEquals(-1, gameObject.row());
+	}
+
+	/**
+	 * Ensures the identifier bound covers every identifier allocated by the store, including the
+	 * released ones, and that a released game object keeps none of its flags.
+	 */
+	@Test
+	public void testIdentifierBound()
+	{
+		assertEquals(0, store.identifierBound());
+
+		store.createGameObject(GameObjectType.PLAYER, ComponentStore.MOBILE, null, 0, 0,
+				ComponentStore.NO_OWNER);
+		store.createGameObject(GameObjectType.UNBREAKABLE_BLOCK, ComponentStore.SOLID, null, 0, 0,
+				ComponentStore.NO_OWNER);
+		store.releaseGameObject(1);
+
+		assertEquals(2, store.identifierBound());
+		assertEquals(0, store.flags[1]);
+	}
+
+	/**
+	 * Ensures a released game object is removed from the store.
+	 */
+	@Test
+	public void testReleaseGameObject()
+	{
+		store.createGameObject(GameObjectType.UNBREAKABLE_BLOCK, ComponentStore.SOLID, null, 0, 0,
+				ComponentStore.NO_OWNER);
+		store.releaseGameObject(0);
+
+		assertFalse(store.contains(0));
+		assertEquals(0, store.numberOfGameObjects());
+	}
+
+	/**
+	 * Ensures createGameObject throws a NullPointerException when the type is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testCreateGameObjectNullType()
+	{
+		store.createGameObject(null, 0, null, 0, 0, ComponentStore.NO_OWNER);
+	}
+
+	/**
+	 * Ensures createGameObject throws a NullPointerException when a destructible game object has no
+	 * destruction action.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testCreateGameObjectNullDestructionAction()
+	{
+		store.createGameObject(GameObjectType.BREAKABLE_BLOCK, ComponentStore.DESTRUCTIBLE, null, 0,
+				0, ComponentStore.NO_OWNER);
+	}
+
+	/**
+	 * Ensures createGameObject throws an IllegalArgumentException for an unknown flag.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testCreateGameObjectUnknownFlag()
+	{
+		store.createGameObject(GameObjectType.PLAYER, ComponentStore.ON_BOARD, null, 0, 0,
+				ComponentStore.NO_OWNER);
+	}
+
+	/**
+	 * Ensures createGameObject throws an IllegalArgumentException when a timed game object is not
+	 * destructible.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testCreateGameObjectTimedIndestructible()
+	{
+		store.createGameObject(GameObjectType.BOMB, ComponentStore.TIMED, null, 5, 0,
+				ComponentStore.NO_OWNER);
+	}
+
+	/**
+	 * Ensures createGameObject throws an IllegalArgumentException when the owner is not in the store.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testCreateGameObjectUnknownOwner()
+	{
+		store.createGameObject(GameObjectType.EXPLOSION, 0, null, 0, 0, 3);
+	}
+
+	/**
+	 * Ensures gameObject throws an IllegalArgumentException for a released identifier.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testGameObjectReleased()
+	{
+		store.createGameObject(GameObjectType.PLAYER, 0, null, 0, 0, ComponentStore.NO_OWNER);
+		store.releaseGameObject(0);
+		store.gameObject(0);
+	}
+
+	/**
+	 * Ensures releaseGameObject throws an IllegalArgumentException for an identifier which is not in
+	 * the store.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testReleaseUnknown()
+	{
+		store.releaseGameObject(0);
+	}
+}
@@ -1,12 +1,15 @@
 package server.model;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
-import java.util.Random;
 import shared.model.Direction;
+import shared.model.GameConfiguration;
 import shared.model.GameObjectType;
 import shared.model.Key;
 import shared.model.KeyAction;
+import shared.model.ReplicationMode;
 import shared.model.communication.*;
 
 /**
@@ -26,25 +29,94 @@ public class Game implements IGame
 	// the game board
 	private IBoard board;
 	
+	// the game board if it is a PackedBoard, and null otherwise
+	private PackedBoard packedBoard;
+	
+	// the game objects of the space being destroyed, reused from space to space
+	private IGameObject[] spaceGameObjects;
+	
+	// the store of the game objects if they are created by a ComponentGameObjectFactory, whose
+	// arrays are stepped directly, and null otherwise
+	private ComponentStore store;
+	
+	// the directions, indexed by their ordinal
+	private static final Direction[] DIRECTIONS = Direction.values();
+	
 	/**
 	 * The default number of rows in the game.
 	 */
-	public static final int DEFAULT_NUMBER_OF_ROWS = 17;
+	public static final int DEFAULT_NUMBER_OF_ROWS = GameConfiguration.DEFAULT_NUMBER_OF_ROWS;
 	
 	/**
 	 * The default number of columns in the game.
 	 */
-	public static final int DEFAULT_NUMBER_OF_COLUMNS = 23;
+	public static final int DEFAULT_NUMBER_OF_COLUMNS = GameConfiguration.DEFAULT_NUMBER_OF_COLUMNS;
+	
+	// the settings of the game
+	private final GameConfiguration configuration;
+	
+	// the size of the board
+	private final int numberOfRows;
+	private final int numberOfColumns;
+	
+	// the game objects, indexed by their identifier
+	private IGameObject[] gameObjects;
+	
+	// the game objects which can move, place bombs or respawn, and the players, kept in sync with
+	// the game objects array by registerGameObject and unregisterGameObject
+	private LinkedHashSet<IGameObject> movers;
+	private LinkedHashSet<IGameObject> bombPlacers;
+	private LinkedHashSet<IGameObject> respawnables;
+	private LinkedHashSet<IGameObject> players;
+	
+	// the spaces of the board which contain an explosion
+	private CellIndex explosionSpaces;
+	
+	// the timers of the game objects whose destruction is timed
+	private TimerWheel<IGameObject> destructionTimers;
+	
+	// the game objects whose destruction timer expired in the current step
+	private ArrayList<IGameObject> expiredGameObjects;
+	
+	// the engine which resolves the chain reactions of detonated bombs
+	private BlastEngine blastEngine;
 	
-	// the hash map to store the game objects
+	// the game object destroyed and created messages of the current step, which are sent together
+	private ArrayList<IMessage> destroyedMessages;
+	private ArrayList<IMessage> createdMessages;
 	
-	private HashMap<Integer, IGameObject> gameObjects;
+	// the game objects whose score changed in the current step
+	private ArrayList<IGameObject> scoredGameObjects;
+	
+	// the messages of the current step, which are coalesced and sent to the clients as one frame
+	// when it ends
+	private MessageCoalescer frameMessages;
+	
+	// the replicator which sends the state of the game as snapshots, or null if events are sent
+	private SnapshotReplicator snapshotReplicator;
+	
+	// the number of spaces an explosion spreads in each direction
+	private static final int EXPLOSION_LENGTH = 3;
+	
+	// the length of a game in seconds
+	private static final int GAME_DURATION = 180;
+	
+	// the number of spaces a moving game object moves per second, at any tick rate
+	private static final int MOVES_PER_SECOND = GameConfiguration.DEFAULT_TICK_RATE;
+	
+	// the moves earned by the steps since game objects last moved, in moves per second; game
+	// objects move in a step once it reaches the tick rate
+	private int movementCredit;
 	
 	// the number of remaining steps in the game
 	private int remainingSteps;
 	
+	// the number of key messages received from the players
+	private long numberOfKeyMessages;
+	
 	/**
-	 * Creates a new Game. When created, this game will automatically start running.
+	 * Creates a new Game with the default configuration. When created, this game will automatically
+	 * start running.
 	 * 
 	 * @param serverCommunicator The server communicator used to host the game.
 	 * @param gameObjectFactory The factory used to create game objects.
@@ -57,29 +129,74 @@ public class Game implements IGame
 	public Game(IServerCommunicator serverCommunicator, final IGameObjectFactory gameObjectFactory)
 			throws CommunicationException
 	{
-		
-		this(serverCommunicator, gameObjectFactory, null);
+		this(serverCommunicator, gameObjectFactory, new GameConfiguration());
+	}
+	
+	/**
+	 * Creates a new Game with the provided configuration. When created, this game will automatically
+	 * start running.
+	 * 
+	 * @param serverCommunicator The server communicator used to host the game.
+	 * @param gameObjectFactory The factory used to create game objects, which should count their
+	 * lifetimes at the tick rate of the configuration.
+	 * @param configuration The settings of the game.
+	 * @throws NullPointerException Thrown if the provided server communicator, game object factory or
+	 * configuration is null.
+	 * @throws IllegalArgumentException Thrown if the provided server communicator is listening for
+	 * incoming connections.
+	 * @throws CommunicationException Thrown if an error occurs when communicating with the clients.
+	 */
+	public Game(IServerCommunicator serverCommunicator, final IGameObjectFactory gameObjectFactory,
+			GameConfiguration configuration) throws CommunicationException
+	{
+		this(serverCommunicator, gameObjectFactory, configuration, null);
 		
 		// set up the game objects
-		setUpUnbreakableBlocks();
-		setUpBreakableBlocks();
+		MapGenerator mapGenerator = new MapGenerator(configuration);
+		setUpBlocks(mapGenerator);
 		setUpPlayers();
 		
 		// send the start game message
 		serverCommunicator.sendMessages(new GameMessage(GameMessage.Action.START, serverCommunicator
-				.numberOfConnectedCommunicators()));
+				.numberOfConnectedCommunicators(), numberOfRows, numberOfColumns));
+		
+		// in the snapshot replication mode, the clients are sent a keyframe of the set up game
+		if (snapshotReplicator != null)
+		{
+			for (IGameObject player : players)
+				snapshotReplicator.addClient(player.identifier());
+			
+			serverCommunicator.sendMessageBatch(snapshotReplicator.snapshot(gameState()));
+			return;
+		}
 		
-		// send the created objects messages to the client
-		for (IGameObject gameObject : gameObjects.values())
+		// lay out the game objects on the board by space, so that they are created by a few board
+		// snapshots, and create any game object sharing a space with another one separately
+		GameObjectType[] tiles = new GameObjectType[numberOfRows * numberOfColumns];
+		int[] identifiers = new int[tiles.length];
+		ArrayList<IMessage> createdMessages = new ArrayList<IMessage>();
+		for (IGameObject gameObject : gameObjects)
 		{
-			// create the game objects which is on board
-			if (gameObject.onBoard())
+			if (gameObject == null || !gameObject.onBoard())
+				continue;
+			
+			int space = gameObject.row() * numberOfColumns + gameObject.column();
+			
+			if (tiles[space] == null)
 			{
-				IMessage message = new GameObjectCreatedMessage(gameObject.identifier(), gameObject.type(),
-						gameObject.row(), gameObject.column());
-				serverCommunicator.sendMessages(message);
+				tiles[space] = gameObject.type();
+				identifiers[space] = gameObject.identifier();
 			}
+			else
+				createdMessages.add(new GameObjectCreatedMessage(gameObject.identifier(),
+						gameObject.type(), gameObject.row(), gameObject.column()));
 		}
+		
+		// send the set up messages to the client as one batch
+		ArrayList<IMessage> setUpMessages = new ArrayList<IMessage>(Arrays.asList(
+				BoardSnapshotMessage.fromTiles(tiles, identifiers)));
+		setUpMessages.addAll(createdMessages);
+		serverCommunicator.sendMessageBatch(setUpMessages.toArray(new IMessage[setUpMessages.size()]));
 	}
 	
 	/**
@@ -101,7 +218,27 @@ public class Game implements IGame
 	protected Game(IServerCommunicator serverCommunicator, IGameObjectFactory gameObjectFactory,
 			IGameObject[] gameObjects)
 	{
-		if (serverCommunicator == null || gameObjectFactory == null)
+		this(serverCommunicator, gameObjectFactory, new GameConfiguration(), gameObjects);
+	}
+	
+	/**
+	 * Creates a new instance of Game with the provided configuration and game objects, without
+	 * setting up the board or communicating with the clients. This method is exposed for testing
+	 * purposes only. THIS METHOD SHOULD NOT BE USED IN PRODUCTION CODE.
+	 * 
+	 * @param serverCommunicator The server communicator used to host the game.
+	 * @param gameObjectFactory The factory used to create game objects.
+	 * @param configuration The settings of the game.
+	 * @param gameObjects The game objects which should be placed in this game, or null.
+	 * @throws NullPointerException Thrown if the provided server communicator, game object factory or
+	 * configuration is null.
+	 * @throws IllegalArgumentException Thrown if the provided server communicator is listening for
+	 * incoming connections.
+	 */
+	protected Game(IServerCommunicator serverCommunicator, IGameObjectFactory gameObjectFactory,
+			GameConfiguration configuration, IGameObject[] gameObjects)
+	{
+		if (serverCommunicator == null || gameObjectFactory == null || configuration == null)
 			throw new NullPointerException();
 		
 		if (serverCommunicator.listening())
@@ -110,9 +247,41 @@ public class Game implements IGame
 		// set up member variables
 		this.serverCommunicator = serverCommunicator;
 		this.gameObjectFactory = gameObjectFactory;
-		this.board = new Board(DEFAULT_NUMBER_OF_ROWS, DEFAULT_NUMBER_OF_COLUMNS);
-		this.gameObjects = new HashMap<Integer, IGameObject>();
-		remainingSteps = 1800;
+		
+		if (gameObjectFactory instanceof ComponentGameObjectFactory)
+			this.store = ((ComponentGameObjectFactory) gameObjectFactory).store();
+		this.configuration = configuration;
+		this.numberOfRows = configuration.numberOfRows();
+		this.numberOfColumns = configuration.numberOfColumns();
+		
+		// large boards are stored compactly, since most of their spaces hold at most one game object
+		if (configuration.largeBoard())
+		{
+			this.packedBoard = new PackedBoard(numberOfRows, numberOfColumns);
+			this.board = packedBoard;
+		}
+		else
+			this.board = new Board(numberOfRows, numberOfColumns);
+		
+		this.spaceGameObjects = new IGameObject[4];
+		
+		this.gameObjects = new IGameObject[numberOfRows * numberOfColumns];
+		this.movers = new LinkedHashSet<IGameObject>();
+		this.bombPlacers = new LinkedHashSet<IGameObject>();
+		this.respawnables = new LinkedHashSet<IGameObject>();
+		this.players = new LinkedHashSet<IGameObject>();
+		this.explosionSpaces = new CellIndex(numberOfRows, numberOfColumns);
+		this.destructionTimers = new TimerWheel<IGameObject>();
+		this.expiredGameObjects = new ArrayList<IGameObject>();
+		this.blastEngine = new BlastEngine(board, numberOfRows, numberOfColumns, EXPLOSION_LENGTH);
+		this.destroyedMessages = new ArrayList<IMessage>();
+		this.createdMessages = new ArrayList<IMessage>();
+		this.scoredGameObjects = new ArrayList<IGameObject>();
+		this.frameMessages = new MessageCoalescer();
+		
+		if (configuration.replicationMode() == ReplicationMode.SNAPSHOTS)
+			this.snapshotReplicator = new SnapshotReplicator();
+		remainingSteps = GAME_DURATION * configuration.tickRate();
 
 		
 		// add the game objects if they are provided
@@ -120,87 +289,56 @@ public class Game implements IGame
 		{
 			for (IGameObject gameObject : gameObjects)
 			{
-				this.gameObjects.put(gameObject.identifier(), gameObject);
+				registerGameObject(gameObject);
+				
+				// index the explosions which are already on the board
+				if (gameObject.type() == GameObjectType.EXPLOSION && gameObject.onBoard())
+					explosionSpaces.add(gameObject.row(), gameObject.column());
+				
+				// start the timers of the game objects whose destruction is timed
+				scheduleDestruction(gameObject);
 			}
 		}
 	}
 	
 	/**
-	 * Sets up the unbreakable block on the board. This method will lay them out in a grid pattern.
+	 * Sets up the unbreakable blocks in a grid pattern and the breakable blocks in the spaces chosen
+	 * by the map generator.  The map generator only chooses empty spaces, so every created block is
+	 * placed.  The blocks are created in board order, so that their identifiers follow the order of
+	 * their spaces and the board is sent in few board snapshots.
 	 * 
-	 * @throws CommunicationException Thrown if an error occurs while communicating with the client.
+	 * @param mapGenerator The generator which lays out the blocks.
 	 */
-	private void setUpUnbreakableBlocks() throws CommunicationException
+	private void setUpBlocks(MapGenerator mapGenerator)
 	{
-		// add the unbreakable block around the edge of the board
+		int[] unbreakableBlockSpaces = mapGenerator.unbreakableBlockSpaces();
+		int[] breakableBlockSpaces = mapGenerator.breakableBlockSpaces();
+		int unbreakableIndex = 0;
+		int breakableIndex = 0;
 		
-		for (int row = 0; row < DEFAULT_NUMBER_OF_ROWS; row++)
-		{
-			for (int column = 0; column < DEFAULT_NUMBER_OF_COLUMNS; column++)
-			{
-				/*
-				 * If the block is on the edge of the board or if it occupies an even space for both the row
-				 * and the column, the place an unbreakable block there.
-				 */
-				if (row == 0 || row == (DEFAULT_NUMBER_OF_ROWS - 1) || column == 0
-						|| column == (DEFAULT_NUMBER_OF_COLUMNS - 1) || (row % 2 == 0 && column % 2 == 0))
-				{
-					// place the unbreakable block in the game
-					IGameObject unbreakableBlock = gameObjectFactory.createUnbreakableBlock();
-					gameObjects.put(unbreakableBlock.identifier(), unbreakableBlock);
-					board.moveGameObjectToSpace(row, column, unbreakableBlock);
-				}
-			}
-		}
-	}
-	
-	/**
-	 * Sets up the breakable blocks, randomly placing them around the board.
-	 * 
-	 * @throws CommunicationException Thrown if an error occurs while communicating with the client.
-	 */
-	private void setUpBreakableBlocks() throws CommunicationException
-	{
-		Random random = new Random();
-		// initialized the random row and random column
-		int randomRow = -1;
-		int randomColumn = -1;
-		// initialize the count of breakable blocks
-		int countForBreakableBlockGenerator = 0;
-		// set up 130 breakable blocks
-		while (countForBreakableBlockGenerator < 130)
+		// merge the spaces of both kinds of blocks, which are in ascending order
+		while (unbreakableIndex < unbreakableBlockSpaces.length
+				|| breakableIndex < breakableBlockSpaces.length)
 		{
-			// generate the random row between 0-16, the random column between
-			// 0-22;
-			randomRow = random.nextInt(DEFAULT_NUMBER_OF_ROWS - 2) + 1;
-			randomColumn = random.nextInt(DEFAULT_NUMBER_OF_COLUMNS - 2) + 1;
-			
-			// make sure the player has enough space to place a bomb without getting killed
-			if ((randomRow == 1 || randomRow == DEFAULT_NUMBER_OF_ROWS - 2)
-					&& (randomColumn <= 2 || randomColumn >= DEFAULT_NUMBER_OF_COLUMNS - 3))
-			{
-				continue;
-			}
+			IGameObject block;
+			int space;
 			
-			if ((randomColumn == 1 || randomColumn == DEFAULT_NUMBER_OF_COLUMNS - 2)
-					&& (randomRow <= 2 || randomRow >= DEFAULT_NUMBER_OF_ROWS - 3))
+			if (breakableIndex == breakableBlockSpaces.length
+					|| unbreakableIndex < unbreakableBlockSpaces.length
+					&& unbreakableBlockSpaces[unbreakableIndex] < breakableBlockSpaces[breakableIndex])
 			{
-				continue;
+				block = gameObjectFactory.createUnbreakableBlock();
+				space = unbreakableBlockSpaces[unbreakableIndex++];
 			}
-			
-			// initialize a new breakable block
-			IGameObject breakableBlock = gameObjectFactory.createBreakableBlock();
-			
-			// if the space is empty, then set the breakable block to this space
-			if (board.canMoveToSpace(randomRow, randomColumn, breakableBlock))
+			else
 			{
-				// add the breakable block to the board
-				board.moveGameObjectToSpace(randomRow, randomColumn, breakableBlock);
-				// add the breakable block to the hash map
-				gameObjects.put(breakableBlock.identifier(), breakableBlock);
-				// count + 1 until it reach 130;
-				countForBreakableBlockGenerator++;
+				block = gameObjectFactory.createBreakableBlock();
+				space = breakableBlockSpaces[breakableIndex++];
 			}
+			
+			// add the block to the game objects and to the board
+			registerGameObject(block);
+			board.moveGameObjectToSpace(space / numberOfColumns, space % numberOfColumns, block);
 		}
 	}
 	
@@ -218,7 +356,7 @@ public class Game implements IGame
 				
 				// create the player and add it to the game objects map
 				IGameObject player = gameObjectFactory.createPlayer();
-				gameObjects.put(player.identifier(), player);
+				registerGameObject(player);
 				
 				// add the player to the board
 				spawnPlayer(player);
@@ -235,22 +373,17 @@ public class Game implements IGame
 	 */
 	private void spawnPlayer(IGameObject player)
 	{
-		LinkedList<IGameObject> players = new LinkedList<IGameObject>();
-		
-		for (IGameObject gameObject : gameObjects.values())
-			if (gameObject.type() == GameObjectType.PLAYER)
-				players.add(gameObject);
-		
-		players.remove(player);
+		LinkedList<IGameObject> otherPlayers = new LinkedList<IGameObject>(players);
+		otherPlayers.remove(player);
 		
 		// the distance of the closest player to each corner
 		int[] cornerDistances = new int[4];
 		
 		// the coordinates of each corner's row
-		int[] cornerRows = { 1, DEFAULT_NUMBER_OF_ROWS - 2, 1, DEFAULT_NUMBER_OF_ROWS - 2 };
+		int[] cornerRows = { 1, numberOfRows - 2, 1, numberOfRows - 2 };
 		
 		// the coordinates of each corner's column
-		int[] cornerColumns = { 1, 1, DEFAULT_NUMBER_OF_COLUMNS - 2, DEFAULT_NUMBER_OF_COLUMNS - 2 };
+		int[] cornerColumns = { 1, 1, numberOfColumns - 2, numberOfColumns - 2 };
 		
 		for (int i = 0; i < 4; i++)
 			cornerDistances[i] = Integer.MAX_VALUE;
@@ -259,7 +392,7 @@ public class Game implements IGame
 		// player to it
 		for (int i = 0; i < 4; i++)
 		{
-			for (IGameObject gameObject : players)
+			for (IGameObject gameObject : otherPlayers)
 			{
 				if (!gameObject.onBoard())
 					continue;
@@ -302,11 +435,24 @@ public class Game implements IGame
 		// decrement the remaining steps
 		remainingSteps--;
 		
-		//move game objects on the board
-		moveGameObjects();
+		//move game objects on the board, MOVES_PER_SECOND times per second at any tick rate
+		movementCredit += MOVES_PER_SECOND;
+		
+		if (movementCredit >= configuration.tickRate())
+		{
+			movementCredit -= configuration.tickRate();
+			
+			if (store != null)
+				moveComponents();
+			else
+				moveGameObjects();
+		}
 		
 		//place bombs on the game board
-		placeBombs();
+		if (store != null)
+			placeComponentBombs();
+		else
+			placeBombs();
 		
 		//destroy game objects on the game board
 		destroyGameObjects();
@@ -315,7 +461,122 @@ public class Game implements IGame
 		checkCollision();
 		
 		//check the players if they should respawn or not, then respawn them if need
-		checkRespawn();
+		if (store != null)
+			respawnComponents();
+		else
+			checkRespawn();
+		
+		// send the messages of this step
+		sendFrame();
+	}
+	
+	/**
+	 * Steps through the game on a tick of the loop running it, sending the remaining time in seconds
+	 * with the messages of the step, which only sends it when it has changed.  Once no steps remain,
+	 * the game is stopped instead.
+	 * 
+	 * @param numberOfPlayers The number of players told to the clients if the game stops.
+	 * @return True if the game was stepped, or false if no steps remained and it has stopped.
+	 * @throws CommunicationException Thrown if an error occurs while communicating with the clients.
+	 */
+	public boolean tick(int numberOfPlayers) throws CommunicationException
+	{
+		if (remainingSteps <= 0)
+		{
+			stop(numberOfPlayers);
+			return false;
+		}
+		
+		queueMessage(new GameTimeMessage(remainingSteps / configuration.tickRate()));
+		step();
+		
+		return true;
+	}
+	
+	/**
+	 * Tells the clients the game has stopped.
+	 * 
+	 * @param numberOfPlayers The number of players told to the clients.
+	 * @throws CommunicationException Thrown if an error occurs while communicating with the clients.
+	 */
+	public void stop(int numberOfPlayers) throws CommunicationException
+	{
+		serverCommunicator.sendMessages(new GameMessage(GameMessage.Action.STOP, numberOfPlayers));
+	}
+	
+	/**
+	 * Queues a message to be sent to the clients with the messages of the next step, after it has
+	 * been coalesced with them.
+	 * 
+	 * @param message The message.
+	 * @throws NullPointerException Thrown if the message is null.
+	 */
+	public void queueMessage(IMessage message)
+	{
+		frameMessages.add(message);
+	}
+	
+	/**
+	 * Sends the coalesced messages of the current step to the clients as one batch, so that the
+	 * server communicator encodes them once and writes them to each client together.  In the
+	 * snapshot replication mode, the changes to the game objects and scores are replaced by the
+	 * snapshots of the state at the end of the step.
+	 * 
+	 * @throws CommunicationException Thrown if an error occurs while communicating with the clients.
+	 */
+	private void sendFrame() throws CommunicationException
+	{
+		if (snapshotReplicator != null)
+		{
+			ArrayList<IMessage> messages = new ArrayList<IMessage>();
+			
+			for (IMessage message : frameMessages.drain())
+			{
+				if (!(message instanceof GameObjectCreatedMessage
+						|| message instanceof GameObjectUpdatedMessage
+						|| message instanceof GameObjectDestroyedMessage
+						|| message instanceof ScoreUpdatedMessage))
+					messages.add(message);
+			}
+			
+			messages.addAll(Arrays.asList(snapshotReplicator.snapshot(gameState())));
+			
+			if (!messages.isEmpty())
+				serverCommunicator.sendMessageBatch(messages.toArray(new IMessage[messages.size()]));
+			
+			return;
+		}
+		
+		if (frameMessages.isEmpty())
+			return;
+		
+		IMessage[] messages = frameMessages.drain();
+		
+		if (messages.length > 0)
+			serverCommunicator.sendMessageBatch(messages);
+	}
+	
+	/**
+	 * Returns the replicated state of the game: the game objects on the board and the scores of the
+	 * players.
+	 * 
+	 * @return The state of the game.
+	 */
+	private GameState gameState()
+	{
+		GameState state = new GameState();
+		
+		for (IGameObject gameObject : gameObjects)
+		{
+			if (gameObject != null && gameObject.onBoard())
+				state.putGameObject(gameObject.identifier(), gameObject.type(), gameObject.row(),
+						gameObject.column());
+		}
+		
+		for (IGameObject player : players)
+			state.putScore(player.identifier(), player.score());
+		
+		return state;
 	}
 	
 	/**
@@ -327,11 +588,22 @@ public class Game implements IGame
 		//read the messages from clients
 		for (final IMessage message : serverCommunicator.receivedMessages())
 		{
+			// record the snapshots the clients have applied
+			if (message instanceof AcknowledgementMessage)
+			{
+				if (snapshotReplicator != null)
+					snapshotReplicator.acknowledge(((AcknowledgementMessage) message)
+							.gameObjectIdentifier(), ((AcknowledgementMessage) message).tick());
+				
+				continue;
+			}
+			
 			//process the key messages 
 			if (message instanceof KeyMessage)
 			{
+				numberOfKeyMessages++;
 				final KeyMessage keyMessage = (KeyMessage) message;
-				final IGameObject gameObject = gameObjects.get(keyMessage.gameObjectIdentifier());
+				final IGameObject gameObject = gameObject(keyMessage.gameObjectIdentifier());
 				
 				if (gameObject == null)
 					throw new IllegalStateException();
@@ -387,8 +659,8 @@ public class Game implements IGame
 	 */
 	private void moveGameObjects() throws CommunicationException
 	{
-		// iterate all game objects
-		for (final IGameObject gameObject : gameObjects.values())
+		// iterate the game objects which can move
+		for (final IGameObject gameObject : movers)
 		{
 			// if the game object cannot move, then go on iterating
 			if (!gameObject.canMove() || gameObject.directionToMove() == Direction.NONE)
@@ -425,12 +697,108 @@ public class Game implements IGame
 				
 				board.moveGameObjectToSpace(row, column, gameObject);
 				
-				serverCommunicator.sendMessages(new GameObjectUpdatedMessage(gameObject.identifier(),
+				frameMessages.add(new GameObjectUpdatedMessage(gameObject.identifier(),
 						gameObject.row(), gameObject.column()));
 			}
 		}
 	}
 	
+	/**
+	 * Moves the game objects of the component store which hold a single direction.  The flags,
+	 * directions and positions are read from the arrays of the store, and only the game objects
+	 * which move are given to the board.
+	 * 
+	 * @throws CommunicationException Thrown if an error occurs while communicating with the clients.
+	 */
+	private void moveComponents() throws CommunicationException
+	{
+		int movingFlags = ComponentStore.MOBILE | ComponentStore.ON_BOARD;
+		
+		for (int identifier = 0; identifier < store.identifierBound(); identifier++)
+		{
+			int directions = store.directions[identifier];
+			
+			if ((store.flags[identifier] & movingFlags) != movingFlags
+					|| Integer.bitCount(directions) != 1)
+				continue;
+			
+			// determine where the game object should move
+			int row = store.rows[identifier];
+			int column = store.columns[identifier];
+			
+			switch (DIRECTIONS[Integer.numberOfTrailingZeros(directions)])
+			{
+				case UP:
+					row--;
+					break;
+				case DOWN:
+					row++;
+					break;
+				case LEFT:
+					column--;
+					break;
+				case RIGHT:
+					column++;
+					break;
+			}
+			
+			// move the game object, if possible
+			IGameObject gameObject = store.gameObjects[identifier];
+			
+			if (board.canMoveToSpace(row, column, gameObject))
+			{
+				board.moveGameObjectToSpace(row, column, gameObject);
+				frameMessages.add(new GameObjectUpdatedMessage(identifier, row, column));
+			}
+		}
+	}
+	
+	/**
+	 * Places bombs for the game objects of the component store which asked to place one, reading
+	 * their flags, positions and bomb counts from the arrays of the store.  A bomb which cannot be
+	 * placed is released.
+	 * 
+	 * @throws CommunicationException Thrown if an error occurs while communicating with the clients.
+	 */
+	private void placeComponentBombs() throws CommunicationException
+	{
+		int placingFlags = ComponentStore.PLACES_BOMBS | ComponentStore.PLACE_BOMB;
+		
+		for (int identifier = 0; identifier < store.identifierBound(); identifier++)
+		{
+			if ((store.flags[identifier] & placingFlags) != placingFlags)
+				continue;
+			
+			// reset the place bomb flag for the game object
+			store.flags[identifier] &= ~ComponentStore.PLACE_BOMB;
+			
+			if ((store.flags[identifier] & ComponentStore.ON_BOARD) == 0)
+				continue;
+			
+			// attempt to place a bomb at the object's location, if the space has no bomb and the
+			// game object has bombs left
+			int row = store.rows[identifier];
+			int column = store.columns[identifier];
+			IGameObject bomb = gameObjectFactory.createBomb(store.gameObjects[identifier]);
+			
+			if (!board.canMoveToSpace(row, column, bomb) || store.bombCounts[identifier] < 1)
+			{
+				gameObjectFactory.releaseGameObject(bomb);
+				continue;
+			}
+			
+			store.bombCounts[identifier]--;
+			
+			// add the bomb to the game and the board, and start its fuse
+			registerGameObject(bomb);
+			board.moveGameObjectToSpace(row, column, bomb);
+			scheduleDestruction(bomb);
+			
+			frameMessages.add(new GameObjectCreatedMessage(bomb.identifier(),
+					GameObjectType.BOMB, row, column));
+		}
+	}
+	
 	/**
 	 * Places bombs for the game objects which support placing bombs.
 	 * 
@@ -439,14 +807,10 @@ public class Game implements IGame
 	private void placeBombs() throws CommunicationException
 	{
 		// determine whether the player should place a bomb
-		Integer[] gameObjectIdentifier = gameObjects.keySet().toArray(new Integer[0]);
-		
-		for (int i = 0; i < gameObjectIdentifier.length; i++)
+		for (IGameObject gameObject : bombPlacers)
 		{
-			IGameObject gameObject = gameObjects.get(gameObjectIdentifier[i]);
-			
-			// determine if the game object can place a bomb or needs to place bomb
-			if(!gameObject.canPlaceBomb() || !gameObject.placeBomb())
+			// determine if the game object needs to place bomb
+			if (!gameObject.placeBomb())
 				continue;
 			
 			// reset the place bomb flag for the game object
@@ -459,24 +823,29 @@ public class Game implements IGame
 			// attempt to place a bomb at the object's location
 			IGameObject bomb = gameObjectFactory.createBomb(gameObject);
 			
-			// if the space has been occupied by another bomb, then continue
-			if (!board.canMoveToSpace(gameObject.row(), gameObject.column(), bomb))
-				continue;
-			// if the player has used out the his/her bombs, then continue
-			if (gameObject.bombCount() < 1)
+			// if the space has been occupied by another bomb, or if the player has used out the
+			// his/her bombs, then release the bomb and continue
+			if (!board.canMoveToSpace(gameObject.row(), gameObject.column(), bomb)
+					|| gameObject.bombCount() < 1)
+			{
+				gameObjectFactory.releaseGameObject(bomb);
 				continue;
+			}
 			
 			// decrease the number of bombs the player left
 			gameObject.decrementBombCount();
 			
 			// add the bomb to the game
-			gameObjects.put(bomb.identifier(), bomb);
+			registerGameObject(bomb);
 			
 			// add the bomb to board
 			board.moveGameObjectToSpace(gameObject.row(), gameObject.column(), bomb);
 			
+			// start the bomb's fuse
+			scheduleDestruction(bomb);
+			
 			// set the bomb creation message to the clients
-			serverCommunicator.sendMessages(new GameObjectCreatedMessage(bomb.identifier(),
+			frameMessages.add(new GameObjectCreatedMessage(bomb.identifier(),
 					GameObjectType.BOMB, bomb.row(), bomb.column()));
 		}
 	}
@@ -488,228 +857,326 @@ public class Game implements IGame
 	 */
 	private void destroyGameObjects() throws CommunicationException
 	{
-		// get the game object identifiers
-		Integer[] gameObjectIdentifier = gameObjects.keySet().toArray(new Integer[0]);
+		// advance the destruction timers, collecting the game objects whose time has run out
+		expiredGameObjects.clear();
+		destructionTimers.advance(expiredGameObjects);
 		
-		// iterate through each game object
-		for (int i = 0; i < gameObjectIdentifier.length; i++)
+		for (IGameObject gameObject : expiredGameObjects)
 		{
-			IGameObject gameObject = gameObjects.get(gameObjectIdentifier[i]);
-			
-			// game object can be null because explore may remove some game
-			// object before they are iterated
-			if (gameObject == null)
-				continue;
-			// check to see if the game object is not destructible
-			if (!gameObject.destructible())
+			// game object can be removed because an earlier explosion may remove some game object
+			// before they are iterated
+			if (gameObject(gameObject.identifier()) != gameObject)
 				continue;
 			
-			// checked to see if the game object is timed and needs to explore
-			if (gameObject.destructionTimed())
-			{
-				gameObject.decrementNumberOfStepsUntilDestruction();
-				if (gameObject.numberOfStepsUntilDestruction() == 0)
-				{
-					destroyGameObject(gameObject);
-				}
-			}
+			destroyGameObject(gameObject);
+		}
+	}
+	
+	/**
+	 * Returns the game object with the provided identifier.
+	 * 
+	 * @param identifier The identifier of the game object.
+	 * @return The game object with the provided identifier, or null if this game has no such game
+	 * object.
+	 */
+	private IGameObject gameObject(int identifier)
+	{
+		if (identifier < 0 || identifier >= gameObjects.length)
+			return null;
+		
+		return gameObjects[identifier];
+	}
+	
+	/**
+	 * Adds the provided game object to the game objects array and to the registries of the roles it
+	 * has.
+	 * 
+	 * @param gameObject The game object to add.
+	 */
+	private void registerGameObject(IGameObject gameObject)
+	{
+		// grow the game objects array to fit the identifier
+		if (gameObject.identifier() >= gameObjects.length)
+		{
+			IGameObject[] newGameObjects = new IGameObject[Math.max(gameObjects.length * 2,
+					gameObject.identifier() + 1)];
+			System.arraycopy(gameObjects, 0, newGameObjects, 0, gameObjects.length);
+			gameObjects = newGameObjects;
 		}
+		
+		gameObjects[gameObject.identifier()] = gameObject;
+		
+		if (gameObject.canMove())
+			movers.add(gameObject);
+		
+		if (gameObject.canPlaceBomb())
+			bombPlacers.add(gameObject);
+		
+		if (gameObject.destructionAction() == DestructionAction.RESPAWN)
+			respawnables.add(gameObject);
+		
+		if (gameObject.type() == GameObjectType.PLAYER)
+			players.add(gameObject);
+	}
+	
+	/**
+	 * Removes the provided game object from the game objects array, from the registries of the roles
+	 * it has and from the destruction timers, and releases it to the game object factory so its
+	 * identifier, or the game object itself, can be reused.
+	 * 
+	 * @param gameObject The game object to remove.
+	 */
+	private void unregisterGameObject(IGameObject gameObject)
+	{
+		// stop the timer of a bomb detonated by another bomb's blast, so a recycled game object is
+		// never destroyed by the timer of the game object it used to be
+		destructionTimers.cancel(gameObject);
+		
+		gameObjects[gameObject.identifier()] = null;
+		movers.remove(gameObject);
+		bombPlacers.remove(gameObject);
+		respawnables.remove(gameObject);
+		players.remove(gameObject);
+		gameObjectFactory.releaseGameObject(gameObject);
 	}
 	
 	/**
-	 * Destroys the provided game object.
+	 * Starts the destruction timer of the provided game object if its destruction is timed. The
+	 * timer replaces decrementing the number of steps until destruction of every game object in
+	 * each step, so that a step only touches the game objects which are destroyed in it.
+	 * 
+	 * @param gameObject The game object whose timer should be started.
+	 */
+	private void scheduleDestruction(IGameObject gameObject)
+	{
+		if (gameObject.destructible() && gameObject.destructionTimed()
+				&& gameObject.numberOfStepsUntilDestruction() > 0)
+		{
+			destructionTimers.schedule(gameObject, gameObject.numberOfStepsUntilDestruction());
+		}
+	}
+	
+	/**
+	 * Destroys the provided game object. Bombs are queued in the blast engine, and are detonated
+	 * together with the rest of their chain reaction when the collisions are checked.
 	 * 
 	 * @param gameObject The game object to destroy.
-	 * @throws CommunicationException Thrown if an error occurs while communicating with the clients.
 	 */
-	private void destroyGameObject(IGameObject gameObject) throws CommunicationException
+	private void destroyGameObject(IGameObject gameObject)
 	{
+		// stop the timer of a game object destroyed before its time ran out
+		destructionTimers.cancel(gameObject);
+		
 		switch (gameObject.destructionAction())
 		{
 			case EXPLODE:
-				// increase the number of owned bombs to he bomb owner
-				gameObject.owner().incrementBomb();
-				
-				// temporary record the row and column of the game object(bomb)
-				int row = gameObject.row();
-				int column = gameObject.column();
-				
-				// remove the game object from board
-				board.removeGameObject(gameObject);
-				
-				// remove the game object from hash map
-				gameObjects.remove(gameObject.identifier());
-				
-				// send the game object destruction to all clients
-				serverCommunicator.sendMessages(new GameObjectDestroyedMessage(gameObject.identifier()));
-				
-				// create a new explosion game object
-				IGameObject exploreGameObject = gameObjectFactory.createExplosion(gameObject.owner());
-				
-				// create a new explosion game object on the board
-				board.moveGameObjectToSpace(row, column, exploreGameObject);
-				
-				// create a new explosion game object in the hash map
-				gameObjects.put(exploreGameObject.identifier(), exploreGameObject);
-				
-				// send message to all clients
-				serverCommunicator.sendMessages(new GameObjectCreatedMessage(
-						exploreGameObject.identifier(), GameObjectType.EXPLOSION, row, column));
-				
-				// if the next space has a breakable game object, destroy it
-				if (!board.canMoveToSpace(row, column, gameObject))
-				{
-					destroyGameObject(gameObject);
-				}
-				
-				// explore in 4 directions
-				explode(row, column, Direction.UP, gameObject.owner());
-				explode(row, column, Direction.DOWN, gameObject.owner());
-				explode(row, column, Direction.LEFT, gameObject.owner());
-				explode(row, column, Direction.RIGHT, gameObject.owner());
+				// queue the bomb in the blast engine
+				blastEngine.detonate(gameObject);
 				break;
 			
-
 			case RESPAWN:
-
+				// remove the game object from board
 				board.removeGameObject(gameObject);
-				serverCommunicator.sendMessages(new GameObjectDestroyedMessage(gameObject.identifier()));
+				
+				// queue the message to clients
+				destroyedMessages.add(new GameObjectDestroyedMessage(gameObject.identifier()));
 				break;
 			
 			case DISAPPEAR:
+				// remove the explosion's space from the explosion index
+				if (gameObject.type() == GameObjectType.EXPLOSION && gameObject.onBoard())
+					explosionSpaces.remove(gameObject.row(), gameObject.column());
+				
 				// remove the game object from board
 				board.removeGameObject(gameObject);
 				
-				// remove the game object from hash map
-				gameObjects.remove(gameObject.identifier());
+				// remove the game object from the game objects
+				unregisterGameObject(gameObject);
 				
-				// send message to clients
-				serverCommunicator.sendMessages((new GameObjectDestroyedMessage(gameObject.identifier())));
-				break;		}
+				// queue the message to clients
+				destroyedMessages.add(new GameObjectDestroyedMessage(gameObject.identifier()));
+				break;
+		}
 	}
 	
 	/**
-	 * a help method to explore a bomb in 4 directions
+	 * a helper method to destroy the objects which are reached by an explosion, detonate the bombs
+	 * which are reached by an explosion and send the game object and score changes of this step to
+	 * the clients
 	 * 
-	 * @param row row of the game object(bomb)
-	 * @param column column of the game object(bomb
-	 * @param direction direction of the explosion should go
-	 * @param owner the owner of the explosion
-	 * @throws CommunicationException handle the communication exception
+	 * @throws CommunicationException handle the communication exception when sending the messages
 	 */
-	private void explode(int row, int column, Direction direction, IGameObject owner)
-			throws CommunicationException
+	private void checkCollision() throws CommunicationException
 	{
+		// destroy the game objects which entered the space of an explosion
+		for (int i = 0; i < explosionSpaces.size(); i++)
+		{
+			int row = explosionSpaces.row(i);
+			int column = explosionSpaces.column(i);
+			int numberOfGameObjects = readSpace(row, column);
+			
+			// find the owner of the explosion
+			IGameObject explosionOwner = null;
+			
+			for (int j = 0; j < numberOfGameObjects; j++)
+			{
+				if (spaceGameObjects[j].type() == GameObjectType.EXPLOSION)
+				{
+					explosionOwner = spaceGameObjects[j].owner();
+					break;
+				}
+			}
+			
+			if (explosionOwner != null)
+				destroyGameObjectsAtSpace(numberOfGameObjects, explosionOwner);
+		}
 		
-		final int EXPLOSION_LENGTH = 3;
+		// detonate the bombs whose fuse ran out or which were reached by an explosion
+		detonateBombs();
 		
-		int rowChange = 0;
-		int columnChange = 0;
+		// add the consolidated changes of this step to its frame
+		for (IMessage message : destroyedMessages)
+			frameMessages.add(message);
 		
-		switch (direction)
-		{
-			case UP:
-				rowChange = -1;
-				break;
-			case DOWN:
-				rowChange = 1;
-				break;
-			case LEFT:
-				columnChange = -1;
-				break;
-			case RIGHT:
-				columnChange = 1;
-				break;
-		}
+		for (IMessage message : createdMessages)
+			frameMessages.add(message);
 		
-		for (int i = 0; i < EXPLOSION_LENGTH; i++)
+		for (IGameObject gameObject : scoredGameObjects)
+			frameMessages.add(new ScoreUpdatedMessage(gameObject.identifier(), gameObject.score()));
+		
+		destroyedMessages.clear();
+		createdMessages.clear();
+		scoredGameObjects.clear();
+	}
+	
+	/**
+	 * Resolves the chain reaction of the bombs queued in the blast engine. The detonated bombs are
+	 * removed, the game objects reached by the blasts are destroyed and each space reached by a blast
+	 * is filled with a single explosion.
+	 */
+	private void detonateBombs()
+	{
+		blastEngine.resolve();
+		
+		// remove the detonated bombs
+		for (int i = 0; i < blastEngine.numberOfDetonatedBombs(); i++)
 		{
-			row += rowChange;
-			column += columnChange;
+			IGameObject bomb = blastEngine.detonatedBomb(i);
 			
-			// if the board contains an indestructible object, stop creating the explosion
-			for (IGameObject gameObject : board.gameObjectsAtSpace(row, column))
-				if (!gameObject.destructible())
-					return;
+			// increase the number of owned bombs to he bomb owner
+			bomb.owner().incrementBomb();
 			
-			// create a new explosion game object
-			IGameObject explosionGameObject = gameObjectFactory.createExplosion(owner);
+			board.removeGameObject(bomb);
+			unregisterGameObject(bomb);
+			destroyedMessages.add(new GameObjectDestroyedMessage(bomb.identifier()));
+		}
+		
+		for (int i = 0; i < blastEngine.numberOfBlastSpaces(); i++)
+		{
+			int row = blastEngine.blastRow(i);
+			int column = blastEngine.blastColumn(i);
+			IGameObject owner = blastEngine.blastOwner(i);
 			
-			// make sure the explosion can be placed at the row and column
-			if (!board.canMoveToSpace(row, column, explosionGameObject))
-				return;
+			// destroy the game objects reached by the blast
+			destroyGameObjectsAtSpace(readSpace(row, column), owner);
 			
-			board.moveGameObjectToSpace(row, column, explosionGameObject);
+			// create a new explosion game object on the board and in the game objects
+			IGameObject explosion = gameObjectFactory.createExplosion(owner);
+			board.moveGameObjectToSpace(row, column, explosion);
+			registerGameObject(explosion);
 			
-			// create a new explosion game object in the hash map
-			gameObjects.put(explosionGameObject.identifier(), explosionGameObject);
+			// add the explosion's space to the explosion index and start the explosion's timer
+			explosionSpaces.add(row, column);
+			scheduleDestruction(explosion);
 			
-			// send message to all clients
-			serverCommunicator.sendMessages(new GameObjectCreatedMessage(
-					explosionGameObject.identifier(), GameObjectType.EXPLOSION, row, column));
+			createdMessages.add(new GameObjectCreatedMessage(explosion.identifier(),
+					GameObjectType.EXPLOSION, row, column));
+		}
+	}
+	
+	/**
+	 * Copies the game objects at a space into the reused space array, which grows when a space holds
+	 * more game objects than it.  A PackedBoard is read through its cursor, so the copy does not
+	 * allocate.
+	 * 
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @return The number of game objects at the space.
+	 */
+	private int readSpace(int row, int column)
+	{
+		if (packedBoard == null)
+		{
+			IGameObject[] gameObjectsAtSpace = board.gameObjectsAtSpace(row, column);
+			growSpaceGameObjects(gameObjectsAtSpace.length);
+			System.arraycopy(gameObjectsAtSpace, 0, spaceGameObjects, 0, gameObjectsAtSpace.length);
 			
-			// if the space contains a solid object, stop
-			for (IGameObject gameObject : board.gameObjectsAtSpace(row, column))
-				if (gameObject.solid())
-					return;
+			return gameObjectsAtSpace.length;
 		}
+		
+		int numberOfGameObjects = packedBoard.numberOfGameObjectsAtSpace(row, column);
+		growSpaceGameObjects(numberOfGameObjects);
+		
+		for (int i = 0; i < numberOfGameObjects; i++)
+			spaceGameObjects[i] = packedBoard.gameObjectAtSpace(row, column, i);
+		
+		return numberOfGameObjects;
 	}
 	
 	/**
-	 * a helper method to iterate each space on board, and destroy the the objects which is reached by
-	 * explosion
+	 * Grows the space array, if needed, so that it can hold the provided number of game objects.
 	 * 
-	 * @throws CommunicationException handle the communication exception in detroyGameObject method
+	 * @param numberOfGameObjects The number of game objects the space array must hold.
 	 */
-	private void checkCollision() throws CommunicationException
+	private void growSpaceGameObjects(int numberOfGameObjects)
 	{
-		for (int row = 1; row < 17; row++)
+		if (numberOfGameObjects > spaceGameObjects.length)
+			spaceGameObjects = new IGameObject[Math.max(numberOfGameObjects, spaceGameObjects.length * 2)];
+	}
+	
+	/**
+	 * Destroys the destructible game objects in a space reached by an explosion, and updates the score
+	 * of the explosion's owner when a player is destroyed.  The game objects of the space are read
+	 * from the space array, which is cleared once they are destroyed.
+	 * 
+	 * @param numberOfGameObjects The number of game objects read into the space array.
+	 * @param explosionOwner The owner of the explosion.
+	 */
+	private void destroyGameObjectsAtSpace(int numberOfGameObjects, IGameObject explosionOwner)
+	{
+		for (int i = 0; i < numberOfGameObjects; i++)
 		{
-			for (int column = 1; column < 23; column++)
+			IGameObject gameObject = spaceGameObjects[i];
+			spaceGameObjects[i] = null;
+			
+			if (!gameObject.destructible() || gameObject.type() == GameObjectType.EXPLOSION)
+				continue;
+			
+			destroyGameObject(gameObject);
+			
+			// set the score
+			if (gameObject.type() == GameObjectType.PLAYER)
 			{
+				if (gameObject.identifier() == explosionOwner.identifier())
+					explosionOwner.decrementScore();
+				else
+					explosionOwner.incrementScore();
 				
-				// then test if it contains explosion.
-				boolean explode = false;
-				IGameObject explosionOwner = null;
-				
-				for (IGameObject gameObject : board.gameObjectsAtSpace(row, column))
-				{
-					if (gameObject.type() == GameObjectType.EXPLOSION)
-					{
-						explode = true;
-						explosionOwner = gameObject.owner();
-						break;
-					}
-				}
-				
-				if (!explode)
-					continue;
-				
-				// if it contains explosion, then destroy every destructible game object in this space
-				for (IGameObject gameObject : board.gameObjectsAtSpace(row, column))
-				{
-					if (gameObject.destructible() && gameObject.type() != GameObjectType.EXPLOSION)
-					{
-						destroyGameObject(gameObject);
-						
-						// set the score
-						if (gameObject.type() == GameObjectType.PLAYER)
-						{
-							if (gameObject.identifier() == explosionOwner.identifier())
-								explosionOwner.decrementScore();
-							else
-								explosionOwner.incrementScore();
-						}
-						
-						// send the score updated message
-						IMessage message = new ScoreUpdatedMessage(explosionOwner.identifier(), explosionOwner.score());
-						serverCommunicator.sendMessages(message);
-					}
-				}
+				if (!scoredGameObjects.contains(explosionOwner))
+					scoredGameObjects.add(explosionOwner);
 			}
 		}
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public GameConfiguration configuration()
+	{
+		return configuration;
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 */
@@ -719,6 +1186,46 @@ public class Game implements IGame
 		return remainingSteps;
 	}
 	
+	/**
+	 * Returns the number of key messages the players have sent, which stops growing while every
+	 * client only watches the game.
+	 * 
+	 * @return The number of key messages received.
+	 */
+	public long numberOfKeyMessages()
+	{
+		return numberOfKeyMessages;
+	}
+	
+	/**
+	 * Decrements the time until the game objects of the component store which are off the board
+	 * respawn, reading their destruction actions and steps until respawn from the arrays of the
+	 * store, and spawns them once the time has run out.
+	 * 
+	 * @throws CommunicationException Thrown if an error occurs while communicating with the clients.
+	 */
+	private void respawnComponents() throws CommunicationException
+	{
+		for (int identifier = 0; identifier < store.identifierBound(); identifier++)
+		{
+			if (store.destructionActions[identifier] != DestructionAction.RESPAWN
+					|| (store.flags[identifier] & ComponentStore.ON_BOARD) != 0)
+				continue;
+			
+			store.numberOfStepsUntilRespawn[identifier]--;
+			
+			if (store.numberOfStepsUntilRespawn[identifier] <= 0)
+				spawnPlayer(store.gameObjects[identifier]);
+			
+			// send a message to the clients if the game object was readded to the board
+			if ((store.flags[identifier] & ComponentStore.ON_BOARD) != 0)
+			{
+				frameMessages.add(new GameObjectCreatedMessage(identifier,
+						store.types[identifier], store.rows[identifier], store.columns[identifier]));
+			}
+		}
+	}
+	
 	/**
 	 * Decrements the time until the game objects respawn and spawn the gmae objects if the time has run out.
 	 * @throws CommunicationException throws if a communication error occurs.
@@ -726,8 +1233,8 @@ public class Game implements IGame
 	public void checkRespawn() throws CommunicationException{
 		
 		// decrement the time until respawn
-		for(IGameObject gameObject:gameObjects.values()){
-			if(gameObject.destructionAction() == DestructionAction.RESPAWN && !gameObject.onBoard()) {
+		for(IGameObject gameObject:respawnables){
+			if(!gameObject.onBoard()) {
 				gameObject.decrementNumberOfStepUntilRespawn();
 				
 				if (gameObject.numberOfStepUntilRespawn() <= 0)
@@ -737,7 +1244,7 @@ public class Game implements IGame
 				if (gameObject.onBoard())
 				{
 					IMessage message = new GameObjectCreatedMessage(gameObject.identifier(), gameObject.type(), gameObject.row(), gameObject.column());
-					serverCommunicator.sendMessages(message);
+					frameMessages.add(message);
 				}
 			}
 		}
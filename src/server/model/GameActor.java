@@ -0,0 +1,351 @@
+package server.model;
+
+import shared.core.MpscRingBuffer;
+import shared.model.GameConfiguration;
+import shared.model.communication.CommunicationException;
+import shared.model.communication.GameMessage;
+import shared.model.communication.HelloMessage;
+import shared.model.communication.IServerCommunicator;
+import shared.model.communication.MessageFactory;
+import shared.model.communication.SelectorServerCommunicator;
+
+/**
+ * Owns a hosted game and the communicator of its clients on a single thread.  Only the thread
+ * ticking the actor ever touches the game or the communicator: other threads post commands to
+ * start or stop the game into a bounded queue, which any number of threads may post to without
+ * locks, and each tick runs the commands posted before it and then steps the game.  The players
+ * press keys through the communicator, whose received messages the game takes when it steps, so
+ * they too only reach the game on the ticking thread.
+ * <p>
+ * While no game is running, the actor polls the connected players every POLL_PERIOD and tells them
+ * how many are waiting, the way GameHostingController did.  Once a game has stopped, the actor
+ * listens for the players of the next game on a new communicator.
+ */
+public class GameActor
+{
+	/**
+	 * The number of commands the queue holds unless another capacity is provided.
+	 */
+	public static final int DEFAULT_CAPACITY = 64;
+
+	/**
+	 * The time between polls of the connected players while no game is running in milliseconds.
+	 */
+	public static final int POLL_PERIOD = 100;
+
+	// the number of milliseconds in a second
+	private static final int MILLISECONDS_PER_SECOND = 1000;
+
+	/**
+	 * A command run by the actor on its ticking thread.
+	 */
+	private static interface Command
+	{
+		/**
+		 * Runs the command.
+		 * @param actor The actor.
+		 * @throws CommunicationException Thrown if an error occurs while communicating with the
+		 * clients.
+		 */
+		public void run(GameActor actor) throws CommunicationException;
+	}
+
+	/**
+	 * Starts the game if it is stopped and stops it if it is running.
+	 */
+	private static final Command START_OR_STOP = new Command()
+	{
+		public void run(GameActor actor) throws CommunicationException
+		{
+			if (actor.game == null)
+				actor.startGame();
+			else
+				actor.stopGame();
+		}
+	};
+
+	/**
+	 * Stops the game if it is running.
+	 */
+	private static final Command STOP = new Command()
+	{
+		public void run(GameActor actor) throws CommunicationException
+		{
+			if (actor.game != null)
+				actor.stopGame();
+		}
+	};
+
+	// the commands which have not been run
+	private final MpscRingBuffer<Command> commands;
+
+	// the settings of the hosted games
+	private final GameConfiguration configuration;
+
+	// the listener following the hosted games
+	private final IGameActorListener listener;
+
+	// the number of ticks between polls of the connected players
+	private final int ticksPerPoll;
+
+	// the communicator of the clients, which is only replaced by the ticking thread
+	private volatile IServerCommunicator serverCommunicator;
+
+	// whether a game is running, which is only written by the ticking thread
+	private volatile boolean running;
+
+	// the running game, or null if no game is running
+	private Game game;
+
+	// the number of players last told to the waiting clients
+	private int connectedPlayers;
+
+	// the number of ticks since the connected players were last polled
+	private int numberOfTicksSincePoll;
+
+	// whether the actor is shutting down, after which a stopped game is not followed by a new
+	// communicator
+	private boolean shuttingDown;
+
+	/**
+	 * Creates a new GameActor with no running game, whose queue holds DEFAULT_CAPACITY commands.
+	 * @param serverCommunicator The communicator of the clients.
+	 * @param configuration The settings of the hosted games.
+	 * @param listener The listener following the hosted games.
+	 * @throws NullPointerException Thrown if any argument is null.
+	 */
+	public GameActor(IServerCommunicator serverCommunicator, GameConfiguration configuration,
+			IGameActorListener listener)
+	{
+		this(serverCommunicator, configuration, listener, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a new GameActor with no running game.
+	 * @param serverCommunicator The communicator of the clients.
+	 * @param configuration The settings of the hosted games.
+	 * @param listener The listener following the hosted games.
+	 * @param capacity The minimum number of commands the queue holds.
+	 * @throws NullPointerException Thrown if serverCommunicator, configuration or listener is null.
+	 * @throws IllegalArgumentException Thrown if the capacity is less than 1.
+	 */
+	public GameActor(IServerCommunicator serverCommunicator, GameConfiguration configuration,
+			IGameActorListener listener, int capacity)
+	{
+		if (serverCommunicator == null || configuration == null || listener == null)
+			throw new NullPointerException();
+
+		commands = new MpscRingBuffer<Command>(capacity);
+		this.serverCommunicator = serverCommunicator;
+		this.configuration = configuration;
+		this.listener = listener;
+		ticksPerPoll = Math.max(1, configuration.tickRate() * POLL_PERIOD / MILLISECONDS_PER_SECOND);
+	}
+
+	/**
+	 * Asks the actor to start the game if it is stopped, and to stop it if it is running, on its
+	 * next tick.  This method may be called by any thread.
+	 * @throws IllegalStateException Thrown if the queue of commands is full.
+	 */
+	public void startOrStop()
+	{
+		post(START_OR_STOP);
+	}
+
+	/**
+	 * Asks the actor to stop the game if it is running on its next tick.  This method may be called
+	 * by any thread.
+	 * @throws IllegalStateException Thrown if the queue of commands is full.
+	 */
+	public void stop()
+	{
+		post(STOP);
+	}
+
+	/**
+	 * Returns true if a game is running.  The result only reflects the commands run by the last
+	 * tick.
+	 * @return True if a game is running and false otherwise.
+	 */
+	public boolean running()
+	{
+		return running;
+	}
+
+	/**
+	 * Returns the communicator of the clients.
+	 * @return The server communicator.
+	 */
+	public IServerCommunicator serverCommunicator()
+	{
+		return serverCommunicator;
+	}
+
+	/**
+	 * Returns the number of commands which have been posted and not run.
+	 * @return The number of pending commands.
+	 */
+	public int numberOfPendingCommands()
+	{
+		return commands.size();
+	}
+
+	/**
+	 * Runs the commands posted before the tick, then steps the running game, or stops it once no
+	 * steps remain.  While no game is running, the connected players are polled instead.  This
+	 * method may only be called by one thread at a time, with each call happening before the next.
+	 * If a command throws an exception, the commands after it are run on the next tick.
+	 * @throws CommunicationException Thrown if an error occurs while communicating with the clients.
+	 */
+	public void tick() throws CommunicationException
+	{
+		runCommands();
+
+		if (game == null)
+		{
+			if (++numberOfTicksSincePoll >= ticksPerPoll)
+			{
+				numberOfTicksSincePoll = 0;
+				pollPlayers();
+			}
+
+			return;
+		}
+
+		if (!game.tick(connectedPlayers))
+			endGame();
+	}
+
+	/**
+	 * Runs the commands left in the queue on the calling thread, then disconnects the clients.  A
+	 * game stopped by these commands does not listen for the players of a next game.  This method
+	 * may only be called once the actor is no longer ticked, and after its last tick.
+	 * @throws CommunicationException Thrown if an error occurs while communicating with the clients.
+	 */
+	public void shutdown() throws CommunicationException
+	{
+		shuttingDown = true;
+		runCommands();
+		serverCommunicator.disconnect();
+	}
+
+	/**
+	 * Creates the communicator of the clients of the next game.
+	 * @return The server communicator, which listens for clients.
+	 * @throws CommunicationException Thrown if the communicator can not listen for clients.
+	 */
+	protected IServerCommunicator createServerCommunicator() throws CommunicationException
+	{
+		return new SelectorServerCommunicator(new MessageFactory());
+	}
+
+	/**
+	 * Private helper method which posts a command.
+	 * @param command The command.
+	 * @throws IllegalStateException Thrown if the queue of commands is full.
+	 */
+	private void post(Command command)
+	{
+		if (!commands.offer(command))
+			throw new IllegalStateException("The game is not keeping up with its commands.");
+	}
+
+	/**
+	 * Private helper method which runs the commands posted so far, in order.  No more commands than
+	 * the queue holds are run, so that commands posted while the commands run wait for the next
+	 * tick.
+	 * @throws CommunicationException Thrown if a command throws a CommunicationException.
+	 */
+	private void runCommands() throws CommunicationException
+	{
+		for (int i = 0; i < commands.capacity(); i++)
+		{
+			Command command = commands.poll();
+
+			if (command == null)
+				return;
+
+			command.run(this);
+		}
+	}
+
+	/**
+	 * Private helper method which tells the waiting clients how many players are connected when it
+	 * has changed, and otherwise checks their connections.
+	 * @throws CommunicationException Thrown if an error occurs while communicating with the clients.
+	 */
+	private void pollPlayers() throws CommunicationException
+	{
+		int numberOfPlayers = serverCommunicator.numberOfConnectedCommunicators();
+
+		if (numberOfPlayers != connectedPlayers)
+		{
+			connectedPlayers = numberOfPlayers;
+			listener.playersChanged(connectedPlayers);
+			serverCommunicator.sendMessages(new GameMessage(GameMessage.Action.WAITING,
+					connectedPlayers));
+		}
+		else
+			serverCommunicator.sendMessages(new HelloMessage());
+	}
+
+	/**
+	 * Private helper method which stops clients from joining and starts a game with the connected
+	 * players, unless none or more than the maximum number of players are connected.
+	 * @throws CommunicationException Thrown if an error occurs while communicating with the clients.
+	 */
+	private void startGame() throws CommunicationException
+	{
+		int numberOfPlayers = serverCommunicator.numberOfConnectedCommunicators();
+
+		if (numberOfPlayers == 0 || numberOfPlayers > configuration.maximumNumberOfPlayers())
+		{
+			listener.startRefused(numberOfPlayers);
+			return;
+		}
+
+		if (serverCommunicator.listening())
+			serverCommunicator.stopListening();
+
+		game = new Game(serverCommunicator,
+				new GameObjectFactory(true, configuration.tickRate()), configuration);
+		connectedPlayers = numberOfPlayers;
+		running = true;
+		listener.gameStarted();
+	}
+
+	/**
+	 * Private helper method which stops the running game, tells the clients it has ended and
+	 * listens for the players of the next game on a new communicator.
+	 * @throws CommunicationException Thrown if an error occurs while communicating with the clients.
+	 */
+	private void stopGame() throws CommunicationException
+	{
+		game.stop(connectedPlayers);
+		endGame();
+	}
+
+	/**
+	 * Private helper method which ends the stopped game, disconnects its clients and listens for
+	 * the players of the next game on a new communicator, unless the actor is shutting down, in
+	 * which case the clients are disconnected by the shutdown.
+	 * @throws CommunicationException Thrown if an error occurs while communicating with the clients.
+	 */
+	private void endGame() throws CommunicationException
+	{
+		game = null;
+		running = false;
+		numberOfTicksSincePoll = 0;
+		listener.gameStopped();
+
+		connectedPlayers = 0;
+		listener.playersChanged(connectedPlayers);
+
+		if (shuttingDown)
+			return;
+
+		// the old communicator is closed first, which frees its port for the new one
+		serverCommunicator.disconnect();
+		serverCommunicator = createServerCommunicator();
+	}
+}
@@ -0,0 +1,352 @@
+package server.model;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
+import org.mockito.InOrder;
+
+import shared.model.GameConfiguration;
+import shared.model.communication.CommunicationException;
+import shared.model.communication.GameMessage;
+import shared.model.communication.HelloMessage;
+import shared.model.communication.IMessage;
+import shared.model.communication.IMessageGenerator;
+import shared.model.communication.IServerCommunicator;
+
+/**
+ * A test class for the GameActor class.  The tests tick the actor themselves, on the test thread.
+ */
+public class GameActorTest
+{
+	// more ticks than a game at the default tick rate lasts
+	private static final int GAME_STEPS = 200 * GameConfiguration.DEFAULT_TICK_RATE;
+
+	// the mock communicator of the clients
+	private IServerCommunicator mockServerCommunicator;
+
+	// the mock communicator of the clients of the next game
+	private IServerCommunicator mockNextServerCommunicator;
+
+	// the mock listener of the actor
+	private IGameActorListener mockListener;
+
+	// the test actor
+	private GameActor actor;
+
+	/**
+	 * Sets up the test with an actor whose clients two players have joined.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Before
+	public void setUp() throws CommunicationException
+	{
+		mockServerCommunicator = mockServerCommunicator(2);
+		mockNextServerCommunicator = mockServerCommunicator(0);
+		mockListener = mock(IGameActorListener.class);
+		actor = createActor(new GameConfiguration(), GameActor.DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Ensures the constructor throws a NullPointerException when the communicator is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorNullCommunicator()
+	{
+		new GameActor(null, new GameConfiguration(), mockListener);
+	}
+
+	/**
+	 * Ensures the constructor throws a NullPointerException when the configuration is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorNullConfiguration()
+	{
+		new GameActor(mockServerCommunicator, null, mockListener);
+	}
+
+	/**
+	 * Ensures the constructor throws a NullPointerException when the listener is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorNullListener()
+	{
+		new GameActor(mockServerCommunicator, new GameConfiguration(), null);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when the queue holds no command.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorNoCapacity()
+	{
+		new GameActor(mockServerCommunicator, new GameConfiguration(), mockListener, 0);
+	}
+
+	/**
+	 * Ensures a new actor has no running game.
+	 */
+	@Test
+	public void sanityCheck()
+	{
+		assertFalse(actor.running());
+		assertSame(mockServerCommunicator, actor.serverCommunicator());
+		assertEquals(0, actor.numberOfPendingCommands());
+	}
+
+	/**
+	 * Ensures a posted command only runs on the next tick.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testStartOnTick() throws CommunicationException
+	{
+		actor.startOrStop();
+		assertEquals(1, actor.numberOfPendingCommands());
+		assertFalse(actor.running());
+		verify(mockServerCommunicator, never()).stopListening();
+
+		actor.tick();
+
+		assertTrue(actor.running());
+		assertEquals(0, actor.numberOfPendingCommands());
+		verify(mockServerCommunicator).stopListening();
+		verify(mockListener).gameStarted();
+	}
+
+	/**
+	 * Ensures a game does not start without players.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testStartNoPlayers() throws CommunicationException
+	{
+		when(mockServerCommunicator.numberOfConnectedCommunicators()).thenReturn(0);
+		actor.startOrStop();
+		actor.tick();
+
+		assertFalse(actor.running());
+		verify(mockListener).startRefused(0);
+		verify(mockServerCommunicator, never()).stopListening();
+	}
+
+	/**
+	 * Ensures a game does not start with more than the maximum number of players.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testStartTooManyPlayers() throws CommunicationException
+	{
+		actor = createActor(new GameConfiguration(17, 23, 0.5, 1), GameActor.DEFAULT_CAPACITY);
+		actor.startOrStop();
+		actor.tick();
+
+		assertFalse(actor.running());
+		verify(mockListener).startRefused(2);
+	}
+
+	/**
+	 * Ensures the waiting players are polled every POLL_PERIOD of ticks, and told their number when
+	 * it changes.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testPollPlayers() throws CommunicationException
+	{
+		actor = createActor(new GameConfiguration().withTickRate(30), GameActor.DEFAULT_CAPACITY);
+
+		for (int i = 0; i < 6; i++)
+			actor.tick();
+
+		ArgumentCaptor<IMessage> argumentCaptor = ArgumentCaptor.forClass(IMessage.class);
+		verify(mockServerCommunicator, times(2)).sendMessages(argumentCaptor.capture());
+		assertEquals("GAME WAITING 2", argumentCaptor.getAllValues().get(0).toString());
+		assertTrue(argumentCaptor.getAllValues().get(1) instanceof HelloMessage);
+		verify(mockListener).playersChanged(2);
+	}
+
+	/**
+	 * Ensures a running game steps on each tick and is stopped by the next command, after which the
+	 * players of the next game join a new communicator.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testStop() throws CommunicationException
+	{
+		actor.startOrStop();
+		actor.tick();
+		actor.tick();
+		actor.startOrStop();
+		actor.tick();
+
+		assertFalse(actor.running());
+		verify(mockListener).gameStopped();
+		verify(mockListener).playersChanged(0);
+		assertSame(mockNextServerCommunicator, actor.serverCommunicator());
+
+		ArgumentCaptor<IMessage> argumentCaptor = ArgumentCaptor.forClass(IMessage.class);
+		verify(mockServerCommunicator, atLeastOnce()).sendMessages(argumentCaptor.capture());
+		IMessage lastMessage = argumentCaptor.getAllValues().get(
+				argumentCaptor.getAllValues().size() - 1);
+		assertEquals(GameMessage.Action.STOP, ((GameMessage) lastMessage).action());
+
+		InOrder inOrder = inOrder(mockServerCommunicator);
+		inOrder.verify(mockServerCommunicator).sendMessages(lastMessage);
+		inOrder.verify(mockServerCommunicator).disconnect();
+	}
+
+	/**
+	 * Ensures a game is stopped once no steps remain, after which its clients are disconnected and
+	 * the players of the next game join a new communicator.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testGameEnds() throws CommunicationException
+	{
+		actor.startOrStop();
+		actor.tick();
+
+		for (int i = 0; i < GAME_STEPS && actor.running(); i++)
+			actor.tick();
+
+		assertFalse(actor.running());
+		verify(mockListener).gameStopped();
+		verify(mockServerCommunicator).sendMessages(argThat(new ArgumentMatcher<IMessage>()
+		{
+			@Override
+			public boolean matches(Object message)
+			{
+				return message instanceof GameMessage
+						&& ((GameMessage) message).action() == GameMessage.Action.STOP;
+			}
+		}));
+		verify(mockServerCommunicator).disconnect();
+		assertSame(mockNextServerCommunicator, actor.serverCommunicator());
+	}
+
+	/**
+	 * Ensures stopping an actor whose game is not running does nothing.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testStopNotRunning() throws CommunicationException
+	{
+		actor.stop();
+		actor.tick();
+
+		assertFalse(actor.running());
+		verify(mockListener, never()).gameStopped();
+		assertSame(mockServerCommunicator, actor.serverCommunicator());
+	}
+
+	/**
+	 * Ensures a command is refused once the queue is full.
+	 */
+	@Test
+	public void testQueueFull()
+	{
+		actor = createActor(new GameConfiguration(), 2);
+		actor.startOrStop();
+		actor.startOrStop();
+
+		try
+		{
+			actor.stop();
+			fail();
+		}
+		catch (IllegalStateException exception)
+		{
+			// expected
+		}
+
+		assertEquals(2, actor.numberOfPendingCommands());
+	}
+
+	/**
+	 * Ensures the commands after a failing command are run on the next tick.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testFailingCommand() throws CommunicationException
+	{
+		doThrow(new CommunicationException("Broken pipe")).doNothing().when(mockServerCommunicator)
+				.sendUniqueMessageToEachConnectedCommunicator(any(IMessageGenerator.class));
+		actor.startOrStop();
+		actor.startOrStop();
+
+		try
+		{
+			actor.tick();
+			fail();
+		}
+		catch (CommunicationException exception)
+		{
+			// expected
+		}
+
+		assertFalse(actor.running());
+		assertEquals(1, actor.numberOfPendingCommands());
+
+		actor.tick();
+		assertTrue(actor.running());
+	}
+
+	/**
+	 * Ensures shutting the actor down runs the commands left in the queue and disconnects the
+	 * clients, without listening for the players of a next game.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testShutdown() throws CommunicationException
+	{
+		actor.startOrStop();
+		actor.tick();
+		actor.stop();
+		actor.shutdown();
+
+		assertFalse(actor.running());
+		verify(mockListener).gameStopped();
+		verify(mockServerCommunicator).disconnect();
+		assertSame(mockServerCommunicator, actor.serverCommunicator());
+		verifyZeroInteractions(mockNextServerCommunicator);
+	}
+
+	/**
+	 * Creates an actor on the mock communicator, which listens for the players of the next game
+	 * on the next mock communicator.
+	 * @param configuration The settings of the hosted games.
+	 * @param capacity The minimum number of commands the queue holds.
+	 * @return The actor.
+	 */
+	private GameActor createActor(GameConfiguration configuration, int capacity)
+	{
+		return new GameActor(mockServerCommunicator, configuration, mockListener, capacity)
+		{
+			@Override
+			protected IServerCommunicator createServerCommunicator()
+			{
+				return mockNextServerCommunicator;
+			}
+		};
+	}
+
+	/**
+	 * Creates a mock communicator which listens for clients.
+	 * @param numberOfPlayers The number of connected players.
+	 * @return The mock communicator.
+	 * @throws CommunicationException This should not happen.
+	 */
+	private static IServerCommunicator mockServerCommunicator(int numberOfPlayers)
+		throws CommunicationException
+	{
+		IServerCommunicator serverCommunicator = mock(IServerCommunicator.class);
+		when(serverCommunicator.numberOfConnectedCommunicators()).thenReturn(numberOfPlayers);
+		when(serverCommunicator.listening()).thenReturn(true, false);
+		when(serverCommunicator.receivedMessages()).thenReturn(new IMessage[0]);
+
+		return serverCommunicator;
+	}
+}
@@ -0,0 +1,291 @@
+package server.model;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Random;
+
+import shared.model.Key;
+import shared.model.KeyAction;
+import shared.model.communication.*;
+
+/**
+ * Compares games whose game objects are created by GameObjectFactory, by a pooled
+ * GameObjectFactory and by ComponentGameObjectFactory, whose games step the arrays of a
+ * ComponentStore instead of the game object graph.  Every match is played to the end by four
+ * players pressing and depressing random keys, and the benchmark prints the average time and heap
+ * allocation of a game step and the heap retained by a game once its board has been filled.  This
+ * class is a development tool and is not used by the game.
+ */
+public class GameBenchmark
+{
+	// the names of the measured factories
+	private static final String[] FACTORY_NAMES = { "GameObjectFactory",
+			"GameObjectFactory (pooled)", "ComponentGameObjectFactory" };
+
+	// the number of players in each match
+	private static final int NUMBER_OF_PLAYERS = 4;
+
+	// the number of matches played with each factory before measuring
+	private static final int WARM_UP_MATCHES = 20;
+
+	// the number of rounds in which every factory is measured, so no factory is always measured first
+	private static final int MEASURED_ROUNDS = 5;
+
+	// the number of matches measured with each factory in each round
+	private static final int MEASURED_MATCHES = 10;
+
+	// the number of games kept alive at the same time to measure the retained heap
+	private static final int RETAINED_GAMES = 200;
+
+	/**
+	 * Runs the benchmark and prints the results for each factory.
+	 * @param args This program ignores any command line arguments.
+	 * @throws CommunicationException This should not happen.
+	 */
+	public static void main(String[] args) throws CommunicationException
+	{
+		for (int factory = 0; factory < FACTORY_NAMES.length; factory++)
+			playMatches(factory, WARM_UP_MATCHES);
+
+		long[] times = new long[FACTORY_NAMES.length];
+		long[] allocatedBytes = new long[FACTORY_NAMES.length];
+
+		for (int round = 0; round < MEASURED_ROUNDS; round++)
+		{
+			for (int factory = 0; factory < FACTORY_NAMES.length; factory++)
+			{
+				long allocatedBytesBefore = allocatedBytes();
+				times[factory] += playMatches(factory, MEASURED_MATCHES);
+				allocatedBytes[factory] += allocatedBytes() - allocatedBytesBefore;
+			}
+		}
+
+		long steps = (long) stepsPerMatch() * MEASURED_MATCHES * MEASURED_ROUNDS;
+
+		for (int factory = 0; factory < FACTORY_NAMES.length; factory++)
+		{
+			System.out.printf("%s: %.1f us/step, %d allocated bytes/step, %d retained bytes/game%n",
+					FACTORY_NAMES[factory], times[factory] / 1000.0 / steps,
+					allocatedBytes[factory] / steps, retainedHeapPerGame(factory));
+		}
+	}
+
+	/**
+	 * Plays matches to the end with one of the factories.
+	 * @param factory The index of the factory in FACTORY_NAMES.
+	 * @param numberOfMatches The number of matches to play.
+	 * @return The time taken by the game steps in nanoseconds.
+	 * @throws CommunicationException This should not happen.
+	 */
+	private static long playMatches(int factory, int numberOfMatches)
+			throws CommunicationException
+	{
+		long time = 0;
+
+		for (int i = 0; i < numberOfMatches; i++)
+		{
+			Game game = createGame(factory, i);
+
+			long start = System.nanoTime();
+			while (game.numberOfRemainingSteps() > 0)
+				game.step();
+			time += System.nanoTime() - start;
+		}
+
+		return time;
+	}
+
+	/**
+	 * Measures the heap retained by a newly created game with one of the factories.
+	 * @param factory The index of the factory in FACTORY_NAMES.
+	 * @return The average number of bytes retained by a game.
+	 * @throws CommunicationException This should not happen.
+	 */
+	private static long retainedHeapPerGame(int factory) throws CommunicationException
+	{
+		Game[] games = new Game[RETAINED_GAMES];
+		long before = usedHeap();
+
+		for (int i = 0; i < games.length; i++)
+			games[i] = createGame(factory, i);
+
+		long after = usedHeap();
+
+		// keep the games reachable until the heap has been measured
+		if (games[games.length - 1] == null)
+			throw new IllegalStateException();
+
+		return (after - before) / games.length;
+	}
+
+	/**
+	 * Creates a game played by players pressing and depressing random keys.
+	 * @param factory The index of the factory in FACTORY_NAMES.
+	 * @param seed The seed of the keys pressed by the players.
+	 * @return The game.
+	 * @throws CommunicationException This should not happen.
+	 */
+	private static Game createGame(int factory, int seed) throws CommunicationException
+	{
+		IGameObjectFactory gameObjectFactory;
+
+		switch (factory)
+		{
+			case 0: gameObjectFactory = new GameObjectFactory(); break;
+			case 1: gameObjectFactory = new GameObjectFactory(true); break;
+			default: gameObjectFactory = new ComponentGameObjectFactory(); break;
+		}
+
+		return new Game(new RandomKeyCommunicator(seed), gameObjectFactory);
+	}
+
+	/**
+	 * Returns the number of steps in a match.
+	 * @return The number of steps in a match.
+	 * @throws CommunicationException This should not happen.
+	 */
+	private static int stepsPerMatch() throws CommunicationException
+	{
+		return createGame(0, 0).numberOfRemainingSteps();
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the current thread, if the virtual machine can
+	 * measure it.
+	 * @return The number of bytes allocated by the current thread, or 0 if it can not be measured.
+	 */
+	private static long allocatedBytes()
+	{
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+		if (!(threadBean instanceof com.sun.management.ThreadMXBean))
+			return 0;
+
+		return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread
+				.currentThread().getId());
+	}
+
+	/**
+	 * Returns the used heap after collecting garbage.
+	 * @return The used heap in bytes.
+	 */
+	private static long usedHeap()
+	{
+		Runtime runtime = Runtime.getRuntime();
+
+		for (int i = 0; i < 5; i++)
+			System.gc();
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * A server communicator which discards the sent messages and receives a random key message
+	 * from every player each step.  It is shared with the other benchmarks of this package.
+	 */
+	public static class RandomKeyCommunicator implements IServerCommunicator
+	{
+		// the random keys and key actions
+		private final Random random;
+
+		// the identifiers of the players
+		private final ArrayList<Integer> playerIdentifiers;
+
+		/**
+		 * Creates a new RandomKeyCommunicator.
+		 * @param seed The seed of the random keys and key actions.
+		 */
+		public RandomKeyCommunicator(long seed)
+		{
+			random = new Random(seed);
+			playerIdentifiers = new ArrayList<Integer>();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public void sendMessages(IMessage message)
+		{
+			// discard the message
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public void sendMessageBatch(IMessage[] messages)
+		{
+			// discard the messages
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public IMessage[] receivedMessages()
+		{
+			IMessage[] messages = new IMessage[playerIdentifiers.size()];
+			Key[] keys = Key.values();
+
+			for (int i = 0; i < messages.length; i++)
+			{
+				messages[i] = new KeyMessage(playerIdentifiers.get(i), keys[random.nextInt(keys.length)],
+						random.nextBoolean() ? KeyAction.PRESS : KeyAction.DEPRESS);
+			}
+
+			return messages;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public int numberOfConnectedCommunicators()
+		{
+			return NUMBER_OF_PLAYERS;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public IMessageFactory messageFactory()
+		{
+			return null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public void stopListening()
+		{
+			// there is nothing to stop
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public boolean listening()
+		{
+			return false;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public void sendUniqueMessageToEachConnectedCommunicator(IMessageGenerator messageGenerator)
+		{
+			for (int i = 0; i < NUMBER_OF_PLAYERS; i++)
+			{
+				PlayerGameObjectIdentifierMessage message =
+						(PlayerGameObjectIdentifierMessage) messageGenerator.generateMessage();
+				playerIdentifiers.add(message.gameObjectIdentifier());
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public void disconnect()
+		{
+			// there is nothing to disconnect
+		}
+	}
+}
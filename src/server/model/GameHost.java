@@ -0,0 +1,396 @@
+package server.model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import shared.model.GameConfiguration;
+import shared.model.ReplicationMode;
+import shared.model.communication.CommunicationException;
+import shared.model.communication.Communicator;
+import shared.model.communication.MessageFactory;
+import shared.model.communication.SelectorServerCommunicator;
+import shared.model.communication.SlowClientPolicy;
+
+/**
+ * Hosts games without anybody starting them.  Every game is played in a room of a RoomManager, on a
+ * single SelectorServerCommunicator listening on the default port, which the clients join by asking
+ * for any room.  One room at a time waits for players.  Its game starts by itself once a number of
+ * players have joined, or once the first player to join has waited for some time, and a new room
+ * is then opened for the next game, so that games are played side by side up to the maximum number
+ * of rooms of the manager.  The games are stepped, and the rooms polled, by the TickScheduler of
+ * the manager.
+ * <p>
+ * Subclasses may override roomStarted and roomEnded to follow the hosted games.
+ */
+public class GameHost
+{
+	/**
+	 * The time between polls of the waiting room in milliseconds.
+	 */
+	public static final int POLL_PERIOD = RoomManager.POLL_PERIOD;
+
+	// the number of nanoseconds in a millisecond
+	private static final long NANOSECONDS_PER_MILLISECOND = 1000000L;
+
+	// the settings of the hosted games
+	private final GameConfiguration configuration;
+
+	// the number of players which start a game at once
+	private final int numberOfStartingPlayers;
+
+	// the time the first player to join waits for the others in milliseconds
+	private final long waitTime;
+
+	// the largest number of rooms open at once
+	private final int maximumNumberOfRooms;
+
+	// the scheduler stepping the games and polling the rooms
+	private final TickScheduler scheduler;
+
+	// the communicator whose rooms the clients join, or null if the host has not started, guarded
+	// by this host
+	private SelectorServerCommunicator serverCommunicator;
+
+	// the manager of the rooms, or null if the host has not started, guarded by this host
+	private RoomManager roomManager;
+
+	// the room waiting for players, or null if no room is waiting, guarded by this host
+	private GameRoom room;
+
+	// the rooms whose game has started and which have not ended, guarded by this host
+	private final List<GameRoom> startedRooms;
+
+	// the number of rooms which have been opened, guarded by this host
+	private int numberOfRooms;
+
+	// the time the first player joined the waiting room on the clock of the scheduler, or null if
+	// no player has joined it, guarded by this host
+	private Long waitStart;
+
+	// whether the host has been shut down, guarded by this host
+	private boolean shutdown;
+
+	/**
+	 * A runnable which, when run, polls the rooms and schedules itself again.
+	 */
+	private class PollRunnable implements Runnable
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		public void run()
+		{
+			poll();
+
+			try
+			{
+				scheduler.schedule(this, POLL_PERIOD * NANOSECONDS_PER_MILLISECOND,
+						POLL_PERIOD * NANOSECONDS_PER_MILLISECOND);
+			}
+			catch (RejectedExecutionException exception)
+			{
+				// the host has been shut down
+			}
+		}
+	}
+
+	/**
+	 * Creates a new GameHost which steps the games on a scheduler with one worker for each
+	 * processor.
+	 * @param configuration The settings of the hosted games.
+	 * @param numberOfStartingPlayers The number of players which start a game at once.
+	 * @param waitTime The time the first player to join a game waits for the others in
+	 * milliseconds, before the game starts with the players which have joined.
+	 * @param maximumNumberOfRooms The largest number of rooms open at once, counting the room
+	 * waiting for players.
+	 * @throws NullPointerException Thrown if the configuration is null.
+	 * @throws IllegalArgumentException Thrown if the number of starting players is not between 1 and
+	 * the maximum number of players of the configuration, the wait time is negative or the maximum
+	 * number of rooms is less than 1.
+	 */
+	public GameHost(GameConfiguration configuration, int numberOfStartingPlayers, long waitTime,
+			int maximumNumberOfRooms)
+	{
+		this(configuration, numberOfStartingPlayers, waitTime, maximumNumberOfRooms,
+				new TickScheduler());
+	}
+
+	/**
+	 * Creates a new GameHost which steps the games on a scheduler, which it shuts down when it is
+	 * shut down.
+	 * @param configuration The settings of the hosted games.
+	 * @param numberOfStartingPlayers The number of players which start a game at once.
+	 * @param waitTime The time the first player to join a game waits for the others in
+	 * milliseconds, before the game starts with the players which have joined.
+	 * @param maximumNumberOfRooms The largest number of rooms open at once, counting the room
+	 * waiting for players.
+	 * @param scheduler The scheduler stepping the games.
+	 * @throws NullPointerException Thrown if the configuration or scheduler is null.
+	 * @throws IllegalArgumentException Thrown if the number of starting players is not between 1 and
+	 * the maximum number of players of the configuration, the wait time is negative or the maximum
+	 * number of rooms is less than 1.
+	 */
+	public GameHost(GameConfiguration configuration, int numberOfStartingPlayers, long waitTime,
+			int maximumNumberOfRooms, TickScheduler scheduler)
+	{
+		if (configuration == null || scheduler == null)
+			throw new NullPointerException();
+
+		if (numberOfStartingPlayers < 1
+				|| numberOfStartingPlayers > configuration.maximumNumberOfPlayers() || waitTime < 0
+				|| maximumNumberOfRooms < 1)
+			throw new IllegalArgumentException();
+
+		this.configuration = configuration;
+		this.numberOfStartingPlayers = numberOfStartingPlayers;
+		this.waitTime = waitTime;
+		this.maximumNumberOfRooms = maximumNumberOfRooms;
+		this.scheduler = scheduler;
+		startedRooms = new ArrayList<GameRoom>();
+	}
+
+	/**
+	 * Listens for clients, opens the room of the first game and starts polling the rooms.
+	 * @throws IllegalStateException Thrown if the host has been started or shut down.
+	 * @throws CommunicationException Thrown if the host can not listen for clients.
+	 */
+	public void start() throws CommunicationException
+	{
+		synchronized (this)
+		{
+			if (shutdown || roomManager != null)
+				throw new IllegalStateException();
+
+			serverCommunicator = createServerCommunicator();
+			roomManager = new RoomManager(serverCommunicator, configuration, maximumNumberOfRooms,
+					scheduler);
+			openRoom();
+		}
+
+		scheduler.schedule(new PollRunnable(), POLL_PERIOD * NANOSECONDS_PER_MILLISECOND,
+				POLL_PERIOD * NANOSECONDS_PER_MILLISECOND);
+	}
+
+	/**
+	 * Returns the room waiting for players.
+	 * @return The room, or null if no room is waiting.
+	 */
+	public synchronized GameRoom room()
+	{
+		return room;
+	}
+
+	/**
+	 * Returns the number of rooms which have been opened.
+	 * @return The number of rooms.
+	 */
+	public synchronized int numberOfRooms()
+	{
+		return numberOfRooms;
+	}
+
+	/**
+	 * Returns the manager of the rooms, which holds the room waiting for players and the rooms
+	 * whose game is running.
+	 * @return The room manager, or null if the host has not started.
+	 */
+	public synchronized RoomManager roomManager()
+	{
+		return roomManager;
+	}
+
+	/**
+	 * Closes every room, shuts the scheduler down and stops listening for clients.
+	 */
+	public void shutdown()
+	{
+		RoomManager closedRoomManager;
+		SelectorServerCommunicator closedServerCommunicator;
+
+		synchronized (this)
+		{
+			shutdown = true;
+			closedRoomManager = roomManager;
+			closedServerCommunicator = serverCommunicator;
+			room = null;
+			startedRooms.clear();
+			notifyAll();
+		}
+
+		if (closedRoomManager != null)
+			closedRoomManager.shutdown();
+		else
+			scheduler.shutdown();
+
+		try
+		{
+			if (closedServerCommunicator != null)
+				closedServerCommunicator.disconnect();
+		}
+		catch (CommunicationException exception)
+		{
+			// the host is shut down either way
+		}
+	}
+
+	/**
+	 * Returns true if the host has been shut down.
+	 * @return True if the host has been shut down and false otherwise.
+	 */
+	public synchronized boolean isShutdown()
+	{
+		return shutdown;
+	}
+
+	/**
+	 * Waits until the host has been shut down.
+	 * @throws InterruptedException Thrown if the thread is interrupted while waiting.
+	 */
+	public synchronized void awaitShutdown() throws InterruptedException
+	{
+		while (!shutdown)
+			wait();
+	}
+
+	/**
+	 * Creates the communicator whose rooms the clients join.  When the games replicate their state
+	 * through snapshots, a slow client is resynchronized with a keyframe, and otherwise its
+	 * superseded updates are dropped.
+	 * @return The server communicator, which listens for clients.
+	 * @throws CommunicationException Thrown if the communicator can not listen for clients.
+	 */
+	protected SelectorServerCommunicator createServerCommunicator() throws CommunicationException
+	{
+		return new SelectorServerCommunicator(new MessageFactory(), Communicator.DEFAULT_PORT,
+				SelectorServerCommunicator.DEFAULT_MAXIMUM_QUEUED_BYTES,
+				configuration.replicationMode() == ReplicationMode.SNAPSHOTS
+						? SlowClientPolicy.RESYNC : SlowClientPolicy.DROP_SUPERSEDED_UPDATES);
+	}
+
+	/**
+	 * Called once the game of a room has started.  This implementation does nothing.
+	 * @param startedRoom The room.
+	 */
+	protected void roomStarted(GameRoom startedRoom)
+	{
+	}
+
+	/**
+	 * Called once a room has finished or failed.  This implementation does nothing.
+	 * @param endedRoom The room.
+	 */
+	protected void roomEnded(GameRoom endedRoom)
+	{
+	}
+
+	/**
+	 * Polls the rooms.  The rooms which have ended are reported, and the game of the waiting room
+	 * is started once enough players have joined it or the first of them has waited long enough,
+	 * after which the room of the next game is opened.  A room which the manager refuses to open is
+	 * opened on the next poll, and a waiting room whose game can not start is closed.  The players
+	 * of the waiting room are told how many have joined by the manager.  This method is run by the
+	 * scheduler every POLL_PERIOD.
+	 */
+	synchronized void poll()
+	{
+		if (shutdown)
+			return;
+
+		for (Iterator<GameRoom> iterator = startedRooms.iterator(); iterator.hasNext();)
+		{
+			GameRoom startedRoom = iterator.next();
+
+			if (ended(startedRoom))
+			{
+				iterator.remove();
+				roomEnded(startedRoom);
+			}
+		}
+
+		if (room != null && ended(room))
+		{
+			roomEnded(room);
+			room = null;
+		}
+
+		try
+		{
+			if (room == null)
+				openRoom();
+
+			pollWaitingRoom();
+		}
+		catch (CommunicationException exception)
+		{
+			// a room whose game can not start is closed, and ends on the next poll
+			if (room != null)
+				room.close();
+		}
+		catch (RuntimeException exception)
+		{
+			// no room is waiting when the manager refused to open it, which is retried on the next
+			// poll
+			if (room != null)
+				room.close();
+		}
+	}
+
+	/**
+	 * Private helper method which opens the room of the next game.
+	 * @throws IllegalStateException Thrown if the manager refuses the room.
+	 */
+	private void openRoom()
+	{
+		room = roomManager.openRoom(numberOfRooms + 1);
+		numberOfRooms++;
+		waitStart = null;
+	}
+
+	/**
+	 * Private helper method which starts the game of the waiting room once enough players have
+	 * joined or the first of them has waited long enough, and then opens the room of the next game.
+	 * A game is never started with more than the maximum number of players.
+	 * @throws CommunicationException Thrown if an error occurs while communicating with the clients.
+	 * @throws IllegalStateException Thrown if the manager refuses the room of the next game.
+	 */
+	private void pollWaitingRoom() throws CommunicationException
+	{
+		int numberOfPlayers = room.serverCommunicator().numberOfConnectedCommunicators();
+
+		if (numberOfPlayers == 0)
+		{
+			waitStart = null;
+			return;
+		}
+
+		long now = scheduler.nanoTime();
+
+		if (waitStart == null)
+			waitStart = now;
+
+		boolean waited = now - waitStart >= waitTime * NANOSECONDS_PER_MILLISECOND;
+
+		if ((numberOfPlayers >= numberOfStartingPlayers || waited)
+				&& numberOfPlayers <= configuration.maximumNumberOfPlayers())
+		{
+			roomManager.startRoom(room.number());
+			startedRooms.add(room);
+			roomStarted(room);
+			room = null;
+			openRoom();
+		}
+	}
+
+	/**
+	 * Private helper method which returns true if a room has finished or failed.
+	 * @param gameRoom The room.
+	 * @return True if the room has ended and false otherwise.
+	 */
+	private static boolean ended(GameRoom gameRoom)
+	{
+		return gameRoom.state() == GameRoom.State.FINISHED
+				|| gameRoom.state() == GameRoom.State.FAILED;
+	}
+}
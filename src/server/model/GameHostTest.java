@@ -0,0 +1,429 @@
+package server.model;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import shared.model.GameConfiguration;
+import shared.model.communication.CommunicationException;
+import shared.model.communication.IMessage;
+import shared.model.communication.IServerCommunicator;
+import shared.model.communication.SelectorServerCommunicator;
+
+/**
+ * A test class for the GameHost class.  The rooms are opened on a mock communicator and polled by
+ * the tests, on a scheduler which never runs its tasks and whose clock the tests advance.
+ */
+public class GameHostTest
+{
+	// the number of nanoseconds in a millisecond
+	private static final long NANOSECONDS_PER_MILLISECOND = 1000000L;
+
+	// the time the first player to join waits for the others in milliseconds
+	private static final long WAIT_TIME = 1000;
+
+	// the largest number of rooms open at once
+	private static final int MAXIMUM_NUMBER_OF_ROOMS = 2;
+
+	// the settings of the hosted games
+	private GameConfiguration configuration;
+
+	// the scheduler of the test host
+	private IdleTickScheduler scheduler;
+
+	// the mock communicator whose rooms the clients join
+	private SelectorServerCommunicator mockServerCommunicator;
+
+	// the communicators of the rooms opened by the test host
+	private List<IServerCommunicator> roomCommunicators;
+
+	// the rooms the test host reported as started and as ended
+	private List<GameRoom> startedRooms;
+	private List<GameRoom> endedRooms;
+
+	// the test host
+	private GameHost host;
+
+	/**
+	 * A scheduler which never runs its tasks, and whose clock is advanced by the tests.
+	 */
+	private static class IdleTickScheduler extends TickScheduler
+	{
+		// the current time in nanoseconds
+		private volatile long now;
+
+		/**
+		 * Creates a new IdleTickScheduler.
+		 */
+		private IdleTickScheduler()
+		{
+			super(1);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public synchronized void schedule(Runnable runnable, long delay, long relativeDeadline)
+		{
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected long nanoTime()
+		{
+			return now;
+		}
+	}
+
+	/**
+	 * A host which opens its rooms on the mock communicator and records the rooms it reports.
+	 */
+	private class TestGameHost extends GameHost
+	{
+		/**
+		 * Creates a new TestGameHost.
+		 * @param numberOfStartingPlayers The number of players which start a game at once.
+		 */
+		private TestGameHost(int numberOfStartingPlayers)
+		{
+			super(configuration, numberOfStartingPlayers, WAIT_TIME, MAXIMUM_NUMBER_OF_ROOMS,
+					scheduler);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected SelectorServerCommunicator createServerCommunicator()
+		{
+			return mockServerCommunicator;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected void roomStarted(GameRoom startedRoom)
+		{
+			startedRooms.add(startedRoom);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected void roomEnded(GameRoom endedRoom)
+		{
+			endedRooms.add(endedRoom);
+		}
+	}
+
+	/**
+	 * Sets up the test with a started host whose games start with two players.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Before
+	public void setUp() throws CommunicationException
+	{
+		configuration = new GameConfiguration();
+		scheduler = new IdleTickScheduler();
+		roomCommunicators = new ArrayList<IServerCommunicator>();
+		startedRooms = new ArrayList<GameRoom>();
+		endedRooms = new ArrayList<GameRoom>();
+
+		mockServerCommunicator = mock(SelectorServerCommunicator.class);
+		when(mockServerCommunicator.openRoom(anyInt(), eq(configuration.maximumNumberOfPlayers())))
+				.thenAnswer(new Answer<IServerCommunicator>()
+				{
+					public IServerCommunicator answer(InvocationOnMock invocation)
+							throws Throwable
+					{
+						IServerCommunicator roomCommunicator = mock(IServerCommunicator.class);
+						when(roomCommunicator.listening()).thenReturn(true, false);
+						when(roomCommunicator.receivedMessages()).thenReturn(new IMessage[0]);
+						roomCommunicators.add(roomCommunicator);
+
+						return roomCommunicator;
+					}
+				});
+
+		host = new TestGameHost(2);
+		host.start();
+	}
+
+	/**
+	 * Shuts the host down.
+	 */
+	@After
+	public void tearDown()
+	{
+		host.shutdown();
+	}
+
+	/**
+	 * Ensures the constructor throws a NullPointerException when the configuration is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorNullConfiguration()
+	{
+		new GameHost(null, 2, WAIT_TIME, MAXIMUM_NUMBER_OF_ROOMS, scheduler);
+	}
+
+	/**
+	 * Ensures the constructor throws a NullPointerException when the scheduler is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorNullScheduler()
+	{
+		new GameHost(configuration, 2, WAIT_TIME, MAXIMUM_NUMBER_OF_ROOMS, null);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when no player starts a game.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorNoStartingPlayers()
+	{
+		new GameHost(configuration, 0, WAIT_TIME, MAXIMUM_NUMBER_OF_ROOMS, scheduler);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when more than the maximum number
+	 * of players start a game.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorTooManyStartingPlayers()
+	{
+		new GameHost(configuration, configuration.maximumNumberOfPlayers() + 1, WAIT_TIME,
+				MAXIMUM_NUMBER_OF_ROOMS, scheduler);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when the wait time is negative.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorNegativeWaitTime()
+	{
+		new GameHost(configuration, 2, -1, MAXIMUM_NUMBER_OF_ROOMS, scheduler);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when no room may be open.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorNoRooms()
+	{
+		new GameHost(configuration, 2, WAIT_TIME, 0, scheduler);
+	}
+
+	/**
+	 * Ensures a started host has a room of its room manager waiting for players.
+	 */
+	@Test
+	public void sanityCheck()
+	{
+		assertEquals(1, host.numberOfRooms());
+		assertEquals(1, host.room().number());
+		assertEquals(GameRoom.State.WAITING, host.room().state());
+		assertSame(roomCommunicators.get(0), host.room().serverCommunicator());
+		assertSame(host.room(), host.roomManager().room(1));
+		assertEquals(MAXIMUM_NUMBER_OF_ROOMS, host.roomManager().maximumNumberOfRooms());
+		assertSame(scheduler, host.roomManager().scheduler());
+		assertFalse(host.isShutdown());
+	}
+
+	/**
+	 * Ensures a host can not be started twice.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testStartTwice() throws CommunicationException
+	{
+		host.start();
+	}
+
+	/**
+	 * Ensures a game starts as soon as enough players have joined, and a room is then opened for
+	 * the next game.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testStartWithEnoughPlayers() throws CommunicationException
+	{
+		GameRoom room = host.room();
+		host.poll();
+		assertEquals(GameRoom.State.WAITING, room.state());
+
+		when(roomCommunicators.get(0).numberOfConnectedCommunicators()).thenReturn(2);
+		host.poll();
+
+		assertEquals(GameRoom.State.RUNNING, room.state());
+		assertEquals(1, startedRooms.size());
+		assertSame(room, startedRooms.get(0));
+		verify(roomCommunicators.get(0)).stopListening();
+
+		assertEquals(2, host.numberOfRooms());
+		assertEquals(2, host.room().number());
+		assertEquals(GameRoom.State.WAITING, host.room().state());
+		assertSame(roomCommunicators.get(1), host.room().serverCommunicator());
+	}
+
+	/**
+	 * Ensures a game starts with fewer players once the first of them has waited long enough.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testStartAfterWaiting() throws CommunicationException
+	{
+		GameRoom room = host.room();
+		when(roomCommunicators.get(0).numberOfConnectedCommunicators()).thenReturn(1);
+		host.poll();
+
+		scheduler.now += (WAIT_TIME - 1) * NANOSECONDS_PER_MILLISECOND;
+		host.poll();
+		assertEquals(GameRoom.State.WAITING, room.state());
+
+		scheduler.now += NANOSECONDS_PER_MILLISECOND;
+		host.poll();
+		assertEquals(GameRoom.State.RUNNING, room.state());
+	}
+
+	/**
+	 * Ensures the wait starts again once every player has left.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testWaitRestartsWhenPlayersLeave() throws CommunicationException
+	{
+		when(roomCommunicators.get(0).numberOfConnectedCommunicators()).thenReturn(1, 0, 1);
+		host.poll();
+
+		scheduler.now += WAIT_TIME * NANOSECONDS_PER_MILLISECOND;
+		host.poll();
+		host.poll();
+		assertEquals(GameRoom.State.WAITING, host.room().state());
+		assertTrue(startedRooms.isEmpty());
+	}
+
+	/**
+	 * Ensures a game never starts with more than the maximum number of players.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testTooManyPlayers() throws CommunicationException
+	{
+		when(roomCommunicators.get(0).numberOfConnectedCommunicators()).thenReturn(
+				configuration.maximumNumberOfPlayers() + 1);
+		host.poll();
+
+		scheduler.now += WAIT_TIME * NANOSECONDS_PER_MILLISECOND;
+		host.poll();
+		assertEquals(GameRoom.State.WAITING, host.room().state());
+	}
+
+	/**
+	 * Ensures a game which has ended is reported, while the room of the next game keeps waiting.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testGameEnded() throws CommunicationException
+	{
+		when(roomCommunicators.get(0).numberOfConnectedCommunicators()).thenReturn(2);
+		host.poll();
+		GameRoom room = startedRooms.get(0);
+		GameRoom nextRoom = host.room();
+		room.close();
+
+		host.poll();
+		host.poll();
+
+		assertEquals(1, endedRooms.size());
+		assertSame(room, endedRooms.get(0));
+		assertSame(nextRoom, host.room());
+		assertEquals(GameRoom.State.WAITING, nextRoom.state());
+	}
+
+	/**
+	 * Ensures the room of the next game is opened once the room manager has room for it.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testNextRoomRetried() throws CommunicationException
+	{
+		when(roomCommunicators.get(0).numberOfConnectedCommunicators()).thenReturn(2);
+		host.poll();
+		when(roomCommunicators.get(1).numberOfConnectedCommunicators()).thenReturn(2);
+		host.poll();
+
+		assertEquals(2, startedRooms.size());
+		assertNull(host.room());
+
+		host.poll();
+		assertNull(host.room());
+
+		startedRooms.get(0).close();
+		host.roomManager().pollRooms();
+		host.poll();
+
+		assertEquals(3, host.room().number());
+		assertEquals(GameRoom.State.WAITING, host.room().state());
+		assertEquals(3, host.numberOfRooms());
+	}
+
+	/**
+	 * Ensures a waiting room whose players can not be polled is closed and replaced.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testPollFails() throws CommunicationException
+	{
+		GameRoom room = host.room();
+		doThrow(new CommunicationException("Broken pipe")).when(roomCommunicators.get(0))
+				.sendMessages(any(IMessage.class));
+
+		host.roomManager().pollRooms();
+		assertEquals(GameRoom.State.FINISHED, room.state());
+
+		host.poll();
+		assertSame(room, endedRooms.get(0));
+		assertEquals(2, host.room().number());
+	}
+
+	/**
+	 * Ensures shutting the host down closes its rooms, shuts its scheduler down and stops
+	 * listening for clients.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testShutdown() throws Exception
+	{
+		when(roomCommunicators.get(0).numberOfConnectedCommunicators()).thenReturn(2);
+		host.poll();
+		GameRoom startedRoom = startedRooms.get(0);
+		GameRoom room = host.room();
+
+		host.shutdown();
+		host.awaitShutdown();
+
+		assertTrue(host.isShutdown());
+		assertNull(host.room());
+		assertEquals(GameRoom.State.FINISHED, startedRoom.state());
+		assertEquals(GameRoom.State.FINISHED, room.state());
+		assertTrue(scheduler.isShutdown());
+		verify(mockServerCommunicator).disconnect();
+
+		host.poll();
+		assertNull(host.room());
+	}
+}
@@ -0,0 +1,428 @@
+package server.model;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import shared.core.ICommand;
+import shared.model.GameConfiguration;
+
+/**
+ * Runs a tick command at a fixed rate on its own thread.  Ticks are scheduled against the monotonic
+ * clock at whole multiples of the tick period from the start of the loop, so a slow tick does not
+ * delay the ticks after it: the loop runs the ticks it missed back to back to catch up.  At most
+ * MAXIMUM_CATCH_UP_TICKS ticks are run without waiting, after which the missed ticks are skipped
+ * and the schedule restarts from the current time, so that a long stall does not cause a burst of
+ * ticks.  The loop records how long each tick takes and how late it starts, and counts the ticks
+ * which miss their deadline by finishing after the next tick is due.
+ * <p>
+ * A loop either runs on a thread of its own or on a TickScheduler shared with other loops, where
+ * each run of the due ticks schedules the next one with the end of its period as its deadline, so
+ * that many loops share a few threads and the ticks of one loop never overlap.  A loop can be
+ * throttled to tick several times slower than its tick rate, to shed load.
+ */
+public class GameLoop implements Runnable
+{
+	/**
+	 * The largest number of ticks which are run back to back to catch up with the schedule.
+	 */
+	public static final int MAXIMUM_CATCH_UP_TICKS = 5;
+
+	// the number of nanoseconds in a second
+	private static final long NANOSECONDS_PER_SECOND = 1000000000L;
+
+	// the number of nanoseconds in a millisecond
+	private static final long NANOSECONDS_PER_MILLISECOND = 1000000L;
+
+	// the command run on each tick
+	private final ICommand tick;
+
+	// the time between ticks at the tick rate in nanoseconds
+	private final long tickRatePeriod;
+
+	// the time between ticks in nanoseconds, which is longer while the loop is throttled
+	private volatile long period;
+
+	// the time each tick took and how late it started
+	private final Histogram tickDurations;
+	private final Histogram tickLateness;
+
+	// the time the next tick is due, on the clock of nanoTime
+	private long nextTickTime;
+
+	// the number of ticks run back to back since the loop last waited
+	private int numberOfCatchUpTicks;
+
+	// the number of ticks run and skipped, and of the ticks which missed their deadline
+	private volatile long numberOfTicks;
+	private volatile long numberOfSkippedTicks;
+	private volatile long numberOfMissedDeadlines;
+
+	// the thread running the loop, or null if the loop is not running on a thread of its own
+	private volatile Thread thread;
+
+	// the ticks scheduled on a scheduler, or null if the loop is not running on a scheduler
+	private volatile ScheduledTicks scheduledTicks;
+
+	// the worker thread running the due ticks, or null if none is running them
+	private Thread tickingThread;
+
+	/**
+	 * A runnable which, when run by the scheduler of the loop, runs the due ticks and schedules
+	 * itself again for the next tick.
+	 */
+	private class ScheduledTicks implements Runnable
+	{
+		// the scheduler
+		private final TickScheduler scheduler;
+
+		/**
+		 * Creates the ticks scheduled on a scheduler.
+		 * @param scheduler The scheduler.
+		 */
+		public ScheduledTicks(TickScheduler scheduler)
+		{
+			this.scheduler = scheduler;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public void run()
+		{
+			synchronized (GameLoop.this)
+			{
+				if (scheduledTicks != this)
+					return;
+
+				tickingThread = Thread.currentThread();
+			}
+
+			boolean scheduled = false;
+
+			try
+			{
+				long delay = runDueTicks();
+
+				// the next ticks are due by the end of their period
+				if (scheduledTicks == this)
+				{
+					scheduler.schedule(this, delay, period);
+					scheduled = true;
+				}
+			}
+			catch (RejectedExecutionException exception)
+			{
+				// the scheduler has been shut down, which stops the loop
+			}
+			finally
+			{
+				synchronized (GameLoop.this)
+				{
+					// a tick which failed stops the loop
+					if (!scheduled && scheduledTicks == this)
+						scheduledTicks = null;
+
+					tickingThread = null;
+					GameLoop.this.notifyAll();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates a new GameLoop which has not started.
+	 * @param tick The command run on each tick.
+	 * @param tickRate The number of ticks per second.
+	 * @throws NullPointerException Thrown if the command is null.
+	 * @throws IllegalArgumentException Thrown if the tick rate is not between
+	 * GameConfiguration.MINIMUM_TICK_RATE and GameConfiguration.MAXIMUM_TICK_RATE.
+	 */
+	public GameLoop(ICommand tick, int tickRate)
+	{
+		if (tick == null)
+			throw new NullPointerException();
+
+		if (tickRate < GameConfiguration.MINIMUM_TICK_RATE
+				|| tickRate > GameConfiguration.MAXIMUM_TICK_RATE)
+			throw new IllegalArgumentException();
+
+		this.tick = tick;
+		this.tickRatePeriod = NANOSECONDS_PER_SECOND / tickRate;
+		this.period = tickRatePeriod;
+		this.tickDurations = new Histogram();
+		this.tickLateness = new Histogram();
+	}
+
+	/**
+	 * Starts running the ticks on a new thread, the first tick being due immediately.
+	 * @throws IllegalStateException Thrown if the loop has already been started.
+	 */
+	public synchronized void start()
+	{
+		if (running() || numberOfTicks > 0)
+			throw new IllegalStateException();
+
+		nextTickTime = nanoTime();
+		thread = new Thread(this, "Game loop");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Starts running the ticks on a scheduler shared with other loops, the first tick being due
+	 * immediately.  The loop stops if the scheduler is shut down or a tick throws an exception.
+	 * @param scheduler The scheduler.
+	 * @throws NullPointerException Thrown if the scheduler is null.
+	 * @throws IllegalStateException Thrown if the loop has already been started.
+	 * @throws RejectedExecutionException Thrown if the scheduler has been shut down.
+	 */
+	public synchronized void start(TickScheduler scheduler)
+	{
+		if (scheduler == null)
+			throw new NullPointerException();
+
+		if (running() || numberOfTicks > 0)
+			throw new IllegalStateException();
+
+		nextTickTime = nanoTime();
+		scheduledTicks = new ScheduledTicks(scheduler);
+
+		try
+		{
+			scheduler.schedule(scheduledTicks, 0, period);
+		}
+		catch (RejectedExecutionException exception)
+		{
+			scheduledTicks = null;
+			throw exception;
+		}
+	}
+
+	/**
+	 * Stops running the ticks.  The tick which is running finishes first, and unless this method is
+	 * called by a tick, it returns after that tick has finished.
+	 */
+	public void stop()
+	{
+		Thread runningThread;
+
+		// wake the loop if it is waiting for a tick
+		synchronized (this)
+		{
+			runningThread = thread;
+			thread = null;
+			scheduledTicks = null;
+			notifyAll();
+
+			// wait for the ticks running on a worker thread
+			try
+			{
+				while (tickingThread != null && tickingThread != Thread.currentThread())
+					wait();
+			}
+			catch (InterruptedException exception)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		if (runningThread == null || runningThread == Thread.currentThread())
+			return;
+
+		try
+		{
+			runningThread.join();
+		}
+		catch (InterruptedException exception)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns true if the loop has been started and not stopped.
+	 * @return True if the loop is running and false otherwise.
+	 */
+	public boolean running()
+	{
+		return thread != null || scheduledTicks != null;
+	}
+
+	/**
+	 * Runs the ticks as they become due until the loop is stopped.  This method is run by the thread
+	 * of the loop.
+	 */
+	public void run()
+	{
+		Thread currentThread = Thread.currentThread();
+
+		while (thread == currentThread)
+		{
+			long delay = runDueTicks();
+
+			try
+			{
+				sleep(delay);
+			}
+			catch (InterruptedException exception)
+			{
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns the time between ticks, which is longer than the period of the tick rate while the
+	 * loop is throttled.
+	 * @return The time between ticks in nanoseconds.
+	 */
+	public long period()
+	{
+		return period;
+	}
+
+	/**
+	 * Throttles the loop to tick a number of times slower than its tick rate, from the next tick
+	 * on, or restores its tick rate.
+	 * @param factor The number of times slower the loop ticks, or 1 to tick at the tick rate.
+	 * @throws IllegalArgumentException Thrown if the factor is less than 1.
+	 */
+	public void throttle(int factor)
+	{
+		if (factor < 1)
+			throw new IllegalArgumentException();
+
+		period = tickRatePeriod * factor;
+	}
+
+	/**
+	 * Returns true if the loop ticks slower than its tick rate.
+	 * @return True if the loop is throttled and false otherwise.
+	 */
+	public boolean throttled()
+	{
+		return period != tickRatePeriod;
+	}
+
+	/**
+	 * Returns the histogram of the time each tick took to run.
+	 * @return The histogram of the tick durations.
+	 */
+	public Histogram tickDurations()
+	{
+		return tickDurations;
+	}
+
+	/**
+	 * Returns the histogram of how late each tick started after it was due.
+	 * @return The histogram of the tick lateness.
+	 */
+	public Histogram tickLateness()
+	{
+		return tickLateness;
+	}
+
+	/**
+	 * Returns the number of ticks which have been run.
+	 * @return The number of ticks run.
+	 */
+	public long numberOfTicks()
+	{
+		return numberOfTicks;
+	}
+
+	/**
+	 * Returns the number of ticks which finished after the next tick was due.
+	 * @return The number of missed deadlines.
+	 */
+	public long numberOfMissedDeadlines()
+	{
+		return numberOfMissedDeadlines;
+	}
+
+	/**
+	 * Returns the fraction of the ticks which finished after the next tick was due.
+	 * @return The deadline miss rate, which is 0 if no tick has been run.
+	 */
+	public double deadlineMissRate()
+	{
+		long ticks = numberOfTicks;
+
+		return ticks == 0 ? 0 : (double) numberOfMissedDeadlines / ticks;
+	}
+
+	/**
+	 * Returns the number of ticks which were skipped because the loop fell too far behind.
+	 * @return The number of skipped ticks.
+	 */
+	public long numberOfSkippedTicks()
+	{
+		return numberOfSkippedTicks;
+	}
+
+	/**
+	 * Runs the ticks which are due, catching up with at most MAXIMUM_CATCH_UP_TICKS ticks, and
+	 * returns the time until the next tick is due.
+	 * @return The time until the next tick is due in nanoseconds, which is 0 if the loop has run
+	 * MAXIMUM_CATCH_UP_TICKS ticks and is still behind.
+	 */
+	long runDueTicks()
+	{
+		long now = nanoTime();
+		long period = this.period;
+
+		while (now >= nextTickTime)
+		{
+			// skip the missed ticks once the loop has caught up for too long
+			if (numberOfCatchUpTicks == MAXIMUM_CATCH_UP_TICKS)
+			{
+				long missedTicks = (now - nextTickTime) / period + 1;
+				numberOfSkippedTicks += missedTicks;
+				nextTickTime += missedTicks * period;
+				numberOfCatchUpTicks = 0;
+				break;
+			}
+
+			tickLateness.record(now - nextTickTime);
+			tick.execute();
+			long end = nanoTime();
+			tickDurations.record(end - now);
+
+			// a tick misses its deadline if it finishes after the next tick is due
+			if (end - nextTickTime > period)
+				numberOfMissedDeadlines++;
+
+			numberOfTicks++;
+			numberOfCatchUpTicks++;
+			nextTickTime += period;
+			now = end;
+		}
+
+		// the loop is on schedule once it waits for a tick
+		if (now < nextTickTime)
+			numberOfCatchUpTicks = 0;
+
+		return Math.max(0, nextTickTime - now);
+	}
+
+	/**
+	 * Returns the current time of the monotonic clock the ticks are scheduled against.
+	 * @return The current time in nanoseconds, from an arbitrary origin.
+	 */
+	protected long nanoTime()
+	{
+		return System.nanoTime();
+	}
+
+	/**
+	 * Waits for a time, or until the loop is stopped.  The thread is not interrupted to stop the
+	 * loop, since interrupting a tick would close the channels it is writing to.
+	 * @param nanoseconds The time to wait in nanoseconds.
+	 * @throws InterruptedException Thrown if the thread is interrupted while waiting.
+	 */
+	protected synchronized void sleep(long nanoseconds) throws InterruptedException
+	{
+		if (thread != null && nanoseconds > 0)
+			wait(nanoseconds / NANOSECONDS_PER_MILLISECOND,
+					(int) (nanoseconds % NANOSECONDS_PER_MILLISECOND));
+	}
+}
@@ -0,0 +1,432 @@
+package server.model;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import shared.core.ICommand;
+
+/**
+ * A test class for the GameLoop class.  Most tests run the ticks on the test thread against a fake
+ * clock which starts at 0, the time of the first tick of a loop which has not been started.
+ */
+public class GameLoopTest
+{
+	// the number of nanoseconds in a millisecond
+	private static final long MILLISECOND = 1000000L;
+
+	// the time of the fake clock
+	private long now;
+
+	// the time each tick takes on the fake clock, in the order of the ticks, after which ticks take
+	// no time
+	private long[] tickDurations;
+
+	// the number of ticks run
+	private int numberOfTicks;
+
+	// the test game loop, which steps 10 times per second
+	private GameLoop gameLoop;
+
+	/**
+	 * A game loop which runs against the fake clock.
+	 */
+	private class TestGameLoop extends GameLoop
+	{
+		/**
+		 * Creates a new TestGameLoop.
+		 * @param tick The command run on each tick.
+		 * @param tickRate The number of ticks per second.
+		 */
+		private TestGameLoop(ICommand tick, int tickRate)
+		{
+			super(tick, tickRate);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected long nanoTime()
+		{
+			return now;
+		}
+	}
+
+	/**
+	 * A tick which advances the fake clock by the duration of the tick.
+	 */
+	private class TimedTick implements ICommand
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		public void execute()
+		{
+			if (numberOfTicks < tickDurations.length)
+				now += tickDurations[numberOfTicks];
+
+			numberOfTicks++;
+		}
+	}
+
+	/**
+	 * Sets up the test.
+	 */
+	@Before
+	public void setUp()
+	{
+		now = 0;
+		tickDurations = new long[0];
+		numberOfTicks = 0;
+		gameLoop = new TestGameLoop(new TimedTick(), 10);
+	}
+
+	/**
+	 * Ensures the constructor throws a NullPointerException when the command is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorNullTick()
+	{
+		new GameLoop(null, 10);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when the tick rate is too high.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorTickRateTooHigh()
+	{
+		new GameLoop(new TimedTick(), 61);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when the tick rate is too low.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorTickRateTooLow()
+	{
+		new GameLoop(new TimedTick(), 9);
+	}
+
+	/**
+	 * Ensures the period of the ticks follows from the tick rate.
+	 */
+	@Test
+	public void testPeriod()
+	{
+		assertEquals(100 * MILLISECOND, gameLoop.period());
+		assertEquals(1000000000L / 60, new GameLoop(new TimedTick(), 60).period());
+	}
+
+	/**
+	 * Ensures ticks which are due are run, and the loop waits for the rest of the period.
+	 */
+	@Test
+	public void testRunDueTicksOnSchedule()
+	{
+		tickDurations = new long[] { 10 * MILLISECOND, 20 * MILLISECOND };
+
+		assertEquals(90 * MILLISECOND, gameLoop.runDueTicks());
+		assertEquals(1, numberOfTicks);
+
+		// waking early runs no tick
+		now = 50 * MILLISECOND;
+		assertEquals(50 * MILLISECOND, gameLoop.runDueTicks());
+		assertEquals(1, numberOfTicks);
+
+		now = 100 * MILLISECOND;
+		assertEquals(80 * MILLISECOND, gameLoop.runDueTicks());
+		assertEquals(2, numberOfTicks);
+		assertEquals(2, gameLoop.numberOfTicks());
+		assertEquals(0, gameLoop.tickLateness().maximum());
+		assertEquals(20 * MILLISECOND, gameLoop.tickDurations().maximum());
+		assertEquals(0, gameLoop.numberOfMissedDeadlines());
+	}
+
+	/**
+	 * Ensures the schedule does not drift when the loop wakes late.
+	 */
+	@Test
+	public void testRunDueTicksWithoutDrift()
+	{
+		gameLoop.runDueTicks();
+
+		now = 130 * MILLISECOND;
+		assertEquals(70 * MILLISECOND, gameLoop.runDueTicks());
+		assertEquals(30 * MILLISECOND, gameLoop.tickLateness().maximum());
+	}
+
+	/**
+	 * Ensures the ticks missed during a slow tick are run back to back.
+	 */
+	@Test
+	public void testRunDueTicksCatchesUp()
+	{
+		tickDurations = new long[] { 250 * MILLISECOND, 10 * MILLISECOND, 10 * MILLISECOND };
+
+		assertEquals(30 * MILLISECOND, gameLoop.runDueTicks());
+		assertEquals(3, numberOfTicks);
+		assertEquals(0, gameLoop.numberOfSkippedTicks());
+		assertEquals(150 * MILLISECOND, gameLoop.tickLateness().maximum());
+
+		// the first two ticks end after the next tick is due
+		assertEquals(2, gameLoop.numberOfMissedDeadlines());
+		assertEquals(2.0 / 3, gameLoop.deadlineMissRate(), 1e-9);
+	}
+
+	/**
+	 * Ensures a throttled loop ticks slower until its tick rate is restored.
+	 */
+	@Test
+	public void testThrottle()
+	{
+		assertFalse(gameLoop.throttled());
+		assertEquals(0, gameLoop.deadlineMissRate(), 0);
+
+		gameLoop.throttle(3);
+		assertTrue(gameLoop.throttled());
+		assertEquals(300 * MILLISECOND, gameLoop.period());
+		assertEquals(300 * MILLISECOND, gameLoop.runDueTicks());
+
+		gameLoop.throttle(1);
+		assertFalse(gameLoop.throttled());
+		now = 300 * MILLISECOND;
+		assertEquals(100 * MILLISECOND, gameLoop.runDueTicks());
+		assertEquals(2, numberOfTicks);
+	}
+
+	/**
+	 * Ensures a loop can not be throttled by a factor less than 1.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testThrottleInvalidFactor()
+	{
+		gameLoop.throttle(0);
+	}
+
+	/**
+	 * Ensures at most MAXIMUM_CATCH_UP_TICKS ticks are run back to back, after which the missed
+	 * ticks are skipped and the schedule restarts.
+	 */
+	@Test
+	public void testRunDueTicksSkipsAfterStall()
+	{
+		tickDurations = new long[] { 2000 * MILLISECOND, 10 * MILLISECOND, 10 * MILLISECOND,
+				10 * MILLISECOND, 10 * MILLISECOND };
+
+		// the ticks due at 0 to 400 ms are run, ending at 2040 ms, then the ticks due at 500 to
+		// 2000 ms are skipped
+		assertEquals(60 * MILLISECOND, gameLoop.runDueTicks());
+		assertEquals(GameLoop.MAXIMUM_CATCH_UP_TICKS, numberOfTicks);
+		assertEquals(16, gameLoop.numberOfSkippedTicks());
+
+		now = 2100 * MILLISECOND;
+		assertEquals(100 * MILLISECOND, gameLoop.runDueTicks());
+		assertEquals(GameLoop.MAXIMUM_CATCH_UP_TICKS + 1, numberOfTicks);
+	}
+
+	/**
+	 * Ensures a started loop runs ticks on its own thread until it is stopped.
+	 * 
+	 * @throws InterruptedException This should not happen.
+	 */
+	@Test
+	public void testStartAndStop() throws InterruptedException
+	{
+		final int[] count = new int[1];
+		GameLoop realLoop = new GameLoop(new ICommand()
+		{
+			public void execute()
+			{
+				synchronized (count)
+				{
+					count[0]++;
+				}
+			}
+		}, 60);
+
+		realLoop.start();
+		assertTrue(realLoop.running());
+		Thread.sleep(200);
+		realLoop.stop();
+		assertFalse(realLoop.running());
+
+		int stoppedCount;
+		synchronized (count)
+		{
+			stoppedCount = count[0];
+		}
+
+		assertTrue(stoppedCount >= 2);
+		assertEquals(stoppedCount, realLoop.numberOfTicks());
+		assertEquals(stoppedCount, realLoop.tickDurations().count());
+
+		Thread.sleep(50);
+		synchronized (count)
+		{
+			assertEquals(stoppedCount, count[0]);
+		}
+	}
+
+	/**
+	 * Ensures a tick can stop its own loop.
+	 * 
+	 * @throws InterruptedException This should not happen.
+	 */
+	@Test
+	public void testStopFromTick() throws InterruptedException
+	{
+		final GameLoop[] loop = new GameLoop[1];
+		loop[0] = new GameLoop(new ICommand()
+		{
+			public void execute()
+			{
+				loop[0].stop();
+			}
+		}, 10);
+
+		loop[0].start();
+		Thread.sleep(200);
+		assertFalse(loop[0].running());
+		assertEquals(1, loop[0].numberOfTicks());
+	}
+
+	/**
+	 * Ensures a loop started on a scheduler runs ticks on its workers until it is stopped, without
+	 * running two ticks at once.
+	 * 
+	 * @throws InterruptedException This should not happen.
+	 */
+	@Test
+	public void testStartOnScheduler() throws InterruptedException
+	{
+		final int[] count = new int[2];
+		TickScheduler scheduler = new TickScheduler(2);
+		GameLoop realLoop = new GameLoop(new ICommand()
+		{
+			public void execute()
+			{
+				synchronized (count)
+				{
+					count[0]++;
+					count[1]++;
+				}
+
+				Thread.yield();
+
+				synchronized (count)
+				{
+					count[1]--;
+				}
+			}
+		}, 60);
+
+		try
+		{
+			realLoop.start(scheduler);
+			assertTrue(realLoop.running());
+			Thread.sleep(200);
+			realLoop.stop();
+			assertFalse(realLoop.running());
+
+			int stoppedCount;
+			synchronized (count)
+			{
+				stoppedCount = count[0];
+				assertEquals(0, count[1]);
+			}
+
+			assertTrue(stoppedCount >= 2);
+			assertEquals(stoppedCount, realLoop.numberOfTicks());
+
+			Thread.sleep(50);
+			synchronized (count)
+			{
+				assertEquals(stoppedCount, count[0]);
+			}
+		}
+		finally
+		{
+			scheduler.shutdown();
+		}
+	}
+
+	/**
+	 * Ensures a loop running on a scheduler stops when a tick throws an exception, without
+	 * stopping the scheduler.
+	 * 
+	 * @throws InterruptedException This should not happen.
+	 */
+	@Test
+	public void testSchedulerLoopStopsOnException() throws InterruptedException
+	{
+		TickScheduler scheduler = new TickScheduler(1);
+		GameLoop failingLoop = new GameLoop(new ICommand()
+		{
+			public void execute()
+			{
+				throw new IllegalStateException();
+			}
+		}, 10);
+		GameLoop realLoop = new GameLoop(new TimedTick(), 60);
+
+		try
+		{
+			failingLoop.start(scheduler);
+			realLoop.start(scheduler);
+			Thread.sleep(200);
+
+			assertFalse(failingLoop.running());
+			assertEquals(0, failingLoop.numberOfTicks());
+			assertTrue(realLoop.running());
+			assertTrue(realLoop.numberOfTicks() >= 2);
+		}
+		finally
+		{
+			realLoop.stop();
+			scheduler.shutdown();
+		}
+	}
+
+	/**
+	 * Ensures a loop can not be started on a scheduler while it runs on its own thread.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testStartOnSchedulerWhileRunning()
+	{
+		TickScheduler scheduler = new TickScheduler(1);
+		GameLoop realLoop = new GameLoop(new TimedTick(), 10);
+		realLoop.start();
+
+		try
+		{
+			realLoop.start(scheduler);
+		}
+		finally
+		{
+			realLoop.stop();
+			scheduler.shutdown();
+		}
+	}
+
+	/**
+	 * Ensures a loop can not be started twice.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testStartTwice()
+	{
+		GameLoop realLoop = new GameLoop(new TimedTick(), 10);
+		realLoop.start();
+
+		try
+		{
+			realLoop.start();
+		}
+		finally
+		{
+			realLoop.stop();
+		}
+	}
+}
@@ -12,9 +12,6 @@ public class GameObject implements IGameObject
 	// the game object identifier
 	private final int identifier;
 	
-	// a static counter used to ensure the game object identifier is unique
-	private static int identifierCounter;
-	
 	// the game object type
 	private final GameObjectType type;
 	
@@ -38,6 +35,7 @@ public class GameObject implements IGameObject
 	
 	/**
 	 * A constructor which creates game objects using various provided behaviors.
+	 * @param identifier The game object identifier, which must be unique within its game.
 	 * @param type The game object type.
 	 * @param scoreBehavior The score behavior.
 	 * @param mobilityBehavior The mobility behavior.
@@ -46,8 +44,9 @@ public class GameObject implements IGameObject
 	 * @param destructionBehavior The destruction behavior.
 	 * @param bombBehavior The bomb behavior.
 	 * @throws NullPointerException Thrown if any of the provided behaviors are null.
+	 * @throws IllegalArgumentException Thrown if the identifier is negative.
 	 */
-	public GameObject(GameObjectType type, IMobilityBehavior mobilityBehavior, 
+	public GameObject(int identifier, GameObjectType type, IMobilityBehavior mobilityBehavior, 
 			ISolidityBehavior solidityBehavior,IDestructionBehavior destructionBehavior, 
 			IScoreBehavior scoreBehavior, IOwnershipBehavior ownershipBehavior, 
 			IBombBehavior bombBehavior)
@@ -58,6 +57,9 @@ public class GameObject implements IGameObject
 				|| bombBehavior == null)
 			throw new NullPointerException();
 		
+		if (identifier < 0)
+			throw new IllegalArgumentException();
+		
 		// set the behaviors
 		this.type = type;
 		this.mobilityBehavior = mobilityBehavior;
@@ -68,9 +70,7 @@ public class GameObject implements IGameObject
 		this.bombBehavior = bombBehavior;
 		
 		// set the game identifier
-		identifier = identifierCounter;
-		// automatically add 1 to the identifier counter when the new game object is created
-		identifierCounter++;
+		this.identifier = identifier;
 	}
 
 	/**
@@ -1,25 +1,37 @@
 package server.model;
 
+import java.util.ArrayList;
+
 import server.model.behaviors.*;
 import server.model.IGameObject;
+import shared.model.GameConfiguration;
 import shared.model.GameObjectType;
 
 /**
  * A basic implementation of IGameObjectFactory which used to generate 
  * different type GameObject.
+ * <p>
+ * The stateless behaviors are shared by every game object.  In pooled mode, the bombs and
+ * explosions released to the factory are kept and recycled by the next calls to createBomb and
+ * createExplosion instead of being garbage collected.  A recycled game object keeps its identifier
+ * and behavior objects, so a pooled factory must only be used by a game which no longer touches
+ * the game objects it releases.
+ * <p>
+ * The lifetimes of the game objects are set in milliseconds and counted in the steps of the tick
+ * rate of the factory, so that they last as long at any tick rate.
  *
  */
 public class GameObjectFactory implements IGameObjectFactory
 {
 	/**
-	 * The number of steps before a bomb is destroyed.
+	 * The number of milliseconds before a bomb is destroyed.
 	 */
-	private static final int BOMB_INITIAL_NUMBER_OF_STEPS_UNTIL_DESTRUCTION = 18;
+	private static final int BOMB_FUSE_TIME = 1800;
 	
 	/**
-	 * The number of steps before a explosion disappear
+	 * The number of milliseconds before a explosion disappear
 	 */
-	private static final int EXPLOSION_INITIAL_NUMBER_OF_STEPS_UNTIL_DESTRUCTION = 5;
+	private static final int EXPLOSION_TIME = 500;
 	
 	/**
 	 * The initial max number of bomb that player can put.
@@ -27,9 +39,72 @@ public class GameObjectFactory implements IGameObjectFactory
 	private static final int BOMB_MAX_COUNT_NUMBER = 3;
 	
 	/**
-	 * The initial max number of player to respawn
+	 * The number of milliseconds before a player respawns
+	 */
+	private static final int RESPAWN_TIME = 1000;
+	
+	// the number of milliseconds in a second
+	private static final int MILLISECONDS_PER_SECOND = 1000;
+	
+	// the stateless behaviors, which are shared by the game objects of every factory
+	private static final ISolidityBehavior SOLID_BEHAVIOR = new SolidBehavior();
+	private static final ISolidityBehavior UNSOLID_BEHAVIOR = new UnsolidBehavior();
+	private static final IDestructionBehavior INDESTRUCTIBLE_BEHAVIOR = new IndestructibleBehavior();
+	private static final IScoreBehavior NO_SCORE_BEHAVIOR = new NoScoreBehavior();
+	private static final IOwnershipBehavior UNOWNED_BEHAVIOR = new UnownedBehavior();
+	private static final IBombBehavior CAN_NOT_PLACE_BOMB_BEHAVIOR = new CanNotPlaceBombBehavior();
+	
+	// the allocator of the identifiers of the created game objects
+	private final IdentifierAllocator identifierAllocator = new IdentifierAllocator();
+	
+	// true if released bombs and explosions are recycled
+	private final boolean pooled;
+	
+	// the number of steps of the lifetimes of bombs, explosions and players
+	private final int bombInitialNumberOfStepsUntilDestruction;
+	private final int explosionInitialNumberOfStepsUntilDestruction;
+	private final int numberOfStepsUntilRespawn;
+	
+	// the released bombs and explosions waiting to be recycled, used as stacks
+	private final ArrayList<PooledGameObject> bombPool = new ArrayList<PooledGameObject>();
+	private final ArrayList<PooledGameObject> explosionPool = new ArrayList<PooledGameObject>();
+	
+	/**
+	 * Creates a new GameObjectFactory which does not recycle released game objects, for games at
+	 * the default tick rate.
 	 */
-	private static final int NUMBER_OF_STEPS_UNTIL_RESPAWN = 10;
+	public GameObjectFactory()
+	{
+		this(false);
+	}
+	
+	/**
+	 * Creates a new GameObjectFactory for games at the default tick rate.
+	 * @param pooled True if released bombs and explosions should be recycled and false otherwise.
+	 */
+	public GameObjectFactory(boolean pooled)
+	{
+		this(pooled, GameConfiguration.DEFAULT_TICK_RATE);
+	}
+	
+	/**
+	 * Creates a new GameObjectFactory for games at a tick rate.
+	 * @param pooled True if released bombs and explosions should be recycled and false otherwise.
+	 * @param tickRate The number of game steps per second.
+	 * @throws IllegalArgumentException Thrown if the tick rate is not between
+	 * GameConfiguration.MINIMUM_TICK_RATE and GameConfiguration.MAXIMUM_TICK_RATE.
+	 */
+	public GameObjectFactory(boolean pooled, int tickRate)
+	{
+		if (tickRate < GameConfiguration.MINIMUM_TICK_RATE
+				|| tickRate > GameConfiguration.MAXIMUM_TICK_RATE)
+			throw new IllegalArgumentException();
+		
+		this.pooled = pooled;
+		bombInitialNumberOfStepsUntilDestruction = numberOfSteps(BOMB_FUSE_TIME, tickRate);
+		explosionInitialNumberOfStepsUntilDestruction = numberOfSteps(EXPLOSION_TIME, tickRate);
+		numberOfStepsUntilRespawn = numberOfSteps(RESPAWN_TIME, tickRate);
+	}
 	
 	/**
 	 * {@inheritDoc}
@@ -38,16 +113,17 @@ public class GameObjectFactory implements IGameObjectFactory
 	{
 		// create the behaviors
 		IMobilityBehavior mobilityBehavior = new MobileBehavior();
-		ISolidityBehavior solidityBehavior = new SolidBehavior();
+		ISolidityBehavior solidityBehavior = SOLID_BEHAVIOR;
 		IDestructionBehavior destructibleBehavior = new DestructibleBehavior(
-				NUMBER_OF_STEPS_UNTIL_RESPAWN,DestructionAction.RESPAWN);
+				numberOfStepsUntilRespawn,DestructionAction.RESPAWN);
 		IScoreBehavior scoreBehavior = new ScoreBehavior();
-		IOwnershipBehavior ownershipBehavior = new UnownedBehavior();
+		IOwnershipBehavior ownershipBehavior = UNOWNED_BEHAVIOR;
 		IBombBehavior bombBehavior = new CanPlaceBombBehavior(BOMB_MAX_COUNT_NUMBER);
 		
 		// compose behaviors into game object
-		return new GameObject(GameObjectType.PLAYER, mobilityBehavior, solidityBehavior, 
-				destructibleBehavior, scoreBehavior, ownershipBehavior, bombBehavior);
+		return new GameObject(identifierAllocator.allocate(), GameObjectType.PLAYER,
+				mobilityBehavior, solidityBehavior, destructibleBehavior,
+				scoreBehavior, ownershipBehavior, bombBehavior);
 		
 	}
 	
@@ -58,15 +134,16 @@ public class GameObjectFactory implements IGameObjectFactory
 	{
 		// create the behaviors
 		IMobilityBehavior immobilityBehavior = new ImmobileBehavior();
-		ISolidityBehavior solidityBehavior = new SolidBehavior();
-		IDestructionBehavior destructibleBehavior = new IndestructibleBehavior();
-		IScoreBehavior noScoreBehavior = new NoScoreBehavior();
-		IOwnershipBehavior ownershipBehavior = new UnownedBehavior();
-		IBombBehavior bombBehavior = new CanNotPlaceBombBehavior();
+		ISolidityBehavior solidityBehavior = SOLID_BEHAVIOR;
+		IDestructionBehavior destructibleBehavior = INDESTRUCTIBLE_BEHAVIOR;
+		IScoreBehavior noScoreBehavior = NO_SCORE_BEHAVIOR;
+		IOwnershipBehavior ownershipBehavior = UNOWNED_BEHAVIOR;
+		IBombBehavior bombBehavior = CAN_NOT_PLACE_BOMB_BEHAVIOR;
 		
 		// compose behaviors into game object
-		return new GameObject(GameObjectType.UNBREAKABLE_BLOCK, immobilityBehavior, solidityBehavior, 
-				destructibleBehavior, noScoreBehavior, ownershipBehavior, bombBehavior);
+		return new GameObject(identifierAllocator.allocate(), GameObjectType.UNBREAKABLE_BLOCK,
+				immobilityBehavior, solidityBehavior, destructibleBehavior,
+				noScoreBehavior, ownershipBehavior, bombBehavior);
 	}
 	
 	/**
@@ -76,16 +153,17 @@ public class GameObjectFactory implements IGameObjectFactory
 	{
 		// create the behaviors
 		IMobilityBehavior immobilityBehavior = new ImmobileBehavior();
-		ISolidityBehavior solidityBehavior = new SolidBehavior();
+		ISolidityBehavior solidityBehavior = SOLID_BEHAVIOR;
 		IDestructionBehavior destructibleBehavior = new DestructibleBehavior(
-				NUMBER_OF_STEPS_UNTIL_RESPAWN,DestructionAction.DISAPPEAR);
-		IScoreBehavior noScoreBehavior = new NoScoreBehavior();
-		IOwnershipBehavior ownershipBehavior = new UnownedBehavior();
-		IBombBehavior bombBehavior = new CanNotPlaceBombBehavior();
+				numberOfStepsUntilRespawn,DestructionAction.DISAPPEAR);
+		IScoreBehavior noScoreBehavior = NO_SCORE_BEHAVIOR;
+		IOwnershipBehavior ownershipBehavior = UNOWNED_BEHAVIOR;
+		IBombBehavior bombBehavior = CAN_NOT_PLACE_BOMB_BEHAVIOR;
 		
 		// compose behaviors into game object
-		return new GameObject(GameObjectType.BREAKABLE_BLOCK, immobilityBehavior, solidityBehavior, 
-				destructibleBehavior, noScoreBehavior, ownershipBehavior, bombBehavior);
+		return new GameObject(identifierAllocator.allocate(), GameObjectType.BREAKABLE_BLOCK,
+				immobilityBehavior, solidityBehavior, destructibleBehavior,
+				noScoreBehavior, ownershipBehavior, bombBehavior);
 	}
 	
 	/**
@@ -97,18 +175,28 @@ public class GameObjectFactory implements IGameObjectFactory
 		{
 			throw new NullPointerException(); 
 		}
+		// recycle a released bomb
+		if (!bombPool.isEmpty())
+			return recycle(bombPool, bombInitialNumberOfStepsUntilDestruction, owner);
+		
 		// create the behaviors
-		IMobilityBehavior mobilityBehavior = new MobileBehavior();
-		ISolidityBehavior solidityBehavior = new SolidBehavior();
-		IDestructionBehavior destructibleBehavior = new TimedDestructibleBehavior(
-				BOMB_INITIAL_NUMBER_OF_STEPS_UNTIL_DESTRUCTION, DestructionAction.EXPLODE);
-		IScoreBehavior scoreBehavior = new ScoreBehavior();
-		IOwnershipBehavior ownershipBehavior = new OwnedBehavior(owner);
-		IBombBehavior bombBehavior = new CanNotPlaceBombBehavior();
+		MobileBehavior mobilityBehavior = new MobileBehavior();
+		ISolidityBehavior solidityBehavior = SOLID_BEHAVIOR;
+		TimedDestructibleBehavior destructibleBehavior = new TimedDestructibleBehavior(
+				bombInitialNumberOfStepsUntilDestruction, DestructionAction.EXPLODE);
+		ScoreBehavior scoreBehavior = new ScoreBehavior();
+		OwnedBehavior ownershipBehavior = new OwnedBehavior(owner);
+		IBombBehavior bombBehavior = CAN_NOT_PLACE_BOMB_BEHAVIOR;
 		
 		// compose behaviors into game object
-		return new GameObject(GameObjectType.BOMB, mobilityBehavior, solidityBehavior, 
-				destructibleBehavior, scoreBehavior, ownershipBehavior, bombBehavior);
+		if (pooled)
+			return new PooledGameObject(this, GameObjectType.BOMB, mobilityBehavior,
+					solidityBehavior, destructibleBehavior, scoreBehavior, ownershipBehavior,
+					bombBehavior);
+		
+		return new GameObject(identifierAllocator.allocate(), GameObjectType.BOMB,
+				mobilityBehavior, solidityBehavior, destructibleBehavior,
+				scoreBehavior, ownershipBehavior, bombBehavior);
 	}
 	
 	/**
@@ -120,17 +208,153 @@ public class GameObjectFactory implements IGameObjectFactory
 		{
 			throw new NullPointerException(); 
 		}
+		// recycle a released explosion
+		if (!explosionPool.isEmpty())
+			return recycle(explosionPool, explosionInitialNumberOfStepsUntilDestruction, owner);
+		
 		// create the behaviors
 		IMobilityBehavior immobilityBehavior = new ImmobileBehavior();
-		ISolidityBehavior unSolidityBehavior = new UnsolidBehavior();
-		IDestructionBehavior destructibleBehavior = new TimedDestructibleBehavior(
-				EXPLOSION_INITIAL_NUMBER_OF_STEPS_UNTIL_DESTRUCTION,DestructionAction.DISAPPEAR);
-		IScoreBehavior scoreBehavior = new ScoreBehavior();
-		IOwnershipBehavior ownershipBehavior = new OwnedBehavior(owner);
-		IBombBehavior bombBehavior = new CanNotPlaceBombBehavior();
+		ISolidityBehavior unSolidityBehavior = UNSOLID_BEHAVIOR;
+		TimedDestructibleBehavior destructibleBehavior = new TimedDestructibleBehavior(
+				explosionInitialNumberOfStepsUntilDestruction,DestructionAction.DISAPPEAR);
+		ScoreBehavior scoreBehavior = new ScoreBehavior();
+		OwnedBehavior ownershipBehavior = new OwnedBehavior(owner);
+		IBombBehavior bombBehavior = CAN_NOT_PLACE_BOMB_BEHAVIOR;
 		
 		// compose behaviors into game object
-		return new GameObject(GameObjectType.EXPLOSION, immobilityBehavior, unSolidityBehavior, 
-				destructibleBehavior, scoreBehavior, ownershipBehavior, bombBehavior);
+		if (pooled)
+			return new PooledGameObject(this, GameObjectType.EXPLOSION, immobilityBehavior,
+					unSolidityBehavior, destructibleBehavior, scoreBehavior, ownershipBehavior,
+					bombBehavior);
+		
+		return new GameObject(identifierAllocator.allocate(), GameObjectType.EXPLOSION,
+				immobilityBehavior, unSolidityBehavior, destructibleBehavior,
+				scoreBehavior, ownershipBehavior, bombBehavior);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	public void releaseGameObject(IGameObject gameObject)
+	{
+		if (gameObject == null)
+		{
+			throw new NullPointerException();
+		}
+		
+		// keep the released bombs and explosions of this factory for recycling
+		if (gameObject instanceof PooledGameObject
+				&& ((PooledGameObject) gameObject).factory == this)
+		{
+			PooledGameObject pooledGameObject = (PooledGameObject) gameObject;
+			
+			if (pooledGameObject.released)
+				throw new IllegalArgumentException();
+			
+			pooledGameObject.released = true;
+			
+			if (pooledGameObject.type() == GameObjectType.BOMB)
+				bombPool.add(pooledGameObject);
+			else
+				explosionPool.add(pooledGameObject);
+			
+			return;
+		}
+		
+		identifierAllocator.release(gameObject.identifier());
+	}
+	
+	/**
+	 * Returns the number of released bombs and explosions waiting to be recycled.
+	 * @return The number of released bombs and explosions waiting to be recycled.
+	 */
+	public int numberOfPooledGameObjects()
+	{
+		return bombPool.size() + explosionPool.size();
+	}
+	
+	/**
+	 * Returns the number of steps, rounded to the nearest, which last a number of milliseconds at a
+	 * tick rate.
+	 * @param milliseconds The number of milliseconds.
+	 * @param tickRate The number of steps per second.
+	 * @return The number of steps, which is at least 1.
+	 */
+	static int numberOfSteps(int milliseconds, int tickRate)
+	{
+		return Math.max(1, (milliseconds * tickRate + MILLISECONDS_PER_SECOND / 2)
+				/ MILLISECONDS_PER_SECOND);
+	}
+	
+	/**
+	 * Private helper method which takes the most recently released game object from a pool and
+	 * resets its state to that of a newly created game object.
+	 * @param pool The pool to take the game object from.
+	 * @param numberOfStepsUntilDestruction The number of steps until the game object is destroyed.
+	 * @param owner The new owner of the game object.
+	 * @return The recycled game object.
+	 */
+	private IGameObject recycle(ArrayList<PooledGameObject> pool, int numberOfStepsUntilDestruction,
+			IGameObject owner)
+	{
+		PooledGameObject gameObject = pool.remove(pool.size() - 1);
+		
+		if (gameObject.mobilityBehavior instanceof MobileBehavior)
+			((MobileBehavior) gameObject.mobilityBehavior).reset();
+		else
+			gameObject.mobilityBehavior.removeFromBoard();
+		
+		gameObject.destructionBehavior.resetNumberOfStepsUntilDestruction(
+				numberOfStepsUntilDestruction);
+		gameObject.scoreBehavior.resetScore();
+		gameObject.ownershipBehavior.setOwner(owner);
+		gameObject.released = false;
+		return gameObject;
+	}
+	
+	/**
+	 * A game object created by a pooled factory, which keeps the behaviors it resets when it is
+	 * recycled.
+	 */
+	private static class PooledGameObject extends GameObject
+	{
+		// the factory which created the game object
+		private final GameObjectFactory factory;
+		
+		// the behaviors which hold the state of the game object
+		private final IMobilityBehavior mobilityBehavior;
+		private final TimedDestructibleBehavior destructionBehavior;
+		private final ScoreBehavior scoreBehavior;
+		private final OwnedBehavior ownershipBehavior;
+		
+		// true if the game object has been released and is waiting to be recycled
+		private boolean released;
+		
+		/**
+		 * Creates a new PooledGameObject with an identifier allocated by the provided factory.
+		 * @param factory The factory which creates the game object.
+		 * @param type The game object type.
+		 * @param mobilityBehavior The mobility behavior.
+		 * @param solidityBehavior The solidity behavior.
+		 * @param destructionBehavior The destruction behavior.
+		 * @param scoreBehavior The score behavior.
+		 * @param ownershipBehavior The ownership behavior.
+		 * @param bombBehavior The bomb behavior.
+		 */
+		public PooledGameObject(GameObjectFactory factory, GameObjectType type,
+				IMobilityBehavior mobilityBehavior, ISolidityBehavior solidityBehavior,
+				TimedDestructibleBehavior destructionBehavior, ScoreBehavior scoreBehavior,
+				OwnedBehavior ownershipBehavior, IBombBehavior bombBehavior)
+		{
+			super(factory.identifierAllocator.allocate(), type, mobilityBehavior, solidityBehavior,
+					destructionBehavior, scoreBehavior, ownershipBehavior, bombBehavior);
+			
+			this.factory = factory;
+			this.mobilityBehavior = mobilityBehavior;
+			this.destructionBehavior = destructionBehavior;
+			this.scoreBehavior = scoreBehavior;
+			this.ownershipBehavior = ownershipBehavior;
+			released = false;
+		}
 	}
 }
@@ -26,6 +26,8 @@ import server.model.behaviors.ScoreBehavior;
 import server.model.behaviors.SolidBehavior;
 import server.model.behaviors.UnownedBehavior;
 import server.model.behaviors.UnsolidBehavior;
+import shared.model.Direction;
+import shared.model.GameConfiguration;
 import shared.model.GameObjectType;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -62,7 +64,7 @@ public class GameObjectFactoryTest
 		IScoreBehavior scoreBehavior = new ScoreBehavior();
 		IOwnershipBehavior ownershipBehavior = new UnownedBehavior();
 		IBombBehavior bombBehavior = new CanPlaceBombBehavior(3);
-		GameObject testGameObject = new GameObject(GameObjectType.PLAYER, mobilityBehavior, solidityBehavior, 
+		GameObject testGameObject = new GameObject(0, GameObjectType.PLAYER, mobilityBehavior, solidityBehavior, 
 				destructibleBehavior, scoreBehavior, ownershipBehavior, bombBehavior);
 		
 		
@@ -90,7 +92,7 @@ public class GameObjectFactoryTest
 		IScoreBehavior noScoreBehavior = new NoScoreBehavior();
 		IOwnershipBehavior ownershipBehavior = new UnownedBehavior();
 		IBombBehavior bombBehavior = new CanNotPlaceBombBehavior();
-		GameObject testGameObject = new GameObject(GameObjectType.UNBREAKABLE_BLOCK, immobilityBehavior, solidityBehavior, 
+		GameObject testGameObject = new GameObject(0, GameObjectType.UNBREAKABLE_BLOCK, immobilityBehavior, solidityBehavior, 
 				destructibleBehavior, noScoreBehavior, ownershipBehavior, bombBehavior);
 
 		assertEquals(testGameObject.canMove(), factory.createUnbreakableBlock().canMove());
@@ -118,7 +120,7 @@ public class GameObjectFactoryTest
 		IOwnershipBehavior ownershipBehavior = new UnownedBehavior();
 		IBombBehavior bombBehavior = new CanNotPlaceBombBehavior();
 		
-		GameObject testGameObject = new GameObject(GameObjectType.BREAKABLE_BLOCK, immobilityBehavior, solidityBehavior, 
+		GameObject testGameObject = new GameObject(0, GameObjectType.BREAKABLE_BLOCK, immobilityBehavior, solidityBehavior, 
 				destructibleBehavior, noScoreBehavior, ownershipBehavior, bombBehavior);
 		
 		assertEquals(testGameObject.canMove(), factory.createBreakableBlock().canMove());
@@ -146,7 +148,7 @@ public class GameObjectFactoryTest
 		IScoreBehavior scoreBehavior = new ScoreBehavior();
 		IOwnershipBehavior ownershipBehavior = new OwnedBehavior(mockGameObject);
 		IBombBehavior bombBehavior = new CanNotPlaceBombBehavior();
-		GameObject testGameObject = new GameObject(GameObjectType.BOMB, mobilityBehavior, solidityBehavior, 
+		GameObject testGameObject = new GameObject(0, GameObjectType.BOMB, mobilityBehavior, solidityBehavior, 
 				destructibleBehavior, scoreBehavior, ownershipBehavior, bombBehavior);
 		
 		
@@ -179,7 +181,7 @@ public class GameObjectFactoryTest
 		IScoreBehavior scoreBehavior = new ScoreBehavior();
 		IOwnershipBehavior ownershipBehavior = new OwnedBehavior(mockGameObject);
 		IBombBehavior bombBehavior = new CanNotPlaceBombBehavior();
-		GameObject testGameObject = new GameObject(GameObjectType.EXPLOSION, immobilityBehavior, unSolidityBehavior, 
+		GameObject testGameObject = new GameObject(0, GameObjectType.EXPLOSION, immobilityBehavior, unSolidityBehavior, 
 				destructibleBehavior, scoreBehavior, ownershipBehavior, bombBehavior);
 
 		
@@ -195,6 +197,47 @@ public class GameObjectFactoryTest
 		assertEquals(testGameObject.numberOfStepsUntilDestruction(), factory.createExplosion(mockGameObject).numberOfStepsUntilDestruction());
 	}
 	
+	/**
+	 * Test if the created game objects have dense identifiers, and the identifiers of released game
+	 * objects are reused.
+	 */
+	@Test
+	public void createdIdentifiersTest()
+	{
+		IGameObject player = factory.createPlayer();
+		IGameObject bomb = factory.createBomb(player);
+		IGameObject explosion = factory.createExplosion(player);
+		
+		assertEquals(0, player.identifier());
+		assertEquals(1, bomb.identifier());
+		assertEquals(2, explosion.identifier());
+		
+		factory.releaseGameObject(bomb);
+		assertEquals(1, factory.createBreakableBlock().identifier());
+		assertEquals(3, factory.createUnbreakableBlock().identifier());
+	}
+	
+	/**
+	 * Test if releaseGameObject throws an IllegalArgumentException for a game object which is 
+	 * released twice.
+	 */
+	@Test (expected = IllegalArgumentException.class)
+	public void releaseGameObjectTwiceTest()
+	{
+		IGameObject player = factory.createPlayer();
+		factory.releaseGameObject(player);
+		factory.releaseGameObject(player);
+	}
+	
+	/**
+	 * Test if releaseGameObject throws a NullPointerException for a null game object.
+	 */
+	@Test (expected = NullPointerException.class)
+	public void releaseGameObjectNullPointerTest()
+	{
+		factory.releaseGameObject(null);
+	}
+	
 	/**
 	 * Test the createExplosion method will throw NullPointerException correctly when the
 	 * owner is null. 
@@ -214,4 +257,163 @@ public class GameObjectFactoryTest
 	{
 		factory.createBomb(null);
 	}
+	
+	/**
+	 * Test if a pooled factory recycles a released bomb with the state of a new bomb.
+	 */
+	@Test
+	public void pooledBombRecycledTest()
+	{
+		factory = new GameObjectFactory(true);
+		IGameObject player = factory.createPlayer();
+		IGameObject otherPlayer = factory.createPlayer();
+		IGameObject bomb = factory.createBomb(player);
+		bomb.setPosition(3, 4);
+		bomb.startMovingInDirection(Direction.LEFT);
+		bomb.decrementNumberOfStepsUntilDestruction();
+		bomb.incrementScore();
+		
+		factory.releaseGameObject(bomb);
+		assertEquals(1, factory.numberOfPooledGameObjects());
+		
+		IGameObject recycledBomb = factory.createBomb(otherPlayer);
+		assertSame(bomb, recycledBomb);
+		assertEquals(2, recycledBomb.identifier());
+		assertEquals(GameObjectType.BOMB, recycledBomb.type());
+		assertFalse(recycledBomb.onBoard());
+		assertEquals(-1, recycledBomb.row());
+		assertEquals(Direction.NONE, recycledBomb.directionToMove());
+		assertEquals(18, recycledBomb.numberOfStepsUntilDestruction());
+		assertEquals(0, recycledBomb.score());
+		assertSame(otherPlayer, recycledBomb.owner());
+		assertEquals(0, factory.numberOfPooledGameObjects());
+	}
+	
+	/**
+	 * Test if a pooled factory recycles a released explosion, and only recycles bombs as bombs and
+	 * explosions as explosions.
+	 */
+	@Test
+	public void pooledExplosionRecycledTest()
+	{
+		factory = new GameObjectFactory(true);
+		IGameObject player = factory.createPlayer();
+		IGameObject explosion = factory.createExplosion(player);
+		explosion.setPosition(1, 1);
+		explosion.decrementNumberOfStepsUntilDestruction();
+		factory.releaseGameObject(explosion);
+		
+		IGameObject bomb = factory.createBomb(player);
+		assertNotSame(explosion, bomb);
+		assertEquals(GameObjectType.BOMB, bomb.type());
+		
+		IGameObject recycledExplosion = factory.createExplosion(player);
+		assertSame(explosion, recycledExplosion);
+		assertFalse(recycledExplosion.onBoard());
+		assertEquals(5, recycledExplosion.numberOfStepsUntilDestruction());
+	}
+	
+	/**
+	 * Test if a pooled factory releases the identifiers of the game objects it does not recycle.
+	 */
+	@Test
+	public void pooledFactoryReleasesPlayersTest()
+	{
+		factory = new GameObjectFactory(true);
+		IGameObject player = factory.createPlayer();
+		factory.releaseGameObject(player);
+		
+		assertEquals(0, factory.numberOfPooledGameObjects());
+		assertEquals(0, factory.createBreakableBlock().identifier());
+	}
+	
+	/**
+	 * Test if a factory which is not pooled does not recycle released bombs.
+	 */
+	@Test
+	public void unpooledBombNotRecycledTest()
+	{
+		IGameObject player = factory.createPlayer();
+		IGameObject bomb = factory.createBomb(player);
+		factory.releaseGameObject(bomb);
+		
+		assertEquals(0, factory.numberOfPooledGameObjects());
+		assertNotSame(bomb, factory.createBomb(player));
+	}
+	
+	/**
+	 * Test if a pooled factory throws an IllegalArgumentException for a bomb which is released twice.
+	 */
+	@Test (expected = IllegalArgumentException.class)
+	public void pooledReleaseTwiceTest()
+	{
+		factory = new GameObjectFactory(true);
+		IGameObject bomb = factory.createBomb(factory.createPlayer());
+		factory.releaseGameObject(bomb);
+		factory.releaseGameObject(bomb);
+	}
+	
+	/**
+	 * Test if a pooled factory throws an IllegalArgumentException for a bomb created by another
+	 * factory.
+	 */
+	@Test (expected = IllegalArgumentException.class)
+	public void pooledReleaseForeignBombTest()
+	{
+		factory = new GameObjectFactory(true);
+		GameObjectFactory otherFactory = new GameObjectFactory(true);
+		otherFactory.createPlayer();
+		factory.releaseGameObject(otherFactory.createBomb(otherFactory.createPlayer()));
+	}
+	
+	/**
+	 * Test if the fuse of a bomb, new or recycled, and the lifetime of an explosion last as many
+	 * milliseconds at the lowest and the highest tick rate.
+	 */
+	@Test
+	public void lifetimesSameAtEveryTickRateTest()
+	{
+		int[] tickRates = { GameConfiguration.MINIMUM_TICK_RATE, GameConfiguration.MAXIMUM_TICK_RATE };
+		int[] bombTimes = new int[tickRates.length];
+		int[] recycledBombTimes = new int[tickRates.length];
+		int[] explosionTimes = new int[tickRates.length];
+		
+		for (int i = 0; i < tickRates.length; i++)
+		{
+			factory = new GameObjectFactory(true, tickRates[i]);
+			IGameObject player = factory.createPlayer();
+			IGameObject bomb = factory.createBomb(player);
+			bombTimes[i] = bomb.numberOfStepsUntilDestruction() * 1000 / tickRates[i];
+			explosionTimes[i] = factory.createExplosion(player).numberOfStepsUntilDestruction()
+					* 1000 / tickRates[i];
+			
+			bomb.decrementNumberOfStepsUntilDestruction();
+			factory.releaseGameObject(bomb);
+			recycledBombTimes[i] = factory.createBomb(player).numberOfStepsUntilDestruction()
+					* 1000 / tickRates[i];
+		}
+		
+		assertEquals(bombTimes[0], bombTimes[1]);
+		assertEquals(bombTimes[0], recycledBombTimes[0]);
+		assertEquals(bombTimes[0], recycledBombTimes[1]);
+		assertEquals(explosionTimes[0], explosionTimes[1]);
+	}
+	
+	/**
+	 * Test if the constructor throws an IllegalArgumentException for a tick rate above the maximum.
+	 */
+	@Test (expected = IllegalArgumentException.class)
+	public void tickRateTooHighTest()
+	{
+		new GameObjectFactory(false, GameConfiguration.MAXIMUM_TICK_RATE + 1);
+	}
+	
+	/**
+	 * Test if the constructor throws an IllegalArgumentException for a tick rate below the minimum.
+	 */
+	@Test (expected = IllegalArgumentException.class)
+	public void tickRateTooLowTest()
+	{
+		new GameObjectFactory(false, GameConfiguration.MINIMUM_TICK_RATE - 1);
+	}
 }
@@ -49,7 +49,7 @@ public class GameObjectTest
 		mockBombBehavior = mock(IBombBehavior.class);
 		
 		// set up the test game object
-		testGameObject = new GameObject(GameObjectType.BOMB, mockMobilityBehavior, mockSolidityBehavior,
+		testGameObject = new GameObject(0, GameObjectType.BOMB, mockMobilityBehavior, mockSolidityBehavior,
 				mockDestructionBehavior, mockScoreBehavior, mockOwnershipBehavior, mockBombBehavior);
 	}
 	
@@ -60,7 +60,7 @@ public class GameObjectTest
 	@Test(expected=NullPointerException.class)
 	public void testConstructorGameObjectTypeNull()
 	{
-		new GameObject(null, mockMobilityBehavior, mockSolidityBehavior,
+		new GameObject(0, null, mockMobilityBehavior, mockSolidityBehavior,
 			mockDestructionBehavior, mockScoreBehavior, mockOwnershipBehavior, mockBombBehavior);
 	}
 	
@@ -71,7 +71,7 @@ public class GameObjectTest
 	@Test(expected=NullPointerException.class)
 	public void testConstructorMobilityBehaviorNull()
 	{
-		new GameObject(GameObjectType.BOMB, null, mockSolidityBehavior,
+		new GameObject(0, GameObjectType.BOMB, null, mockSolidityBehavior,
 				mockDestructionBehavior, mockScoreBehavior, mockOwnershipBehavior, mockBombBehavior);
 	}
 	
@@ -82,7 +82,7 @@ public class GameObjectTest
 	@Test(expected=NullPointerException.class)
 	public void testConstructorSolidityBehaviorNull()
 	{
-		new GameObject(GameObjectType.BOMB, mockMobilityBehavior, null,
+		new GameObject(0, GameObjectType.BOMB, mockMobilityBehavior, null,
 				mockDestructionBehavior, mockScoreBehavior, mockOwnershipBehavior, mockBombBehavior);
 	}
 	
@@ -93,7 +93,7 @@ public class GameObjectTest
 	@Test(expected=NullPointerException.class)
 	public void testConstructorOwnershipBehaviorNull()
 	{
-		new GameObject(GameObjectType.BOMB, mockMobilityBehavior, mockSolidityBehavior,
+		new GameObject(0, GameObjectType.BOMB, mockMobilityBehavior, mockSolidityBehavior,
 				null, mockScoreBehavior, mockOwnershipBehavior, mockBombBehavior);
 	}
 	
@@ -104,7 +104,7 @@ public class GameObjectTest
 	@Test(expected=NullPointerException.class)
 	public void testConstructorScoreBehaviorNull()
 	{
-		new GameObject(GameObjectType.BOMB, mockMobilityBehavior, mockSolidityBehavior,
+		new GameObject(0, GameObjectType.BOMB, mockMobilityBehavior, mockSolidityBehavior,
 				mockDestructionBehavior, null, mockOwnershipBehavior, mockBombBehavior);
 	}
 	
@@ -115,7 +115,7 @@ public class GameObjectTest
 	@Test(expected=NullPointerException.class)
 	public void testConstructorDestructionBehaviorNull()
 	{
-		new GameObject(GameObjectType.BOMB, mockMobilityBehavior, mockSolidityBehavior,
+		new GameObject(0, GameObjectType.BOMB, mockMobilityBehavior, mockSolidityBehavior,
 				mockDestructionBehavior, mockScoreBehavior, null, mockBombBehavior);
 	}
 	
@@ -125,7 +125,7 @@ public class GameObjectTest
 	@Test(expected=NullPointerException.class)
 	public void testConstructorBombBehaviorNull()
 	{
-		new GameObject(GameObjectType.BOMB, mockMobilityBehavior, mockSolidityBehavior,
+		new GameObject(0, GameObjectType.BOMB, mockMobilityBehavior, mockSolidityBehavior,
 				mockDestructionBehavior, mockScoreBehavior, mockOwnershipBehavior, null);
 	}
 	
@@ -136,31 +136,34 @@ public class GameObjectTest
 	public void testGameObjectType()
 	{
 		assertEquals(GameObjectType.BOMB, testGameObject.type());
-		testGameObject = new GameObject(GameObjectType.PLAYER, mockMobilityBehavior, 
+		testGameObject = new GameObject(0, GameObjectType.PLAYER, mockMobilityBehavior, 
 				mockSolidityBehavior, mockDestructionBehavior, mockScoreBehavior, mockOwnershipBehavior,
 				mockBombBehavior);
 		assertEquals(GameObjectType.PLAYER, testGameObject.type());
 	}
 	
 	/**
-	 * Ensures the game object has a unique identifier.
+	 * Ensures the game object identifier is set to the provided identifier.
 	 */
 	@Test
 	public void testGameObjectIdentifier()
 	{
-		final IGameObject gameObject1 = new GameObject(GameObjectType.BOMB, mockMobilityBehavior, 
+		final IGameObject gameObject = new GameObject(7, GameObjectType.BOMB, mockMobilityBehavior, 
 				mockSolidityBehavior, mockDestructionBehavior, mockScoreBehavior, mockOwnershipBehavior,
 				mockBombBehavior);
-		final IGameObject gameObject2 = new GameObject(GameObjectType.BOMB, mockMobilityBehavior, 
-				mockSolidityBehavior, mockDestructionBehavior, mockScoreBehavior, mockOwnershipBehavior,
-				mockBombBehavior);
-		final IGameObject gameObject3 = new GameObject(GameObjectType.BOMB, mockMobilityBehavior, 
-				mockSolidityBehavior, mockDestructionBehavior, mockScoreBehavior, mockOwnershipBehavior, 
-				mockBombBehavior);
 
-		assertFalse(gameObject1.identifier() == gameObject2.identifier());
-		assertFalse(gameObject3.identifier() == gameObject2.identifier());
-		assertFalse(gameObject1.identifier() == gameObject3.identifier());
+		assertEquals(7, gameObject.identifier());
+	}
+	
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when a negative identifier is 
+	 * provided.
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void testConstructorIdentifierNegative()
+	{
+		new GameObject(-1, GameObjectType.BOMB, mockMobilityBehavior, mockSolidityBehavior,
+				mockDestructionBehavior, mockScoreBehavior, mockOwnershipBehavior, mockBombBehavior);
 	}
 	
 	/**
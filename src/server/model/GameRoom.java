@@ -0,0 +1,334 @@
+package server.model;
+
+import shared.core.ICommand;
+import shared.model.GameConfiguration;
+import shared.model.communication.CommunicationException;
+import shared.model.communication.GameMessage;
+import shared.model.communication.HelloMessage;
+import shared.model.communication.IServerCommunicator;
+
+/**
+ * A room hosting one game for the clients which joined it, which is stepped by a GameLoop on a
+ * TickScheduler shared with other rooms.  While it waits for its game to start, the room tells its
+ * clients how many players have joined, the way GameHostingController does.  Once started, it steps
+ * the game until no steps remain and then closes.  A tick which throws an exception fails the room
+ * and closes it, without affecting the other rooms sharing the scheduler.
+ * <p>
+ * A running room whose players have not pressed or released a key for SPECTATOR_TIME seconds of
+ * game time only has spectators, and its game may be throttled to shed load.
+ */
+public class GameRoom
+{
+	/**
+	 * The number of seconds of game time without a key message after which a room only has
+	 * spectators.
+	 */
+	public static final int SPECTATOR_TIME = 10;
+
+	/**
+	 * The states of a room.
+	 */
+	public static enum State
+	{
+		/**
+		 * The room waits for players to join before its game starts.
+		 */
+		WAITING,
+
+		/**
+		 * The game of the room is running.
+		 */
+		RUNNING,
+
+		/**
+		 * The game of the room has ended, or the room was closed.
+		 */
+		FINISHED,
+
+		/**
+		 * The room was closed because its game failed.
+		 */
+		FAILED
+	}
+
+	// the number of the room
+	private final int number;
+
+	// the communicator of the clients which joined the room
+	private final IServerCommunicator serverCommunicator;
+
+	// the settings of the game
+	private final GameConfiguration configuration;
+
+	// the state of the room
+	private volatile State state;
+
+	// the game, or null if it has not started
+	private Game game;
+
+	// the loop stepping the game, or null if it has not started
+	private GameLoop gameLoop;
+
+	// the number of players last told to the waiting clients
+	private int connectedPlayers;
+
+	// the number of key messages the game had received at the last tick
+	private long numberOfKeyMessages;
+
+	// the number of ticks since the game last received a key message
+	private volatile int numberOfTicksWithoutInput;
+
+	// the exception which failed the room, or null if it has not failed
+	private volatile Throwable failure;
+
+	/**
+	 * Command run by the game loop on each tick to step through the game, and to close the room once
+	 * no steps remain or a step fails.
+	 */
+	private class RoomTickCommand implements ICommand
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		public void execute()
+		{
+			try
+			{
+				tick();
+			}
+			catch (CommunicationException exception)
+			{
+				fail(exception);
+			}
+			catch (RuntimeException exception)
+			{
+				fail(exception);
+			}
+		}
+	}
+
+	/**
+	 * Creates a new GameRoom waiting for players.
+	 * @param number The number of the room.
+	 * @param serverCommunicator The communicator of the clients which joined the room.
+	 * @param configuration The settings of the game.
+	 * @throws NullPointerException Thrown if serverCommunicator or configuration is null.
+	 */
+	public GameRoom(int number, IServerCommunicator serverCommunicator,
+			GameConfiguration configuration)
+	{
+		if (serverCommunicator == null || configuration == null)
+			throw new NullPointerException();
+
+		this.number = number;
+		this.serverCommunicator = serverCommunicator;
+		this.configuration = configuration;
+		state = State.WAITING;
+	}
+
+	/**
+	 * Returns the number of the room.
+	 * @return The number of the room.
+	 */
+	public int number()
+	{
+		return number;
+	}
+
+	/**
+	 * Returns the state of the room.
+	 * @return The state of the room.
+	 */
+	public State state()
+	{
+		return state;
+	}
+
+	/**
+	 * Returns the communicator of the clients which joined the room.
+	 * @return The server communicator.
+	 */
+	public IServerCommunicator serverCommunicator()
+	{
+		return serverCommunicator;
+	}
+
+	/**
+	 * Returns the loop stepping the game of the room.
+	 * @return The game loop, or null if the game has not started.
+	 */
+	public synchronized GameLoop gameLoop()
+	{
+		return gameLoop;
+	}
+
+	/**
+	 * Returns the fraction of the ticks of the game which finished after the next tick was due.
+	 * @return The deadline miss rate, which is 0 if the game has not started.
+	 */
+	public synchronized double deadlineMissRate()
+	{
+		return gameLoop == null ? 0 : gameLoop.deadlineMissRate();
+	}
+
+	/**
+	 * Returns true if the game is running and none of its players has pressed or released a key for
+	 * SPECTATOR_TIME seconds of game time.
+	 * @return True if the room only has spectators and false otherwise.
+	 */
+	public boolean spectatorOnly()
+	{
+		return state == State.RUNNING
+				&& numberOfTicksWithoutInput >= SPECTATOR_TIME * configuration.tickRate();
+	}
+
+	/**
+	 * Throttles the game to tick a number of times slower than its tick rate, or restores its tick
+	 * rate.  Nothing is throttled before the game has started.
+	 * @param factor The number of times slower the game ticks, or 1 to tick at the tick rate.
+	 * @throws IllegalArgumentException Thrown if the factor is less than 1.
+	 */
+	public synchronized void throttle(int factor)
+	{
+		if (factor < 1)
+			throw new IllegalArgumentException();
+
+		if (gameLoop != null)
+			gameLoop.throttle(factor);
+	}
+
+	/**
+	 * Returns the exception which failed the room.
+	 * @return The exception, or null if the room has not failed.
+	 */
+	public Throwable failure()
+	{
+		return failure;
+	}
+
+	/**
+	 * Tells the waiting clients how many players have joined when it has changed, and otherwise
+	 * checks their connections.  Nothing is sent once the game has started.
+	 * @throws CommunicationException Thrown if an error occurs while communicating with the clients.
+	 */
+	public synchronized void pollPlayers() throws CommunicationException
+	{
+		if (state != State.WAITING)
+			return;
+
+		int numberOfPlayers = serverCommunicator.numberOfConnectedCommunicators();
+
+		if (numberOfPlayers != connectedPlayers)
+		{
+			connectedPlayers = numberOfPlayers;
+			serverCommunicator.sendMessages(new GameMessage(GameMessage.Action.WAITING,
+					connectedPlayers));
+		}
+		else
+			serverCommunicator.sendMessages(new HelloMessage());
+	}
+
+	/**
+	 * Stops clients from joining the room, starts its game and steps the game on a scheduler at the
+	 * tick rate of the configuration.
+	 * @param scheduler The scheduler stepping the game.
+	 * @throws NullPointerException Thrown if the scheduler is null.
+	 * @throws IllegalStateException Thrown if the room is not waiting for players, or if no player
+	 * or more than the maximum number of players have joined.
+	 * @throws CommunicationException Thrown if an error occurs while communicating with the clients.
+	 */
+	public synchronized void start(TickScheduler scheduler) throws CommunicationException
+	{
+		if (scheduler == null)
+			throw new NullPointerException();
+
+		int numberOfPlayers = serverCommunicator.numberOfConnectedCommunicators();
+
+		if (state != State.WAITING || numberOfPlayers == 0
+				|| numberOfPlayers > configuration.maximumNumberOfPlayers())
+			throw new IllegalStateException();
+
+		if (serverCommunicator.listening())
+			serverCommunicator.stopListening();
+
+		game = new Game(serverCommunicator,
+				new GameObjectFactory(true, configuration.tickRate()), configuration);
+		connectedPlayers = numberOfPlayers;
+		state = State.RUNNING;
+
+		gameLoop = new GameLoop(new RoomTickCommand(), configuration.tickRate());
+		gameLoop.start(scheduler);
+	}
+
+	/**
+	 * Closes the room and disconnects its clients, stopping its game if it is running.  The room
+	 * finishes unless it has failed.
+	 */
+	public void close()
+	{
+		GameLoop currentGameLoop;
+
+		synchronized (this)
+		{
+			currentGameLoop = gameLoop;
+
+			if (state == State.WAITING || state == State.RUNNING)
+				state = State.FINISHED;
+		}
+
+		// the loop is stopped without holding the lock, which the running tick may need
+		if (currentGameLoop != null)
+			currentGameLoop.stop();
+
+		try
+		{
+			serverCommunicator.disconnect();
+		}
+		catch (CommunicationException exception)
+		{
+			// the room is closed either way
+		}
+	}
+
+	/**
+	 * Steps the game, or tells the clients the game has ended and closes the room once no steps
+	 * remain.  This method is run by the game loop on each tick.
+	 * @throws CommunicationException Thrown if an error occurs while communicating with the clients.
+	 */
+	synchronized void tick() throws CommunicationException
+	{
+		if (state != State.RUNNING)
+			return;
+
+		if (!game.tick(connectedPlayers))
+		{
+			close();
+			return;
+		}
+
+		// count the ticks since the players last sent a key message
+		if (game.numberOfKeyMessages() == numberOfKeyMessages)
+			numberOfTicksWithoutInput++;
+		else
+		{
+			numberOfKeyMessages = game.numberOfKeyMessages();
+			numberOfTicksWithoutInput = 0;
+		}
+	}
+
+	/**
+	 * Private helper method which fails the room because of an exception thrown by a tick, and
+	 * closes it.
+	 * @param exception The exception.
+	 */
+	private void fail(Exception exception)
+	{
+		synchronized (this)
+		{
+			failure = exception;
+			state = State.FAILED;
+		}
+
+		close();
+	}
+}
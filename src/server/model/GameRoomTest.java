@@ -0,0 +1,288 @@
+package server.model;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import shared.model.GameConfiguration;
+import shared.model.Key;
+import shared.model.KeyAction;
+import shared.model.communication.CommunicationException;
+import shared.model.communication.GameMessage;
+import shared.model.communication.HelloMessage;
+import shared.model.communication.IMessage;
+import shared.model.communication.IMessageGenerator;
+import shared.model.communication.IServerCommunicator;
+import shared.model.communication.KeyMessage;
+import shared.model.communication.PlayerGameObjectIdentifierMessage;
+
+/**
+ * A test class for the GameRoom class.  The games of the rooms are stepped by a real scheduler,
+ * so the tests wait for their ticks before asserting.
+ */
+public class GameRoomTest
+{
+	// the longest time a test waits for the ticks of a room in milliseconds
+	private static final int WAIT_TIMEOUT = 5000;
+
+	// the mock communicator of the clients of the room
+	private IServerCommunicator mockServerCommunicator;
+
+	// the scheduler stepping the game of the room
+	private TickScheduler scheduler;
+
+	// the test room
+	private GameRoom room;
+
+	/**
+	 * Sets up the test with a room which two players have joined.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Before
+	public void setUp() throws CommunicationException
+	{
+		mockServerCommunicator = mock(IServerCommunicator.class);
+		when(mockServerCommunicator.numberOfConnectedCommunicators()).thenReturn(2);
+		when(mockServerCommunicator.listening()).thenReturn(true, false);
+		when(mockServerCommunicator.receivedMessages()).thenReturn(new IMessage[0]);
+
+		scheduler = new TickScheduler(1);
+		room = new GameRoom(3, mockServerCommunicator, new GameConfiguration());
+	}
+
+	/**
+	 * Closes the room and shuts the scheduler down.
+	 */
+	@After
+	public void tearDown()
+	{
+		room.close();
+		scheduler.shutdown();
+	}
+
+	/**
+	 * Ensures the constructor throws a NullPointerException when the communicator is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorNullCommunicator()
+	{
+		new GameRoom(3, null, new GameConfiguration());
+	}
+
+	/**
+	 * Ensures the constructor throws a NullPointerException when the configuration is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorNullConfiguration()
+	{
+		new GameRoom(3, mockServerCommunicator, null);
+	}
+
+	/**
+	 * Ensures a new room waits for players.
+	 */
+	@Test
+	public void sanityCheck()
+	{
+		assertEquals(3, room.number());
+		assertEquals(GameRoom.State.WAITING, room.state());
+		assertSame(mockServerCommunicator, room.serverCommunicator());
+		assertNull(room.gameLoop());
+		assertNull(room.failure());
+	}
+
+	/**
+	 * Ensures the waiting clients are told the number of players when it changes, and are
+	 * otherwise sent hello messages.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testPollPlayers() throws CommunicationException
+	{
+		room.pollPlayers();
+		room.pollPlayers();
+
+		ArgumentCaptor<IMessage> argumentCaptor = ArgumentCaptor.forClass(IMessage.class);
+		verify(mockServerCommunicator, times(2)).sendMessages(argumentCaptor.capture());
+		assertEquals("GAME WAITING 2", argumentCaptor.getAllValues().get(0).toString());
+		assertTrue(argumentCaptor.getAllValues().get(1) instanceof HelloMessage);
+	}
+
+	/**
+	 * Ensures a game can not be started without players.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testStartWithoutPlayers() throws CommunicationException
+	{
+		when(mockServerCommunicator.numberOfConnectedCommunicators()).thenReturn(0);
+		room.start(scheduler);
+	}
+
+	/**
+	 * Ensures a game can not be started with more than the maximum number of players.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testStartWithTooManyPlayers() throws CommunicationException
+	{
+		when(mockServerCommunicator.numberOfConnectedCommunicators()).thenReturn(
+				new GameConfiguration().maximumNumberOfPlayers() + 1);
+		room.start(scheduler);
+	}
+
+	/**
+	 * Ensures a started room stops clients from joining and steps its game until it is closed.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testStartAndClose() throws Exception
+	{
+		room.start(scheduler);
+
+		verify(mockServerCommunicator).stopListening();
+		verify(mockServerCommunicator).sendMessages(any(GameMessage.class));
+		assertEquals(GameRoom.State.RUNNING, room.state());
+		waitForTicks(2);
+
+		room.close();
+
+		assertEquals(GameRoom.State.FINISHED, room.state());
+		assertFalse(room.gameLoop().running());
+		verify(mockServerCommunicator).disconnect();
+	}
+
+	/**
+	 * Ensures a room which is not waiting can not be started.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testStartTwice() throws CommunicationException
+	{
+		room.start(scheduler);
+		room.start(scheduler);
+	}
+
+	/**
+	 * Ensures a tick which throws an exception fails the room and closes it, without shutting the
+	 * scheduler down.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testTickFails() throws Exception
+	{
+		RuntimeException exception = new IllegalStateException();
+
+		// the mock is stubbed before the workers step the game, since stubbing is not thread safe
+		when(mockServerCommunicator.receivedMessages()).thenThrow(exception);
+		room.start(scheduler);
+
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+
+		while (room.state() != GameRoom.State.FAILED && System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+
+		assertEquals(GameRoom.State.FAILED, room.state());
+		assertSame(exception, room.failure());
+
+		// the room fails before it is closed, which stops its loop and then disconnects its clients
+		verify(mockServerCommunicator, timeout(WAIT_TIMEOUT)).disconnect();
+		assertFalse(room.gameLoop().running());
+		assertFalse(scheduler.isShutdown());
+	}
+
+	/**
+	 * Ensures a room only has spectators once its players have sent no key message for
+	 * SPECTATOR_TIME seconds of game time, and has players again as soon as one is sent.  The game
+	 * is started on a scheduler which never runs it, and ticked by the test.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testSpectatorOnly() throws CommunicationException
+	{
+		TickScheduler idleScheduler = new TickScheduler(1)
+		{
+			@Override
+			public synchronized void schedule(Runnable runnable, long delay, long relativeDeadline)
+			{
+				// the game is only ticked by the test
+			}
+		};
+
+		// the mock communicator connects a single player
+		final int[] playerIdentifier = new int[1];
+		when(mockServerCommunicator.numberOfConnectedCommunicators()).thenReturn(1);
+		doAnswer(new Answer<Object>()
+		{
+			public Object answer(InvocationOnMock invocation)
+			{
+				IMessageGenerator generator = (IMessageGenerator) invocation.getArguments()[0];
+				playerIdentifier[0] = ((PlayerGameObjectIdentifierMessage) generator
+						.generateMessage()).gameObjectIdentifier();
+				return null;
+			}
+		}).when(mockServerCommunicator).sendUniqueMessageToEachConnectedCommunicator(
+				any(IMessageGenerator.class));
+
+		assertFalse(room.spectatorOnly());
+		room.start(idleScheduler);
+		idleScheduler.shutdown();
+
+		int idleTicks = GameRoom.SPECTATOR_TIME * new GameConfiguration().tickRate();
+
+		for (int i = 1; i < idleTicks; i++)
+			room.tick();
+
+		assertFalse(room.spectatorOnly());
+		room.tick();
+		assertTrue(room.spectatorOnly());
+
+		when(mockServerCommunicator.receivedMessages()).thenReturn(
+				new IMessage[] { new KeyMessage(playerIdentifier[0], Key.UP, KeyAction.PRESS) }, new IMessage[0]);
+		room.tick();
+		assertFalse(room.spectatorOnly());
+	}
+
+	/**
+	 * Ensures the game of a room can be throttled once it has started, and reports its deadline
+	 * miss rate.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testThrottle() throws Exception
+	{
+		room.throttle(2);
+		assertEquals(0, room.deadlineMissRate(), 0);
+
+		room.start(scheduler);
+		room.throttle(2);
+		assertTrue(room.gameLoop().throttled());
+		room.throttle(1);
+		assertFalse(room.gameLoop().throttled());
+
+		waitForTicks(2);
+		assertEquals(room.gameLoop().deadlineMissRate(), room.deadlineMissRate(), 0);
+	}
+
+	/**
+	 * Helper method which waits until the game loop of the room has run a number of ticks.
+	 * @param numberOfTicks The number of ticks.
+	 * @throws InterruptedException This should not happen.
+	 */
+	private void waitForTicks(int numberOfTicks) throws InterruptedException
+	{
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+
+		while (room.gameLoop().numberOfTicks() < numberOfTicks
+				&& System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+
+		assertTrue(room.gameLoop().numberOfTicks() >= numberOfTicks);
+	}
+}
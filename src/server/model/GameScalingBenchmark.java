@@ -0,0 +1,95 @@
+package server.model;
+
+import shared.model.GameConfiguration;
+import shared.model.communication.CommunicationException;
+
+/**
+ * Measures how the cost of setting up a game and of a game step grows with the size of the board.
+ * Every match is played to the end by four players pressing and depressing random keys on boards
+ * from the default size up to 201 by 201 spaces, and the benchmark prints the average time of the
+ * set up, of a step and of a step per thousand spaces.  This class is a development tool and is not
+ * used by the game.
+ */
+public class GameScalingBenchmark
+{
+	// the measured board sizes, as pairs of rows and columns
+	private static final int[][] BOARD_SIZES = { { 17, 23 }, { 51, 51 }, { 101, 101 }, { 201, 201 } };
+
+	// the number of matches played on each board before measuring
+	private static final int WARM_UP_MATCHES = 5;
+
+	// the number of rounds in which every board is measured, so no board is always measured first
+	private static final int MEASURED_ROUNDS = 3;
+
+	// the number of matches measured on each board in each round
+	private static final int MEASURED_MATCHES = 3;
+
+	/**
+	 * Runs the benchmark and prints the results for each board size.
+	 * @param args This program ignores any command line arguments.
+	 * @throws CommunicationException This should not happen.
+	 */
+	public static void main(String[] args) throws CommunicationException
+	{
+		for (int size = 0; size < BOARD_SIZES.length; size++)
+			playMatches(size, WARM_UP_MATCHES, new long[2]);
+
+		long[][] times = new long[BOARD_SIZES.length][2];
+		long[] steps = new long[BOARD_SIZES.length];
+
+		for (int round = 0; round < MEASURED_ROUNDS; round++)
+		{
+			for (int size = 0; size < BOARD_SIZES.length; size++)
+				steps[size] += playMatches(size, MEASURED_MATCHES, times[size]);
+		}
+
+		int matches = MEASURED_ROUNDS * MEASURED_MATCHES;
+
+		for (int size = 0; size < BOARD_SIZES.length; size++)
+		{
+			int rows = BOARD_SIZES[size][0];
+			int columns = BOARD_SIZES[size][1];
+			double stepTime = times[size][1] / 1000.0 / steps[size];
+
+			System.out.printf("%dx%d: %.2f ms/set up, %.1f us/step, %.2f us/step per 1000 spaces%n",
+					rows, columns, times[size][0] / 1000000.0 / matches, stepTime,
+					stepTime * 1000 / (rows * columns));
+		}
+	}
+
+	/**
+	 * Plays matches to the end on one of the boards.
+	 * @param size The index of the board size in BOARD_SIZES.
+	 * @param numberOfMatches The number of matches to play.
+	 * @param times The time taken by the set up and by the game steps in nanoseconds, which are
+	 * added to the first and second element.
+	 * @return The number of steps played.
+	 * @throws CommunicationException This should not happen.
+	 */
+	private static long playMatches(int size, int numberOfMatches, long[] times)
+			throws CommunicationException
+	{
+		long steps = 0;
+
+		for (int i = 0; i < numberOfMatches; i++)
+		{
+			GameConfiguration configuration = new GameConfiguration(BOARD_SIZES[size][0],
+					BOARD_SIZES[size][1], GameConfiguration.DEFAULT_BREAKABLE_BLOCK_DENSITY,
+					GameConfiguration.DEFAULT_MAXIMUM_NUMBER_OF_PLAYERS);
+
+			long start = System.nanoTime();
+			Game game = new Game(new GameBenchmark.RandomKeyCommunicator(i),
+					new GameObjectFactory(true, configuration.tickRate()), configuration);
+			times[0] += System.nanoTime() - start;
+
+			steps += game.numberOfRemainingSteps();
+
+			start = System.nanoTime();
+			while (game.numberOfRemainingSteps() > 0)
+				game.step();
+			times[1] += System.nanoTime() - start;
+		}
+
+		return steps;
+	}
+}
@@ -68,7 +68,7 @@ public class GameTest {
 		PowerMockito.whenNew(Board.class).withArguments(anyInt(), anyInt()).thenReturn(mockBoard);
 		
 		// initialize a game to test
-		game = new Game(mockServerCommunicator, mockGameObjectFactory, null);
+		game = new Game(mockServerCommunicator, mockGameObjectFactory, (IGameObject[]) null);
 	}
 	
 	/**
@@ -216,6 +216,74 @@ public class GameTest {
 				argThat(new IsBreakableBlock()));
 	}
 	
+	/**
+	 * Ensures the number of breakable blocks follows the configured size and
+	 * density, and that the start message carries the size of the board.
+	 * 
+	 * @throws Exception
+	 *             This shouldn't happen.
+	 */
+	@Test
+	public void testConstructorConfiguredBoard() throws Exception {
+		
+		class IsBreakableBlock extends ArgumentMatcher<IGameObject> {
+			public boolean matches(Object gameObject) {
+				return ((IGameObject) gameObject).type() == GameObjectType.BREAKABLE_BLOCK;
+			}
+		}
+		
+		IGameObject mockBreakableBlock = createMockGameObject();
+		when(mockBreakableBlock.type()).thenReturn(GameObjectType.BREAKABLE_BLOCK);
+		when(mockGameObjectFactory.createBreakableBlock()).thenReturn(mockBreakableBlock);
+		when(mockServerCommunicator.numberOfConnectedCommunicators()).thenReturn(2);
+		
+		game = new Game(mockServerCommunicator, mockGameObjectFactory,
+				new GameConfiguration(51, 51, 0.3, 4));
+		
+		// 0.3 of the 1813 spaces which may hold a breakable block
+		verify(mockBoard, times(544)).moveGameObjectToSpace(anyInt(), anyInt(), 
+				argThat(new IsBreakableBlock()));
+		
+		final ArgumentCaptor<GameMessage> argumentCaptor = ArgumentCaptor
+				.forClass(GameMessage.class);
+		verify(mockServerCommunicator).sendMessages(argumentCaptor.capture());
+		Assert.assertEquals("GAME START 2 51 51", argumentCaptor.getValue().toString());
+	}
+	
+	/**
+	 * Ensures a game on a large board is set up on a compact board.
+	 * 
+	 * @throws Exception
+	 *             This shouldn't happen.
+	 */
+	@Test
+	public void testConstructorLargeBoard() throws Exception {
+		
+		game = new Game(mockServerCommunicator, new GameObjectFactory(),
+				new GameConfiguration(101, 101, 0.5, 4));
+		
+		PowerMockito.verifyNew(Board.class, never()).withArguments(101, 101);
+		Assert.assertEquals(101, game.configuration().numberOfRows());
+		
+		// 2801 unbreakable blocks and half of the 7388 spaces which may hold a breakable block, all
+		// created by board snapshots with far fewer messages than game objects
+		final ArgumentCaptor<IMessage[]> argumentCaptor = ArgumentCaptor.forClass(IMessage[].class);
+		verify(mockServerCommunicator).sendMessageBatch(argumentCaptor.capture());
+		int numberOfGameObjects = 0;
+		for (IMessage message : argumentCaptor.getValue()) {
+			BoardSnapshotMessage boardSnapshotMessage = (BoardSnapshotMessage) message;
+			for (int i = 0; i < boardSnapshotMessage.numberOfRuns(); i++) {
+				if (boardSnapshotMessage.runType(i) != null) {
+					numberOfGameObjects += boardSnapshotMessage.runLength(i);
+				}
+			}
+		}
+		Assert.assertEquals(2801 + 3694, numberOfGameObjects);
+		Assert.assertTrue(argumentCaptor.getValue().length < (2801 + 3694) / 10);
+		
+		game.step();
+	}
+	
 	/**
 	 * Ensures the Game calls the sendUniqueMessageToEachConnectedCommunicator.
 	 * It should send a generator which creates a
@@ -271,6 +339,7 @@ public class GameTest {
 		IMessage mockKeyMessage = createMockKeyMessage(mockPlayer1.identifier(), Key.LEFT, 
 				KeyAction.PRESS);
 		when(mockServerCommunicator.receivedMessages()).thenReturn(new IMessage[] { mockKeyMessage });
+		Assert.assertEquals(0, game.numberOfKeyMessages());
 		
 		game.step();
 		
@@ -278,6 +347,7 @@ public class GameTest {
 		verify(mockPlayer1, never()).stopMovingInDirection(any(Direction.class));
 		verify(mockPlayer2, never()).startMovingInDirection(any(Direction.class));
 		verify(mockPlayer2, never()).stopMovingInDirection(any(Direction.class));
+		Assert.assertEquals(1, game.numberOfKeyMessages());
 }
 	
 	/**
@@ -586,6 +656,38 @@ public class GameTest {
 	}
 	
 	
+	/**
+	 * Ensures a moving game object moves as many spaces per second at twice the default tick rate,
+	 * that is once every two steps.
+	 * 
+	 * @throws Exception
+	 *             this is not going to happen
+	 */
+	@Test
+	public void testGameObjectMovesPerSecondAtHigherTickRate() throws Exception {
+		
+		IGameObject mockPlayer = createMockGameObject();
+		addMobilityToMockObject(mockPlayer, Direction.LEFT);
+		when(mockPlayer.onBoard()).thenReturn(true);
+		
+		// set up the game
+		IGameObject[] gameObjects = { mockPlayer };
+		game = new Game(mockServerCommunicator, mockGameObjectFactory, new GameConfiguration()
+				.withTickRate(2 * GameConfiguration.DEFAULT_TICK_RATE), gameObjects);
+		
+		game.step();
+		
+		verify(mockBoard, never()).moveGameObjectToSpace(anyInt(), anyInt(), eq(mockPlayer));
+		
+		game.step();
+		game.step();
+		game.step();
+		
+		verify(mockBoard, times(2)).moveGameObjectToSpace(mockPlayer.row(),
+				mockPlayer.column() - 1, mockPlayer);
+	}
+	
+	
 	/**
 	 * Ensures when the game object returns a direction to move of RIGHT it is
 	 * moved left.
@@ -731,6 +833,133 @@ public class GameTest {
 				mockBomb.row(), mockBomb.column()));
 	}
 	
+	/**
+	 * Ensures the messages of a step are sent to the clients as one batch at the end of the step.
+	 * @throws CommunicationException This shouldn't happen.
+	 */
+	@Test
+	public void testStepSendsOneBatch() throws CommunicationException {
+		
+		IGameObject mockPlayer = createMockGameObject();
+		when(mockPlayer.canPlaceBomb()).thenReturn(true);
+		when(mockPlayer.placeBomb()).thenReturn(true);
+		when(mockPlayer.bombCount()).thenReturn(1);
+		when(mockPlayer.onBoard()).thenReturn(true);
+		addMobilityToMockObject(mockPlayer, Direction.DOWN);
+		IGameObject mockBomb = createMockGameObject();
+		when(mockBomb.type()).thenReturn(GameObjectType.BOMB);
+		when(mockBomb.row()).thenReturn(5);
+		when(mockBomb.column()).thenReturn(13);
+		when(mockGameObjectFactory.createBomb(any(IGameObject.class))).thenReturn(mockBomb);
+		
+		IGameObject[] gameObjects = { mockPlayer };
+		game = new Game(mockServerCommunicator, mockGameObjectFactory, gameObjects);
+		
+		game.step();
+		
+		// the player updated and the bomb created messages are sent together
+		final ArgumentCaptor<IMessage[]> argumentCaptor = ArgumentCaptor.forClass(IMessage[].class);
+		verify(mockServerCommunicator).sendMessageBatch(argumentCaptor.capture());
+		verify(mockServerCommunicator, never()).sendMessages(any(IMessage.class));
+		Assert.assertEquals(2, argumentCaptor.getValue().length);
+	}
+	
+	/**
+	 * Ensures a queued message is sent with the messages of the next step, and that an unchanged
+	 * time is not sent again.
+	 * @throws CommunicationException This shouldn't happen.
+	 */
+	@Test
+	public void testQueueMessage() throws CommunicationException {
+		
+		game = new Game(mockServerCommunicator, mockGameObjectFactory, new IGameObject[0]);
+		
+		game.queueMessage(new GameTimeMessage(180));
+		game.step();
+		verifyMessageSent(new GameTimeMessage(180));
+		
+		game.queueMessage(new GameTimeMessage(180));
+		game.step();
+		verify(mockServerCommunicator, times(1)).sendMessageBatch(any(IMessage[].class));
+	}
+	
+	/**
+	 * Ensures a tick steps the game with the remaining time while steps remain, and then stops the
+	 * game instead.
+	 * @throws CommunicationException This shouldn't happen.
+	 */
+	@Test
+	public void testTick() throws CommunicationException {
+		
+		game = new Game(mockServerCommunicator, mockGameObjectFactory, new IGameObject[0]);
+		int numberOfSteps = game.numberOfRemainingSteps();
+		
+		Assert.assertTrue(game.tick(2));
+		verifyMessageSent(new GameTimeMessage(numberOfSteps / GameConfiguration.DEFAULT_TICK_RATE));
+		Assert.assertEquals(numberOfSteps - 1, game.numberOfRemainingSteps());
+		
+		for (int i = 1; i < numberOfSteps; i++)
+			Assert.assertTrue(game.tick(2));
+		
+		verify(mockServerCommunicator, never()).sendMessages(any(IMessage.class));
+		Assert.assertFalse(game.tick(2));
+		verify(mockServerCommunicator).sendMessages(
+				argThat(new ArgumentMatcher<IMessage>() {
+					public boolean matches(Object message) {
+						return message.toString().equals(
+								new GameMessage(GameMessage.Action.STOP, 2).toString());
+					}
+				}));
+	}
+	
+	/**
+	 * Ensures a game in the snapshot replication mode sends a keyframe instead of the created
+	 * messages when it starts, and the changes from the acknowledged state once every client has
+	 * acknowledged one.
+	 * @throws CommunicationException This shouldn't happen.
+	 */
+	@Test
+	public void testSnapshotReplication() throws CommunicationException {
+		
+		// create two players
+		final int[] playerIdentifiers = new int[2];
+		doAnswer(new org.mockito.stubbing.Answer<Object>() {
+			public Object answer(org.mockito.invocation.InvocationOnMock invocation) {
+				IMessageGenerator generator = (IMessageGenerator) invocation.getArguments()[0];
+				for (int i = 0; i < playerIdentifiers.length; i++)
+					playerIdentifiers[i] = ((PlayerGameObjectIdentifierMessage) generator
+							.generateMessage()).gameObjectIdentifier();
+				return null;
+			}
+		}).when(mockServerCommunicator).sendUniqueMessageToEachConnectedCommunicator(
+				any(IMessageGenerator.class));
+		
+		when(mockBoard.spaceEmpty(anyInt(), anyInt())).thenReturn(true);
+		
+		game = new Game(mockServerCommunicator, new GameObjectFactory(),
+				new GameConfiguration().withReplicationMode(ReplicationMode.SNAPSHOTS));
+		
+		// the board is mocked, so the keyframe only holds the scores of the players
+		ArgumentCaptor<IMessage[]> argumentCaptor = ArgumentCaptor.forClass(IMessage[].class);
+		verify(mockServerCommunicator).sendMessageBatch(argumentCaptor.capture());
+		IMessage[] keyframe = argumentCaptor.getValue();
+		Assert.assertEquals("SNAPSHOT 0 -1 2", keyframe[0].toString());
+		Assert.assertEquals("SCORE_UPDATED " + playerIdentifiers[0] + " 0", keyframe[1].toString());
+		
+		when(mockServerCommunicator.receivedMessages()).thenReturn(new IMessage[] {
+				new AcknowledgementMessage(playerIdentifiers[0], 0),
+				new AcknowledgementMessage(playerIdentifiers[1], 0) });
+		game.queueMessage(new GameTimeMessage(180));
+		game.step();
+		
+		argumentCaptor = ArgumentCaptor.forClass(IMessage[].class);
+		verify(mockServerCommunicator, times(2)).sendMessageBatch(argumentCaptor.capture());
+		IMessage[] frame = argumentCaptor.getValue();
+		Assert.assertEquals(2, frame.length);
+		Assert.assertEquals("GAME_TIME 180", frame[0].toString());
+		Assert.assertEquals("SNAPSHOT 1 0 0", frame[1].toString());
+	}
+	
 	/**
 	 * test the breakable block will disappear after an explosion destroys it 
 	 * @throws CommunicationException This should not happen
@@ -750,6 +979,7 @@ public class GameTest {
 		when(mockExplosion.destructionAction()).thenReturn(DestructionAction.DISAPPEAR);
 		when(mockExplosion.row()).thenReturn(10);
 		when(mockExplosion.column()).thenReturn(10);
+		when(mockExplosion.onBoard()).thenReturn(true);
 		
 		IGameObject mockOwner=createMockGameObject();
 		when(mockExplosion.owner()).thenReturn(mockOwner);
@@ -759,10 +989,68 @@ public class GameTest {
 		game = new Game(mockServerCommunicator, mockGameObjectFactory, gameObjects);
 		game.step();
 		verify(mockBoard).removeGameObject(mockBreakableBlock);
+		// ensure the identifier of the game object is released
+		verify(mockGameObjectFactory).releaseGameObject(mockBreakableBlock);
 		// ensure a create game object message is sent for the game object
 		verifyMessageSent(new GameObjectDestroyedMessage(mockBreakableBlock.identifier()));
 	}
 	
+	/**
+	 * Ensures a game object whose destruction is timed is destroyed on the step its time runs out,
+	 * and not before.
+	 * @throws CommunicationException This should not happen
+	 */
+	@Test
+	public void testTimedDestructionAfterNumberOfSteps() throws CommunicationException
+	{
+		IGameObject mockTimedGameObject = createMockGameObject();
+		when(mockTimedGameObject.destructible()).thenReturn(true);
+		when(mockTimedGameObject.destructionTimed()).thenReturn(true);
+		when(mockTimedGameObject.numberOfStepsUntilDestruction()).thenReturn(3);
+		
+		// set up the game
+		IGameObject[] gameObjects = { mockTimedGameObject };
+		game = new Game(mockServerCommunicator, mockGameObjectFactory, gameObjects);
+		
+		game.step();
+		game.step();
+		verify(mockBoard, never()).removeGameObject(mockTimedGameObject);
+		
+		game.step();
+		verify(mockBoard).removeGameObject(mockTimedGameObject);
+		verifyMessageSent(new GameObjectDestroyedMessage(mockTimedGameObject.identifier()));
+		
+		// the game object is only destroyed once
+		game.step();
+		verify(mockBoard).removeGameObject(mockTimedGameObject);
+	}
+	
+	/**
+	 * Ensures the steps of the game do not iterate the game objects which can not move, place bombs
+	 * or respawn.
+	 * @throws CommunicationException This should not happen
+	 */
+	@Test
+	public void testStepSkipsGameObjectsWithoutRoles() throws CommunicationException
+	{
+		IGameObject mockBlock = createMockGameObject();
+		
+		// set up the game
+		IGameObject[] gameObjects = { mockBlock };
+		game = new Game(mockServerCommunicator, mockGameObjectFactory, gameObjects);
+		
+		game.step();
+		game.step();
+		game.step();
+		
+		// the roles are only checked when the game object is added to the game
+		verify(mockBlock, times(1)).canMove();
+		verify(mockBlock, times(1)).canPlaceBomb();
+		verify(mockBlock, never()).directionToMove();
+		verify(mockBlock, never()).placeBomb();
+		verify(mockBlock, never()).onBoard();
+	}
+	
 	/**
 	 * test the player checkRespawn call the decrementNumberOfStepUntilRespawn method once;
 	 * @throws CommunicationException this should not happen
@@ -795,13 +1083,14 @@ public class GameTest {
 		IGameObject mockPlayer2 = createMockGameObject();
 		when(mockPlayer2.type()).thenReturn(GameObjectType.PLAYER);
 		when(mockPlayer2.row()).thenReturn(2);
-		when(mockPlayer2.row()).thenReturn(3);
+		when(mockPlayer2.column()).thenReturn(3);
 		when(mockPlayer2.destructible()).thenReturn(true);
 		
 		IGameObject mockExplosion = createMockGameObject();
 		when(mockExplosion.type()).thenReturn(GameObjectType.EXPLOSION);
 		when(mockExplosion.row()).thenReturn(2);
-		when(mockExplosion.row()).thenReturn(3);
+		when(mockExplosion.column()).thenReturn(3);
+		when(mockExplosion.onBoard()).thenReturn(true);
 		addOwnerToMockGameObject(mockExplosion, mockPlayer1);
 		
 		// mock the game board
@@ -831,7 +1120,7 @@ public class GameTest {
 		IGameObject mockPlayer1 = createMockGameObject();
 		when(mockPlayer1.type()).thenReturn(GameObjectType.PLAYER);
 		when(mockPlayer1.row()).thenReturn(2);
-		when(mockPlayer1.row()).thenReturn(3);
+		when(mockPlayer1.column()).thenReturn(3);
 		when(mockPlayer1.destructible()).thenReturn(true);
 		
 		IGameObject mockPlayer2 = createMockGameObject();
@@ -841,7 +1130,8 @@ public class GameTest {
 		IGameObject mockExplosion = createMockGameObject();
 		when(mockExplosion.type()).thenReturn(GameObjectType.EXPLOSION);
 		when(mockExplosion.row()).thenReturn(2);
-		when(mockExplosion.row()).thenReturn(3);
+		when(mockExplosion.column()).thenReturn(3);
+		when(mockExplosion.onBoard()).thenReturn(true);
 		addOwnerToMockGameObject(mockExplosion, mockPlayer1);
 		
 		// mock the game board
@@ -874,12 +1164,13 @@ public class GameTest {
 		when(mockUnbreakableBlock.type()).thenReturn(GameObjectType.UNBREAKABLE_BLOCK);
 		when(mockUnbreakableBlock.destructible()).thenReturn(true);
 		when(mockUnbreakableBlock.row()).thenReturn(2);
-		when(mockUnbreakableBlock.row()).thenReturn(3);
+		when(mockUnbreakableBlock.column()).thenReturn(3);
 		
 		IGameObject mockExplosion = createMockGameObject();
 		when(mockExplosion.type()).thenReturn(GameObjectType.EXPLOSION);
 		when(mockExplosion.row()).thenReturn(2);
-		when(mockExplosion.row()).thenReturn(3);
+		when(mockExplosion.column()).thenReturn(3);
+		when(mockExplosion.onBoard()).thenReturn(true);
 		addOwnerToMockGameObject(mockExplosion, mockPlayer);
 		
 		// mock the game board
@@ -996,6 +1287,19 @@ public class GameTest {
 			}
 		}
 		
-		verify(mockServerCommunicator).sendMessages(argThat(new IsExpectedMessage()));
+		final ArgumentCaptor<IMessage[]> argumentCaptor = ArgumentCaptor.forClass(IMessage[].class);
+		verify(mockServerCommunicator, atLeastOnce()).sendMessageBatch(argumentCaptor.capture());
+		
+		IsExpectedMessage isExpectedMessage = new IsExpectedMessage();
+		for (IMessage[] messages : argumentCaptor.getAllValues())
+		{
+			for (IMessage sentMessage : messages)
+			{
+				if (isExpectedMessage.matches(sentMessage))
+					return;
+			}
+		}
+		
+		Assert.fail("The message " + message + " was not sent.");
 	}
 }
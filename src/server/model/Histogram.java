@@ -0,0 +1,115 @@
+package server.model;
+
+/**
+ * Counts durations in nanoseconds in buckets whose bounds are powers of two, so that recording a
+ * duration takes constant time and memory however many durations are recorded.  A duration is
+ * counted in the bucket of the number of bits it needs, and percentiles are reported as the upper
+ * bound of their bucket, which is at most twice the exact value.  A Histogram may be recorded to by
+ * one thread while other threads read it.
+ */
+public class Histogram
+{
+	// the number of buckets, one for 0 and one for each number of bits of a positive long
+	private static final int NUMBER_OF_BUCKETS = 64;
+
+	// the number of durations counted in each bucket
+	private final long[] buckets;
+
+	// the number of recorded durations
+	private long count;
+
+	// the sum of the recorded durations
+	private long total;
+
+	// the longest recorded duration
+	private long maximum;
+
+	/**
+	 * Creates an empty Histogram.
+	 */
+	public Histogram()
+	{
+		buckets = new long[NUMBER_OF_BUCKETS];
+	}
+
+	/**
+	 * Records a duration.
+	 * @param nanoseconds The duration in nanoseconds.
+	 * @throws IllegalArgumentException Thrown if the duration is negative.
+	 */
+	public synchronized void record(long nanoseconds)
+	{
+		if (nanoseconds < 0)
+			throw new IllegalArgumentException();
+
+		buckets[NUMBER_OF_BUCKETS - Long.numberOfLeadingZeros(nanoseconds)]++;
+		count++;
+		total += nanoseconds;
+		maximum = Math.max(maximum, nanoseconds);
+	}
+
+	/**
+	 * Returns the number of recorded durations.
+	 * @return The number of recorded durations.
+	 */
+	public synchronized long count()
+	{
+		return count;
+	}
+
+	/**
+	 * Returns the longest recorded duration.
+	 * @return The longest recorded duration in nanoseconds, or 0 if none has been recorded.
+	 */
+	public synchronized long maximum()
+	{
+		return maximum;
+	}
+
+	/**
+	 * Returns the mean of the recorded durations.
+	 * @return The mean in nanoseconds, or 0 if no duration has been recorded.
+	 */
+	public synchronized long mean()
+	{
+		return count == 0 ? 0 : total / count;
+	}
+
+	/**
+	 * Returns an upper bound of a percentile of the recorded durations: the upper bound of the bucket
+	 * holding the percentile, or the longest duration if it is smaller.
+	 * @param percentile The percentile, from 0 to 100.
+	 * @return The upper bound in nanoseconds, or 0 if no duration has been recorded.
+	 * @throws IllegalArgumentException Thrown if the percentile is not between 0 and 100.
+	 */
+	public synchronized long percentile(double percentile)
+	{
+		if (!(percentile >= 0 && percentile <= 100))
+			throw new IllegalArgumentException();
+
+		// the number of durations at or below the percentile, which is at least one
+		long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+		long counted = 0;
+
+		for (int bucket = 0; bucket < NUMBER_OF_BUCKETS; bucket++)
+		{
+			counted += buckets[bucket];
+
+			if (counted >= rank)
+				return Math.min(maximum, bucket == 0 ? 0 : (1L << bucket) - 1);
+		}
+
+		return maximum;
+	}
+
+	/**
+	 * Returns the number of recorded durations, their mean, median, 99th percentile and maximum.
+	 * @return The summary, with the durations in milliseconds.
+	 */
+	@Override
+	public synchronized String toString()
+	{
+		return String.format("%d, mean %.2f ms, p50 %.2f ms, p99 %.2f ms, max %.2f ms", count,
+				mean() / 1e6, percentile(50) / 1e6, percentile(99) / 1e6, maximum / 1e6);
+	}
+}
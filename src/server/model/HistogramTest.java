@@ -0,0 +1,97 @@
+package server.model;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A test class for the Histogram class.
+ */
+public class HistogramTest
+{
+	// the test histogram
+	private Histogram histogram;
+
+	/**
+	 * Set up the test.
+	 */
+	@Before
+	public void setUp()
+	{
+		histogram = new Histogram();
+	}
+
+	/**
+	 * Ensures an empty histogram reports no durations.
+	 */
+	@Test
+	public void testEmpty()
+	{
+		assertEquals(0, histogram.count());
+		assertEquals(0, histogram.maximum());
+		assertEquals(0, histogram.mean());
+		assertEquals(0, histogram.percentile(99));
+	}
+
+	/**
+	 * Ensures the count, maximum and mean of the recorded durations are exact.
+	 */
+	@Test
+	public void testRecord()
+	{
+		histogram.record(0);
+		histogram.record(100);
+		histogram.record(500);
+
+		assertEquals(3, histogram.count());
+		assertEquals(500, histogram.maximum());
+		assertEquals(200, histogram.mean());
+	}
+
+	/**
+	 * Ensures percentiles are bounded by the upper bound of their bucket and by the maximum.
+	 */
+	@Test
+	public void testPercentile()
+	{
+		for (int i = 0; i < 99; i++)
+			histogram.record(1000);
+
+		histogram.record(1000000);
+
+		// 1000 needs 10 bits, so it is counted in the bucket up to 1023
+		assertEquals(1023, histogram.percentile(50));
+		assertEquals(1023, histogram.percentile(99));
+		assertEquals(1000000, histogram.percentile(100));
+		assertEquals(1023, histogram.percentile(0));
+	}
+
+	/**
+	 * Ensures a percentile is not reported above the longest duration.
+	 */
+	@Test
+	public void testPercentileBoundedByMaximum()
+	{
+		histogram.record(600);
+		assertEquals(600, histogram.percentile(50));
+	}
+
+	/**
+	 * Ensures record throws an IllegalArgumentException for a negative duration.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testRecordNegative()
+	{
+		histogram.record(-1);
+	}
+
+	/**
+	 * Ensures percentile throws an IllegalArgumentException for a percentile above 100.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testPercentileTooLarge()
+	{
+		histogram.percentile(101);
+	}
+}
@@ -1,5 +1,6 @@
 package server.model;
 
+import shared.model.GameConfiguration;
 import shared.model.communication.CommunicationException;
 
 /**
@@ -19,4 +20,11 @@ public interface IGame
 	 * @return The number of steps remaining in the game.
 	 */
 	public int numberOfRemainingSteps();
+
+	/**
+	 * Returns the settings of the game.
+	 * 
+	 * @return The settings of the game.
+	 */
+	public GameConfiguration configuration();
 }
@@ -0,0 +1,30 @@
+package server.model;
+
+/**
+ * Follows the hosted game of a GameActor.  Every method is called on the thread ticking the actor.
+ */
+public interface IGameActorListener
+{
+	/**
+	 * Called once a game has started.
+	 */
+	public void gameStarted();
+
+	/**
+	 * Called once the game has stopped, either because it was stopped or because no steps remain.
+	 */
+	public void gameStopped();
+
+	/**
+	 * Called when a game can not start because no player or more than the maximum number of players
+	 * are connected.
+	 * @param numberOfPlayers The number of connected players.
+	 */
+	public void startRefused(int numberOfPlayers);
+
+	/**
+	 * Called when the number of players waiting for the next game changes.
+	 * @param numberOfPlayers The number of connected players.
+	 */
+	public void playersChanged(int numberOfPlayers);
+}
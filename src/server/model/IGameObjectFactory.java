@@ -1,7 +1,9 @@
 package server.model;
 
 /**
- * A factory for game objects.
+ * A factory for game objects.  The game objects created by a factory have identifiers which are
+ * unique among the game objects it has created and not yet released, so each game should use its
+ * own factory.
  */
 public interface IGameObjectFactory 
 {
@@ -38,4 +40,14 @@ public interface IGameObjectFactory
 	 * @throws NullPointerException If owner is null
 	 */
 	public IGameObject createExplosion(IGameObject owner);
+	
+	/**
+	 * Releases a game object which has been removed from its game, so that its identifier can be
+	 * reused by the next game object this factory creates.
+	 * @param gameObject The game object to release.
+	 * @throws NullPointerException If gameObject is null
+	 * @throws IllegalArgumentException If gameObject was not created by this factory or has already
+	 * been released
+	 */
+	public void releaseGameObject(IGameObject gameObject);
 }
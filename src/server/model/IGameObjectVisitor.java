@@ -0,0 +1,18 @@
+package server.model;
+
+/**
+ * Visits the game objects occupying a space of an IBoard.  This allows the board to be queried
+ * without copying the contents of the space into a new array.  It is a realization of the visitor
+ * pattern.
+ */
+public interface IGameObjectVisitor
+{
+	/**
+	 * Visits a single game object.  Visitors must not add or remove game objects from the board
+	 * while they are being visited.
+	 * @param gameObject The game object being visited.
+	 * @return True if the remaining game objects in the space should be visited and false if the
+	 * visit should stop.
+	 */
+	public boolean visitGameObject(IGameObject gameObject);
+}
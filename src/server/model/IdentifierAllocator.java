@@ -0,0 +1,113 @@
+package server.model;
+
+/**
+ * Allocates game object identifiers for a single game.  Released identifiers are kept on a free list
+ * and handed out again before new ones, so the identifiers in use stay small and dense and can be
+ * used to index arrays.
+ */
+public class IdentifierAllocator
+{
+	// the released identifiers, used as a stack
+	private int[] freeIdentifiers;
+	private int numberOfFreeIdentifiers;
+
+	// whether each identifier below the bound is allocated
+	private boolean[] allocated;
+
+	// one more than the largest identifier ever allocated
+	private int identifierBound;
+
+	/**
+	 * Creates a new IdentifierAllocator, which allocates identifiers starting from 0.
+	 */
+	public IdentifierAllocator()
+	{
+		freeIdentifiers = new int[16];
+		numberOfFreeIdentifiers = 0;
+		allocated = new boolean[16];
+		identifierBound = 0;
+	}
+
+	/**
+	 * Allocates an identifier.  The most recently released identifier is reused if there is one,
+	 * otherwise the next unused identifier is allocated.
+	 * @return The allocated identifier.
+	 */
+	public int allocate()
+	{
+		int identifier;
+
+		if (numberOfFreeIdentifiers > 0)
+		{
+			numberOfFreeIdentifiers--;
+			identifier = freeIdentifiers[numberOfFreeIdentifiers];
+		}
+		else
+		{
+			identifier = identifierBound;
+			identifierBound++;
+
+			if (identifierBound > allocated.length)
+			{
+				boolean[] newAllocated = new boolean[allocated.length * 2];
+				System.arraycopy(allocated, 0, newAllocated, 0, allocated.length);
+				allocated = newAllocated;
+			}
+		}
+
+		allocated[identifier] = true;
+		return identifier;
+	}
+
+	/**
+	 * Releases an identifier, so that it can be allocated again.
+	 * @param identifier The identifier to release.
+	 * @throws IllegalArgumentException Thrown if the identifier is not allocated.
+	 */
+	public void release(int identifier)
+	{
+		if (!allocated(identifier))
+			throw new IllegalArgumentException();
+
+		allocated[identifier] = false;
+
+		if (numberOfFreeIdentifiers == freeIdentifiers.length)
+		{
+			int[] newFreeIdentifiers = new int[freeIdentifiers.length * 2];
+			System.arraycopy(freeIdentifiers, 0, newFreeIdentifiers, 0, numberOfFreeIdentifiers);
+			freeIdentifiers = newFreeIdentifiers;
+		}
+
+		freeIdentifiers[numberOfFreeIdentifiers] = identifier;
+		numberOfFreeIdentifiers++;
+	}
+
+	/**
+	 * Returns true if the provided identifier is allocated and false otherwise.
+	 * @param identifier The identifier.
+	 * @return True if the provided identifier is allocated and false otherwise.
+	 */
+	public boolean allocated(int identifier)
+	{
+		return identifier >= 0 && identifier < identifierBound && allocated[identifier];
+	}
+
+	/**
+	 * Returns the number of allocated identifiers.
+	 * @return The number of allocated identifiers.
+	 */
+	public int numberOfAllocatedIdentifiers()
+	{
+		return identifierBound - numberOfFreeIdentifiers;
+	}
+
+	/**
+	 * Returns one more than the largest identifier ever allocated.  Every allocated identifier is less
+	 * than this bound.
+	 * @return One more than the largest identifier ever allocated.
+	 */
+	public int identifierBound()
+	{
+		return identifierBound;
+	}
+}
@@ -0,0 +1,116 @@
+package server.model;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A test class for the IdentifierAllocator class.
+ */
+public class IdentifierAllocatorTest
+{
+	// the test identifier allocator
+	private IdentifierAllocator identifierAllocator;
+
+	/**
+	 * Set up the test.
+	 */
+	@Before
+	public void setUp()
+	{
+		identifierAllocator = new IdentifierAllocator();
+	}
+
+	/**
+	 * Ensures a new allocator has not allocated any identifiers.
+	 */
+	@Test
+	public void testConstructor()
+	{
+		assertEquals(0, identifierAllocator.numberOfAllocatedIdentifiers());
+		assertEquals(0, identifierAllocator.identifierBound());
+		assertFalse(identifierAllocator.allocated(0));
+	}
+
+	/**
+	 * Ensures identifiers are allocated in order starting from 0.
+	 */
+	@Test
+	public void testAllocate()
+	{
+		for (int i = 0; i < 100; i++)
+		{
+			assertEquals(i, identifierAllocator.allocate());
+			assertTrue(identifierAllocator.allocated(i));
+		}
+
+		assertEquals(100, identifierAllocator.numberOfAllocatedIdentifiers());
+		assertEquals(100, identifierAllocator.identifierBound());
+	}
+
+	/**
+	 * Ensures released identifiers are allocated again before new identifiers.
+	 */
+	@Test
+	public void testReleasedIdentifiersAreReused()
+	{
+		for (int i = 0; i < 5; i++)
+			identifierAllocator.allocate();
+
+		identifierAllocator.release(1);
+		identifierAllocator.release(3);
+		assertFalse(identifierAllocator.allocated(1));
+		assertEquals(3, identifierAllocator.numberOfAllocatedIdentifiers());
+
+		assertEquals(3, identifierAllocator.allocate());
+		assertEquals(1, identifierAllocator.allocate());
+		assertEquals(5, identifierAllocator.allocate());
+		assertEquals(6, identifierAllocator.identifierBound());
+	}
+
+	/**
+	 * Ensures the identifiers stay dense when game objects are created and destroyed repeatedly.
+	 */
+	@Test
+	public void testIdentifiersStayDense()
+	{
+		for (int i = 0; i < 10; i++)
+			identifierAllocator.allocate();
+
+		for (int i = 0; i < 10000; i++)
+			identifierAllocator.release(identifierAllocator.allocate());
+
+		assertEquals(11, identifierAllocator.identifierBound());
+	}
+
+	/**
+	 * Ensures release throws an IllegalArgumentException for an identifier which is not allocated.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testReleaseUnallocated()
+	{
+		identifierAllocator.allocate();
+		identifierAllocator.release(1);
+	}
+
+	/**
+	 * Ensures release throws an IllegalArgumentException for an identifier released twice.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testReleaseTwice()
+	{
+		identifierAllocator.allocate();
+		identifierAllocator.release(0);
+		identifierAllocator.release(0);
+	}
+
+	/**
+	 * Ensures release throws an IllegalArgumentException for a negative identifier.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testReleaseNegative()
+	{
+		identifierAllocator.release(-1);
+	}
+}
@@ -0,0 +1,170 @@
+package server.model;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import shared.model.GameConfiguration;
+
+/**
+ * Lays out the blocks of a board.  Unbreakable blocks fill the edge of the board and every space
+ * whose row and column are both even.  Breakable blocks fill a configured fraction of the remaining
+ * spaces, except the spaces next to the corners where the players spawn, so that a player has
+ * enough space to place a bomb without getting killed.  The eligible spaces are enumerated once and
+ * shuffled, so generating a map takes time proportional to the number of spaces and always
+ * terminates.  Spaces are numbered row by row, so a space's number is row * numberOfColumns() +
+ * column.
+ */
+public class MapGenerator
+{
+	// the size of the board
+	private final int numberOfRows;
+	private final int numberOfColumns;
+
+	// the fraction of the eligible spaces which are filled with breakable blocks
+	private final double breakableBlockDensity;
+
+	// the source of the shuffles
+	private final Random random;
+
+	/**
+	 * Creates a MapGenerator for the provided configuration.  The generator is seeded with the seed
+	 * of the configuration if it has one.
+	 * @param configuration The settings of the game.
+	 * @throws NullPointerException Thrown if the configuration is null.
+	 */
+	public MapGenerator(GameConfiguration configuration)
+	{
+		this(configuration, configuration.seeded() ? new Random(configuration.seed()) : new Random());
+	}
+
+	/**
+	 * Creates a MapGenerator for the provided configuration which shuffles the spaces with the
+	 * provided random number generator.
+	 * @param configuration The settings of the game.
+	 * @param random The random number generator.
+	 * @throws NullPointerException Thrown if the configuration or random number generator is null.
+	 */
+	public MapGenerator(GameConfiguration configuration, Random random)
+	{
+		if (configuration == null || random == null)
+			throw new NullPointerException();
+
+		this.numberOfRows = configuration.numberOfRows();
+		this.numberOfColumns = configuration.numberOfColumns();
+		this.breakableBlockDensity = configuration.breakableBlockDensity();
+		this.random = random;
+	}
+
+	/**
+	 * Returns the number of columns of the board, which converts between spaces and their rows and
+	 * columns.
+	 * @return The number of columns of the board.
+	 */
+	public int numberOfColumns()
+	{
+		return numberOfColumns;
+	}
+
+	/**
+	 * Returns true if the provided space holds an unbreakable block.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @return True if the space holds an unbreakable block and false otherwise.
+	 */
+	public boolean unbreakableBlockSpace(int row, int column)
+	{
+		return row == 0 || row == numberOfRows - 1 || column == 0 || column == numberOfColumns - 1
+				|| (row % 2 == 0 && column % 2 == 0);
+	}
+
+	/**
+	 * Returns true if a breakable block may be placed in the provided space.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @return True if a breakable block may be placed in the space and false otherwise.
+	 */
+	public boolean breakableBlockSpace(int row, int column)
+	{
+		if (unbreakableBlockSpace(row, column))
+			return false;
+
+		// keep the spaces next to the spawn corners free
+		if ((row == 1 || row == numberOfRows - 2)
+				&& (column <= 2 || column >= numberOfColumns - 3))
+			return false;
+
+		if ((column == 1 || column == numberOfColumns - 2)
+				&& (row <= 2 || row >= numberOfRows - 3))
+			return false;
+
+		return true;
+	}
+
+	/**
+	 * Returns the spaces which hold an unbreakable block, in ascending order.
+	 * @return The spaces which hold an unbreakable block.
+	 */
+	public int[] unbreakableBlockSpaces()
+	{
+		int[] spaces = new int[numberOfRows * numberOfColumns];
+		int numberOfSpaces = 0;
+
+		for (int row = 0; row < numberOfRows; row++)
+		{
+			for (int column = 0; column < numberOfColumns; column++)
+			{
+				if (unbreakableBlockSpace(row, column))
+					spaces[numberOfSpaces++] = row * numberOfColumns + column;
+			}
+		}
+
+		return Arrays.copyOf(spaces, numberOfSpaces);
+	}
+
+	/**
+	 * Returns the spaces where a breakable block may be placed, in ascending order.
+	 * @return The spaces where a breakable block may be placed.
+	 */
+	public int[] eligibleSpaces()
+	{
+		int[] spaces = new int[numberOfRows * numberOfColumns];
+		int numberOfSpaces = 0;
+
+		for (int row = 0; row < numberOfRows; row++)
+		{
+			for (int column = 0; column < numberOfColumns; column++)
+			{
+				if (breakableBlockSpace(row, column))
+					spaces[numberOfSpaces++] = row * numberOfColumns + column;
+			}
+		}
+
+		return Arrays.copyOf(spaces, numberOfSpaces);
+	}
+
+	/**
+	 * Chooses the spaces which hold a breakable block, which are the configured fraction of the
+	 * eligible spaces rounded to the nearest space.  Every call makes a new choice.
+	 * @return The spaces which hold a breakable block, in ascending order.
+	 */
+	public int[] breakableBlockSpaces()
+	{
+		int[] spaces = eligibleSpaces();
+		int numberOfBlocks = (int) Math.round(breakableBlockDensity * spaces.length);
+
+		// shuffle only the chosen prefix of the spaces
+		for (int i = 0; i < numberOfBlocks; i++)
+		{
+			int j = i + random.nextInt(spaces.length - i);
+			int space = spaces[i];
+			spaces[i] = spaces[j];
+			spaces[j] = space;
+		}
+
+		// place the blocks in board order
+		int[] chosenSpaces = Arrays.copyOf(spaces, numberOfBlocks);
+		Arrays.sort(chosenSpaces);
+
+		return chosenSpaces;
+	}
+}
@@ -0,0 +1,125 @@
+package server.model;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import shared.model.GameConfiguration;
+
+/**
+ * A test class for the MapGenerator class.
+ */
+public class MapGeneratorTest
+{
+	/**
+	 * Ensures the default board has 146 unbreakable blocks, 233 eligible spaces and 130 breakable
+	 * blocks.
+	 */
+	@Test
+	public void testDefaultBoard()
+	{
+		MapGenerator mapGenerator = new MapGenerator(new GameConfiguration());
+
+		assertEquals(146, mapGenerator.unbreakableBlockSpaces().length);
+		assertEquals(233, mapGenerator.eligibleSpaces().length);
+		assertEquals(130, mapGenerator.breakableBlockSpaces().length);
+	}
+
+	/**
+	 * Ensures the breakable blocks are placed in distinct eligible spaces, in ascending order.
+	 */
+	@Test
+	public void testBreakableBlockSpacesAreEligible()
+	{
+		MapGenerator mapGenerator = new MapGenerator(new GameConfiguration(51, 75, 0.7, 4),
+				new Random(3));
+		int[] spaces = mapGenerator.breakableBlockSpaces();
+
+		for (int i = 0; i < spaces.length; i++)
+		{
+			int row = spaces[i] / mapGenerator.numberOfColumns();
+			int column = spaces[i] % mapGenerator.numberOfColumns();
+
+			assertTrue(mapGenerator.breakableBlockSpace(row, column));
+			assertFalse(mapGenerator.unbreakableBlockSpace(row, column));
+
+			if (i > 0)
+				assertTrue(spaces[i - 1] < spaces[i]);
+		}
+	}
+
+	/**
+	 * Ensures the spaces next to the spawn corners are kept free.
+	 */
+	@Test
+	public void testSpawnCornersAreFree()
+	{
+		MapGenerator mapGenerator = new MapGenerator(new GameConfiguration(17, 23, 1, 4));
+		int[][] freeSpaces = { { 1, 1 }, { 1, 2 }, { 2, 1 }, { 1, 21 }, { 1, 20 }, { 2, 21 },
+				{ 15, 1 }, { 15, 2 }, { 14, 1 }, { 15, 21 }, { 15, 20 }, { 14, 21 } };
+
+		for (int[] space : freeSpaces)
+			assertFalse(mapGenerator.breakableBlockSpace(space[0], space[1]));
+
+		// a full density fills every other free space
+		assertEquals(233, mapGenerator.breakableBlockSpaces().length);
+	}
+
+	/**
+	 * Ensures a density of zero places no breakable blocks.
+	 */
+	@Test
+	public void testZeroDensity()
+	{
+		assertEquals(0, new MapGenerator(new GameConfiguration(17, 23, 0, 4))
+				.breakableBlockSpaces().length);
+	}
+
+	/**
+	 * Ensures two generators with the same seed generate the same map, and a different seed generates
+	 * another map.
+	 */
+	@Test
+	public void testSeed()
+	{
+		int[] spaces = new MapGenerator(new GameConfiguration(17, 23, 0.5, 4, 7))
+				.breakableBlockSpaces();
+
+		assertArrayEquals(spaces, new MapGenerator(new GameConfiguration(17, 23, 0.5, 4, 7))
+				.breakableBlockSpaces());
+		assertFalse(java.util.Arrays.equals(spaces, new MapGenerator(new GameConfiguration(17, 23,
+				0.5, 4, 8)).breakableBlockSpaces()));
+	}
+
+	/**
+	 * Ensures a large dense board is generated.
+	 */
+	@Test
+	public void testLargeBoard()
+	{
+		MapGenerator mapGenerator = new MapGenerator(new GameConfiguration(201, 201, 1, 4));
+
+		assertEquals(mapGenerator.eligibleSpaces().length,
+				mapGenerator.breakableBlockSpaces().length);
+	}
+
+	/**
+	 * Ensures the constructor throws a NullPointerException when the configuration is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorNullConfiguration()
+	{
+		new MapGenerator(null, new Random());
+	}
+
+	/**
+	 * Ensures the constructor throws a NullPointerException when the random number generator is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorNullRandom()
+	{
+		new MapGenerator(new GameConfiguration(), null);
+	}
+}
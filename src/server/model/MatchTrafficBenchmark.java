@@ -0,0 +1,119 @@
+package server.model;
+
+import java.nio.ByteBuffer;
+
+import shared.model.communication.*;
+
+/**
+ * Measures the traffic a match sends to each client.  Matches are played to the end by four
+ * players pressing and depressing random keys, with the remaining time queued every step the way
+ * GameHostingController does, and the benchmark prints the average number of messages and bytes
+ * sent in each wire format per match.  This class is a development tool and is not used by the
+ * game.
+ */
+public class MatchTrafficBenchmark
+{
+	// the number of measured matches
+	private static final int MATCHES = 50;
+
+	// the time between game steps in seconds, as in GameHostingController
+	private static final double STEP_PERIOD = 0.1;
+
+	/**
+	 * A server communicator which counts the messages and bytes sent to each client instead of
+	 * sending them.
+	 */
+	private static class CountingCommunicator extends GameBenchmark.RandomKeyCommunicator
+	{
+		// the codec of binary messages
+		private final BinaryMessageCodec codec;
+
+		// the buffer each message is written into
+		private final ByteBuffer buffer;
+
+		// the number of sent messages and bytes
+		private long numberOfMessages;
+		private long numberOfTextBytes;
+		private long numberOfBinaryBytes;
+
+		/**
+		 * Creates a new CountingCommunicator.
+		 * @param seed The seed of the random keys and key actions.
+		 */
+		public CountingCommunicator(long seed)
+		{
+			super(seed);
+			codec = new BinaryMessageCodec();
+			buffer = ByteBuffer.allocate(IMessage.MAXIMUM_TEXT_LENGTH + 1);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void sendMessages(IMessage message)
+		{
+			count(message);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void sendMessageBatch(IMessage[] messages)
+		{
+			for (IMessage message : messages)
+				count(message);
+		}
+
+		/**
+		 * Counts a message and its size in each wire format.
+		 * @param message The message.
+		 */
+		private void count(IMessage message)
+		{
+			numberOfMessages++;
+
+			// a text message is followed by a newline
+			buffer.clear();
+			message.writeTo(buffer);
+			numberOfTextBytes += buffer.position() + 1;
+
+			buffer.clear();
+			codec.encode(message, buffer);
+			numberOfBinaryBytes += buffer.position();
+		}
+	}
+
+	/**
+	 * Runs the benchmark and prints the results.
+	 * @param args This program ignores any command line arguments.
+	 * @throws CommunicationException This should not happen.
+	 */
+	public static void main(String[] args) throws CommunicationException
+	{
+		long numberOfMessages = 0;
+		long numberOfTextBytes = 0;
+		long numberOfBinaryBytes = 0;
+
+		for (int match = 0; match < MATCHES; match++)
+		{
+			CountingCommunicator communicator = new CountingCommunicator(match);
+			Game game = new Game(communicator, new GameObjectFactory());
+
+			while (game.numberOfRemainingSteps() > 0)
+			{
+				game.queueMessage(new GameTimeMessage(
+						(int) (STEP_PERIOD * game.numberOfRemainingSteps())));
+				game.step();
+			}
+
+			numberOfMessages += communicator.numberOfMessages;
+			numberOfTextBytes += communicator.numberOfTextBytes;
+			numberOfBinaryBytes += communicator.numberOfBinaryBytes;
+		}
+
+		System.out.printf("%d messages/match, %d text bytes/match, %d binary bytes/match%n",
+				numberOfMessages / MATCHES, numberOfTextBytes / MATCHES, numberOfBinaryBytes / MATCHES);
+	}
+}
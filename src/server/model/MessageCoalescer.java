@@ -0,0 +1,220 @@
+package server.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import shared.model.communication.GameObjectCreatedMessage;
+import shared.model.communication.GameObjectDestroyedMessage;
+import shared.model.communication.GameObjectUpdatedMessage;
+import shared.model.communication.GameTimeMessage;
+import shared.model.communication.IMessage;
+import shared.model.communication.ScoreUpdatedMessage;
+
+/**
+ * Collects the messages of a game step and coalesces them before they are sent, so that the
+ * clients only receive the latest state of each game object and value in the step.  Within a step,
+ * a later position update of a game object replaces its earlier one, a position update of a game
+ * object created in the step moves its created message, and a game object which is created and
+ * destroyed in the same step is not sent at all.  Scores and the remaining time are only sent when
+ * their latest value in the step differs from the value last sent.  Any other message is kept in
+ * the order it was added.
+ */
+public class MessageCoalescer
+{
+	// the messages of the current step in the order they were added, with null in place of the
+	// messages which were coalesced away
+	private final ArrayList<IMessage> messages;
+
+	// the index of the created message of each game object created in the current step
+	private final HashMap<Integer, Integer> createdMessageIndexes;
+
+	// the index of the position update of each game object updated in the current step
+	private final HashMap<Integer, Integer> updatedMessageIndexes;
+
+	// the index of the score message of each game object in the current step
+	private final HashMap<Integer, Integer> scoreMessageIndexes;
+
+	// the index of the time message of the current step, or -1 if there is none
+	private int timeMessageIndex;
+
+	// the score last sent for each game object
+	private final HashMap<Integer, Integer> sentScores;
+
+	// the time last sent, or null if no time has been sent
+	private Integer sentTime;
+
+	/**
+	 * Creates an empty MessageCoalescer which has not sent any score or time.
+	 */
+	public MessageCoalescer()
+	{
+		messages = new ArrayList<IMessage>();
+		createdMessageIndexes = new HashMap<Integer, Integer>();
+		updatedMessageIndexes = new HashMap<Integer, Integer>();
+		scoreMessageIndexes = new HashMap<Integer, Integer>();
+		timeMessageIndex = -1;
+		sentScores = new HashMap<Integer, Integer>();
+	}
+
+	/**
+	 * Adds a message to the current step, coalescing it with the messages already added.
+	 * @param message The message.
+	 * @throws NullPointerException Thrown if the message is null.
+	 */
+	public void add(IMessage message)
+	{
+		if (message == null)
+			throw new NullPointerException();
+
+		if (message instanceof GameObjectUpdatedMessage)
+			addUpdatedMessage((GameObjectUpdatedMessage) message);
+		else if (message instanceof GameObjectCreatedMessage)
+			addCreatedMessage((GameObjectCreatedMessage) message);
+		else if (message instanceof GameObjectDestroyedMessage)
+			addDestroyedMessage((GameObjectDestroyedMessage) message);
+		else if (message instanceof ScoreUpdatedMessage)
+			replaceOrAdd(scoreMessageIndexes, ((ScoreUpdatedMessage) message).gameObjectIdentifier(),
+					message);
+		else if (message instanceof GameTimeMessage)
+		{
+			if (timeMessageIndex < 0)
+			{
+				timeMessageIndex = messages.size();
+				messages.add(message);
+			}
+			else
+				messages.set(timeMessageIndex, message);
+		}
+		else
+			messages.add(message);
+	}
+
+	/**
+	 * Returns true if no message has been added to the current step.  A step whose messages have
+	 * all been coalesced away is not empty, but drains no messages.
+	 * @return True if no message has been added to the current step and false otherwise.
+	 */
+	public boolean isEmpty()
+	{
+		return messages.isEmpty();
+	}
+
+	/**
+	 * Returns the coalesced messages of the current step, in order, and starts the next step.  The
+	 * scores and time which are returned are remembered as sent.
+	 * @return The coalesced messages of the current step.
+	 */
+	public IMessage[] drain()
+	{
+		ArrayList<IMessage> coalescedMessages = new ArrayList<IMessage>(messages.size());
+
+		for (IMessage message : messages)
+		{
+			if (message == null)
+				continue;
+
+			// skip the scores and times which have not changed since they were last sent
+			if (message instanceof ScoreUpdatedMessage)
+			{
+				ScoreUpdatedMessage scoreMessage = (ScoreUpdatedMessage) message;
+				Integer sentScore = sentScores.put(scoreMessage.gameObjectIdentifier(),
+						scoreMessage.score());
+
+				if (sentScore != null && sentScore == scoreMessage.score())
+					continue;
+			}
+			else if (message instanceof GameTimeMessage)
+			{
+				int time = ((GameTimeMessage) message).time();
+
+				if (sentTime != null && sentTime == time)
+					continue;
+
+				sentTime = time;
+			}
+
+			coalescedMessages.add(message);
+		}
+
+		messages.clear();
+		createdMessageIndexes.clear();
+		updatedMessageIndexes.clear();
+		scoreMessageIndexes.clear();
+		timeMessageIndex = -1;
+
+		return coalescedMessages.toArray(new IMessage[coalescedMessages.size()]);
+	}
+
+	/**
+	 * Private helper method which adds a position update, moving the created message of a game
+	 * object created in the current step or replacing an earlier update of the game object.
+	 * @param message The message.
+	 */
+	private void addUpdatedMessage(GameObjectUpdatedMessage message)
+	{
+		Integer createdIndex = createdMessageIndexes.get(message.gameObjectIdentifier());
+
+		if (createdIndex == null)
+		{
+			replaceOrAdd(updatedMessageIndexes, message.gameObjectIdentifier(), message);
+			return;
+		}
+
+		GameObjectCreatedMessage createdMessage = (GameObjectCreatedMessage) messages.get(createdIndex);
+		messages.set(createdIndex, new GameObjectCreatedMessage(message.gameObjectIdentifier(),
+				createdMessage.gameObjectType(), message.row(), message.column()));
+	}
+
+	/**
+	 * Private helper method which adds a created message.
+	 * @param message The message.
+	 */
+	private void addCreatedMessage(GameObjectCreatedMessage message)
+	{
+		createdMessageIndexes.put(message.gameObjectIdentifier(), messages.size());
+		messages.add(message);
+	}
+
+	/**
+	 * Private helper method which adds a destroyed message, unless the game object was created in
+	 * the current step, in which case its created message is removed instead.  The position update
+	 * of the game object in the current step is removed either way.
+	 * @param message The message.
+	 */
+	private void addDestroyedMessage(GameObjectDestroyedMessage message)
+	{
+		Integer updatedIndex = updatedMessageIndexes.remove(message.gameObjectIdentifier());
+
+		if (updatedIndex != null)
+			messages.set(updatedIndex, null);
+
+		Integer createdIndex = createdMessageIndexes.remove(message.gameObjectIdentifier());
+
+		if (createdIndex != null)
+			messages.set(createdIndex, null);
+		else
+			messages.add(message);
+	}
+
+	/**
+	 * Private helper method which replaces the message of a game object added earlier in the
+	 * current step, or adds the message if there is none.
+	 * @param indexes The index of the earlier message of each game object.
+	 * @param gameObjectIdentifier The identifier of the game object.
+	 * @param message The message.
+	 */
+	private void replaceOrAdd(HashMap<Integer, Integer> indexes, int gameObjectIdentifier,
+			IMessage message)
+	{
+		Integer index = indexes.get(gameObjectIdentifier);
+
+		if (index != null)
+		{
+			messages.set(index, message);
+			return;
+		}
+
+		indexes.put(gameObjectIdentifier, messages.size());
+		messages.add(message);
+	}
+}
@@ -0,0 +1,202 @@
+package server.model;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import shared.model.GameObjectType;
+import shared.model.communication.GameMessage;
+import shared.model.communication.GameObjectCreatedMessage;
+import shared.model.communication.GameObjectDestroyedMessage;
+import shared.model.communication.GameObjectUpdatedMessage;
+import shared.model.communication.GameTimeMessage;
+import shared.model.communication.IMessage;
+import shared.model.communication.ScoreUpdatedMessage;
+
+/**
+ * A test class for the MessageCoalescer class.  Messages do not override equals, so drained
+ * messages are compared through their text form.
+ */
+public class MessageCoalescerTest
+{
+	// the test coalescer
+	private MessageCoalescer coalescer;
+
+	/**
+	 * Set up the test.
+	 */
+	@Before
+	public void setUp()
+	{
+		coalescer = new MessageCoalescer();
+	}
+
+	/**
+	 * Ensures a new coalescer is empty and drains no messages.
+	 */
+	@Test
+	public void testConstructor()
+	{
+		assertTrue(coalescer.isEmpty());
+		assertEquals(0, coalescer.drain().length);
+	}
+
+	/**
+	 * Ensures add throws a NullPointerException when the message is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testAddNull()
+	{
+		coalescer.add(null);
+	}
+
+	/**
+	 * Ensures messages which can not be coalesced are drained in the order they were added, and
+	 * that draining starts an empty step.
+	 */
+	@Test
+	public void testDrain()
+	{
+		coalescer.add(new GameObjectDestroyedMessage(1));
+		coalescer.add(new GameMessage(GameMessage.Action.STOP, 2));
+		coalescer.add(new GameObjectCreatedMessage(3, GameObjectType.BOMB, 4, 5));
+		assertFalse(coalescer.isEmpty());
+
+		assertDrained("GAME_OBJECT_DESTROYED 1", "GAME STOP 2", "GAME_OBJECT_CREATED 3 BOMB 4 5");
+		assertTrue(coalescer.isEmpty());
+		assertDrained();
+	}
+
+	/**
+	 * Ensures only the latest position update of a game object in a step is drained, in the place
+	 * of its first update.
+	 */
+	@Test
+	public void testUpdatedMessagesCoalesced()
+	{
+		coalescer.add(new GameObjectUpdatedMessage(1, 1, 1));
+		coalescer.add(new GameObjectUpdatedMessage(2, 1, 1));
+		coalescer.add(new GameObjectUpdatedMessage(1, 1, 2));
+		coalescer.add(new GameObjectUpdatedMessage(1, 1, 3));
+
+		assertDrained("GAME_OBJECT_POSITION_UPDATED 1 1 3", "GAME_OBJECT_POSITION_UPDATED 2 1 1");
+
+		// the updates of the next step are not coalesced with the drained ones
+		coalescer.add(new GameObjectUpdatedMessage(1, 1, 3));
+		assertDrained("GAME_OBJECT_POSITION_UPDATED 1 1 3");
+	}
+
+	/**
+	 * Ensures a position update of a game object created in the same step moves its created
+	 * message instead.
+	 */
+	@Test
+	public void testUpdatedMessageMovesCreatedMessage()
+	{
+		coalescer.add(new GameObjectCreatedMessage(1, GameObjectType.PLAYER, 1, 1));
+		coalescer.add(new GameObjectUpdatedMessage(1, 2, 1));
+
+		assertDrained("GAME_OBJECT_CREATED 1 PLAYER 2 1");
+	}
+
+	/**
+	 * Ensures a game object created and destroyed in the same step is not drained at all, along
+	 * with its position updates.
+	 */
+	@Test
+	public void testCreatedAndDestroyedMessagesDropped()
+	{
+		coalescer.add(new GameObjectCreatedMessage(1, GameObjectType.BOMB, 1, 1));
+		coalescer.add(new GameObjectUpdatedMessage(1, 2, 1));
+		coalescer.add(new GameObjectDestroyedMessage(1));
+
+		assertDrained();
+	}
+
+	/**
+	 * Ensures the position update of a game object destroyed later in the step is dropped, while
+	 * its destroyed message is kept.
+	 */
+	@Test
+	public void testDestroyedMessageDropsUpdatedMessage()
+	{
+		coalescer.add(new GameObjectUpdatedMessage(1, 2, 1));
+		coalescer.add(new GameObjectDestroyedMessage(1));
+
+		assertDrained("GAME_OBJECT_DESTROYED 1");
+	}
+
+	/**
+	 * Ensures a destroyed game object whose identifier is reused by a game object created in the
+	 * same step is destroyed before the new game object is created.
+	 */
+	@Test
+	public void testIdentifierReused()
+	{
+		coalescer.add(new GameObjectDestroyedMessage(1));
+		coalescer.add(new GameObjectCreatedMessage(1, GameObjectType.EXPLOSION, 3, 3));
+
+		assertDrained("GAME_OBJECT_DESTROYED 1", "GAME_OBJECT_CREATED 1 EXPLOSION 3 3");
+
+		coalescer.add(new GameObjectDestroyedMessage(1));
+		coalescer.add(new GameObjectCreatedMessage(1, GameObjectType.EXPLOSION, 4, 4));
+		coalescer.add(new GameObjectDestroyedMessage(1));
+
+		assertDrained("GAME_OBJECT_DESTROYED 1");
+	}
+
+	/**
+	 * Ensures only the latest score of a game object in a step is drained, and only when it differs
+	 * from the score last drained.
+	 */
+	@Test
+	public void testScoreMessagesCoalesced()
+	{
+		coalescer.add(new ScoreUpdatedMessage(1, 1));
+		coalescer.add(new ScoreUpdatedMessage(2, 1));
+		coalescer.add(new ScoreUpdatedMessage(1, 2));
+		assertDrained("SCORE_UPDATED 1 2", "SCORE_UPDATED 2 1");
+
+		// the score of game object 1 goes up and back down in the same step
+		coalescer.add(new ScoreUpdatedMessage(1, 3));
+		coalescer.add(new ScoreUpdatedMessage(1, 2));
+		coalescer.add(new ScoreUpdatedMessage(2, 0));
+		assertDrained("SCORE_UPDATED 2 0");
+	}
+
+	/**
+	 * Ensures only the latest time of a step is drained, and only when it differs from the time
+	 * last drained.
+	 */
+	@Test
+	public void testTimeMessagesCoalesced()
+	{
+		coalescer.add(new GameTimeMessage(180));
+		coalescer.add(new GameTimeMessage(179));
+		assertDrained("GAME_TIME 179");
+
+		coalescer.add(new GameTimeMessage(179));
+		assertDrained();
+
+		coalescer.add(new GameTimeMessage(178));
+		coalescer.add(new GameObjectDestroyedMessage(1));
+		assertDrained("GAME_TIME 178", "GAME_OBJECT_DESTROYED 1");
+	}
+
+	/**
+	 * Helper method which drains the coalescer and compares the drained messages with the expected
+	 * ones.
+	 * @param expected The text form of the expected messages, in order.
+	 */
+	private void assertDrained(String... expected)
+	{
+		IMessage[] messages = coalescer.drain();
+		String[] drained = new String[messages.length];
+
+		for (int i = 0; i < messages.length; i++)
+			drained[i] = messages[i].toString();
+
+		assertArrayEquals(expected, drained);
+	}
+}
@@ -0,0 +1,431 @@
+package server.model;
+
+import shared.model.GameObjectType;
+
+/**
+ * Implementation of IBoard which keeps the occupancy of each space in packed primitive arrays
+ * instead of a set per space.  The solidity, bomb and explosion state of every space is counted
+ * as game objects are moved, so canMoveToSpace and spaceEmpty are a few array reads.  The game
+ * objects of a space can be visited or read through a cursor without allocating.
+ */
+public class PackedBoard implements IBoard
+{
+	/**
+	 * The value returned by explosionOwnerAtSpace when a space does not contain an owned explosion.
+	 */
+	public static final int NO_OWNER = -1;
+
+	// the number of game objects each space can hold before the occupant arrays grow
+	private static final int INITIAL_SPACE_CAPACITY = 4;
+
+	// number of rows for the board
+	private final int numberOfRows;
+
+	// number of columns for the board
+	private final int numberOfColumns;
+
+	// the number of solid game objects in each space
+	private final int[] solidCounts;
+
+	// the number of bombs in each space
+	private final int[] bombCounts;
+
+	// the number of explosions in each space
+	private final int[] explosionCounts;
+
+	// the identifier of the owner of an explosion in each space
+	private final int[] explosionOwners;
+
+	// the number of game objects in each space
+	private final int[] occupantCounts;
+
+	// the game objects in each space, spaceCapacity consecutive entries per space
+	private IGameObject[] occupants;
+
+	// the identifiers of the game objects in occupants, stored at the same indexes
+	private int[] occupantIdentifiers;
+
+	// the number of entries reserved for each space in the occupant arrays
+	private int spaceCapacity;
+
+	/**
+	 * Create a new PackedBoard.
+	 * @param numberOfRows the number of rows for the new PackedBoard.
+	 * @param numberOfColumns the number of columns for the new PackedBoard.
+	 * @throws IllegalArgumentException Thrown when the number of rows or the number of columns is
+	 * less than or equal to zero.
+	 */
+	public PackedBoard(int numberOfRows, int numberOfColumns)
+	{
+		if (numberOfRows <= 0 || numberOfColumns <= 0)
+			throw new IllegalArgumentException();
+
+		this.numberOfRows = numberOfRows;
+		this.numberOfColumns = numberOfColumns;
+
+		// set up one entry per space for each of the space properties
+		int numberOfSpaces = numberOfRows * numberOfColumns;
+		solidCounts = new int[numberOfSpaces];
+		bombCounts = new int[numberOfSpaces];
+		explosionCounts = new int[numberOfSpaces];
+		explosionOwners = new int[numberOfSpaces];
+		occupantCounts = new int[numberOfSpaces];
+
+		for (int space = 0; space < numberOfSpaces; space++)
+			explosionOwners[space] = NO_OWNER;
+
+		// set up the occupant arrays
+		spaceCapacity = INITIAL_SPACE_CAPACITY;
+		occupants = new IGameObject[numberOfSpaces * spaceCapacity];
+		occupantIdentifiers = new int[numberOfSpaces * spaceCapacity];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public int numberOfRows()
+	{
+		return numberOfRows;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public int numberOfColumns()
+	{
+		return numberOfColumns;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public IGameObject[] gameObjectsAtSpace(int row, int column)
+	{
+		int space = space(row, column);
+
+		// copy the occupants of the space into a new array
+		IGameObject[] gameObjects = new IGameObject[occupantCounts[space]];
+		System.arraycopy(occupants, space * spaceCapacity, gameObjects, 0, gameObjects.length);
+
+		return gameObjects;
+	}
+
+	/**
+	 * Visits each of the game objects at the specified row and column, until the visitor asks to
+	 * stop.  This method does not allocate.
+	 * @param row The row of the game objects.
+	 * @param column The column of the game objects.
+	 * @param visitor The visitor which is given each game object.
+	 * @return True if every game object in the space was visited and false if the visitor stopped
+	 * the visit early.
+	 * @throws NullPointerException Thrown if visitor is null.
+	 * @throws IllegalArgumentException Thrown if the row or column is outside of this PackedBoard.
+	 */
+	public boolean visitGameObjectsAtSpace(int row, int column, IGameObjectVisitor visitor)
+	{
+		if (visitor == null)
+			throw new NullPointerException();
+
+		int space = space(row, column);
+		int firstIndex = space * spaceCapacity;
+
+		for (int index = firstIndex; index < firstIndex + occupantCounts[space]; index++)
+		{
+			if (!visitor.visitGameObject(occupants[index]))
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the number of game objects at the specified row and column.  Together with
+	 * gameObjectAtSpace, this allows the space to be read as a cursor.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @return The number of game objects at the specified row and column.
+	 * @throws IllegalArgumentException Thrown if the row or column is outside of this PackedBoard.
+	 */
+	public int numberOfGameObjectsAtSpace(int row, int column)
+	{
+		return occupantCounts[space(row, column)];
+	}
+
+	/**
+	 * Returns the game object at the provided index of the specified space.  The order of the game
+	 * objects in a space changes when game objects are removed from it.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @param index The index of the game object, from 0 to numberOfGameObjectsAtSpace - 1.
+	 * @return The game object at the provided index.
+	 * @throws IllegalArgumentException Thrown if the row or column is outside of this PackedBoard.
+	 * @throws IndexOutOfBoundsException Thrown if index is negative or not less than the number of
+	 * game objects at the space.
+	 */
+	public IGameObject gameObjectAtSpace(int row, int column, int index)
+	{
+		return occupants[occupantIndex(row, column, index)];
+	}
+
+	/**
+	 * Returns the identifier of the game object at the provided index of the specified space.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @param index The index of the game object, from 0 to numberOfGameObjectsAtSpace - 1.
+	 * @return The identifier of the game object at the provided index.
+	 * @throws IllegalArgumentException Thrown if the row or column is outside of this PackedBoard.
+	 * @throws IndexOutOfBoundsException Thrown if index is negative or not less than the number of
+	 * game objects at the space.
+	 */
+	public int identifierAtSpace(int row, int column, int index)
+	{
+		return occupantIdentifiers[occupantIndex(row, column, index)];
+	}
+
+	/**
+	 * Returns true if the specified space contains a solid game object and false otherwise.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @return True if the specified space contains a solid game object and false otherwise.
+	 * @throws IllegalArgumentException Thrown if the row or column is outside of this PackedBoard.
+	 */
+	public boolean solidAtSpace(int row, int column)
+	{
+		return solidCounts[space(row, column)] > 0;
+	}
+
+	/**
+	 * Returns true if the specified space contains a bomb and false otherwise.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @return True if the specified space contains a bomb and false otherwise.
+	 * @throws IllegalArgumentException Thrown if the row or column is outside of this PackedBoard.
+	 */
+	public boolean bombAtSpace(int row, int column)
+	{
+		return bombCounts[space(row, column)] > 0;
+	}
+
+	/**
+	 * Returns true if the specified space contains an explosion and false otherwise.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @return True if the specified space contains an explosion and false otherwise.
+	 * @throws IllegalArgumentException Thrown if the row or column is outside of this PackedBoard.
+	 */
+	public boolean explosionAtSpace(int row, int column)
+	{
+		return explosionCounts[space(row, column)] > 0;
+	}
+
+	/**
+	 * Returns the identifier of the owner of an explosion in the specified space.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @return The identifier of the owner of an explosion in the specified space, or NO_OWNER if
+	 * the space does not contain an owned explosion.
+	 * @throws IllegalArgumentException Thrown if the row or column is outside of this PackedBoard.
+	 */
+	public int explosionOwnerAtSpace(int row, int column)
+	{
+		return explosionOwners[space(row, column)];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean canMoveToSpace(int row, int column, IGameObject gameObject)
+	{
+		if (gameObject == null)
+			throw new NullPointerException();
+
+		int space = space(row, column);
+
+		// non-solid game objects can move anywhere
+		if (!gameObject.solid())
+			return true;
+
+		// a bomb may share a space with other solid objects, but not with another bomb
+		if (gameObject.type() == GameObjectType.BOMB)
+			return bombCounts[space] == 0;
+
+		return solidCounts[space] == 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void moveGameObjectToSpace(int row, int column, IGameObject gameObject)
+	{
+		if (gameObject == null)
+			throw new NullPointerException();
+
+		if (!canMoveToSpace(row, column, gameObject))
+			throw new IllegalArgumentException();
+
+		// remove the game object from its old space
+		if (gameObject.onBoard())
+			removeGameObject(gameObject);
+
+		int space = space(row, column);
+
+		// make room for the game object if the space is full
+		if (occupantCounts[space] == spaceCapacity)
+			growSpaceCapacity();
+
+		// add the game object to the end of the space
+		int index = space * spaceCapacity + occupantCounts[space];
+		occupants[index] = gameObject;
+		occupantIdentifiers[index] = gameObject.identifier();
+		occupantCounts[space]++;
+
+		// update the space properties
+		if (gameObject.solid())
+			solidCounts[space]++;
+
+		if (gameObject.type() == GameObjectType.BOMB)
+			bombCounts[space]++;
+
+		if (gameObject.type() == GameObjectType.EXPLOSION)
+		{
+			explosionCounts[space]++;
+
+			if (explosionOwners[space] == NO_OWNER && gameObject.hasOwner())
+				explosionOwners[space] = gameObject.owner().identifier();
+		}
+
+		gameObject.setPosition(row, column);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void removeGameObject(IGameObject gameObject)
+	{
+		if (gameObject == null)
+			throw new NullPointerException();
+
+		if (!gameObject.onBoard())
+			throw new IllegalArgumentException();
+
+		int space = space(gameObject.row(), gameObject.column());
+		int firstIndex = space * spaceCapacity;
+		int lastIndex = firstIndex + occupantCounts[space] - 1;
+
+		// find the game object in its space
+		int index = firstIndex;
+		while (index <= lastIndex && occupants[index] != gameObject)
+			index++;
+
+		if (index > lastIndex)
+			throw new IllegalArgumentException();
+
+		// move the last game object of the space into the removed game object's place
+		occupants[index] = occupants[lastIndex];
+		occupantIdentifiers[index] = occupantIdentifiers[lastIndex];
+		occupants[lastIndex] = null;
+		occupantCounts[space]--;
+
+		// update the space properties
+		if (gameObject.solid())
+			solidCounts[space]--;
+
+		if (gameObject.type() == GameObjectType.BOMB)
+			bombCounts[space]--;
+
+		if (gameObject.type() == GameObjectType.EXPLOSION)
+		{
+			explosionCounts[space]--;
+			updateExplosionOwner(space);
+		}
+
+		gameObject.removeFromBoard();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean spaceEmpty(int row, int column)
+	{
+		return occupantCounts[space(row, column)] == 0;
+	}
+
+	/**
+	 * Private helper method which converts a row and column into an index into the space arrays.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @return The index of the space.
+	 * @throws IllegalArgumentException Thrown if the row or column is outside of this PackedBoard.
+	 */
+	private int space(int row, int column)
+	{
+		if (row < 0 || row >= numberOfRows || column < 0 || column >= numberOfColumns)
+			throw new IllegalArgumentException();
+
+		return row * numberOfColumns + column;
+	}
+
+	/**
+	 * Private helper method which converts a position within a space into an index into the
+	 * occupant arrays.
+	 * @param row The row of the space.
+	 * @param column The column of the space.
+	 * @param index The index of the game object within the space.
+	 * @return The index into the occupant arrays.
+	 */
+	private int occupantIndex(int row, int column, int index)
+	{
+		int space = space(row, column);
+
+		if (index < 0 || index >= occupantCounts[space])
+			throw new IndexOutOfBoundsException();
+
+		return space * spaceCapacity + index;
+	}
+
+	/**
+	 * Private helper method which recalculates the explosion owner of a space after an explosion
+	 * has been removed from it.
+	 * @param space The index of the space.
+	 */
+	private void updateExplosionOwner(int space)
+	{
+		explosionOwners[space] = NO_OWNER;
+
+		int firstIndex = space * spaceCapacity;
+		for (int index = firstIndex; index < firstIndex + occupantCounts[space]; index++)
+		{
+			IGameObject gameObject = occupants[index];
+			if (gameObject.type() == GameObjectType.EXPLOSION && gameObject.hasOwner())
+			{
+				explosionOwners[space] = gameObject.owner().identifier();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Private helper method which doubles the number of game objects each space can hold.  This
+	 * only happens when many game objects are stacked in the same space, such as overlapping
+	 * explosions.
+	 */
+	private void growSpaceCapacity()
+	{
+		int newSpaceCapacity = spaceCapacity * 2;
+		IGameObject[] newOccupants = new IGameObject[occupantCounts.length * newSpaceCapacity];
+		int[] newOccupantIdentifiers = new int[occupantCounts.length * newSpaceCapacity];
+
+		// copy each space to its new location
+		for (int space = 0; space < occupantCounts.length; space++)
+		{
+			System.arraycopy(occupants, space * spaceCapacity, newOccupants,
+					space * newSpaceCapacity, occupantCounts[space]);
+			System.arraycopy(occupantIdentifiers, space * spaceCapacity, newOccupantIdentifiers,
+					space * newSpaceCapacity, occupantCounts[space]);
+		}
+
+		occupants = newOccupants;
+		occupantIdentifiers = newOccupantIdentifiers;
+		spaceCapacity = newSpaceCapacity;
+	}
+}
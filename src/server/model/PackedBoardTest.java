@@ -0,0 +1,508 @@
+package server.model;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import shared.model.GameObjectType;
+
+/**
+ * A test class for the PackedBoard class.
+ */
+public class PackedBoardTest
+{
+	// a counter used to create unique game object identifiers
+	private static int gameObjectIdentifierCounter = 0;
+
+	// the test board
+	private PackedBoard board;
+
+	/**
+	 * Set up the test.
+	 */
+	@Before
+	public void setUp()
+	{
+		board = new PackedBoard(17, 23);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when the number of rows is not
+	 * positive.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorRowIllegalArgument()
+	{
+		new PackedBoard(0, 5);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when the number of columns is not
+	 * positive.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorColumnIllegalArgument()
+	{
+		new PackedBoard(5, -3);
+	}
+
+	/**
+	 * Ensures the constructor sets up the dimensions of the board.
+	 */
+	@Test
+	public void testConstructor()
+	{
+		PackedBoard testBoard = new PackedBoard(3, 5);
+		assertEquals(3, testBoard.numberOfRows());
+		assertEquals(5, testBoard.numberOfColumns());
+	}
+
+	/**
+	 * Ensures a new board has no game objects in its spaces.
+	 */
+	@Test
+	public void testNewBoardIsEmpty()
+	{
+		for (int row = 0; row < 17; row++)
+		{
+			for (int column = 0; column < 23; column++)
+			{
+				assertTrue(board.spaceEmpty(row, column));
+				assertEquals(0, board.gameObjectsAtSpace(row, column).length);
+				assertFalse(board.solidAtSpace(row, column));
+				assertFalse(board.bombAtSpace(row, column));
+				assertFalse(board.explosionAtSpace(row, column));
+				assertEquals(PackedBoard.NO_OWNER, board.explosionOwnerAtSpace(row, column));
+			}
+		}
+	}
+
+	/**
+	 * Ensures gameObjectsAtSpace throws an IllegalArgumentException for a row outside the board.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testGameObjectsAtSpaceIllegalRow()
+	{
+		board.gameObjectsAtSpace(17, 5);
+	}
+
+	/**
+	 * Ensures gameObjectsAtSpace throws an IllegalArgumentException for a column outside the board.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testGameObjectsAtSpaceIllegalColumn()
+	{
+		board.gameObjectsAtSpace(5, -1);
+	}
+
+	/**
+	 * Ensures spaceEmpty throws an IllegalArgumentException for a space outside the board.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testSpaceEmptyIllegalSpace()
+	{
+		board.spaceEmpty(-1, 3);
+	}
+
+	/**
+	 * Ensures the game objects moved to a space are returned by gameObjectsAtSpace.
+	 */
+	@Test
+	public void testGameObjectsAtSpace()
+	{
+		IGameObject gameObject1 = createMockGameObject(GameObjectType.PLAYER, true);
+		IGameObject gameObject2 = createMockGameObject(GameObjectType.EXPLOSION, false);
+
+		board.moveGameObjectToSpace(3, 5, gameObject1);
+		board.moveGameObjectToSpace(3, 5, gameObject2);
+
+		IGameObject[] expected = { gameObject1, gameObject2 };
+		assertEquals(new HashSet<IGameObject>(Arrays.asList(expected)),
+				new HashSet<IGameObject>(Arrays.asList(board.gameObjectsAtSpace(3, 5))));
+		assertFalse(board.spaceEmpty(3, 5));
+		assertTrue(board.spaceEmpty(3, 6));
+	}
+
+	/**
+	 * Ensures canMoveToSpace throws a NullPointerException for a null game object.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testCanMoveToSpaceNull()
+	{
+		board.canMoveToSpace(3, 5, null);
+	}
+
+	/**
+	 * Ensures canMoveToSpace throws an IllegalArgumentException for a space outside the board.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testCanMoveToSpaceIllegalSpace()
+	{
+		board.canMoveToSpace(3, 23, createMockGameObject(GameObjectType.PLAYER, true));
+	}
+
+	/**
+	 * Ensures a solid game object can't move to a space containing a solid game object.
+	 */
+	@Test
+	public void testCanMoveToSpaceSolidToSolid()
+	{
+		board.moveGameObjectToSpace(3, 3, createMockGameObject(GameObjectType.BREAKABLE_BLOCK, true));
+
+		assertTrue(board.solidAtSpace(3, 3));
+		assertFalse(board.canMoveToSpace(3, 3, createMockGameObject(GameObjectType.PLAYER, true)));
+	}
+
+	/**
+	 * Ensures a solid game object can move to a space containing only non-solid game objects.
+	 */
+	@Test
+	public void testCanMoveToSpaceSolidToNonSolid()
+	{
+		board.moveGameObjectToSpace(3, 3, createMockGameObject(GameObjectType.EXPLOSION, false));
+
+		assertFalse(board.solidAtSpace(3, 3));
+		assertTrue(board.canMoveToSpace(3, 3, createMockGameObject(GameObjectType.PLAYER, true)));
+	}
+
+	/**
+	 * Ensures a non-solid game object can move to a space containing a solid game object.
+	 */
+	@Test
+	public void testCanMoveToSpaceNonSolidToSolid()
+	{
+		board.moveGameObjectToSpace(3, 3, createMockGameObject(GameObjectType.PLAYER, true));
+
+		assertTrue(board.canMoveToSpace(3, 3, createMockGameObject(GameObjectType.EXPLOSION, false)));
+	}
+
+	/**
+	 * Ensures a bomb can be placed in a space occupied by a solid player.
+	 */
+	@Test
+	public void testCanMoveToSpaceBombToPlayer()
+	{
+		board.moveGameObjectToSpace(5, 8, createMockGameObject(GameObjectType.PLAYER, true));
+
+		assertTrue(board.canMoveToSpace(5, 8, createMockGameObject(GameObjectType.BOMB, true)));
+	}
+
+	/**
+	 * Ensures a bomb can't be placed in a space which already contains a bomb.
+	 */
+	@Test
+	public void testCanMoveToSpaceBombToBomb()
+	{
+		board.moveGameObjectToSpace(5, 8, createMockGameObject(GameObjectType.PLAYER, true));
+		board.moveGameObjectToSpace(5, 8, createMockGameObject(GameObjectType.BOMB, true));
+
+		assertTrue(board.bombAtSpace(5, 8));
+		assertFalse(board.canMoveToSpace(5, 8, createMockGameObject(GameObjectType.BOMB, true)));
+	}
+
+	/**
+	 * Ensures moveGameObjectToSpace throws a NullPointerException for a null game object.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testMoveGameObjectToSpaceNull()
+	{
+		board.moveGameObjectToSpace(3, 5, null);
+	}
+
+	/**
+	 * Ensures moveGameObjectToSpace throws an IllegalArgumentException for a space outside the board.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testMoveGameObjectToSpaceIllegalSpace()
+	{
+		board.moveGameObjectToSpace(17, 5, createMockGameObject(GameObjectType.PLAYER, true));
+	}
+
+	/**
+	 * Ensures moveGameObjectToSpace throws an IllegalArgumentException when the game object can't
+	 * move to the space.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testMoveGameObjectToSpaceOccupied()
+	{
+		board.moveGameObjectToSpace(3, 5, createMockGameObject(GameObjectType.UNBREAKABLE_BLOCK, true));
+		board.moveGameObjectToSpace(3, 5, createMockGameObject(GameObjectType.PLAYER, true));
+	}
+
+	/**
+	 * Ensures moveGameObjectToSpace sets the position of the game object.
+	 */
+	@Test
+	public void testMoveGameObjectToSpaceSetsPosition()
+	{
+		IGameObject gameObject = createMockGameObject(GameObjectType.PLAYER, true);
+
+		board.moveGameObjectToSpace(4, 7, gameObject);
+
+		verify(gameObject).setPosition(4, 7);
+		assertTrue(gameObject.onBoard());
+	}
+
+	/**
+	 * Ensures moving a game object which is on the board removes it from its old space.
+	 */
+	@Test
+	public void testMoveGameObjectToSpaceRemovesFromOldSpace()
+	{
+		IGameObject gameObject = createMockGameObject(GameObjectType.PLAYER, true);
+
+		board.moveGameObjectToSpace(4, 7, gameObject);
+		board.moveGameObjectToSpace(4, 8, gameObject);
+
+		assertTrue(board.spaceEmpty(4, 7));
+		assertFalse(board.solidAtSpace(4, 7));
+		assertTrue(board.solidAtSpace(4, 8));
+		assertArrayEquals(new IGameObject[] { gameObject }, board.gameObjectsAtSpace(4, 8));
+	}
+
+	/**
+	 * Ensures removeGameObject throws a NullPointerException for a null game object.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testRemoveGameObjectNull()
+	{
+		board.removeGameObject(null);
+	}
+
+	/**
+	 * Ensures removeGameObject throws an IllegalArgumentException if the game object is not on the
+	 * board.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testRemoveGameObjectNotOnBoard()
+	{
+		board.removeGameObject(createMockGameObject(GameObjectType.PLAYER, true));
+	}
+
+	/**
+	 * Ensures removeGameObject removes the game object from its space and updates the space.
+	 */
+	@Test
+	public void testRemoveGameObject()
+	{
+		IGameObject player = createMockGameObject(GameObjectType.PLAYER, true);
+		IGameObject bomb = createMockGameObject(GameObjectType.BOMB, true);
+
+		board.moveGameObjectToSpace(9, 9, player);
+		board.moveGameObjectToSpace(9, 9, bomb);
+		board.removeGameObject(player);
+
+		assertArrayEquals(new IGameObject[] { bomb }, board.gameObjectsAtSpace(9, 9));
+		assertEquals(bomb.identifier(), board.identifierAtSpace(9, 9, 0));
+		assertFalse(player.onBoard());
+
+		board.removeGameObject(bomb);
+
+		assertTrue(board.spaceEmpty(9, 9));
+		assertFalse(board.solidAtSpace(9, 9));
+		assertFalse(board.bombAtSpace(9, 9));
+	}
+
+	/**
+	 * Ensures the owner of an explosion is tracked as explosions are added and removed.
+	 */
+	@Test
+	public void testExplosionOwner()
+	{
+		IGameObject owner1 = createMockGameObject(GameObjectType.PLAYER, true);
+		IGameObject owner2 = createMockGameObject(GameObjectType.PLAYER, true);
+		IGameObject explosion1 = createMockExplosion(owner1);
+		IGameObject explosion2 = createMockExplosion(owner2);
+
+		board.moveGameObjectToSpace(2, 3, explosion1);
+		board.moveGameObjectToSpace(2, 3, explosion2);
+
+		assertTrue(board.explosionAtSpace(2, 3));
+		assertEquals(owner1.identifier(), board.explosionOwnerAtSpace(2, 3));
+
+		board.removeGameObject(explosion1);
+
+		assertTrue(board.explosionAtSpace(2, 3));
+		assertEquals(owner2.identifier(), board.explosionOwnerAtSpace(2, 3));
+
+		board.removeGameObject(explosion2);
+
+		assertFalse(board.explosionAtSpace(2, 3));
+		assertEquals(PackedBoard.NO_OWNER, board.explosionOwnerAtSpace(2, 3));
+	}
+
+	/**
+	 * Ensures visitGameObjectsAtSpace visits every game object in the space.
+	 */
+	@Test
+	public void testVisitGameObjectsAtSpace()
+	{
+		IGameObject gameObject1 = createMockGameObject(GameObjectType.PLAYER, true);
+		IGameObject gameObject2 = createMockGameObject(GameObjectType.BOMB, true);
+		board.moveGameObjectToSpace(6, 6, gameObject1);
+		board.moveGameObjectToSpace(6, 6, gameObject2);
+
+		final List<IGameObject> visited = new LinkedList<IGameObject>();
+		boolean completed = board.visitGameObjectsAtSpace(6, 6, new IGameObjectVisitor()
+		{
+			public boolean visitGameObject(IGameObject gameObject)
+			{
+				visited.add(gameObject);
+				return true;
+			}
+		});
+
+		assertTrue(completed);
+		assertEquals(2, visited.size());
+		assertTrue(visited.contains(gameObject1));
+		assertTrue(visited.contains(gameObject2));
+	}
+
+	/**
+	 * Ensures visitGameObjectsAtSpace stops when the visitor returns false.
+	 */
+	@Test
+	public void testVisitGameObjectsAtSpaceStops()
+	{
+		board.moveGameObjectToSpace(6, 6, createMockGameObject(GameObjectType.PLAYER, true));
+		board.moveGameObjectToSpace(6, 6, createMockGameObject(GameObjectType.BOMB, true));
+
+		final List<IGameObject> visited = new LinkedList<IGameObject>();
+		boolean completed = board.visitGameObjectsAtSpace(6, 6, new IGameObjectVisitor()
+		{
+			public boolean visitGameObject(IGameObject gameObject)
+			{
+				visited.add(gameObject);
+				return false;
+			}
+		});
+
+		assertFalse(completed);
+		assertEquals(1, visited.size());
+	}
+
+	/**
+	 * Ensures visitGameObjectsAtSpace throws a NullPointerException for a null visitor.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testVisitGameObjectsAtSpaceNull()
+	{
+		board.visitGameObjectsAtSpace(6, 6, null);
+	}
+
+	/**
+	 * Ensures the cursor methods read the game objects of a space.
+	 */
+	@Test
+	public void testCursor()
+	{
+		IGameObject gameObject = createMockGameObject(GameObjectType.PLAYER, true);
+		board.moveGameObjectToSpace(1, 1, gameObject);
+
+		assertEquals(1, board.numberOfGameObjectsAtSpace(1, 1));
+		assertSame(gameObject, board.gameObjectAtSpace(1, 1, 0));
+		assertEquals(gameObject.identifier(), board.identifierAtSpace(1, 1, 0));
+	}
+
+	/**
+	 * Ensures the cursor throws an IndexOutOfBoundsException past the end of the space.
+	 */
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testCursorOutOfBounds()
+	{
+		board.moveGameObjectToSpace(1, 1, createMockGameObject(GameObjectType.PLAYER, true));
+		board.gameObjectAtSpace(1, 1, 1);
+	}
+
+	/**
+	 * Ensures a space can hold more game objects than its initial capacity without disturbing the
+	 * other spaces.
+	 */
+	@Test
+	public void testManyGameObjectsInOneSpace()
+	{
+		IGameObject neighbor = createMockGameObject(GameObjectType.PLAYER, true);
+		board.moveGameObjectToSpace(2, 3, neighbor);
+
+		IGameObject owner = createMockGameObject(GameObjectType.PLAYER, true);
+		IGameObject[] explosions = new IGameObject[10];
+		for (int i = 0; i < explosions.length; i++)
+		{
+			explosions[i] = createMockExplosion(owner);
+			board.moveGameObjectToSpace(2, 2, explosions[i]);
+		}
+
+		assertEquals(10, board.numberOfGameObjectsAtSpace(2, 2));
+		assertEquals(new HashSet<IGameObject>(Arrays.asList(explosions)),
+				new HashSet<IGameObject>(Arrays.asList(board.gameObjectsAtSpace(2, 2))));
+		assertArrayEquals(new IGameObject[] { neighbor }, board.gameObjectsAtSpace(2, 3));
+	}
+
+	/**
+	 * Helper method which creates a mock game object whose position is updated by setPosition and
+	 * removeFromBoard.
+	 * @param type The type of the game object.
+	 * @param solid Whether the game object is solid.
+	 * @return A new mock game object.
+	 */
+	private IGameObject createMockGameObject(GameObjectType type, boolean solid)
+	{
+		final IGameObject mockGameObject = mock(IGameObject.class);
+
+		when(mockGameObject.identifier()).thenReturn(gameObjectIdentifierCounter);
+		gameObjectIdentifierCounter++;
+		when(mockGameObject.type()).thenReturn(type);
+		when(mockGameObject.solid()).thenReturn(solid);
+		when(mockGameObject.onBoard()).thenReturn(false);
+		when(mockGameObject.row()).thenReturn(-1);
+		when(mockGameObject.column()).thenReturn(-1);
+
+		// keep the position of the mock up to date
+		doAnswer(new Answer<Object>()
+		{
+			public Object answer(InvocationOnMock invocation) throws Throwable
+			{
+				Object[] args = invocation.getArguments();
+				when(mockGameObject.row()).thenReturn((Integer) args[0]);
+				when(mockGameObject.column()).thenReturn((Integer) args[1]);
+				when(mockGameObject.onBoard()).thenReturn(true);
+				return null;
+			}
+		}).when(mockGameObject).setPosition(anyInt(), anyInt());
+
+		doAnswer(new Answer<Object>()
+		{
+			public Object answer(InvocationOnMock invocation) throws Throwable
+			{
+				when(mockGameObject.row()).thenReturn(-1);
+				when(mockGameObject.column()).thenReturn(-1);
+				when(mockGameObject.onBoard()).thenReturn(false);
+				return null;
+			}
+		}).when(mockGameObject).removeFromBoard();
+
+		return mockGameObject;
+	}
+
+	/**
+	 * Helper method which creates a mock explosion owned by the provided game object.
+	 * @param owner The owner of the explosion.
+	 * @return A new mock explosion.
+	 */
+	private IGameObject createMockExplosion(IGameObject owner)
+	{
+		IGameObject mockExplosion = createMockGameObject(GameObjectType.EXPLOSION, false);
+		when(mockExplosion.hasOwner()).thenReturn(true);
+		when(mockExplosion.owner()).thenReturn(owner);
+		return mockExplosion;
+	}
+}
@@ -0,0 +1,376 @@
+package server.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import shared.model.GameConfiguration;
+import shared.model.communication.CommunicationException;
+import shared.model.communication.IServerCommunicator;
+import shared.model.communication.SelectorServerCommunicator;
+
+/**
+ * Hosts many independent games in one process.  Each game is played in a GameRoom whose clients
+ * join it through the handshake of a SelectorServerCommunicator listening on a single port, and the
+ * ticks of every room are run by a TickScheduler, earliest deadline first.  A room whose tick
+ * throws an exception fails and is closed alone, and a slow room only holds up the worker running
+ * its tick, since each room schedules its next tick once its last one has finished.  Rooms which
+ * have finished or failed are removed when the waiting rooms are next polled.
+ * <p>
+ * The manager sheds load explicitly.  It is overloaded once more than OVERLOAD_MISS_RATE of the
+ * tasks of the scheduler miss their deadline over LOAD_WINDOW polls, and stays overloaded until a
+ * window passes without a missed deadline.  While it is overloaded, the rooms which only have
+ * spectators are throttled by SPECTATOR_THROTTLE and no room can be opened.  No more than a maximum
+ * number of rooms can be open at any time.
+ */
+public class RoomManager
+{
+	/**
+	 * The time between polls of the players of the waiting rooms in milliseconds.
+	 */
+	public static final int POLL_PERIOD = 100;
+
+	/**
+	 * The number of polls over which the missed deadlines of the scheduler are counted.
+	 */
+	public static final int LOAD_WINDOW = 10;
+
+	/**
+	 * The fraction of the tasks of the scheduler missing their deadline above which the manager is
+	 * overloaded.
+	 */
+	public static final double OVERLOAD_MISS_RATE = 0.05;
+
+	/**
+	 * The number of times slower the rooms which only have spectators tick while the manager is
+	 * overloaded.
+	 */
+	public static final int SPECTATOR_THROTTLE = 4;
+
+	// the number of nanoseconds in a millisecond
+	private static final long NANOSECONDS_PER_MILLISECOND = 1000000L;
+
+	// the communicator whose rooms the clients join
+	private final SelectorServerCommunicator serverCommunicator;
+
+	// the settings of the hosted games
+	private final GameConfiguration configuration;
+
+	// the scheduler running the ticks of the rooms and the polls of the waiting rooms
+	private final TickScheduler scheduler;
+
+	// the largest number of open rooms
+	private final int maximumNumberOfRooms;
+
+	// the rooms by their number, in the order they were opened, guarded by itself
+	private final Map<Integer, GameRoom> rooms;
+
+	// whether too many tasks of the scheduler miss their deadline
+	private volatile boolean overloaded;
+
+	// the number of polls in the current load window, and the number of tasks and missed deadlines
+	// of the scheduler when it started, which are only used by the polls
+	private int numberOfWindowPolls;
+	private long windowTasks;
+	private long windowMissedDeadlines;
+
+	/**
+	 * A runnable which, when run, polls the players of the waiting rooms, removes the rooms which
+	 * have finished or failed, sheds load and schedules itself again.
+	 */
+	private class PollRoomsRunnable implements Runnable
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		public void run()
+		{
+			pollRooms();
+
+			try
+			{
+				scheduler.schedule(this, POLL_PERIOD * NANOSECONDS_PER_MILLISECOND,
+						POLL_PERIOD * NANOSECONDS_PER_MILLISECOND);
+			}
+			catch (RejectedExecutionException exception)
+			{
+				// the manager has been shut down
+			}
+		}
+	}
+
+	/**
+	 * Creates a new RoomManager which has no room, and runs the ticks of the rooms on a scheduler
+	 * with one worker for each processor.
+	 * @param serverCommunicator The communicator whose rooms the clients join.
+	 * @param configuration The settings of the hosted games.
+	 * @param maximumNumberOfRooms The largest number of open rooms.
+	 * @throws NullPointerException Thrown if serverCommunicator or configuration is null.
+	 * @throws IllegalArgumentException Thrown if the maximum number of rooms is less than 1.
+	 */
+	public RoomManager(SelectorServerCommunicator serverCommunicator,
+			GameConfiguration configuration, int maximumNumberOfRooms)
+	{
+		this(serverCommunicator, configuration, maximumNumberOfRooms, new TickScheduler());
+	}
+
+	/**
+	 * Creates a new RoomManager which has no room, and runs the ticks of the rooms on a scheduler,
+	 * which it shuts down when it is shut down.
+	 * @param serverCommunicator The communicator whose rooms the clients join.
+	 * @param configuration The settings of the hosted games.
+	 * @param maximumNumberOfRooms The largest number of open rooms.
+	 * @param scheduler The scheduler running the ticks of the rooms.
+	 * @throws NullPointerException Thrown if serverCommunicator, configuration or scheduler is
+	 * null.
+	 * @throws IllegalArgumentException Thrown if the maximum number of rooms is less than 1.
+	 */
+	public RoomManager(SelectorServerCommunicator serverCommunicator,
+			GameConfiguration configuration, int maximumNumberOfRooms, TickScheduler scheduler)
+	{
+		if (serverCommunicator == null || configuration == null || scheduler == null)
+			throw new NullPointerException();
+
+		if (maximumNumberOfRooms < 1)
+			throw new IllegalArgumentException();
+
+		this.serverCommunicator = serverCommunicator;
+		this.configuration = configuration;
+		this.maximumNumberOfRooms = maximumNumberOfRooms;
+		this.scheduler = scheduler;
+		rooms = new LinkedHashMap<Integer, GameRoom>();
+		windowTasks = scheduler.numberOfTasks();
+		windowMissedDeadlines = scheduler.numberOfMissedDeadlines();
+		scheduler.schedule(new PollRoomsRunnable(), POLL_PERIOD * NANOSECONDS_PER_MILLISECOND,
+				POLL_PERIOD * NANOSECONDS_PER_MILLISECOND);
+	}
+
+	/**
+	 * Opens a room which up to the maximum number of players of the configuration may join.  A room
+	 * is refused while the manager is overloaded or the maximum number of rooms are open.
+	 * @param number The number of the room.
+	 * @return The room, which waits for players.
+	 * @throws IllegalArgumentException Thrown if the number is less than 1.
+	 * @throws IllegalStateException Thrown if a room with the number is open, the room is refused
+	 * or the manager has been shut down.
+	 */
+	public GameRoom openRoom(int number)
+	{
+		if (scheduler.isShutdown() || overloaded)
+			throw new IllegalStateException();
+
+		synchronized (rooms)
+		{
+			if (rooms.containsKey(number) || rooms.size() >= maximumNumberOfRooms)
+				throw new IllegalStateException();
+
+			GameRoom room = createRoom(number, serverCommunicator.openRoom(number,
+					configuration.maximumNumberOfPlayers()));
+			rooms.put(number, room);
+
+			return room;
+		}
+	}
+
+	/**
+	 * Starts the game of a room with the players which have joined it.
+	 * @param number The number of the room.
+	 * @throws IllegalArgumentException Thrown if there is no room with the number.
+	 * @throws IllegalStateException Thrown if the room is not waiting for players, or if no player
+	 * or more than the maximum number of players have joined.
+	 * @throws CommunicationException Thrown if an error occurs while communicating with the clients.
+	 */
+	public void startRoom(int number) throws CommunicationException
+	{
+		GameRoom room = room(number);
+
+		if (room == null)
+			throw new IllegalArgumentException();
+
+		room.start(scheduler);
+	}
+
+	/**
+	 * Closes a room and disconnects its clients.
+	 * @param number The number of the room.
+	 * @throws IllegalArgumentException Thrown if there is no room with the number.
+	 */
+	public void closeRoom(int number)
+	{
+		GameRoom room;
+
+		synchronized (rooms)
+		{
+			room = rooms.remove(number);
+		}
+
+		if (room == null)
+			throw new IllegalArgumentException();
+
+		room.close();
+	}
+
+	/**
+	 * Returns the room with a number.
+	 * @param number The number of the room.
+	 * @return The room, or null if there is no room with the number.
+	 */
+	public GameRoom room(int number)
+	{
+		synchronized (rooms)
+		{
+			return rooms.get(number);
+		}
+	}
+
+	/**
+	 * Returns the rooms which have not been removed, in the order they were opened.
+	 * @return The rooms.
+	 */
+	public GameRoom[] rooms()
+	{
+		synchronized (rooms)
+		{
+			return rooms.values().toArray(new GameRoom[rooms.size()]);
+		}
+	}
+
+	/**
+	 * Returns the largest number of open rooms.
+	 * @return The maximum number of rooms.
+	 */
+	public int maximumNumberOfRooms()
+	{
+		return maximumNumberOfRooms;
+	}
+
+	/**
+	 * Returns true if too many tasks of the scheduler miss their deadline, in which case rooms are
+	 * refused and the rooms which only have spectators are throttled.
+	 * @return True if the manager is overloaded and false otherwise.
+	 */
+	public boolean overloaded()
+	{
+		return overloaded;
+	}
+
+	/**
+	 * Returns the scheduler running the ticks of the rooms.
+	 * @return The tick scheduler.
+	 */
+	public TickScheduler scheduler()
+	{
+		return scheduler;
+	}
+
+	/**
+	 * Returns the number of rooms which have not been removed.
+	 * @return The number of rooms.
+	 */
+	public int numberOfRooms()
+	{
+		synchronized (rooms)
+		{
+			return rooms.size();
+		}
+	}
+
+	/**
+	 * Closes every room and shuts the scheduler down.  The server communicator is left running.
+	 */
+	public void shutdown()
+	{
+		GameRoom[] closedRooms;
+
+		synchronized (rooms)
+		{
+			closedRooms = rooms.values().toArray(new GameRoom[rooms.size()]);
+			rooms.clear();
+		}
+
+		for (GameRoom room : closedRooms)
+			room.close();
+
+		scheduler.shutdown();
+	}
+
+	/**
+	 * Creates a room which waits for players.
+	 * @param number The number of the room.
+	 * @param roomCommunicator The communicator of the clients which join the room.
+	 * @return The room.
+	 */
+	protected GameRoom createRoom(int number, IServerCommunicator roomCommunicator)
+	{
+		return new GameRoom(number, roomCommunicator, configuration);
+	}
+
+	/**
+	 * Polls the players of the waiting rooms, removes the rooms which have finished or failed and
+	 * throttles the rooms which only have spectators while the manager is overloaded.  A room which
+	 * can not be polled is closed.  This method is run by the scheduler every POLL_PERIOD.
+	 */
+	void pollRooms()
+	{
+		updateLoad();
+
+		List<GameRoom> endedRooms = new ArrayList<GameRoom>();
+
+		for (GameRoom room : rooms())
+		{
+			// shed load by slowing down the games nobody plays
+			room.throttle(overloaded && room.spectatorOnly() ? SPECTATOR_THROTTLE : 1);
+
+			try
+			{
+				room.pollPlayers();
+			}
+			catch (CommunicationException exception)
+			{
+				room.close();
+			}
+			catch (RuntimeException exception)
+			{
+				room.close();
+			}
+
+			if (room.state() == GameRoom.State.FINISHED || room.state() == GameRoom.State.FAILED)
+				endedRooms.add(room);
+		}
+
+		synchronized (rooms)
+		{
+			for (GameRoom room : endedRooms)
+			{
+				if (rooms.get(room.number()) == room)
+					rooms.remove(room.number());
+			}
+		}
+	}
+
+	/**
+	 * Private helper method which decides whether the manager is overloaded at the end of each load
+	 * window, from the deadlines the tasks of the scheduler missed during the window.
+	 */
+	private void updateLoad()
+	{
+		if (++numberOfWindowPolls < LOAD_WINDOW)
+			return;
+
+		long tasks = scheduler.numberOfTasks();
+		long missedDeadlines = scheduler.numberOfMissedDeadlines();
+		long numberOfTasks = tasks - windowTasks;
+		long numberOfMissedDeadlines = missedDeadlines - windowMissedDeadlines;
+
+		if (numberOfMissedDeadlines > numberOfTasks * OVERLOAD_MISS_RATE)
+			overloaded = true;
+		else if (numberOfMissedDeadlines == 0)
+			overloaded = false;
+
+		numberOfWindowPolls = 0;
+		windowTasks = tasks;
+		windowMissedDeadlines = missedDeadlines;
+	}
+}
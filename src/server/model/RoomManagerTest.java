@@ -0,0 +1,415 @@
+package server.model;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import shared.model.GameConfiguration;
+import shared.model.communication.CommunicationException;
+import shared.model.communication.IMessage;
+import shared.model.communication.IServerCommunicator;
+import shared.model.communication.SelectorServerCommunicator;
+
+/**
+ * A test class for the RoomManager class.  The rooms are opened on a mock communicator and their
+ * games are stepped by the real workers of a scheduler, so the tests wait for their ticks before
+ * asserting.
+ */
+public class RoomManagerTest
+{
+	// the longest time a test waits for the workers in milliseconds
+	private static final int WAIT_TIMEOUT = 5000;
+
+	// the largest number of open rooms of the test room manager
+	private static final int MAXIMUM_NUMBER_OF_ROOMS = 3;
+
+	// the number of deadlines the scheduler reports as missed on top of its own
+	private volatile long extraMissedDeadlines;
+
+	// whether the rooms created by the test room manager only have spectators
+	private volatile boolean spectatorOnly;
+
+	// the scheduler of the test room manager
+	private TickScheduler scheduler;
+
+	// the settings of the hosted games
+	private GameConfiguration configuration;
+
+	// the mock communicator whose rooms the clients join
+	private SelectorServerCommunicator mockServerCommunicator;
+
+	// the test room manager
+	private RoomManager roomManager;
+
+	/**
+	 * A scheduler which reports extra missed deadlines, to overload the manager.
+	 */
+	private class TestTickScheduler extends TickScheduler
+	{
+		/**
+		 * Creates a new TestTickScheduler.
+		 * @param numberOfWorkers The number of worker threads.
+		 */
+		private TestTickScheduler(int numberOfWorkers)
+		{
+			super(numberOfWorkers);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public long numberOfMissedDeadlines()
+		{
+			return super.numberOfMissedDeadlines() + extraMissedDeadlines;
+		}
+	}
+
+	/**
+	 * A room manager whose rooms may be told to only have spectators.
+	 */
+	private class TestRoomManager extends RoomManager
+	{
+		/**
+		 * Creates a new TestRoomManager.
+		 */
+		private TestRoomManager()
+		{
+			super(mockServerCommunicator, configuration, MAXIMUM_NUMBER_OF_ROOMS, scheduler);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected GameRoom createRoom(int number, IServerCommunicator roomCommunicator)
+		{
+			return new GameRoom(number, roomCommunicator, configuration)
+			{
+				@Override
+				public boolean spectatorOnly()
+				{
+					return spectatorOnly && state() == State.RUNNING;
+				}
+			};
+		}
+	}
+
+	/**
+	 * Sets up the test.
+	 */
+	@Before
+	public void setUp()
+	{
+		configuration = new GameConfiguration();
+		mockServerCommunicator = mock(SelectorServerCommunicator.class);
+		scheduler = new TestTickScheduler(2);
+		roomManager = new TestRoomManager();
+	}
+
+	/**
+	 * Shuts the room manager down.
+	 */
+	@After
+	public void tearDown()
+	{
+		roomManager.shutdown();
+	}
+
+	/**
+	 * Ensures the constructor throws a NullPointerException when the communicator is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorNullCommunicator()
+	{
+		new RoomManager(null, configuration, 2, scheduler);
+	}
+
+	/**
+	 * Ensures the constructor throws a NullPointerException when the scheduler is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorNullScheduler()
+	{
+		new RoomManager(mockServerCommunicator, configuration, 2, null);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when no room may be opened.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorNoRooms()
+	{
+		new RoomManager(mockServerCommunicator, configuration, 0, scheduler);
+	}
+
+	/**
+	 * Ensures the default scheduler has a worker for each processor.
+	 */
+	@Test
+	public void testDefaultScheduler()
+	{
+		RoomManager defaultRoomManager = new RoomManager(mockServerCommunicator, configuration, 2);
+		assertEquals(2, defaultRoomManager.maximumNumberOfRooms());
+		assertEquals(Runtime.getRuntime().availableProcessors(),
+				defaultRoomManager.scheduler().numberOfWorkers());
+		defaultRoomManager.shutdown();
+		assertTrue(defaultRoomManager.scheduler().isShutdown());
+	}
+
+	/**
+	 * Ensures a room is opened on the communicator with the maximum number of players as its
+	 * capacity.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testOpenRoom() throws CommunicationException
+	{
+		IServerCommunicator roomCommunicator = mockRoomCommunicator(1, 2);
+		GameRoom room = roomManager.openRoom(1);
+
+		verify(mockServerCommunicator).openRoom(1, configuration.maximumNumberOfPlayers());
+		assertSame(roomCommunicator, room.serverCommunicator());
+		assertSame(room, roomManager.room(1));
+		assertEquals(1, roomManager.numberOfRooms());
+		assertEquals(GameRoom.State.WAITING, room.state());
+	}
+
+	/**
+	 * Ensures a room can not be opened twice.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testOpenRoomTwice() throws CommunicationException
+	{
+		mockRoomCommunicator(1, 2);
+		roomManager.openRoom(1);
+		roomManager.openRoom(1);
+	}
+
+	/**
+	 * Ensures no more than the maximum number of rooms can be open.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testOpenRoomBeyondCapacity() throws CommunicationException
+	{
+		for (int number = 0; number <= MAXIMUM_NUMBER_OF_ROOMS; number++)
+			mockRoomCommunicator(number, 2);
+
+		for (int number = 0; number < MAXIMUM_NUMBER_OF_ROOMS; number++)
+			roomManager.openRoom(number);
+
+		try
+		{
+			roomManager.openRoom(MAXIMUM_NUMBER_OF_ROOMS);
+			fail();
+		}
+		catch (IllegalStateException exception)
+		{
+			// expected
+		}
+
+		roomManager.closeRoom(0);
+		roomManager.openRoom(MAXIMUM_NUMBER_OF_ROOMS);
+	}
+
+	/**
+	 * Ensures that once too many deadlines are missed, the manager refuses rooms and throttles the
+	 * rooms which only have spectators, until a load window passes without a missed deadline.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testOverloadSheds() throws Exception
+	{
+		mockRoomCommunicator(1, 2);
+		mockRoomCommunicator(2, 2);
+		mockRoomCommunicator(3, 2);
+		roomManager.openRoom(1);
+		roomManager.openRoom(2);
+		roomManager.startRoom(1);
+		roomManager.startRoom(2);
+		spectatorOnly = true;
+
+		// both running rooms play on until the manager is overloaded
+		assertFalse(roomManager.room(1).gameLoop().throttled());
+		extraMissedDeadlines = 1000;
+		waitForOverload(true);
+
+		try
+		{
+			roomManager.openRoom(3);
+			fail();
+		}
+		catch (IllegalStateException exception)
+		{
+			// expected
+		}
+
+		waitForThrottle(true);
+		assertTrue(roomManager.room(2).gameLoop().throttled());
+
+		waitForOverload(false);
+		waitForThrottle(false);
+		roomManager.openRoom(3);
+	}
+
+	/**
+	 * Ensures starting a room which does not exist throws an IllegalArgumentException.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testStartUnknownRoom() throws CommunicationException
+	{
+		roomManager.startRoom(1);
+	}
+
+	/**
+	 * Ensures the waiting rooms are polled by the workers.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testWaitingRoomsPolled() throws Exception
+	{
+		IServerCommunicator roomCommunicator = mockRoomCommunicator(1, 2);
+		roomManager.openRoom(1);
+
+		Thread.sleep(RoomManager.POLL_PERIOD * 3);
+
+		verify(roomCommunicator, atLeast(2)).sendMessages(any(IMessage.class));
+	}
+
+	/**
+	 * Ensures a room whose tick fails is closed and removed, while the other rooms keep running.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testFailingRoomIsolated() throws Exception
+	{
+		IServerCommunicator failingCommunicator = mockRoomCommunicator(1, 2);
+		mockRoomCommunicator(2, 2);
+
+		// the mock is stubbed before the workers step the game, since stubbing is not thread safe
+		when(failingCommunicator.receivedMessages()).thenThrow(new IllegalStateException());
+
+		GameRoom failingRoom = roomManager.openRoom(1);
+		GameRoom room = roomManager.openRoom(2);
+		roomManager.startRoom(1);
+		roomManager.startRoom(2);
+
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+
+		while (roomManager.numberOfRooms() > 1 && System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+
+		assertEquals(GameRoom.State.FAILED, failingRoom.state());
+		assertNull(roomManager.room(1));
+		verify(failingCommunicator, timeout(WAIT_TIMEOUT)).disconnect();
+
+		long numberOfTicks = room.gameLoop().numberOfTicks();
+		Thread.sleep(300);
+
+		assertEquals(GameRoom.State.RUNNING, room.state());
+		assertTrue(room.gameLoop().numberOfTicks() > numberOfTicks);
+	}
+
+	/**
+	 * Ensures closing a room closes and removes it.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testCloseRoom() throws CommunicationException
+	{
+		IServerCommunicator roomCommunicator = mockRoomCommunicator(1, 2);
+		GameRoom room = roomManager.openRoom(1);
+		roomManager.startRoom(1);
+
+		roomManager.closeRoom(1);
+
+		assertEquals(GameRoom.State.FINISHED, room.state());
+		assertFalse(room.gameLoop().running());
+		assertEquals(0, roomManager.numberOfRooms());
+		verify(roomCommunicator).disconnect();
+	}
+
+	/**
+	 * Ensures shutting the manager down closes every room, after which no room can be opened.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test
+	public void testShutdown() throws CommunicationException
+	{
+		IServerCommunicator roomCommunicator = mockRoomCommunicator(1, 2);
+		GameRoom room = roomManager.openRoom(1);
+
+		roomManager.shutdown();
+
+		assertEquals(GameRoom.State.FINISHED, room.state());
+		assertEquals(0, roomManager.numberOfRooms());
+		verify(roomCommunicator).disconnect();
+
+		try
+		{
+			roomManager.openRoom(2);
+			fail();
+		}
+		catch (IllegalStateException exception)
+		{
+			// expected
+		}
+	}
+
+	/**
+	 * Helper method which waits until the manager is overloaded or not.
+	 * @param overloaded Whether the manager should be overloaded.
+	 * @throws InterruptedException This should not happen.
+	 */
+	private void waitForOverload(boolean overloaded) throws InterruptedException
+	{
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+
+		while (roomManager.overloaded() != overloaded && System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+
+		assertEquals(overloaded, roomManager.overloaded());
+	}
+
+	/**
+	 * Helper method which waits until the game of the first room is throttled or not.
+	 * @param throttled Whether the game should be throttled.
+	 * @throws InterruptedException This should not happen.
+	 */
+	private void waitForThrottle(boolean throttled) throws InterruptedException
+	{
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+		GameLoop gameLoop = roomManager.room(1).gameLoop();
+
+		while (gameLoop.throttled() != throttled && System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+
+		assertEquals(throttled, gameLoop.throttled());
+	}
+
+	/**
+	 * Helper method which has the mock communicator open a mock room which players have joined.
+	 * @param number The number of the room.
+	 * @param numberOfPlayers The number of players in the room.
+	 * @return The mock communicator of the room.
+	 * @throws CommunicationException This should not happen.
+	 */
+	private IServerCommunicator mockRoomCommunicator(int number, int numberOfPlayers)
+			throws CommunicationException
+	{
+		IServerCommunicator roomCommunicator = mock(IServerCommunicator.class);
+		when(roomCommunicator.numberOfConnectedCommunicators()).thenReturn(numberOfPlayers);
+		when(roomCommunicator.listening()).thenReturn(true, false);
+		when(roomCommunicator.receivedMessages()).thenReturn(new IMessage[0]);
+		when(mockServerCommunicator.openRoom(number, configuration.maximumNumberOfPlayers()))
+				.thenReturn(roomCommunicator);
+
+		return roomCommunicator;
+	}
+}
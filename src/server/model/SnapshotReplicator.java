@@ -0,0 +1,172 @@
+package server.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+import shared.model.communication.GameState;
+import shared.model.communication.IMessage;
+import shared.model.communication.SnapshotMessage;
+
+/**
+ * Replicates the state of a game as snapshots.  The replicator keeps the states of the last
+ * HISTORY_LENGTH ticks and the latest tick each client acknowledged, and every tick it sends the
+ * changes from each acknowledged state which is still in the history.  A client which has not
+ * acknowledged a state, or whose acknowledged state has left the history, is sent a keyframe of the
+ * whole state at most every KEYFRAME_RETRY_INTERVAL ticks, and every client is sent one every
+ * KEYFRAME_INTERVAL ticks.  The server communicator sends every message to every client, so a
+ * snapshot is sent once per distinct baseline, and each client applies the first snapshot of a tick
+ * whose baseline it holds.  Only the MAXIMUM_BASELINES most recent baselines are used, so that the
+ * snapshots of a tick do not grow with the number of clients, and a client whose baseline is left
+ * out is treated like a client without a baseline.
+ */
+public class SnapshotReplicator
+{
+	/**
+	 * The number of ticks whose states are kept as baselines.
+	 */
+	public static final int HISTORY_LENGTH = 32;
+
+	/**
+	 * The number of ticks between the keyframes sent to every client.
+	 */
+	public static final int KEYFRAME_INTERVAL = 50;
+
+	/**
+	 * The smallest number of ticks between the keyframes sent to clients without a baseline, which
+	 * is long enough for a keyframe to be acknowledged, so that a stalled client does not make every
+	 * snapshot a keyframe.
+	 */
+	public static final int KEYFRAME_RETRY_INTERVAL = 10;
+
+	/**
+	 * The largest number of baselines a snapshot is sent from in each tick.
+	 */
+	public static final int MAXIMUM_BASELINES = 2;
+
+	// the states of the last ticks, indexed by tick modulo HISTORY_LENGTH
+	private final GameState[] history;
+
+	// the latest tick acknowledged by each client, or null if the client has not acknowledged one
+	private final HashMap<Integer, Integer> acknowledgedTicks;
+
+	// the tick of the next snapshot
+	private int tick;
+
+	// the tick of the latest keyframe, or -KEYFRAME_RETRY_INTERVAL if none has been sent
+	private int keyframeTick;
+
+	/**
+	 * Creates a SnapshotReplicator without clients.
+	 */
+	public SnapshotReplicator()
+	{
+		history = new GameState[HISTORY_LENGTH];
+		acknowledgedTicks = new HashMap<Integer, Integer>();
+		keyframeTick = -KEYFRAME_RETRY_INTERVAL;
+	}
+
+	/**
+	 * Adds a client, which is sent keyframes until it acknowledges one.
+	 * @param identifier The identifier of the player game object of the client.
+	 */
+	public void addClient(int identifier)
+	{
+		acknowledgedTicks.put(identifier, null);
+	}
+
+	/**
+	 * Records that a client has applied the snapshot of a tick.  Acknowledgements of unknown clients
+	 * or ticks which have not been sent are ignored, as are acknowledgements older than the latest.
+	 * @param identifier The identifier of the player game object of the client.
+	 * @param tick The tick of the applied snapshot.
+	 */
+	public void acknowledge(int identifier, int tick)
+	{
+		if (!acknowledgedTicks.containsKey(identifier) || tick >= this.tick)
+			return;
+
+		Integer acknowledgedTick = acknowledgedTicks.get(identifier);
+
+		if (acknowledgedTick == null || acknowledgedTick < tick)
+			acknowledgedTicks.put(identifier, tick);
+	}
+
+	/**
+	 * Returns the tick of the next snapshot.
+	 * @return The tick of the next snapshot.
+	 */
+	public int tick()
+	{
+		return tick;
+	}
+
+	/**
+	 * Returns the snapshots of the state of the current tick, each made of a SnapshotMessage followed
+	 * by its changes, and advances to the next tick.  Snapshots from more recent baselines come
+	 * first and the keyframe, if one is needed, comes last.
+	 * @param state The state of the current tick, which is kept and must not be changed afterwards.
+	 * @return The messages of the snapshots.
+	 * @throws NullPointerException Thrown if the state is null.
+	 */
+	public IMessage[] snapshot(GameState state)
+	{
+		if (state == null)
+			throw new NullPointerException();
+
+		// every client is sent a keyframe periodically, so no baselines are needed then
+		boolean keyframe = tick % KEYFRAME_INTERVAL == 0;
+		TreeSet<Integer> baselineTicks = new TreeSet<Integer>();
+
+		if (!keyframe)
+		{
+			boolean clientWithoutBaseline = false;
+
+			for (Integer acknowledgedTick : acknowledgedTicks.values())
+			{
+				if (acknowledgedTick == null || tick - acknowledgedTick >= HISTORY_LENGTH)
+					clientWithoutBaseline = true;
+				else
+					baselineTicks.add(acknowledgedTick);
+			}
+
+			while (baselineTicks.size() > MAXIMUM_BASELINES)
+			{
+				baselineTicks.pollFirst();
+				clientWithoutBaseline = true;
+			}
+
+			keyframe = clientWithoutBaseline && tick - keyframeTick >= KEYFRAME_RETRY_INTERVAL;
+		}
+
+		ArrayList<IMessage> messages = new ArrayList<IMessage>();
+
+		for (int baselineTick : baselineTicks.descendingSet())
+			addSnapshot(messages, baselineTick,
+					state.changesFrom(history[baselineTick % HISTORY_LENGTH]));
+
+		if (keyframe)
+		{
+			addSnapshot(messages, SnapshotMessage.KEYFRAME, state.changesFrom(null));
+			keyframeTick = tick;
+		}
+
+		history[tick % HISTORY_LENGTH] = state;
+		tick++;
+
+		return messages.toArray(new IMessage[messages.size()]);
+	}
+
+	/**
+	 * Private helper method which adds a snapshot of the current tick to a list of messages.
+	 * @param messages The messages.
+	 * @param baselineTick The baseline tick of the snapshot.
+	 * @param changes The changes of the snapshot.
+	 */
+	private void addSnapshot(ArrayList<IMessage> messages, int baselineTick, IMessage[] changes)
+	{
+		messages.add(new SnapshotMessage(tick, baselineTick, changes.length));
+		messages.addAll(Arrays.asList(changes));
+	}
+}
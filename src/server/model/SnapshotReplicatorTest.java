@@ -0,0 +1,181 @@
+package server.model;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import shared.model.GameObjectType;
+import shared.model.communication.GameState;
+import shared.model.communication.IMessage;
+
+/**
+ * Tests SnapshotReplicator.  Messages do not override equals, so they are compared through their
+ * text form.
+ */
+public class SnapshotReplicatorTest
+{
+	// the test replicator
+	private SnapshotReplicator replicator;
+
+	/**
+	 * Sets up the tests with two clients.
+	 */
+	@Before
+	public void setUp()
+	{
+		replicator = new SnapshotReplicator();
+		replicator.addClient(1);
+		replicator.addClient(2);
+	}
+
+	/**
+	 * Ensures the clients are sent a keyframe every KEYFRAME_RETRY_INTERVAL ticks until they
+	 * acknowledge one.
+	 */
+	@Test
+	public void testKeyframeRetriedUntilAcknowledged()
+	{
+		assertMessages(new String[] { "SNAPSHOT 0 -1 1", "GAME_OBJECT_CREATED 1 PLAYER 1 1" },
+				replicator.snapshot(state(1)));
+
+		for (int tick = 1; tick < SnapshotReplicator.KEYFRAME_RETRY_INTERVAL; tick++)
+			assertEquals(0, replicator.snapshot(state(2)).length);
+
+		assertMessages(new String[] { "SNAPSHOT 10 -1 1", "GAME_OBJECT_CREATED 1 PLAYER 1 2" },
+				replicator.snapshot(state(2)));
+		assertEquals(11, replicator.tick());
+	}
+
+	/**
+	 * Ensures a snapshot is sent as the changes from each acknowledged state, from the most recent.
+	 */
+	@Test
+	public void testDeltaFromAcknowledgedStates()
+	{
+		replicator.snapshot(state(1));
+		replicator.snapshot(state(2));
+		replicator.acknowledge(1, 0);
+		replicator.acknowledge(2, 1);
+
+		assertMessages(new String[] { "SNAPSHOT 2 1 1", "GAME_OBJECT_POSITION_UPDATED 1 1 1",
+				"SNAPSHOT 2 0 0" }, replicator.snapshot(state(1)));
+		assertMessages(new String[] { "SNAPSHOT 3 1 1", "GAME_OBJECT_POSITION_UPDATED 1 1 3",
+				"SNAPSHOT 3 0 1", "GAME_OBJECT_POSITION_UPDATED 1 1 3" },
+				replicator.snapshot(state(3)));
+	}
+
+	/**
+	 * Ensures a snapshot is only sent from the most recent baselines, and that a client whose
+	 * baseline is left out is sent a keyframe every KEYFRAME_RETRY_INTERVAL ticks.
+	 */
+	@Test
+	public void testBaselinesLimited()
+	{
+		replicator.addClient(3);
+		replicator.snapshot(state(1));
+		replicator.snapshot(state(2));
+		replicator.snapshot(state(3));
+		replicator.acknowledge(1, 0);
+		replicator.acknowledge(2, 1);
+		replicator.acknowledge(3, 2);
+
+		assertMessages(new String[] { "SNAPSHOT 3 2 0", "SNAPSHOT 3 1 1",
+				"GAME_OBJECT_POSITION_UPDATED 1 1 3" }, replicator.snapshot(state(3)));
+
+		for (int tick = 4; tick < SnapshotReplicator.KEYFRAME_RETRY_INTERVAL; tick++)
+			assertEquals(3, replicator.snapshot(state(3)).length);
+
+		assertMessages(new String[] { "SNAPSHOT 10 2 0", "SNAPSHOT 10 1 1",
+				"GAME_OBJECT_POSITION_UPDATED 1 1 3", "SNAPSHOT 10 -1 1",
+				"GAME_OBJECT_CREATED 1 PLAYER 1 3" }, replicator.snapshot(state(3)));
+	}
+
+	/**
+	 * Ensures acknowledgements of unknown clients, unsent ticks and ticks older than the latest
+	 * acknowledged one are ignored.
+	 */
+	@Test
+	public void testIgnoredAcknowledgements()
+	{
+		replicator.snapshot(state(1));
+		replicator.snapshot(state(2));
+		replicator.acknowledge(1, 1);
+		replicator.acknowledge(1, 0);
+		replicator.acknowledge(2, 1);
+		replicator.acknowledge(2, 5);
+		replicator.acknowledge(3, 0);
+
+		assertMessages(new String[] { "SNAPSHOT 2 1 0" }, replicator.snapshot(state(2)));
+	}
+
+	/**
+	 * Ensures a client whose acknowledged state has left the history is sent a keyframe.
+	 */
+	@Test
+	public void testKeyframeAfterHistory()
+	{
+		replicator.snapshot(state(1));
+		replicator.acknowledge(1, 0);
+		replicator.acknowledge(2, 0);
+
+		for (int tick = 1; tick < SnapshotReplicator.HISTORY_LENGTH; tick++)
+			replicator.snapshot(state(1));
+
+		replicator.acknowledge(2, SnapshotReplicator.HISTORY_LENGTH - 1);
+
+		assertMessages(new String[] { "SNAPSHOT 32 31 0", "SNAPSHOT 32 -1 1",
+				"GAME_OBJECT_CREATED 1 PLAYER 1 1" }, replicator.snapshot(state(1)));
+	}
+
+	/**
+	 * Ensures every client is sent a keyframe every KEYFRAME_INTERVAL ticks.
+	 */
+	@Test
+	public void testPeriodicKeyframe()
+	{
+		for (int tick = 0; tick < SnapshotReplicator.KEYFRAME_INTERVAL; tick++)
+		{
+			replicator.snapshot(state(1));
+			replicator.acknowledge(1, tick);
+			replicator.acknowledge(2, tick);
+		}
+
+		assertMessages(new String[] { "SNAPSHOT 50 -1 1", "GAME_OBJECT_CREATED 1 PLAYER 1 1" },
+				replicator.snapshot(state(1)));
+	}
+
+	/**
+	 * Ensures snapshot throws a NullPointerException when the state is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testSnapshotNull()
+	{
+		replicator.snapshot(null);
+	}
+
+	/**
+	 * Private helper method which returns a state with a player in the first row.
+	 * @param column The column of the player.
+	 * @return The state.
+	 */
+	private static GameState state(int column)
+	{
+		GameState state = new GameState();
+		state.putGameObject(1, GameObjectType.PLAYER, 1, column);
+		return state;
+	}
+
+	/**
+	 * Private helper method which asserts the text forms of a list of messages.
+	 * @param expected The expected text forms.
+	 * @param messages The messages.
+	 */
+	private static void assertMessages(String[] expected, IMessage[] messages)
+	{
+		assertEquals(expected.length, messages.length);
+
+		for (int i = 0; i < expected.length; i++)
+			assertEquals(expected[i], messages[i].toString());
+	}
+}
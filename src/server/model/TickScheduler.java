@@ -0,0 +1,330 @@
+package server.model;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs tasks on a fixed pool of worker threads, earliest deadline first.  Each task is scheduled
+ * with the time it is released, before which it is not run, and its deadline, by which it should
+ * have finished.  Whenever a worker is free it runs the released task whose deadline is earliest,
+ * so under load the ticks which are closest to missing their deadlines run first, rather than the
+ * ones which were scheduled first.  The pool has one worker for each processor unless another
+ * number is provided, since ticks only compute and never block.
+ * <p>
+ * The scheduler counts the tasks which finish after their deadline, so that its users can tell
+ * when it is overloaded.  A task which throws an exception does not stop its worker.
+ */
+public class TickScheduler
+{
+	// the number of nanoseconds in a millisecond
+	private static final long NANOSECONDS_PER_MILLISECOND = 1000000L;
+
+	/**
+	 * A scheduled task with its release time and deadline.
+	 */
+	private static class Task
+	{
+		// the runnable run by the task
+		private final Runnable runnable;
+
+		// the time the task is released and its deadline, on the clock of nanoTime
+		private final long releaseTime;
+		private final long deadline;
+
+		// the number of tasks scheduled before the task
+		private final long sequenceNumber;
+
+		/**
+		 * Creates a task.
+		 * @param runnable The runnable run by the task.
+		 * @param releaseTime The time the task is released.
+		 * @param deadline The time the task should have finished by.
+		 * @param sequenceNumber The number of tasks scheduled before the task.
+		 */
+		public Task(Runnable runnable, long releaseTime, long deadline, long sequenceNumber)
+		{
+			this.runnable = runnable;
+			this.releaseTime = releaseTime;
+			this.deadline = deadline;
+			this.sequenceNumber = sequenceNumber;
+		}
+	}
+
+	/**
+	 * Orders tasks by their release time, and then by their scheduling.
+	 */
+	private static class ReleaseTimeComparator implements Comparator<Task>
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		public int compare(Task task1, Task task2)
+		{
+			// the times are compared by their difference, since nanoTime may overflow
+			long difference = task1.releaseTime - task2.releaseTime;
+
+			if (difference != 0)
+				return difference < 0 ? -1 : 1;
+
+			return task1.sequenceNumber < task2.sequenceNumber ? -1 : 1;
+		}
+	}
+
+	/**
+	 * Orders tasks by their deadline, and then by their scheduling.
+	 */
+	private static class DeadlineComparator implements Comparator<Task>
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		public int compare(Task task1, Task task2)
+		{
+			long difference = task1.deadline - task2.deadline;
+
+			if (difference != 0)
+				return difference < 0 ? -1 : 1;
+
+			return task1.sequenceNumber < task2.sequenceNumber ? -1 : 1;
+		}
+	}
+
+	/**
+	 * A runnable which, when run, runs the tasks as workers until the scheduler is shut down.
+	 */
+	private class WorkerRunnable implements Runnable
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		public void run()
+		{
+			runTasks();
+		}
+	}
+
+	// the tasks which have not been released, guarded by this scheduler
+	private final PriorityQueue<Task> pendingTasks;
+
+	// the released tasks which no worker has started, guarded by this scheduler
+	private final PriorityQueue<Task> releasedTasks;
+
+	// the worker threads
+	private final Thread[] workers;
+
+	// the number of tasks scheduled, guarded by this scheduler
+	private long numberOfScheduledTasks;
+
+	// the number of tasks run and the number of those which finished after their deadline
+	private volatile long numberOfTasks;
+	private volatile long numberOfMissedDeadlines;
+
+	// the time from the release of each task until a worker started it
+	private final Histogram lateness;
+
+	// whether the scheduler has been shut down, guarded by this scheduler
+	private boolean shutdown;
+
+	/**
+	 * Creates a new TickScheduler with one worker for each available processor, and starts the
+	 * workers.
+	 */
+	public TickScheduler()
+	{
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a new TickScheduler and starts its workers.
+	 * @param numberOfWorkers The number of worker threads.
+	 * @throws IllegalArgumentException Thrown if the number of workers is less than 1.
+	 */
+	public TickScheduler(int numberOfWorkers)
+	{
+		if (numberOfWorkers < 1)
+			throw new IllegalArgumentException();
+
+		pendingTasks = new PriorityQueue<Task>(16, new ReleaseTimeComparator());
+		releasedTasks = new PriorityQueue<Task>(16, new DeadlineComparator());
+		lateness = new Histogram();
+		workers = new Thread[numberOfWorkers];
+
+		for (int i = 0; i < workers.length; i++)
+		{
+			workers[i] = new Thread(new WorkerRunnable(), "Tick worker " + (i + 1));
+			workers[i].setDaemon(true);
+			workers[i].start();
+		}
+	}
+
+	/**
+	 * Schedules a task to be run once, after a delay and before a deadline.
+	 * @param runnable The task.
+	 * @param delay The time until the task is released in nanoseconds, which may be 0.
+	 * @param relativeDeadline The time after its release by which the task should have finished in
+	 * nanoseconds.
+	 * @throws NullPointerException Thrown if the task is null.
+	 * @throws IllegalArgumentException Thrown if the delay is negative or the relative deadline is
+	 * less than 1.
+	 * @throws RejectedExecutionException Thrown if the scheduler has been shut down.
+	 */
+	public synchronized void schedule(Runnable runnable, long delay, long relativeDeadline)
+	{
+		if (runnable == null)
+			throw new NullPointerException();
+
+		if (delay < 0 || relativeDeadline < 1)
+			throw new IllegalArgumentException();
+
+		if (shutdown)
+			throw new RejectedExecutionException();
+
+		long releaseTime = nanoTime() + delay;
+		pendingTasks.add(new Task(runnable, releaseTime, releaseTime + relativeDeadline,
+				numberOfScheduledTasks++));
+
+		// wake the workers, which may be waiting for a later release
+		notifyAll();
+	}
+
+	/**
+	 * Returns the number of worker threads.
+	 * @return The number of workers.
+	 */
+	public int numberOfWorkers()
+	{
+		return workers.length;
+	}
+
+	/**
+	 * Returns the number of tasks which have been run.
+	 * @return The number of tasks run.
+	 */
+	public long numberOfTasks()
+	{
+		return numberOfTasks;
+	}
+
+	/**
+	 * Returns the number of tasks which finished after their deadline.
+	 * @return The number of missed deadlines.
+	 */
+	public long numberOfMissedDeadlines()
+	{
+		return numberOfMissedDeadlines;
+	}
+
+	/**
+	 * Returns the histogram of the time from the release of each task until a worker started it.
+	 * @return The histogram of the task lateness.
+	 */
+	public Histogram lateness()
+	{
+		return lateness;
+	}
+
+	/**
+	 * Stops the workers once they have finished the tasks they are running.  The tasks which have
+	 * not started are never run, and no task can be scheduled any longer.
+	 */
+	public synchronized void shutdown()
+	{
+		shutdown = true;
+		pendingTasks.clear();
+		releasedTasks.clear();
+		notifyAll();
+	}
+
+	/**
+	 * Returns true if the scheduler has been shut down.
+	 * @return True if the scheduler has been shut down and false otherwise.
+	 */
+	public synchronized boolean isShutdown()
+	{
+		return shutdown;
+	}
+
+	/**
+	 * Returns the current time of the monotonic clock the tasks are scheduled against.
+	 * @return The current time in nanoseconds, from an arbitrary origin.
+	 */
+	protected long nanoTime()
+	{
+		return System.nanoTime();
+	}
+
+	/**
+	 * Private helper method which runs the released tasks, earliest deadline first, until the
+	 * scheduler is shut down.  This method is run by each worker.
+	 */
+	private void runTasks()
+	{
+		while (true)
+		{
+			Task task = nextTask();
+
+			if (task == null)
+				return;
+
+			long start = nanoTime();
+			lateness.record(Math.max(0, start - task.releaseTime));
+
+			try
+			{
+				task.runnable.run();
+			}
+			catch (RuntimeException exception)
+			{
+				// the task failed, which its scheduler has to handle, but the worker carries on
+			}
+
+			long end = nanoTime();
+
+			synchronized (this)
+			{
+				numberOfTasks++;
+
+				if (end - task.deadline > 0)
+					numberOfMissedDeadlines++;
+			}
+		}
+	}
+
+	/**
+	 * Private helper method which waits for a task to be released and takes the released task
+	 * whose deadline is earliest.
+	 * @return The task, or null if the scheduler has been shut down.
+	 */
+	private synchronized Task nextTask()
+	{
+		try
+		{
+			while (!shutdown)
+			{
+				long now = nanoTime();
+
+				while (!pendingTasks.isEmpty() && pendingTasks.peek().releaseTime - now <= 0)
+					releasedTasks.add(pendingTasks.poll());
+
+				if (!releasedTasks.isEmpty())
+					return releasedTasks.poll();
+
+				if (pendingTasks.isEmpty())
+					wait();
+				else
+				{
+					long delay = pendingTasks.peek().releaseTime - now;
+					wait(delay / NANOSECONDS_PER_MILLISECOND,
+							(int) (delay % NANOSECONDS_PER_MILLISECOND));
+				}
+			}
+		}
+		catch (InterruptedException exception)
+		{
+			// the worker is stopped
+		}
+
+		return null;
+	}
+}
@@ -0,0 +1,258 @@
+package server.model;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A test class for the TickScheduler class.  The tasks run on the real workers of the scheduler,
+ * so the tests wait for them before asserting.
+ */
+public class TickSchedulerTest
+{
+	// the number of nanoseconds in a millisecond
+	private static final long MILLISECOND = 1000000L;
+
+	// the longest time a test waits for the workers in milliseconds
+	private static final int WAIT_TIMEOUT = 5000;
+
+	// the test scheduler, which has a single worker
+	private TickScheduler scheduler;
+
+	// the names of the tasks in the order they were run
+	private List<String> runTasks;
+
+	/**
+	 * A task which records its name when it is run.
+	 */
+	private class NamedTask implements Runnable
+	{
+		// the name of the task
+		private final String name;
+
+		/**
+		 * Creates a named task.
+		 * @param name The name of the task.
+		 */
+		public NamedTask(String name)
+		{
+			this.name = name;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public void run()
+		{
+			synchronized (runTasks)
+			{
+				runTasks.add(name);
+				runTasks.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Sets up the test.
+	 */
+	@Before
+	public void setUp()
+	{
+		scheduler = new TickScheduler(1);
+		runTasks = new ArrayList<String>();
+	}
+
+	/**
+	 * Shuts the scheduler down.
+	 */
+	@After
+	public void tearDown()
+	{
+		scheduler.shutdown();
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when there is no worker.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorNoWorkers()
+	{
+		new TickScheduler(0);
+	}
+
+	/**
+	 * Ensures the default scheduler has a worker for each processor.
+	 */
+	@Test
+	public void testDefaultNumberOfWorkers()
+	{
+		TickScheduler defaultScheduler = new TickScheduler();
+		assertEquals(Runtime.getRuntime().availableProcessors(), defaultScheduler.numberOfWorkers());
+		defaultScheduler.shutdown();
+	}
+
+	/**
+	 * Ensures schedule throws a NullPointerException when the task is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testScheduleNull()
+	{
+		scheduler.schedule(null, 0, MILLISECOND);
+	}
+
+	/**
+	 * Ensures schedule throws an IllegalArgumentException when the delay is negative.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testScheduleNegativeDelay()
+	{
+		scheduler.schedule(new NamedTask("A"), -1, MILLISECOND);
+	}
+
+	/**
+	 * Ensures schedule throws a RejectedExecutionException once the scheduler has been shut down.
+	 */
+	@Test(expected = RejectedExecutionException.class)
+	public void testScheduleAfterShutdown()
+	{
+		scheduler.shutdown();
+		assertTrue(scheduler.isShutdown());
+		scheduler.schedule(new NamedTask("A"), 0, MILLISECOND);
+	}
+
+	/**
+	 * Ensures the released tasks are run earliest deadline first, rather than in the order they
+	 * were scheduled.
+	 * @throws InterruptedException This should not happen.
+	 */
+	@Test
+	public void testEarliestDeadlineFirst() throws InterruptedException
+	{
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch blocked = new CountDownLatch(1);
+
+		// keep the only worker busy while the other tasks are scheduled
+		scheduler.schedule(new Runnable()
+		{
+			public void run()
+			{
+				started.countDown();
+
+				try
+				{
+					blocked.await();
+				}
+				catch (InterruptedException exception)
+				{
+					// the test fails below
+				}
+			}
+		}, 0, 1000 * MILLISECOND);
+
+		assertTrue(started.await(WAIT_TIMEOUT, TimeUnit.MILLISECONDS));
+		scheduler.schedule(new NamedTask("A"), 0, 300 * MILLISECOND);
+		scheduler.schedule(new NamedTask("B"), 0, 100 * MILLISECOND);
+		scheduler.schedule(new NamedTask("C"), 0, 200 * MILLISECOND);
+		blocked.countDown();
+
+		waitForTasks(3);
+		assertEquals("[B, C, A]", runTasks.toString());
+	}
+
+	/**
+	 * Ensures a task is not run before it is released.
+	 * @throws InterruptedException This should not happen.
+	 */
+	@Test
+	public void testReleaseTime() throws InterruptedException
+	{
+		long start = System.nanoTime();
+		scheduler.schedule(new NamedTask("A"), 100 * MILLISECOND, 100 * MILLISECOND);
+		scheduler.schedule(new NamedTask("B"), 0, 1000 * MILLISECOND);
+
+		waitForTasks(2);
+		assertTrue(System.nanoTime() - start >= 100 * MILLISECOND);
+		assertEquals("[B, A]", runTasks.toString());
+	}
+
+	/**
+	 * Ensures the tasks which finish after their deadline are counted.
+	 * @throws InterruptedException This should not happen.
+	 */
+	@Test
+	public void testMissedDeadlines() throws InterruptedException
+	{
+		scheduler.schedule(new Runnable()
+		{
+			public void run()
+			{
+				try
+				{
+					Thread.sleep(50);
+				}
+				catch (InterruptedException exception)
+				{
+					// the deadline is missed either way
+				}
+			}
+		}, 0, 10 * MILLISECOND);
+		scheduler.schedule(new NamedTask("A"), 0, 1000 * MILLISECOND);
+
+		waitForTasks(1);
+
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+
+		while (scheduler.numberOfTasks() < 2 && System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+
+		assertEquals(2, scheduler.numberOfTasks());
+		assertEquals(1, scheduler.numberOfMissedDeadlines());
+		assertEquals(2, scheduler.lateness().count());
+	}
+
+	/**
+	 * Ensures a task which throws an exception does not stop its worker.
+	 * @throws InterruptedException This should not happen.
+	 */
+	@Test
+	public void testFailingTask() throws InterruptedException
+	{
+		scheduler.schedule(new Runnable()
+		{
+			public void run()
+			{
+				throw new IllegalStateException();
+			}
+		}, 0, 1000 * MILLISECOND);
+		scheduler.schedule(new NamedTask("A"), 0, 1000 * MILLISECOND);
+
+		waitForTasks(1);
+		assertEquals("[A]", runTasks.toString());
+	}
+
+	/**
+	 * Helper method which waits until a number of named tasks have run.
+	 * @param numberOfTasks The number of tasks.
+	 * @throws InterruptedException This should not happen.
+	 */
+	private void waitForTasks(int numberOfTasks) throws InterruptedException
+	{
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+
+		synchronized (runTasks)
+		{
+			while (runTasks.size() < numberOfTasks && System.currentTimeMillis() < deadline)
+				runTasks.wait(10);
+
+			assertEquals(numberOfTasks, runTasks.size());
+		}
+	}
+}
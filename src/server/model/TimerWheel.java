@@ -0,0 +1,318 @@
+package server.model;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Schedules elements to expire after a number of ticks.  Elements are kept in a hierarchical timer
+ * wheel: elements expiring within the next 64 ticks are stored in a slot for their tick, elements
+ * expiring within the next 4096 ticks are stored in a slot for their group of 64 ticks, and later
+ * elements are stored in an overflow list.  Groups are moved down to the tick slots as the wheel
+ * reaches them, so advancing the wheel only touches the elements which expire on that tick, plus
+ * each element a bounded number of times while it cascades.
+ * @param <E> The type of the scheduled elements.
+ */
+public class TimerWheel<E>
+{
+	// the number of bits used to select a slot
+	private static final int SLOT_BITS = 6;
+
+	// the number of slots in each level of the wheel
+	private static final int NUMBER_OF_SLOTS = 1 << SLOT_BITS;
+
+	// the mask which selects a slot
+	private static final int SLOT_MASK = NUMBER_OF_SLOTS - 1;
+
+	// the number of ticks covered by the second level of the wheel
+	private static final int SECOND_LEVEL_SPAN = NUMBER_OF_SLOTS * NUMBER_OF_SLOTS;
+
+	// the elements expiring within the next NUMBER_OF_SLOTS ticks, indexed by their tick
+	private final Timer<E>[] tickSlots;
+
+	// the elements expiring within the next SECOND_LEVEL_SPAN ticks, indexed by their group of ticks
+	private final Timer<E>[] groupSlots;
+
+	// the elements expiring after the second level of the wheel
+	private Timer<E> overflow;
+
+	// the timer of each scheduled element, used to cancel elements
+	private final HashMap<E, Timer<E>> timers;
+
+	// the last tick the wheel advanced to
+	private long currentTick;
+
+	/**
+	 * Creates an empty TimerWheel at tick 0.
+	 */
+	public TimerWheel()
+	{
+		tickSlots = createSlots();
+		groupSlots = createSlots();
+		timers = new HashMap<E, Timer<E>>();
+		currentTick = 0;
+	}
+
+	/**
+	 * Schedules the provided element to expire after the provided number of ticks.  An element
+	 * scheduled with a delay of 1 expires on the next call to advance.
+	 * @param element The element to schedule.
+	 * @param delay The number of ticks until the element expires.
+	 * @throws NullPointerException Thrown if the element is null.
+	 * @throws IllegalArgumentException Thrown if the delay is less than 1 or the element is already
+	 * scheduled.
+	 */
+	public void schedule(E element, int delay)
+	{
+		if (element == null)
+			throw new NullPointerException();
+
+		if (delay < 1 || timers.containsKey(element))
+			throw new IllegalArgumentException();
+
+		Timer<E> timer = new Timer<E>(element, currentTick + delay);
+		timers.put(element, timer);
+		insert(timer);
+	}
+
+	/**
+	 * Cancels the provided element, so that it does not expire.
+	 * @param element The element to cancel.
+	 * @return True if the element was scheduled and false otherwise.
+	 */
+	public boolean cancel(E element)
+	{
+		Timer<E> timer = timers.remove(element);
+
+		if (timer == null)
+			return false;
+
+		unlink(timer);
+		return true;
+	}
+
+	/**
+	 * Returns true if the provided element is scheduled and false otherwise.
+	 * @param element The element to check.
+	 * @return True if the provided element is scheduled and false otherwise.
+	 */
+	public boolean scheduled(E element)
+	{
+		return timers.containsKey(element);
+	}
+
+	/**
+	 * Returns the number of scheduled elements.
+	 * @return The number of scheduled elements.
+	 */
+	public int size()
+	{
+		return timers.size();
+	}
+
+	/**
+	 * Returns the last tick the wheel advanced to.
+	 * @return The last tick the wheel advanced to.
+	 */
+	public long currentTick()
+	{
+		return currentTick;
+	}
+
+	/**
+	 * Advances the wheel by one tick and adds the elements which expire on that tick to the provided
+	 * list, in the order they were scheduled.  Expired elements are no longer scheduled.
+	 * @param expired The list the expired elements are added to.
+	 * @throws NullPointerException Thrown if the list is null.
+	 */
+	public void advance(List<E> expired)
+	{
+		if (expired == null)
+			throw new NullPointerException();
+
+		currentTick++;
+
+		// move the elements of the overflow list which are now close enough into the wheel
+		if ((currentTick & (SECOND_LEVEL_SPAN - 1)) == 0)
+		{
+			Timer<E> timer = overflow;
+			overflow = null;
+			reinsert(timer);
+		}
+
+		// move the group of ticks the wheel reached into the tick slots
+		if ((currentTick & SLOT_MASK) == 0)
+		{
+			int slot = (int) ((currentTick >> SLOT_BITS) & SLOT_MASK);
+			Timer<E> timer = groupSlots[slot];
+			groupSlots[slot] = null;
+			reinsert(timer);
+		}
+
+		// expire the elements of the current tick
+		int slot = (int) (currentTick & SLOT_MASK);
+		Timer<E> timer = tickSlots[slot];
+		tickSlots[slot] = null;
+
+		while (timer != null)
+		{
+			Timer<E> next = timer.next;
+			timers.remove(timer.element);
+			expired.add(timer.element);
+			timer = next;
+		}
+	}
+
+	/**
+	 * Private helper method which inserts each timer of a linked list back into the wheel.
+	 * @param timer The first timer of the list.
+	 */
+	private void reinsert(Timer<E> timer)
+	{
+		while (timer != null)
+		{
+			Timer<E> next = timer.next;
+			insert(timer);
+			timer = next;
+		}
+	}
+
+	/**
+	 * Private helper method which appends a timer to the slot for its expiry.
+	 * @param timer The timer to insert.
+	 */
+	private void insert(Timer<E> timer)
+	{
+		long remainingTicks = timer.expiry - currentTick;
+
+		if (remainingTicks < NUMBER_OF_SLOTS)
+		{
+			timer.level = Timer.TICK_LEVEL;
+			timer.slot = (int) (timer.expiry & SLOT_MASK);
+			tickSlots[timer.slot] = append(tickSlots[timer.slot], timer);
+		}
+		else if (remainingTicks < SECOND_LEVEL_SPAN)
+		{
+			timer.level = Timer.GROUP_LEVEL;
+			timer.slot = (int) ((timer.expiry >> SLOT_BITS) & SLOT_MASK);
+			groupSlots[timer.slot] = append(groupSlots[timer.slot], timer);
+		}
+		else
+		{
+			timer.level = Timer.OVERFLOW_LEVEL;
+			overflow = append(overflow, timer);
+		}
+	}
+
+	/**
+	 * Private helper method which appends a timer to the end of a linked list.
+	 * @param head The first timer of the list, or null if the list is empty.
+	 * @param timer The timer to append.
+	 * @return The first timer of the list.
+	 */
+	private Timer<E> append(Timer<E> head, Timer<E> timer)
+	{
+		timer.next = null;
+
+		if (head == null)
+		{
+			timer.previous = timer;
+			return timer;
+		}
+
+		// the head's previous link points at the tail of the list
+		Timer<E> tail = head.previous;
+		tail.next = timer;
+		timer.previous = tail;
+		head.previous = timer;
+		return head;
+	}
+
+	/**
+	 * Private helper method which removes a timer from the list it is stored in.
+	 * @param timer The timer to remove.
+	 */
+	private void unlink(Timer<E> timer)
+	{
+		Timer<E> head;
+
+		if (timer.level == Timer.TICK_LEVEL)
+			head = tickSlots[timer.slot];
+		else if (timer.level == Timer.GROUP_LEVEL)
+			head = groupSlots[timer.slot];
+		else
+			head = overflow;
+
+		if (timer == head)
+		{
+			head = timer.next;
+
+			if (head != null)
+				head.previous = timer.previous;
+		}
+		else
+		{
+			timer.previous.next = timer.next;
+
+			if (timer.next != null)
+				timer.next.previous = timer.previous;
+			else
+				head.previous = timer.previous;
+		}
+
+		if (timer.level == Timer.TICK_LEVEL)
+			tickSlots[timer.slot] = head;
+		else if (timer.level == Timer.GROUP_LEVEL)
+			groupSlots[timer.slot] = head;
+		else
+			overflow = head;
+	}
+
+	/**
+	 * Private helper method which creates an empty level of slots.
+	 * @return The slots.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static <E> Timer<E>[] createSlots()
+	{
+		// an array of a generic type can only be created raw, but the slots start empty and only
+		// ever hold timers of elements of type E
+		return new Timer[NUMBER_OF_SLOTS];
+	}
+
+	/**
+	 * A scheduled element, stored in a doubly linked list for its slot.
+	 * @param <E> The type of the scheduled element.
+	 */
+	private static class Timer<E>
+	{
+		// the levels a timer can be stored in
+		private static final int TICK_LEVEL = 0;
+		private static final int GROUP_LEVEL = 1;
+		private static final int OVERFLOW_LEVEL = 2;
+
+		// the scheduled element
+		private final E element;
+
+		// the tick the element expires on
+		private final long expiry;
+
+		// the level and slot the timer is stored in
+		private int level;
+		private int slot;
+
+		// the neighbouring timers in the list, where the previous link of the head is the tail
+		private Timer<E> previous;
+		private Timer<E> next;
+
+		/**
+		 * Creates a new Timer.
+		 * @param element The scheduled element.
+		 * @param expiry The tick the element expires on.
+		 */
+		private Timer(E element, long expiry)
+		{
+			this.element = element;
+			this.expiry = expiry;
+		}
+	}
+}
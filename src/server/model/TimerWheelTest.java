@@ -0,0 +1,209 @@
+package server.model;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A test class for the TimerWheel class.
+ */
+public class TimerWheelTest
+{
+	// the test timer wheel
+	private TimerWheel<String> timerWheel;
+
+	// the elements expired by the last call to advance
+	private List<String> expired;
+
+	/**
+	 * Set up the test.
+	 */
+	@Before
+	public void setUp()
+	{
+		timerWheel = new TimerWheel<String>();
+		expired = new ArrayList<String>();
+	}
+
+	/**
+	 * Ensures a new timer wheel is empty and at tick 0.
+	 */
+	@Test
+	public void testConstructor()
+	{
+		assertEquals(0, timerWheel.size());
+		assertEquals(0, timerWheel.currentTick());
+	}
+
+	/**
+	 * Ensures schedule throws a NullPointerException for a null element.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testScheduleNull()
+	{
+		timerWheel.schedule(null, 1);
+	}
+
+	/**
+	 * Ensures schedule throws an IllegalArgumentException for a delay less than 1.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testScheduleZeroDelay()
+	{
+		timerWheel.schedule("bomb", 0);
+	}
+
+	/**
+	 * Ensures schedule throws an IllegalArgumentException for an element which is already scheduled.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testScheduleTwice()
+	{
+		timerWheel.schedule("bomb", 3);
+		timerWheel.schedule("bomb", 5);
+	}
+
+	/**
+	 * Ensures advance throws a NullPointerException for a null list.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testAdvanceNull()
+	{
+		timerWheel.advance(null);
+	}
+
+	/**
+	 * Ensures an element expires on the tick it was scheduled for and not before.
+	 */
+	@Test
+	public void testElementExpiresAfterDelay()
+	{
+		timerWheel.schedule("bomb", 18);
+		assertTrue(timerWheel.scheduled("bomb"));
+
+		for (int i = 1; i < 18; i++)
+		{
+			timerWheel.advance(expired);
+			assertTrue(expired.isEmpty());
+		}
+
+		timerWheel.advance(expired);
+		assertEquals(Arrays.asList("bomb"), expired);
+		assertEquals(18, timerWheel.currentTick());
+		assertFalse(timerWheel.scheduled("bomb"));
+		assertEquals(0, timerWheel.size());
+	}
+
+	/**
+	 * Ensures elements expiring on the same tick expire in the order they were scheduled.
+	 */
+	@Test
+	public void testElementsExpireInScheduledOrder()
+	{
+		timerWheel.schedule("first", 2);
+		timerWheel.schedule("second", 1);
+		timerWheel.schedule("third", 2);
+
+		timerWheel.advance(expired);
+		assertEquals(Arrays.asList("second"), expired);
+
+		expired.clear();
+		timerWheel.advance(expired);
+		assertEquals(Arrays.asList("first", "third"), expired);
+	}
+
+	/**
+	 * Ensures the delay of an element is counted from the tick it is scheduled on.
+	 */
+	@Test
+	public void testDelayRelativeToCurrentTick()
+	{
+		timerWheel.advance(expired);
+		timerWheel.advance(expired);
+		timerWheel.schedule("explosion", 5);
+
+		for (int i = 1; i < 5; i++)
+			timerWheel.advance(expired);
+
+		assertTrue(expired.isEmpty());
+
+		timerWheel.advance(expired);
+		assertEquals(Arrays.asList("explosion"), expired);
+	}
+
+	/**
+	 * Ensures a cancelled element does not expire.
+	 */
+	@Test
+	public void testCancel()
+	{
+		timerWheel.schedule("first", 2);
+		timerWheel.schedule("second", 2);
+		timerWheel.schedule("third", 2);
+
+		assertTrue(timerWheel.cancel("second"));
+		assertFalse(timerWheel.cancel("second"));
+		assertFalse(timerWheel.cancel("missing"));
+		assertEquals(2, timerWheel.size());
+
+		timerWheel.advance(expired);
+		timerWheel.advance(expired);
+		assertEquals(Arrays.asList("first", "third"), expired);
+	}
+
+	/**
+	 * Ensures the first and last elements of a slot can be cancelled.
+	 */
+	@Test
+	public void testCancelHeadAndTail()
+	{
+		timerWheel.schedule("first", 1);
+		timerWheel.schedule("second", 1);
+		timerWheel.schedule("third", 1);
+
+		timerWheel.cancel("first");
+		timerWheel.cancel("third");
+		timerWheel.schedule("fourth", 1);
+
+		timerWheel.advance(expired);
+		assertEquals(Arrays.asList("second", "fourth"), expired);
+	}
+
+	/**
+	 * Ensures elements stored in the higher levels of the wheel expire on the correct tick.
+	 */
+	@Test
+	public void testLongDelays()
+	{
+		int[] delays = { 63, 64, 65, 127, 128, 4095, 4096, 4097, 10000 };
+
+		for (int delay : delays)
+			timerWheel.schedule("delay" + delay, delay);
+
+		// cancel an element after it has cascaded out of the overflow list
+		for (int tick = 1; tick <= 10000; tick++)
+		{
+			expired.clear();
+			timerWheel.advance(expired);
+
+			if (tick == 8192)
+				assertTrue(timerWheel.cancel("delay10000"));
+
+			for (int delay : delays)
+			{
+				if (delay == tick && delay != 10000)
+					assertEquals(Arrays.asList("delay" + delay), expired);
+			}
+
+			if (Arrays.binarySearch(delays, tick) < 0 || tick == 10000)
+				assertTrue(expired.isEmpty());
+		}
+
+		assertEquals(0, timerWheel.size());
+	}
+}
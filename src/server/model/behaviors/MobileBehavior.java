@@ -149,4 +149,15 @@ public class MobileBehavior implements IMobilityBehavior
 		return onBoard;
 	}
 	
+	/**
+	 * Stops moving in every direction and removes the game object from the board, so that this
+	 * MobileBehavior can be reused by a recycled game object.
+	 */
+	public void reset()
+	{
+		for (Direction direction : currentDirections.keySet())
+			currentDirections.put(direction, false);
+		
+		removeFromBoard();
+	}
 }
@@ -194,4 +194,23 @@ public class MobileBehaviorTest
 		test.stopMovingInDirection(Direction.RIGHT);
 		assertEquals(Direction.LEFT, test.directionToMove());
 	}
+	
+	/**
+	 * Test reset method stops moving in every direction and removes the object from the board.
+	 */
+	@Test
+	public void resetTest()
+	{
+		mobilityBehavior.setPosition(10, 8);
+		mobilityBehavior.startMovingInDirection(Direction.UP);
+		mobilityBehavior.reset();
+		
+		assertEquals(Direction.NONE, mobilityBehavior.directionToMove());
+		assertFalse(mobilityBehavior.onBoard());
+		assertEquals(-1, mobilityBehavior.row());
+		assertEquals(-1, mobilityBehavior.column());
+		
+		mobilityBehavior.startMovingInDirection(Direction.DOWN);
+		assertEquals(Direction.DOWN, mobilityBehavior.directionToMove());
+	}
 }
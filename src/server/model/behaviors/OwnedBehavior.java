@@ -44,4 +44,16 @@ public class OwnedBehavior implements IOwnershipBehavior
 		return owner;
 	}
 
+	/**
+	 * Changes the owner of this OwnedBehavior, so that it can be reused by a recycled game object.
+	 * @param owner The new owner of this OwnedBehavior.
+	 * @throws NullPointerException Thrown if the owner is null.
+	 */
+	public void setOwner(IGameObject owner)
+	{
+		if (owner == null)
+			throw new NullPointerException();
+		
+		this.owner = owner;
+	}
 }
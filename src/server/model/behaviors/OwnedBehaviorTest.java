@@ -55,5 +55,24 @@ public class OwnedBehaviorTest
 	{
 		assertEquals(mockOwner, ownedBehavior.owner());
 	}
-
+	
+	/**
+	 * Test setOwner() changes the owner of the object.
+	 */
+	@Test
+	public void setOwnerTest()
+	{
+		IGameObject newOwner = mock(IGameObject.class);
+		ownedBehavior.setOwner(newOwner);
+		assertEquals(newOwner, ownedBehavior.owner());
+	}
+	
+	/**
+	 * Ensures setOwner() throws a NullPointerException when provided with a null owner.
+	 */
+	@Test(expected=NullPointerException.class)
+	public void testSetOwnerNull()
+	{
+		ownedBehavior.setOwner(null);
+	}
 }
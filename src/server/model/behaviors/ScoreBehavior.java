@@ -48,4 +48,12 @@ public class ScoreBehavior implements IScoreBehavior
 	{
 	    score--;
 	}
+
+	/**
+	 * Resets the score to 0, so that this ScoreBehavior can be reused by a recycled game object.
+	 */
+	public void resetScore()
+	{
+		score = 0;
+	}
 }
@@ -75,4 +75,16 @@ public class ScoreBehaviorTest
 		scoreBehavior.decrementScore();
 		assertEquals(1, scoreBehavior.score());
 	}
+	
+	/**
+	 * Test if resetScore() method sets the score back to 0.
+	 */
+	@Test
+	public void resetScoreTest()
+	{
+		scoreBehavior.incrementScore();
+		scoreBehavior.incrementScore();
+		scoreBehavior.resetScore();
+		assertEquals(0, scoreBehavior.score());
+	}
 }
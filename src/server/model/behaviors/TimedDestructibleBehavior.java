@@ -115,4 +115,18 @@ public class TimedDestructibleBehavior implements IDestructionBehavior
 		// Do Nothing
 		
 	}
+
+	/**
+	 * Resets the number of steps until destruction, so that this TimedDestructibleBehavior can be
+	 * reused by a recycled game object.
+	 * @param numberOfStepsUntilDestruction The number of steps until object is destroyed.
+	 * @throws IllegalArgumentException Thrown if the number of steps is negative.
+	 */
+	public void resetNumberOfStepsUntilDestruction(int numberOfStepsUntilDestruction)
+	{
+		if (numberOfStepsUntilDestruction < 0)
+			throw new IllegalArgumentException();
+		
+		this.numberOfStepsUntilDestruction = numberOfStepsUntilDestruction;
+	}
 }
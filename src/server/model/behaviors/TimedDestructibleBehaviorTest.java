@@ -153,4 +153,25 @@ public class TimedDestructibleBehaviorTest
 		// make sure nothing bad happens
 		timedDestructibleBehavior.incrementNumberOfStepUntilRespawn();
 	}
+	
+	/**
+	 * Ensures resetNumberOfStepsUntilDestruction sets the number of steps until destruction.
+	 */
+	@Test
+	public void testResetNumberOfStepsUntilDestruction()
+	{
+		timedDestructibleBehavior.decrementNumberOfStepsUntilDestruction();
+		timedDestructibleBehavior.resetNumberOfStepsUntilDestruction(7);
+		assertEquals(7, timedDestructibleBehavior.numberOfStepsUntilDestruction());
+	}
+	
+	/**
+	 * Ensures resetNumberOfStepsUntilDestruction throws an IllegalArgumentException for a negative
+	 * number of steps.
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void testResetNumberOfStepsUntilDestructionNegative()
+	{
+		timedDestructibleBehavior.resetNumberOfStepsUntilDestruction(-1);
+	}
 }
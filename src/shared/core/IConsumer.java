@@ -0,0 +1,15 @@
+package shared.core;
+
+/**
+ * Defines a consumer interface.  A consumer is handed elements one at a time, which allows a
+ * collection to pass its elements on without copying them into an array first.
+ * @param <E> The type of the consumed elements.
+ */
+public interface IConsumer<E>
+{
+	/**
+	 * Consumes an element.
+	 * @param element The element.
+	 */
+	public void consume(E element);
+}
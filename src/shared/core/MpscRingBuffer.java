@@ -0,0 +1,159 @@
+package shared.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded queue backed by a ring of slots, which any number of producer threads and one consumer
+ * thread may use at the same time without locks.  Producers claim a slot by advancing the tail
+ * index with a compare and set, and each slot carries a sequence number which tells a producer
+ * whether the consumer has emptied the slot and tells the consumer whether the producer has filled
+ * it.  The consumer never contends with the producers, and producers only contend with each other
+ * for the tail.  Using a ring buffer from more than one consumer thread at the same time corrupts
+ * it.
+ * @param <E> The type of the elements.
+ */
+public class MpscRingBuffer<E>
+{
+	// the slots of the ring, whose number is a power of two
+	private final Object[] elements;
+
+	// the sequence number of each slot, which is the index of the element a producer may put in
+	// the slot while it is empty, and one past that index once the element is in the slot
+	private final AtomicLongArray sequences;
+
+	// the mask which maps an index to its slot
+	private final int mask;
+
+	// the index of the next slot to claim, advanced by the producers
+	private final AtomicLong tail;
+
+	// the index of the next element to take, only written by the consumer
+	private volatile long head;
+
+	/**
+	 * Creates a MpscRingBuffer which holds at least the provided number of elements.
+	 * @param capacity The minimum number of elements, which is rounded up to a power of two of at
+	 * least 2, since a slot is only told apart from the slot of the next lap with two slots or more.
+	 * @throws IllegalArgumentException Thrown if the capacity is less than 1 or greater than 2^30.
+	 */
+	public MpscRingBuffer(int capacity)
+	{
+		if (capacity < 1 || capacity > 1 << 30)
+			throw new IllegalArgumentException();
+
+		int size = Math.max(2, Integer.highestOneBit(capacity));
+		if (size < capacity)
+			size <<= 1;
+
+		elements = new Object[size];
+		sequences = new AtomicLongArray(size);
+		mask = size - 1;
+		tail = new AtomicLong();
+
+		for (int i = 0; i < size; i++)
+			sequences.set(i, i);
+	}
+
+	/**
+	 * Returns the number of elements the ring buffer holds when it is full.
+	 * @return The capacity of the ring buffer.
+	 */
+	public int capacity()
+	{
+		return elements.length;
+	}
+
+	/**
+	 * Returns the number of elements in the ring buffer, including the elements producers are
+	 * still putting in their slots.  The result is only a snapshot when other threads are using
+	 * the ring buffer.
+	 * @return The number of elements in the ring buffer.
+	 */
+	public int size()
+	{
+		// read the head first, so the result is never negative
+		long currentHead = head;
+
+		return (int) Math.min(tail.get() - currentHead, elements.length);
+	}
+
+	/**
+	 * Returns true if the ring buffer holds no elements.  The result is only a snapshot when other
+	 * threads are using the ring buffer.
+	 * @return True if the ring buffer is empty and false otherwise.
+	 */
+	public boolean isEmpty()
+	{
+		return size() == 0;
+	}
+
+	/**
+	 * Adds an element at the tail of the ring buffer, unless it is full.  This method may be called
+	 * by any thread.
+	 * @param element The element.
+	 * @return True if the element was added and false if the ring buffer is full.
+	 * @throws NullPointerException Thrown if the element is null.
+	 */
+	public boolean offer(E element)
+	{
+		if (element == null)
+			throw new NullPointerException();
+
+		while (true)
+		{
+			long currentTail = tail.get();
+			int slot = (int) currentTail & mask;
+			long difference = sequences.get(slot) - currentTail;
+
+			// the consumer has not emptied the slot since the last lap, so the ring is full
+			if (difference < 0)
+				return false;
+
+			// otherwise the slot is empty, unless another producer claimed it first
+			if (difference == 0 && tail.compareAndSet(currentTail, currentTail + 1))
+			{
+				elements[slot] = element;
+				sequences.set(slot, currentTail + 1);
+
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Removes and returns the element at the head of the ring buffer.  An element whose producer
+	 * has claimed its slot but not yet filled it is not returned, and neither are the elements
+	 * after it.  This method may only be called by the consumer thread.
+	 * @return The element, or null if the ring buffer is empty.
+	 */
+	public E poll()
+	{
+		long currentHead = head;
+
+		if (sequences.get((int) currentHead & mask) != currentHead + 1)
+			return null;
+
+		E element = take(currentHead);
+		head = currentHead + 1;
+
+		return element;
+	}
+
+	/**
+	 * Private helper method which takes the element at an index out of its slot, and frees the
+	 * slot for the producer of the next lap.
+	 * @param index The index.
+	 * @return The element.
+	 */
+	@SuppressWarnings("unchecked")
+	private E take(long index)
+	{
+		int slot = (int) index & mask;
+		E element = (E) elements[slot];
+		elements[slot] = null;
+		sequences.set(slot, index + elements.length);
+
+		return element;
+	}
+}
@@ -0,0 +1,160 @@
+package shared.core;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the MpscRingBuffer class.
+ */
+public class MpscRingBufferTest
+{
+	// the test ring buffer
+	private MpscRingBuffer<Integer> ringBuffer;
+
+	/**
+	 * Sets up the tests.
+	 */
+	@Before
+	public void setUp()
+	{
+		ringBuffer = new MpscRingBuffer<Integer>(4);
+	}
+
+	/**
+	 * Ensures the constructor rounds the capacity up to a power of two of at least 2.
+	 */
+	@Test
+	public void testCapacity()
+	{
+		assertEquals(4, ringBuffer.capacity());
+		assertEquals(2, new MpscRingBuffer<Integer>(1).capacity());
+		assertEquals(2, new MpscRingBuffer<Integer>(2).capacity());
+		assertEquals(8, new MpscRingBuffer<Integer>(5).capacity());
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException for a capacity less than 1.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorCapacityZero()
+	{
+		new MpscRingBuffer<Integer>(0);
+	}
+
+	/**
+	 * Ensures the elements are polled in the order they were offered.
+	 */
+	@Test
+	public void testOfferPoll()
+	{
+		assertTrue(ringBuffer.isEmpty());
+		assertNull(ringBuffer.poll());
+
+		assertTrue(ringBuffer.offer(1));
+		assertTrue(ringBuffer.offer(2));
+		assertEquals(2, ringBuffer.size());
+
+		assertEquals(Integer.valueOf(1), ringBuffer.poll());
+		assertEquals(Integer.valueOf(2), ringBuffer.poll());
+		assertNull(ringBuffer.poll());
+		assertTrue(ringBuffer.isEmpty());
+	}
+
+	/**
+	 * Ensures offer fails when the ring buffer is full, and succeeds again once an element has been
+	 * polled, also when the elements wrap around the end of the ring many times.
+	 */
+	@Test
+	public void testOfferFull()
+	{
+		for (int lap = 0; lap < 3; lap++)
+		{
+			for (int i = 0; i < 4; i++)
+				assertTrue(ringBuffer.offer(i));
+
+			assertFalse(ringBuffer.offer(4));
+			assertEquals(4, ringBuffer.size());
+			assertEquals(Integer.valueOf(0), ringBuffer.poll());
+			assertTrue(ringBuffer.offer(4));
+
+			for (int i = 1; i <= 4; i++)
+				assertEquals(Integer.valueOf(i), ringBuffer.poll());
+		}
+	}
+
+	/**
+	 * Ensures a ring buffer of the smallest capacity is full once it holds two elements.
+	 */
+	@Test
+	public void testOfferFullSmallest()
+	{
+		MpscRingBuffer<Integer> smallestRingBuffer = new MpscRingBuffer<Integer>(1);
+
+		assertTrue(smallestRingBuffer.offer(0));
+		assertTrue(smallestRingBuffer.offer(1));
+		assertFalse(smallestRingBuffer.offer(2));
+		assertEquals(Integer.valueOf(0), smallestRingBuffer.poll());
+		assertEquals(Integer.valueOf(1), smallestRingBuffer.poll());
+	}
+
+	/**
+	 * Ensures offer throws a NullPointerException for a null element.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testOfferNull()
+	{
+		ringBuffer.offer(null);
+	}
+
+	/**
+	 * Ensures several producer threads and a consumer thread pass many elements through a small
+	 * ring buffer without losing any of them, and that the elements of each producer keep their
+	 * order.
+	 * @throws InterruptedException This should not happen.
+	 */
+	@Test
+	public void testConcurrentProducersAndConsumer() throws InterruptedException
+	{
+		final int numberOfProducers = 4;
+		final int numberOfElements = 250000;
+		final MpscRingBuffer<Integer> sharedRingBuffer = new MpscRingBuffer<Integer>(64);
+		Thread[] producers = new Thread[numberOfProducers];
+
+		for (int i = 0; i < numberOfProducers; i++)
+		{
+			final int producer = i;
+			producers[i] = new Thread(new Runnable()
+			{
+				public void run()
+				{
+					for (int element = 0; element < numberOfElements; element++)
+					{
+						while (!sharedRingBuffer.offer(element * numberOfProducers + producer))
+							Thread.yield();
+					}
+				}
+			});
+			producers[i].start();
+		}
+
+		int[] expected = new int[numberOfProducers];
+
+		for (int consumed = 0; consumed < numberOfProducers * numberOfElements; consumed++)
+		{
+			Integer element;
+
+			while ((element = sharedRingBuffer.poll()) == null)
+				Thread.yield();
+
+			int producer = element % numberOfProducers;
+			assertEquals(expected[producer]++, element / numberOfProducers);
+		}
+
+		for (Thread producer : producers)
+			producer.join();
+
+		assertTrue(sharedRingBuffer.isEmpty());
+	}
+}
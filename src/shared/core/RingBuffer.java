@@ -0,0 +1,206 @@
+package shared.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded queue backed by a ring of slots, which one producer thread and one consumer thread may
+ * use at the same time without locks.  The producer only writes the tail index and the consumer
+ * only writes the head index, and each thread caches the index of the other so that it only reads
+ * it when the ring looks full or empty.  Using a ring buffer from more than one producer thread or
+ * more than one consumer thread at the same time corrupts it.
+ * @param <E> The type of the elements.
+ */
+public class RingBuffer<E>
+{
+	// the slots of the ring, whose number is a power of two
+	private final Object[] elements;
+
+	// the mask which maps an index to its slot
+	private final int mask;
+
+	// the index of the next element to take, written by the consumer
+	private final AtomicLong head;
+
+	// the index of the next slot to fill, written by the producer
+	private final AtomicLong tail;
+
+	// the head index last read by the producer
+	private long cachedHead;
+
+	// the tail index last read by the consumer
+	private long cachedTail;
+
+	/**
+	 * Creates a RingBuffer which holds at least the provided number of elements.
+	 * @param capacity The minimum number of elements, which is rounded up to a power of two.
+	 * @throws IllegalArgumentException Thrown if the capacity is less than 1 or greater than 2^30.
+	 */
+	public RingBuffer(int capacity)
+	{
+		if (capacity < 1 || capacity > 1 << 30)
+			throw new IllegalArgumentException();
+
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+
+		elements = new Object[size];
+		mask = size - 1;
+		head = new AtomicLong();
+		tail = new AtomicLong();
+	}
+
+	/**
+	 * Returns the number of elements the ring buffer holds when it is full.
+	 * @return The capacity of the ring buffer.
+	 */
+	public int capacity()
+	{
+		return elements.length;
+	}
+
+	/**
+	 * Returns the number of elements in the ring buffer.  The result is only a snapshot when the
+	 * other thread is using the ring buffer.
+	 * @return The number of elements in the ring buffer.
+	 */
+	public int size()
+	{
+		// read the head first, so the result is never negative
+		long currentHead = head.get();
+
+		return (int) (tail.get() - currentHead);
+	}
+
+	/**
+	 * Returns true if the ring buffer holds no elements.  The result is only a snapshot when the
+	 * other thread is using the ring buffer.
+	 * @return True if the ring buffer is empty and false otherwise.
+	 */
+	public boolean isEmpty()
+	{
+		return size() == 0;
+	}
+
+	/**
+	 * Adds an element at the tail of the ring buffer, unless it is full.  This method may only be
+	 * called by the producer thread.  The new tail is published with a volatile write, so a
+	 * consumer which announces that it is about to wait and then checks the ring buffer can not
+	 * miss the element.
+	 * @param element The element.
+	 * @return True if the element was added and false if the ring buffer is full.
+	 * @throws NullPointerException Thrown if the element is null.
+	 */
+	public boolean offer(E element)
+	{
+		if (element == null)
+			throw new NullPointerException();
+
+		long currentTail = tail.get();
+
+		if (currentTail - cachedHead >= elements.length)
+		{
+			cachedHead = head.get();
+
+			if (currentTail - cachedHead >= elements.length)
+				return false;
+		}
+
+		elements[(int) currentTail & mask] = element;
+		tail.set(currentTail + 1);
+
+		return true;
+	}
+
+	/**
+	 * Removes and returns the element at the head of the ring buffer.  This method may only be
+	 * called by the consumer thread.
+	 * @return The element, or null if the ring buffer is empty.
+	 */
+	public E poll()
+	{
+		long currentHead = head.get();
+
+		if (currentHead >= cachedTail)
+		{
+			cachedTail = tail.get();
+
+			if (currentHead >= cachedTail)
+				return null;
+		}
+
+		E element = take(currentHead);
+		head.lazySet(currentHead + 1);
+
+		return element;
+	}
+
+	/**
+	 * Removes every element in the ring buffer and hands them to a consumer in order.  The tail
+	 * is read once and the head is written once for the whole batch.  This method may only be
+	 * called by the consumer thread.
+	 * @param consumer The consumer.
+	 * @return The number of consumed elements.
+	 * @throws NullPointerException Thrown if the consumer is null.
+	 */
+	public int drainTo(IConsumer<? super E> consumer)
+	{
+		return drainTo(consumer, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Removes up to a maximum number of elements from the ring buffer and hands them to a consumer
+	 * in order.  The tail is read once and the head is written once for the whole batch.  If the
+	 * consumer throws an exception, the elements it was handed are removed and the others are
+	 * left in the ring buffer.  This method may only be called by the consumer thread.
+	 * @param consumer The consumer.
+	 * @param maximumNumberOfElements The maximum number of elements to consume.
+	 * @return The number of consumed elements.
+	 * @throws NullPointerException Thrown if the consumer is null.
+	 * @throws IllegalArgumentException Thrown if the maximum number of elements is negative.
+	 */
+	public int drainTo(IConsumer<? super E> consumer, int maximumNumberOfElements)
+	{
+		if (consumer == null)
+			throw new NullPointerException();
+
+		if (maximumNumberOfElements < 0)
+			throw new IllegalArgumentException();
+
+		long currentHead = head.get();
+		cachedTail = tail.get();
+		long end = currentHead + Math.min(cachedTail - currentHead, maximumNumberOfElements);
+		long index = currentHead;
+
+		try
+		{
+			while (index < end)
+			{
+				E element = take(index);
+				index++;
+				consumer.consume(element);
+			}
+		}
+		finally
+		{
+			head.lazySet(index);
+		}
+
+		return (int) (index - currentHead);
+	}
+
+	/**
+	 * Private helper method which takes the element at an index out of its slot.
+	 * @param index The index.
+	 * @return The element.
+	 */
+	@SuppressWarnings("unchecked")
+	private E take(long index)
+	{
+		int slot = (int) index & mask;
+		E element = (E) elements[slot];
+		elements[slot] = null;
+
+		return element;
+	}
+}
@@ -0,0 +1,241 @@
+package shared.core;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the RingBuffer class.
+ */
+public class RingBufferTest
+{
+	// the test ring buffer
+	private RingBuffer<Integer> ringBuffer;
+
+	/**
+	 * A consumer which collects the consumed elements.
+	 */
+	private static class CollectingConsumer implements IConsumer<Integer>
+	{
+		// the consumed elements
+		private final List<Integer> elements = new ArrayList<Integer>();
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public void consume(Integer element)
+		{
+			elements.add(element);
+		}
+	}
+
+	/**
+	 * Sets up the tests.
+	 */
+	@Before
+	public void setUp()
+	{
+		ringBuffer = new RingBuffer<Integer>(4);
+	}
+
+	/**
+	 * Ensures the constructor rounds the capacity up to a power of two.
+	 */
+	@Test
+	public void testCapacity()
+	{
+		assertEquals(4, ringBuffer.capacity());
+		assertEquals(1, new RingBuffer<Integer>(1).capacity());
+		assertEquals(8, new RingBuffer<Integer>(5).capacity());
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException for a capacity less than 1.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorCapacityZero()
+	{
+		new RingBuffer<Integer>(0);
+	}
+
+	/**
+	 * Ensures the elements are polled in the order they were offered.
+	 */
+	@Test
+	public void testOfferPoll()
+	{
+		assertTrue(ringBuffer.isEmpty());
+		assertNull(ringBuffer.poll());
+
+		assertTrue(ringBuffer.offer(1));
+		assertTrue(ringBuffer.offer(2));
+		assertEquals(2, ringBuffer.size());
+
+		assertEquals(Integer.valueOf(1), ringBuffer.poll());
+		assertEquals(Integer.valueOf(2), ringBuffer.poll());
+		assertNull(ringBuffer.poll());
+		assertTrue(ringBuffer.isEmpty());
+	}
+
+	/**
+	 * Ensures offer fails when the ring buffer is full, and succeeds again once an element has been
+	 * polled.
+	 */
+	@Test
+	public void testOfferFull()
+	{
+		for (int i = 0; i < 4; i++)
+			assertTrue(ringBuffer.offer(i));
+
+		assertFalse(ringBuffer.offer(4));
+		assertEquals(Integer.valueOf(0), ringBuffer.poll());
+		assertTrue(ringBuffer.offer(4));
+
+		for (int i = 1; i <= 4; i++)
+			assertEquals(Integer.valueOf(i), ringBuffer.poll());
+	}
+
+	/**
+	 * Ensures offer throws a NullPointerException for a null element.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testOfferNull()
+	{
+		ringBuffer.offer(null);
+	}
+
+	/**
+	 * Ensures drainTo hands every element to the consumer in order and empties the ring buffer,
+	 * also when the elements wrap around the end of the ring.
+	 */
+	@Test
+	public void testDrainTo()
+	{
+		ringBuffer.offer(0);
+		ringBuffer.offer(1);
+		ringBuffer.poll();
+		ringBuffer.poll();
+
+		for (int i = 2; i < 6; i++)
+			ringBuffer.offer(i);
+
+		CollectingConsumer consumer = new CollectingConsumer();
+		assertEquals(4, ringBuffer.drainTo(consumer));
+		assertEquals(Arrays.asList(2, 3, 4, 5), consumer.elements);
+		assertTrue(ringBuffer.isEmpty());
+		assertEquals(0, ringBuffer.drainTo(consumer));
+	}
+
+	/**
+	 * Ensures drainTo consumes no more than the maximum number of elements.
+	 */
+	@Test
+	public void testDrainToMaximum()
+	{
+		for (int i = 0; i < 3; i++)
+			ringBuffer.offer(i);
+
+		CollectingConsumer consumer = new CollectingConsumer();
+		assertEquals(2, ringBuffer.drainTo(consumer, 2));
+		assertEquals(Arrays.asList(0, 1), consumer.elements);
+		assertEquals(0, ringBuffer.drainTo(consumer, 0));
+		assertEquals(Integer.valueOf(2), ringBuffer.poll());
+	}
+
+	/**
+	 * Ensures the elements handed to a consumer which throws an exception are removed, and the
+	 * others are kept.
+	 */
+	@Test
+	public void testDrainToConsumerThrows()
+	{
+		for (int i = 0; i < 3; i++)
+			ringBuffer.offer(i);
+
+		try
+		{
+			ringBuffer.drainTo(new IConsumer<Integer>()
+			{
+				public void consume(Integer element)
+				{
+					if (element == 1)
+						throw new IllegalStateException();
+				}
+			});
+			fail();
+		}
+		catch (IllegalStateException exception)
+		{
+			// expected
+		}
+
+		assertEquals(1, ringBuffer.size());
+		assertEquals(Integer.valueOf(2), ringBuffer.poll());
+	}
+
+	/**
+	 * Ensures drainTo throws a NullPointerException for a null consumer.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testDrainToNull()
+	{
+		ringBuffer.drainTo(null);
+	}
+
+	/**
+	 * Ensures drainTo throws an IllegalArgumentException for a negative maximum.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testDrainToNegativeMaximum()
+	{
+		ringBuffer.drainTo(new CollectingConsumer(), -1);
+	}
+
+	/**
+	 * Ensures a producer thread and a consumer thread pass many elements through a small ring
+	 * buffer without losing or reordering any of them.
+	 * @throws InterruptedException This should not happen.
+	 */
+	@Test
+	public void testConcurrentProducerAndConsumer() throws InterruptedException
+	{
+		final int numberOfElements = 1000000;
+		final RingBuffer<Integer> sharedRingBuffer = new RingBuffer<Integer>(64);
+
+		Thread producer = new Thread(new Runnable()
+		{
+			public void run()
+			{
+				for (int i = 0; i < numberOfElements; i++)
+				{
+					while (!sharedRingBuffer.offer(i))
+						Thread.yield();
+				}
+			}
+		});
+		producer.start();
+
+		final int[] expected = { 0 };
+		IConsumer<Integer> consumer = new IConsumer<Integer>()
+		{
+			public void consume(Integer element)
+			{
+				assertEquals(expected[0]++, element.intValue());
+			}
+		};
+
+		while (expected[0] < numberOfElements)
+		{
+			if (sharedRingBuffer.drainTo(consumer) == 0)
+				Thread.yield();
+		}
+
+		producer.join();
+		assertTrue(sharedRingBuffer.isEmpty());
+	}
+}
@@ -0,0 +1,283 @@
+package shared.model;
+
+/**
+ * The settings of a game: the size of its board, the density of its breakable blocks, the maximum
+ * number of players, the way its state is replicated to the clients, the rate of its game steps and
+ * optionally the seed of the map generator.  The board is laid out with unbreakable blocks around its edge and in every
+ * space whose row and column are both even, and the players spawn in its four inner corners.
+ */
+public class GameConfiguration
+{
+	/**
+	 * The default number of rows in the game.
+	 */
+	public static final int DEFAULT_NUMBER_OF_ROWS = 17;
+
+	/**
+	 * The default number of columns in the game.
+	 */
+	public static final int DEFAULT_NUMBER_OF_COLUMNS = 23;
+
+	/**
+	 * The default fraction of the free spaces which are filled with breakable blocks, which places
+	 * 130 breakable blocks on a board of the default size.
+	 */
+	public static final double DEFAULT_BREAKABLE_BLOCK_DENSITY = 0.56;
+
+	/**
+	 * The default maximum number of players.
+	 */
+	public static final int DEFAULT_MAXIMUM_NUMBER_OF_PLAYERS = 4;
+
+	/**
+	 * The default number of game steps per second.
+	 */
+	public static final int DEFAULT_TICK_RATE = 10;
+
+	/**
+	 * The smallest number of game steps per second.
+	 */
+	public static final int MINIMUM_TICK_RATE = 10;
+
+	/**
+	 * The largest number of game steps per second.
+	 */
+	public static final int MAXIMUM_TICK_RATE = 60;
+
+	/**
+	 * The smallest number of rows or columns a board can have.
+	 */
+	public static final int MINIMUM_BOARD_SIZE = 7;
+
+	// the number of spaces above which a board is considered large
+	private static final int LARGE_BOARD_AREA = 64 * 64;
+
+	// the size of the board
+	private final int numberOfRows;
+	private final int numberOfColumns;
+
+	// the fraction of the free spaces which are filled with breakable blocks
+	private final double breakableBlockDensity;
+
+	// the maximum number of players
+	private final int maximumNumberOfPlayers;
+
+	// whether the map generator is seeded, and its seed
+	private final boolean seeded;
+	private final long seed;
+
+	// the way the state of the game is replicated to the clients
+	private final ReplicationMode replicationMode;
+
+	// the number of game steps per second
+	private final int tickRate;
+
+	/**
+	 * Creates a GameConfiguration with the default settings.
+	 */
+	public GameConfiguration()
+	{
+		this(DEFAULT_NUMBER_OF_ROWS, DEFAULT_NUMBER_OF_COLUMNS, DEFAULT_BREAKABLE_BLOCK_DENSITY,
+				DEFAULT_MAXIMUM_NUMBER_OF_PLAYERS);
+	}
+
+	/**
+	 * Creates a GameConfiguration with the provided settings.
+	 * @param numberOfRows The number of rows of the board.
+	 * @param numberOfColumns The number of columns of the board.
+	 * @param breakableBlockDensity The fraction of the free spaces which are filled with breakable
+	 * blocks, from 0 to 1.
+	 * @param maximumNumberOfPlayers The maximum number of players.
+	 * @throws IllegalArgumentException Thrown if the number of rows or columns is less than
+	 * MINIMUM_BOARD_SIZE, if the density is not between 0 and 1 or if the maximum number of players is
+	 * less than 1.
+	 */
+	public GameConfiguration(int numberOfRows, int numberOfColumns, double breakableBlockDensity,
+			int maximumNumberOfPlayers)
+	{
+		this(numberOfRows, numberOfColumns, breakableBlockDensity, maximumNumberOfPlayers, false, 0,
+				ReplicationMode.EVENTS, DEFAULT_TICK_RATE);
+	}
+
+	/**
+	 * Creates a GameConfiguration with the provided settings whose maps are generated from the
+	 * provided seed, so that games with the same configuration start on the same map.
+	 * @param numberOfRows The number of rows of the board.
+	 * @param numberOfColumns The number of columns of the board.
+	 * @param breakableBlockDensity The fraction of the free spaces which are filled with breakable
+	 * blocks, from 0 to 1.
+	 * @param maximumNumberOfPlayers The maximum number of players.
+	 * @param seed The seed of the map generator.
+	 * @throws IllegalArgumentException Thrown if the number of rows or columns is less than
+	 * MINIMUM_BOARD_SIZE, if the density is not between 0 and 1 or if the maximum number of players is
+	 * less than 1.
+	 */
+	public GameConfiguration(int numberOfRows, int numberOfColumns, double breakableBlockDensity,
+			int maximumNumberOfPlayers, long seed)
+	{
+		this(numberOfRows, numberOfColumns, breakableBlockDensity, maximumNumberOfPlayers, true, seed,
+				ReplicationMode.EVENTS, DEFAULT_TICK_RATE);
+	}
+
+	/**
+	 * Private constructor which checks and stores the settings.
+	 * @param numberOfRows The number of rows of the board.
+	 * @param numberOfColumns The number of columns of the board.
+	 * @param breakableBlockDensity The fraction of the free spaces which are filled with breakable
+	 * blocks.
+	 * @param maximumNumberOfPlayers The maximum number of players.
+	 * @param seeded Whether the map generator is seeded.
+	 * @param seed The seed of the map generator, which is ignored if it is not seeded.
+	 * @param replicationMode The way the state of the game is replicated to the clients.
+	 * @param tickRate The number of game steps per second.
+	 */
+	private GameConfiguration(int numberOfRows, int numberOfColumns, double breakableBlockDensity,
+			int maximumNumberOfPlayers, boolean seeded, long seed, ReplicationMode replicationMode,
+			int tickRate)
+	{
+		if (replicationMode == null)
+			throw new NullPointerException();
+
+		if (numberOfRows < MINIMUM_BOARD_SIZE || numberOfColumns < MINIMUM_BOARD_SIZE
+				|| !(breakableBlockDensity >= 0 && breakableBlockDensity <= 1)
+				|| maximumNumberOfPlayers < 1 || tickRate < MINIMUM_TICK_RATE
+				|| tickRate > MAXIMUM_TICK_RATE)
+			throw new IllegalArgumentException();
+
+		this.numberOfRows = numberOfRows;
+		this.numberOfColumns = numberOfColumns;
+		this.breakableBlockDensity = breakableBlockDensity;
+		this.maximumNumberOfPlayers = maximumNumberOfPlayers;
+		this.seeded = seeded;
+		this.seed = seed;
+		this.replicationMode = replicationMode;
+		this.tickRate = tickRate;
+	}
+
+	/**
+	 * Returns a copy of this GameConfiguration which replicates the state of the game in the
+	 * provided way.  Configurations replicate events unless they are copied with another mode.
+	 * @param replicationMode The way the state of the game is replicated to the clients.
+	 * @return The copy of this GameConfiguration.
+	 * @throws NullPointerException Thrown if the replication mode is null.
+	 */
+	public GameConfiguration withReplicationMode(ReplicationMode replicationMode)
+	{
+		return new GameConfiguration(numberOfRows, numberOfColumns, breakableBlockDensity,
+				maximumNumberOfPlayers, seeded, seed, replicationMode, tickRate);
+	}
+
+	/**
+	 * Returns a copy of this GameConfiguration whose game steps at the provided rate.  The length of
+	 * a game in seconds does not depend on its tick rate, but the game objects move, and the bombs
+	 * and explosions burn, by the step, so a higher rate makes a faster game.  Configurations step
+	 * at DEFAULT_TICK_RATE unless they are copied with another rate.
+	 * @param tickRate The number of game steps per second.
+	 * @return The copy of this GameConfiguration.
+	 * @throws IllegalArgumentException Thrown if the tick rate is not between MINIMUM_TICK_RATE and
+	 * MAXIMUM_TICK_RATE.
+	 */
+	public GameConfiguration withTickRate(int tickRate)
+	{
+		return new GameConfiguration(numberOfRows, numberOfColumns, breakableBlockDensity,
+				maximumNumberOfPlayers, seeded, seed, replicationMode, tickRate);
+	}
+
+	/**
+	 * Returns the number of rows of the board.
+	 * @return The number of rows of the board.
+	 */
+	public int numberOfRows()
+	{
+		return numberOfRows;
+	}
+
+	/**
+	 * Returns the number of columns of the board.
+	 * @return The number of columns of the board.
+	 */
+	public int numberOfColumns()
+	{
+		return numberOfColumns;
+	}
+
+	/**
+	 * Returns the fraction of the free spaces which are filled with breakable blocks.
+	 * @return The fraction of the free spaces which are filled with breakable blocks.
+	 */
+	public double breakableBlockDensity()
+	{
+		return breakableBlockDensity;
+	}
+
+	/**
+	 * Returns the maximum number of players.
+	 * @return The maximum number of players.
+	 */
+	public int maximumNumberOfPlayers()
+	{
+		return maximumNumberOfPlayers;
+	}
+
+	/**
+	 * Returns true if the map generator is seeded, and false if every game starts on a new random map.
+	 * @return True if the map generator is seeded and false otherwise.
+	 */
+	public boolean seeded()
+	{
+		return seeded;
+	}
+
+	/**
+	 * Returns the seed of the map generator.
+	 * @return The seed of the map generator.
+	 * @throws IllegalStateException Thrown if the map generator is not seeded.
+	 */
+	public long seed()
+	{
+		if (!seeded)
+			throw new IllegalStateException();
+
+		return seed;
+	}
+
+	/**
+	 * Returns the way the state of the game is replicated to the clients.
+	 * @return The replication mode.
+	 */
+	public ReplicationMode replicationMode()
+	{
+		return replicationMode;
+	}
+
+	/**
+	 * Returns the number of game steps per second.
+	 * @return The tick rate.
+	 */
+	public int tickRate()
+	{
+		return tickRate;
+	}
+
+	/**
+	 * Returns true if the board is large enough to be stored in a compact board representation, and
+	 * false otherwise.
+	 * @return True if the board is large and false otherwise.
+	 */
+	public boolean largeBoard()
+	{
+		return numberOfRows * numberOfColumns > LARGE_BOARD_AREA;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString()
+	{
+		return numberOfRows + "x" + numberOfColumns + ", density " + breakableBlockDensity + ", "
+				+ maximumNumberOfPlayers + " players" + (seeded ? ", seed " + seed : "")
+				+ (replicationMode != ReplicationMode.EVENTS ? ", " + replicationMode : "")
+				+ (tickRate != DEFAULT_TICK_RATE ? ", " + tickRate + " Hz" : "");
+	}
+}
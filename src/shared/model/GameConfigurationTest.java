@@ -0,0 +1,178 @@
+package shared.model;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * A test class for the GameConfiguration class.
+ */
+public class GameConfigurationTest
+{
+	/**
+	 * Ensures the default constructor uses the default settings.
+	 */
+	@Test
+	public void testDefaultConstructor()
+	{
+		GameConfiguration configuration = new GameConfiguration();
+
+		assertEquals(17, configuration.numberOfRows());
+		assertEquals(23, configuration.numberOfColumns());
+		assertEquals(GameConfiguration.DEFAULT_BREAKABLE_BLOCK_DENSITY,
+				configuration.breakableBlockDensity(), 0);
+		assertEquals(4, configuration.maximumNumberOfPlayers());
+		assertFalse(configuration.largeBoard());
+		assertFalse(configuration.seeded());
+	}
+
+	/**
+	 * Ensures the seeded constructor stores the seed.
+	 */
+	@Test
+	public void testSeededConstructor()
+	{
+		GameConfiguration configuration = new GameConfiguration(17, 23, 0.5, 4, 42);
+
+		assertTrue(configuration.seeded());
+		assertEquals(42, configuration.seed());
+	}
+
+	/**
+	 * Ensures seed throws an IllegalStateException when the map generator is not seeded.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testSeedNotSeeded()
+	{
+		new GameConfiguration().seed();
+	}
+
+	/**
+	 * Ensures the constructor stores the provided settings.
+	 */
+	@Test
+	public void testConstructor()
+	{
+		GameConfiguration configuration = new GameConfiguration(101, 201, 0.25, 8);
+
+		assertEquals(101, configuration.numberOfRows());
+		assertEquals(201, configuration.numberOfColumns());
+		assertEquals(0.25, configuration.breakableBlockDensity(), 0);
+		assertEquals(8, configuration.maximumNumberOfPlayers());
+	}
+
+	/**
+	 * Ensures configurations replicate events by default, and that withReplicationMode copies the
+	 * other settings.
+	 */
+	@Test
+	public void testWithReplicationMode()
+	{
+		GameConfiguration configuration = new GameConfiguration(17, 23, 0.5, 4, 42);
+		assertEquals(ReplicationMode.EVENTS, configuration.replicationMode());
+
+		GameConfiguration copy = configuration.withReplicationMode(ReplicationMode.SNAPSHOTS);
+		assertEquals(ReplicationMode.SNAPSHOTS, copy.replicationMode());
+		assertEquals(ReplicationMode.EVENTS, configuration.replicationMode());
+		assertEquals(17, copy.numberOfRows());
+		assertEquals(23, copy.numberOfColumns());
+		assertEquals(0.5, copy.breakableBlockDensity(), 0);
+		assertEquals(4, copy.maximumNumberOfPlayers());
+		assertEquals(42, copy.seed());
+	}
+
+	/**
+	 * Ensures withReplicationMode throws a NullPointerException when the mode is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testWithReplicationModeNull()
+	{
+		new GameConfiguration().withReplicationMode(null);
+	}
+
+	/**
+	 * Ensures configurations step at the default tick rate, and that withTickRate copies the other
+	 * settings.
+	 */
+	@Test
+	public void testWithTickRate()
+	{
+		GameConfiguration configuration = new GameConfiguration(17, 23, 0.5, 4)
+				.withReplicationMode(ReplicationMode.SNAPSHOTS);
+		assertEquals(GameConfiguration.DEFAULT_TICK_RATE, configuration.tickRate());
+
+		GameConfiguration copy = configuration.withTickRate(60);
+		assertEquals(60, copy.tickRate());
+		assertEquals(GameConfiguration.DEFAULT_TICK_RATE, configuration.tickRate());
+		assertEquals(ReplicationMode.SNAPSHOTS, copy.replicationMode());
+		assertEquals(17, copy.numberOfRows());
+		assertEquals("17x23, density 0.5, 4 players, SNAPSHOTS, 60 Hz", copy.toString());
+	}
+
+	/**
+	 * Ensures withTickRate throws an IllegalArgumentException when the rate is above
+	 * MAXIMUM_TICK_RATE.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testWithTickRateTooHigh()
+	{
+		new GameConfiguration().withTickRate(GameConfiguration.MAXIMUM_TICK_RATE + 1);
+	}
+
+	/**
+	 * Ensures withTickRate throws an IllegalArgumentException when the rate is below
+	 * MINIMUM_TICK_RATE.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testWithTickRateTooLow()
+	{
+		new GameConfiguration().withTickRate(GameConfiguration.MINIMUM_TICK_RATE - 1);
+	}
+
+	/**
+	 * Ensures a board is large once it has more than 64 by 64 spaces.
+	 */
+	@Test
+	public void testLargeBoard()
+	{
+		assertFalse(new GameConfiguration(64, 64, 0.5, 4).largeBoard());
+		assertTrue(new GameConfiguration(65, 64, 0.5, 4).largeBoard());
+		assertTrue(new GameConfiguration(201, 201, 0.5, 4).largeBoard());
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when the board is too small.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorBoardTooSmall()
+	{
+		new GameConfiguration(GameConfiguration.MINIMUM_BOARD_SIZE - 1, 23, 0.5, 4);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when the density is more than 1.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorDensityTooLarge()
+	{
+		new GameConfiguration(17, 23, 1.5, 4);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when the density is not a number.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorDensityNaN()
+	{
+		new GameConfiguration(17, 23, Double.NaN, 4);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when there are no players.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorNoPlayers()
+	{
+		new GameConfiguration(17, 23, 0.5, 0);
+	}
+}
@@ -0,0 +1,19 @@
+package shared.model;
+
+/**
+ * Represents the way the server replicates the state of a game to its clients.
+ */
+public enum ReplicationMode
+{
+	/**
+	 * Indicates that every change to a game object or score is sent to the clients once, as it
+	 * happens.
+	 */
+	EVENTS,
+	
+	/**
+	 * Indicates that the state is sent to the clients every step as the changes since the last
+	 * state each client acknowledged, with a keyframe of the whole state sent periodically.
+	 */
+	SNAPSHOTS
+}
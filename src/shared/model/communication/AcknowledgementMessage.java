@@ -0,0 +1,56 @@
+package shared.model.communication;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Message which a client sends to acknowledge the latest snapshot it has applied, so that the
+ * server can send the following snapshots as changes to its state.
+ */
+public class AcknowledgementMessage extends Message
+{
+	// the tick of the acknowledged snapshot
+	private final int tick;
+
+	/**
+	 * Creates a new AcknowledgementMessage.
+	 * @param gameObjectIdentifier The identifier of the player game object of the client.
+	 * @param tick The tick of the acknowledged snapshot.
+	 * @throws IllegalArgumentException Thrown if the tick is negative.
+	 */
+	public AcknowledgementMessage(int gameObjectIdentifier, int tick)
+	{
+		super(gameObjectIdentifier);
+
+		if (tick < 0)
+			throw new IllegalArgumentException();
+
+		this.tick = tick;
+	}
+
+	/**
+	 * Returns the tick of the acknowledged snapshot.
+	 * @return The tick of the acknowledged snapshot.
+	 */
+	public int tick()
+	{
+		return tick;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public String toString()
+	{
+		return "ACKNOWLEDGEMENT " + gameObjectIdentifier() + " " + tick();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void writeTo(ByteBuffer buffer)
+	{
+		TextMessageWriter.putWord(buffer, "ACKNOWLEDGEMENT");
+		TextMessageWriter.putArgument(buffer, gameObjectIdentifier());
+		TextMessageWriter.putArgument(buffer, tick());
+	}
+}
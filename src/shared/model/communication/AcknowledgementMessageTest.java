@@ -0,0 +1,41 @@
+package shared.model.communication;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests AcknowledgementMessage
+ */
+public class AcknowledgementMessageTest
+{
+	/**
+	 * Ensures the constructor and accessor methods work correctly.
+	 */
+	@Test
+	public void sanityCheck()
+	{
+		AcknowledgementMessage message = new AcknowledgementMessage(3, 120);
+		assertEquals(3, message.gameObjectIdentifier());
+		assertEquals(120, message.tick());
+	}
+
+	/**
+	 * Ensures the tick can not be negative.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeTick()
+	{
+		new AcknowledgementMessage(3, -1);
+	}
+
+	/**
+	 * Ensures toString() produces a valid string.
+	 */
+	@Test
+	public void testToString()
+	{
+		AcknowledgementMessage message = new AcknowledgementMessage(3, 120);
+		assertEquals("ACKNOWLEDGEMENT 3 120", message.toString());
+	}
+}
@@ -0,0 +1,386 @@
+package shared.model.communication;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import shared.model.GameObjectType;
+import shared.model.Key;
+import shared.model.KeyAction;
+
+/**
+ * An IMessageCodec which encodes every message as a one byte tag followed by its fields.
+ * Identifiers, rows, columns and numbers of players are written as unsigned variable length
+ * integers, which take a single byte for values below 128, scores and times as zigzag variable
+ * length integers, so that small negative values are also short, and enumerated values as a single
+ * byte holding their ordinal.  A message which is created on a board of up to 127 rows and columns
+ * with an identifier below 128 takes 5 bytes, where its text form takes around 30.
+ */
+public class BinaryMessageCodec implements IMessageCodec
+{
+	// the tags of the messages
+	private static final byte GAME_OBJECT_CREATED = 1;
+	private static final byte GAME_OBJECT_DESTROYED = 2;
+	private static final byte GAME_OBJECT_POSITION_UPDATED = 3;
+	private static final byte SCORE_UPDATED = 4;
+	private static final byte KEY = 5;
+	private static final byte GAME = 6;
+	private static final byte PLAYER_GAME_OBJECT_IDENTIFIER = 7;
+	private static final byte GAME_TIME = 8;
+	private static final byte HELLO = 9;
+	private static final byte SNAPSHOT = 10;
+	private static final byte ACKNOWLEDGEMENT = 11;
+	private static final byte BOARD = 12;
+	private static final byte JOIN_ROOM = 13;
+
+	// the number of low bits of a board run which hold its type
+	private static final int RUN_TYPE_BITS = 3;
+
+	// the largest number of bytes of a variable length integer
+	private static final int MAXIMUM_VARIABLE_LENGTH = 5;
+
+	// the enumerated values indexed by their ordinal
+	private static final GameObjectType[] GAME_OBJECT_TYPES = GameObjectType.values();
+	private static final Key[] KEYS = Key.values();
+	private static final KeyAction[] KEY_ACTIONS = KeyAction.values();
+	private static final GameMessage.Action[] GAME_ACTIONS = GameMessage.Action.values();
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void encode(IMessage message, ByteBuffer buffer)
+	{
+		if (message == null || buffer == null)
+			throw new NullPointerException();
+
+		int start = buffer.position();
+
+		try
+		{
+			encodeFields(message, buffer);
+		}
+		catch (BufferOverflowException exception)
+		{
+			// leave no part of the message in the buffer
+			buffer.position(start);
+			throw exception;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public IMessage decode(ByteBuffer buffer)
+	{
+		if (buffer == null)
+			throw new NullPointerException();
+
+		int start = buffer.position();
+
+		try
+		{
+			return decodeFields(buffer);
+		}
+		catch (BufferUnderflowException exception)
+		{
+			// wait until the rest of the message has been received
+			buffer.position(start);
+			return null;
+		}
+	}
+
+	/**
+	 * Private helper method which writes the tag and fields of a message.
+	 * @param message The message.
+	 * @param buffer The buffer the message is written to.
+	 * @throws IllegalArgumentException Thrown if the message is of an unknown type.
+	 * @throws BufferOverflowException Thrown if the buffer is full.
+	 */
+	private static void encodeFields(IMessage message, ByteBuffer buffer)
+	{
+		if (message instanceof GameObjectCreatedMessage)
+		{
+			GameObjectCreatedMessage createdMessage = (GameObjectCreatedMessage) message;
+			buffer.put(GAME_OBJECT_CREATED);
+			putUnsigned(buffer, createdMessage.gameObjectIdentifier());
+			buffer.put((byte) createdMessage.gameObjectType().ordinal());
+			putUnsigned(buffer, createdMessage.row());
+			putUnsigned(buffer, createdMessage.column());
+		}
+		else if (message instanceof GameObjectDestroyedMessage)
+		{
+			buffer.put(GAME_OBJECT_DESTROYED);
+			putUnsigned(buffer, ((GameObjectDestroyedMessage) message).gameObjectIdentifier());
+		}
+		else if (message instanceof GameObjectUpdatedMessage)
+		{
+			GameObjectUpdatedMessage updatedMessage = (GameObjectUpdatedMessage) message;
+			buffer.put(GAME_OBJECT_POSITION_UPDATED);
+			putUnsigned(buffer, updatedMessage.gameObjectIdentifier());
+			putUnsigned(buffer, updatedMessage.row());
+			putUnsigned(buffer, updatedMessage.column());
+		}
+		else if (message instanceof ScoreUpdatedMessage)
+		{
+			ScoreUpdatedMessage scoreMessage = (ScoreUpdatedMessage) message;
+			buffer.put(SCORE_UPDATED);
+			putUnsigned(buffer, scoreMessage.gameObjectIdentifier());
+			putSigned(buffer, scoreMessage.score());
+		}
+		else if (message instanceof KeyMessage)
+		{
+			KeyMessage keyMessage = (KeyMessage) message;
+			buffer.put(KEY);
+			putUnsigned(buffer, keyMessage.gameObjectIdentifier());
+			buffer.put((byte) keyMessage.key().ordinal());
+			buffer.put((byte) keyMessage.action().ordinal());
+		}
+		else if (message instanceof GameMessage)
+		{
+			GameMessage gameMessage = (GameMessage) message;
+			buffer.put(GAME);
+			buffer.put((byte) gameMessage.action().ordinal());
+			putUnsigned(buffer, gameMessage.numberOfPlayers());
+			putUnsigned(buffer, gameMessage.numberOfRows());
+			putUnsigned(buffer, gameMessage.numberOfColumns());
+		}
+		else if (message instanceof PlayerGameObjectIdentifierMessage)
+		{
+			buffer.put(PLAYER_GAME_OBJECT_IDENTIFIER);
+			putUnsigned(buffer, ((PlayerGameObjectIdentifierMessage) message).gameObjectIdentifier());
+		}
+		else if (message instanceof GameTimeMessage)
+		{
+			buffer.put(GAME_TIME);
+			putSigned(buffer, ((GameTimeMessage) message).time());
+		}
+		else if (message instanceof HelloMessage)
+		{
+			buffer.put(HELLO);
+		}
+		else if (message instanceof SnapshotMessage)
+		{
+			// the baseline tick of a keyframe is -1, so it is shifted to be unsigned
+			SnapshotMessage snapshotMessage = (SnapshotMessage) message;
+			buffer.put(SNAPSHOT);
+			putUnsigned(buffer, snapshotMessage.tick());
+			putUnsigned(buffer, snapshotMessage.baselineTick() + 1);
+			putUnsigned(buffer, snapshotMessage.numberOfChanges());
+		}
+		else if (message instanceof AcknowledgementMessage)
+		{
+			AcknowledgementMessage acknowledgementMessage = (AcknowledgementMessage) message;
+			buffer.put(ACKNOWLEDGEMENT);
+			putUnsigned(buffer, acknowledgementMessage.gameObjectIdentifier());
+			putUnsigned(buffer, acknowledgementMessage.tick());
+		}
+		else if (message instanceof BoardSnapshotMessage)
+		{
+			// each run is one byte holding its length and the ordinal of its type plus one
+			BoardSnapshotMessage boardMessage = (BoardSnapshotMessage) message;
+			buffer.put(BOARD);
+			putUnsigned(buffer, boardMessage.firstSpace());
+			putUnsigned(buffer, boardMessage.firstIdentifier());
+			buffer.put((byte) boardMessage.numberOfRuns());
+
+			for (int run = 0; run < boardMessage.numberOfRuns(); run++)
+			{
+				GameObjectType type = boardMessage.runType(run);
+				buffer.put((byte) (boardMessage.runLength(run) << RUN_TYPE_BITS
+						| (type == null ? 0 : type.ordinal() + 1)));
+			}
+		}
+		else if (message instanceof JoinRoomMessage)
+		{
+			buffer.put(JOIN_ROOM);
+			putUnsigned(buffer, ((JoinRoomMessage) message).room());
+		}
+		else
+		{
+			throw new IllegalArgumentException("Unknown message type.");
+		}
+	}
+
+	/**
+	 * Private helper method which reads the tag and fields of a message.
+	 * @param buffer The buffer the message is read from.
+	 * @return The message.
+	 * @throws IllegalArgumentException Thrown if the message is in an unrecognized format.
+	 * @throws BufferUnderflowException Thrown if the buffer ends before the message.
+	 */
+	private static IMessage decodeFields(ByteBuffer buffer)
+	{
+		byte tag = buffer.get();
+
+		switch (tag)
+		{
+			case GAME_OBJECT_CREATED:
+			{
+				int identifier = getUnsigned(buffer);
+				GameObjectType type = GAME_OBJECT_TYPES[getOrdinal(buffer, GAME_OBJECT_TYPES.length)];
+				int row = getUnsigned(buffer);
+				return new GameObjectCreatedMessage(identifier, type, row, getUnsigned(buffer));
+			}
+
+			case GAME_OBJECT_DESTROYED:
+				return new GameObjectDestroyedMessage(getUnsigned(buffer));
+
+			case GAME_OBJECT_POSITION_UPDATED:
+			{
+				int identifier = getUnsigned(buffer);
+				int row = getUnsigned(buffer);
+				return new GameObjectUpdatedMessage(identifier, row, getUnsigned(buffer));
+			}
+
+			case SCORE_UPDATED:
+			{
+				int identifier = getUnsigned(buffer);
+				return new ScoreUpdatedMessage(identifier, getSigned(buffer));
+			}
+
+			case KEY:
+			{
+				int identifier = getUnsigned(buffer);
+				Key key = KEYS[getOrdinal(buffer, KEYS.length)];
+				return new KeyMessage(identifier, key, KEY_ACTIONS[getOrdinal(buffer, KEY_ACTIONS.length)]);
+			}
+
+			case GAME:
+			{
+				GameMessage.Action action = GAME_ACTIONS[getOrdinal(buffer, GAME_ACTIONS.length)];
+				int players = getUnsigned(buffer);
+				int rows = getUnsigned(buffer);
+				return new GameMessage(action, players, rows, getUnsigned(buffer));
+			}
+
+			case PLAYER_GAME_OBJECT_IDENTIFIER:
+				return new PlayerGameObjectIdentifierMessage(getUnsigned(buffer));
+
+			case GAME_TIME:
+				return new GameTimeMessage(getSigned(buffer));
+
+			case HELLO:
+				return new HelloMessage();
+
+			case SNAPSHOT:
+			{
+				int tick = getUnsigned(buffer);
+				int baselineTick = getUnsigned(buffer) - 1;
+				return new SnapshotMessage(tick, baselineTick, getUnsigned(buffer));
+			}
+
+			case ACKNOWLEDGEMENT:
+			{
+				int identifier = getUnsigned(buffer);
+				return new AcknowledgementMessage(identifier, getUnsigned(buffer));
+			}
+
+			case BOARD:
+			{
+				int firstSpace = getUnsigned(buffer);
+				int firstIdentifier = getUnsigned(buffer);
+				int numberOfRuns = getOrdinal(buffer, BoardSnapshotMessage.MAXIMUM_RUNS + 1);
+				GameObjectType[] runTypes = new GameObjectType[numberOfRuns];
+				int[] runLengths = new int[numberOfRuns];
+
+				for (int run = 0; run < numberOfRuns; run++)
+				{
+					int value = buffer.get();
+					int type = value & ((1 << RUN_TYPE_BITS) - 1);
+
+					if (type > GAME_OBJECT_TYPES.length)
+						throw new IllegalArgumentException("Unknown ordinal " + (type - 1) + ".");
+
+					runTypes[run] = type == 0 ? null : GAME_OBJECT_TYPES[type - 1];
+					runLengths[run] = value >> RUN_TYPE_BITS;
+				}
+
+				return new BoardSnapshotMessage(firstSpace, firstIdentifier, runTypes, runLengths);
+			}
+
+			case JOIN_ROOM:
+				return new JoinRoomMessage(getUnsigned(buffer));
+
+			default:
+				throw new IllegalArgumentException("Unknown message tag " + tag + ".");
+		}
+	}
+
+	/**
+	 * Private helper method which writes an unsigned variable length integer.  Negative values are
+	 * written as large unsigned values, which take 5 bytes.
+	 * @param buffer The buffer.
+	 * @param value The value.
+	 */
+	private static void putUnsigned(ByteBuffer buffer, int value)
+	{
+		while ((value & ~0x7F) != 0)
+		{
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Private helper method which writes a zigzag variable length integer.
+	 * @param buffer The buffer.
+	 * @param value The value.
+	 */
+	private static void putSigned(ByteBuffer buffer, int value)
+	{
+		putUnsigned(buffer, (value << 1) ^ (value >> 31));
+	}
+
+	/**
+	 * Private helper method which reads an unsigned variable length integer.
+	 * @param buffer The buffer.
+	 * @return The value.
+	 * @throws IllegalArgumentException Thrown if the integer is longer than 5 bytes.
+	 */
+	private static int getUnsigned(ByteBuffer buffer)
+	{
+		int value = 0;
+
+		for (int i = 0; i < MAXIMUM_VARIABLE_LENGTH; i++)
+		{
+			byte part = buffer.get();
+			value |= (part & 0x7F) << (7 * i);
+
+			if (part >= 0)
+				return value;
+		}
+
+		throw new IllegalArgumentException("Malformed variable length integer.");
+	}
+
+	/**
+	 * Private helper method which reads a zigzag variable length integer.
+	 * @param buffer The buffer.
+	 * @return The value.
+	 * @throws IllegalArgumentException Thrown if the integer is longer than 5 bytes.
+	 */
+	private static int getSigned(ByteBuffer buffer)
+	{
+		int value = getUnsigned(buffer);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Private helper method which reads the ordinal of an enumerated value.
+	 * @param buffer The buffer.
+	 * @param numberOfValues The number of values of the enumerated type.
+	 * @return The ordinal.
+	 * @throws IllegalArgumentException Thrown if the ordinal is out of range.
+	 */
+	private static int getOrdinal(ByteBuffer buffer, int numberOfValues)
+	{
+		int ordinal = buffer.get();
+
+		if (ordinal < 0 || ordinal >= numberOfValues)
+			throw new IllegalArgumentException("Unknown ordinal " + ordinal + ".");
+
+		return ordinal;
+	}
+}
@@ -0,0 +1,205 @@
+package shared.model.communication;
+
+import static org.junit.Assert.*;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import shared.model.GameObjectType;
+import shared.model.Key;
+import shared.model.KeyAction;
+
+/**
+ * Tests BinaryMessageCodec.  Messages do not override equals, so decoded messages are compared
+ * with the originals through their text form.
+ */
+public class BinaryMessageCodecTest
+{
+	// the test codec
+	private BinaryMessageCodec codec;
+
+	// a buffer large enough for every test
+	private ByteBuffer buffer;
+
+	/**
+	 * Sets up the tests.
+	 */
+	@Before
+	public void setUp()
+	{
+		codec = new BinaryMessageCodec();
+		buffer = ByteBuffer.allocate(1024);
+	}
+
+	/**
+	 * Ensures every type of message is decoded to the message which was encoded.
+	 */
+	@Test
+	public void testRoundTrip()
+	{
+		IMessage[] messages = {
+				new GameObjectCreatedMessage(3, GameObjectType.BREAKABLE_BLOCK, 15, 21),
+				new GameObjectDestroyedMessage(300),
+				new GameObjectUpdatedMessage(Integer.MAX_VALUE, 200, 0),
+				new ScoreUpdatedMessage(0, -3),
+				new ScoreUpdatedMessage(-1, Integer.MIN_VALUE),
+				new KeyMessage(7, Key.SPACE, KeyAction.DEPRESS),
+				new GameMessage(GameMessage.Action.START, 4),
+				new GameMessage(GameMessage.Action.STOP, 2, 101, 201),
+				new PlayerGameObjectIdentifierMessage(12),
+				new GameTimeMessage(1800),
+				new HelloMessage(),
+				new SnapshotMessage(500, 497, 12),
+				new SnapshotMessage(0, SnapshotMessage.KEYFRAME, 300),
+				new AcknowledgementMessage(5, 499),
+				new BoardSnapshotMessage(40, 7, new GameObjectType[] {
+						GameObjectType.UNBREAKABLE_BLOCK, null, GameObjectType.BREAKABLE_BLOCK },
+						new int[] { 15, 2, 1 }),
+				new JoinRoomMessage(3) };
+
+		for (IMessage message : messages)
+			codec.encode(message, buffer);
+
+		buffer.flip();
+
+		for (IMessage message : messages)
+			assertEquals(message.toString(), codec.decode(buffer).toString());
+
+		assertFalse(buffer.hasRemaining());
+	}
+
+	/**
+	 * Ensures a message on a small board with a small identifier takes five bytes.
+	 */
+	@Test
+	public void testEncodedLength()
+	{
+		codec.encode(new GameObjectCreatedMessage(100, GameObjectType.PLAYER, 15, 21), buffer);
+		assertEquals(5, buffer.position());
+	}
+
+	/**
+	 * Ensures no message is encoded to more than MAXIMUM_ENCODED_LENGTH bytes.
+	 */
+	@Test
+	public void testMaximumEncodedLength()
+	{
+		codec.encode(new GameObjectCreatedMessage(-1, GameObjectType.EXPLOSION, Integer.MAX_VALUE,
+				Integer.MAX_VALUE), buffer);
+		assertTrue(buffer.position() <= IMessageCodec.MAXIMUM_ENCODED_LENGTH);
+
+		buffer.clear();
+		codec.encode(new GameMessage(GameMessage.Action.WAITING, -1, -1, -1), buffer);
+		assertTrue(buffer.position() <= IMessageCodec.MAXIMUM_ENCODED_LENGTH);
+
+		buffer.clear();
+		codec.encode(BoardSnapshotMessageTest.longestMessage(), buffer);
+		assertTrue(buffer.position() <= IMessageCodec.MAXIMUM_ENCODED_LENGTH);
+	}
+
+	/**
+	 * Ensures decode returns null and leaves the position unchanged until a whole message has been
+	 * received.
+	 */
+	@Test
+	public void testDecodePartialMessage()
+	{
+		codec.encode(new GameObjectUpdatedMessage(1000, 50, 60), buffer);
+		int length = buffer.position();
+
+		for (int available = 0; available < length; available++)
+		{
+			ByteBuffer partial = ByteBuffer.wrap(buffer.array(), 0, available);
+			assertNull(codec.decode(partial));
+			assertEquals(0, partial.position());
+		}
+
+		ByteBuffer whole = ByteBuffer.wrap(buffer.array(), 0, length);
+		assertEquals("GAME_OBJECT_POSITION_UPDATED 1000 50 60", codec.decode(whole).toString());
+	}
+
+	/**
+	 * Ensures encode throws a BufferOverflowException and leaves the position unchanged when the
+	 * buffer is full.
+	 */
+	@Test
+	public void testEncodeBufferFull()
+	{
+		ByteBuffer smallBuffer = ByteBuffer.allocate(4);
+		smallBuffer.put((byte) 0);
+
+		try
+		{
+			codec.encode(new GameObjectCreatedMessage(1, GameObjectType.BOMB, 2, 3), smallBuffer);
+			fail();
+		}
+		catch (BufferOverflowException exception)
+		{
+			assertEquals(1, smallBuffer.position());
+		}
+	}
+
+	/**
+	 * Ensures encode throws a NullPointerException when the message is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testEncodeNullMessage()
+	{
+		codec.encode(null, buffer);
+	}
+
+	/**
+	 * Ensures decode throws a NullPointerException when the buffer is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testDecodeNullBuffer()
+	{
+		codec.decode(null);
+	}
+
+	/**
+	 * Ensures encode throws an IllegalArgumentException for an unknown type of message.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testEncodeUnknownMessage()
+	{
+		codec.encode(new IMessage()
+		{
+			public void writeTo(ByteBuffer buffer)
+			{
+				// an unknown message has no text form
+			}
+		}, buffer);
+	}
+
+	/**
+	 * Ensures decode throws an IllegalArgumentException for an unknown tag.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testDecodeUnknownTag()
+	{
+		codec.decode(ByteBuffer.wrap(new byte[] { 42 }));
+	}
+
+	/**
+	 * Ensures decode throws an IllegalArgumentException for an out of range key.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testDecodeUnknownKey()
+	{
+		codec.decode(ByteBuffer.wrap(new byte[] { 5, 1, 9, 0 }));
+	}
+
+	/**
+	 * Ensures decode throws an IllegalArgumentException for a variable length integer longer than
+	 * five bytes.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testDecodeMalformedInteger()
+	{
+		codec.decode(ByteBuffer.wrap(new byte[] { 2, -1, -1, -1, -1, -1, 1 }));
+	}
+}
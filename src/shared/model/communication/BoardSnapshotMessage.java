@@ -0,0 +1,312 @@
+package shared.model.communication;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import shared.model.GameObjectType;
+
+/**
+ * A Message which creates the game objects in a range of spaces of the board at once.  The spaces
+ * are described in board order, row by row, as runs of spaces holding game objects of the same type
+ * or holding no game object, starting from the first space.  The game objects are numbered in board
+ * order from the first identifier.  A board is sent as the messages returned by fromTiles, each
+ * of which holds at most MAXIMUM_RUNS runs of at most MAXIMUM_RUN_LENGTH spaces, so that every
+ * message stays within the lengths of both wire formats.  In its text form, the runs are a single
+ * word of one letter per run, each preceded by the length of the run unless it is 1.
+ */
+public class BoardSnapshotMessage implements IMessage
+{
+	/**
+	 * The largest number of runs in a message.
+	 */
+	public static final int MAXIMUM_RUNS = 16;
+
+	/**
+	 * The largest number of spaces in a run.
+	 */
+	public static final int MAXIMUM_RUN_LENGTH = 15;
+
+	// the letters of the game object types in the text form, indexed by ordinal, and of empty spaces
+	static final String TILE_LETTERS = "POUBX";
+	static final char EMPTY_LETTER = '.';
+
+	// the types of the game objects indexed by their ordinal
+	private static final GameObjectType[] GAME_OBJECT_TYPES = GameObjectType.values();
+
+	// the first space of the runs
+	private final int firstSpace;
+
+	// the identifier of the first game object
+	private final int firstIdentifier;
+
+	// the type of the game objects of each run, or null for a run of empty spaces
+	private final GameObjectType[] runTypes;
+
+	// the number of spaces of each run
+	private final int[] runLengths;
+
+	/**
+	 * Creates a new BoardSnapshotMessage.
+	 * @param firstSpace The first space of the runs, as row times the number of columns plus column.
+	 * @param firstIdentifier The identifier of the first game object.
+	 * @param runTypes The type of the game objects of each run, or null for a run of empty spaces.
+	 * @param runLengths The number of spaces of each run.
+	 * @throws NullPointerException Thrown if the types or lengths are null.
+	 * @throws IllegalArgumentException Thrown if the first space or identifier is negative, if the
+	 * numbers of types and lengths differ or are not between 1 and MAXIMUM_RUNS, or if a length is
+	 * not between 1 and MAXIMUM_RUN_LENGTH.
+	 */
+	public BoardSnapshotMessage(int firstSpace, int firstIdentifier, GameObjectType[] runTypes,
+			int[] runLengths)
+	{
+		if (runTypes == null || runLengths == null)
+			throw new NullPointerException();
+
+		if (firstSpace < 0 || firstIdentifier < 0 || runTypes.length != runLengths.length
+				|| runTypes.length < 1 || runTypes.length > MAXIMUM_RUNS)
+			throw new IllegalArgumentException();
+
+		for (int length : runLengths)
+		{
+			if (length < 1 || length > MAXIMUM_RUN_LENGTH)
+				throw new IllegalArgumentException();
+		}
+
+		this.firstSpace = firstSpace;
+		this.firstIdentifier = firstIdentifier;
+		this.runTypes = runTypes.clone();
+		this.runLengths = runLengths.clone();
+	}
+
+	/**
+	 * Returns the messages which create the game objects of a board.  A new message is started when
+	 * a message is full, or when the identifier of a game object does not follow the identifier of
+	 * the previous game object, so the messages are fewest when the identifiers are consecutive in
+	 * board order.  Empty spaces after the last game object are not described.
+	 * @param tiles The type of the game object in each space in board order, or null for the
+	 * spaces which hold no game object.
+	 * @param identifiers The identifier of the game object in each space.
+	 * @return The messages.
+	 * @throws NullPointerException Thrown if the tiles or identifiers are null.
+	 * @throws IllegalArgumentException Thrown if there are fewer identifiers than tiles or an
+	 * identifier of a game object is negative.
+	 */
+	public static BoardSnapshotMessage[] fromTiles(GameObjectType[] tiles, int[] identifiers)
+	{
+		if (tiles == null || identifiers == null)
+			throw new NullPointerException();
+
+		if (identifiers.length < tiles.length)
+			throw new IllegalArgumentException();
+
+		ArrayList<BoardSnapshotMessage> messages = new ArrayList<BoardSnapshotMessage>();
+		GameObjectType[] runTypes = new GameObjectType[MAXIMUM_RUNS];
+		int[] runLengths = new int[MAXIMUM_RUNS];
+		int numberOfRuns = 0;
+		int firstSpace = 0;
+		int firstIdentifier = 0;
+		int nextIdentifier = 0;
+
+		for (int space = 0; space < tiles.length; space++)
+		{
+			GameObjectType tile = tiles[space];
+
+			if (tile != null && identifiers[space] < 0)
+				throw new IllegalArgumentException();
+
+			boolean extendsRun = numberOfRuns > 0 && runTypes[numberOfRuns - 1] == tile
+					&& runLengths[numberOfRuns - 1] < MAXIMUM_RUN_LENGTH;
+
+			// finish the message if it is full or the identifier does not follow the previous one
+			if (numberOfRuns > 0 && (!extendsRun && numberOfRuns == MAXIMUM_RUNS
+					|| tile != null && identifiers[space] != nextIdentifier))
+			{
+				messages.add(createMessage(firstSpace, firstIdentifier, runTypes, runLengths,
+						trimEmptyRun(runTypes, numberOfRuns)));
+				numberOfRuns = 0;
+				extendsRun = false;
+			}
+
+			// the empty spaces before the first game object of a message are not described
+			if (tile == null && numberOfRuns == 0)
+				continue;
+
+			if (tile != null)
+			{
+				if (numberOfRuns == 0)
+				{
+					firstSpace = space;
+					firstIdentifier = identifiers[space];
+				}
+
+				nextIdentifier = identifiers[space] + 1;
+			}
+
+			if (extendsRun)
+				runLengths[numberOfRuns - 1]++;
+			else
+			{
+				runTypes[numberOfRuns] = tile;
+				runLengths[numberOfRuns] = 1;
+				numberOfRuns++;
+			}
+		}
+
+		if (numberOfRuns > 0)
+			messages.add(createMessage(firstSpace, firstIdentifier, runTypes, runLengths,
+					trimEmptyRun(runTypes, numberOfRuns)));
+
+		return messages.toArray(new BoardSnapshotMessage[messages.size()]);
+	}
+
+	/**
+	 * Returns the first space of the runs.
+	 * @return The first space of the runs.
+	 */
+	public int firstSpace()
+	{
+		return firstSpace;
+	}
+
+	/**
+	 * Returns the identifier of the first game object.
+	 * @return The identifier of the first game object.
+	 */
+	public int firstIdentifier()
+	{
+		return firstIdentifier;
+	}
+
+	/**
+	 * Returns the number of runs.
+	 * @return The number of runs.
+	 */
+	public int numberOfRuns()
+	{
+		return runTypes.length;
+	}
+
+	/**
+	 * Returns the type of the game objects of a run.
+	 * @param run The index of the run.
+	 * @return The type of the game objects of the run, or null if its spaces are empty.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if there is no such run.
+	 */
+	public GameObjectType runType(int run)
+	{
+		return runTypes[run];
+	}
+
+	/**
+	 * Returns the number of spaces of a run.
+	 * @param run The index of the run.
+	 * @return The number of spaces of the run.
+	 * @throws ArrayIndexOutOfBoundsException Thrown if there is no such run.
+	 */
+	public int runLength(int run)
+	{
+		return runLengths[run];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder("BOARD ");
+		builder.append(firstSpace()).append(' ').append(firstIdentifier()).append(' ');
+
+		for (int run = 0; run < runTypes.length; run++)
+		{
+			if (runLengths[run] > 1)
+				builder.append(runLengths[run]);
+
+			builder.append(letter(runTypes[run]));
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void writeTo(ByteBuffer buffer)
+	{
+		TextMessageWriter.putWord(buffer, "BOARD");
+		TextMessageWriter.putArgument(buffer, firstSpace());
+		TextMessageWriter.putArgument(buffer, firstIdentifier());
+		buffer.put((byte) ' ');
+
+		for (int run = 0; run < runTypes.length; run++)
+		{
+			// a run is at most two digits long
+			if (runLengths[run] >= 10)
+				buffer.put((byte) ('0' + runLengths[run] / 10));
+
+			if (runLengths[run] > 1)
+				buffer.put((byte) ('0' + runLengths[run] % 10));
+
+			buffer.put((byte) letter(runTypes[run]));
+		}
+	}
+
+	/**
+	 * Returns the type of the game objects of a letter of the text form.
+	 * @param letter The letter.
+	 * @return The type, or null for the letter of empty spaces.
+	 * @throws IllegalArgumentException Thrown if the letter is not the letter of a type or of empty
+	 * spaces.
+	 */
+	static GameObjectType tileType(char letter)
+	{
+		if (letter == EMPTY_LETTER)
+			return null;
+
+		int ordinal = TILE_LETTERS.indexOf(letter);
+
+		if (ordinal < 0)
+			throw new IllegalArgumentException("A word in the message could not be decoded.");
+
+		return GAME_OBJECT_TYPES[ordinal];
+	}
+
+	/**
+	 * Private helper method which returns the letter of the game objects of a run.
+	 * @param type The type of the game objects, or null for empty spaces.
+	 * @return The letter.
+	 */
+	private static char letter(GameObjectType type)
+	{
+		return type == null ? EMPTY_LETTER : TILE_LETTERS.charAt(type.ordinal());
+	}
+
+	/**
+	 * Private helper method which returns the number of runs without a last run of empty spaces.
+	 * @param runTypes The types of the runs.
+	 * @param numberOfRuns The number of runs.
+	 * @return The number of runs to keep.
+	 */
+	private static int trimEmptyRun(GameObjectType[] runTypes, int numberOfRuns)
+	{
+		return runTypes[numberOfRuns - 1] == null ? numberOfRuns - 1 : numberOfRuns;
+	}
+
+	/**
+	 * Private helper method which creates a message from the first runs of the provided arrays.
+	 * @param firstSpace The first space of the runs.
+	 * @param firstIdentifier The identifier of the first game object.
+	 * @param runTypes The types of the runs.
+	 * @param runLengths The lengths of the runs.
+	 * @param numberOfRuns The number of runs.
+	 * @return The message.
+	 */
+	private static BoardSnapshotMessage createMessage(int firstSpace, int firstIdentifier,
+			GameObjectType[] runTypes, int[] runLengths, int numberOfRuns)
+	{
+		GameObjectType[] types = new GameObjectType[numberOfRuns];
+		int[] lengths = new int[numberOfRuns];
+		System.arraycopy(runTypes, 0, types, 0, numberOfRuns);
+		System.arraycopy(runLengths, 0, lengths, 0, numberOfRuns);
+		return new BoardSnapshotMessage(firstSpace, firstIdentifier, types, lengths);
+	}
+}
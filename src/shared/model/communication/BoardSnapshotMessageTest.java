@@ -0,0 +1,187 @@
+package shared.model.communication;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import shared.model.GameObjectType;
+
+/**
+ * Tests BoardSnapshotMessage
+ */
+public class BoardSnapshotMessageTest
+{
+	// shorthands for the types of the tiles
+	private static final GameObjectType U = GameObjectType.UNBREAKABLE_BLOCK;
+	private static final GameObjectType B = GameObjectType.BREAKABLE_BLOCK;
+
+	/**
+	 * Returns a message with the largest first space and identifier and the most runs of the
+	 * longest length, whose text and binary forms are the longest of any board snapshot.
+	 * @return The message.
+	 */
+	static BoardSnapshotMessage longestMessage()
+	{
+		GameObjectType[] runTypes = new GameObjectType[BoardSnapshotMessage.MAXIMUM_RUNS];
+		int[] runLengths = new int[BoardSnapshotMessage.MAXIMUM_RUNS];
+
+		for (int i = 0; i < runTypes.length; i++)
+		{
+			runTypes[i] = i % 2 == 0 ? U : B;
+			runLengths[i] = BoardSnapshotMessage.MAXIMUM_RUN_LENGTH;
+		}
+
+		return new BoardSnapshotMessage(Integer.MAX_VALUE, Integer.MAX_VALUE, runTypes, runLengths);
+	}
+
+	/**
+	 * Ensures the constructor and accessor methods work correctly.
+	 */
+	@Test
+	public void sanityCheck()
+	{
+		BoardSnapshotMessage message = new BoardSnapshotMessage(40, 7,
+				new GameObjectType[] { U, null, B }, new int[] { 15, 2, 1 });
+		assertEquals(40, message.firstSpace());
+		assertEquals(7, message.firstIdentifier());
+		assertEquals(3, message.numberOfRuns());
+		assertEquals(U, message.runType(0));
+		assertNull(message.runType(1));
+		assertEquals(B, message.runType(2));
+		assertEquals(15, message.runLength(0));
+		assertEquals(2, message.runLength(1));
+		assertEquals(1, message.runLength(2));
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException for a run longer than
+	 * MAXIMUM_RUN_LENGTH.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testRunTooLong()
+	{
+		new BoardSnapshotMessage(0, 0, new GameObjectType[] { U },
+				new int[] { BoardSnapshotMessage.MAXIMUM_RUN_LENGTH + 1 });
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when there are no runs.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoRuns()
+	{
+		new BoardSnapshotMessage(0, 0, new GameObjectType[0], new int[0]);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when the numbers of types and
+	 * lengths differ.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testMismatchedRuns()
+	{
+		new BoardSnapshotMessage(0, 0, new GameObjectType[] { U, B }, new int[] { 1 });
+	}
+
+	/**
+	 * Ensures the constructor throws a NullPointerException when the lengths are null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testNullRunLengths()
+	{
+		new BoardSnapshotMessage(0, 0, new GameObjectType[] { U }, null);
+	}
+
+	/**
+	 * Ensures toString() produces a valid string.
+	 */
+	@Test
+	public void testToString()
+	{
+		BoardSnapshotMessage message = new BoardSnapshotMessage(40, 7,
+				new GameObjectType[] { U, null, B }, new int[] { 15, 2, 1 });
+		assertEquals("BOARD 40 7 15U2.B", message.toString());
+	}
+
+	/**
+	 * Ensures the longest message fits in MAXIMUM_TEXT_LENGTH and writeTo writes its toString.
+	 */
+	@Test
+	public void testLongestMessage()
+	{
+		BoardSnapshotMessage message = longestMessage();
+		ByteBuffer buffer = ByteBuffer.allocate(IMessage.MAXIMUM_TEXT_LENGTH);
+		message.writeTo(buffer);
+		assertEquals(message.toString(), new String(buffer.array(), 0, buffer.position()));
+	}
+
+	/**
+	 * Ensures fromTiles skips the empty spaces before the first game object and after the last
+	 * one, and numbers the game objects from the identifier of the first.
+	 */
+	@Test
+	public void testFromTiles()
+	{
+		GameObjectType[] tiles = { null, null, U, U, null, B, U, null, null };
+		int[] identifiers = { 0, 0, 5, 6, 0, 7, 8, 0, 0 };
+
+		BoardSnapshotMessage[] messages = BoardSnapshotMessage.fromTiles(tiles, identifiers);
+		assertEquals(1, messages.length);
+		assertEquals("BOARD 2 5 2U.BU", messages[0].toString());
+	}
+
+	/**
+	 * Ensures fromTiles starts a new message when an identifier does not follow the previous one.
+	 */
+	@Test
+	public void testFromTilesIdentifierGap()
+	{
+		GameObjectType[] tiles = { U, U, null, GameObjectType.PLAYER };
+		int[] identifiers = { 0, 1, 0, 40 };
+
+		BoardSnapshotMessage[] messages = BoardSnapshotMessage.fromTiles(tiles, identifiers);
+		assertEquals(2, messages.length);
+		assertEquals("BOARD 0 0 2U", messages[0].toString());
+		assertEquals("BOARD 3 40 P", messages[1].toString());
+	}
+
+	/**
+	 * Ensures fromTiles splits long runs and starts a new message when a message is full.
+	 */
+	@Test
+	public void testFromTilesFullMessage()
+	{
+		// alternating blocks make a run per space, followed by a run longer than a run may be
+		int numberOfTiles = BoardSnapshotMessage.MAXIMUM_RUNS - 1
+				+ BoardSnapshotMessage.MAXIMUM_RUN_LENGTH + 6;
+		GameObjectType[] tiles = new GameObjectType[numberOfTiles];
+		int[] identifiers = new int[numberOfTiles];
+
+		for (int space = 0; space < numberOfTiles; space++)
+		{
+			tiles[space] = space < BoardSnapshotMessage.MAXIMUM_RUNS - 1 && space % 2 == 0 ? B : U;
+			identifiers[space] = space;
+		}
+
+		BoardSnapshotMessage[] messages = BoardSnapshotMessage.fromTiles(tiles, identifiers);
+		assertEquals(2, messages.length);
+		assertEquals(BoardSnapshotMessage.MAXIMUM_RUNS, messages[0].numberOfRuns());
+		assertEquals(BoardSnapshotMessage.MAXIMUM_RUN_LENGTH, messages[0].runLength(
+				BoardSnapshotMessage.MAXIMUM_RUNS - 1));
+		assertEquals(BoardSnapshotMessage.MAXIMUM_RUNS - 1 + BoardSnapshotMessage.MAXIMUM_RUN_LENGTH,
+				messages[1].firstSpace());
+		assertEquals(messages[1].firstSpace(), messages[1].firstIdentifier());
+		assertEquals("BOARD 30 30 6U", messages[1].toString());
+	}
+
+	/**
+	 * Ensures fromTiles returns no messages for an empty board.
+	 */
+	@Test
+	public void testFromTilesEmptyBoard()
+	{
+		assertEquals(0, BoardSnapshotMessage.fromTiles(new GameObjectType[10], new int[10]).length);
+	}
+}
@@ -2,17 +2,16 @@ package shared.model.communication;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.net.Socket;
 import java.net.UnknownHostException;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Semaphore;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.LockSupport;
 
-import shared.core.ArrayUtilities;
+import shared.core.IConsumer;
+import shared.core.RingBuffer;
 
 /**
  * Client implementation of ICommunicator.
@@ -25,48 +24,50 @@ public class Communicator implements ICommunicator
 	// the socket used for communicating with the client
 	private Socket socket;
 
-	// the socket output stream
-	private PrintWriter socketOutputStream;
-
 	// the socket input stream
 	private BufferedReader socketInputStream;
 
-	/*
-	 * A queue for received messages. A thread-safe queue is not used because
-	 * when retrieving received messages, the queue must first be copied to an
-	 * array and then cleared, which presents a race condition if another thread
-	 * is trying to add a message to the receivedMessageQueue.
-	 */
-	private Queue<IMessage> receivedMessagesQueue;
+	// the format of the messages sent over the socket
+	private WireFormat wireFormat;
 
-	/*
-	 * A mutex for receivedMessagesQueue. The purpose of this mutex is to
-	 * prevent multiple threads from modifying receivedMessagesQueue at the same
-	 * time.
-	 */
-	private Semaphore receivedMessagesQueueMutex;
+	// the codec of binary messages, and the raw socket streams they are written to and read from
+	private IMessageCodec messageCodec;
+	private OutputStream socketOutputBytes;
+	private InputStream socketInputBytes;
+
+	// the buffer messages are written into before they are written to the socket
+	private ByteBuffer sendBuffer;
+
+	// the buffer of received bytes which have not yet been decoded, kept ready for reading
+	private ByteBuffer receiveBuffer;
 
 	/*
-	 * A thread-safe queue for sending messages. The thread-safe queue is okay
-	 * in this instance because messages are sent one at a time.
+	 * A ring buffer for received messages. The receive messages thread is its
+	 * only producer, and the thread which calls receivedMessages or drainTo is
+	 * its only consumer, so neither side takes a lock.
 	 */
-	private ConcurrentLinkedQueue<IMessage> sendMessagesQueue;
+	private RingBuffer<IMessage> receivedMessagesQueue;
 
 	/*
-	 * A semaphore which indicates the sender thread may send a message. Every
-	 * time a message is added to sentMessagesQueue, this semaphore should be
-	 * signaled, and every time a message is removed from sentMessagesQueue,
-	 * this semaphore should wait. This allows the send messages thread to
-	 * operate without busy waiting.
+	 * A ring buffer for sending messages. The send messages thread is its only
+	 * consumer. Threads which call sendMessage take turns on its producer side
+	 * through sendMessagesProducerLock, which the consumer never takes.
 	 */
-	private Semaphore canSendMessagesSemaphore;
-	
+	private RingBuffer<IMessage> sendMessagesQueue;
+
+	// the lock which lets several threads share the producer side of sendMessagesQueue
+	private Object sendMessagesProducerLock;
+
 	/*
-	 * A mutex for sendMessagesQueue.  The purpose of this mutex is to prevent multiple threads from
-	 * modifying receivedMessagesQueue at the same time.
-	 * 
+	 * Whether the send messages thread is parked waiting for a message. A
+	 * thread which adds a message while this is set unparks it, which allows the
+	 * send messages thread to operate without busy waiting.
 	 */
-	private Semaphore sendMessagesQueueSemaphore;
+	private volatile boolean sendMessagesThreadWaiting;
+
+	// the consumers which append queued messages to the send buffer in either wire format
+	private IConsumer<IMessage> sendBufferEncoder;
+	private IConsumer<IMessage> sendBufferWriter;
 
 	// the send messages thread
 	private Thread sendMessagesThread;
@@ -136,7 +137,27 @@ public class Communicator implements ICommunicator
 	public final static int DEFAULT_PORT = 45000;
 
 	/**
-	 * Creates a communicator connected to a server.
+	 * The number of milliseconds the server waits for a connected client to announce its wire
+	 * format.
+	 */
+	public final static int HANDSHAKE_TIMEOUT = 5000;
+
+	// the size of the send buffer and of the binary receive buffer
+	private final static int BUFFER_SIZE = 8192;
+
+	// the number of received messages held until they are drained, which covers the set up burst
+	// of a large board
+	private final static int RECEIVED_MESSAGES_CAPACITY = 16384;
+
+	// the number of messages held until the send messages thread writes them
+	private final static int SEND_MESSAGES_CAPACITY = 4096;
+
+	// the number of nanoseconds a producer waits before it retries adding to a full ring buffer
+	private final static long QUEUE_FULL_WAIT = 100000;
+
+	/**
+	 * Creates a communicator connected to a server which sends messages as
+	 * text.
 	 * 
 	 * @param messageFactory
 	 *            The factory used to parse received message strings.
@@ -150,11 +171,38 @@ public class Communicator implements ICommunicator
 	public Communicator(IMessageFactory messageFactory, String serverAddress)
 			throws CommunicationException
 	{
+		this(messageFactory, serverAddress, WireFormat.TEXT);
+	}
+
+	/**
+	 * Creates a communicator connected to a server which sends messages in
+	 * the provided format. The format is announced to the server as soon as
+	 * the connection is made, and the server answers in the same format.
+	 * 
+	 * @param messageFactory
+	 *            The factory used to parse received message strings.
+	 * @param serverAddress
+	 *            The address of a server to connect to.
+	 * @param wireFormat
+	 *            The format of the messages sent over the connection.
+	 * @throws NullPointerException
+	 *             Thrown if messageFactory, serverAddress or wireFormat is
+	 *             null.
+	 * @throws CommunicationException
+	 *             Thrown if any error occurs when connecting to the server.
+	 */
+	public Communicator(IMessageFactory messageFactory, String serverAddress,
+			WireFormat wireFormat) throws CommunicationException
+	{
+		if (wireFormat == null)
+			throw new NullPointerException();
+
 		try
 		{
-			// create the socket and initialize this Communicator
+			// create the socket, announce the wire format and initialize this Communicator
 			Socket connectedSocket = new Socket(serverAddress, DEFAULT_PORT);
-			initialize(messageFactory, connectedSocket);
+			connectedSocket.getOutputStream().write(wireFormat.preamble());
+			initialize(messageFactory, connectedSocket, wireFormat);
 			connectedAddress = serverAddress;
 		} catch (UnknownHostException exception)
 		{
@@ -168,24 +216,65 @@ public class Communicator implements ICommunicator
 	}
 
 	/**
-	 * Creates a communicator connected to a server.
+	 * Creates a communicator connected to a server hosting several rooms,
+	 * which joins one of them. The request to join the room is the first
+	 * message sent, and the server closes the connection if the room can not
+	 * be joined. A server hosting a single game ignores the request.
+	 * 
+	 * @param messageFactory
+	 *            The factory used to parse received message strings.
+	 * @param serverAddress
+	 *            The address of a server to connect to.
+	 * @param wireFormat
+	 *            The format of the messages sent over the connection.
+	 * @param room
+	 *            The number of the room to join, or JoinRoomMessage.ANY_ROOM
+	 *            to join the first room which is not full.
+	 * @throws NullPointerException
+	 *             Thrown if messageFactory, serverAddress or wireFormat is
+	 *             null.
+	 * @throws IllegalArgumentException
+	 *             Thrown if the number of the room is negative.
+	 * @throws CommunicationException
+	 *             Thrown if any error occurs when connecting to the server.
+	 */
+	public Communicator(IMessageFactory messageFactory, String serverAddress,
+			WireFormat wireFormat, int room) throws CommunicationException
+	{
+		this(messageFactory, serverAddress, wireFormat);
+
+		try
+		{
+			sendMessage(new JoinRoomMessage(room));
+		} catch (IllegalArgumentException exception)
+		{
+			disconnect();
+			throw exception;
+		}
+	}
+
+	/**
+	 * Creates a communicator connected to a client. The wire format announced
+	 * by the client is read from the socket before any message.
 	 * 
 	 * @param messageFactory
 	 *            The factory used to parse received message strings.
 	 * @param socket
-	 *            A socket which is already connected to a server.
+	 *            A socket which is already connected to a client.
 	 * @throws NullPointerException
 	 *             Thrown if messageFactory or socket is null.
 	 * @throws IllegalArgumentException
 	 *             Thrown if the provided socket is not connected to a server.
 	 * @throws CommunicationException
-	 *             Thrown if any error occurs when connecting to the server.
+	 *             Thrown if any error occurs when connecting to the server, or
+	 *             if the client does not announce a known wire format within
+	 *             HANDSHAKE_TIMEOUT milliseconds.
 	 */
 	protected Communicator(IMessageFactory messageFactory, Socket socket)
 			throws CommunicationException
 	{
-		// initialize this Communicator
-		initialize(messageFactory, socket);
+		// read the wire format and initialize this Communicator
+		initialize(messageFactory, socket, readWireFormat(socket));
 		connectedAddress = socket.getInetAddress().getHostAddress();
 	}
 
@@ -213,8 +302,9 @@ public class Communicator implements ICommunicator
 
 		// nullify the properties to prevent them from being used
 		socket = null;
-		socketOutputStream = null;
 		socketInputStream = null;
+		socketOutputBytes = null;
+		socketInputBytes = null;
 		receivedMessagesQueue = null;
 		sendMessagesQueue = null;
 		receivedMessagesQueue = null;
@@ -239,24 +329,21 @@ public class Communicator implements ICommunicator
 		if (message == null)
 			throw new NullPointerException();
 		
-		try
+		synchronized (sendMessagesProducerLock)
 		{
-			// acquire the send messages queue lock
-			sendMessagesQueueSemaphore.acquire();
-
-			// add the message to the sent messages waiting queue
-			sendMessagesQueue.add(message);
-			
-			// release the send messages queue lock
-			sendMessagesQueueSemaphore.release();
+			// add the message, waiting for the send messages thread to make room if it is full
+			while (!sendMessagesQueue.offer(message))
+			{
+				if (communicationErrorMessage != null)
+					throw new CommunicationException(communicationErrorMessage);
 
-			// increment the send messages semaphore to indicate a message can be sent
-			canSendMessagesSemaphore.release();
-		}
-		catch (InterruptedException exception)
-		{
-			// do nothing
+				LockSupport.parkNanos(QUEUE_FULL_WAIT);
+			}
 		}
+
+		// wake up the send messages thread if it is waiting for a message
+		if (sendMessagesThreadWaiting)
+			LockSupport.unpark(sendMessagesThread);
 	}
 
 	/**
@@ -280,37 +367,29 @@ public class Communicator implements ICommunicator
 		if (communicationErrorMessage != null)
 			throw new CommunicationException(communicationErrorMessage);
 
-		// acquire the mutex lock
-		try
-		{
-			receivedMessagesQueueMutex.acquire();
-		} catch (InterruptedException exception)
-		{
-			throw new CommunicationException(
-					"An error occurred while communicating with the server.");
-		}
+		// take the requested number of messages, which the receive messages thread can only add to
+		IMessage[] messages = new IMessage[Math.min(receivedMessagesQueue.size(),
+				maximumNumberOfMessages)];
 
-		IMessage[] messages;
-
-		if (receivedMessagesQueue.size() <= maximumNumberOfMessages)
-		{
-			messages = receivedMessagesQueue.toArray(new IMessage[0]);
-			receivedMessagesQueue.clear();
-		} else
-		{
-			// get the requested number of messages from the queue
-			List<IMessage> messagesList = new LinkedList<IMessage>();
+		for (int i = 0; i < messages.length; i++)
+			messages[i] = receivedMessagesQueue.poll();
 
-			for (int i = 0; i < maximumNumberOfMessages; i++)
-				messagesList.add(receivedMessagesQueue.poll());
+		return messages;
+	}
 
-			messages = messagesList.toArray(new IMessage[0]);
-		}
+	/**
+	 * {@inheritDoc}
+	 */
+	public int drainTo(IConsumer<? super IMessage> consumer) throws CommunicationException
+	{
+		if (consumer == null)
+			throw new NullPointerException();
 
-		// release the mutex lock
-		receivedMessagesQueueMutex.release();
+		// check to see if an error has occurred
+		if (communicationErrorMessage != null)
+			throw new CommunicationException(communicationErrorMessage);
 
-		return messages;
+		return receivedMessagesQueue.drainTo(consumer);
 	}
 
 	/**
@@ -329,6 +408,55 @@ public class Communicator implements ICommunicator
 		return messageFactory;
 	}
 
+	/**
+	 * Returns the format of the messages sent over the connection.
+	 * 
+	 * @return The wire format of the connection.
+	 */
+	public WireFormat wireFormat()
+	{
+		return wireFormat;
+	}
+
+	/**
+	 * A private helper method which reads the wire format announced by a
+	 * client.
+	 * 
+	 * @param theSocket
+	 *            The socket connected to the client.
+	 * @return The announced wire format.
+	 * @throws NullPointerException
+	 *             Thrown if the socket is null.
+	 * @throws CommunicationException
+	 *             Thrown if the format could not be read or is unknown.
+	 */
+	private static WireFormat readWireFormat(Socket theSocket)
+			throws CommunicationException
+	{
+		if (theSocket == null)
+			throw new NullPointerException();
+
+		try
+		{
+			// the preamble is read from the raw stream so no message bytes are buffered
+			theSocket.setSoTimeout(HANDSHAKE_TIMEOUT);
+			int preamble = theSocket.getInputStream().read();
+			theSocket.setSoTimeout(0);
+
+			return WireFormat.forPreamble(preamble);
+		}
+		catch (IllegalArgumentException exception)
+		{
+			throw new CommunicationException(
+					"The client did not announce a known wire format.");
+		}
+		catch (IOException exception)
+		{
+			throw new CommunicationException(
+					"An error occurred when communicating with the client.");
+		}
+	}
+
 	/**
 	 * A private helper method which initializes this Communicator. This logic
 	 * would normally be stored in a constructor, but in order for the
@@ -339,6 +467,8 @@ public class Communicator implements ICommunicator
 	 *            The message factory.
 	 * @param theSocket
 	 *            The socket.
+	 * @param theWireFormat
+	 *            The format of the messages sent over the socket.
 	 * @throws NullPointerException
 	 *             Thrown if messageFactory or socket are null.
 	 * @throws IllegalArgumentException
@@ -347,8 +477,8 @@ public class Communicator implements ICommunicator
 	 *             Thrown if any error occurs while communicating over the
 	 *             provided socket.
 	 */
-	private void initialize(IMessageFactory theMessageFactory, Socket theSocket)
-			throws CommunicationException
+	private void initialize(IMessageFactory theMessageFactory, Socket theSocket,
+			WireFormat theWireFormat) throws CommunicationException
 	{
 		if (theMessageFactory == null || theSocket == null)
 			throw new NullPointerException();
@@ -358,12 +488,26 @@ public class Communicator implements ICommunicator
 
 		this.messageFactory = theMessageFactory;
 		this.socket = theSocket;
+		this.wireFormat = theWireFormat;
 
-		// set up the reader and writer
+		// set up the raw output stream and send buffer, and the reader or the raw input stream and
+		// buffer of a binary connection
 		try
 		{
-			socketOutputStream = new PrintWriter(theSocket.getOutputStream(), true);
-			socketInputStream = new BufferedReader(new InputStreamReader(theSocket.getInputStream()));
+			socketOutputBytes = theSocket.getOutputStream();
+			sendBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+			if (theWireFormat == WireFormat.BINARY)
+			{
+				messageCodec = new BinaryMessageCodec();
+				socketInputBytes = theSocket.getInputStream();
+				receiveBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+				receiveBuffer.flip();
+			}
+			else
+			{
+				socketInputStream = new BufferedReader(new InputStreamReader(theSocket.getInputStream()));
+			}
 		} 
 		catch (IOException exception)
 		{
@@ -374,13 +518,26 @@ public class Communicator implements ICommunicator
 		isConnected = true;
 
 		// set up the message queues
-		receivedMessagesQueue = new LinkedList<IMessage>();
-		sendMessagesQueue = new ConcurrentLinkedQueue<IMessage>();
+		receivedMessagesQueue = new RingBuffer<IMessage>(RECEIVED_MESSAGES_CAPACITY);
+		sendMessagesQueue = new RingBuffer<IMessage>(SEND_MESSAGES_CAPACITY);
+		sendMessagesProducerLock = new Object();
 
-		// set up the semaphores
-		receivedMessagesQueueMutex = new Semaphore(1);
-		canSendMessagesSemaphore = new Semaphore(0);
-		sendMessagesQueueSemaphore = new Semaphore(1);
+		// set up the consumers of the queued messages
+		sendBufferEncoder = new IConsumer<IMessage>()
+		{
+			public void consume(IMessage message)
+			{
+				messageCodec.encode(message, sendBuffer);
+			}
+		};
+		sendBufferWriter = new IConsumer<IMessage>()
+		{
+			public void consume(IMessage message)
+			{
+				message.writeTo(sendBuffer);
+				sendBuffer.put((byte) '\n');
+			}
+		};
 
 		// set up the threads
 		sendMessagesThread = new Thread(new SendMessagesRunnable());
@@ -403,28 +560,43 @@ public class Communicator implements ICommunicator
 
 		try
 		{
-			// read and parse the message
-			String stringMessage = socketInputStream.readLine();
-			
-			// If the message is null, throw IllegalArgumentException.
-			if (stringMessage == null)
-				return false;
-			
-			IMessage message = messageFactory.createMessage(stringMessage);
+			IMessage message;
+
+			if (wireFormat == WireFormat.BINARY)
+			{
+				// decode the next message, reading from the socket until it has been received
+				message = receiveBinaryMessage();
+
+				if (message == null)
+					return false;
+			}
+			else
+			{
+				// read and parse the message
+				String stringMessage = socketInputStream.readLine();
+
+				// If the message is null, throw IllegalArgumentException.
+				if (stringMessage == null)
+					return false;
+
+				message = messageFactory.createMessage(stringMessage);
+			}
 			
 			if (message instanceof HelloMessage) {
 				// throw away
 				return true;
 			}
 
-			// acquire the mutex
-			receivedMessagesQueueMutex.acquire();
-
-			// add the messages to the message queue so it can be read by receivedMessages
-			receivedMessagesQueue.add(message);
+			// add the message so it can be read by receivedMessages, waiting for the reader to
+			// make room if it is full, which holds back reading from the socket
+			while (!receivedMessagesQueue.offer(message))
+			{
+				LockSupport.parkNanos(QUEUE_FULL_WAIT);
 
-			// release the mutex
-			receivedMessagesQueueMutex.release();
+				// quit working when interrupted
+				if (Thread.interrupted())
+					return false;
+			}
 
 			return true;
 		} 
@@ -433,11 +605,6 @@ public class Communicator implements ICommunicator
 			// an error occurred when trying to parse the received message
 			communicationErrorMessage = "An error occurred when communicating.";
 			return false;
-		} 
-		catch (InterruptedException exception)
-		{
-			// quit working when interrupted
-			return false;
 		}
 		catch (IOException exception)
 		{
@@ -447,11 +614,69 @@ public class Communicator implements ICommunicator
 		}
 	}
 
+	/**
+	 * A private helper method which decodes the next binary message, reading
+	 * from the socket until the whole message has been received.
+	 * 
+	 * @return The message, or null if the connection was closed.
+	 * @throws IOException
+	 *             Thrown if the socket could not be read.
+	 * @throws IllegalArgumentException
+	 *             Thrown if the received bytes are not a message.
+	 */
+	private IMessage receiveBinaryMessage() throws IOException
+	{
+		IMessage message = messageCodec.decode(receiveBuffer);
+
+		while (message == null)
+		{
+			// append the next received bytes after the undecoded ones
+			receiveBuffer.compact();
+			int numberOfBytes = socketInputBytes.read(receiveBuffer.array(),
+					receiveBuffer.position(), receiveBuffer.remaining());
+
+			if (numberOfBytes < 0)
+				return null;
+
+			receiveBuffer.position(receiveBuffer.position() + numberOfBytes);
+			receiveBuffer.flip();
+
+			message = messageCodec.decode(receiveBuffer);
+		}
+
+		return message;
+	}
+
+	/**
+	 * A private helper method which writes the queued messages into the send
+	 * buffer, as many as are sure to fit, and writes them to the socket in a
+	 * single write. Binary messages are encoded by the codec, and text
+	 * messages write themselves followed by a newline, so no strings are
+	 * created.
+	 * 
+	 * @throws IOException
+	 *             Thrown if the socket could not be written.
+	 */
+	private void sendQueuedMessages() throws IOException
+	{
+		sendBuffer.clear();
+
+		if (wireFormat == WireFormat.BINARY)
+			sendMessagesQueue.drainTo(sendBufferEncoder,
+					sendBuffer.capacity() / IMessageCodec.MAXIMUM_ENCODED_LENGTH);
+		else
+			sendMessagesQueue.drainTo(sendBufferWriter,
+					sendBuffer.capacity() / (IMessage.MAXIMUM_TEXT_LENGTH + 1));
+
+		socketOutputBytes.write(sendBuffer.array(), 0, sendBuffer.position());
+		socketOutputBytes.flush();
+	}
+
 	/**
 	 * A helper method which sends a message to the server. THIS METHOD SHOULD
 	 * NOT BE CALLED DIRECTLY WHEN USING THE COMMUNICATOR. It is only exposed
 	 * for testing purposes. This method will block until a message is placed on
-	 * sentMessagesQueue and the message is sent. This method sends multiple messages separated
+	 * sendMessagesQueue and the message is sent. This method sends multiple messages separated
 	 * by newlines if multiple message in the message queue.
 	 * 
 	 * @return Returns true if the message was sent without error and false
@@ -459,54 +684,37 @@ public class Communicator implements ICommunicator
 	 */
 	protected boolean sendMessage()
 	{
-		try
+		// wait for at least one message to be sent
+		while (sendMessagesQueue.isEmpty())
 		{
-			// wait for at least one message to be sent
-			canSendMessagesSemaphore.acquire();
-			
-			// acquire the mutex lock for the sendMessagesQueue
-			sendMessagesQueueSemaphore.acquire();
-			
-			// determine the number of messages to send
-			int numberOfMessages = sendMessagesQueue.size();
-			
-			// release the mutex lock for the sendMessagesQueue
-			sendMessagesQueueSemaphore.release();
-			
-			// acquire the canSendMessagesSemaphore for the rest of the messages to send
-			for (int i = 0; i < numberOfMessages - 1; i++)
-				canSendMessagesSemaphore.acquire();
-			
-			// acquire the send messages queue lock
-			sendMessagesQueueSemaphore.acquire();
+			// announce the wait before checking again, so an added message always unparks this thread
+			sendMessagesThreadWaiting = true;
 
-			// get numberOfMessages messages from the sendMessagesQueue
-			String[] messages = new String[numberOfMessages];
-			for (int i = 0; i < numberOfMessages; i++)
-				messages[i] = sendMessagesQueue.poll().toString();
-			
-			// release the send messages queue lock
-			sendMessagesQueueSemaphore.release();
-			
-			// create a really big message string
-			String concatenatedMessageString = ArrayUtilities.join(messages, "\n");
+			if (sendMessagesQueue.isEmpty())
+				LockSupport.park(this);
 
-			// send the message
-			socketOutputStream.println(concatenatedMessageString);
-			
-			if (socketOutputStream.checkError()) {
-				isConnected = false;
+			sendMessagesThreadWaiting = false;
+
+			if (Thread.interrupted())
+			{
+				// quit working when interrupted
+				communicationErrorMessage = "An error occurred when communicating with the server.";
+				return false;
 			}
+		}
 
-			// indicate a success
-			return true;
-		} 
-		catch (InterruptedException exception)
+		// write the queued messages to the socket, one buffer at a time
+		try
 		{
-			// quit working when interrupted
-			communicationErrorMessage = "An error occurred when communicating with the server.";
-			return false;
+			sendQueuedMessages();
 		}
+		catch (IOException exception)
+		{
+			isConnected = false;
+		}
+
+		// indicate a success
+		return true;
 	}
 	
 	/**
@@ -2,7 +2,6 @@ package shared.model.communication;
 
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doThrow;
@@ -13,15 +12,19 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.PrintWriter;
 import java.io.Reader;
+import java.net.InetAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
-import java.util.concurrent.Semaphore;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -30,6 +33,9 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import shared.core.IConsumer;
+import shared.model.GameObjectType;
+
 /**
  * Tests Communicator as well as it can be tested.  The concurrency portions of communicator really
  * can't be tested in any practical manner.
@@ -409,26 +415,43 @@ public class CommunicatorTest
 	}
 	
 	/**
-	 * Ensures receivedMessages throws a CommunicationException if the semaphore throws an
-	 * InterruptedException.
-	 * @throws Exception This should be a CommunicationException.
+	 * Ensures drainTo hands the received messages to the consumer in the order they were received,
+	 * and only hands each message over once.
+	 * @throws Exception This should not be thrown.
 	 */
-	@Test(expected=CommunicationException.class)
-	public void testReceivedMessagesSemaphoreThrowsInterruptedException() throws Exception
-	{
-		// mock the semaphore
-		Semaphore mockSemaphore = mock(Semaphore.class);
-		PowerMockito.whenNew(Semaphore.class.getConstructor(int.class))
-			.withArguments(anyInt())
-			.thenReturn(mockSemaphore);
-		doThrow(new InterruptedException()).when(mockSemaphore).acquire();
-			
-		// recreate the communicator
+	@Test
+	public void testDrainTo() throws Exception
+	{
+		// mock the returned messages
+		IMessage mockMessage1 = mock(GameObjectCreatedMessage.class);
+		IMessage mockMessage2 = mock(GameObjectCreatedMessage.class);
+		when(mockMessageFactory.createMessage("Test Message 1")).thenReturn(mockMessage1);
+		when(mockMessageFactory.createMessage("Test Message 2")).thenReturn(mockMessage2);
+		
+		// mock the buffered reader
+		BufferedReader mockBufferedReader = mock(BufferedReader.class);
+		PowerMockito.whenNew(BufferedReader.class.getConstructor(Reader.class))
+			.withArguments(any(InputStreamReader.class))
+			.thenReturn(mockBufferedReader);
+		when(mockBufferedReader.readLine()).thenReturn("Test Message 1", "Test Message 2");
+		
+		// run the test
 		communicator = new Communicator(mockMessageFactory, testServerAddress);
-			
-		// attempt to send the message
 		communicator.addMessageToReceivedMessagesQueue();
-		communicator.receivedMessages();
+		communicator.addMessageToReceivedMessagesQueue();
+		
+		final List<IMessage> messages = new ArrayList<IMessage>();
+		IConsumer<IMessage> consumer = new IConsumer<IMessage>()
+		{
+			public void consume(IMessage message)
+			{
+				messages.add(message);
+			}
+		};
+		
+		assertEquals(2, communicator.drainTo(consumer));
+		assertEquals(0, communicator.drainTo(consumer));
+		assertEquals(Arrays.asList(mockMessage1, mockMessage2), messages);
 	}
 	
 	/**
@@ -737,26 +760,39 @@ public class CommunicatorTest
 	}
 	
 	/**
-	 * Ensures receivedMessages throws a CommunicationException if the semaphore throws an
-	 * InterruptedException.
+	 * Ensures drainTo throws a CommunicationException once an error occurred while receiving.
 	 * @throws Exception This should be a CommunicationException.
 	 */
 	@Test(expected=CommunicationException.class)
-	public void testReceivedMessagesMaxSemaphoreThrowsInterruptedException() throws Exception
-	{
-		// mock the semaphore
-		Semaphore mockSemaphore = mock(Semaphore.class);
-		PowerMockito.whenNew(Semaphore.class.getConstructor(int.class))
-			.withArguments(anyInt())
-			.thenReturn(mockSemaphore);
-		doThrow(new InterruptedException()).when(mockSemaphore).acquire();
-			
+	public void testDrainToError() throws Exception
+	{
+		// mock the buffered reader
+		BufferedReader mockBufferedReader = mock(BufferedReader.class);
+		PowerMockito.whenNew(BufferedReader.class.getConstructor(Reader.class))
+			.withArguments(any(Reader.class))
+			.thenReturn(mockBufferedReader);
+		when(mockBufferedReader.readLine()).thenThrow(new IOException());
+		
 		// recreate the communicator
 		communicator = new Communicator(mockMessageFactory, testServerAddress);
-			
-		// attempt to send the message
+		
 		communicator.addMessageToReceivedMessagesQueue();
-		communicator.receivedMessages(1);
+		communicator.drainTo(new IConsumer<IMessage>()
+		{
+			public void consume(IMessage message)
+			{
+			}
+		});
+	}
+	
+	/**
+	 * Ensures drainTo throws a NullPointerException when the consumer is null.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test(expected=NullPointerException.class)
+	public void testDrainToNull() throws CommunicationException
+	{
+		communicator.drainTo(null);
 	}
 	
 	/**
@@ -795,30 +831,24 @@ public class CommunicatorTest
 	}
 	
 	/**
-	 * Ensures sendMessage sends the message to the server.
+	 * Ensures sendMessage sends the message to the server as a line of text after the wire format.
 	 * @throws Exception This should not happen.
 	 */
 	@Test
 	public void testSendMessage() throws Exception
 	{
-		// mock the message
-		IMessage mockMessage = mock(GameObjectCreatedMessage.class);
-		when(mockMessage.toString()).thenReturn("Test Message String");
-		
-		// mock the print writer
-		PrintWriter mockPrintWriter = mock(PrintWriter.class);
-		PowerMockito.whenNew(PrintWriter.class.getConstructor(OutputStream.class, boolean.class))
-			.withArguments(any(OutputStream.class), anyBoolean())
-			.thenReturn(mockPrintWriter);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		when(mockSocket.getOutputStream()).thenReturn(outputStream);
 		
 		// recreate the communicator
 		communicator = new Communicator(mockMessageFactory, testServerAddress);
 		
 		// send the message
-		communicator.sendMessage(mockMessage);
-		communicator.sendMessage();
+		communicator.sendMessage(new GameObjectCreatedMessage(3, GameObjectType.BOMB, 5, 13));
+		assertTrue(communicator.sendMessage());
 		
-		verify(mockPrintWriter).println("Test Message String");
+		assertEquals((char) WireFormat.TEXT.preamble() + "GAME_OBJECT_CREATED 3 BOMB 5 13\n",
+				outputStream.toString("US-ASCII"));
 	}
 	
 	/**
@@ -832,8 +862,8 @@ public class CommunicatorTest
 	}
 	
 	/**
-	 * Ensures sendMessage throws a CommunicationException on the next call if an error occurs while
-	 * sending a message.
+	 * Ensures sendMessage throws a CommunicationException on the next call if the send messages
+	 * thread is interrupted while it waits for a message.
 	 * @throws Exception This should never happen.
 	 */
 	@Test(expected=CommunicationException.class)
@@ -842,20 +872,42 @@ public class CommunicatorTest
 		// mock the message
 		IMessage mockMessage = mock(IMessage.class);
 		
-		// mock the semaphore
-		Semaphore mockSemaphore = mock(Semaphore.class);
-		PowerMockito.whenNew(Semaphore.class.getConstructor(int.class))
-			.withArguments(anyInt())
-			.thenReturn(mockSemaphore);
-		doThrow(new InterruptedException()).when(mockSemaphore).acquire();
+		// interrupt the waiting send messages thread
+		Thread.currentThread().interrupt();
+		assertFalse(communicator.sendMessage());
+		assertFalse(Thread.interrupted());
+		
+		// attempt to send the message
+		communicator.sendMessage(mockMessage);
+	}
+	
+	/**
+	 * Ensures the send messages thread sends every queued message as lines of text, even when more
+	 * messages are queued than fit in the send buffer at once.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testSendMessageManyMessages() throws Exception
+	{
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		when(mockSocket.getOutputStream()).thenReturn(outputStream);
 		
 		// recreate the communicator
 		communicator = new Communicator(mockMessageFactory, testServerAddress);
 		
-		// attempt to send the message
-		communicator.sendMessage(mockMessage);
-		communicator.sendMessage();
-		communicator.sendMessage(mockMessage);
+		StringBuilder expected = new StringBuilder();
+		expected.append((char) WireFormat.TEXT.preamble());
+		for (int i = 0; i < 1000; i++)
+		{
+			communicator.sendMessage(new GameTimeMessage(i));
+			expected.append("GAME_TIME ").append(i).append('\n');
+		}
+		
+		// the send buffer only takes as many messages as are sure to fit, so this takes several writes
+		while (outputStream.size() < expected.length())
+			assertTrue(communicator.sendMessage());
+		
+		assertEquals(expected.toString(), outputStream.toString("US-ASCII"));
 	}
 	
 	/**
@@ -948,8 +1000,8 @@ public class CommunicatorTest
 	}
 	
 	/**
-	 * Ensures addMessageToReceivedMessageQueue method returns false if an InterruptedException
-	 * occurs.
+	 * Ensures addMessageToReceivedMessagesQueue method returns false if it is interrupted while it
+	 * waits for room for the received message.
 	 * @throws Exception This shouldn't happen.
 	 */
 	@Test
@@ -968,17 +1020,20 @@ public class CommunicatorTest
 		
 		when(mockMessageFactory.createMessage(anyString())).thenReturn(mockMessage);
 		
-		Semaphore mockSemaphore = mock(Semaphore.class);
-		PowerMockito.whenNew(Semaphore.class.getConstructor(int.class))
-			.withArguments(anyInt())
-			.thenReturn(mockSemaphore);
-		doThrow(new InterruptedException()).when(mockSemaphore).acquire();
-		
 		// recreate the communicator
 		communicator = new Communicator(mockMessageFactory, testServerAddress);
 		
-		// receive the message
-		assertFalse(communicator.addMessageToReceivedMessagesQueue());
+		// interrupt the receive messages thread, which only notices once it has to wait
+		Thread.currentThread().interrupt();
+		
+		// receive messages until nothing makes room for more
+		int numberOfMessages = 0;
+		while (communicator.addMessageToReceivedMessagesQueue())
+			numberOfMessages++;
+		
+		assertFalse(Thread.interrupted());
+		assertTrue(numberOfMessages > 0);
+		assertEquals(numberOfMessages, communicator.receivedMessages().length);
 	}
 	
 	/**
@@ -1007,4 +1062,95 @@ public class CommunicatorTest
 		// receive the message
 		assertFalse(communicator.addMessageToReceivedMessagesQueue());
 	}
+	
+	/**
+	 * Ensures the constructor announces the text wire format to the server by default.
+	 * @throws Exception This shouldn't happen.
+	 */
+	@Test
+	public void testConstructorAnnouncesTextWireFormat() throws Exception
+	{
+		verify(mockOutputStream).write(WireFormat.TEXT.preamble());
+		assertEquals(WireFormat.TEXT, communicator.wireFormat());
+	}
+	
+	/**
+	 * Ensures the constructor throws a NullPointerException when provided with a null wire format.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test(expected=NullPointerException.class)
+	public void testConstructorWireFormatNull() throws CommunicationException
+	{
+		new Communicator(mockMessageFactory, testServerAddress, null);
+	}
+	
+	/**
+	 * Ensures a binary communicator announces its wire format and sends queued messages as encoded
+	 * binary messages in a single write.
+	 * @throws Exception This shouldn't happen.
+	 */
+	@Test
+	public void testSendMessageBinary() throws Exception
+	{
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		when(mockSocket.getOutputStream()).thenReturn(outputStream);
+		
+		communicator = new Communicator(mockMessageFactory, testServerAddress, WireFormat.BINARY);
+		communicator.sendMessage(new GameObjectDestroyedMessage(5));
+		communicator.sendMessage(new GameTimeMessage(-1));
+		assertTrue(communicator.sendMessage());
+		
+		assertEquals(WireFormat.BINARY, communicator.wireFormat());
+		assertArrayEquals(new byte[] { WireFormat.BINARY.preamble(), 2, 5, 8, 1 },
+				outputStream.toByteArray());
+	}
+	
+	/**
+	 * Ensures a server side communicator reads the wire format announced by the client, and
+	 * decodes the binary messages which follow it.
+	 * @throws Exception This shouldn't happen.
+	 */
+	@Test
+	public void testReceivedMessagesBinary() throws Exception
+	{
+		when(mockSocket.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[] {
+				WireFormat.BINARY.preamble(), 9, 5, 3, 0, 1, 7 }));
+		when(mockSocket.getInetAddress()).thenReturn(InetAddress.getByAddress(new byte[] { 127, 0, 0, 1 }));
+		
+		communicator = new Communicator(mockMessageFactory, mockSocket);
+		assertTrue(communicator.addMessageToReceivedMessagesQueue());
+		assertTrue(communicator.addMessageToReceivedMessagesQueue());
+		assertFalse(communicator.addMessageToReceivedMessagesQueue());
+		
+		IMessage[] messages = communicator.receivedMessages();
+		assertEquals(WireFormat.BINARY, communicator.wireFormat());
+		assertEquals(1, messages.length);
+		assertEquals("KEY 3 LEFT DEPRESS", messages[0].toString());
+		verify(mockSocket).setSoTimeout(Communicator.HANDSHAKE_TIMEOUT);
+		verify(mockSocket).setSoTimeout(0);
+	}
+	
+	/**
+	 * Ensures a server side communicator throws a CommunicationException when the client announces
+	 * an unknown wire format.
+	 * @throws Exception This exception should be thrown.
+	 */
+	@Test(expected=CommunicationException.class)
+	public void testConstructorUnknownWireFormat() throws Exception
+	{
+		when(mockSocket.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[] { 'X' }));
+		new Communicator(mockMessageFactory, mockSocket);
+	}
+	
+	/**
+	 * Ensures a server side communicator throws a CommunicationException when the client closes the
+	 * connection before announcing a wire format.
+	 * @throws Exception This exception should be thrown.
+	 */
+	@Test(expected=CommunicationException.class)
+	public void testConstructorNoWireFormat() throws Exception
+	{
+		when(mockSocket.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
+		new Communicator(mockMessageFactory, mockSocket);
+	}
 }
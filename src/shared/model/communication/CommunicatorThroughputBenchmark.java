@@ -0,0 +1,162 @@
+package shared.model.communication;
+
+import shared.core.IConsumer;
+import shared.model.Key;
+import shared.model.KeyAction;
+
+/**
+ * Measures how many messages per second pass through one Communicator connected over the loopback
+ * interface to a SelectorServerCommunicator, in both directions and in both wire formats.  The
+ * client side sends key messages as fast as its send queue takes them, and drains the received
+ * messages the way the game loop does.  The server communicator listens on the default port, so no
+ * game may be hosted while this runs.  This class is a development tool and is not used by the
+ * game.
+ */
+public class CommunicatorThroughputBenchmark
+{
+	// the number of messages sent in each direction before measuring
+	private static final int WARM_UP_MESSAGES = 200000;
+
+	// the number of messages measured in each direction
+	private static final int MEASURED_MESSAGES = 1000000;
+
+	// the number of messages the server communicator sends in each batch
+	private static final int BATCH_SIZE = 1000;
+
+	// the largest number of messages sent but not yet received, which bounds the queued memory
+	private static final int WINDOW = 50000;
+
+	// the longest time to wait for the client to connect in milliseconds
+	private static final int TIMEOUT = 10000;
+
+	/**
+	 * A consumer which counts the drained messages.
+	 */
+	private static class CountingConsumer implements IConsumer<IMessage>
+	{
+		// the number of drained messages
+		private long count;
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public void consume(IMessage message)
+		{
+			count++;
+		}
+	}
+
+	/**
+	 * Runs the benchmark and prints the results for each wire format.
+	 * @param args This program ignores any command line arguments.
+	 * @throws Exception Thrown if a communicator fails.
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		for (WireFormat wireFormat : WireFormat.values())
+		{
+			SelectorServerCommunicator serverCommunicator =
+					new SelectorServerCommunicator(new MessageFactory());
+			Communicator communicator =
+					new Communicator(new MessageFactory(), "127.0.0.1", wireFormat);
+
+			try
+			{
+				long deadline = System.currentTimeMillis() + TIMEOUT;
+				while (serverCommunicator.numberOfConnectedCommunicators() == 0)
+				{
+					if (System.currentTimeMillis() > deadline)
+						throw new IllegalStateException("The client did not connect.");
+
+					Thread.sleep(10);
+				}
+
+				sendToServer(communicator, serverCommunicator, WARM_UP_MESSAGES);
+				receiveFromServer(communicator, serverCommunicator, WARM_UP_MESSAGES);
+
+				long sendTime = sendToServer(communicator, serverCommunicator, MEASURED_MESSAGES);
+				long receiveTime =
+						receiveFromServer(communicator, serverCommunicator, MEASURED_MESSAGES);
+
+				System.out.printf("%s: client to server %.0f messages/s, server to client %.0f "
+						+ "messages/s%n", wireFormat, MEASURED_MESSAGES * 1e9 / sendTime,
+						MEASURED_MESSAGES * 1e9 / receiveTime);
+			}
+			finally
+			{
+				communicator.disconnect();
+				serverCommunicator.disconnect();
+			}
+		}
+	}
+
+	/**
+	 * Sends key messages from the communicator until the server communicator has received all of
+	 * them.
+	 * @param communicator The communicator.
+	 * @param serverCommunicator The server communicator.
+	 * @param numberOfMessages The number of messages.
+	 * @return The time taken in nanoseconds.
+	 * @throws CommunicationException Thrown if a communicator fails.
+	 */
+	private static long sendToServer(Communicator communicator,
+			IServerCommunicator serverCommunicator, int numberOfMessages)
+			throws CommunicationException
+	{
+		KeyMessage message = new KeyMessage(1, Key.UP, KeyAction.PRESS);
+		long start = System.nanoTime();
+		long received = 0;
+
+		for (int sent = 0; sent < numberOfMessages; sent++)
+		{
+			communicator.sendMessage(message);
+
+			if (sent % BATCH_SIZE == 0)
+				received += serverCommunicator.receivedMessages().length;
+		}
+
+		while (received < numberOfMessages)
+		{
+			received += serverCommunicator.receivedMessages().length;
+			Thread.yield();
+		}
+
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Sends batches of messages from the server communicator and drains them from the communicator
+	 * until all of them have been received.
+	 * @param communicator The communicator.
+	 * @param serverCommunicator The server communicator.
+	 * @param numberOfMessages The number of messages.
+	 * @return The time taken in nanoseconds.
+	 * @throws CommunicationException Thrown if a communicator fails.
+	 */
+	private static long receiveFromServer(Communicator communicator,
+			IServerCommunicator serverCommunicator, int numberOfMessages)
+			throws CommunicationException
+	{
+		IMessage[] batch = new IMessage[BATCH_SIZE];
+		for (int i = 0; i < batch.length; i++)
+			batch[i] = new GameObjectUpdatedMessage(i, i % 100, i % 50);
+
+		CountingConsumer consumer = new CountingConsumer();
+		long start = System.nanoTime();
+		int sent = 0;
+
+		while (consumer.count < numberOfMessages)
+		{
+			if (sent < numberOfMessages && sent - consumer.count < WINDOW)
+			{
+				serverCommunicator.sendMessageBatch(batch);
+				sent += batch.length;
+			}
+
+			if (communicator.drainTo(consumer) == 0)
+				Thread.yield();
+		}
+
+		return System.nanoTime() - start;
+	}
+}
@@ -1,5 +1,9 @@
 package shared.model.communication;
 
+import java.nio.ByteBuffer;
+
+import shared.model.GameConfiguration;
+
 /**
  * A message which indicates a game has started, stopped, or stalled.
  */
@@ -15,6 +19,16 @@ public class GameMessage implements IMessage
 	 */
 	private final int players;
 
+	/**
+	 * The number of rows of the board.
+	 */
+	private final int rows;
+
+	/**
+	 * The number of columns of the board.
+	 */
+	private final int columns;
+
 	/**
 	 * Enumerated type for actions related to the beginning and end of the game.
 	 * 
@@ -38,7 +52,8 @@ public class GameMessage implements IMessage
 	}
 
 	/**
-	 * Constructs a GameMessage with the given number of players and action.
+	 * Constructs a GameMessage with the given number of players and action,
+	 * for a board of the default size.
 	 * 
 	 * @param action
 	 *            The action of the game.
@@ -46,9 +61,30 @@ public class GameMessage implements IMessage
 	 *            The number of connnected players.
 	 */
 	public GameMessage(Action action, int players)
+	{
+		this(action, players, GameConfiguration.DEFAULT_NUMBER_OF_ROWS,
+				GameConfiguration.DEFAULT_NUMBER_OF_COLUMNS);
+	}
+
+	/**
+	 * Constructs a GameMessage with the given number of players, action and
+	 * board size.
+	 * 
+	 * @param action
+	 *            The action of the game.
+	 * @param players
+	 *            The number of connnected players.
+	 * @param rows
+	 *            The number of rows of the board.
+	 * @param columns
+	 *            The number of columns of the board.
+	 */
+	public GameMessage(Action action, int players, int rows, int columns)
 	{
 		this.players = players;
 		this.action = action;
+		this.rows = rows;
+		this.columns = columns;
 	}
 
 	/**
@@ -61,6 +97,26 @@ public class GameMessage implements IMessage
 		return players;
 	}
 
+	/**
+	 * Returns the number of rows of the board.
+	 * 
+	 * @return The number of rows of the board.
+	 */
+	public int numberOfRows()
+	{
+		return rows;
+	}
+
+	/**
+	 * Returns the number of columns of the board.
+	 * 
+	 * @return The number of columns of the board.
+	 */
+	public int numberOfColumns()
+	{
+		return columns;
+	}
+
 	/**
 	 * Returns the Action of the game.
 	 * 
@@ -77,6 +133,30 @@ public class GameMessage implements IMessage
 	@Override
 	public String toString()
 	{
-		return "GAME " + action() + " " + numberOfPlayers();
+		// the board size is only sent when it is not the default size
+		if (rows == GameConfiguration.DEFAULT_NUMBER_OF_ROWS
+				&& columns == GameConfiguration.DEFAULT_NUMBER_OF_COLUMNS)
+			return "GAME " + action() + " " + numberOfPlayers();
+
+		return "GAME " + action() + " " + numberOfPlayers() + " " + rows + " "
+				+ columns;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void writeTo(ByteBuffer buffer)
+	{
+		TextMessageWriter.putWord(buffer, "GAME");
+		TextMessageWriter.putArgument(buffer, action().toString());
+		TextMessageWriter.putArgument(buffer, numberOfPlayers());
+
+		// the board size is only sent when it is not the default size
+		if (rows == GameConfiguration.DEFAULT_NUMBER_OF_ROWS
+				&& columns == GameConfiguration.DEFAULT_NUMBER_OF_COLUMNS)
+			return;
+
+		TextMessageWriter.putArgument(buffer, rows);
+		TextMessageWriter.putArgument(buffer, columns);
 	}
 }
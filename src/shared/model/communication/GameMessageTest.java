@@ -30,6 +30,13 @@ public class GameMessageTest
 		message = new GameMessage(Action.WAITING, 4);
 		assertEquals(4, message.numberOfPlayers());
 		assertEquals(Action.WAITING, message.action());
+		assertEquals(17, message.numberOfRows());
+		assertEquals(23, message.numberOfColumns());
+
+		message = new GameMessage(Action.START, 2, 51, 75);
+		assertEquals(2, message.numberOfPlayers());
+		assertEquals(51, message.numberOfRows());
+		assertEquals(75, message.numberOfColumns());
 	}
 
 	/**
@@ -40,6 +47,12 @@ public class GameMessageTest
 	{
 		GameMessage message = new GameMessage(Action.START, 4);
 		assertEquals("GAME START 4", message.toString());
+
+		message = new GameMessage(Action.START, 4, 17, 23);
+		assertEquals("GAME START 4", message.toString());
+
+		message = new GameMessage(Action.START, 2, 51, 75);
+		assertEquals("GAME START 2 51 75", message.toString());
 	}
 
 }
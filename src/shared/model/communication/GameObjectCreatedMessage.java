@@ -1,5 +1,7 @@
 package shared.model.communication;
 
+import java.nio.ByteBuffer;
+
 import shared.model.GameObjectType;
 
 /**
@@ -84,4 +86,16 @@ public class GameObjectCreatedMessage extends Message
 		return "GAME_OBJECT_CREATED " + gameObjectIdentifier() + " "
 				+ gameObjectType.toString() + " " + row() + " " + column();
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void writeTo(ByteBuffer buffer)
+	{
+		TextMessageWriter.putWord(buffer, "GAME_OBJECT_CREATED");
+		TextMessageWriter.putArgument(buffer, gameObjectIdentifier());
+		TextMessageWriter.putArgument(buffer, gameObjectType.toString());
+		TextMessageWriter.putArgument(buffer, row());
+		TextMessageWriter.putArgument(buffer, column());
+	}
 }
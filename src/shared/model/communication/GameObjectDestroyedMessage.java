@@ -1,5 +1,7 @@
 package shared.model.communication;
 
+import java.nio.ByteBuffer;
+
 /**
  * A message which indicates a game object has been destroyed.
  */
@@ -23,4 +25,13 @@ public class GameObjectDestroyedMessage extends Message
 	{
 		return "GAME_OBJECT_DESTROYED " + gameObjectIdentifier();
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void writeTo(ByteBuffer buffer)
+	{
+		TextMessageWriter.putWord(buffer, "GAME_OBJECT_DESTROYED");
+		TextMessageWriter.putArgument(buffer, gameObjectIdentifier());
+	}
 }
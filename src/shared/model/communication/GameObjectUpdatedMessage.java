@@ -1,5 +1,7 @@
 package shared.model.communication;
 
+import java.nio.ByteBuffer;
+
 /**
  * Message which represents a game object whose position has been updated.
  */
@@ -55,4 +57,15 @@ public class GameObjectUpdatedMessage extends Message implements IMessage
 	{
 		return "GAME_OBJECT_POSITION_UPDATED " + gameObjectIdentifier() + " " + row() + " " + column();
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void writeTo(ByteBuffer buffer)
+	{
+		TextMessageWriter.putWord(buffer, "GAME_OBJECT_POSITION_UPDATED");
+		TextMessageWriter.putArgument(buffer, gameObjectIdentifier());
+		TextMessageWriter.putArgument(buffer, row());
+		TextMessageWriter.putArgument(buffer, column());
+	}
 }
@@ -0,0 +1,268 @@
+package shared.model.communication;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import shared.model.GameObjectType;
+
+/**
+ * The replicated state of a game: the type and space of each game object on the board and the score
+ * of each player, indexed by game object identifier.  A state is changed by the same messages which
+ * replicate events, and the changes between two states are returned as such messages, so the
+ * snapshot replication mode sends a snapshot as the changes from the state a client acknowledged.
+ */
+public class GameState
+{
+	// the initial number of identifiers the arrays hold
+	private static final int INITIAL_CAPACITY = 64;
+
+	// the types of the game objects are stored as their ordinal plus one, so that 0 is no game object
+	private static final GameObjectType[] GAME_OBJECT_TYPES = GameObjectType.values();
+
+	// the type, row and column of each game object
+	private int[] types;
+	private int[] rows;
+	private int[] columns;
+
+	// the score of each player, and whether the player has a score
+	private int[] scores;
+	private boolean[] scored;
+
+	/**
+	 * Creates an empty GameState.
+	 */
+	public GameState()
+	{
+		types = new int[INITIAL_CAPACITY];
+		rows = new int[INITIAL_CAPACITY];
+		columns = new int[INITIAL_CAPACITY];
+		scores = new int[INITIAL_CAPACITY];
+		scored = new boolean[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Creates a copy of a GameState.
+	 * @param state The state to copy.
+	 * @throws NullPointerException Thrown if the state is null.
+	 */
+	public GameState(GameState state)
+	{
+		types = state.types.clone();
+		rows = state.rows.clone();
+		columns = state.columns.clone();
+		scores = state.scores.clone();
+		scored = state.scored.clone();
+	}
+
+	/**
+	 * Puts a game object in a space, replacing any game object with the same identifier.
+	 * @param identifier The identifier of the game object.
+	 * @param type The type of the game object.
+	 * @param row The row of the game object.
+	 * @param column The column of the game object.
+	 * @throws NullPointerException Thrown if the type is null.
+	 * @throws IllegalArgumentException Thrown if the identifier is negative.
+	 */
+	public void putGameObject(int identifier, GameObjectType type, int row, int column)
+	{
+		if (type == null)
+			throw new NullPointerException();
+
+		ensureCapacity(identifier);
+		types[identifier] = type.ordinal() + 1;
+		rows[identifier] = row;
+		columns[identifier] = column;
+	}
+
+	/**
+	 * Removes a game object, if there is one with the provided identifier.
+	 * @param identifier The identifier of the game object.
+	 */
+	public void removeGameObject(int identifier)
+	{
+		if (containsGameObject(identifier))
+			types[identifier] = 0;
+	}
+
+	/**
+	 * Sets the score of a player.
+	 * @param identifier The identifier of the player game object.
+	 * @param score The score.
+	 * @throws IllegalArgumentException Thrown if the identifier is negative.
+	 */
+	public void putScore(int identifier, int score)
+	{
+		ensureCapacity(identifier);
+		scores[identifier] = score;
+		scored[identifier] = true;
+	}
+
+	/**
+	 * Returns true if there is a game object with the provided identifier.
+	 * @param identifier The identifier of the game object.
+	 * @return True if there is a game object with the identifier and false otherwise.
+	 */
+	public boolean containsGameObject(int identifier)
+	{
+		return identifier >= 0 && identifier < types.length && types[identifier] != 0;
+	}
+
+	/**
+	 * Returns the type of a game object.
+	 * @param identifier The identifier of the game object.
+	 * @return The type of the game object, or null if there is no such game object.
+	 */
+	public GameObjectType gameObjectType(int identifier)
+	{
+		if (!containsGameObject(identifier))
+			return null;
+
+		return GAME_OBJECT_TYPES[types[identifier] - 1];
+	}
+
+	/**
+	 * Returns the row of a game object.
+	 * @param identifier The identifier of the game object.
+	 * @return The row of the game object.
+	 * @throws IllegalArgumentException Thrown if there is no such game object.
+	 */
+	public int row(int identifier)
+	{
+		if (!containsGameObject(identifier))
+			throw new IllegalArgumentException();
+
+		return rows[identifier];
+	}
+
+	/**
+	 * Returns the column of a game object.
+	 * @param identifier The identifier of the game object.
+	 * @return The column of the game object.
+	 * @throws IllegalArgumentException Thrown if there is no such game object.
+	 */
+	public int column(int identifier)
+	{
+		if (!containsGameObject(identifier))
+			throw new IllegalArgumentException();
+
+		return columns[identifier];
+	}
+
+	/**
+	 * Applies a message which changes a game object or a score to this state.
+	 * @param message The message.
+	 * @throws NullPointerException Thrown if the message is null.
+	 * @throws IllegalStateException Thrown if the message updates or destroys a game object which is
+	 * not in this state.
+	 * @throws IllegalArgumentException Thrown if the message does not change a game object or score.
+	 */
+	public void apply(IMessage message)
+	{
+		if (message == null)
+			throw new NullPointerException();
+
+		if (message instanceof GameObjectCreatedMessage)
+		{
+			GameObjectCreatedMessage createdMessage = (GameObjectCreatedMessage) message;
+			putGameObject(createdMessage.gameObjectIdentifier(), createdMessage.gameObjectType(),
+					createdMessage.row(), createdMessage.column());
+		}
+		else if (message instanceof GameObjectUpdatedMessage)
+		{
+			GameObjectUpdatedMessage updatedMessage = (GameObjectUpdatedMessage) message;
+
+			if (!containsGameObject(updatedMessage.gameObjectIdentifier()))
+				throw new IllegalStateException();
+
+			rows[updatedMessage.gameObjectIdentifier()] = updatedMessage.row();
+			columns[updatedMessage.gameObjectIdentifier()] = updatedMessage.column();
+		}
+		else if (message instanceof GameObjectDestroyedMessage)
+		{
+			int identifier = ((GameObjectDestroyedMessage) message).gameObjectIdentifier();
+
+			if (!containsGameObject(identifier))
+				throw new IllegalStateException();
+
+			types[identifier] = 0;
+		}
+		else if (message instanceof ScoreUpdatedMessage)
+		{
+			ScoreUpdatedMessage scoreMessage = (ScoreUpdatedMessage) message;
+			putScore(scoreMessage.gameObjectIdentifier(), scoreMessage.score());
+		}
+		else
+		{
+			throw new IllegalArgumentException("The message does not change the game state.");
+		}
+	}
+
+	/**
+	 * Returns the messages which turn a baseline state into this state.  Destroyed game objects come
+	 * first, then created and moved game objects, then changed scores, each in identifier order.
+	 * @param baseline The baseline state, or null for the messages which create this whole state.
+	 * @return The messages.
+	 */
+	public IMessage[] changesFrom(GameState baseline)
+	{
+		if (baseline == null)
+			baseline = new GameState();
+
+		int length = Math.max(types.length, baseline.types.length);
+		ArrayList<IMessage> changes = new ArrayList<IMessage>();
+
+		for (int identifier = 0; identifier < length; identifier++)
+		{
+			if (baseline.containsGameObject(identifier) && !containsGameObject(identifier))
+				changes.add(new GameObjectDestroyedMessage(identifier));
+		}
+
+		for (int identifier = 0; identifier < types.length; identifier++)
+		{
+			if (types[identifier] == 0)
+				continue;
+
+			// a game object whose identifier was reused for another type is created again
+			if (gameObjectType(identifier) != baseline.gameObjectType(identifier))
+				changes.add(new GameObjectCreatedMessage(identifier, gameObjectType(identifier),
+						rows[identifier], columns[identifier]));
+			else if (rows[identifier] != baseline.rows[identifier]
+					|| columns[identifier] != baseline.columns[identifier])
+				changes.add(new GameObjectUpdatedMessage(identifier, rows[identifier],
+						columns[identifier]));
+		}
+
+		for (int identifier = 0; identifier < scored.length; identifier++)
+		{
+			if (!scored[identifier])
+				continue;
+
+			if (identifier >= baseline.scored.length || !baseline.scored[identifier]
+					|| scores[identifier] != baseline.scores[identifier])
+				changes.add(new ScoreUpdatedMessage(identifier, scores[identifier]));
+		}
+
+		return changes.toArray(new IMessage[changes.size()]);
+	}
+
+	/**
+	 * Private helper method which grows the arrays to hold an identifier.
+	 * @param identifier The identifier.
+	 * @throws IllegalArgumentException Thrown if the identifier is negative.
+	 */
+	private void ensureCapacity(int identifier)
+	{
+		if (identifier < 0)
+			throw new IllegalArgumentException();
+
+		if (identifier < types.length)
+			return;
+
+		int capacity = Math.max(types.length * 2, identifier + 1);
+		types = Arrays.copyOf(types, capacity);
+		rows = Arrays.copyOf(rows, capacity);
+		columns = Arrays.copyOf(columns, capacity);
+		scores = Arrays.copyOf(scores, capacity);
+		scored = Arrays.copyOf(scored, capacity);
+	}
+}
@@ -0,0 +1,166 @@
+package shared.model.communication;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import shared.model.GameObjectType;
+
+/**
+ * Tests GameState.  Messages do not override equals, so they are compared through their text form.
+ */
+public class GameStateTest
+{
+	// the test state
+	private GameState state;
+
+	/**
+	 * Sets up the tests.
+	 */
+	@Before
+	public void setUp()
+	{
+		state = new GameState();
+		state.putGameObject(1, GameObjectType.PLAYER, 1, 1);
+		state.putGameObject(2, GameObjectType.BREAKABLE_BLOCK, 1, 3);
+		state.putScore(1, 0);
+	}
+
+	/**
+	 * Ensures put game objects can be read back.
+	 */
+	@Test
+	public void testPutGameObject()
+	{
+		assertTrue(state.containsGameObject(1));
+		assertEquals(GameObjectType.PLAYER, state.gameObjectType(1));
+		assertEquals(1, state.row(1));
+		assertEquals(3, state.column(2));
+		assertFalse(state.containsGameObject(3));
+		assertNull(state.gameObjectType(-1));
+	}
+
+	/**
+	 * Ensures the state grows to hold large identifiers.
+	 */
+	@Test
+	public void testPutGameObjectLargeIdentifier()
+	{
+		state.putGameObject(1000, GameObjectType.BOMB, 5, 7);
+		assertEquals(GameObjectType.BOMB, state.gameObjectType(1000));
+	}
+
+	/**
+	 * Ensures putGameObject throws an IllegalArgumentException when the identifier is negative.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testPutGameObjectNegativeIdentifier()
+	{
+		state.putGameObject(-1, GameObjectType.BOMB, 5, 7);
+	}
+
+	/**
+	 * Ensures a copy is not changed with the original.
+	 */
+	@Test
+	public void testCopy()
+	{
+		GameState copy = new GameState(state);
+		state.removeGameObject(1);
+
+		assertFalse(state.containsGameObject(1));
+		assertTrue(copy.containsGameObject(1));
+	}
+
+	/**
+	 * Ensures the changes from no baseline create the whole state.
+	 */
+	@Test
+	public void testChangesFromNothing()
+	{
+		assertChanges(new String[] { "GAME_OBJECT_CREATED 1 PLAYER 1 1",
+				"GAME_OBJECT_CREATED 2 BREAKABLE_BLOCK 1 3", "SCORE_UPDATED 1 0" },
+				state.changesFrom(null));
+	}
+
+	/**
+	 * Ensures the changes from a state with the same content are empty.
+	 */
+	@Test
+	public void testChangesFromSameState()
+	{
+		assertEquals(0, state.changesFrom(new GameState(state)).length);
+	}
+
+	/**
+	 * Ensures the changes from a baseline destroy, create, move and score the game objects which
+	 * differ, and that a reused identifier is created again.
+	 */
+	@Test
+	public void testChangesFromBaseline()
+	{
+		GameState baseline = new GameState(state);
+		baseline.putGameObject(3, GameObjectType.BOMB, 1, 2);
+		state.putGameObject(1, GameObjectType.PLAYER, 1, 2);
+		state.putGameObject(2, GameObjectType.EXPLOSION, 1, 3);
+		state.putGameObject(100, GameObjectType.BOMB, 1, 1);
+		state.putScore(1, 5);
+
+		assertChanges(new String[] { "GAME_OBJECT_DESTROYED 3", "GAME_OBJECT_POSITION_UPDATED 1 1 2",
+				"GAME_OBJECT_CREATED 2 EXPLOSION 1 3", "GAME_OBJECT_CREATED 100 BOMB 1 1",
+				"SCORE_UPDATED 1 5" }, state.changesFrom(baseline));
+	}
+
+	/**
+	 * Ensures applying the changes from a baseline to a copy of the baseline gives the same state.
+	 */
+	@Test
+	public void testApplyChanges()
+	{
+		GameState baseline = new GameState(state);
+		state.removeGameObject(2);
+		state.putGameObject(1, GameObjectType.PLAYER, 2, 1);
+		state.putGameObject(4, GameObjectType.BOMB, 2, 1);
+		state.putScore(1, -1);
+
+		GameState copy = new GameState(baseline);
+		for (IMessage change : state.changesFrom(baseline))
+			copy.apply(change);
+
+		assertEquals(0, state.changesFrom(copy).length);
+		assertEquals(0, copy.changesFrom(state).length);
+	}
+
+	/**
+	 * Ensures a position update of a game object which is not in the state throws an
+	 * IllegalStateException.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testApplyUpdateUnknownGameObject()
+	{
+		state.apply(new GameObjectUpdatedMessage(3, 1, 1));
+	}
+
+	/**
+	 * Ensures a message which does not change the state throws an IllegalArgumentException.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testApplyOtherMessage()
+	{
+		state.apply(new GameTimeMessage(10));
+	}
+
+	/**
+	 * Private helper method which asserts the text forms of a list of messages.
+	 * @param expected The expected text forms.
+	 * @param messages The messages.
+	 */
+	private static void assertChanges(String[] expected, IMessage[] messages)
+	{
+		assertEquals(expected.length, messages.length);
+
+		for (int i = 0; i < expected.length; i++)
+			assertEquals(expected[i], messages[i].toString());
+	}
+}
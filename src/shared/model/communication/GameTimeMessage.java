@@ -1,5 +1,7 @@
 package shared.model.communication;
 
+import java.nio.ByteBuffer;
+
 /**
  * A Message for communicating the time remaining in a game.
  * 
@@ -37,4 +39,13 @@ public class GameTimeMessage implements IMessage
 	public String toString() {
 		return "GAME_TIME " + time();
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void writeTo(ByteBuffer buffer)
+	{
+		TextMessageWriter.putWord(buffer, "GAME_TIME");
+		TextMessageWriter.putArgument(buffer, time());
+	}
 }
@@ -1,5 +1,7 @@
 package shared.model.communication;
 
+import java.nio.ByteBuffer;
+
 /**
  * Message for testing connection of a socket.
  * 
@@ -13,4 +15,12 @@ public class HelloMessage implements IMessage
 	{
 		return "STATUS";
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void writeTo(ByteBuffer buffer)
+	{
+		TextMessageWriter.putWord(buffer, "STATUS");
+	}
 }
@@ -1,5 +1,7 @@
 package shared.model.communication;
 
+import shared.core.IConsumer;
+
 /**
  * Communicates with the server application.
  */
@@ -51,6 +53,24 @@ public interface ICommunicator
 	public IMessage[] receivedMessages(int maximumNumberOfMessages)
 			throws CommunicationException;
 
+	/**
+	 * An asynchronous method which hands every message received since this
+	 * ICommunicator was connected or since the last call to this method or
+	 * receivedMessages() to a consumer, in the order they were received,
+	 * without copying them into an array first. It must always be called from
+	 * the same thread as receivedMessages().
+	 * 
+	 * @param consumer
+	 *            The consumer of the messages.
+	 * @throws NullPointerException
+	 *             Thrown if the consumer is null.
+	 * @throws CommunicationException
+	 *             Thrown if an error occurs with the connection.
+	 * @return The number of messages handed to the consumer.
+	 */
+	public int drainTo(IConsumer<? super IMessage> consumer)
+			throws CommunicationException;
+
 	/**
 	 * A synchronous message which disconnects this ICommunicator from the
 	 * connected server.
@@ -1,14 +1,31 @@
 package shared.model.communication;
 
+import java.nio.ByteBuffer;
+
 /**
- * Encapsulates the game message data. 
+ * Encapsulates the game message data.
  */
 public interface IMessage
 {
-	
+	/**
+	 * The largest number of bytes writeTo writes for any message.
+	 */
+	public static final int MAXIMUM_TEXT_LENGTH = 80;
+
 	/**
 	 * Returns the string representation of this IMessage.
 	 * @return The string representation of this IMessage.
 	 */
 	public String toString();
+
+	/**
+	 * Writes the string representation of this IMessage into a buffer as ASCII bytes, without
+	 * creating the string.  The written bytes are the characters of toString, and no line
+	 * separator is written.
+	 * @param buffer The buffer, which should have at least MAXIMUM_TEXT_LENGTH bytes remaining.
+	 * @throws NullPointerException Thrown if the buffer is null.
+	 * @throws java.nio.BufferOverflowException Thrown if the buffer does not have enough room, in
+	 * which case part of the message may have been written.
+	 */
+	public void writeTo(ByteBuffer buffer);
 }
@@ -0,0 +1,38 @@
+package shared.model.communication;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes messages into and decodes messages from byte buffers.  The messages and the exceptions
+ * thrown for malformed input are the same as those of IMessageFactory, only the representation
+ * differs.
+ */
+public interface IMessageCodec
+{
+	/**
+	 * The largest number of bytes an encoded message can take.  A buffer with at least this many
+	 * bytes remaining can always hold the next message.
+	 */
+	public static final int MAXIMUM_ENCODED_LENGTH = 32;
+
+	/**
+	 * Encodes a message at the position of the buffer, and advances the position past it.
+	 * @param message The message to encode.
+	 * @param buffer The buffer the message is written to.
+	 * @throws NullPointerException Thrown if the message or buffer is null.
+	 * @throws IllegalArgumentException Thrown if the message is of an unknown type.
+	 * @throws java.nio.BufferOverflowException Thrown if the buffer does not have enough space
+	 * remaining, in which case its position is left unchanged.
+	 */
+	public void encode(IMessage message, ByteBuffer buffer);
+
+	/**
+	 * Decodes the message at the position of the buffer, and advances the position past it.
+	 * @param buffer The buffer the message is read from.
+	 * @return The decoded message, or null if the buffer does not yet hold a whole message, in which
+	 * case its position is left unchanged.
+	 * @throws NullPointerException Thrown if the buffer is null.
+	 * @throws IllegalArgumentException Thrown if the message is in an unrecognized format.
+	 */
+	public IMessage decode(ByteBuffer buffer);
+}
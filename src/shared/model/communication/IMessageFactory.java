@@ -14,4 +14,17 @@ public interface IMessageFactory
 	 * @throws IllegalArgumentException Thrown if the message is in an unrecognized format.
 	 */
 	public IMessage createMessage(String messageString);
+
+	/**
+	 * Creates a message using the message string held by a range of characters, without copying
+	 * them into a string.
+	 * @param text The characters.
+	 * @param offset The index of the first character of the message string.
+	 * @param length The number of characters of the message string.
+	 * @return A message created from the provided message string.
+	 * @throws NullPointerException Thrown if text is null.
+	 * @throws IllegalArgumentException Thrown if the range is outside the characters, or if the
+	 * message is in an unrecognized format.
+	 */
+	public IMessage createMessage(char[] text, int offset, int length);
 }
@@ -13,6 +13,15 @@ public interface IServerCommunicator
 	 */
 	public void sendMessages(IMessage message) throws CommunicationException;
 	
+	/**
+	 * An asynchronous method which sends a batch of messages, in order, to all of the connected
+	 * clients.  The connected clients are only looked up once for the whole batch.
+	 * @param messages The messages to send.
+	 * @throws NullPointerException Thrown if the messages or any of the messages are null.
+	 * @throws CommunicationException Thrown if an error occurs with the connection.
+	 */
+	public void sendMessageBatch(IMessage[] messages) throws CommunicationException;
+	
 	/**
 	 * An asynchronous method which returns all of the messages received since this 
 	 * IServerCommunicator was connected or since the last call to this message.
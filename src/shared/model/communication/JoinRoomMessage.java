@@ -0,0 +1,58 @@
+package shared.model.communication;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Message which a client sends first when it connects to a server hosting several rooms, to choose
+ * the room whose game it joins.
+ */
+public class JoinRoomMessage implements IMessage
+{
+	/**
+	 * The number which joins the first room opened by the server which clients may still join and
+	 * which is not full, rather than a room with a given number.
+	 */
+	public static final int ANY_ROOM = 0;
+
+	// the number of the room
+	private final int room;
+
+	/**
+	 * Creates a new JoinRoomMessage.
+	 * @param room The number of the room.
+	 * @throws IllegalArgumentException Thrown if the number of the room is negative.
+	 */
+	public JoinRoomMessage(int room)
+	{
+		if (room < 0)
+			throw new IllegalArgumentException();
+
+		this.room = room;
+	}
+
+	/**
+	 * Returns the number of the room.
+	 * @return The number of the room.
+	 */
+	public int room()
+	{
+		return room;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public String toString()
+	{
+		return "JOIN_ROOM " + room();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void writeTo(ByteBuffer buffer)
+	{
+		TextMessageWriter.putWord(buffer, "JOIN_ROOM");
+		TextMessageWriter.putArgument(buffer, room());
+	}
+}
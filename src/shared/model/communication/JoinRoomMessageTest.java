@@ -0,0 +1,40 @@
+package shared.model.communication;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests JoinRoomMessage
+ */
+public class JoinRoomMessageTest
+{
+	/**
+	 * Ensures the constructor and accessor methods work correctly.
+	 */
+	@Test
+	public void sanityCheck()
+	{
+		JoinRoomMessage message = new JoinRoomMessage(7);
+		assertEquals(7, message.room());
+	}
+
+	/**
+	 * Ensures the number of the room can not be negative.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeRoom()
+	{
+		new JoinRoomMessage(-1);
+	}
+
+	/**
+	 * Ensures toString() produces a valid string.
+	 */
+	@Test
+	public void testToString()
+	{
+		JoinRoomMessage message = new JoinRoomMessage(7);
+		assertEquals("JOIN_ROOM 7", message.toString());
+	}
+}
@@ -1,5 +1,7 @@
 package shared.model.communication;
 
+import java.nio.ByteBuffer;
+
 import shared.model.Key;
 import shared.model.KeyAction;
 
@@ -64,4 +66,15 @@ public class KeyMessage extends Message
 		return "KEY " + gameObjectIdentifier() + " " + key.toString() + " "
 				+ action.toString();
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void writeTo(ByteBuffer buffer)
+	{
+		TextMessageWriter.putWord(buffer, "KEY");
+		TextMessageWriter.putArgument(buffer, gameObjectIdentifier());
+		TextMessageWriter.putArgument(buffer, key.toString());
+		TextMessageWriter.putArgument(buffer, action.toString());
+	}
 }
@@ -50,6 +50,50 @@ public class MessageFactoryTest
 		messageFactory.createMessage("");
 	}
 
+	/**
+	 * Tests that createMessage throws a NullPointerException when given null
+	 * characters.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testCreateMessageNullCharacters()
+	{
+		messageFactory.createMessage(null, 0, 1);
+	}
+
+	/**
+	 * Tests that createMessage throws an IllegalArgumentException when given a
+	 * range outside the characters.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testCreateMessageCharactersRangeOutside()
+	{
+		messageFactory.createMessage("STATUS".toCharArray(), 2, 5);
+	}
+
+	/**
+	 * Tests that createMessage throws an IllegalArgumentException when given an
+	 * empty range of characters.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testCreateMessageCharactersRangeEmpty()
+	{
+		messageFactory.createMessage("STATUS".toCharArray(), 0, 0);
+	}
+
+	/**
+	 * Tests that createMessage parses only the given range of characters.
+	 */
+	@Test
+	public void testCreateMessageCharactersRange()
+	{
+		char[] text = "xxKEY 1 DOWN PRESS xx".toCharArray();
+		IMessage message = messageFactory.createMessage(text, 2, 16);
+		assertTrue(message instanceof KeyMessage);
+		KeyMessage keyMessage = (KeyMessage) message;
+		assertEquals(Key.DOWN, keyMessage.key());
+		assertEquals(KeyAction.PRESS, keyMessage.action());
+	}
+
 	/**
 	 * Tests that createMessage throws an IllegalArgumentException when given a
 	 * whitespace string.
@@ -610,6 +654,38 @@ public class MessageFactoryTest
 		messageFactory.createMessage(messageString);
 	}
 
+	/**
+	 * Tests that createMessage decodes the board size of a GameMessage string.
+	 */
+	@Test
+	public void testCreateMessageGameMessageBoardSize()
+	{
+		String messageString = "GAME START 2 51 75";
+		IMessage message = messageFactory.createMessage(messageString);
+		assertTrue(message instanceof GameMessage);
+		GameMessage gameMessage = (GameMessage) message;
+		assertEquals(GameMessage.Action.START, gameMessage.action());
+		assertEquals(2, gameMessage.numberOfPlayers());
+		assertEquals(51, gameMessage.numberOfRows());
+		assertEquals(75, gameMessage.numberOfColumns());
+
+		messageString = "GAME START 3";
+		gameMessage = (GameMessage) messageFactory.createMessage(messageString);
+		assertEquals(17, gameMessage.numberOfRows());
+		assertEquals(23, gameMessage.numberOfColumns());
+	}
+
+	/**
+	 * Tests that createMessage throws an IllegalArgumentException when given a
+	 * GAME string with an invalid board size.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testCreateMessageGameMessageInvalidBoardSize()
+	{
+		String messageString = "GAME START 2 51 x";
+		messageFactory.createMessage(messageString);
+	}
+
 	/**
 	 * Tests that createMessage throws an IllegalArgumentException when given a
 	 * GAME string with an invalid players argument.
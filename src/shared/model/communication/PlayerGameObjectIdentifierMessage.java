@@ -1,5 +1,7 @@
 package shared.model.communication;
 
+import java.nio.ByteBuffer;
+
 /**
  * A message for communicating a game object identifier to a given player.
  * 
@@ -27,4 +29,13 @@ public class PlayerGameObjectIdentifierMessage extends Message
 		return "PLAYER_GAME_OBJECT_IDENTIFIER " + gameObjectIdentifier();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	public void writeTo(ByteBuffer buffer)
+	{
+		TextMessageWriter.putWord(buffer, "PLAYER_GAME_OBJECT_IDENTIFIER");
+		TextMessageWriter.putArgument(buffer, gameObjectIdentifier());
+	}
+
 }
@@ -1,5 +1,7 @@
 package shared.model.communication;
 
+import java.nio.ByteBuffer;
+
 /**
  * Message which represents a game object whose score has been updated.
  */
@@ -41,4 +43,14 @@ public class ScoreUpdatedMessage extends Message
 	{
 		return "SCORE_UPDATED " + gameObjectIdentifier() + " " + score();
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void writeTo(ByteBuffer buffer)
+	{
+		TextMessageWriter.putWord(buffer, "SCORE_UPDATED");
+		TextMessageWriter.putArgument(buffer, gameObjectIdentifier());
+		TextMessageWriter.putArgument(buffer, score());
+	}
 }
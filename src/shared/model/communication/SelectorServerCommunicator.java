@@ -0,0 +1,1535 @@
+package shared.model.communication;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An implementation of IServerCommunicator which serves every connection from a single thread.
+ * The thread waits on a Selector for non-blocking socket channels to become ready, reads the wire
+ * format each client announces, frames and decodes the received messages and encodes and writes
+ * the queued messages, so the number of threads does not grow with the number of connections.
+ * Messages sent by other threads are encoded into a frame once for each wire format, no matter how
+ * many clients use it.  The read-only frame is shared by the queues of the connections and the
+ * event loop thread writes every frame queued on a connection with a single gathering write, in
+ * the order they were sent.
+ * <p>
+ * The bytes queued for each client are counted, and a client whose queued bytes reach a maximum is
+ * treated as slow according to a SlowClientPolicy.  Sending never waits for a client, so a slow
+ * client can not hold back the others.
+ * <p>
+ * The communicator can host several games on its single port by opening rooms, each of which is
+ * an IServerCommunicator sending to and receiving from the clients which joined it only.  Once a
+ * room has been opened, the first message of every client must be a JoinRoomMessage naming an
+ * open room which is not full, or JoinRoomMessage.ANY_ROOM to join the first such room, and a
+ * client which does not join a room within Communicator.HANDSHAKE_TIMEOUT milliseconds is
+ * disconnected.  Until then, every client joins the room of the communicator itself, and ignores
+ * its request to join a room.
+ */
+public class SelectorServerCommunicator implements IServerCommunicator
+{
+	// the largest number of milliseconds the event loop waits before checking the handshakes
+	private static final int SELECT_TIMEOUT = 1000;
+
+	// the number of milliseconds a caller waits for the event loop to carry out a request
+	private static final int REQUEST_TIMEOUT = 5000;
+
+	// the size of the read buffer of a connection
+	private static final int BUFFER_SIZE = 8192;
+
+	// the number of bytes reserved for each message of a text frame before it grows
+	private static final int TEXT_MESSAGE_LENGTH = 32;
+
+	// queued instead of a frame to have the event loop drop the frames queued before it
+	private static final ByteBuffer RESYNC_MARKER = ByteBuffer.allocate(0);
+
+	/**
+	 * The number of bytes queued for a client at which it is treated as slow, unless another
+	 * number is provided.
+	 */
+	public static final int DEFAULT_MAXIMUM_QUEUED_BYTES = 256 * 1024;
+
+	// the number of times its maximum a slow client whose updates are held back may queue
+	private static final int DISCONNECT_FACTOR = 4;
+
+	// the factory used to parse text messages
+	private final IMessageFactory messageFactory;
+
+	// the codec of binary messages
+	private final IMessageCodec messageCodec;
+
+	// the characters of the text message being parsed, only used by the event loop; a line is never
+	// longer than the read buffer of a connection
+	private final char[] lineCharacters = new char[BUFFER_SIZE];
+
+	// the selector the event loop waits on
+	private final Selector selector;
+
+	// the channel accepting incoming connections
+	private final ServerSocketChannel serverChannel;
+
+	// the port the server listens on
+	private final int port;
+
+	// the number of bytes queued for a client at which it is treated as slow
+	private final int maximumQueuedBytes;
+
+	// the way slow clients are treated
+	private final SlowClientPolicy slowClientPolicy;
+
+	// the number of position updates which were superseded before a slow client could take them
+	private final AtomicLong numberOfDroppedMessages;
+
+	// the number of clients disconnected for being slow
+	private final AtomicInteger numberOfDisconnectedSlowClients;
+
+	// the number of times a slow client had its queued frames dropped to be resynchronized
+	private final AtomicInteger numberOfResyncs;
+
+	// the connections whose clients have joined a room, guarded by itself
+	private final List<Connection> connections;
+
+	// the connections whose clients have not yet joined a room
+	private final List<Connection> handshakingConnections;
+
+	// the room every client joins until a room is opened
+	private final Room defaultRoom;
+
+	// the opened rooms by their number, in the order they were opened, guarded by itself
+	private final Map<Integer, Room> rooms;
+
+	// whether a room has been opened, after which clients must join one
+	private volatile boolean hostingRooms;
+
+	// the requests made by other threads which the event loop carries out
+	private final ConcurrentLinkedQueue<Runnable> requests;
+
+	// whether messages have been queued since the event loop last wrote them
+	private final AtomicBoolean messagesQueued;
+
+	// the event loop thread
+	private final Thread eventLoopThread;
+
+	// whether the event loop keeps running
+	private volatile boolean running;
+
+	/**
+	 * The state of a connection to a client.  It is only used by the event loop thread, except for
+	 * its queue of frames to send.
+	 */
+	private static class Connection
+	{
+		// the channel connected to the client
+		private final SocketChannel channel;
+
+		// the key of the channel
+		private SelectionKey key;
+
+		// the time the connection was accepted in milliseconds
+		private final long acceptTime;
+
+		// the wire format announced by the client, or null if it has not been announced
+		private WireFormat wireFormat;
+
+		// the room the client joined, or null if it has not joined one
+		private Room room;
+
+		// the received bytes which have not yet been decoded, kept ready to be filled
+		private ByteBuffer readBuffer;
+
+		// the frames which have been sent but not yet taken by the event loop
+		private final ConcurrentLinkedQueue<ByteBuffer> queuedFrames;
+
+		// the frames taken by the event loop which have not been written completely
+		private final ArrayDeque<ByteBuffer> pendingFrames;
+
+		// the number of bytes of the queued and pending frames which have not yet been written
+		private final AtomicInteger queuedBytes;
+
+		/*
+		 * The latest position update of each game object held back while the
+		 * client is slow, in the order the objects were first held back. It is
+		 * only used by sending threads, which hold the lock of the members of
+		 * its room, as are the flags below.
+		 */
+		private final Map<Integer, IMessage> heldUpdates;
+
+		// whether position updates are held back because the client is slow
+		private boolean slow;
+
+		// whether the client is waiting for a keyframe after its queued frames were dropped
+		private boolean resyncing;
+
+		// whether the connection is being closed because the client is slow
+		private boolean disconnecting;
+
+		/**
+		 * Creates a connection.
+		 * @param channel The channel connected to the client.
+		 * @param acceptTime The time the connection was accepted in milliseconds.
+		 */
+		public Connection(SocketChannel channel, long acceptTime)
+		{
+			this.channel = channel;
+			this.acceptTime = acceptTime;
+			readBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+			queuedFrames = new ConcurrentLinkedQueue<ByteBuffer>();
+			pendingFrames = new ArrayDeque<ByteBuffer>();
+			queuedBytes = new AtomicInteger();
+			heldUpdates = new LinkedHashMap<Integer, IMessage>();
+		}
+	}
+
+	/**
+	 * The frames of a batch of messages, each encoded the first time a client using its wire
+	 * format asks for it.
+	 */
+	private class Frames
+	{
+		// the messages
+		private final IMessage[] messages;
+
+		// the frame of each wire format, or null if it has not been encoded
+		private ByteBuffer binaryFrame;
+		private ByteBuffer textFrame;
+
+		/**
+		 * Creates the frames of a batch of messages.
+		 * @param messages The messages.
+		 */
+		public Frames(IMessage[] messages)
+		{
+			this.messages = messages;
+		}
+
+		/**
+		 * Returns the frame of a wire format, encoding it if it has not been encoded.
+		 * @param wireFormat The wire format.
+		 * @return The frame, as a read-only buffer shared by every client using the format.
+		 */
+		public ByteBuffer frame(WireFormat wireFormat)
+		{
+			if (wireFormat == WireFormat.BINARY)
+			{
+				if (binaryFrame == null)
+					binaryFrame = encodeFrame(messages, WireFormat.BINARY);
+
+				return binaryFrame;
+			}
+
+			if (textFrame == null)
+				textFrame = encodeFrame(messages, WireFormat.TEXT);
+
+			return textFrame;
+		}
+	}
+
+	/**
+	 * A room of clients playing one game, which sends messages to and receives messages from its
+	 * members only.
+	 */
+	private class Room implements IServerCommunicator
+	{
+		// the number of the room, or -1 for the default room
+		private final int number;
+
+		// the largest number of members
+		private final int capacity;
+
+		// the connections of the clients which joined the room, guarded by itself
+		private final List<Connection> members;
+
+		// the messages received from the members, in the order they were decoded
+		private final ConcurrentLinkedQueue<IMessage> receivedMessages;
+
+		// whether clients may join the room
+		private volatile boolean open;
+
+		/**
+		 * Creates an empty room which clients may join.
+		 * @param number The number of the room, or -1 for the default room.
+		 * @param capacity The largest number of members.
+		 */
+		public Room(int number, int capacity)
+		{
+			this.number = number;
+			this.capacity = capacity;
+			members = new ArrayList<Connection>();
+			receivedMessages = new ConcurrentLinkedQueue<IMessage>();
+			open = true;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public void sendMessages(IMessage message) throws CommunicationException
+		{
+			if (message == null)
+				throw new NullPointerException();
+
+			sendMessageBatch(new IMessage[] { message });
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public void sendMessageBatch(IMessage[] messages) throws CommunicationException
+		{
+			if (messages == null)
+				throw new NullPointerException();
+
+			for (IMessage message : messages)
+			{
+				if (message == null)
+					throw new NullPointerException();
+			}
+
+			if (messages.length == 0)
+				return;
+
+			// the frames of the messages, of the messages which are not position updates, and of
+			// the messages sent to a resynchronizing client, which are only encoded once a client
+			// needs them
+			Frames frames = new Frames(messages);
+			Frames slowClientFrames = null;
+			Frames resyncFrames = null;
+
+			synchronized (members)
+			{
+				for (Connection connection : members)
+				{
+					if (connection.disconnecting)
+						continue;
+
+					// send the held back updates of a slow client once it has caught up
+					if (connection.slow && connection.queuedBytes.get() <= maximumQueuedBytes / 2)
+						releaseHeldUpdates(connection);
+
+					if (!connection.resyncing && connection.queuedBytes.get() < maximumQueuedBytes)
+					{
+						// each connection writes the shared bytes at its own pace
+						queueFrame(connection, frames.frame(connection.wireFormat));
+						continue;
+					}
+
+					if (slowClientPolicy == SlowClientPolicy.DISCONNECT)
+					{
+						disconnectSlowClient(connection);
+						continue;
+					}
+
+					if (slowClientPolicy == SlowClientPolicy.RESYNC)
+					{
+						if (resyncFrames == null)
+							resyncFrames = new Frames(resyncMessages(messages));
+
+						resync(connection, resyncFrames);
+						continue;
+					}
+
+					if (slowClientFrames == null)
+						slowClientFrames = new Frames(withoutPositionUpdates(messages));
+
+					holdUpdates(connection, messages, slowClientFrames);
+				}
+			}
+
+			messagesSent();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public void sendUniqueMessageToEachConnectedCommunicator(IMessageGenerator messageGenerator)
+			throws CommunicationException
+		{
+			if (messageGenerator == null)
+				throw new NullPointerException();
+
+			synchronized (members)
+			{
+				for (Connection connection : members)
+				{
+					IMessage message = messageGenerator.generateMessage();
+
+					if (message == null)
+						throw new IllegalArgumentException();
+
+					if (!connection.disconnecting)
+						queueFrame(connection, encodeFrame(new IMessage[] { message },
+								connection.wireFormat));
+				}
+			}
+
+			messagesSent();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public IMessage[] receivedMessages() throws CommunicationException
+		{
+			List<IMessage> messages = new ArrayList<IMessage>();
+			IMessage message;
+
+			while ((message = receivedMessages.poll()) != null)
+				messages.add(message);
+
+			return messages.toArray(new IMessage[messages.size()]);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public int numberOfConnectedCommunicators()
+		{
+			synchronized (members)
+			{
+				return members.size();
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public IMessageFactory messageFactory()
+		{
+			return messageFactory;
+		}
+
+		/**
+		 * Stops clients from joining the room.
+		 * @throws IllegalStateException Thrown if clients may not join the room.
+		 */
+		public void stopListening()
+		{
+			if (!listening())
+				throw new IllegalStateException();
+
+			open = false;
+		}
+
+		/**
+		 * Returns true if clients may join the room.
+		 * @return True if clients may join the room and false otherwise.
+		 */
+		public boolean listening()
+		{
+			return open && serverChannel.isOpen();
+		}
+
+		/**
+		 * Closes the room and disconnects its members, leaving the other rooms and the
+		 * communicator running.
+		 * @throws CommunicationException This room never throws this exception.
+		 */
+		public void disconnect() throws CommunicationException
+		{
+			open = false;
+
+			synchronized (rooms)
+			{
+				if (rooms.get(number) == this)
+					rooms.remove(number);
+			}
+
+			if (!running)
+				return;
+
+			performRequest(new Runnable()
+			{
+				public void run()
+				{
+					Connection[] membersArray;
+
+					synchronized (members)
+					{
+						membersArray = members.toArray(new Connection[members.size()]);
+					}
+
+					// the messages sent before, such as the end of the game, are written first
+					for (Connection connection : membersArray)
+					{
+						if (!connection.queuedFrames.isEmpty())
+							write(connection);
+
+						close(connection);
+					}
+				}
+			});
+		}
+
+		/**
+		 * Adds a connection to the members, unless clients may not join the room or it is full.
+		 * @param connection The connection.
+		 * @return True if the connection joined the room and false otherwise.
+		 */
+		private boolean join(Connection connection)
+		{
+			synchronized (members)
+			{
+				if (!open || members.size() >= capacity)
+					return false;
+
+				members.add(connection);
+				connection.room = this;
+			}
+
+			handshakingConnections.remove(connection);
+
+			synchronized (connections)
+			{
+				connections.add(connection);
+			}
+
+			return true;
+		}
+	}
+
+	/**
+	 * A runnable which, when run, serves the connections until the communicator is disconnected.
+	 */
+	private class EventLoopRunnable implements Runnable
+	{
+		/**
+		 * {@inheritDoc}
+		 */
+		public void run()
+		{
+			runEventLoop();
+		}
+	}
+
+	/**
+	 * Creates a new instance of SelectorServerCommunicator which automatically starts listening for
+	 * incoming connections on Communicator.DEFAULT_PORT.
+	 * @param messageFactory The message factory.
+	 * @throws NullPointerException Thrown if messageFactory is null.
+	 * @throws CommunicationException Thrown if an error occurs while communicating.
+	 */
+	public SelectorServerCommunicator(IMessageFactory messageFactory) throws CommunicationException
+	{
+		this(messageFactory, Communicator.DEFAULT_PORT);
+	}
+
+	/**
+	 * Creates a new instance of SelectorServerCommunicator which automatically starts listening for
+	 * incoming connections on the provided port.
+	 * @param messageFactory The message factory.
+	 * @param port The port to listen on, or 0 for any free port.
+	 * @throws NullPointerException Thrown if messageFactory is null.
+	 * @throws IllegalArgumentException Thrown if the port is not a valid port.
+	 * @throws CommunicationException Thrown if an error occurs while communicating.
+	 */
+	public SelectorServerCommunicator(IMessageFactory messageFactory, int port)
+			throws CommunicationException
+	{
+		this(messageFactory, port, DEFAULT_MAXIMUM_QUEUED_BYTES,
+				SlowClientPolicy.DROP_SUPERSEDED_UPDATES);
+	}
+
+	/**
+	 * Creates a new instance of SelectorServerCommunicator which automatically starts listening for
+	 * incoming connections on the provided port, and treats slow clients according to a policy.  A
+	 * client is slow once the bytes queued for it reach a maximum, so its queue may only exceed the
+	 * maximum by the last batch of messages queued before that.
+	 * @param messageFactory The message factory.
+	 * @param port The port to listen on, or 0 for any free port.
+	 * @param maximumQueuedBytes The number of bytes queued for a client at which it is slow.
+	 * @param slowClientPolicy The way slow clients are treated.
+	 * @throws NullPointerException Thrown if messageFactory or slowClientPolicy is null.
+	 * @throws IllegalArgumentException Thrown if the port is not a valid port or maximumQueuedBytes
+	 * is less than 1.
+	 * @throws CommunicationException Thrown if an error occurs while communicating.
+	 */
+	public SelectorServerCommunicator(IMessageFactory messageFactory, int port,
+			int maximumQueuedBytes, SlowClientPolicy slowClientPolicy) throws CommunicationException
+	{
+		if (messageFactory == null || slowClientPolicy == null)
+			throw new NullPointerException();
+
+		if (port < 0 || port > 0xFFFF || maximumQueuedBytes < 1)
+			throw new IllegalArgumentException();
+
+		this.messageFactory = messageFactory;
+		this.maximumQueuedBytes = maximumQueuedBytes;
+		this.slowClientPolicy = slowClientPolicy;
+		numberOfDroppedMessages = new AtomicLong();
+		numberOfDisconnectedSlowClients = new AtomicInteger();
+		numberOfResyncs = new AtomicInteger();
+		messageCodec = new BinaryMessageCodec();
+		connections = new ArrayList<Connection>();
+		handshakingConnections = new ArrayList<Connection>();
+		defaultRoom = new Room(-1, Integer.MAX_VALUE);
+		rooms = new LinkedHashMap<Integer, Room>();
+		requests = new ConcurrentLinkedQueue<Runnable>();
+		messagesQueued = new AtomicBoolean();
+
+		Selector openedSelector = null;
+		ServerSocketChannel openedServerChannel = null;
+
+		try
+		{
+			// set up the selector and the listening channel
+			openedSelector = Selector.open();
+			openedServerChannel = ServerSocketChannel.open();
+			openedServerChannel.socket().setReuseAddress(true);
+			openedServerChannel.socket().bind(new InetSocketAddress(port));
+			openedServerChannel.configureBlocking(false);
+			openedServerChannel.register(openedSelector, SelectionKey.OP_ACCEPT);
+		}
+		catch (IOException exception)
+		{
+			closeQuietly(openedServerChannel, openedSelector);
+			throw new CommunicationException();
+		}
+
+		selector = openedSelector;
+		serverChannel = openedServerChannel;
+		this.port = serverChannel.socket().getLocalPort();
+
+		// start the event loop thread
+		running = true;
+		eventLoopThread = new Thread(new EventLoopRunnable(), "SelectorServerCommunicator");
+		eventLoopThread.start();
+	}
+
+	/**
+	 * Returns the port the communicator listens on.
+	 * @return The port.
+	 */
+	public int port()
+	{
+		return port;
+	}
+
+	/**
+	 * Returns the number of bytes sent to each connected client which have not yet been written to
+	 * it, in the order the clients connected.
+	 * @return The number of queued bytes of each connected client.
+	 */
+	public int[] queuedBytes()
+	{
+		synchronized (connections)
+		{
+			int[] queuedBytes = new int[connections.size()];
+
+			for (int i = 0; i < queuedBytes.length; i++)
+				queuedBytes[i] = connections.get(i).queuedBytes.get();
+
+			return queuedBytes;
+		}
+	}
+
+	/**
+	 * Returns the number of position updates which slow clients never received because a later
+	 * update of the same game object, or its destruction, superseded them.
+	 * @return The number of dropped messages.
+	 */
+	public long numberOfDroppedMessages()
+	{
+		return numberOfDroppedMessages.get();
+	}
+
+	/**
+	 * Returns the number of times the queued frames of a slow client were dropped to resynchronize
+	 * it with a keyframe.
+	 * @return The number of resynchronizations.
+	 */
+	public int numberOfResyncs()
+	{
+		return numberOfResyncs.get();
+	}
+
+	/**
+	 * Returns the number of clients which were disconnected for being slow.
+	 * @return The number of disconnected slow clients.
+	 */
+	public int numberOfDisconnectedSlowClients()
+	{
+		return numberOfDisconnectedSlowClients.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void sendMessages(IMessage message) throws CommunicationException
+	{
+		defaultRoom.sendMessages(message);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void sendMessageBatch(IMessage[] messages) throws CommunicationException
+	{
+		defaultRoom.sendMessageBatch(messages);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void sendUniqueMessageToEachConnectedCommunicator(IMessageGenerator messageGenerator)
+		throws CommunicationException
+	{
+		defaultRoom.sendUniqueMessageToEachConnectedCommunicator(messageGenerator);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public IMessage[] receivedMessages() throws CommunicationException
+	{
+		return defaultRoom.receivedMessages();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public int numberOfConnectedCommunicators()
+	{
+		return defaultRoom.numberOfConnectedCommunicators();
+	}
+
+	/**
+	 * Opens a room which clients join by sending a JoinRoomMessage with its number, or with
+	 * JoinRoomMessage.ANY_ROOM, as their first message.  From then on, clients no longer join the
+	 * room of this communicator.  The room is
+	 * closed, and its members disconnected, when it is disconnected, without disconnecting the
+	 * other rooms.
+	 * @param number The number of the room.
+	 * @param capacity The largest number of clients which may join the room.
+	 * @return The room, which sends messages to and receives messages from its members only.
+	 * @throws IllegalArgumentException Thrown if the number or the capacity is less than 1.
+	 * @throws IllegalStateException Thrown if a room with the number is open, or the communicator
+	 * has stopped listening.
+	 */
+	public IServerCommunicator openRoom(int number, int capacity)
+	{
+		if (number < 1 || capacity < 1)
+			throw new IllegalArgumentException();
+
+		if (!listening())
+			throw new IllegalStateException();
+
+		Room room = new Room(number, capacity);
+
+		synchronized (rooms)
+		{
+			if (rooms.containsKey(number))
+				throw new IllegalStateException();
+
+			rooms.put(number, room);
+		}
+
+		hostingRooms = true;
+
+		return room;
+	}
+
+	/**
+	 * Returns the number of rooms which have been opened and not disconnected.
+	 * @return The number of open rooms.
+	 */
+	public int numberOfRooms()
+	{
+		synchronized (rooms)
+		{
+			return rooms.size();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public IMessageFactory messageFactory()
+	{
+		return messageFactory;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void stopListening()
+	{
+		if (!listening())
+			throw new IllegalStateException();
+
+		// the socket is only released once the event loop has deregistered the channel
+		performRequest(new Runnable()
+		{
+			public void run()
+			{
+				closeServerChannel();
+			}
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public boolean listening()
+	{
+		return serverChannel.isOpen();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void disconnect() throws CommunicationException
+	{
+		if (!running)
+			return;
+
+		performRequest(new Runnable()
+		{
+			public void run()
+			{
+				// the messages sent before are written first, as far as the clients take them
+				writeQueuedFrames();
+				running = false;
+			}
+		});
+
+		try
+		{
+			eventLoopThread.join(REQUEST_TIMEOUT);
+		}
+		catch (InterruptedException exception)
+		{
+			// fall through to the check below
+		}
+
+		if (eventLoopThread.isAlive())
+			throw new CommunicationException("Could not close socket.");
+	}
+
+	/**
+	 * Private helper method which encodes messages into a frame of a wire format.
+	 * @param messages The messages.
+	 * @param wireFormat The wire format.
+	 * @return The frame, as a read-only buffer positioned at its first byte.
+	 */
+	private ByteBuffer encodeFrame(IMessage[] messages, WireFormat wireFormat)
+	{
+		ByteBuffer frame;
+
+		if (wireFormat == WireFormat.BINARY)
+		{
+			frame = ByteBuffer.allocate(messages.length * IMessageCodec.MAXIMUM_ENCODED_LENGTH);
+
+			for (IMessage message : messages)
+				messageCodec.encode(message, frame);
+		}
+		else
+		{
+			frame = ByteBuffer.allocate(messages.length * TEXT_MESSAGE_LENGTH);
+
+			for (IMessage message : messages)
+			{
+				// make sure the longest message and its newline fit before writing it
+				if (frame.remaining() < IMessage.MAXIMUM_TEXT_LENGTH + 1)
+				{
+					ByteBuffer largerFrame = ByteBuffer.allocate(Math.max(frame.capacity() * 2,
+							frame.position() + IMessage.MAXIMUM_TEXT_LENGTH + 1));
+					frame.flip();
+					frame = largerFrame.put(frame);
+				}
+
+				message.writeTo(frame);
+				frame.put((byte) '\n');
+			}
+		}
+
+		frame.flip();
+
+		return frame.asReadOnlyBuffer();
+	}
+
+	/**
+	 * Private helper method which queues a frame on a connection and counts its bytes.
+	 * @param connection The connection.
+	 * @param frame The frame, which is shared with other connections.
+	 */
+	private void queueFrame(Connection connection, ByteBuffer frame)
+	{
+		if (!frame.hasRemaining())
+			return;
+
+		connection.queuedBytes.addAndGet(frame.remaining());
+		connection.queuedFrames.add(frame.duplicate());
+	}
+
+	/**
+	 * Private helper method which holds back the position updates of a batch of messages sent to a
+	 * slow client, replacing any update of the same game object it holds, and queues the other
+	 * messages.  The position updates among the changes of a snapshot are queued with it.  The
+	 * client is disconnected instead if its queue is already full several times over.
+	 * @param connection The connection of the slow client.
+	 * @param messages The messages.
+	 * @param otherMessagesFrames The frames of the messages which are not position updates.
+	 */
+	private void holdUpdates(Connection connection, IMessage[] messages, Frames otherMessagesFrames)
+	{
+		ByteBuffer frame = otherMessagesFrames.frame(connection.wireFormat);
+
+		if (frame.hasRemaining()
+				&& connection.queuedBytes.get() >= maximumQueuedBytes * DISCONNECT_FACTOR)
+		{
+			disconnectSlowClient(connection);
+			return;
+		}
+
+		connection.slow = true;
+
+		for (int i = 0; i < messages.length; i++)
+		{
+			IMessage message = messages[i];
+			IMessage supersededMessage = null;
+
+			if (message instanceof SnapshotMessage)
+			{
+				i = snapshotEnd(messages, i) - 1;
+				continue;
+			}
+
+			if (message instanceof GameObjectUpdatedMessage)
+				supersededMessage = connection.heldUpdates.put(
+						((GameObjectUpdatedMessage) message).gameObjectIdentifier(), message);
+			else if (message instanceof GameObjectDestroyedMessage)
+				supersededMessage = connection.heldUpdates.remove(
+						((GameObjectDestroyedMessage) message).gameObjectIdentifier());
+
+			if (supersededMessage != null)
+				numberOfDroppedMessages.incrementAndGet();
+		}
+
+		queueFrame(connection, frame);
+	}
+
+	/**
+	 * Private helper method which queues the held back position updates of a slow client which has
+	 * caught up, and stops holding back its updates.
+	 * @param connection The connection of the client.
+	 */
+	private void releaseHeldUpdates(Connection connection)
+	{
+		IMessage[] heldUpdates =
+				connection.heldUpdates.values().toArray(new IMessage[connection.heldUpdates.size()]);
+
+		connection.heldUpdates.clear();
+		connection.slow = false;
+		queueFrame(connection, encodeFrame(heldUpdates, connection.wireFormat));
+	}
+
+	/**
+	 * Private helper method which queues the messages of a batch sent to a resynchronizing client.
+	 * A slow client starts to resynchronize by having the event loop drop the frames queued for it
+	 * which have not started to be written, and stops once it is sent a keyframe.
+	 * @param connection The connection of the client.
+	 * @param resyncFrames The frames of the messages which are not part of a snapshot, and of the
+	 * keyframe of the batch, if it carries one.
+	 */
+	private void resync(Connection connection, Frames resyncFrames)
+	{
+		if (!connection.resyncing)
+		{
+			connection.resyncing = true;
+			connection.queuedFrames.add(RESYNC_MARKER);
+			numberOfResyncs.incrementAndGet();
+		}
+
+		queueFrame(connection, resyncFrames.frame(connection.wireFormat));
+
+		// only a keyframe is left among the snapshots of the resynchronizing messages
+		for (IMessage message : resyncFrames.messages)
+		{
+			if (message instanceof SnapshotMessage)
+				connection.resyncing = false;
+		}
+	}
+
+	/**
+	 * Private helper method which stops sending to a slow client and has the event loop close its
+	 * connection.
+	 * @param connection The connection of the client.
+	 */
+	private void disconnectSlowClient(final Connection connection)
+	{
+		connection.disconnecting = true;
+		connection.heldUpdates.clear();
+		connection.queuedFrames.clear();
+		numberOfDisconnectedSlowClients.incrementAndGet();
+
+		requests.add(new Runnable()
+		{
+			public void run()
+			{
+				close(connection);
+			}
+		});
+		selector.wakeup();
+	}
+
+	/**
+	 * Private helper method which returns the messages of a batch which are not position updates,
+	 * keeping every change of a snapshot, since the snapshot counts them.
+	 * @param messages The messages.
+	 * @return The messages which are not position updates outside a snapshot, in order.
+	 */
+	private static IMessage[] withoutPositionUpdates(IMessage[] messages)
+	{
+		List<IMessage> otherMessages = new ArrayList<IMessage>(messages.length);
+
+		for (int i = 0; i < messages.length; i++)
+		{
+			if (messages[i] instanceof SnapshotMessage)
+			{
+				int end = snapshotEnd(messages, i);
+				otherMessages.addAll(Arrays.asList(messages).subList(i, end));
+				i = end - 1;
+			}
+			else if (!(messages[i] instanceof GameObjectUpdatedMessage))
+				otherMessages.add(messages[i]);
+		}
+
+		return otherMessages.toArray(new IMessage[otherMessages.size()]);
+	}
+
+	/**
+	 * Private helper method which returns the index following the last change of a snapshot in a
+	 * batch of messages.
+	 * @param messages The messages.
+	 * @param index The index of the snapshot message.
+	 * @return The index following its last change.
+	 */
+	private static int snapshotEnd(IMessage[] messages, int index)
+	{
+		return Math.min(messages.length,
+				index + 1 + ((SnapshotMessage) messages[index]).numberOfChanges());
+	}
+
+	/**
+	 * Private helper method which returns the messages of a batch which a resynchronizing client is
+	 * sent: the messages which are not part of a snapshot, and the keyframe snapshots with their
+	 * changes.
+	 * @param messages The messages.
+	 * @return The messages sent to a resynchronizing client, in order.
+	 */
+	private static IMessage[] resyncMessages(IMessage[] messages)
+	{
+		List<IMessage> resyncMessages = new ArrayList<IMessage>(messages.length);
+
+		for (int i = 0; i < messages.length; i++)
+		{
+			if (!(messages[i] instanceof SnapshotMessage))
+			{
+				resyncMessages.add(messages[i]);
+				continue;
+			}
+
+			int end = snapshotEnd(messages, i);
+
+			if (((SnapshotMessage) messages[i]).keyframe())
+				resyncMessages.addAll(Arrays.asList(messages).subList(i, end));
+
+			i = end - 1;
+		}
+
+		return resyncMessages.toArray(new IMessage[resyncMessages.size()]);
+	}
+
+	/**
+	 * Private helper method which wakes up the event loop after messages have been queued, unless
+	 * it has already been woken up for messages which it has not yet written.
+	 */
+	private void messagesSent()
+	{
+		if (messagesQueued.compareAndSet(false, true))
+			selector.wakeup();
+	}
+
+	/**
+	 * Private helper method which has the event loop carry out a request and waits until it has.
+	 * @param request The request.
+	 */
+	private void performRequest(final Runnable request)
+	{
+		final CountDownLatch performed = new CountDownLatch(1);
+
+		requests.add(new Runnable()
+		{
+			public void run()
+			{
+				request.run();
+				performed.countDown();
+			}
+		});
+		selector.wakeup();
+
+		try
+		{
+			performed.await(REQUEST_TIMEOUT, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException exception)
+		{
+			// do nothing, the request is carried out regardless
+		}
+	}
+
+	/**
+	 * Private helper method which runs the event loop until the communicator is disconnected, and
+	 * then closes every channel.
+	 */
+	private void runEventLoop()
+	{
+		try
+		{
+			while (running)
+			{
+				selector.select(SELECT_TIMEOUT);
+
+				Runnable request;
+				while ((request = requests.poll()) != null)
+					request.run();
+
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+
+				while (keys.hasNext())
+				{
+					SelectionKey key = keys.next();
+					keys.remove();
+
+					if (!key.isValid())
+						continue;
+
+					if (key.isAcceptable())
+					{
+						acceptConnections();
+						continue;
+					}
+
+					Connection connection = (Connection) key.attachment();
+
+					if (key.isReadable())
+						read(connection);
+
+					if (key.isValid() && key.isWritable())
+						write(connection);
+				}
+
+				if (messagesQueued.getAndSet(false))
+					writeQueuedFrames();
+
+				closeStalledHandshakes();
+			}
+		}
+		catch (IOException exception)
+		{
+			// the selector failed, so no connection can be served any longer
+		}
+		finally
+		{
+			closeAll();
+		}
+	}
+
+	/**
+	 * Private helper method which accepts every pending incoming connection.
+	 * @throws IOException Thrown if the listening channel fails.
+	 */
+	private void acceptConnections() throws IOException
+	{
+		SocketChannel channel;
+
+		while ((channel = serverChannel.accept()) != null)
+		{
+			Connection connection = new Connection(channel, System.currentTimeMillis());
+
+			try
+			{
+				channel.configureBlocking(false);
+				channel.socket().setTcpNoDelay(true);
+				connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+				handshakingConnections.add(connection);
+			}
+			catch (IOException exception)
+			{
+				close(connection);
+			}
+		}
+	}
+
+	/**
+	 * Private helper method which reads the available bytes of a connection and decodes every
+	 * whole message among them.
+	 * @param connection The connection.
+	 */
+	private void read(Connection connection)
+	{
+		try
+		{
+			if (!connection.readBuffer.hasRemaining())
+			{
+				// a message is larger than the buffer
+				close(connection);
+				return;
+			}
+
+			if (connection.channel.read(connection.readBuffer) < 0)
+			{
+				close(connection);
+				return;
+			}
+
+			ByteBuffer buffer = connection.readBuffer;
+			buffer.flip();
+
+			// a client joins the default room as soon as it announces its wire format, unless it
+			// has to join an opened room
+			if (connection.wireFormat == null && buffer.hasRemaining())
+			{
+				connection.wireFormat = WireFormat.forPreamble(buffer.get());
+
+				if (!hostingRooms && !defaultRoom.join(connection))
+					throw new IllegalArgumentException();
+			}
+
+			if (connection.wireFormat == WireFormat.BINARY)
+				decodeBinaryMessages(connection, buffer);
+			else if (connection.wireFormat == WireFormat.TEXT)
+				decodeTextMessages(connection, buffer);
+
+			buffer.compact();
+		}
+		catch (IllegalArgumentException exception)
+		{
+			// the client sent an unknown wire format or a malformed message, or could not join a room
+			close(connection);
+		}
+		catch (IOException exception)
+		{
+			close(connection);
+		}
+	}
+
+	/**
+	 * Private helper method which decodes the whole binary messages of a buffer.
+	 * @param connection The connection the messages were received from.
+	 * @param buffer The buffer, ready for reading.
+	 * @throws IllegalArgumentException Thrown if a message is malformed, or the client could not
+	 * join a room.
+	 */
+	private void decodeBinaryMessages(Connection connection, ByteBuffer buffer)
+	{
+		IMessage message;
+
+		while ((message = messageCodec.decode(buffer)) != null)
+			receive(connection, message);
+	}
+
+	/**
+	 * Private helper method which parses the whole lines of a buffer as text messages.
+	 * @param connection The connection the messages were received from.
+	 * @param buffer The buffer, ready for reading.
+	 * @throws IllegalArgumentException Thrown if a message is malformed, or the client could not
+	 * join a room.
+	 */
+	private void decodeTextMessages(Connection connection, ByteBuffer buffer)
+	{
+		int lineStart = buffer.position();
+
+		for (int index = lineStart; index < buffer.limit(); index++)
+		{
+			if (buffer.get(index) != '\n')
+				continue;
+
+			// the messages are ASCII, so every byte is one character
+			int lineEnd = index > lineStart && buffer.get(index - 1) == '\r' ? index - 1 : index;
+			int length = lineEnd - lineStart;
+
+			for (int i = 0; i < length; i++)
+				lineCharacters[i] = (char) buffer.get(lineStart + i);
+
+			if (length > 0)
+				receive(connection, messageFactory.createMessage(lineCharacters, 0, length));
+
+			lineStart = index + 1;
+		}
+
+		buffer.position(lineStart);
+	}
+
+	/**
+	 * Private helper method which keeps a received message for the room of its client, unless it is
+	 * only a hello message.  The first other message of a client which has not joined a room must
+	 * have it join one, or the first room opened which it can join if it asks for any room, and any
+	 * later request to join a room is ignored.
+	 * @param connection The connection the message was received from.
+	 * @param message The message.
+	 * @throws IllegalArgumentException Thrown if the client could not join a room.
+	 */
+	private void receive(Connection connection, IMessage message)
+	{
+		if (message instanceof HelloMessage)
+			return;
+
+		if (connection.room == null)
+		{
+			if (!(message instanceof JoinRoomMessage))
+				throw new IllegalArgumentException();
+
+			int number = ((JoinRoomMessage) message).room();
+			Room[] openRooms;
+
+			synchronized (rooms)
+			{
+				if (number == JoinRoomMessage.ANY_ROOM)
+					openRooms = rooms.values().toArray(new Room[rooms.size()]);
+				else
+					openRooms = rooms.containsKey(number) ? new Room[] { rooms.get(number) }
+							: new Room[0];
+			}
+
+			// the rooms which are closed or full refuse the client
+			boolean joined = false;
+
+			for (int i = 0; i < openRooms.length && !joined; i++)
+				joined = openRooms[i].join(connection);
+
+			if (!joined)
+				throw new IllegalArgumentException();
+		}
+		else if (!(message instanceof JoinRoomMessage))
+			connection.room.receivedMessages.add(message);
+	}
+
+	/**
+	 * Private helper method which writes the queued frames of every connection.
+	 */
+	private void writeQueuedFrames()
+	{
+		Connection[] connectionsArray;
+
+		synchronized (connections)
+		{
+			connectionsArray = connections.toArray(new Connection[connections.size()]);
+		}
+
+		for (Connection connection : connectionsArray)
+		{
+			if (!connection.queuedFrames.isEmpty())
+				write(connection);
+		}
+	}
+
+	/**
+	 * Private helper method which writes the queued frames of a connection with one gathering write,
+	 * and waits for the channel to become writable if it can not take every byte.
+	 * @param connection The connection.
+	 */
+	private void write(Connection connection)
+	{
+		ArrayDeque<ByteBuffer> pendingFrames = connection.pendingFrames;
+		ByteBuffer frame;
+
+		while ((frame = connection.queuedFrames.poll()) != null)
+		{
+			if (frame == RESYNC_MARKER)
+				dropPendingFrames(connection);
+			else
+				pendingFrames.add(frame);
+		}
+
+		try
+		{
+			if (!pendingFrames.isEmpty())
+			{
+				long written = connection.channel.write(
+						pendingFrames.toArray(new ByteBuffer[pendingFrames.size()]));
+				connection.queuedBytes.addAndGet((int) -written);
+			}
+		}
+		catch (IOException exception)
+		{
+			close(connection);
+			return;
+		}
+
+		while (!pendingFrames.isEmpty() && !pendingFrames.peek().hasRemaining())
+			pendingFrames.poll();
+
+		connection.key.interestOps(pendingFrames.isEmpty() ? SelectionKey.OP_READ
+				: SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+	}
+
+	/**
+	 * Private helper method which drops the pending frames of a connection which have not started to
+	 * be written, so that its client is only sent the frames queued afterwards.  A frame which has
+	 * been written in part is finished, so that the client never receives part of a message.
+	 * @param connection The connection.
+	 */
+	private void dropPendingFrames(Connection connection)
+	{
+		ArrayDeque<ByteBuffer> pendingFrames = connection.pendingFrames;
+		ByteBuffer partlyWrittenFrame = null;
+		int droppedBytes = 0;
+
+		if (!pendingFrames.isEmpty() && pendingFrames.peek().position() > 0)
+			partlyWrittenFrame = pendingFrames.poll();
+
+		for (ByteBuffer frame : pendingFrames)
+			droppedBytes += frame.remaining();
+
+		pendingFrames.clear();
+
+		if (partlyWrittenFrame != null)
+			pendingFrames.add(partlyWrittenFrame);
+
+		connection.queuedBytes.addAndGet(-droppedBytes);
+	}
+
+	/**
+	 * Private helper method which closes the connections whose clients have not joined a room
+	 * within Communicator.HANDSHAKE_TIMEOUT milliseconds.
+	 */
+	private void closeStalledHandshakes()
+	{
+		long now = System.currentTimeMillis();
+		Connection[] connectionsArray =
+				handshakingConnections.toArray(new Connection[handshakingConnections.size()]);
+
+		for (Connection connection : connectionsArray)
+		{
+			if (now - connection.acceptTime >= Communicator.HANDSHAKE_TIMEOUT)
+				close(connection);
+		}
+	}
+
+	/**
+	 * Private helper method which closes a connection.
+	 * @param connection The connection.
+	 */
+	private void close(Connection connection)
+	{
+		if (connection.key != null)
+			connection.key.cancel();
+
+		try
+		{
+			connection.channel.close();
+		}
+		catch (IOException exception)
+		{
+			// the connection is dropped either way
+		}
+
+		handshakingConnections.remove(connection);
+
+		synchronized (connections)
+		{
+			connections.remove(connection);
+		}
+
+		if (connection.room != null)
+		{
+			synchronized (connection.room.members)
+			{
+				connection.room.members.remove(connection);
+			}
+		}
+	}
+
+	/**
+	 * Private helper method which closes the listening channel and releases its socket.
+	 */
+	private void closeServerChannel()
+	{
+		try
+		{
+			serverChannel.close();
+
+			// deregister the channel so that its socket is closed immediately
+			selector.selectNow();
+		}
+		catch (IOException exception)
+		{
+			// the channel is closed either way
+		}
+	}
+
+	/**
+	 * Private helper method which closes a channel and a selector which failed to be set up.
+	 * @param channel The channel, or null if it was not opened.
+	 * @param openedSelector The selector, or null if it was not opened.
+	 */
+	private static void closeQuietly(ServerSocketChannel channel, Selector openedSelector)
+	{
+		try
+		{
+			if (channel != null)
+				channel.close();
+
+			if (openedSelector != null)
+				openedSelector.close();
+		}
+		catch (IOException exception)
+		{
+			// nothing more can be done
+		}
+	}
+
+	/**
+	 * Private helper method which closes every connection, the listening channel and the selector.
+	 */
+	private void closeAll()
+	{
+		// carry out the pending requests, releasing any caller still waiting on one
+		Runnable request;
+		while ((request = requests.poll()) != null)
+			request.run();
+
+		Connection[] connectionsArray;
+
+		synchronized (connections)
+		{
+			connectionsArray = connections.toArray(new Connection[connections.size()]);
+		}
+
+		for (Connection connection : connectionsArray)
+			close(connection);
+
+		for (Connection connection : handshakingConnections.toArray(new Connection[0]))
+			close(connection);
+
+		closeServerChannel();
+
+		try
+		{
+			selector.close();
+		}
+		catch (IOException exception)
+		{
+			// the selector is closed either way
+		}
+
+		running = false;
+	}
+}
@@ -0,0 +1,1155 @@
+package shared.model.communication;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import shared.model.GameObjectType;
+import shared.model.Key;
+import shared.model.KeyAction;
+
+/**
+ * Tests SelectorServerCommunicator over real connections on the loopback interface.  The event
+ * loop runs on its own thread, so the tests wait for it to catch up before asserting.
+ */
+public class SelectorServerCommunicatorTest
+{
+	// the longest time a test waits for the event loop in milliseconds
+	private static final int WAIT_TIMEOUT = 5000;
+
+	// the number of bytes queued for a client at which the slow client tests treat it as slow
+	private static final int MAXIMUM_QUEUED_BYTES = 16384;
+
+	// the number of game objects whose positions the slow client tests update in each batch
+	private static final int NUMBER_OF_GAME_OBJECTS = 100;
+
+	// the test server communicator
+	private SelectorServerCommunicator serverCommunicator;
+
+	// the sockets connected by the test
+	private List<Socket> sockets;
+
+	/**
+	 * A client which keeps reading binary messages on its own thread, and remembers the latest
+	 * position update of each game object, the snapshots it has read and the number of messages it
+	 * has read.
+	 */
+	private static class DrainingClient implements Runnable
+	{
+		// the socket of the client
+		private final Socket socket;
+
+		// the text form of the latest position update of each game object
+		private final Map<Integer, String> latestUpdates;
+
+		// the number of messages read
+		private volatile int numberOfMessages;
+
+		// the number of snapshots read, and the tick of the latest keyframe or -1 if none was read
+		private volatile int numberOfSnapshots;
+		private volatile int latestKeyframeTick = -1;
+
+		// whether a snapshot was followed by fewer changes than it announced
+		private volatile boolean misframed;
+
+		// the number of changes of the latest snapshot which have not been read
+		private int numberOfPendingChanges;
+
+		/**
+		 * Creates a draining client and starts its thread.
+		 * @param socket The socket of the client.
+		 */
+		public DrainingClient(Socket socket)
+		{
+			this.socket = socket;
+			latestUpdates = new ConcurrentHashMap<Integer, String>();
+
+			Thread thread = new Thread(this);
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public void run()
+		{
+			BinaryMessageCodec codec = new BinaryMessageCodec();
+			ByteBuffer buffer = ByteBuffer.allocate(4096);
+			buffer.flip();
+
+			try
+			{
+				InputStream inputStream = socket.getInputStream();
+
+				while (true)
+				{
+					IMessage message = codec.decode(buffer);
+
+					if (message != null)
+					{
+						read(message);
+						numberOfMessages++;
+						continue;
+					}
+
+					buffer.compact();
+					int read = inputStream.read(buffer.array(), buffer.position(), buffer.remaining());
+
+					if (read < 0)
+						return;
+
+					buffer.position(buffer.position() + read);
+					buffer.flip();
+				}
+			}
+			catch (IOException exception)
+			{
+				// the test has closed the socket
+			}
+		}
+
+		/**
+		 * Private helper method which remembers a message which has been read.
+		 * @param message The message.
+		 */
+		private void read(IMessage message)
+		{
+			if (message instanceof GameObjectUpdatedMessage)
+				latestUpdates.put(((GameObjectUpdatedMessage) message).gameObjectIdentifier(),
+						message.toString());
+
+			if (numberOfPendingChanges > 0)
+			{
+				// the changes of a snapshot are only ever position updates in these tests
+				if (!(message instanceof GameObjectUpdatedMessage))
+					misframed = true;
+
+				numberOfPendingChanges--;
+			}
+			else if (message instanceof SnapshotMessage)
+			{
+				SnapshotMessage snapshotMessage = (SnapshotMessage) message;
+				numberOfPendingChanges = snapshotMessage.numberOfChanges();
+				numberOfSnapshots++;
+
+				if (snapshotMessage.keyframe())
+					latestKeyframeTick = snapshotMessage.tick();
+			}
+		}
+
+		/**
+		 * Returns true if the latest position update of every game object moved it to a cell.
+		 * @param row The row of the cell.
+		 * @param column The column of the cell.
+		 * @return True if every game object was last moved to the cell and false otherwise.
+		 */
+		public boolean allMovedTo(int row, int column)
+		{
+			for (int i = 0; i < NUMBER_OF_GAME_OBJECTS; i++)
+			{
+				if (!new GameObjectUpdatedMessage(i, row, column).toString().equals(
+						latestUpdates.get(i)))
+					return false;
+			}
+
+			return true;
+		}
+	}
+
+	/**
+	 * Sets up the tests.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Before
+	public void setUp() throws CommunicationException
+	{
+		serverCommunicator = new SelectorServerCommunicator(new MessageFactory(), 0);
+		sockets = new ArrayList<Socket>();
+	}
+
+	/**
+	 * Disconnects the server communicator and closes the sockets.
+	 * @throws Exception This should not happen.
+	 */
+	@After
+	public void tearDown() throws Exception
+	{
+		serverCommunicator.disconnect();
+
+		for (Socket socket : sockets)
+			socket.close();
+	}
+
+	/**
+	 * Ensures the constructor throws a NullPointerException when the message factory is null.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorMessageFactoryNull() throws CommunicationException
+	{
+		new SelectorServerCommunicator(null, 0);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException for an invalid port.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorInvalidPort() throws CommunicationException
+	{
+		new SelectorServerCommunicator(new MessageFactory(), -1);
+	}
+
+	/**
+	 * Ensures the constructor throws a NullPointerException when the slow client policy is null.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorSlowClientPolicyNull() throws CommunicationException
+	{
+		new SelectorServerCommunicator(new MessageFactory(), 0, MAXIMUM_QUEUED_BYTES, null);
+	}
+
+	/**
+	 * Ensures the constructor throws an IllegalArgumentException when the maximum number of queued
+	 * bytes is less than 1.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorInvalidMaximumQueuedBytes() throws CommunicationException
+	{
+		new SelectorServerCommunicator(new MessageFactory(), 0, 0, SlowClientPolicy.DISCONNECT);
+	}
+
+	/**
+	 * Ensures a new server communicator listens and has no connections.
+	 */
+	@Test
+	public void testConstructor()
+	{
+		assertTrue(serverCommunicator.listening());
+		assertTrue(serverCommunicator.port() > 0);
+		assertEquals(0, serverCommunicator.numberOfConnectedCommunicators());
+		assertEquals(0, serverCommunicator.queuedBytes().length);
+		assertEquals(0, serverCommunicator.numberOfDroppedMessages());
+		assertEquals(0, serverCommunicator.numberOfDisconnectedSlowClients());
+	}
+
+	/**
+	 * Ensures clients are counted once they have announced their wire format.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testNumberOfConnectedCommunicators() throws Exception
+	{
+		Socket silentSocket = new Socket("127.0.0.1", serverCommunicator.port());
+		sockets.add(silentSocket);
+		connect(WireFormat.BINARY);
+		connect(WireFormat.TEXT);
+
+		waitForConnections(2);
+		Thread.sleep(100);
+		assertEquals(2, serverCommunicator.numberOfConnectedCommunicators());
+	}
+
+	/**
+	 * Ensures a client which closes its connection is no longer counted.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testClientDisconnects() throws Exception
+	{
+		Socket socket = connect(WireFormat.BINARY);
+		waitForConnections(1);
+
+		socket.close();
+		waitForConnections(0);
+	}
+
+	/**
+	 * Ensures a client which announces an unknown wire format is disconnected.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testUnknownWireFormat() throws Exception
+	{
+		Socket socket = new Socket("127.0.0.1", serverCommunicator.port());
+		sockets.add(socket);
+		socket.getOutputStream().write('X');
+		socket.getOutputStream().flush();
+
+		assertEquals(-1, socket.getInputStream().read());
+		assertEquals(0, serverCommunicator.numberOfConnectedCommunicators());
+	}
+
+	/**
+	 * Ensures sent messages reach binary and text clients in the order they were sent.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testSendMessages() throws Exception
+	{
+		Socket binarySocket = connect(WireFormat.BINARY);
+		Socket textSocket = connect(WireFormat.TEXT);
+		waitForConnections(2);
+
+		serverCommunicator.sendMessages(new GameObjectDestroyedMessage(4));
+		serverCommunicator.sendMessageBatch(new IMessage[] {
+				new GameObjectCreatedMessage(5, GameObjectType.BOMB, 3, 2), new GameTimeMessage(60) });
+
+		String[] expected = { "GAME_OBJECT_DESTROYED 4", "GAME_OBJECT_CREATED 5 BOMB 3 2",
+				"GAME_TIME 60" };
+		assertArrayEquals(expected, readBinaryMessages(binarySocket, expected.length));
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(textSocket.getInputStream()));
+		for (String line : expected)
+			assertEquals(line, reader.readLine());
+	}
+
+	/**
+	 * Ensures a large batch of messages is written completely even when it does not fit in the
+	 * socket buffers at once.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testSendLargeBatch() throws Exception
+	{
+		Socket socket = connect(WireFormat.BINARY);
+		waitForConnections(1);
+
+		IMessage[] messages = new IMessage[100000];
+		for (int i = 0; i < messages.length; i++)
+			messages[i] = new GameObjectUpdatedMessage(i, i % 100, i % 50);
+
+		serverCommunicator.sendMessageBatch(messages);
+
+		String[] received = readBinaryMessages(socket, messages.length);
+		assertEquals(messages[messages.length - 1].toString(), received[messages.length - 1]);
+	}
+
+	/**
+	 * Ensures a batch whose text frame outgrows its initial size reaches every text client whole.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testSendLargeTextBatch() throws Exception
+	{
+		Socket socket1 = connect(WireFormat.TEXT);
+		Socket socket2 = connect(WireFormat.TEXT);
+		waitForConnections(2);
+
+		IMessage[] messages = new IMessage[1000];
+		for (int i = 0; i < messages.length; i++)
+			messages[i] = new GameObjectCreatedMessage(1000000 + i, GameObjectType.BREAKABLE_BLOCK,
+					i, i);
+
+		serverCommunicator.sendMessageBatch(messages);
+		serverCommunicator.sendMessageBatch(new IMessage[0]);
+		serverCommunicator.sendMessages(new GameTimeMessage(1));
+
+		for (Socket socket : new Socket[] { socket1, socket2 })
+		{
+			BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+
+			for (IMessage message : messages)
+				assertEquals(message.toString(), reader.readLine());
+
+			assertEquals("GAME_TIME 1", reader.readLine());
+		}
+	}
+
+	/**
+	 * Ensures each client receives its own message from the message generator.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testSendUniqueMessageToEachConnectedCommunicator() throws Exception
+	{
+		Socket socket1 = connect(WireFormat.BINARY);
+		Socket socket2 = connect(WireFormat.BINARY);
+		waitForConnections(2);
+
+		final int[] identifier = { 0 };
+		serverCommunicator.sendUniqueMessageToEachConnectedCommunicator(new IMessageGenerator()
+		{
+			public IMessage generateMessage()
+			{
+				return new PlayerGameObjectIdentifierMessage(++identifier[0]);
+			}
+		});
+
+		String first = readBinaryMessages(socket1, 1)[0];
+		String second = readBinaryMessages(socket2, 1)[0];
+		assertFalse(first.equals(second));
+		assertEquals(2, identifier[0]);
+	}
+
+	/**
+	 * Ensures messages sent by binary and text clients are received, and hello messages are
+	 * discarded.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testReceivedMessages() throws Exception
+	{
+		Socket binarySocket = connect(WireFormat.BINARY);
+		Socket textSocket = connect(WireFormat.TEXT);
+		waitForConnections(2);
+
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		BinaryMessageCodec codec = new BinaryMessageCodec();
+		codec.encode(new HelloMessage(), buffer);
+		codec.encode(new KeyMessage(1, Key.UP, KeyAction.PRESS), buffer);
+		binarySocket.getOutputStream().write(buffer.array(), 0, buffer.position());
+		binarySocket.getOutputStream().flush();
+		textSocket.getOutputStream().write("STATUS\nKEY 2 DOWN DEPRESS\r\n".getBytes("US-ASCII"));
+		textSocket.getOutputStream().flush();
+
+		List<String> received = new ArrayList<String>();
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+
+		while (received.size() < 2 && System.currentTimeMillis() < deadline)
+		{
+			for (IMessage message : serverCommunicator.receivedMessages())
+				received.add(message.toString());
+
+			Thread.sleep(10);
+		}
+
+		assertEquals(2, received.size());
+		assertTrue(received.contains("KEY 1 UP PRESS"));
+		assertTrue(received.contains("KEY 2 DOWN DEPRESS"));
+	}
+
+	/**
+	 * Ensures stopListening releases the port, so that a new server communicator can listen on it.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testStopListening() throws Exception
+	{
+		Socket socket = connect(WireFormat.BINARY);
+		waitForConnections(1);
+
+		serverCommunicator.stopListening();
+		assertFalse(serverCommunicator.listening());
+		assertEquals(1, serverCommunicator.numberOfConnectedCommunicators());
+
+		SelectorServerCommunicator newServerCommunicator =
+				new SelectorServerCommunicator(new MessageFactory(), serverCommunicator.port());
+		newServerCommunicator.disconnect();
+
+		// the existing connection is still served
+		serverCommunicator.sendMessages(new GameTimeMessage(3));
+		assertEquals("GAME_TIME 3", readBinaryMessages(socket, 1)[0]);
+	}
+
+	/**
+	 * Ensures stopListening throws an IllegalStateException when the communicator is not listening.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testStopListeningNotListening()
+	{
+		serverCommunicator.stopListening();
+		serverCommunicator.stopListening();
+	}
+
+	/**
+	 * Ensures disconnect closes the connections.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testDisconnect() throws Exception
+	{
+		Socket socket = connect(WireFormat.TEXT);
+		waitForConnections(1);
+
+		serverCommunicator.disconnect();
+
+		assertEquals(-1, socket.getInputStream().read());
+		assertFalse(serverCommunicator.listening());
+		assertEquals(0, serverCommunicator.numberOfConnectedCommunicators());
+	}
+
+	/**
+	 * Ensures openRoom throws an IllegalArgumentException when the number of the room is negative.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testOpenRoomNegativeNumber()
+	{
+		serverCommunicator.openRoom(-1, 4);
+	}
+
+	/**
+	 * Ensures openRoom throws an IllegalArgumentException when the number of the room is the number
+	 * which joins any room.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testOpenRoomAnyRoomNumber()
+	{
+		serverCommunicator.openRoom(JoinRoomMessage.ANY_ROOM, 4);
+	}
+
+	/**
+	 * Ensures openRoom throws an IllegalArgumentException when the capacity is less than 1.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testOpenRoomInvalidCapacity()
+	{
+		serverCommunicator.openRoom(1, 0);
+	}
+
+	/**
+	 * Ensures openRoom throws an IllegalStateException when a room with the number is open.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testOpenRoomTwice()
+	{
+		serverCommunicator.openRoom(1, 4);
+		serverCommunicator.openRoom(1, 4);
+	}
+
+	/**
+	 * Ensures the messages of each room are only sent to and received from its own clients.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testRoomsAreIsolated() throws Exception
+	{
+		IServerCommunicator room1 = serverCommunicator.openRoom(1, 4);
+		IServerCommunicator room2 = serverCommunicator.openRoom(2, 4);
+		assertEquals(2, serverCommunicator.numberOfRooms());
+
+		Socket socket1 = connect(WireFormat.BINARY);
+		joinRoom(socket1, 1);
+		Socket socket2 = connect(WireFormat.TEXT);
+		socket2.getOutputStream().write("JOIN_ROOM 2\n".getBytes("US-ASCII"));
+		waitForMembers(room1, 1);
+		waitForMembers(room2, 1);
+		assertEquals(0, serverCommunicator.numberOfConnectedCommunicators());
+
+		room1.sendMessages(new GameTimeMessage(1));
+		room2.sendMessages(new GameTimeMessage(2));
+		assertEquals("GAME_TIME 1", readBinaryMessages(socket1, 1)[0]);
+		assertEquals("GAME_TIME 2", new BufferedReader(new InputStreamReader(
+				socket2.getInputStream(), "US-ASCII")).readLine());
+
+		// a later request to join a room is ignored
+		socket2.getOutputStream().write("JOIN_ROOM 1\nKEY 2 DOWN PRESS\n".getBytes("US-ASCII"));
+
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+		IMessage[] received = room2.receivedMessages();
+
+		while (received.length == 0 && System.currentTimeMillis() < deadline)
+		{
+			Thread.sleep(10);
+			received = room2.receivedMessages();
+		}
+
+		assertEquals(1, received.length);
+		assertEquals("KEY 2 DOWN PRESS", received[0].toString());
+		assertEquals(0, room1.receivedMessages().length);
+		assertEquals(1, room1.numberOfConnectedCommunicators());
+	}
+
+	/**
+	 * Ensures a client is disconnected when it asks to join a room which is full, which is not
+	 * open or which does not exist, or sends another message first.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testJoinRoomRefused() throws Exception
+	{
+		IServerCommunicator room1 = serverCommunicator.openRoom(1, 1);
+		IServerCommunicator room2 = serverCommunicator.openRoom(2, 4);
+		room2.stopListening();
+		assertFalse(room2.listening());
+
+		joinRoom(connect(WireFormat.BINARY), 1);
+		waitForMembers(room1, 1);
+
+		Socket fullSocket = connect(WireFormat.BINARY);
+		joinRoom(fullSocket, 1);
+		Socket closedSocket = connect(WireFormat.BINARY);
+		joinRoom(closedSocket, 2);
+		Socket unknownSocket = connect(WireFormat.BINARY);
+		joinRoom(unknownSocket, 3);
+		Socket keySocket = connect(WireFormat.TEXT);
+		keySocket.getOutputStream().write("KEY 2 DOWN PRESS\n".getBytes("US-ASCII"));
+
+		assertEquals(-1, fullSocket.getInputStream().read());
+		assertEquals(-1, closedSocket.getInputStream().read());
+		assertEquals(-1, unknownSocket.getInputStream().read());
+		assertEquals(-1, keySocket.getInputStream().read());
+		assertEquals(1, room1.numberOfConnectedCommunicators());
+		assertEquals(0, room2.numberOfConnectedCommunicators());
+	}
+
+	/**
+	 * Ensures a client asking for any room joins the first room opened which is open and not full,
+	 * and is disconnected when there is none.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testJoinAnyRoom() throws Exception
+	{
+		IServerCommunicator room1 = serverCommunicator.openRoom(1, 1);
+		IServerCommunicator room2 = serverCommunicator.openRoom(2, 4);
+
+		joinRoom(connect(WireFormat.BINARY), JoinRoomMessage.ANY_ROOM);
+		waitForMembers(room1, 1);
+		joinRoom(connect(WireFormat.BINARY), JoinRoomMessage.ANY_ROOM);
+		waitForMembers(room2, 1);
+
+		room2.stopListening();
+		Socket refusedSocket = connect(WireFormat.BINARY);
+		joinRoom(refusedSocket, JoinRoomMessage.ANY_ROOM);
+
+		assertEquals(-1, refusedSocket.getInputStream().read());
+		assertEquals(1, room1.numberOfConnectedCommunicators());
+		assertEquals(1, room2.numberOfConnectedCommunicators());
+	}
+
+	/**
+	 * Ensures a client asking to join a room joins the room of the communicator while no room has
+	 * been opened, and its request is ignored.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testJoinRoomWithoutRooms() throws Exception
+	{
+		Socket socket = connect(WireFormat.TEXT);
+		socket.getOutputStream().write("JOIN_ROOM 0\nKEY 2 DOWN PRESS\n".getBytes("US-ASCII"));
+		waitForMembers(serverCommunicator, 1);
+
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+		IMessage[] received = serverCommunicator.receivedMessages();
+
+		while (received.length == 0 && System.currentTimeMillis() < deadline)
+		{
+			Thread.sleep(10);
+			received = serverCommunicator.receivedMessages();
+		}
+
+		assertEquals(1, received.length);
+		assertEquals("KEY 2 DOWN PRESS", received[0].toString());
+	}
+
+	/**
+	 * Ensures disconnecting a room closes its clients only, and lets its number be used again.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testDisconnectRoom() throws Exception
+	{
+		IServerCommunicator room1 = serverCommunicator.openRoom(1, 4);
+		IServerCommunicator room2 = serverCommunicator.openRoom(2, 4);
+		Socket socket1 = connect(WireFormat.BINARY);
+		joinRoom(socket1, 1);
+		Socket socket2 = connect(WireFormat.BINARY);
+		joinRoom(socket2, 2);
+		waitForMembers(room1, 1);
+		waitForMembers(room2, 1);
+
+		room1.disconnect();
+
+		assertEquals(-1, socket1.getInputStream().read());
+		assertFalse(room1.listening());
+		assertEquals(0, room1.numberOfConnectedCommunicators());
+		assertEquals(1, serverCommunicator.numberOfRooms());
+
+		room2.sendMessages(new GameTimeMessage(2));
+		assertEquals("GAME_TIME 2", readBinaryMessages(socket2, 1)[0]);
+
+		serverCommunicator.openRoom(1, 4);
+		assertEquals(2, serverCommunicator.numberOfRooms());
+	}
+
+	/**
+	 * Ensures sendMessages throws a NullPointerException when the message is null.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testSendMessagesNull() throws CommunicationException
+	{
+		serverCommunicator.sendMessages(null);
+	}
+
+	/**
+	 * Ensures sendMessageBatch throws a NullPointerException when a message is null.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testSendMessageBatchNullMessage() throws CommunicationException
+	{
+		serverCommunicator.sendMessageBatch(new IMessage[] { new GameTimeMessage(1), null });
+	}
+
+	/**
+	 * Ensures sendUniqueMessageToEachConnectedCommunicator throws a NullPointerException when the
+	 * message generator is null.
+	 * @throws CommunicationException This should not happen.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testSendUniqueMessageNullGenerator() throws CommunicationException
+	{
+		serverCommunicator.sendUniqueMessageToEachConnectedCommunicator(null);
+	}
+
+	/**
+	 * Ensures the bytes queued for a client are counted until they have been written to it.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testQueuedBytes() throws Exception
+	{
+		Socket socket = connect(WireFormat.BINARY);
+		waitForConnections(1);
+		assertArrayEquals(new int[] { 0 }, serverCommunicator.queuedBytes());
+
+		serverCommunicator.sendMessages(new GameTimeMessage(60));
+		assertArrayEquals(new String[] { "GAME_TIME 60" }, readBinaryMessages(socket, 1));
+
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+		while (serverCommunicator.queuedBytes()[0] != 0 && System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+
+		assertArrayEquals(new int[] { 0 }, serverCommunicator.queuedBytes());
+	}
+
+	/**
+	 * Ensures a client which stops reading is disconnected under the disconnect policy, while a
+	 * client which keeps reading still receives every message.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testSlowClientDisconnected() throws Exception
+	{
+		serverCommunicator.disconnect();
+		serverCommunicator = new SelectorServerCommunicator(new MessageFactory(), 0,
+				MAXIMUM_QUEUED_BYTES, SlowClientPolicy.DISCONNECT);
+
+		DrainingClient fastClient = new DrainingClient(connect(WireFormat.BINARY));
+		Socket slowSocket = connectSlowClient();
+		waitForConnections(2);
+
+		int numberOfSentMessages = sendUpdatesUntil(fastClient, 1);
+
+		waitForConnections(1);
+		assertEquals(0, serverCommunicator.numberOfDroppedMessages());
+
+		// the slow client reads what was written to it before its connection was closed
+		byte[] buffer = new byte[MAXIMUM_QUEUED_BYTES];
+		while (slowSocket.getInputStream().read(buffer) >= 0)
+		{
+			// skip the bytes
+		}
+
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+		while (fastClient.numberOfMessages < numberOfSentMessages
+				&& System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+
+		assertEquals(numberOfSentMessages, fastClient.numberOfMessages);
+	}
+
+	/**
+	 * Ensures the position updates sent to a slow client are held back under the drop superseded
+	 * updates policy, so its queue stays bounded, and that it receives the latest position of every
+	 * game object once it catches up.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testSlowClientUpdatesHeldBack() throws Exception
+	{
+		serverCommunicator.disconnect();
+		serverCommunicator = new SelectorServerCommunicator(new MessageFactory(), 0,
+				MAXIMUM_QUEUED_BYTES, SlowClientPolicy.DROP_SUPERSEDED_UPDATES);
+
+		DrainingClient fastClient = new DrainingClient(connect(WireFormat.BINARY));
+		Socket slowSocket = connectSlowClient();
+		waitForConnections(2);
+
+		sendUpdatesUntil(fastClient, 0);
+
+		// move every game object to the same cell while the client is slow
+		IMessage[] lastMessages = new IMessage[NUMBER_OF_GAME_OBJECTS];
+		for (int i = 0; i < lastMessages.length; i++)
+			lastMessages[i] = new GameObjectUpdatedMessage(i, 77, 77);
+
+		serverCommunicator.sendMessageBatch(lastMessages);
+		assertTrue(serverCommunicator.numberOfDroppedMessages() > 0);
+		assertEquals(0, serverCommunicator.numberOfDisconnectedSlowClients());
+
+		// let the slow client catch up, and keep sending so its held back updates are released
+		DrainingClient slowClient = new DrainingClient(slowSocket);
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+
+		while (!(slowClient.allMovedTo(77, 77) && fastClient.allMovedTo(77, 77))
+				&& System.currentTimeMillis() < deadline)
+		{
+			serverCommunicator.sendMessages(new GameTimeMessage(1));
+			Thread.sleep(10);
+		}
+
+		assertTrue(slowClient.allMovedTo(77, 77));
+		assertTrue(fastClient.allMovedTo(77, 77));
+		assertEquals(2, serverCommunicator.numberOfConnectedCommunicators());
+	}
+
+	/**
+	 * Ensures the changes of the snapshots sent to a slow client are not held back under the drop
+	 * superseded updates policy, so that every snapshot it reads is followed by the changes it
+	 * counts.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testSlowClientSnapshotsKeptWhole() throws Exception
+	{
+		serverCommunicator.disconnect();
+		serverCommunicator = new SelectorServerCommunicator(new MessageFactory(), 0,
+				MAXIMUM_QUEUED_BYTES, SlowClientPolicy.DROP_SUPERSEDED_UPDATES);
+
+		DrainingClient fastClient = new DrainingClient(connect(WireFormat.BINARY));
+		Socket slowSocket = connectSlowClient();
+		waitForConnections(2);
+
+		int tick = sendSnapshotsUntilSlow(fastClient);
+
+		for (int i = 0; i < 3; i++, tick++)
+			sendSnapshot(fastClient, tick, tick - 1, 77, 77);
+
+		DrainingClient slowClient = new DrainingClient(slowSocket);
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+
+		while (!(slowClient.numberOfSnapshots == tick && fastClient.numberOfSnapshots == tick)
+				&& System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+
+		assertEquals(tick, slowClient.numberOfSnapshots);
+		assertFalse(slowClient.misframed);
+		assertTrue(slowClient.allMovedTo(77, 77));
+		assertEquals(tick, fastClient.numberOfSnapshots);
+		assertFalse(fastClient.misframed);
+		assertEquals(0, serverCommunicator.numberOfDroppedMessages());
+		assertEquals(2, serverCommunicator.numberOfConnectedCommunicators());
+	}
+
+	/**
+	 * Ensures the queued frames of a slow client are dropped under the resync policy, and that it is
+	 * brought back in step by the next keyframe, while a client which keeps reading still receives
+	 * every snapshot.
+	 * @throws Exception This should not happen.
+	 */
+	@Test
+	public void testSlowClientResynced() throws Exception
+	{
+		serverCommunicator.disconnect();
+		serverCommunicator = new SelectorServerCommunicator(new MessageFactory(), 0,
+				MAXIMUM_QUEUED_BYTES, SlowClientPolicy.RESYNC);
+
+		DrainingClient fastClient = new DrainingClient(connect(WireFormat.BINARY));
+		Socket slowSocket = connectSlowClient();
+		waitForConnections(2);
+
+		int tick = sendSnapshotsUntilSlow(fastClient);
+
+		// the slow client is only sent the keyframe among these snapshots
+		for (int i = 0; i < 3; i++, tick++)
+			sendSnapshot(fastClient, tick, tick - 1, 0, tick);
+
+		assertEquals(1, serverCommunicator.numberOfResyncs());
+
+		int keyframeTick = tick++;
+		sendSnapshot(fastClient, keyframeTick, SnapshotMessage.KEYFRAME, 77, 77);
+
+		DrainingClient slowClient = new DrainingClient(slowSocket);
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+
+		while (!(slowClient.latestKeyframeTick == keyframeTick && fastClient.numberOfSnapshots == tick)
+				&& System.currentTimeMillis() < deadline)
+		{
+			serverCommunicator.sendMessages(new GameTimeMessage(1));
+			Thread.sleep(10);
+		}
+
+		assertEquals(keyframeTick, slowClient.latestKeyframeTick);
+		assertTrue(slowClient.allMovedTo(77, 77));
+		assertTrue(slowClient.numberOfSnapshots < tick);
+		assertFalse(slowClient.misframed);
+		assertEquals(tick, fastClient.numberOfSnapshots);
+		assertFalse(fastClient.misframed);
+		assertEquals(1, serverCommunicator.numberOfResyncs());
+		assertEquals(2, serverCommunicator.numberOfConnectedCommunicators());
+	}
+
+	/**
+	 * Helper method which connects a binary client which never reads, with a small receive buffer
+	 * so that its queue fills quickly.
+	 * @return The socket of the client.
+	 * @throws IOException This should not happen.
+	 */
+	private Socket connectSlowClient() throws IOException
+	{
+		Socket socket = new Socket();
+		sockets.add(socket);
+		socket.setReceiveBufferSize(MAXIMUM_QUEUED_BYTES);
+		socket.setSoTimeout(WAIT_TIMEOUT);
+		socket.connect(new InetSocketAddress("127.0.0.1", serverCommunicator.port()));
+		socket.getOutputStream().write(WireFormat.BINARY.preamble());
+		socket.getOutputStream().flush();
+
+		return socket;
+	}
+
+	/**
+	 * Helper method which sends batches of position updates until a client is slow, that is until
+	 * some of its updates are dropped or a number of slow clients has been disconnected, and
+	 * ensures no queue grows far beyond its maximum meanwhile.
+	 * @param fastClient The client which keeps reading, which is given time to read each batch.
+	 * @param numberOfDisconnectedSlowClients The number of disconnected slow clients to wait for, or
+	 * 0 to wait for dropped updates.
+	 * @return The number of messages sent.
+	 * @throws Exception This should not happen.
+	 */
+	private int sendUpdatesUntil(DrainingClient fastClient, int numberOfDisconnectedSlowClients)
+			throws Exception
+	{
+		// the loopback socket buffers take megabytes, so each batch moves every game object often
+		IMessage[] messages = new IMessage[NUMBER_OF_GAME_OBJECTS * 10];
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT * 4;
+		int numberOfSentMessages = 0;
+
+		for (int batch = 0; System.currentTimeMillis() < deadline; batch++)
+		{
+			for (int i = 0; i < messages.length; i++)
+				messages[i] = new GameObjectUpdatedMessage(i % NUMBER_OF_GAME_OBJECTS,
+						i / NUMBER_OF_GAME_OBJECTS, batch % 50);
+
+			serverCommunicator.sendMessageBatch(messages);
+			numberOfSentMessages += messages.length;
+
+			for (int queuedBytes : serverCommunicator.queuedBytes())
+				assertTrue(queuedBytes < MAXIMUM_QUEUED_BYTES * 2);
+
+			if (numberOfDisconnectedSlowClients > 0 ? serverCommunicator
+					.numberOfDisconnectedSlowClients() == numberOfDisconnectedSlowClients
+					: serverCommunicator.numberOfDroppedMessages() > 0)
+				return numberOfSentMessages;
+
+			waitForMessages(fastClient, numberOfSentMessages);
+		}
+
+		fail("The client never became slow.");
+		return numberOfSentMessages;
+	}
+
+	/**
+	 * Helper method which sends snapshots, each from the state of the previous tick, until a client
+	 * is slow, that is until its queue reaches the maximum or it is resynchronized.
+	 * @param fastClient The client which keeps reading, which is given time to read each batch.
+	 * @return The tick of the next snapshot, which is the number of snapshots sent.
+	 * @throws Exception This should not happen.
+	 */
+	private int sendSnapshotsUntilSlow(DrainingClient fastClient) throws Exception
+	{
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT * 4;
+
+		for (int tick = 0; System.currentTimeMillis() < deadline; tick++)
+		{
+			sendSnapshot(fastClient, tick, tick == 0 ? SnapshotMessage.KEYFRAME : tick - 1, tick % 50,
+					tick % 50);
+
+			for (int queuedBytes : serverCommunicator.queuedBytes())
+			{
+				if (queuedBytes >= MAXIMUM_QUEUED_BYTES)
+					return tick + 1;
+			}
+
+			if (serverCommunicator.numberOfResyncs() > 0)
+				return tick + 1;
+		}
+
+		fail("The client never became slow.");
+		return 0;
+	}
+
+	/**
+	 * Helper method which sends the batch of a tick, and gives the event loop and a client which
+	 * keeps reading time to catch up with it, so that only a client which stops reading is ever
+	 * slow.
+	 * @param fastClient The client which keeps reading.
+	 * @param tick The tick of the snapshot.
+	 * @param baselineTick The baseline tick of the snapshot, or SnapshotMessage.KEYFRAME.
+	 * @param row The row the snapshot moves every game object to.
+	 * @param column The column the snapshot moves every game object to.
+	 * @throws Exception This should not happen.
+	 */
+	private void sendSnapshot(DrainingClient fastClient, int tick, int baselineTick, int row,
+			int column) throws Exception
+	{
+		serverCommunicator.sendMessageBatch(snapshot(tick, baselineTick, row, column));
+
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+
+		while (fastClient.numberOfSnapshots <= tick && System.currentTimeMillis() < deadline)
+			Thread.sleep(1);
+	}
+
+	/**
+	 * Helper method which creates the batch of a tick: a game time message followed by a snapshot
+	 * which moves every game object to a cell several times over, as the loopback socket buffers
+	 * take megabytes.
+	 * @param tick The tick of the snapshot.
+	 * @param baselineTick The baseline tick of the snapshot, or SnapshotMessage.KEYFRAME.
+	 * @param row The row of the cell.
+	 * @param column The column of the cell.
+	 * @return The messages of the batch.
+	 */
+	private static IMessage[] snapshot(int tick, int baselineTick, int row, int column)
+	{
+		IMessage[] messages = new IMessage[2 + NUMBER_OF_GAME_OBJECTS * 10];
+		messages[0] = new GameTimeMessage(tick);
+		messages[1] = new SnapshotMessage(tick, baselineTick, messages.length - 2);
+
+		for (int i = 2; i < messages.length; i++)
+			messages[i] = new GameObjectUpdatedMessage((i - 2) % NUMBER_OF_GAME_OBJECTS, row, column);
+
+		return messages;
+	}
+
+	/**
+	 * Helper method which connects a client which announces a wire format.
+	 * @param wireFormat The wire format.
+	 * @return The socket of the client.
+	 * @throws IOException This should not happen.
+	 */
+	private Socket connect(WireFormat wireFormat) throws IOException
+	{
+		Socket socket = new Socket("127.0.0.1", serverCommunicator.port());
+		socket.setSoTimeout(WAIT_TIMEOUT);
+		socket.getOutputStream().write(wireFormat.preamble());
+		socket.getOutputStream().flush();
+		sockets.add(socket);
+
+		return socket;
+	}
+
+	/**
+	 * Helper method which has a binary client ask to join a room.
+	 * @param socket The socket of the client.
+	 * @param room The number of the room.
+	 * @throws IOException This should not happen.
+	 */
+	private void joinRoom(Socket socket, int room) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(IMessageCodec.MAXIMUM_ENCODED_LENGTH);
+		new BinaryMessageCodec().encode(new JoinRoomMessage(room), buffer);
+		socket.getOutputStream().write(buffer.array(), 0, buffer.position());
+		socket.getOutputStream().flush();
+	}
+
+	/**
+	 * Helper method which waits until a room counts a number of clients.
+	 * @param room The room.
+	 * @param numberOfMembers The number of clients.
+	 * @throws InterruptedException This should not happen.
+	 */
+	private void waitForMembers(IServerCommunicator room, int numberOfMembers)
+			throws InterruptedException
+	{
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+
+		while (room.numberOfConnectedCommunicators() != numberOfMembers
+				&& System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+
+		assertEquals(numberOfMembers, room.numberOfConnectedCommunicators());
+	}
+
+	/**
+	 * Helper method which gives the event loop and a client which keeps reading time to catch up
+	 * with the messages sent, so that only a client which stops reading is ever slow.
+	 * @param client The client.
+	 * @param numberOfMessages The number of messages sent.
+	 * @throws InterruptedException This should not happen.
+	 */
+	private void waitForMessages(DrainingClient client, int numberOfMessages)
+			throws InterruptedException
+	{
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+
+		while (client.numberOfMessages < numberOfMessages && System.currentTimeMillis() < deadline)
+			Thread.sleep(1);
+	}
+
+	/**
+	 * Helper method which waits until the server communicator counts a number of connections.
+	 * @param numberOfConnections The number of connections.
+	 * @throws InterruptedException This should not happen.
+	 */
+	private void waitForConnections(int numberOfConnections) throws InterruptedException
+	{
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+
+		while (serverCommunicator.numberOfConnectedCommunicators() != numberOfConnections
+				&& System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+
+		assertEquals(numberOfConnections, serverCommunicator.numberOfConnectedCommunicators());
+	}
+
+	/**
+	 * Helper method which reads binary messages from a socket.
+	 * @param socket The socket.
+	 * @param numberOfMessages The number of messages to read.
+	 * @return The text form of the messages.
+	 * @throws IOException Thrown if the socket closes before the messages are read.
+	 */
+	private String[] readBinaryMessages(Socket socket, int numberOfMessages) throws IOException
+	{
+		BinaryMessageCodec codec = new BinaryMessageCodec();
+		InputStream inputStream = socket.getInputStream();
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		buffer.flip();
+		String[] messages = new String[numberOfMessages];
+		int count = 0;
+
+		while (count < numberOfMessages)
+		{
+			IMessage message = codec.decode(buffer);
+
+			if (message != null)
+			{
+				messages[count++] = message.toString();
+				continue;
+			}
+
+			buffer.compact();
+			int read = inputStream.read(buffer.array(), buffer.position(), buffer.remaining());
+
+			if (read < 0)
+				throw new IOException();
+
+			buffer.position(buffer.position() + read);
+			buffer.flip();
+		}
+
+		return messages;
+	}
+}
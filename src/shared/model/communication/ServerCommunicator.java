@@ -114,6 +114,43 @@ public class ServerCommunicator implements IServerCommunicator
 		}
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 */
+	public void sendMessageBatch(IMessage[] messages) throws CommunicationException
+	{
+		if (messages == null)
+			throw new NullPointerException();
+		
+		for (IMessage message : messages)
+		{
+			if (message == null)
+				throw new NullPointerException();
+		}
+		
+		updateConnectedCommunicators();
+		
+		try
+		{
+			// acquire the communicators mutex lock once for the whole batch
+			communicatorsMutex.acquire();
+			
+			// send the messages to each communicator in order
+			for (ICommunicator communicator : communicators)
+			{
+				for (IMessage message : messages)
+					communicator.sendMessage(message);
+			}
+			
+			// release the communicators mutex lock
+			communicatorsMutex.release();
+		}
+		catch (InterruptedException exception)
+		{
+			// do nothing, because this shouldn't happen
+		}
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 */
@@ -300,9 +337,11 @@ public class ServerCommunicator implements IServerCommunicator
 		if (!listening())
 			return false;
 		
+		Socket clientSocket = null;
+		
 		try
 		{
-			Socket clientSocket = serverSocket.accept();
+			clientSocket = serverSocket.accept();
 			ICommunicator communicator = new Communicator(messageFactory, clientSocket);
 			
 			// acquire the communicators mutex
@@ -319,7 +358,15 @@ public class ServerCommunicator implements IServerCommunicator
 		}
 		catch (CommunicationException exception)
 		{
-			return false;
+			// refuse the client, which did not complete the handshake, and keep listening
+			try
+			{
+				clientSocket.close();
+			}
+			catch (IOException closeException)
+			{
+				// the client is refused either way
+			}
 		}
 		catch (InterruptedException exception)
 		{
@@ -0,0 +1,294 @@
+package shared.model.communication;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import shared.model.Key;
+import shared.model.KeyAction;
+
+/**
+ * Connects hundreds of binary clients to ServerCommunicator and to SelectorServerCommunicator and
+ * prints the number of threads each server communicator needs, the time until a broadcast message
+ * has reached every client and the time until a key message sent by a client is received by the
+ * server.  Both server communicators listen on the default port, so no game may be hosted while
+ * this runs.  This class is a development tool and is not used by the game.
+ */
+public class ServerCommunicatorSoak
+{
+	// the default number of connected clients
+	private static final int DEFAULT_NUMBER_OF_CLIENTS = 200;
+
+	// the number of broadcast and key messages measured with each server communicator
+	private static final int MEASURED_MESSAGES = 200;
+
+	// the number of messages sent before measuring
+	private static final int WARM_UP_MESSAGES = 50;
+
+	// the longest time to wait for the clients to connect or a message to arrive in milliseconds
+	private static final int TIMEOUT = 30000;
+
+	/**
+	 * Runs the soak test and prints the results for each server communicator.
+	 * @param args The number of clients, which is optional.
+	 * @throws Exception Thrown if a server communicator or a client fails.
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		int numberOfClients = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUMBER_OF_CLIENTS;
+
+		if (numberOfClients < 1)
+			throw new IllegalArgumentException();
+
+		soak("ServerCommunicator", numberOfClients, false);
+		soak("SelectorServerCommunicator", numberOfClients, true);
+	}
+
+	/**
+	 * Connects the clients to a server communicator, measures it and disconnects it.
+	 * @param name The name of the server communicator.
+	 * @param numberOfClients The number of clients.
+	 * @param selector Whether to measure SelectorServerCommunicator instead of ServerCommunicator.
+	 * @throws Exception Thrown if the server communicator or a client fails.
+	 */
+	private static void soak(String name, int numberOfClients, boolean selector) throws Exception
+	{
+		int threadsBefore = settledThreadCount();
+		IServerCommunicator serverCommunicator = selector
+				? new SelectorServerCommunicator(new MessageFactory())
+				: new ServerCommunicator(new MessageFactory());
+		Client[] clients = new Client[numberOfClients];
+
+		try
+		{
+			for (int i = 0; i < clients.length; i++)
+				clients[i] = new Client(i);
+
+			long deadline = System.currentTimeMillis() + TIMEOUT;
+			while (serverCommunicator.numberOfConnectedCommunicators() < numberOfClients)
+			{
+				if (System.currentTimeMillis() > deadline)
+					throw new IllegalStateException("The clients did not connect.");
+
+				Thread.sleep(10);
+			}
+
+			int threads = ManagementFactory.getThreadMXBean().getThreadCount() - threadsBefore;
+
+			for (int i = 0; i < WARM_UP_MESSAGES; i++)
+			{
+				broadcast(serverCommunicator, clients, i);
+				sendKey(serverCommunicator, clients[i % clients.length]);
+			}
+
+			long[] broadcastTimes = new long[MEASURED_MESSAGES];
+			long[] keyTimes = new long[MEASURED_MESSAGES];
+
+			for (int i = 0; i < MEASURED_MESSAGES; i++)
+			{
+				broadcastTimes[i] = broadcast(serverCommunicator, clients, i);
+				keyTimes[i] = sendKey(serverCommunicator, clients[i % clients.length]);
+			}
+
+			System.out.printf("%s, %d clients: %d threads, broadcast %s, key %s%n", name,
+					numberOfClients, threads, percentiles(broadcastTimes), percentiles(keyTimes));
+		}
+		finally
+		{
+			serverCommunicator.disconnect();
+
+			for (Client client : clients)
+			{
+				if (client != null)
+					client.close();
+			}
+		}
+	}
+
+	/**
+	 * Sends a message to every client and waits until every client has received it.
+	 * @param serverCommunicator The server communicator.
+	 * @param clients The clients.
+	 * @param time The time sent in the message.
+	 * @return The time until the last client received the message in nanoseconds.
+	 * @throws Exception Thrown if the server communicator or a client fails.
+	 */
+	private static long broadcast(IServerCommunicator serverCommunicator, Client[] clients, int time)
+			throws Exception
+	{
+		long start = System.nanoTime();
+		serverCommunicator.sendMessages(new GameTimeMessage(time));
+
+		for (Client client : clients)
+		{
+			IMessage message = client.receive();
+
+			if (!(message instanceof GameTimeMessage) || ((GameTimeMessage) message).time() != time)
+				throw new IllegalStateException("Unexpected message " + message + ".");
+		}
+
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Sends a key message from a client and waits until the server communicator receives it.
+	 * @param serverCommunicator The server communicator.
+	 * @param client The client.
+	 * @return The time until the server communicator received the message in nanoseconds.
+	 * @throws Exception Thrown if the server communicator or the client fails.
+	 */
+	private static long sendKey(IServerCommunicator serverCommunicator, Client client)
+			throws Exception
+	{
+		long start = System.nanoTime();
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		client.send(new KeyMessage(client.identifier, Key.UP, KeyAction.PRESS));
+
+		while (serverCommunicator.receivedMessages().length == 0)
+		{
+			if (System.currentTimeMillis() > deadline)
+				throw new IllegalStateException("The key message was not received.");
+
+			Thread.yield();
+		}
+
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Waits until the threads of a disconnected server communicator have ended and returns the
+	 * number of live threads.
+	 * @return The number of live threads.
+	 * @throws InterruptedException This should not happen.
+	 */
+	private static int settledThreadCount() throws InterruptedException
+	{
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		int threads = threadBean.getThreadCount();
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+
+		do
+		{
+			Thread.sleep(200);
+			int previousThreads = threads;
+			threads = threadBean.getThreadCount();
+
+			if (threads == previousThreads)
+				break;
+		} while (System.currentTimeMillis() < deadline);
+
+		return threads;
+	}
+
+	/**
+	 * Returns the median and the 99th percentile of times.
+	 * @param times The times in nanoseconds, which are sorted by this method.
+	 * @return The percentiles in microseconds.
+	 */
+	private static String percentiles(long[] times)
+	{
+		Arrays.sort(times);
+
+		return String.format("p50 %.0f us, p99 %.0f us", times[times.length / 2] / 1000.0,
+				times[times.length * 99 / 100] / 1000.0);
+	}
+
+	/**
+	 * A client which speaks the binary wire format over a blocking socket, so that it needs no
+	 * threads of its own.
+	 */
+	private static class Client
+	{
+		// the identifier sent in key messages
+		private final int identifier;
+
+		// the socket connected to the server communicator
+		private final Socket socket;
+
+		// the stream of the socket
+		private final InputStream inputStream;
+
+		// the codec of the binary wire format
+		private final BinaryMessageCodec codec;
+
+		// the received bytes which have not been decoded yet
+		private final ByteBuffer receiveBuffer;
+
+		// the encoded messages to send
+		private final ByteBuffer sendBuffer;
+
+		/**
+		 * Connects a new Client to the default port of the local host.
+		 * @param identifier The identifier sent in key messages.
+		 * @throws IOException Thrown if the client can not connect.
+		 */
+		public Client(int identifier) throws IOException
+		{
+			this.identifier = identifier;
+			socket = new Socket(InetAddress.getByAddress(new byte[] { 127, 0, 0, 1 }),
+					Communicator.DEFAULT_PORT);
+			socket.setTcpNoDelay(true);
+			socket.setSoTimeout(TIMEOUT);
+			socket.getOutputStream().write(WireFormat.BINARY.preamble());
+			socket.getOutputStream().flush();
+			inputStream = socket.getInputStream();
+			codec = new BinaryMessageCodec();
+			receiveBuffer = ByteBuffer.allocate(1024);
+			receiveBuffer.flip();
+			sendBuffer = ByteBuffer.allocate(IMessageCodec.MAXIMUM_ENCODED_LENGTH);
+		}
+
+		/**
+		 * Waits for the next message from the server communicator.
+		 * @return The message.
+		 * @throws IOException Thrown if the socket is closed or times out.
+		 */
+		public IMessage receive() throws IOException
+		{
+			IMessage message = codec.decode(receiveBuffer);
+
+			while (message == null)
+			{
+				receiveBuffer.compact();
+				int read = inputStream.read(receiveBuffer.array(), receiveBuffer.position(),
+						receiveBuffer.remaining());
+
+				if (read < 0)
+					throw new IOException("The server communicator closed the connection.");
+
+				receiveBuffer.position(receiveBuffer.position() + read);
+				receiveBuffer.flip();
+				message = codec.decode(receiveBuffer);
+			}
+
+			return message;
+		}
+
+		/**
+		 * Sends a message to the server communicator.
+		 * @param message The message.
+		 * @throws IOException Thrown if the message can not be sent.
+		 */
+		public void send(IMessage message) throws IOException
+		{
+			sendBuffer.clear();
+			codec.encode(message, sendBuffer);
+			socket.getOutputStream().write(sendBuffer.array(), 0, sendBuffer.position());
+			socket.getOutputStream().flush();
+		}
+
+		/**
+		 * Closes the client.
+		 * @throws IOException Thrown if the socket can not be closed.
+		 */
+		public void close() throws IOException
+		{
+			socket.close();
+		}
+	}
+}
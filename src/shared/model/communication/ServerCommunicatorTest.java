@@ -14,6 +14,7 @@ import java.util.concurrent.Semaphore;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
@@ -236,6 +237,57 @@ public class ServerCommunicatorTest
 		verify(mockCommunicator2).sendMessage(mockMessage1);
 	}
 
+	/**
+	 * Ensures sendMessageBatch sends every message, in order, to each
+	 * connected communicator.
+	 * 
+	 * @throws Exception
+	 *             This shouldn't happen.
+	 */
+	@Test
+	public void testSendMessageBatchMultipleConnectedCommunicators()
+			throws Exception
+	{
+		// get the communicator into the test state
+		when(mockServerSocket.accept()).thenReturn(mockSocket1);
+		testServerCommunicator.accept();
+		when(mockServerSocket.accept()).thenReturn(mockSocket2);
+		testServerCommunicator.accept();
+
+		// perform the test
+		testServerCommunicator.sendMessageBatch(new IMessage[] { mockMessage1,
+				mockMessage2 });
+		InOrder inOrder = inOrder(mockCommunicator1);
+		inOrder.verify(mockCommunicator1).sendMessage(mockMessage1);
+		inOrder.verify(mockCommunicator1).sendMessage(mockMessage2);
+		verify(mockCommunicator2).sendMessage(mockMessage1);
+		verify(mockCommunicator2).sendMessage(mockMessage2);
+	}
+
+	/**
+	 * Ensures sendMessageBatch throws a NullPointerException when one of the
+	 * messages is null, without sending any of them.
+	 * 
+	 * @throws Exception
+	 *             This should be a NullPointerException
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testSendMessageBatchMessageNull() throws Exception
+	{
+		when(mockServerSocket.accept()).thenReturn(mockSocket1);
+		testServerCommunicator.accept();
+
+		try
+		{
+			testServerCommunicator.sendMessageBatch(new IMessage[] {
+					mockMessage1, null });
+		}
+		finally
+		{
+			verify(mockCommunicator1, never()).sendMessage(mockMessage1);
+		}
+	}
+
 	/**
 	 * Ensures the sendMessages method sends the message only to the connected
 	 * communicators when multiple communicators are connected and then one is
@@ -553,6 +605,26 @@ public class ServerCommunicatorTest
 		assertFalse(testServerCommunicator.accept());
 	}
 
+	/**
+	 * Ensures accept closes the socket of a client which does not complete the
+	 * handshake, and keeps listening.
+	 * 
+	 * @throws Exception
+	 *             This shouldn't happen.
+	 */
+	@Test
+	public void testAcceptHandshakeFails() throws Exception
+	{
+		PowerMockito.whenNew(Communicator.class).withArguments(
+				mockMessageFactory, mockSocket1).thenThrow(
+				new CommunicationException("test"));
+		when(mockServerSocket.accept()).thenReturn(mockSocket1);
+
+		assertTrue(testServerCommunicator.accept());
+		verify(mockSocket1).close();
+		assertEquals(0, testServerCommunicator.numberOfConnectedCommunicators());
+	}
+
 	/**
 	 * Ensures accept returns false if the mutex throws an InterruptedException.
 	 * 
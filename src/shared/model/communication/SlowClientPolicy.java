@@ -0,0 +1,33 @@
+package shared.model.communication;
+
+/**
+ * The ways a SelectorServerCommunicator treats a slow client, one whose queued bytes have reached
+ * their maximum because it reads them more slowly than they are sent.  Whatever the policy, the
+ * messages sent to the other clients, and the time taken to send them, are not affected by the
+ * slow client.
+ */
+public enum SlowClientPolicy
+{
+	/**
+	 * Position updates are held back instead of being queued, keeping only the latest one of each
+	 * game object, and are sent once the client has caught up with half of its queue.  The other
+	 * messages are still queued, and the client is disconnected if they fill its queue several
+	 * times over.  The changes of a snapshot are never held back, since the snapshot counts the
+	 * messages which follow it.
+	 */
+	DROP_SUPERSEDED_UPDATES,
+
+	/**
+	 * The frames queued for the client which have not started to be written are dropped, and the
+	 * client is only sent the messages which are not part of a snapshot until a batch carries a
+	 * keyframe, which is sent whole to bring the client back in step.  This policy suits games
+	 * replicated as snapshots, which send keyframes periodically; a client of a game replicated as
+	 * events would miss the changes in the dropped frames.
+	 */
+	RESYNC,
+
+	/**
+	 * The client is disconnected.
+	 */
+	DISCONNECT
+}
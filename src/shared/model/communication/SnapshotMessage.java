@@ -0,0 +1,100 @@
+package shared.model.communication;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A Message which starts a snapshot of the game state in the snapshot replication mode.  The
+ * snapshot is made of the messages which follow this one: they are the changes which turn the state
+ * of the baseline tick into the state of the snapshot tick, or the whole state if the snapshot is a
+ * keyframe.
+ */
+public class SnapshotMessage implements IMessage
+{
+	/**
+	 * The baseline tick of a keyframe, which is a snapshot of the whole state.
+	 */
+	public static final int KEYFRAME = -1;
+
+	// the tick of the snapshot
+	private final int tick;
+
+	// the tick of the state the changes are relative to, or KEYFRAME
+	private final int baselineTick;
+
+	// the number of messages which follow this one in the snapshot
+	private final int numberOfChanges;
+
+	/**
+	 * Creates a new SnapshotMessage.
+	 * @param tick The tick of the snapshot.
+	 * @param baselineTick The tick of the state the changes are relative to, or KEYFRAME.
+	 * @param numberOfChanges The number of messages which follow this one in the snapshot.
+	 * @throws IllegalArgumentException Thrown if the tick or number of changes is negative, or if
+	 * the baseline tick is neither KEYFRAME nor a tick before the snapshot tick.
+	 */
+	public SnapshotMessage(int tick, int baselineTick, int numberOfChanges)
+	{
+		if (tick < 0 || baselineTick < KEYFRAME || baselineTick >= tick && baselineTick != KEYFRAME
+				|| numberOfChanges < 0)
+			throw new IllegalArgumentException();
+
+		this.tick = tick;
+		this.baselineTick = baselineTick;
+		this.numberOfChanges = numberOfChanges;
+	}
+
+	/**
+	 * Returns the tick of the snapshot.
+	 * @return The tick of the snapshot.
+	 */
+	public int tick()
+	{
+		return tick;
+	}
+
+	/**
+	 * Returns the tick of the state the changes are relative to.
+	 * @return The tick of the baseline state, or KEYFRAME if the snapshot is a keyframe.
+	 */
+	public int baselineTick()
+	{
+		return baselineTick;
+	}
+
+	/**
+	 * Returns true if the snapshot holds the whole state rather than changes to a baseline.
+	 * @return True if the snapshot is a keyframe and false otherwise.
+	 */
+	public boolean keyframe()
+	{
+		return baselineTick == KEYFRAME;
+	}
+
+	/**
+	 * Returns the number of messages which follow this one in the snapshot.
+	 * @return The number of messages in the snapshot.
+	 */
+	public int numberOfChanges()
+	{
+		return numberOfChanges;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public String toString()
+	{
+		return "SNAPSHOT " + tick() + " " + baselineTick() + " " + numberOfChanges();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void writeTo(ByteBuffer buffer)
+	{
+		TextMessageWriter.putWord(buffer, "SNAPSHOT");
+		TextMessageWriter.putArgument(buffer, tick());
+		TextMessageWriter.putArgument(buffer, baselineTick());
+		TextMessageWriter.putArgument(buffer, numberOfChanges());
+	}
+}
@@ -0,0 +1,62 @@
+package shared.model.communication;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests SnapshotMessage
+ */
+public class SnapshotMessageTest
+{
+	/**
+	 * Ensures the constructor and accessor methods work correctly.
+	 */
+	@Test
+	public void sanityCheck()
+	{
+		SnapshotMessage message = new SnapshotMessage(60, 57, 4);
+		assertEquals(60, message.tick());
+		assertEquals(57, message.baselineTick());
+		assertEquals(4, message.numberOfChanges());
+		assertFalse(message.keyframe());
+	}
+
+	/**
+	 * Ensures a snapshot without a baseline is a keyframe.
+	 */
+	@Test
+	public void testKeyframe()
+	{
+		SnapshotMessage message = new SnapshotMessage(0, SnapshotMessage.KEYFRAME, 0);
+		assertTrue(message.keyframe());
+	}
+
+	/**
+	 * Ensures the baseline has to be before the snapshot.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testBaselineAfterTick()
+	{
+		new SnapshotMessage(10, 10, 0);
+	}
+
+	/**
+	 * Ensures the number of changes can not be negative.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeNumberOfChanges()
+	{
+		new SnapshotMessage(10, 9, -1);
+	}
+
+	/**
+	 * Ensures toString() produces a valid string.
+	 */
+	@Test
+	public void testToString()
+	{
+		SnapshotMessage message = new SnapshotMessage(60, -1, 4);
+		assertEquals("SNAPSHOT 60 -1 4", message.toString());
+	}
+}
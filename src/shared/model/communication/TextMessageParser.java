@@ -0,0 +1,587 @@
+package shared.model.communication;
+
+import shared.model.GameObjectType;
+import shared.model.Key;
+import shared.model.KeyAction;
+import shared.model.communication.GameMessage.Action;
+
+/**
+ * Parses messages in the text format produced by their toString methods.  A message is parsed in
+ * place from a range of a character array, such as the buffer a reader fills: its words are
+ * located by index, keywords are looked up in perfect hash tables and numbers are accumulated digit
+ * by digit, so no objects other than the message itself are allocated and no exceptions are
+ * thrown for valid input.  The parser is stateless and may be shared between threads.
+ */
+public class TextMessageParser
+{
+	// the message keywords, indexed by the codes used to dispatch on them
+	private static final String[] MESSAGE_KEYWORDS = { "GAME_OBJECT_CREATED",
+			"GAME_OBJECT_DESTROYED", "SCORE_UPDATED", "GAME_OBJECT_POSITION_UPDATED", "KEY", "GAME",
+			"PLAYER_GAME_OBJECT_IDENTIFIER", "STATUS", "GAME_TIME", "SNAPSHOT", "ACKNOWLEDGEMENT", "BOARD",
+			"JOIN_ROOM" };
+
+	// the codes of the message keywords
+	private static final int GAME_OBJECT_CREATED = 0;
+	private static final int GAME_OBJECT_DESTROYED = 1;
+	private static final int SCORE_UPDATED = 2;
+	private static final int GAME_OBJECT_POSITION_UPDATED = 3;
+	private static final int KEY = 4;
+	private static final int GAME = 5;
+	private static final int PLAYER_GAME_OBJECT_IDENTIFIER = 6;
+	private static final int STATUS = 7;
+	private static final int GAME_TIME = 8;
+	private static final int SNAPSHOT = 9;
+	private static final int ACKNOWLEDGEMENT = 10;
+	private static final int BOARD = 11;
+	private static final int JOIN_ROOM = 12;
+
+	// the enumerated values indexed by their ordinal
+	private static final GameObjectType[] GAME_OBJECT_TYPES = GameObjectType.values();
+	private static final Key[] KEYS = Key.values();
+	private static final KeyAction[] KEY_ACTIONS = KeyAction.values();
+	private static final Action[] ACTIONS = Action.values();
+
+	// the lookup tables of the keywords and enumerated values
+	private static final KeywordTable MESSAGE_TABLE = new KeywordTable(MESSAGE_KEYWORDS);
+	private static final KeywordTable GAME_OBJECT_TYPE_TABLE = new KeywordTable(GAME_OBJECT_TYPES);
+	private static final KeywordTable KEY_TABLE = new KeywordTable(KEYS);
+	private static final KeywordTable KEY_ACTION_TABLE = new KeywordTable(KEY_ACTIONS);
+	private static final KeywordTable ACTION_TABLE = new KeywordTable(ACTIONS);
+
+	// the largest number of digits of an int
+	private static final int MAXIMUM_DIGITS = 10;
+
+	/**
+	 * Parses the message held by a range of characters, such as a line in the buffer of a reader.
+	 * Words are separated by single spaces, and spaces after the last word are ignored.
+	 * @param text The characters.
+	 * @param start The index of the first character of the message.
+	 * @param end The index after the last character of the message.
+	 * @return The message.
+	 * @throws NullPointerException Thrown if the text is null.
+	 * @throws IndexOutOfBoundsException Thrown if the range is not within the text.
+	 * @throws IllegalArgumentException Thrown if the characters are not a message.
+	 */
+	public IMessage parse(char[] text, int start, int end)
+	{
+		if (text == null)
+			throw new NullPointerException();
+
+		if (start < 0 || end > text.length || start > end)
+			throw new IndexOutOfBoundsException();
+
+		int wordEnd = wordEnd(text, start, end);
+		int keyword = MESSAGE_TABLE.indexOf(text, start, wordEnd);
+
+		switch (keyword)
+		{
+			case GAME_OBJECT_CREATED:
+			{
+				int wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int identifier = parseInt(text, wordStart, wordEnd);
+
+				wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				GameObjectType type = GAME_OBJECT_TYPES[lookUp(GAME_OBJECT_TYPE_TABLE, text,
+						wordStart, wordEnd)];
+
+				wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int row = parseInt(text, wordStart, wordEnd);
+
+				wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int column = parseInt(text, wordStart, wordEnd);
+
+				checkEnd(text, wordEnd, end);
+				return new GameObjectCreatedMessage(identifier, type, row, column);
+			}
+
+			case GAME_OBJECT_DESTROYED:
+			{
+				int wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int identifier = parseInt(text, wordStart, wordEnd);
+
+				checkEnd(text, wordEnd, end);
+				return new GameObjectDestroyedMessage(identifier);
+			}
+
+			case SCORE_UPDATED:
+			{
+				int wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int identifier = parseInt(text, wordStart, wordEnd);
+
+				wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int score = parseInt(text, wordStart, wordEnd);
+
+				checkEnd(text, wordEnd, end);
+				return new ScoreUpdatedMessage(identifier, score);
+			}
+
+			case GAME_OBJECT_POSITION_UPDATED:
+			{
+				int wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int identifier = parseInt(text, wordStart, wordEnd);
+
+				wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int row = parseInt(text, wordStart, wordEnd);
+
+				wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int column = parseInt(text, wordStart, wordEnd);
+
+				checkEnd(text, wordEnd, end);
+				return new GameObjectUpdatedMessage(identifier, row, column);
+			}
+
+			case KEY:
+			{
+				int wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int identifier = parseInt(text, wordStart, wordEnd);
+
+				wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				Key key = KEYS[lookUp(KEY_TABLE, text, wordStart, wordEnd)];
+
+				wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				KeyAction action = KEY_ACTIONS[lookUp(KEY_ACTION_TABLE, text, wordStart, wordEnd)];
+
+				checkEnd(text, wordEnd, end);
+				return new KeyMessage(identifier, key, action);
+			}
+
+			case GAME:
+			{
+				int wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				Action action = ACTIONS[lookUp(ACTION_TABLE, text, wordStart, wordEnd)];
+
+				wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int players = parseInt(text, wordStart, wordEnd);
+
+				// the board size is only sent when it is not the default size
+				if (atEnd(text, wordEnd, end))
+					return new GameMessage(action, players);
+
+				wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int rows = parseInt(text, wordStart, wordEnd);
+
+				wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int columns = parseInt(text, wordStart, wordEnd);
+
+				checkEnd(text, wordEnd, end);
+				return new GameMessage(action, players, rows, columns);
+			}
+
+			case PLAYER_GAME_OBJECT_IDENTIFIER:
+			{
+				int wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int identifier = parseInt(text, wordStart, wordEnd);
+
+				checkEnd(text, wordEnd, end);
+				return new PlayerGameObjectIdentifierMessage(identifier);
+			}
+
+			case STATUS:
+			{
+				checkEnd(text, wordEnd, end);
+				return new HelloMessage();
+			}
+
+			case GAME_TIME:
+			{
+				int wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int time = parseInt(text, wordStart, wordEnd);
+
+				checkEnd(text, wordEnd, end);
+				return new GameTimeMessage(time);
+			}
+
+			case SNAPSHOT:
+			{
+				int wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int tick = parseInt(text, wordStart, wordEnd);
+
+				wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int baselineTick = parseInt(text, wordStart, wordEnd);
+
+				wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int changes = parseInt(text, wordStart, wordEnd);
+
+				checkEnd(text, wordEnd, end);
+				return new SnapshotMessage(tick, baselineTick, changes);
+			}
+
+			case ACKNOWLEDGEMENT:
+			{
+				int wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int identifier = parseInt(text, wordStart, wordEnd);
+
+				wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int tick = parseInt(text, wordStart, wordEnd);
+
+				checkEnd(text, wordEnd, end);
+				return new AcknowledgementMessage(identifier, tick);
+			}
+
+			case BOARD:
+			{
+				int wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int firstSpace = parseInt(text, wordStart, wordEnd);
+
+				wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int firstIdentifier = parseInt(text, wordStart, wordEnd);
+
+				wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				IMessage message = parseBoard(text, wordStart, wordEnd, firstSpace, firstIdentifier);
+
+				checkEnd(text, wordEnd, end);
+				return message;
+			}
+
+			case JOIN_ROOM:
+			{
+				int wordStart = nextWord(text, wordEnd, end);
+				wordEnd = wordEnd(text, wordStart, end);
+				int room = parseInt(text, wordStart, wordEnd);
+
+				checkEnd(text, wordEnd, end);
+				return new JoinRoomMessage(room);
+			}
+
+			default:
+				throw new IllegalArgumentException("The message type is unknown.");
+		}
+	}
+
+	/**
+	 * Private helper method which parses the runs of a board snapshot, each of which is a letter
+	 * optionally preceded by its length.
+	 * @param text The characters.
+	 * @param start The index of the first character of the runs.
+	 * @param end The index after the last character of the runs.
+	 * @param firstSpace The first space of the runs.
+	 * @param firstIdentifier The identifier of the first game object.
+	 * @return The message.
+	 * @throws IllegalArgumentException Thrown if the characters are not runs of a board snapshot.
+	 */
+	private static IMessage parseBoard(char[] text, int start, int end, int firstSpace,
+			int firstIdentifier)
+	{
+		GameObjectType[] runTypes = new GameObjectType[BoardSnapshotMessage.MAXIMUM_RUNS];
+		int[] runLengths = new int[BoardSnapshotMessage.MAXIMUM_RUNS];
+		int numberOfRuns = 0;
+		int index = start;
+
+		while (index < end)
+		{
+			int lengthStart = index;
+
+			while (index < end && text[index] >= '0' && text[index] <= '9')
+				index++;
+
+			if (index == end || numberOfRuns == runTypes.length)
+				throw new IllegalArgumentException("The runs in the message could not be decoded.");
+
+			runLengths[numberOfRuns] = lengthStart == index ? 1 : parseInt(text, lengthStart, index);
+			runTypes[numberOfRuns] = BoardSnapshotMessage.tileType(text[index]);
+			numberOfRuns++;
+			index++;
+		}
+
+		GameObjectType[] types = new GameObjectType[numberOfRuns];
+		int[] lengths = new int[numberOfRuns];
+		System.arraycopy(runTypes, 0, types, 0, numberOfRuns);
+		System.arraycopy(runLengths, 0, lengths, 0, numberOfRuns);
+		return new BoardSnapshotMessage(firstSpace, firstIdentifier, types, lengths);
+	}
+
+	/**
+	 * Private helper method which returns the index after the word starting at an index.
+	 * @param text The characters.
+	 * @param start The index of the first character of the word.
+	 * @param end The index after the last character of the message.
+	 * @return The index of the space after the word, or end if it is the last word.
+	 */
+	private static int wordEnd(char[] text, int start, int end)
+	{
+		int index = start;
+
+		while (index < end && text[index] != ' ')
+			index++;
+
+		return index;
+	}
+
+	/**
+	 * Private helper method which returns the start of the word after the word ending at an index.
+	 * @param text The characters.
+	 * @param wordEnd The index after the previous word.
+	 * @param end The index after the last character of the message.
+	 * @return The index of the first character of the next word.
+	 * @throws IllegalArgumentException Thrown if there is no next word.
+	 */
+	private static int nextWord(char[] text, int wordEnd, int end)
+	{
+		if (atEnd(text, wordEnd, end))
+			throw new IllegalArgumentException("Incorrect number of arguments in message.");
+
+		return wordEnd + 1;
+	}
+
+	/**
+	 * Private helper method which returns true if only spaces follow the word ending at an index.
+	 * @param text The characters.
+	 * @param wordEnd The index after the word.
+	 * @param end The index after the last character of the message.
+	 * @return True if the word is the last word and false otherwise.
+	 */
+	private static boolean atEnd(char[] text, int wordEnd, int end)
+	{
+		for (int index = wordEnd; index < end; index++)
+		{
+			if (text[index] != ' ')
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Private helper method which ensures no word follows the last argument of a message.
+	 * @param text The characters.
+	 * @param wordEnd The index after the last argument.
+	 * @param end The index after the last character of the message.
+	 * @throws IllegalArgumentException Thrown if another word follows.
+	 */
+	private static void checkEnd(char[] text, int wordEnd, int end)
+	{
+		if (!atEnd(text, wordEnd, end))
+			throw new IllegalArgumentException("Incorrect number of arguments in message.");
+	}
+
+	/**
+	 * Private helper method which parses a decimal int with an optional sign.
+	 * @param text The characters.
+	 * @param start The index of the first character of the number.
+	 * @param end The index after the last character of the number.
+	 * @return The number.
+	 * @throws IllegalArgumentException Thrown if the characters are not an int.
+	 */
+	private static int parseInt(char[] text, int start, int end)
+	{
+		int index = start;
+		boolean negative = false;
+
+		if (index < end && (text[index] == '-' || text[index] == '+'))
+		{
+			negative = text[index] == '-';
+			index++;
+		}
+
+		if (index == end || end - index > MAXIMUM_DIGITS)
+			throw new IllegalArgumentException("A number in the message could not be decoded.");
+
+		// accumulate the number as a long so that overflow can be detected once at the end
+		long value = 0;
+
+		for (; index < end; index++)
+		{
+			int digit = text[index] - '0';
+
+			if (digit < 0 || digit > 9)
+				throw new IllegalArgumentException("A number in the message could not be decoded.");
+
+			value = value * 10 + digit;
+		}
+
+		if (negative)
+			value = -value;
+
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("A number in the message could not be decoded.");
+
+		return (int) value;
+	}
+
+	/**
+	 * Private helper method which looks up a word in a table.
+	 * @param table The table.
+	 * @param text The characters.
+	 * @param start The index of the first character of the word.
+	 * @param end The index after the last character of the word.
+	 * @return The index of the word in the table.
+	 * @throws IllegalArgumentException Thrown if the word is not in the table.
+	 */
+	private static int lookUp(KeywordTable table, char[] text, int start, int end)
+	{
+		int index = table.indexOf(text, start, end);
+
+		if (index < 0)
+			throw new IllegalArgumentException("A word in the message could not be decoded.");
+
+		return index;
+	}
+
+	/**
+	 * A perfect hash table of a fixed set of keywords.  The table size is the smallest power of two
+	 * for which the hashes of the keywords all fall in different slots, so a lookup hashes the word,
+	 * reads one slot and compares the word with the keyword in it.
+	 */
+	private static final class KeywordTable
+	{
+		// the largest table size which is tried
+		private static final int MAXIMUM_SIZE = 1 << 12;
+
+		// the characters of the keywords by slot, or null for empty slots
+		private final char[][] keywords;
+
+		// the index of the keyword in each slot
+		private final int[] indices;
+
+		// the mask which maps a hash to a slot
+		private final int mask;
+
+		/**
+		 * Creates a table of the names of enumerated values, whose indices are their ordinals.
+		 * @param values The enumerated values in ordinal order.
+		 */
+		KeywordTable(Enum<?>[] values)
+		{
+			this(names(values));
+		}
+
+		/**
+		 * Creates a table of keywords.
+		 * @param keywords The keywords, whose indices are returned by lookups.
+		 * @throws IllegalArgumentException Thrown if no table size up to MAXIMUM_SIZE separates the
+		 * keywords.
+		 */
+		KeywordTable(String[] keywords)
+		{
+			int size = Integer.highestOneBit(Math.max(1, keywords.length * 2 - 1)) << 1;
+
+			while (size <= MAXIMUM_SIZE && !perfect(keywords, size - 1))
+				size <<= 1;
+
+			if (size > MAXIMUM_SIZE)
+				throw new IllegalArgumentException("The keywords have colliding hashes.");
+
+			this.keywords = new char[size][];
+			this.indices = new int[size];
+			this.mask = size - 1;
+
+			for (int i = 0; i < keywords.length; i++)
+			{
+				char[] keyword = keywords[i].toCharArray();
+				int slot = hash(keyword, 0, keyword.length) & mask;
+				this.keywords[slot] = keyword;
+				this.indices[slot] = i;
+			}
+		}
+
+		/**
+		 * Returns the index of a word in the table.
+		 * @param text The characters.
+		 * @param start The index of the first character of the word.
+		 * @param end The index after the last character of the word.
+		 * @return The index of the keyword, or -1 if the word is not a keyword.
+		 */
+		int indexOf(char[] text, int start, int end)
+		{
+			int slot = hash(text, start, end) & mask;
+			char[] keyword = keywords[slot];
+
+			if (keyword == null || keyword.length != end - start)
+				return -1;
+
+			for (int i = 0; i < keyword.length; i++)
+			{
+				if (keyword[i] != text[start + i])
+					return -1;
+			}
+
+			return indices[slot];
+		}
+
+		/**
+		 * Returns true if the keywords fall in different slots of a table.
+		 * @param keywords The keywords.
+		 * @param mask The mask of the table.
+		 * @return True if every keyword has its own slot and false otherwise.
+		 */
+		private static boolean perfect(String[] keywords, int mask)
+		{
+			boolean[] used = new boolean[mask + 1];
+
+			for (String keyword : keywords)
+			{
+				char[] characters = keyword.toCharArray();
+				int slot = hash(characters, 0, characters.length) & mask;
+
+				if (used[slot])
+					return false;
+
+				used[slot] = true;
+			}
+
+			return true;
+		}
+
+		/**
+		 * Returns the hash of a word, which mixes its length with its first, middle and last
+		 * characters.
+		 * @param text The characters.
+		 * @param start The index of the first character of the word.
+		 * @param end The index after the last character of the word.
+		 * @return The hash of the word.
+		 */
+		private static int hash(char[] text, int start, int end)
+		{
+			int length = end - start;
+
+			if (length == 0)
+				return 0;
+
+			int hash = length * 0x9E3779B1 + text[start] * 31 + text[start + length / 2]
+					* 961 + text[end - 1] * 29791;
+			return hash ^ (hash >>> 15);
+		}
+
+		/**
+		 * Returns the names of enumerated values.
+		 * @param values The enumerated values.
+		 * @return The names of the values.
+		 */
+		private static String[] names(Enum<?>[] values)
+		{
+			String[] names = new String[values.length];
+
+			for (int i = 0; i < values.length; i++)
+				names[i] = values[i].name();
+
+			return names;
+		}
+	}
+}
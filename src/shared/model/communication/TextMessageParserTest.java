@@ -0,0 +1,183 @@
+package shared.model.communication;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import shared.model.GameObjectType;
+import shared.model.Key;
+import shared.model.KeyAction;
+
+/**
+ * Tests TextMessageParser.  Messages do not override equals, so parsed messages are compared
+ * through their text form.
+ */
+public class TextMessageParserTest
+{
+	// the test parser
+	private TextMessageParser parser;
+
+	/**
+	 * Sets up the tests.
+	 */
+	@Before
+	public void setUp()
+	{
+		parser = new TextMessageParser();
+	}
+
+	/**
+	 * Ensures the text form of every type of message is parsed to the same message.
+	 */
+	@Test
+	public void testParseEveryMessage()
+	{
+		IMessage[] messages = {
+				new GameObjectCreatedMessage(3, GameObjectType.BREAKABLE_BLOCK, 15, 21),
+				new GameObjectDestroyedMessage(300),
+				new GameObjectUpdatedMessage(Integer.MAX_VALUE, 200, 0),
+				new ScoreUpdatedMessage(0, -3),
+				new ScoreUpdatedMessage(-1, Integer.MIN_VALUE),
+				new KeyMessage(7, Key.SPACE, KeyAction.DEPRESS),
+				new GameMessage(GameMessage.Action.START, 4),
+				new GameMessage(GameMessage.Action.STOP, 2, 101, 201),
+				new PlayerGameObjectIdentifierMessage(12),
+				new GameTimeMessage(1800),
+				new HelloMessage(),
+				new SnapshotMessage(500, 497, 12),
+				new SnapshotMessage(0, SnapshotMessage.KEYFRAME, 300),
+				new AcknowledgementMessage(5, 499),
+				new BoardSnapshotMessage(40, 7, new GameObjectType[] {
+						GameObjectType.UNBREAKABLE_BLOCK, null, GameObjectType.BREAKABLE_BLOCK },
+						new int[] { 15, 2, 1 }),
+				new JoinRoomMessage(3) };
+
+		for (IMessage message : messages)
+			assertEquals(message.toString(), parse(message.toString()).toString());
+	}
+
+	/**
+	 * Ensures messages are parsed from ranges of a larger buffer, such as the lines of a stream.
+	 */
+	@Test
+	public void testParseRange()
+	{
+		char[] stream = "KEY 1 UP PRESS\nGAME_OBJECT_DESTROYED 42\nGAME_TIME 7\n".toCharArray();
+
+		assertEquals("KEY 1 UP PRESS", parser.parse(stream, 0, 14).toString());
+		assertEquals("GAME_OBJECT_DESTROYED 42", parser.parse(stream, 15, 39).toString());
+		assertEquals("GAME_TIME 7", parser.parse(stream, 40, 51).toString());
+	}
+
+	/**
+	 * Ensures spaces after the last word are ignored.
+	 */
+	@Test
+	public void testParseTrailingSpaces()
+	{
+		assertEquals("SCORE_UPDATED 2 9", parse("SCORE_UPDATED 2 9   ").toString());
+		assertEquals("GAME WAITING 1", parse("GAME WAITING 1 ").toString());
+	}
+
+	/**
+	 * Ensures numbers with an explicit sign are parsed.
+	 */
+	@Test
+	public void testParseSignedNumbers()
+	{
+		assertEquals("SCORE_UPDATED 2 -9", parse("SCORE_UPDATED +2 -9").toString());
+	}
+
+	/**
+	 * Ensures parse throws an IllegalArgumentException for a number which does not fit in an int.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseOverflow()
+	{
+		parse("GAME_TIME 2147483648");
+	}
+
+	/**
+	 * Ensures parse throws an IllegalArgumentException for a sign without digits.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseSignOnly()
+	{
+		parse("GAME_TIME -");
+	}
+
+	/**
+	 * Ensures parse throws an IllegalArgumentException when words are separated by two spaces.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseEmptyWord()
+	{
+		parse("GAME_OBJECT_DESTROYED  4");
+	}
+
+	/**
+	 * Ensures parse throws an IllegalArgumentException for a keyword which differs from a known
+	 * keyword in one character.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseUnknownKeyword()
+	{
+		parse("KEX 1 UP PRESS");
+	}
+
+	/**
+	 * Ensures parse throws an IllegalArgumentException for an unknown enumerated value.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseUnknownKey()
+	{
+		parse("KEY 1 JUMP PRESS");
+	}
+
+	/**
+	 * Ensures parse throws an IllegalArgumentException when an argument is missing.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseMissingArgument()
+	{
+		parse("GAME_OBJECT_POSITION_UPDATED 1 2");
+	}
+
+	/**
+	 * Ensures parse throws an IllegalArgumentException when a game message has four arguments.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseGameMessageWithoutColumns()
+	{
+		parse("GAME START 4 17");
+	}
+
+	/**
+	 * Ensures parse throws a NullPointerException when the text is null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testParseNull()
+	{
+		parser.parse(null, 0, 0);
+	}
+
+	/**
+	 * Ensures parse throws an IndexOutOfBoundsException when the range is not within the text.
+	 */
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testParseRangeOutOfBounds()
+	{
+		parser.parse("STATUS".toCharArray(), 0, 7);
+	}
+
+	/**
+	 * Helper method which parses the whole of a string.
+	 * @param text The string.
+	 * @return The parsed message.
+	 */
+	private IMessage parse(String text)
+	{
+		return parser.parse(text.toCharArray(), 0, text.length());
+	}
+}
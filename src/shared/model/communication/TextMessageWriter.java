@@ -0,0 +1,76 @@
+package shared.model.communication;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writes the words of messages in the text format, as ASCII bytes, directly into a buffer.  Numbers
+ * are written digit by digit, so writing a message allocates no strings.  This class is the
+ * counterpart of TextMessageParser and is only used by the messages of this package.
+ */
+final class TextMessageWriter
+{
+	// the decimal digits of the smallest integer, which can not be negated
+	private static final String MINIMUM_INTEGER = Integer.toString(Integer.MIN_VALUE);
+
+	/**
+	 * Private constructor, since this class only has static methods.
+	 */
+	private TextMessageWriter()
+	{
+	}
+
+	/**
+	 * Writes a word made of ASCII characters.
+	 * @param buffer The buffer.
+	 * @param word The word.
+	 * @throws java.nio.BufferOverflowException Thrown if the buffer does not have enough room.
+	 */
+	public static void putWord(ByteBuffer buffer, String word)
+	{
+		for (int i = 0; i < word.length(); i++)
+			buffer.put((byte) word.charAt(i));
+	}
+
+	/**
+	 * Writes a space followed by a word made of ASCII characters.
+	 * @param buffer The buffer.
+	 * @param word The word.
+	 * @throws java.nio.BufferOverflowException Thrown if the buffer does not have enough room.
+	 */
+	public static void putArgument(ByteBuffer buffer, String word)
+	{
+		buffer.put((byte) ' ');
+		putWord(buffer, word);
+	}
+
+	/**
+	 * Writes a space followed by an integer in decimal, with a minus sign if it is negative.
+	 * @param buffer The buffer.
+	 * @param value The integer.
+	 * @throws java.nio.BufferOverflowException Thrown if the buffer does not have enough room.
+	 */
+	public static void putArgument(ByteBuffer buffer, int value)
+	{
+		buffer.put((byte) ' ');
+
+		if (value == Integer.MIN_VALUE)
+		{
+			putWord(buffer, MINIMUM_INTEGER);
+			return;
+		}
+
+		if (value < 0)
+		{
+			buffer.put((byte) '-');
+			value = -value;
+		}
+
+		// find the weight of the leading digit, then write the digits from the most significant
+		int weight = 1;
+		while (weight <= value / 10)
+			weight *= 10;
+
+		for (; weight > 0; weight /= 10)
+			buffer.put((byte) ('0' + value / weight % 10));
+	}
+}
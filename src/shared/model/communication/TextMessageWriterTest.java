@@ -0,0 +1,100 @@
+package shared.model.communication;
+
+import static org.junit.Assert.*;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import shared.model.GameObjectType;
+import shared.model.Key;
+import shared.model.KeyAction;
+
+/**
+ * Tests TextMessageWriter, and that each message writes the same text as its toString.
+ */
+public class TextMessageWriterTest
+{
+	// the test buffer
+	private ByteBuffer buffer;
+
+	/**
+	 * Sets up the tests.
+	 */
+	@Before
+	public void setUp()
+	{
+		buffer = ByteBuffer.allocate(IMessage.MAXIMUM_TEXT_LENGTH);
+	}
+
+	/**
+	 * Ensures putWord writes the characters of the word.
+	 * @throws UnsupportedEncodingException This should not happen.
+	 */
+	@Test
+	public void testPutWord() throws UnsupportedEncodingException
+	{
+		TextMessageWriter.putWord(buffer, "GAME_TIME");
+		TextMessageWriter.putArgument(buffer, "BOMB");
+		assertEquals("GAME_TIME BOMB", written());
+	}
+
+	/**
+	 * Ensures putArgument writes integers the way Integer.toString does.
+	 * @throws UnsupportedEncodingException This should not happen.
+	 */
+	@Test
+	public void testPutArgumentInteger() throws UnsupportedEncodingException
+	{
+		int[] values = { 0, 7, 10, 99, 100, 123456, -1, -45, -1000, Integer.MAX_VALUE,
+				Integer.MIN_VALUE };
+
+		for (int value : values)
+		{
+			buffer.clear();
+			TextMessageWriter.putArgument(buffer, value);
+			assertEquals(" " + value, written());
+		}
+	}
+
+	/**
+	 * Ensures every message writes exactly its toString, within MAXIMUM_TEXT_LENGTH bytes.
+	 * @throws UnsupportedEncodingException This should not happen.
+	 */
+	@Test
+	public void testWriteTo() throws UnsupportedEncodingException
+	{
+		IMessage[] messages = {
+				new GameMessage(GameMessage.Action.START, 4),
+				new GameMessage(GameMessage.Action.START, 2, 51, 75),
+				new GameObjectCreatedMessage(Integer.MAX_VALUE, GameObjectType.BOMB, 5, 13),
+				new GameObjectDestroyedMessage(Integer.MAX_VALUE),
+				new GameObjectUpdatedMessage(Integer.MAX_VALUE, Integer.MAX_VALUE,
+						Integer.MAX_VALUE),
+				new GameTimeMessage(Integer.MIN_VALUE),
+				new GameTimeMessage(-1),
+				new HelloMessage(),
+				new KeyMessage(Integer.MAX_VALUE, Key.SPACE, KeyAction.DEPRESS),
+				new PlayerGameObjectIdentifierMessage(Integer.MAX_VALUE),
+				new ScoreUpdatedMessage(Integer.MAX_VALUE, Integer.MIN_VALUE) };
+
+		for (IMessage message : messages)
+		{
+			buffer.clear();
+			message.writeTo(buffer);
+			assertEquals(message.toString(), written());
+		}
+	}
+
+	/**
+	 * Private helper method which returns the text written into the test buffer.
+	 * @return The written text.
+	 * @throws UnsupportedEncodingException This should not happen.
+	 */
+	private String written() throws UnsupportedEncodingException
+	{
+		return new String(buffer.array(), 0, buffer.position(), "US-ASCII");
+	}
+}
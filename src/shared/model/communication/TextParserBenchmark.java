@@ -0,0 +1,211 @@
+package shared.model.communication;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import server.model.Game;
+import server.model.GameBenchmark;
+import server.model.GameObjectFactory;
+import shared.model.GameObjectType;
+import shared.model.Key;
+import shared.model.KeyAction;
+
+/**
+ * Compares ways of parsing a recorded stream of text messages: the messages sent by a game from
+ * its start to the end of its match.  The stream is parsed line by line by splitting each line and
+ * decoding its words, which is how MessageFactory used to parse messages, line by line by
+ * MessageFactory, and in place from the stream's characters by TextMessageParser.  The benchmark
+ * prints the average time and heap allocation of parsing one message.  This class is a
+ * development tool and is not used by the game.
+ */
+public class TextParserBenchmark
+{
+	// the names of the measured parsers
+	private static final String[] PARSER_NAMES = { "split and decode", "MessageFactory",
+			"TextMessageParser in place" };
+
+	// the number of times the stream is parsed by each parser before measuring
+	private static final int WARM_UP_ROUNDS = 100;
+
+	// the number of rounds in which every parser is measured, so no parser is always measured first
+	private static final int MEASURED_ROUNDS = 5;
+
+	// the number of times the stream is parsed by each parser in each round
+	private static final int MEASURED_PARSES = 40;
+
+	/**
+	 * Runs the benchmark and prints the results for each parser.
+	 * @param args This program ignores any command line arguments.
+	 * @throws CommunicationException This should not happen.
+	 */
+	public static void main(String[] args) throws CommunicationException
+	{
+		String[] lines = recordStream();
+
+		StringBuilder builder = new StringBuilder();
+		for (String line : lines)
+			builder.append(line).append('\n');
+		char[] stream = builder.toString().toCharArray();
+
+		for (int parser = 0; parser < PARSER_NAMES.length; parser++)
+			parse(parser, lines, stream, WARM_UP_ROUNDS);
+
+		System.out.printf("%d messages, %d characters%n", lines.length, stream.length);
+
+		long[] times = new long[PARSER_NAMES.length];
+		long[] allocatedBytes = new long[PARSER_NAMES.length];
+
+		for (int round = 0; round < MEASURED_ROUNDS; round++)
+		{
+			for (int parser = 0; parser < PARSER_NAMES.length; parser++)
+			{
+				long allocatedBytesBefore = allocatedBytes();
+				times[parser] += parse(parser, lines, stream, MEASURED_PARSES);
+				allocatedBytes[parser] += allocatedBytes() - allocatedBytesBefore;
+			}
+		}
+
+		long messages = (long) lines.length * MEASURED_PARSES * MEASURED_ROUNDS;
+
+		for (int parser = 0; parser < PARSER_NAMES.length; parser++)
+		{
+			System.out.printf("%s: %.0f ns/message, %d allocated bytes/message%n",
+					PARSER_NAMES[parser], (double) times[parser] / messages,
+					allocatedBytes[parser] / messages);
+		}
+	}
+
+	/**
+	 * Records the text of the messages sent by a game from its start to the end of its match.
+	 * @return The recorded lines.
+	 * @throws CommunicationException This should not happen.
+	 */
+	private static String[] recordStream() throws CommunicationException
+	{
+		final ArrayList<String> lines = new ArrayList<String>();
+
+		Game game = new Game(new GameBenchmark.RandomKeyCommunicator(0)
+		{
+			@Override
+			public void sendMessages(IMessage message)
+			{
+				lines.add(message.toString());
+			}
+
+			@Override
+			public void sendMessageBatch(IMessage[] messages)
+			{
+				for (IMessage message : messages)
+					lines.add(message.toString());
+			}
+		}, new GameObjectFactory());
+
+		while (game.numberOfRemainingSteps() > 0)
+			game.step();
+
+		return lines.toArray(new String[lines.size()]);
+	}
+
+	/**
+	 * Parses the stream with one of the parsers.
+	 * @param parser The index of the parser in PARSER_NAMES.
+	 * @param lines The lines of the stream, as read by a BufferedReader.
+	 * @param stream The characters of the stream.
+	 * @param rounds The number of times the stream is parsed.
+	 * @return The time taken in nanoseconds.
+	 */
+	private static long parse(int parser, String[] lines, char[] stream, int rounds)
+	{
+		MessageFactory factory = new MessageFactory();
+		TextMessageParser textParser = new TextMessageParser();
+		int parsed = 0;
+		long start = System.nanoTime();
+
+		for (int round = 0; round < rounds; round++)
+		{
+			if (parser == 2)
+			{
+				// parse each line where it lies in the stream
+				int lineStart = 0;
+
+				for (int index = 0; index < stream.length; index++)
+				{
+					if (stream[index] == '\n')
+					{
+						parsed += textParser.parse(stream, lineStart, index) != null ? 1 : 0;
+						lineStart = index + 1;
+					}
+				}
+			}
+			else
+			{
+				for (String line : lines)
+				{
+					IMessage message = parser == 0 ? splitAndDecode(line) : factory.createMessage(line);
+					parsed += message != null ? 1 : 0;
+				}
+			}
+		}
+
+		long time = System.nanoTime() - start;
+
+		// keep the parsed messages observable so no parser is optimized away
+		if (parsed != lines.length * rounds)
+			throw new IllegalStateException();
+
+		return time;
+	}
+
+	/**
+	 * Parses a line the way MessageFactory used to: by splitting it into words and decoding each
+	 * number with Integer.decode and each enumerated value with valueOf.
+	 * @param line The line.
+	 * @return The message.
+	 */
+	private static IMessage splitAndDecode(String line)
+	{
+		String[] words = line.split(" ");
+
+		if (words[0].equals("GAME_OBJECT_CREATED"))
+			return new GameObjectCreatedMessage(Integer.decode(words[1]),
+					GameObjectType.valueOf(words[2]), Integer.decode(words[3]), Integer.decode(words[4]));
+		else if (words[0].equals("GAME_OBJECT_DESTROYED"))
+			return new GameObjectDestroyedMessage(Integer.decode(words[1]));
+		else if (words[0].equals("SCORE_UPDATED"))
+			return new ScoreUpdatedMessage(Integer.decode(words[1]), Integer.decode(words[2]));
+		else if (words[0].equals("GAME_OBJECT_POSITION_UPDATED"))
+			return new GameObjectUpdatedMessage(Integer.decode(words[1]), Integer.decode(words[2]),
+					Integer.decode(words[3]));
+		else if (words[0].equals("KEY"))
+			return new KeyMessage(Integer.decode(words[1]), Key.valueOf(words[2]),
+					KeyAction.valueOf(words[3]));
+		else if (words[0].equals("GAME"))
+			return new GameMessage(GameMessage.Action.valueOf(words[1]), Integer.valueOf(words[2]));
+		else if (words[0].equals("PLAYER_GAME_OBJECT_IDENTIFIER"))
+			return new PlayerGameObjectIdentifierMessage(Integer.decode(words[1]));
+		else if (words[0].equals("GAME_TIME"))
+			return new GameTimeMessage(Integer.decode(words[1]));
+		else if (words[0].equals("STATUS"))
+			return new HelloMessage();
+
+		throw new IllegalArgumentException(Arrays.toString(words));
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the current thread, if the virtual machine can
+	 * measure it.
+	 * @return The number of bytes allocated by the current thread, or 0 if it can not be measured.
+	 */
+	private static long allocatedBytes()
+	{
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+		if (!(threadBean instanceof com.sun.management.ThreadMXBean))
+			return 0;
+
+		return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread
+				.currentThread().getId());
+	}
+}
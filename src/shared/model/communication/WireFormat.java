@@ -0,0 +1,58 @@
+package shared.model.communication;
+
+/**
+ * The formats in which messages can be sent over a connection.  A client announces the format of
+ * its connection by sending the format's preamble byte as soon as it connects, and the server uses
+ * the same format for the rest of the connection.
+ */
+public enum WireFormat
+{
+	/**
+	 * Messages are sent as lines of text created by their toString method and parsed by an
+	 * IMessageFactory.
+	 */
+	TEXT('T'),
+
+	/**
+	 * Messages are sent as compact frames encoded by a BinaryMessageCodec.
+	 */
+	BINARY('B');
+
+	// the byte which announces the format
+	private final byte preamble;
+
+	/**
+	 * Creates a WireFormat.
+	 * @param preamble The byte which announces the format.
+	 */
+	private WireFormat(char preamble)
+	{
+		this.preamble = (byte) preamble;
+	}
+
+	/**
+	 * Returns the byte which announces the format at the start of a connection.
+	 * @return The byte which announces the format.
+	 */
+	public byte preamble()
+	{
+		return preamble;
+	}
+
+	/**
+	 * Returns the format announced by the provided preamble byte.
+	 * @param preamble The preamble byte, as returned by InputStream.read.
+	 * @return The format announced by the preamble.
+	 * @throws IllegalArgumentException Thrown if the byte does not announce a format.
+	 */
+	public static WireFormat forPreamble(int preamble)
+	{
+		for (WireFormat wireFormat : values())
+		{
+			if (wireFormat.preamble == preamble)
+				return wireFormat;
+		}
+
+		throw new IllegalArgumentException("Unknown wire format.");
+	}
+}
@@ -0,0 +1,144 @@
+package shared.model.communication;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import server.model.Game;
+import server.model.GameBenchmark;
+import server.model.GameObjectFactory;
+import shared.model.GameConfiguration;
+
+/**
+ * Compares the text and binary wire formats on the burst of messages a game sends when it starts.
+ * For boards of several sizes the benchmark prints the number of bytes the burst takes in each
+ * format and the average time taken to decode one of its messages.  This class is a development
+ * tool and is not used by the game.
+ */
+public class WireFormatBenchmark
+{
+	// the sizes of the measured boards
+	private static final int[] BOARD_SIZES = { 17, 51, 101 };
+
+	// the number of times each burst is decoded before measuring
+	private static final int WARM_UP_ROUNDS = 200;
+
+	// the number of times each burst is decoded while measuring
+	private static final int MEASURED_ROUNDS = 100;
+
+	/**
+	 * Runs the benchmark and prints the results for each board size.
+	 * @param args This program ignores any command line arguments.
+	 * @throws CommunicationException This should not happen.
+	 */
+	public static void main(String[] args) throws CommunicationException
+	{
+		for (int size : BOARD_SIZES)
+		{
+			int columns = size == GameConfiguration.DEFAULT_NUMBER_OF_ROWS
+					? GameConfiguration.DEFAULT_NUMBER_OF_COLUMNS : size;
+			IMessage[] burst = startBurst(new GameConfiguration(size, columns,
+					GameConfiguration.DEFAULT_BREAKABLE_BLOCK_DENSITY,
+					GameConfiguration.DEFAULT_MAXIMUM_NUMBER_OF_PLAYERS, 0));
+
+			String[] lines = new String[burst.length];
+			int textBytes = 0;
+
+			for (int i = 0; i < burst.length; i++)
+			{
+				lines[i] = burst[i].toString();
+				textBytes += lines[i].length() + 1;
+			}
+
+			BinaryMessageCodec codec = new BinaryMessageCodec();
+			ByteBuffer buffer = ByteBuffer.allocate(burst.length * IMessageCodec.MAXIMUM_ENCODED_LENGTH);
+
+			for (IMessage message : burst)
+				codec.encode(message, buffer);
+
+			buffer.flip();
+
+			decodeText(lines, WARM_UP_ROUNDS);
+			decodeBinary(codec, buffer, WARM_UP_ROUNDS);
+			long textTime = decodeText(lines, MEASURED_ROUNDS);
+			long binaryTime = decodeBinary(codec, buffer, MEASURED_ROUNDS);
+			long decodedMessages = (long) burst.length * MEASURED_ROUNDS;
+
+			System.out.printf("%dx%d, %d messages: text %d bytes, %.0f ns/message; "
+					+ "binary %d bytes, %.0f ns/message%n", size, columns, burst.length, textBytes,
+					(double) textTime / decodedMessages, buffer.remaining(),
+					(double) binaryTime / decodedMessages);
+		}
+	}
+
+	/**
+	 * Returns the messages sent by a game with the provided configuration when it starts.
+	 * @param configuration The configuration of the game.
+	 * @return The messages sent when the game starts.
+	 * @throws CommunicationException This should not happen.
+	 */
+	private static IMessage[] startBurst(GameConfiguration configuration)
+			throws CommunicationException
+	{
+		final ArrayList<IMessage> messages = new ArrayList<IMessage>();
+
+		new Game(new GameBenchmark.RandomKeyCommunicator(0)
+		{
+			@Override
+			public void sendMessages(IMessage message)
+			{
+				messages.add(message);
+			}
+
+			@Override
+			public void sendMessageBatch(IMessage[] batch)
+			{
+				messages.addAll(Arrays.asList(batch));
+			}
+		}, new GameObjectFactory(false, configuration.tickRate()), configuration);
+
+		return messages.toArray(new IMessage[messages.size()]);
+	}
+
+	/**
+	 * Parses the lines of a burst with a MessageFactory.
+	 * @param lines The lines.
+	 * @param rounds The number of times the lines are parsed.
+	 * @return The time taken in nanoseconds.
+	 */
+	private static long decodeText(String[] lines, int rounds)
+	{
+		MessageFactory factory = new MessageFactory();
+		long start = System.nanoTime();
+
+		for (int round = 0; round < rounds; round++)
+		{
+			for (String line : lines)
+				factory.createMessage(line);
+		}
+
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Decodes the binary messages of a burst.
+	 * @param codec The codec.
+	 * @param buffer The buffer holding the encoded burst, whose position is left unchanged.
+	 * @param rounds The number of times the messages are decoded.
+	 * @return The time taken in nanoseconds.
+	 */
+	private static long decodeBinary(BinaryMessageCodec codec, ByteBuffer buffer, int rounds)
+	{
+		long start = System.nanoTime();
+
+		for (int round = 0; round < rounds; round++)
+		{
+			ByteBuffer messages = buffer.duplicate();
+
+			while (messages.hasRemaining())
+				codec.decode(messages);
+		}
+
+		return System.nanoTime() - start;
+	}
+}